@@ -3,6 +3,7 @@ package controllers;
 import akka.actor.ActorSystem;
 import akka.stream.ActorMaterializer;
 import akka.stream.Materializer;
+import akka.stream.javadsl.Source;
 import akka.util.ByteString;
 import auth.Authenticator;
 import com.datahub.authentication.AuthenticationConstants;
@@ -16,10 +17,14 @@ import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import play.api.Play;
 import play.http.HttpEntity;
-import play.libs.ws.InMemoryBodyWritable;
+import play.libs.F;
+import play.libs.streams.Accumulator;
+import play.libs.ws.SourceBodyWritable;
 import play.libs.ws.StandaloneWSClient;
+import play.libs.ws.StandaloneWSRequest;
 import play.libs.Json;
 import play.libs.ws.ahc.StandaloneAhcWSClient;
+import play.mvc.BodyParser;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.ResponseHeader;
@@ -81,11 +86,13 @@ public class Application extends Controller {
   }
 
   /**
-   * Proxies requests to the Metadata Service
+   * Proxies requests to the Metadata Service. Request and response bodies are streamed through rather than buffered,
+   * so large GraphQL results and downloads are neither held in memory nor delayed until complete.
    *
    * TODO: Investigate using mutual SSL authentication to call Metadata Service.
    */
   @Security.Authenticated(Authenticator.class)
+  @BodyParser.Of(StreamingBodyParser.class)
   public CompletableFuture<Result> proxy(String path) throws ExecutionException, InterruptedException {
     final String authorizationHeaderValue = getAuthorizationHeaderValueToProxy();
     final String resolvedUri = mapPath(request().uri());
@@ -107,38 +114,63 @@ public class Application extends Controller {
     // TODO: Fully support custom internal SSL.
     final String protocol = metadataServiceUseSsl ? "https" : "http";
 
-    return _ws.url(String.format("%s://%s:%s%s", protocol, metadataServiceHost, metadataServicePort, resolvedUri))
+    StandaloneWSRequest proxyRequest =
+        _ws.url(String.format("%s://%s:%s%s", protocol, metadataServiceHost, metadataServicePort, resolvedUri))
         .setMethod(request().method())
         .setHeaders(request()
             .getHeaders()
             .toMap()
             .entrySet()
             .stream()
-            // Remove X-DataHub-Actor to prevent malicious delegation.
-            .filter(entry -> !AuthenticationConstants.LEGACY_X_DATAHUB_ACTOR_HEADER.equals(entry.getKey()))
-            .filter(entry -> !Http.HeaderNames.CONTENT_LENGTH.equals(entry.getKey()))
-            .filter(entry -> !Http.HeaderNames.CONTENT_TYPE.equals(entry.getKey()))
-            .filter(entry -> !Http.HeaderNames.AUTHORIZATION.equals(entry.getKey()))
+            // Remove X-DataHub-Actor to prevent malicious delegation. Header names are case-insensitive.
+            .filter(entry -> !AuthenticationConstants.LEGACY_X_DATAHUB_ACTOR_HEADER.equalsIgnoreCase(entry.getKey()))
+            // The framing of the streamed body is set by the client
+            .filter(entry -> !Http.HeaderNames.CONTENT_LENGTH.equalsIgnoreCase(entry.getKey()))
+            .filter(entry -> !Http.HeaderNames.TRANSFER_ENCODING.equalsIgnoreCase(entry.getKey()))
+            .filter(entry -> !Http.HeaderNames.CONTENT_TYPE.equalsIgnoreCase(entry.getKey()))
+            .filter(entry -> !Http.HeaderNames.AUTHORIZATION.equalsIgnoreCase(entry.getKey()))
             .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue))
         )
         .addHeader(Http.HeaderNames.AUTHORIZATION, authorizationHeaderValue)
         .addHeader(AuthenticationConstants.LEGACY_X_DATAHUB_ACTOR_HEADER, getDataHubActorHeader())
-        .setBody(new InMemoryBodyWritable(ByteString.fromByteBuffer(request().body().asBytes().asByteBuffer()), "application/json"))
-        .setRequestTimeout(Duration.ofSeconds(120))
-        .execute()
+        .addHeader(Http.HeaderNames.CONTENT_TYPE, "application/json")
+        .setRequestTimeout(Duration.ofMillis(ConfigUtil.getInt(
+            _config,
+            ConfigUtil.METADATA_SERVICE_PROXY_REQUEST_TIMEOUT_CONFIG_PATH,
+            ConfigUtil.DEFAULT_METADATA_SERVICE_PROXY_REQUEST_TIMEOUT_MS)));
+    if (request().hasBody()) {
+      proxyRequest = proxyRequest.setBody(new SourceBodyWritable(request().body().as(Source.class)));
+    }
+
+    return proxyRequest.stream()
         .thenApply(apiResponse -> {
           final ResponseHeader header = new ResponseHeader(apiResponse.getStatus(), apiResponse.getHeaders()
               .entrySet()
               .stream()
-              .filter(entry -> !Http.HeaderNames.CONTENT_LENGTH.equals(entry.getKey()))
-              .filter(entry -> !Http.HeaderNames.CONTENT_TYPE.equals(entry.getKey()))
+              // The framing of the body is set by the streamed entity
+              .filter(entry -> !Http.HeaderNames.CONTENT_LENGTH.equalsIgnoreCase(entry.getKey()))
+              .filter(entry -> !Http.HeaderNames.CONTENT_TYPE.equalsIgnoreCase(entry.getKey()))
+              .filter(entry -> !Http.HeaderNames.TRANSFER_ENCODING.equalsIgnoreCase(entry.getKey()))
               .map(entry -> Pair.of(entry.getKey(), String.join(";", entry.getValue())))
               .collect(Collectors.toMap(Pair::getFirst, Pair::getSecond)));
-          final HttpEntity body = new HttpEntity.Strict(apiResponse.getBodyAsBytes(), Optional.ofNullable(apiResponse.getContentType()));
+          final HttpEntity body = new HttpEntity.Streamed(
+              apiResponse.getBodyAsSource(),
+              apiResponse.getSingleHeader(Http.HeaderNames.CONTENT_LENGTH).map(Long::parseLong),
+              Optional.ofNullable(apiResponse.getContentType()));
           return new Result(header, body);
         }).toCompletableFuture();
   }
 
+  /**
+   * Exposes the request body as a stream instead of buffering it, so that it can be forwarded as it is received.
+   */
+  public static class StreamingBodyParser implements BodyParser<Source<ByteString, ?>> {
+    @Override
+    public Accumulator<ByteString, F.Either<Result, Source<ByteString, ?>>> apply(Http.RequestHeader request) {
+      return Accumulator.<ByteString>source().map(F.Either::Right, Runnable::run);
+    }
+  }
+
   /**
    * Creates a wrapping ObjectNode containing config information
    *
@@ -244,6 +276,22 @@ public class Application extends Controller {
             .setMaxRequestRetry(0)
             .setShutdownQuietPeriod(0)
             .setShutdownTimeout(0)
+            .setMaxConnections(ConfigUtil.getInt(
+                _config,
+                ConfigUtil.METADATA_SERVICE_PROXY_MAX_CONNECTIONS_CONFIG_PATH,
+                ConfigUtil.DEFAULT_METADATA_SERVICE_PROXY_MAX_CONNECTIONS))
+            .setMaxConnectionsPerHost(ConfigUtil.getInt(
+                _config,
+                ConfigUtil.METADATA_SERVICE_PROXY_MAX_CONNECTIONS_PER_HOST_CONFIG_PATH,
+                ConfigUtil.DEFAULT_METADATA_SERVICE_PROXY_MAX_CONNECTIONS_PER_HOST))
+            .setConnectTimeout(ConfigUtil.getInt(
+                _config,
+                ConfigUtil.METADATA_SERVICE_PROXY_CONNECT_TIMEOUT_CONFIG_PATH,
+                ConfigUtil.DEFAULT_METADATA_SERVICE_PROXY_CONNECT_TIMEOUT_MS))
+            .setReadTimeout(ConfigUtil.getInt(
+                _config,
+                ConfigUtil.METADATA_SERVICE_PROXY_READ_TIMEOUT_CONFIG_PATH,
+                ConfigUtil.DEFAULT_METADATA_SERVICE_PROXY_READ_TIMEOUT_MS))
             .build();
     AsyncHttpClient asyncHttpClient = new DefaultAsyncHttpClient(asyncHttpClientConfig);
     return new StandaloneAhcWSClient(asyncHttpClient, materializer);
@@ -0,0 +1,161 @@
+package controllers;
+
+import akka.actor.ActorSystem;
+import akka.stream.ActorMaterializer;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import akka.util.ByteString;
+import com.datahub.authentication.AuthenticationConstants;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpServer;
+import com.typesafe.config.Config;
+import com.typesafe.config.ConfigFactory;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import play.libs.F;
+import play.mvc.Http;
+import play.mvc.Result;
+import play.test.Helpers;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import utils.ConfigUtil;
+
+import static auth.AuthUtils.ACTOR;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class ApplicationProxyTest {
+  private static final long BODY_SIZE = 16L * 1024 * 1024;
+  private static final int CHUNK_SIZE = 64 * 1024;
+
+  private HttpServer _upstream;
+  private ExecutorService _upstreamExecutor;
+  private CountDownLatch _upstreamResumed;
+  private AtomicReference<Headers> _upstreamRequestHeaders;
+  private ActorSystem _actorSystem;
+  private Materializer _materializer;
+
+  @BeforeMethod
+  public void setup() throws Exception {
+    _upstreamResumed = new CountDownLatch(1);
+    _upstreamRequestHeaders = new AtomicReference<>();
+    _upstream = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    // Stub Metadata Service writing a large body, which stops after its first chunk until the test resumes it
+    _upstream.createContext("/download", exchange -> {
+      exchange.getResponseHeaders().add(Http.HeaderNames.CONTENT_TYPE, "application/octet-stream");
+      exchange.sendResponseHeaders(200, BODY_SIZE);
+      final byte[] chunk = new byte[CHUNK_SIZE];
+      try (OutputStream outputStream = exchange.getResponseBody()) {
+        outputStream.write(chunk);
+        outputStream.flush();
+        _upstreamResumed.await(1, TimeUnit.MINUTES);
+        for (long written = CHUNK_SIZE; written < BODY_SIZE; written += CHUNK_SIZE) {
+          outputStream.write(chunk, 0, (int) Math.min(CHUNK_SIZE, BODY_SIZE - written));
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    _upstream.createContext("/headers", exchange -> {
+      _upstreamRequestHeaders.set(exchange.getRequestHeaders());
+      exchange.sendResponseHeaders(204, -1);
+      exchange.close();
+    });
+    _upstreamExecutor = Executors.newCachedThreadPool();
+    _upstream.setExecutor(_upstreamExecutor);
+    _upstream.start();
+
+    _actorSystem = ActorSystem.create("applicationProxyTest");
+    _materializer = ActorMaterializer.create(_actorSystem);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _upstreamResumed.countDown();
+    _upstream.stop(0);
+    _upstreamExecutor.shutdownNow();
+    _actorSystem.terminate();
+  }
+
+  @Test
+  public void testProxyStreamsResponses() throws Exception {
+    final Result result = proxy(new Http.RequestBuilder().method("GET").uri("/download"));
+
+    // The response is answered while the upstream body is still incomplete, so it is not buffered
+    assertEquals(result.status(), 200);
+    assertEquals(result.body().contentLength().orElse(-1L).longValue(), BODY_SIZE);
+
+    _upstreamResumed.countDown();
+    final long receivedBytes = result.body()
+        .dataStream()
+        .runWith(Sink.fold(0L, (received, bytes) -> received + bytes.size()), _materializer)
+        .toCompletableFuture()
+        .get(1, TimeUnit.MINUTES);
+    assertEquals(receivedBytes, BODY_SIZE);
+  }
+
+  @Test
+  public void testProxyRemovesHeadersCaseInsensitively() throws Exception {
+    final Result result = proxy(new Http.RequestBuilder().method("GET")
+        .uri("/headers")
+        .session(ACTOR, "urn:li:corpuser:actor")
+        .header(AuthenticationConstants.LEGACY_X_DATAHUB_ACTOR_HEADER.toLowerCase(), "urn:li:corpuser:impersonated")
+        .header("x-custom", "value"));
+
+    assertEquals(result.status(), 204);
+    final Headers headers = _upstreamRequestHeaders.get();
+    assertEquals(headers.get(AuthenticationConstants.LEGACY_X_DATAHUB_ACTOR_HEADER),
+        Collections.singletonList("urn:li:corpuser:actor"));
+    assertEquals(headers.get("X-Custom"), Collections.singletonList("value"));
+  }
+
+  @Test
+  public void testStreamingBodyParser() throws Exception {
+    final CompletableFuture<ByteString> remainingBody = new CompletableFuture<>();
+    final Source<ByteString, ?> requestBody = Source.single(ByteString.fromString("first,"))
+        .concat(Source.fromCompletionStage(remainingBody));
+
+    // The body is exposed as a stream before it is fully received
+    final F.Either<Result, Source<ByteString, ?>> parsedBody = new Application.StreamingBodyParser()
+        .apply(new Http.RequestBuilder().method("POST").build())
+        .run(requestBody, _materializer)
+        .toCompletableFuture()
+        .get(10, TimeUnit.SECONDS);
+    assertFalse(parsedBody.left.isPresent());
+    assertTrue(parsedBody.right.isPresent());
+
+    final CompletableFuture<ByteString> forwardedBody = parsedBody.right.get()
+        .runWith(Sink.fold(ByteString.empty(), ByteString::concat), _materializer)
+        .toCompletableFuture();
+    remainingBody.complete(ByteString.fromString("second"));
+    assertEquals(forwardedBody.get(10, TimeUnit.SECONDS).utf8String(), "first,second");
+  }
+
+  private Result proxy(Http.RequestBuilder requestBuilder) throws Exception {
+    final Map<String, Object> configs = new HashMap<>();
+    configs.put(ConfigUtil.METADATA_SERVICE_HOST_CONFIG_PATH, "localhost");
+    configs.put(ConfigUtil.METADATA_SERVICE_PORT_CONFIG_PATH, _upstream.getAddress().getPort());
+    final Config config = ConfigFactory.parseMap(configs);
+    final Application application = new Application(config);
+
+    Http.Context.current.set(new Http.Context(requestBuilder, Helpers.contextComponents()));
+    try {
+      return application.proxy(requestBuilder.uri()).get(30, TimeUnit.SECONDS);
+    } finally {
+      Http.Context.current.remove();
+    }
+  }
+}
@@ -1,10 +1,17 @@
 package com.linkedin.datahub.graphql;
 
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
 import com.linkedin.datahub.graphql.exception.DataHubDataFetcherExceptionHandler;
+import com.linkedin.datahub.graphql.execution.CachingPreparsedDocumentProvider;
+import com.linkedin.datahub.graphql.execution.QueryCostInstrumentation;
 import graphql.ExecutionInput;
 import graphql.ExecutionResult;
 import graphql.GraphQL;
+import graphql.execution.instrumentation.ChainedInstrumentation;
 import graphql.execution.instrumentation.tracing.TracingInstrumentation;
+import graphql.language.Field;
+import graphql.language.OperationDefinition;
 import graphql.schema.GraphQLSchema;
 import graphql.schema.idl.RuntimeWiring;
 import graphql.schema.idl.SchemaGenerator;
@@ -14,6 +21,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -32,15 +40,24 @@ import static graphql.schema.idl.RuntimeWiring.*;
  * schemas, {@link DataLoader}s, & a configured {@link RuntimeWiring}.
  *
  * <p>In addition, it provides a simplified 'execute' API that accepts a 1) query string and 2) set of variables.
+ *
+ * <p>Parsed and validated queries are cached, and queries above the configured max depth or estimated cost are
+ * rejected before being executed.
  */
 public class GraphQLEngine {
 
     private final GraphQL _graphQL;
+    // Same engine, also tracing the execution of every field
+    private final GraphQL _tracingGraphQL;
+    private final CachingPreparsedDocumentProvider _preparsedDocumentProvider;
     private final Map<String, Function<QueryContext, DataLoader<?, ?>>> _dataLoaderSuppliers;
 
     private GraphQLEngine(@Nonnull final List<String> schemas,
                           @Nonnull final RuntimeWiring runtimeWiring,
-                          @Nonnull final Map<String, Function<QueryContext, DataLoader<?, ?>>> dataLoaderSuppliers) {
+                          @Nonnull final Map<String, Function<QueryContext, DataLoader<?, ?>>> dataLoaderSuppliers,
+                          final int maxQueryDepth,
+                          final int maxQueryCost,
+                          final long preparsedDocumentCacheSize) {
 
         _dataLoaderSuppliers = dataLoaderSuppliers;
 
@@ -60,15 +77,31 @@ public class GraphQLEngine {
         /*
          * Instantiate engine
          */
+        _preparsedDocumentProvider = new CachingPreparsedDocumentProvider(preparsedDocumentCacheSize);
+        final QueryCostInstrumentation queryCostInstrumentation = new QueryCostInstrumentation(maxQueryDepth, maxQueryCost);
         _graphQL = new GraphQL.Builder(graphQLSchema)
             .defaultDataFetcherExceptionHandler(new DataHubDataFetcherExceptionHandler())
-            .instrumentation(new TracingInstrumentation())
+            .preparsedDocumentProvider(_preparsedDocumentProvider)
+            .instrumentation(queryCostInstrumentation)
             .build();
+        _tracingGraphQL = _graphQL.transform(builder -> builder.instrumentation(
+            new ChainedInstrumentation(ImmutableList.of(queryCostInstrumentation, new TracingInstrumentation()))));
     }
 
     public ExecutionResult execute(@Nonnull final String query,
                                    @Nullable final Map<String, Object> variables,
                                    @Nonnull final QueryContext context) {
+        return execute(query, variables, context, false);
+    }
+
+    /**
+     * Executes a query, adding the trace of the execution of every field to the "tracing" extension of the result if
+     * requested.
+     */
+    public ExecutionResult execute(@Nonnull final String query,
+                                   @Nullable final Map<String, Object> variables,
+                                   @Nonnull final QueryContext context,
+                                   final boolean tracing) {
         /*
          * Init DataLoaderRegistry - should be created for each request.
          */
@@ -87,13 +120,31 @@ public class GraphQLEngine {
         /*
          * Execute GraphQL Query
          */
-        return _graphQL.execute(executionInput);
+        return (tracing ? _tracingGraphQL : _graphQL).execute(executionInput);
     }
 
     public GraphQL getGraphQL() {
         return _graphQL;
     }
 
+    /**
+     * Returns the name of the first top level field selected by a query executed before, which is one of the fields of
+     * the schema whatever the aliases of the query. Empty if the query was invalid or is no longer cached.
+     */
+    public Optional<String> getTopLevelFieldName(@Nonnull final String query) {
+        return _preparsedDocumentProvider.getValidDocument(query)
+            .flatMap(document -> document.getDefinitionsOfType(OperationDefinition.class).stream().findFirst())
+            .flatMap(operation -> operation.getSelectionSet().getSelectionsOfType(Field.class).stream().findFirst())
+            .map(Field::getName);
+    }
+
+    /**
+     * Returns the hit and miss counts of the cache of parsed and validated queries.
+     */
+    public CacheStats getPreparsedDocumentCacheStats() {
+        return _preparsedDocumentProvider.getStats();
+    }
+
     public static Builder builder() {
         return new Builder();
     }
@@ -106,6 +157,9 @@ public class GraphQLEngine {
         private final List<String> _schemas = new ArrayList<>();
         private final Map<String, Function<QueryContext, DataLoader<?, ?>>> _loaderSuppliers = new HashMap<>();
         private final RuntimeWiring.Builder _runtimeWiringBuilder = newRuntimeWiring();
+        private int _maxQueryDepth = 0;
+        private int _maxQueryCost = 0;
+        private long _preparsedDocumentCacheSize = 1000;
 
         /**
          * Used to add a schema file containing the GQL types resolved by the engine.
@@ -153,11 +207,41 @@ public class GraphQLEngine {
             return this;
         }
 
+        /**
+         * Used to reject the queries nested deeper than the given depth, top level fields being at depth 1.
+         *
+         * 0, the default, does not limit the depth.
+         */
+        public Builder setMaxQueryDepth(final int maxQueryDepth) {
+            _maxQueryDepth = maxQueryDepth;
+            return this;
+        }
+
+        /**
+         * Used to reject the queries whose estimated cost is above the given one. Each field costs 1 plus the cost of
+         * its sub fields, multiplied by the number of results it asks for through a "count" argument.
+         *
+         * 0, the default, does not limit the cost.
+         */
+        public Builder setMaxQueryCost(final int maxQueryCost) {
+            _maxQueryCost = maxQueryCost;
+            return this;
+        }
+
+        /**
+         * Used to configure the number of distinct queries whose parsed and validated documents are cached.
+         */
+        public Builder setPreparsedDocumentCacheSize(final long preparsedDocumentCacheSize) {
+            _preparsedDocumentCacheSize = preparsedDocumentCacheSize;
+            return this;
+        }
+
         /**
          * Builds a {@link GraphQLEngine}.
          */
         public GraphQLEngine build() {
-            return new GraphQLEngine(_schemas, _runtimeWiringBuilder.build(), _loaderSuppliers);
+            return new GraphQLEngine(_schemas, _runtimeWiringBuilder.build(), _loaderSuppliers, _maxQueryDepth,
+                _maxQueryCost, _preparsedDocumentCacheSize);
         }
     }
 
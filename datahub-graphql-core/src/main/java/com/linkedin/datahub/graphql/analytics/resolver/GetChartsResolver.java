@@ -4,7 +4,9 @@ import com.datahub.authentication.Authentication;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.datahub.graphql.analytics.service.AnalyticsService;
+import com.linkedin.datahub.graphql.analytics.service.AnalyticsService.ChartQuery;
 import com.linkedin.datahub.graphql.analytics.service.AnalyticsUtil;
 import com.linkedin.datahub.graphql.generated.AnalyticsChart;
 import com.linkedin.datahub.graphql.generated.AnalyticsChartGroup;
@@ -22,44 +24,142 @@ import com.linkedin.entity.client.EntityClient;
 import com.linkedin.metadata.Constants;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
 import org.joda.time.DateTime;
 
 
 /**
  * Retrieves the Charts to be rendered of the Analytics screen of the DataHub application.
+ *
+ * <p>The aggregations of all the charts are fetched in a single multi search request, then the charts are built
+ * concurrently, which includes fetching the display names of the entities they show. Charts are cached for a small
+ * fraction of their time buckets, so that successive page views do not recompute them.
  */
 @Slf4j
-@RequiredArgsConstructor
 public final class GetChartsResolver implements DataFetcher<List<AnalyticsChartGroup>> {
 
+  private static final int CHART_POOL_SIZE = 5;
+  // About 1/200 of the buckets of the charts, and of the week of the charts without buckets
+  private static final Duration WEEKLY_CHART_TTL = Duration.ofHours(1);
+  private static final Duration DAILY_CHART_TTL = Duration.ofMinutes(5);
+
   private final AnalyticsService _analyticsService;
   private final EntityClient _entityClient;
+  private final ExecutorService _chartExecutor;
+  private final Map<String, CachedChart> _chartCache = new ConcurrentHashMap<>();
+
+  public GetChartsResolver(AnalyticsService analyticsService, EntityClient entityClient) {
+    _analyticsService = analyticsService;
+    _entityClient = entityClient;
+    final ThreadPoolExecutor chartExecutor = new ThreadPoolExecutor(CHART_POOL_SIZE, CHART_POOL_SIZE, 60L,
+        TimeUnit.SECONDS, new ArrayBlockingQueue<>(CHART_POOL_SIZE * 4),
+        new ThreadFactoryBuilder().setNameFormat("analytics-chart-%d").setDaemon(true).build(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    chartExecutor.allowCoreThreadTimeOut(true);
+    _chartExecutor = chartExecutor;
+  }
 
   @Override
   public final List<AnalyticsChartGroup> get(DataFetchingEnvironment environment) throws Exception {
     Authentication authentication = ResolverUtils.getAuthentication(environment);
+    final List<ChartSpec<?>> productAnalyticsCharts = getProductAnalyticsCharts(authentication);
+    final List<ChartSpec<?>> globalMetadataAnalyticsCharts = getGlobalMetadataAnalyticsCharts(authentication);
+    final List<ChartSpec<?>> allCharts = new ArrayList<>(productAnalyticsCharts);
+    allCharts.addAll(globalMetadataAnalyticsCharts);
+    final Map<String, Optional<AnalyticsChart>> charts = getCharts(allCharts);
+
     return ImmutableList.of(AnalyticsChartGroup.builder()
         .setGroupId("DataHubUsageAnalytics")
         .setTitle("DataHub Usage Analytics")
-        .setCharts(getProductAnalyticsCharts(authentication))
+        .setCharts(collectCharts(productAnalyticsCharts, charts))
         .build(), AnalyticsChartGroup.builder()
         .setGroupId("GlobalMetadataAnalytics")
         .setTitle("Data Landscape Summary")
-        .setCharts(getGlobalMetadataAnalyticsCharts(authentication))
+        .setCharts(collectCharts(globalMetadataAnalyticsCharts, charts))
         .build());
   }
 
+  /**
+   * Returns the charts by key, from the cache when they have not expired yet.
+   */
+  private Map<String, Optional<AnalyticsChart>> getCharts(List<ChartSpec<?>> chartSpecs) throws Exception {
+    final Map<String, Optional<AnalyticsChart>> charts = new HashMap<>();
+    final List<ChartSpec<?>> missingCharts = new ArrayList<>();
+    final long nowMillis = System.currentTimeMillis();
+    for (ChartSpec<?> chartSpec : chartSpecs) {
+      final CachedChart cachedChart = _chartCache.get(chartSpec.getKey());
+      if (cachedChart != null && cachedChart.getExpirationMillis() > nowMillis) {
+        charts.put(chartSpec.getKey(), cachedChart.getChart());
+      } else {
+        missingCharts.add(chartSpec);
+      }
+    }
+    if (missingCharts.isEmpty()) {
+      return charts;
+    }
+
+    final List<ChartQuery<?>> chartQueries = new ArrayList<>(missingCharts.size());
+    missingCharts.forEach(chartSpec -> chartQueries.add(chartSpec.getQuery()));
+    final List<Filter> aggregations = _analyticsService.executeAndExtract(chartQueries);
+    final List<CompletableFuture<Optional<AnalyticsChart>>> futures = new ArrayList<>(missingCharts.size());
+    for (int i = 0; i < missingCharts.size(); i++) {
+      final ChartSpec<?> chartSpec = missingCharts.get(i);
+      final Filter aggregation = aggregations.get(i);
+      futures.add(CompletableFuture.supplyAsync(() -> buildChart(chartSpec, aggregation), _chartExecutor));
+    }
+    for (int i = 0; i < missingCharts.size(); i++) {
+      final ChartSpec<?> chartSpec = missingCharts.get(i);
+      final Optional<AnalyticsChart> chart;
+      try {
+        chart = futures.get(i).join();
+      } catch (CompletionException e) {
+        throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+      }
+      charts.put(chartSpec.getKey(), chart);
+      _chartCache.put(chartSpec.getKey(), new CachedChart(chart, nowMillis + chartSpec.getTtl().toMillis()));
+    }
+    return charts;
+  }
+
+  private static <T> Optional<AnalyticsChart> buildChart(ChartSpec<T> chartSpec, Filter aggregation) {
+    try {
+      return chartSpec.getBuilder().build(chartSpec.getQuery().extract(aggregation));
+    } catch (Exception e) {
+      throw new CompletionException(e);
+    }
+  }
+
+  private static List<AnalyticsChart> collectCharts(List<ChartSpec<?>> chartSpecs,
+      Map<String, Optional<AnalyticsChart>> charts) {
+    return chartSpecs.stream()
+        .map(chartSpec -> charts.get(chartSpec.getKey()))
+        .filter(Optional::isPresent)
+        .map(Optional::get)
+        .collect(Collectors.toList());
+  }
+
   /**
    * TODO: Config Driven Charts Instead of Hardcoded.
    */
-  private List<AnalyticsChart> getProductAnalyticsCharts(Authentication authentication) throws Exception {
-    final List<AnalyticsChart> charts = new ArrayList<>();
+  private List<ChartSpec<?>> getProductAnalyticsCharts(Authentication authentication) {
+    final List<ChartSpec<?>> charts = new ArrayList<>();
     final DateTime now = DateTime.now();
     final DateTime aWeekAgo = now.minusWeeks(1);
     final DateRange lastWeekDateRange =
@@ -73,122 +173,164 @@ public final class GetChartsResolver implements DataFetcher<List<AnalyticsChartG
     String wauTitle = "Weekly Active Users";
     DateInterval weeklyInterval = DateInterval.WEEK;
 
-    final List<NamedLine> wauTimeseries =
-        _analyticsService.getTimeseriesChart(_analyticsService.getUsageIndexName(), twoMonthsDateRange, weeklyInterval,
-            Optional.empty(), ImmutableMap.of(), Collections.emptyMap(), Optional.of("browserId"));
-    charts.add(TimeSeriesChart.builder()
-        .setTitle(wauTitle)
-        .setDateRange(twoMonthsDateRange)
-        .setInterval(weeklyInterval)
-        .setLines(wauTimeseries)
-        .build());
+    charts.add(new ChartSpec<>(wauTitle, WEEKLY_CHART_TTL,
+        _analyticsService.getTimeseriesChartQuery(_analyticsService.getUsageIndexName(), twoMonthsDateRange,
+            weeklyInterval, Optional.empty(), ImmutableMap.of(), Collections.emptyMap(), Optional.of("browserId")),
+        wauTimeseries -> Optional.of(TimeSeriesChart.builder()
+            .setTitle(wauTitle)
+            .setDateRange(twoMonthsDateRange)
+            .setInterval(weeklyInterval)
+            .setLines(wauTimeseries)
+            .build())));
 
     // Chart 2:  Time Series Chart
     String searchesTitle = "Searches Last Week";
     DateInterval dailyInterval = DateInterval.DAY;
     String searchEventType = "SearchEvent";
 
-    final List<NamedLine> searchesTimeseries =
-        _analyticsService.getTimeseriesChart(_analyticsService.getUsageIndexName(), lastWeekDateRange, dailyInterval,
-            Optional.empty(), ImmutableMap.of("type", ImmutableList.of(searchEventType)), Collections.emptyMap(),
-            Optional.empty());
-    charts.add(TimeSeriesChart.builder()
-        .setTitle(searchesTitle)
-        .setDateRange(lastWeekDateRange)
-        .setInterval(dailyInterval)
-        .setLines(searchesTimeseries)
-        .build());
+    charts.add(new ChartSpec<>(searchesTitle, DAILY_CHART_TTL,
+        _analyticsService.getTimeseriesChartQuery(_analyticsService.getUsageIndexName(), lastWeekDateRange,
+            dailyInterval, Optional.empty(), ImmutableMap.of("type", ImmutableList.of(searchEventType)),
+            Collections.emptyMap(), Optional.empty()),
+        searchesTimeseries -> Optional.of(TimeSeriesChart.builder()
+            .setTitle(searchesTitle)
+            .setDateRange(lastWeekDateRange)
+            .setInterval(dailyInterval)
+            .setLines(searchesTimeseries)
+            .build())));
 
     // Chart 3: Table Chart
     final String topSearchTitle = "Top Search Queries";
     final List<String> columns = ImmutableList.of("Query", "Count");
 
-    final List<Row> topSearchQueries =
-        _analyticsService.getTopNTableChart(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
+    charts.add(new ChartSpec<>(topSearchTitle, DAILY_CHART_TTL,
+        _analyticsService.getTopNTableChartQuery(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
             "query.keyword", ImmutableMap.of("type", ImmutableList.of(searchEventType)), Collections.emptyMap(),
-            Optional.empty(), 10, AnalyticsUtil::buildCellWithSearchLandingPage);
-    charts.add(TableChart.builder().setTitle(topSearchTitle).setColumns(columns).setRows(topSearchQueries).build());
+            Optional.empty(), 10, AnalyticsUtil::buildCellWithSearchLandingPage),
+        topSearchQueries -> Optional.of(
+            TableChart.builder().setTitle(topSearchTitle).setColumns(columns).setRows(topSearchQueries).build())));
 
     // Chart 4: Bar Graph Chart
     final String sectionViewsTitle = "Section Views across Entity Types";
-    final List<NamedBar> sectionViewsPerEntityType =
-        _analyticsService.getBarChart(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
+    charts.add(new ChartSpec<>(sectionViewsTitle, DAILY_CHART_TTL,
+        _analyticsService.getBarChartQuery(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
             ImmutableList.of("entityType.keyword", "section.keyword"),
             ImmutableMap.of("type", ImmutableList.of("EntitySectionViewEvent")), Collections.emptyMap(),
-            Optional.empty(), true);
-    charts.add(BarChart.builder().setTitle(sectionViewsTitle).setBars(sectionViewsPerEntityType).build());
+            Optional.empty(), true),
+        sectionViewsPerEntityType -> Optional.of(
+            BarChart.builder().setTitle(sectionViewsTitle).setBars(sectionViewsPerEntityType).build())));
 
     // Chart 5: Bar Graph Chart
     final String actionsByTypeTitle = "Actions by Entity Type";
-    final List<NamedBar> eventsByEventType =
-        _analyticsService.getBarChart(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
+    charts.add(new ChartSpec<>(actionsByTypeTitle, DAILY_CHART_TTL,
+        _analyticsService.getBarChartQuery(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
             ImmutableList.of("entityType.keyword", "actionType.keyword"),
             ImmutableMap.of("type", ImmutableList.of("EntityActionEvent")), Collections.emptyMap(), Optional.empty(),
-            true);
-    charts.add(BarChart.builder().setTitle(actionsByTypeTitle).setBars(eventsByEventType).build());
+            true),
+        eventsByEventType -> Optional.of(
+            BarChart.builder().setTitle(actionsByTypeTitle).setBars(eventsByEventType).build())));
 
     // Chart 6: Table Chart
     final String topViewedTitle = "Top Viewed Dataset";
     final List<String> columns5 = ImmutableList.of("Dataset", "#Views");
 
-    final List<Row> topViewedDatasets =
-        _analyticsService.getTopNTableChart(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
+    charts.add(new ChartSpec<>(topViewedTitle, DAILY_CHART_TTL,
+        _analyticsService.getTopNTableChartQuery(_analyticsService.getUsageIndexName(), Optional.of(lastWeekDateRange),
             "entityUrn.keyword", ImmutableMap.of("type", ImmutableList.of("EntityViewEvent"), "entityType.keyword",
                 ImmutableList.of(EntityType.DATASET.name())), Collections.emptyMap(), Optional.empty(), 10,
-            AnalyticsUtil::buildCellWithEntityLandingPage);
-    AnalyticsUtil.hydrateDisplayNameForTable(_entityClient, topViewedDatasets, Constants.DATASET_ENTITY_NAME,
-        ImmutableSet.of(Constants.DATASET_KEY_ASPECT_NAME), AnalyticsUtil::getDatasetName, authentication);
-    charts.add(TableChart.builder().setTitle(topViewedTitle).setColumns(columns5).setRows(topViewedDatasets).build());
+            AnalyticsUtil::buildCellWithEntityLandingPage),
+        topViewedDatasets -> {
+          AnalyticsUtil.hydrateDisplayNameForTable(_entityClient, topViewedDatasets, Constants.DATASET_ENTITY_NAME,
+              ImmutableSet.of(Constants.DATASET_KEY_ASPECT_NAME), AnalyticsUtil::getDatasetName, authentication);
+          return Optional.of(
+              TableChart.builder().setTitle(topViewedTitle).setColumns(columns5).setRows(topViewedDatasets).build());
+        }));
 
     return charts;
   }
 
-  private List<AnalyticsChart> getGlobalMetadataAnalyticsCharts(Authentication authentication) throws Exception {
-    final List<AnalyticsChart> charts = new ArrayList<>();
+  private List<ChartSpec<?>> getGlobalMetadataAnalyticsCharts(Authentication authentication) {
+    final List<ChartSpec<?>> charts = new ArrayList<>();
     // Chart 1: Entities per domain
-    final List<NamedBar> entitiesPerDomain =
-        _analyticsService.getBarChart(_analyticsService.getAllEntityIndexName(), Optional.empty(),
+    charts.add(new ChartSpec<>("Entities per Domain", DAILY_CHART_TTL,
+        _analyticsService.getBarChartQuery(_analyticsService.getAllEntityIndexName(), Optional.empty(),
             ImmutableList.of("domains.keyword", "platform.keyword"), Collections.emptyMap(),
-            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false);
-    AnalyticsUtil.hydrateDisplayNameForBars(_entityClient, entitiesPerDomain, Constants.DOMAIN_ENTITY_NAME,
-        ImmutableSet.of(Constants.DOMAIN_PROPERTIES_ASPECT_NAME), AnalyticsUtil::getDomainName, authentication);
-    AnalyticsUtil.hydrateDisplayNameForSegments(_entityClient, entitiesPerDomain, Constants.DATA_PLATFORM_ENTITY_NAME,
-        ImmutableSet.of(Constants.DATA_PLATFORM_INFO_ASPECT_NAME), AnalyticsUtil::getPlatformName, authentication);
-    if (!entitiesPerDomain.isEmpty()) {
-      charts.add(BarChart.builder().setTitle("Entities per Domain").setBars(entitiesPerDomain).build());
-    }
+            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false),
+        entitiesPerDomain -> {
+          AnalyticsUtil.hydrateDisplayNameForBars(_entityClient, entitiesPerDomain, Constants.DOMAIN_ENTITY_NAME,
+              ImmutableSet.of(Constants.DOMAIN_PROPERTIES_ASPECT_NAME), AnalyticsUtil::getDomainName, authentication);
+          AnalyticsUtil.hydrateDisplayNameForSegments(_entityClient, entitiesPerDomain,
+              Constants.DATA_PLATFORM_ENTITY_NAME, ImmutableSet.of(Constants.DATA_PLATFORM_INFO_ASPECT_NAME),
+              AnalyticsUtil::getPlatformName, authentication);
+          if (entitiesPerDomain.isEmpty()) {
+            return Optional.empty();
+          }
+          return Optional.of(BarChart.builder().setTitle("Entities per Domain").setBars(entitiesPerDomain).build());
+        }));
 
     // Chart 2: Entities per platform
-    final List<NamedBar> entitiesPerPlatform =
-        _analyticsService.getBarChart(_analyticsService.getAllEntityIndexName(), Optional.empty(),
+    charts.add(new ChartSpec<>("Entities per Platform", DAILY_CHART_TTL,
+        _analyticsService.getBarChartQuery(_analyticsService.getAllEntityIndexName(), Optional.empty(),
             ImmutableList.of("platform.keyword"), Collections.emptyMap(),
-            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false);
-    AnalyticsUtil.hydrateDisplayNameForBars(_entityClient, entitiesPerPlatform, Constants.DATA_PLATFORM_ENTITY_NAME,
-        ImmutableSet.of(Constants.DATA_PLATFORM_INFO_ASPECT_NAME), AnalyticsUtil::getPlatformName, authentication);
-    if (!entitiesPerPlatform.isEmpty()) {
-      charts.add(BarChart.builder().setTitle("Entities per Platform").setBars(entitiesPerPlatform).build());
-    }
+            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false),
+        entitiesPerPlatform -> {
+          AnalyticsUtil.hydrateDisplayNameForBars(_entityClient, entitiesPerPlatform,
+              Constants.DATA_PLATFORM_ENTITY_NAME, ImmutableSet.of(Constants.DATA_PLATFORM_INFO_ASPECT_NAME),
+              AnalyticsUtil::getPlatformName, authentication);
+          if (entitiesPerPlatform.isEmpty()) {
+            return Optional.empty();
+          }
+          return Optional.of(BarChart.builder().setTitle("Entities per Platform").setBars(entitiesPerPlatform).build());
+        }));
 
     // Chart 3: Entities per term
-    final List<NamedBar> entitiesPerTerm =
-        _analyticsService.getBarChart(_analyticsService.getAllEntityIndexName(), Optional.empty(),
+    charts.add(new ChartSpec<>("Entities per Term", DAILY_CHART_TTL,
+        _analyticsService.getBarChartQuery(_analyticsService.getAllEntityIndexName(), Optional.empty(),
             ImmutableList.of("glossaryTerms.keyword"), Collections.emptyMap(),
-            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false);
-    AnalyticsUtil.hydrateDisplayNameForBars(_entityClient, entitiesPerTerm, Constants.GLOSSARY_TERM_ENTITY_NAME,
-        ImmutableSet.of(Constants.GLOSSARY_TERM_KEY_ASPECT_NAME), AnalyticsUtil::getTermName, authentication);
-    if (!entitiesPerTerm.isEmpty()) {
-      charts.add(BarChart.builder().setTitle("Entities per Term").setBars(entitiesPerTerm).build());
-    }
+            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false),
+        entitiesPerTerm -> {
+          AnalyticsUtil.hydrateDisplayNameForBars(_entityClient, entitiesPerTerm, Constants.GLOSSARY_TERM_ENTITY_NAME,
+              ImmutableSet.of(Constants.GLOSSARY_TERM_KEY_ASPECT_NAME), AnalyticsUtil::getTermName, authentication);
+          if (entitiesPerTerm.isEmpty()) {
+            return Optional.empty();
+          }
+          return Optional.of(BarChart.builder().setTitle("Entities per Term").setBars(entitiesPerTerm).build());
+        }));
 
     // Chart 4: Entities per fabric type
-    final List<NamedBar> entitiesPerEnv =
-        _analyticsService.getBarChart(_analyticsService.getAllEntityIndexName(), Optional.empty(),
+    charts.add(new ChartSpec<>("Entities per Environment", DAILY_CHART_TTL,
+        _analyticsService.getBarChartQuery(_analyticsService.getAllEntityIndexName(), Optional.empty(),
             ImmutableList.of("origin.keyword"), Collections.emptyMap(),
-            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false);
-    if (entitiesPerEnv.size() > 1) {
-      charts.add(BarChart.builder().setTitle("Entities per Environment").setBars(entitiesPerEnv).build());
-    }
+            ImmutableMap.of("removed", ImmutableList.of("true")), Optional.empty(), false),
+        entitiesPerEnv -> {
+          if (entitiesPerEnv.size() > 1) {
+            return Optional.of(BarChart.builder().setTitle("Entities per Environment").setBars(entitiesPerEnv).build());
+          }
+          return Optional.empty();
+        }));
 
     return charts;
   }
+
+  /**
+   * Builds a chart from the result of its query, or returns empty if the chart should not be shown.
+   */
+  @FunctionalInterface
+  private interface ChartBuilder<T> {
+    Optional<AnalyticsChart> build(T result) throws Exception;
+  }
+
+  @Value
+  private static class ChartSpec<T> {
+    String key;
+    Duration ttl;
+    ChartQuery<T> query;
+    ChartBuilder<T> builder;
+  }
+
+  @Value
+  private static class CachedChart {
+    Optional<AnalyticsChart> chart;
+    long expirationMillis;
+  }
 }
@@ -12,6 +12,7 @@ import com.linkedin.datahub.graphql.generated.NumericDataPoint;
 import com.linkedin.datahub.graphql.generated.Row;
 import com.linkedin.datahub.graphql.resolvers.EntityTypeMapper;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -19,7 +20,10 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
@@ -57,6 +61,20 @@ public class AnalyticsService {
 
   public static final String DATAHUB_USAGE_EVENT_INDEX = "datahub_usage_event";
 
+  /**
+   * The search request of a chart, and how to extract the chart from the filtered aggregation of its response. Charts
+   * are either computed one at a time, or several at a time with {@link #executeAndExtract(List)}.
+   */
+  @Value
+  public static class ChartQuery<T> {
+    SearchRequest searchRequest;
+    Function<Filter, T> extractor;
+
+    public T extract(Filter aggregation) {
+      return extractor.apply(aggregation);
+    }
+  }
+
   @Nonnull
   public String getEntityIndexName(EntityType entityType) {
     return _indexConvention.getEntityIndexName(EntityTypeMapper.getName(entityType));
@@ -75,6 +93,13 @@ public class AnalyticsService {
   public List<NamedLine> getTimeseriesChart(String indexName, DateRange dateRange, DateInterval granularity,
       Optional<String> dimension, // Length 1 for now
       Map<String, List<String>> filters, Map<String, List<String>> mustNotFilters, Optional<String> uniqueOn) {
+    return getChart(
+        getTimeseriesChartQuery(indexName, dateRange, granularity, dimension, filters, mustNotFilters, uniqueOn));
+  }
+
+  public ChartQuery<List<NamedLine>> getTimeseriesChartQuery(String indexName, DateRange dateRange,
+      DateInterval granularity, Optional<String> dimension, // Length 1 for now
+      Map<String, List<String>> filters, Map<String, List<String>> mustNotFilters, Optional<String> uniqueOn) {
 
     log.debug(
         String.format("Invoked getTimeseriesChart with indexName: %s, dateRange: %s, granularity: %s, dimension: %s,",
@@ -96,22 +121,24 @@ public class AnalyticsService {
     }
 
     SearchRequest searchRequest = constructSearchRequest(indexName, filteredAgg);
-    Aggregations aggregationResult = executeAndExtract(searchRequest).getAggregations();
-    try {
-      if (dimension.isPresent()) {
-        return aggregationResult.<Terms>get(DIMENSION).getBuckets()
-            .stream()
-            .map(bucket -> new NamedLine(bucket.getKeyAsString(),
-                extractPointsFromAggregations(bucket.getAggregations(), uniqueOn.isPresent())))
-            .collect(Collectors.toList());
-      } else {
-        return ImmutableList.of(
-            new NamedLine("total", extractPointsFromAggregations(aggregationResult, uniqueOn.isPresent())));
+    return new ChartQuery<>(searchRequest, filtered -> {
+      Aggregations aggregationResult = filtered.getAggregations();
+      try {
+        if (dimension.isPresent()) {
+          return aggregationResult.<Terms>get(DIMENSION).getBuckets()
+              .stream()
+              .map(bucket -> new NamedLine(bucket.getKeyAsString(),
+                  extractPointsFromAggregations(bucket.getAggregations(), uniqueOn.isPresent())))
+              .collect(Collectors.toList());
+        } else {
+          return ImmutableList.of(
+              new NamedLine("total", extractPointsFromAggregations(aggregationResult, uniqueOn.isPresent())));
+        }
+      } catch (Exception e) {
+        log.error(String.format("Caught exception while getting time series chart: %s", e.getMessage()));
+        return ImmutableList.of();
       }
-    } catch (Exception e) {
-      log.error(String.format("Caught exception while getting time series chart: %s", e.getMessage()));
-      return ImmutableList.of();
-    }
+    });
   }
 
   private int extractCount(MultiBucketsAggregation.Bucket bucket, boolean didUnique) {
@@ -129,6 +156,14 @@ public class AnalyticsService {
       // Length 1 or 2
       Map<String, List<String>> filters, Map<String, List<String>> mustNotFilters, Optional<String> uniqueOn,
       boolean showMissing) {
+    return getChart(
+        getBarChartQuery(indexName, dateRange, dimensions, filters, mustNotFilters, uniqueOn, showMissing));
+  }
+
+  public ChartQuery<List<NamedBar>> getBarChartQuery(String indexName, Optional<DateRange> dateRange,
+      List<String> dimensions, // Length 1 or 2
+      Map<String, List<String>> filters, Map<String, List<String>> mustNotFilters, Optional<String> uniqueOn,
+      boolean showMissing) {
     log.debug(
         String.format("Invoked getBarChart with indexName: %s, dateRange: %s, dimensions: %s,", indexName, dateRange,
             dimensions) + String.format("filters: %s, uniqueOn: %s", filters, uniqueOn));
@@ -154,27 +189,29 @@ public class AnalyticsService {
     filteredAgg.subAggregation(termAgg);
 
     SearchRequest searchRequest = constructSearchRequest(indexName, filteredAgg);
-    Aggregations aggregationResult = executeAndExtract(searchRequest).getAggregations();
-
-    try {
-      if (dimensions.size() == 1) {
-        List<BarSegment> barSegments =
-            extractBarSegmentsFromAggregations(aggregationResult, DIMENSION, uniqueOn.isPresent());
-        return barSegments.stream()
-            .map(segment -> new NamedBar(segment.getLabel(),
-                ImmutableList.of(BarSegment.builder().setLabel("Count").setValue(segment.getValue()).build())))
-            .collect(Collectors.toList());
-      } else {
-        return aggregationResult.<Terms>get(DIMENSION).getBuckets()
-            .stream()
-            .map(bucket -> new NamedBar(bucket.getKeyAsString(),
-                extractBarSegmentsFromAggregations(bucket.getAggregations(), SECOND_DIMENSION, uniqueOn.isPresent())))
-            .collect(Collectors.toList());
+    return new ChartQuery<>(searchRequest, filtered -> {
+      Aggregations aggregationResult = filtered.getAggregations();
+      try {
+        if (dimensions.size() == 1) {
+          List<BarSegment> barSegments =
+              extractBarSegmentsFromAggregations(aggregationResult, DIMENSION, uniqueOn.isPresent());
+          return barSegments.stream()
+              .map(segment -> new NamedBar(segment.getLabel(),
+                  ImmutableList.of(BarSegment.builder().setLabel("Count").setValue(segment.getValue()).build())))
+              .collect(Collectors.toList());
+        } else {
+          return aggregationResult.<Terms>get(DIMENSION).getBuckets()
+              .stream()
+              .map(bucket -> new NamedBar(bucket.getKeyAsString(),
+                  extractBarSegmentsFromAggregations(bucket.getAggregations(), SECOND_DIMENSION,
+                      uniqueOn.isPresent())))
+              .collect(Collectors.toList());
+        }
+      } catch (Exception e) {
+        log.error(String.format("Caught exception while getting bar chart: %s", e.getMessage()));
+        return ImmutableList.of();
       }
-    } catch (Exception e) {
-      log.error(String.format("Caught exception while getting bar chart: %s", e.getMessage()));
-      return ImmutableList.of();
-    }
+    });
   }
 
   private List<BarSegment> extractBarSegmentsFromAggregations(Aggregations aggregations, String aggregationKey,
@@ -195,6 +232,13 @@ public class AnalyticsService {
   public List<Row> getTopNTableChart(String indexName, Optional<DateRange> dateRange, String groupBy,
       Map<String, List<String>> filters, Map<String, List<String>> mustNotFilters, Optional<String> uniqueOn,
       int maxRows, Function<String, Cell> groupByValueToCell) {
+    return getChart(getTopNTableChartQuery(indexName, dateRange, groupBy, filters, mustNotFilters, uniqueOn, maxRows,
+        groupByValueToCell));
+  }
+
+  public ChartQuery<List<Row>> getTopNTableChartQuery(String indexName, Optional<DateRange> dateRange,
+      String groupBy, Map<String, List<String>> filters, Map<String, List<String>> mustNotFilters,
+      Optional<String> uniqueOn, int maxRows, Function<String, Cell> groupByValueToCell) {
     log.debug(
         String.format("Invoked getTopNTableChart with indexName: %s, dateRange: %s, groupBy: %s", indexName, dateRange,
             groupBy) + String.format("filters: %s, uniqueOn: %s", filters, uniqueOn));
@@ -209,18 +253,19 @@ public class AnalyticsService {
     filteredAgg.subAggregation(termAgg);
 
     SearchRequest searchRequest = constructSearchRequest(indexName, filteredAgg);
-    Aggregations aggregationResult = executeAndExtract(searchRequest).getAggregations();
-
-    try {
-      return aggregationResult.<Terms>get(DIMENSION).getBuckets()
-          .stream()
-          .map(bucket -> buildRow(bucket.getKeyAsString(), groupByValueToCell,
-              extractCount(bucket, uniqueOn.isPresent())))
-          .collect(Collectors.toList());
-    } catch (Exception e) {
-      log.error(String.format("Caught exception while getting top n chart: %s", e.getMessage()));
-      return ImmutableList.of();
-    }
+    return new ChartQuery<>(searchRequest, filtered -> {
+      Aggregations aggregationResult = filtered.getAggregations();
+      try {
+        return aggregationResult.<Terms>get(DIMENSION).getBuckets()
+            .stream()
+            .map(bucket -> buildRow(bucket.getKeyAsString(), groupByValueToCell,
+                extractCount(bucket, uniqueOn.isPresent())))
+            .collect(Collectors.toList());
+      } catch (Exception e) {
+        log.error(String.format("Caught exception while getting top n chart: %s", e.getMessage()));
+        return ImmutableList.of();
+      }
+    });
   }
 
   public int getHighlights(String indexName, Optional<DateRange> dateRange, Map<String, List<String>> filters,
@@ -266,6 +311,33 @@ public class AnalyticsService {
     }
   }
 
+  private <T> T getChart(ChartQuery<T> chartQuery) {
+    return chartQuery.extract(executeAndExtract(chartQuery.getSearchRequest()));
+  }
+
+  /**
+   * Executes the search requests of several charts in a single multi search request, and returns their filtered
+   * aggregations in the order of the chart queries.
+   */
+  public List<Filter> executeAndExtract(List<ChartQuery<?>> chartQueries) {
+    final MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+    chartQueries.forEach(chartQuery -> multiSearchRequest.add(chartQuery.getSearchRequest()));
+    try {
+      final MultiSearchResponse multiSearchResponse = _elasticClient.msearch(multiSearchRequest, RequestOptions.DEFAULT);
+      final List<Filter> aggregations = new ArrayList<>(chartQueries.size());
+      for (MultiSearchResponse.Item item : multiSearchResponse.getResponses()) {
+        if (item.isFailure()) {
+          throw item.getFailure();
+        }
+        aggregations.add(item.getResponse().getAggregations().<Filter>get(FILTERED));
+      }
+      return aggregations;
+    } catch (Exception e) {
+      log.error(String.format("Multi search query failed: %s", e.getMessage()));
+      throw new RuntimeException("Multi search query failed:", e);
+    }
+  }
+
   private AggregationBuilder getFilteredAggregation(Map<String, List<String>> mustFilters,
       Map<String, List<String>> mustNotFilters, Optional<DateRange> dateRange) {
     BoolQueryBuilder filteredQuery = QueryBuilders.boolQuery();
@@ -0,0 +1,64 @@
+package com.linkedin.datahub.graphql.execution;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import graphql.ExecutionInput;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+import graphql.language.Document;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Caches the parsed and validated documents of the most recent query texts, so that the few operations sent over and
+ * over by clients are only parsed and validated once.
+ *
+ * <p>Documents are keyed by the hash of their query text, which keeps the cache small however long the queries are.
+ */
+public class CachingPreparsedDocumentProvider implements PreparsedDocumentProvider {
+
+  private final Cache<String, PreparsedDocumentEntry> _cache;
+
+  public CachingPreparsedDocumentProvider(final long maxSize) {
+    _cache = CacheBuilder.newBuilder().maximumSize(maxSize).recordStats().build();
+  }
+
+  @Override
+  public PreparsedDocumentEntry getDocument(@Nonnull final ExecutionInput executionInput,
+      @Nonnull final Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+    final String key = toKey(executionInput.getQuery());
+    PreparsedDocumentEntry entry = _cache.getIfPresent(key);
+    if (entry == null) {
+      // Concurrent misses on the same query both parse it, which is cheaper than making one wait for the other
+      entry = parseAndValidateFunction.apply(executionInput);
+      _cache.put(key, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Returns the cached document of the given query, if it was parsed and validated without errors.
+   */
+  @Nonnull
+  public Optional<Document> getValidDocument(@Nonnull final String query) {
+    final PreparsedDocumentEntry entry = _cache.getIfPresent(toKey(query));
+    return entry == null || entry.hasErrors() ? Optional.empty() : Optional.ofNullable(entry.getDocument());
+  }
+
+  /**
+   * Returns the hit and miss counts of the cache.
+   */
+  @Nonnull
+  public CacheStats getStats() {
+    return _cache.stats();
+  }
+
+  private static String toKey(@Nonnull final String query) {
+    return Hashing.sha256().hashString(query, StandardCharsets.UTF_8).toString();
+  }
+}
@@ -0,0 +1,119 @@
+package com.linkedin.datahub.graphql.execution;
+
+import com.google.common.math.LongMath;
+import graphql.ExecutionResult;
+import graphql.analysis.QueryTraverser;
+import graphql.analysis.QueryVisitorFieldEnvironment;
+import graphql.analysis.QueryVisitorStub;
+import graphql.execution.AbortExecutionException;
+import graphql.execution.ExecutionContext;
+import graphql.execution.instrumentation.InstrumentationContext;
+import graphql.execution.instrumentation.SimpleInstrumentation;
+import graphql.execution.instrumentation.parameters.InstrumentationExecuteOperationParameters;
+import graphql.language.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+
+
+/**
+ * Rejects the queries nested too deeply, or whose estimated cost is too high, before executing them.
+ *
+ * <p>The cost of a field is 1 plus the cost of its sub fields, multiplied by the number of results it asks for through
+ * a "count" argument, directly or in its "input" argument. The check runs on every execution, whether the document of
+ * the query was cached or not.
+ */
+@Slf4j
+public class QueryCostInstrumentation extends SimpleInstrumentation {
+
+  private static final String COUNT_ARGUMENT = "count";
+  private static final String INPUT_ARGUMENT = "input";
+
+  private final int _maxDepth;
+  private final int _maxCost;
+
+  /**
+   * @param maxDepth max depth of the queries, top level fields being at depth 1, or 0 for no limit
+   * @param maxCost max estimated cost of the queries, or 0 for no limit
+   */
+  public QueryCostInstrumentation(final int maxDepth, final int maxCost) {
+    _maxDepth = maxDepth;
+    _maxCost = maxCost;
+  }
+
+  @Override
+  public InstrumentationContext<ExecutionResult> beginExecuteOperation(
+      final InstrumentationExecuteOperationParameters parameters) {
+    if (_maxDepth > 0 || _maxCost > 0) {
+      final QueryCost cost = estimate(parameters.getExecutionContext());
+      if (_maxDepth > 0 && cost.depth > _maxDepth) {
+        log.warn("Rejected GraphQL query of depth {}, above the max depth of {}", cost.depth, _maxDepth);
+        throw new AbortExecutionException(
+            String.format("Query depth %d exceeds the max depth of %d", cost.depth, _maxDepth));
+      }
+      if (_maxCost > 0 && cost.cost > _maxCost) {
+        log.warn("Rejected GraphQL query of estimated cost {}, above the max cost of {}", cost.cost, _maxCost);
+        throw new AbortExecutionException(
+            String.format("Query estimated cost %d exceeds the max cost of %d", cost.cost, _maxCost));
+      }
+    }
+    return super.beginExecuteOperation(parameters);
+  }
+
+  static QueryCost estimate(final ExecutionContext executionContext) {
+    final QueryTraverser queryTraverser = QueryTraverser.newQueryTraverser()
+        .schema(executionContext.getGraphQLSchema())
+        .document(executionContext.getDocument())
+        .operationName(executionContext.getExecutionInput().getOperationName())
+        .variables(executionContext.getVariables())
+        .build();
+
+    // Fields are visited after their sub fields, which add their cost to the one of their parent. Fields are told
+    // apart by the path of field nodes leading to them, a fragment being visited once per place it is spread in
+    final Map<List<Field>, Long> subFieldsCosts = new HashMap<>();
+    final QueryCost queryCost = new QueryCost();
+    queryTraverser.visitPostOrder(new QueryVisitorStub() {
+      @Override
+      public void visitField(final QueryVisitorFieldEnvironment environment) {
+        final List<Field> path = getPath(environment);
+        queryCost.depth = Math.max(queryCost.depth, path.size());
+
+        final long subFieldsCost = subFieldsCosts.getOrDefault(path, 0L);
+        final long cost =
+            LongMath.saturatedAdd(1, LongMath.saturatedMultiply(subFieldsCost, getCount(environment.getArguments())));
+        if (path.size() == 1) {
+          queryCost.cost = LongMath.saturatedAdd(queryCost.cost, cost);
+        } else {
+          subFieldsCosts.merge(path.subList(0, path.size() - 1), cost, LongMath::saturatedAdd);
+        }
+      }
+    });
+    return queryCost;
+  }
+
+  private static List<Field> getPath(final QueryVisitorFieldEnvironment environment) {
+    final List<Field> path = new ArrayList<>();
+    for (QueryVisitorFieldEnvironment current = environment; current != null;
+        current = current.getParentEnvironment()) {
+      path.add(current.getField());
+    }
+    Collections.reverse(path);
+    return path;
+  }
+
+  private static long getCount(final Map<String, Object> arguments) {
+    Object count = arguments.get(COUNT_ARGUMENT);
+    if (count == null && arguments.get(INPUT_ARGUMENT) instanceof Map) {
+      count = ((Map<?, ?>) arguments.get(INPUT_ARGUMENT)).get(COUNT_ARGUMENT);
+    }
+    return count instanceof Number ? Math.max(1, ((Number) count).longValue()) : 1;
+  }
+
+  static class QueryCost {
+    int depth;
+    long cost;
+  }
+}
@@ -6,12 +6,14 @@ import com.linkedin.datahub.graphql.generated.AutoCompleteMultipleResults;
 import com.linkedin.datahub.graphql.generated.EntityType;
 import com.linkedin.datahub.graphql.resolvers.ResolverUtils;
 import com.linkedin.datahub.graphql.types.SearchableEntityType;
+import com.linkedin.entity.client.EntityClient;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
 
 import java.util.Map;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
@@ -29,12 +31,20 @@ public class AutoCompleteForMultipleResolver implements DataFetcher<CompletableF
     private static final Logger _logger = LoggerFactory.getLogger(AutoCompleteForMultipleResolver.class.getName());
 
     private final Map<EntityType, SearchableEntityType<?, ?>> _typeToEntity;
+    // When present, autocompletes without field nor filters are served in a single call to the prefix index
+    private final EntityClient _entityClient;
 
     public AutoCompleteForMultipleResolver(@Nonnull final List<SearchableEntityType<?, ?>> searchableEntities) {
+        this(searchableEntities, null);
+    }
+
+    public AutoCompleteForMultipleResolver(@Nonnull final List<SearchableEntityType<?, ?>> searchableEntities,
+        @Nullable final EntityClient entityClient) {
         _typeToEntity = searchableEntities.stream().collect(Collectors.toMap(
             SearchableEntityType::type,
             entity -> entity
         ));
+        _entityClient = entityClient;
     }
 
     @Override
@@ -49,6 +59,15 @@ public class AutoCompleteForMultipleResolver implements DataFetcher<CompletableF
         }
 
         List<EntityType> types = input.getTypes();
+        if (_entityClient != null && isBlank(input.getField()) && (input.getFilters() == null || input.getFilters().isEmpty())) {
+            return AutocompleteUtils.batchGetFastAutocompleteResults(
+                _entityClient,
+                types != null && types.size() > 0 ? types : AUTO_COMPLETE_ENTITY_TYPES,
+                sanitizedQuery,
+                input,
+                environment);
+        }
+
         if (types != null && types.size() > 0) {
             return AutocompleteUtils.batchGetAutocompleteResults(
                 types.stream().map(_typeToEntity::get).collect(Collectors.toList()),
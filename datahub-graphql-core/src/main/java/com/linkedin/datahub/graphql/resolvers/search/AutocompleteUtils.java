@@ -1,14 +1,21 @@
 package com.linkedin.datahub.graphql.resolvers.search;
 
+import com.linkedin.datahub.graphql.QueryContext;
 import com.linkedin.datahub.graphql.generated.AutoCompleteMultipleInput;
 import com.linkedin.datahub.graphql.generated.AutoCompleteMultipleResults;
 import com.linkedin.datahub.graphql.generated.AutoCompleteResultForEntity;
 import com.linkedin.datahub.graphql.generated.AutoCompleteResults;
+import com.linkedin.datahub.graphql.generated.EntityType;
+import com.linkedin.datahub.graphql.resolvers.EntityTypeMapper;
 import com.linkedin.datahub.graphql.types.SearchableEntityType;
+import com.linkedin.datahub.graphql.types.mappers.AutoCompleteResultsMapper;
+import com.linkedin.entity.client.EntityClient;
+import com.linkedin.metadata.query.AutoCompleteResult;
 import graphql.schema.DataFetchingEnvironment;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -68,4 +75,45 @@ public class AutocompleteUtils {
           return result;
         });
   }
+
+  /**
+   * Autocompletes against all the given entity types with a single call, which only matches the query against the
+   * prefixes of the default autocomplete fields. Does not support autocompleting a specific field nor filters.
+   */
+  public static CompletableFuture<AutoCompleteMultipleResults> batchGetFastAutocompleteResults(
+      EntityClient entityClient,
+      List<EntityType> types,
+      String sanitizedQuery,
+      AutoCompleteMultipleInput input,
+      DataFetchingEnvironment environment
+  ) {
+    final int limit = input.getLimit() != null ? input.getLimit() : DEFAULT_LIMIT;
+    final QueryContext context = environment.getContext();
+
+    return CompletableFuture.supplyAsync(() -> {
+      AutoCompleteMultipleResults result = new AutoCompleteMultipleResults(sanitizedQuery, new ArrayList<>());
+      try {
+        final Map<String, AutoCompleteResult> resultPerEntity = entityClient.autoCompleteAcrossEntities(
+            types.stream().map(EntityTypeMapper::getName).collect(Collectors.toList()),
+            sanitizedQuery,
+            Collections.emptyMap(),
+            limit,
+            context.getAuthentication());
+        result.setSuggestions(types.stream()
+            .filter(type -> resultPerEntity.containsKey(EntityTypeMapper.getName(type)))
+            .map(type -> {
+              final AutoCompleteResults searchResult =
+                  AutoCompleteResultsMapper.map(resultPerEntity.get(EntityTypeMapper.getName(type)));
+              return new AutoCompleteResultForEntity(type, searchResult.getSuggestions(), searchResult.getEntities());
+            })
+            .filter(autoCompleteResultForEntity -> autoCompleteResultForEntity.getSuggestions().size() > 0)
+            .collect(Collectors.toList()));
+      } catch (Exception e) {
+        _logger.error("Failed to execute autocomplete all: "
+            + String.format("query %s, limit: %s", input.getQuery(), input.getLimit()) + " "
+            + e.getMessage());
+      }
+      return result;
+    });
+  }
 }
@@ -0,0 +1,66 @@
+package com.linkedin.datahub.graphql.resolvers.search;
+
+import com.linkedin.datahub.graphql.generated.EntityType;
+import com.linkedin.datahub.graphql.generated.ScrollAcrossEntitiesInput;
+import com.linkedin.datahub.graphql.generated.ScrollResults;
+import com.linkedin.datahub.graphql.resolvers.EntityTypeMapper;
+import com.linkedin.datahub.graphql.resolvers.ResolverUtils;
+import com.linkedin.datahub.graphql.types.mappers.UrnScrollResultsMapper;
+import com.linkedin.entity.client.EntityClient;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import static com.linkedin.datahub.graphql.resolvers.ResolverUtils.bindArgument;
+import static com.linkedin.datahub.graphql.resolvers.search.SearchUtils.SEARCHABLE_ENTITY_TYPES;
+
+
+/**
+ * Resolver responsible for resolving 'scrollAcrossEntities' field of the Query type
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ScrollAcrossEntitiesResolver implements DataFetcher<CompletableFuture<ScrollResults>> {
+
+  private static final int DEFAULT_COUNT = 10;
+
+  private final EntityClient _entityClient;
+
+  @Override
+  public CompletableFuture<ScrollResults> get(DataFetchingEnvironment environment) {
+    final ScrollAcrossEntitiesInput input =
+        bindArgument(environment.getArgument("input"), ScrollAcrossEntitiesInput.class);
+
+    List<EntityType> entityTypes =
+        (input.getTypes() == null || input.getTypes().isEmpty()) ? SEARCHABLE_ENTITY_TYPES : input.getTypes();
+    List<String> entityNames = entityTypes.stream().map(EntityTypeMapper::getName).collect(Collectors.toList());
+
+    // escape forward slash since it is a reserved character in Elasticsearch
+    final String sanitizedQuery = ResolverUtils.escapeForwardSlash(input.getQuery());
+
+    final String scrollId = input.getScrollId();
+    final int count = input.getCount() != null ? input.getCount() : DEFAULT_COUNT;
+
+    return CompletableFuture.supplyAsync(() -> {
+      try {
+        log.debug(
+            "Executing scroll for multiple entities: entity types {}, query {}, filters: {}, scrollId: {}, count: {}",
+            input.getTypes(), input.getQuery(), input.getFilters(), scrollId, count);
+        return UrnScrollResultsMapper.map(_entityClient.scrollAcrossEntities(entityNames, sanitizedQuery,
+            ResolverUtils.buildFilter(input.getFilters()), scrollId, count,
+            ResolverUtils.getAuthentication(environment)));
+      } catch (Exception e) {
+        log.error(
+            "Failed to execute scroll for multiple entities: entity types {}, query {}, filters: {}, scrollId: {}, count: {}",
+            input.getTypes(), input.getQuery(), input.getFilters(), scrollId, count);
+        throw new RuntimeException(
+            "Failed to execute scroll: " + String.format("entity types %s, query %s, filters: %s, scrollId: %s, count: %s",
+                input.getTypes(), input.getQuery(), input.getFilters(), scrollId, count), e);
+      }
+    });
+  }
+}
@@ -0,0 +1,31 @@
+package com.linkedin.datahub.graphql.types.mappers;
+
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.datahub.graphql.generated.Entity;
+import com.linkedin.datahub.graphql.generated.ScrollResults;
+import java.util.stream.Collectors;
+
+
+public class UrnScrollResultsMapper<T extends RecordTemplate, E extends Entity> {
+  public static <T extends RecordTemplate, E extends Entity> ScrollResults map(
+      com.linkedin.metadata.search.ScrollResult scrollResult) {
+    return new UrnScrollResultsMapper<T, E>().apply(scrollResult);
+  }
+
+  public ScrollResults apply(com.linkedin.metadata.search.ScrollResult input) {
+    final ScrollResults result = new ScrollResults();
+
+    if (!input.hasPageSize() || !input.hasNumEntities()) {
+      return result;
+    }
+
+    final UrnSearchResultsMapper<T, E> searchResultsMapper = new UrnSearchResultsMapper<>();
+    result.setNextScrollId(input.getScrollId());
+    result.setCount(input.getPageSize());
+    result.setTotal(input.getNumEntities());
+    result.setSearchResults(
+        input.getEntities().stream().map(searchResultsMapper::mapResult).collect(Collectors.toList()));
+
+    return result;
+  }
+}
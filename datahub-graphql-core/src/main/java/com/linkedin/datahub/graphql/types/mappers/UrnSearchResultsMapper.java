@@ -44,7 +44,7 @@ public class UrnSearchResultsMapper<T extends RecordTemplate, E extends Entity>
     return result;
   }
 
-  private SearchResult mapResult(SearchEntity searchEntity) {
+  SearchResult mapResult(SearchEntity searchEntity) {
     return new SearchResult(UrnToEntityMapper.map(searchEntity.getEntity()),
         getInsightsFromFeatures(searchEntity.getFeatures()),
         getMatchedFieldEntry(searchEntity.getMatchedFields()));
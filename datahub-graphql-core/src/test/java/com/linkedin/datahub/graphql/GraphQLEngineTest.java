@@ -0,0 +1,155 @@
+package com.linkedin.datahub.graphql;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import graphql.ExecutionResult;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.*;
+
+
+public class GraphQLEngineTest {
+
+  private static final String SCHEMA = "type Query {\n"
+      + "  node(id: String!): Node\n"
+      + "  search(input: SearchInput!): SearchResults\n"
+      + "}\n"
+      + "type Node {\n"
+      + "  id: String!\n"
+      + "  children(count: Int): [Node!]!\n"
+      + "}\n"
+      + "input SearchInput {\n"
+      + "  query: String!\n"
+      + "  count: Int!\n"
+      + "}\n"
+      + "type SearchResults {\n"
+      + "  total: Int!\n"
+      + "  nodes: [Node!]!\n"
+      + "}\n";
+
+  // Depth 6: node, 4 levels of children, id
+  private static final String DEEP_QUERY =
+      "{ node(id: \"root\") { children { children { children { children { id } } } } } }";
+
+  private final AtomicInteger _fetches = new AtomicInteger();
+
+  @BeforeMethod
+  public void setup() {
+    _fetches.set(0);
+  }
+
+  @Test
+  public void testPreparsedDocumentCache() {
+    final GraphQLEngine engine = buildEngine(0, 0);
+    final String query = "{ node(id: \"root\") { id } }";
+
+    for (int i = 0; i < 3; i++) {
+      final ExecutionResult result = engine.execute(query, Collections.emptyMap(), TestUtils.getMockAllowContext());
+      assertTrue(result.getErrors().isEmpty());
+      assertEquals(result.getData(), ImmutableMap.of("node", ImmutableMap.of("id", "root")));
+    }
+    engine.execute("{ node(id: \"other\") { id } }", Collections.emptyMap(), TestUtils.getMockAllowContext());
+
+    assertEquals(engine.getPreparsedDocumentCacheStats().hitCount(), 2);
+    assertEquals(engine.getPreparsedDocumentCacheStats().missCount(), 2);
+  }
+
+  @Test
+  public void testMaxQueryDepth() {
+    final GraphQLEngine engine = buildEngine(3, 0);
+
+    // Rejected whether the document of the query was cached or not
+    for (int i = 0; i < 2; i++) {
+      final ExecutionResult result = engine.execute(DEEP_QUERY, Collections.emptyMap(), TestUtils.getMockAllowContext());
+      assertEquals(result.getErrors().size(), 1);
+      assertTrue(result.getErrors().get(0).getMessage().contains("exceeds the max depth of 3"));
+      assertNull(result.getData());
+    }
+    assertEquals(engine.getPreparsedDocumentCacheStats().hitCount(), 1);
+    assertEquals(_fetches.get(), 0);
+
+    final ExecutionResult result =
+        buildEngine(6, 0).execute(DEEP_QUERY, Collections.emptyMap(), TestUtils.getMockAllowContext());
+    assertTrue(result.getErrors().isEmpty());
+  }
+
+  @Test
+  public void testMaxQueryCost() {
+    final GraphQLEngine engine = buildEngine(0, 100);
+    final String query = "query search($count: Int!) { search(input: { query: \"*\", count: $count }) "
+        + "{ total nodes { id children { id } } } }";
+
+    // search costs 1 + (total 1 + nodes 4) * count
+    ExecutionResult result =
+        engine.execute(query, ImmutableMap.of("count", 50), TestUtils.getMockAllowContext());
+    assertEquals(result.getErrors().size(), 1);
+    assertTrue(result.getErrors().get(0).getMessage().contains("estimated cost 251 exceeds the max cost of 100"));
+    assertEquals(_fetches.get(), 0);
+
+    result = engine.execute(query, ImmutableMap.of("count", 5), TestUtils.getMockAllowContext());
+    assertTrue(result.getErrors().isEmpty());
+    assertEquals(((Map<?, ?>) ((Map<?, ?>) result.getData()).get("search")).get("total"), 5);
+  }
+
+  @Test
+  public void testTracing() {
+    final GraphQLEngine engine = buildEngine(0, 0);
+    final String query = "{ node(id: \"root\") { id } }";
+
+    final ExecutionResult result = engine.execute(query, Collections.emptyMap(), TestUtils.getMockAllowContext());
+    assertTrue(result.getExtensions() == null || !result.getExtensions().containsKey("tracing"));
+
+    final ExecutionResult tracedResult =
+        engine.execute(query, Collections.emptyMap(), TestUtils.getMockAllowContext(), true);
+    assertTrue(tracedResult.getExtensions().containsKey("tracing"));
+    assertEquals(tracedResult.getData(), result.getData());
+  }
+
+  @Test
+  public void testTopLevelFieldName() {
+    final GraphQLEngine engine = buildEngine(0, 0);
+    final String aliasedQuery = "{ clientChosenAlias: node(id: \"root\") { id } }";
+    final String invalidQuery = "{ unknownField }";
+
+    assertFalse(engine.getTopLevelFieldName(aliasedQuery).isPresent());
+    engine.execute(aliasedQuery, Collections.emptyMap(), TestUtils.getMockAllowContext());
+    engine.execute(invalidQuery, Collections.emptyMap(), TestUtils.getMockAllowContext());
+
+    // Named after the field of the schema, whatever the alias chosen by the client
+    assertEquals(engine.getTopLevelFieldName(aliasedQuery), Optional.of("node"));
+    assertFalse(engine.getTopLevelFieldName(invalidQuery).isPresent());
+  }
+
+  private GraphQLEngine buildEngine(int maxQueryDepth, int maxQueryCost) {
+    return GraphQLEngine.builder()
+        .addSchema(SCHEMA)
+        .configureRuntimeWiring(builder -> builder
+            .type("Query", typeWiring -> typeWiring
+                .dataFetcher("node", environment -> {
+                  _fetches.incrementAndGet();
+                  return node(environment.getArgument("id"));
+                })
+                .dataFetcher("search", environment -> {
+                  _fetches.incrementAndGet();
+                  final int count = (Integer) environment.<Map<String, Object>>getArgument("input").get("count");
+                  return ImmutableMap.of("total", count, "nodes", Collections.nCopies(count, node("result")));
+                }))
+            .type("Node", typeWiring -> typeWiring
+                .dataFetcher("children", environment -> {
+                  _fetches.incrementAndGet();
+                  return ImmutableList.of(node("child"));
+                })))
+        .setMaxQueryDepth(maxQueryDepth)
+        .setMaxQueryCost(maxQueryCost)
+        .build();
+  }
+
+  private static Map<String, Object> node(String id) {
+    return ImmutableMap.of("id", id);
+  }
+}
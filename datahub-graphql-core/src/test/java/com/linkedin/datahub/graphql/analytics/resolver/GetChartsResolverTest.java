@@ -0,0 +1,249 @@
+package com.linkedin.datahub.graphql.analytics.resolver;
+
+import com.datahub.authentication.Authentication;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.datahub.graphql.QueryContext;
+import com.linkedin.datahub.graphql.analytics.service.AnalyticsService;
+import com.linkedin.datahub.graphql.analytics.service.AnalyticsService.ChartQuery;
+import com.linkedin.datahub.graphql.analytics.service.AnalyticsUtil;
+import com.linkedin.datahub.graphql.generated.AnalyticsChart;
+import com.linkedin.datahub.graphql.generated.AnalyticsChartGroup;
+import com.linkedin.datahub.graphql.generated.BarChart;
+import com.linkedin.datahub.graphql.generated.DateInterval;
+import com.linkedin.datahub.graphql.generated.DateRange;
+import com.linkedin.datahub.graphql.generated.NamedBar;
+import com.linkedin.datahub.graphql.generated.NamedLine;
+import com.linkedin.datahub.graphql.generated.Row;
+import com.linkedin.datahub.graphql.generated.TableChart;
+import com.linkedin.datahub.graphql.generated.TimeSeriesChart;
+import com.linkedin.entity.client.EntityClient;
+import com.linkedin.metadata.utils.elasticsearch.IndexConventionImpl;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.search.aggregations.Aggregation;
+import org.elasticsearch.search.aggregations.AggregationBuilder;
+import org.elasticsearch.search.aggregations.Aggregations;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
+import org.elasticsearch.search.aggregations.bucket.filter.FilterAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.DateHistogramAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.histogram.Histogram;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
+import org.elasticsearch.search.aggregations.metrics.Cardinality;
+import org.elasticsearch.search.aggregations.metrics.CardinalityAggregationBuilder;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.linkedin.datahub.graphql.TestUtils.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.testng.Assert.assertEquals;
+
+
+public class GetChartsResolverTest {
+  private static final int NUM_BUCKETS = 3;
+
+  private RestHighLevelClient _elasticClient;
+  private AnalyticsService _analyticsService;
+
+  @BeforeMethod
+  public void setup() throws Exception {
+    // Answers every aggregation with deterministic buckets, whether it is sent alone or in a multi search
+    _elasticClient = Mockito.mock(RestHighLevelClient.class);
+    Mockito.when(_elasticClient.search(any(SearchRequest.class), any(RequestOptions.class)))
+        .thenAnswer(invocation -> buildSearchResponse(invocation.getArgument(0)));
+    Mockito.when(_elasticClient.msearch(any(MultiSearchRequest.class), any(RequestOptions.class)))
+        .thenAnswer(invocation -> {
+          final List<SearchRequest> requests = invocation.<MultiSearchRequest>getArgument(0).requests();
+          final MultiSearchResponse.Item[] items = new MultiSearchResponse.Item[requests.size()];
+          for (int i = 0; i < requests.size(); i++) {
+            items[i] = new MultiSearchResponse.Item(buildSearchResponse(requests.get(i)), null);
+          }
+          return new MultiSearchResponse(items, 0L);
+        });
+    _analyticsService = new AnalyticsService(_elasticClient, new IndexConventionImpl(null));
+  }
+
+  @Test
+  public void testBatchedChartsMatchSequentialCharts() {
+    final DateRange dateRange = new DateRange("0", "604800000");
+    final String usageIndex = _analyticsService.getUsageIndexName();
+    final String entityIndex = _analyticsService.getAllEntityIndexName();
+    final List<ChartQuery<?>> chartQueries = ImmutableList.of(
+        _analyticsService.getTimeseriesChartQuery(usageIndex, dateRange, DateInterval.WEEK, Optional.empty(),
+            ImmutableMap.of(), Collections.emptyMap(), Optional.of("browserId")),
+        _analyticsService.getTimeseriesChartQuery(usageIndex, dateRange, DateInterval.DAY, Optional.of("type"),
+            ImmutableMap.of("type", ImmutableList.of("SearchEvent")), Collections.emptyMap(), Optional.empty()),
+        _analyticsService.getTopNTableChartQuery(usageIndex, Optional.of(dateRange), "query.keyword",
+            ImmutableMap.of(), Collections.emptyMap(), Optional.of("browserId"), 10,
+            AnalyticsUtil::buildCellWithSearchLandingPage),
+        _analyticsService.getBarChartQuery(usageIndex, Optional.of(dateRange),
+            ImmutableList.of("entityType.keyword", "section.keyword"), ImmutableMap.of(), Collections.emptyMap(),
+            Optional.empty(), true),
+        _analyticsService.getBarChartQuery(entityIndex, Optional.empty(), ImmutableList.of("platform.keyword"),
+            Collections.emptyMap(), ImmutableMap.of("removed", ImmutableList.of("true")), Optional.of("urn"),
+            false));
+    final List<Object> sequentialCharts = ImmutableList.of(
+        _analyticsService.getTimeseriesChart(usageIndex, dateRange, DateInterval.WEEK, Optional.empty(),
+            ImmutableMap.of(), Collections.emptyMap(), Optional.of("browserId")),
+        _analyticsService.getTimeseriesChart(usageIndex, dateRange, DateInterval.DAY, Optional.of("type"),
+            ImmutableMap.of("type", ImmutableList.of("SearchEvent")), Collections.emptyMap(), Optional.empty()),
+        _analyticsService.getTopNTableChart(usageIndex, Optional.of(dateRange), "query.keyword", ImmutableMap.of(),
+            Collections.emptyMap(), Optional.of("browserId"), 10, AnalyticsUtil::buildCellWithSearchLandingPage),
+        _analyticsService.getBarChart(usageIndex, Optional.of(dateRange),
+            ImmutableList.of("entityType.keyword", "section.keyword"), ImmutableMap.of(), Collections.emptyMap(),
+            Optional.empty(), true),
+        _analyticsService.getBarChart(entityIndex, Optional.empty(), ImmutableList.of("platform.keyword"),
+            Collections.emptyMap(), ImmutableMap.of("removed", ImmutableList.of("true")), Optional.of("urn"), false));
+
+    final List<Filter> aggregations = _analyticsService.executeAndExtract(chartQueries);
+    assertEquals(aggregations.size(), chartQueries.size());
+    for (int i = 0; i < chartQueries.size(); i++) {
+      assertEquals(describe(chartQueries.get(i).extract(aggregations.get(i))), describe(sequentialCharts.get(i)));
+    }
+  }
+
+  @Test
+  public void testChartsAreFetchedInOneRoundTripAndCached() throws Exception {
+    final EntityClient entityClient = Mockito.mock(EntityClient.class);
+    Mockito.when(entityClient.batchGetV2(any(), any(), any(), any(Authentication.class)))
+        .thenReturn(Collections.emptyMap());
+    final GetChartsResolver resolver = new GetChartsResolver(_analyticsService, entityClient);
+    final QueryContext mockContext = getMockAllowContext();
+    final DataFetchingEnvironment mockEnv = Mockito.mock(DataFetchingEnvironment.class);
+    Mockito.when(mockEnv.getContext()).thenReturn(mockContext);
+
+    final List<AnalyticsChartGroup> chartGroups = resolver.get(mockEnv);
+    assertEquals(chartGroups.size(), 2);
+    assertEquals(chartGroups.get(0).getCharts().stream().map(this::getTitle).collect(Collectors.toList()),
+        ImmutableList.of("Weekly Active Users", "Searches Last Week", "Top Search Queries",
+            "Section Views across Entity Types", "Actions by Entity Type", "Top Viewed Dataset"));
+    assertEquals(chartGroups.get(1).getCharts().stream().map(this::getTitle).collect(Collectors.toList()),
+        ImmutableList.of("Entities per Domain", "Entities per Platform", "Entities per Term",
+            "Entities per Environment"));
+    Mockito.verify(_elasticClient, Mockito.times(1)).msearch(any(MultiSearchRequest.class), any(RequestOptions.class));
+    Mockito.verify(_elasticClient, Mockito.never()).search(any(SearchRequest.class), any(RequestOptions.class));
+
+    // The charts are cached until their TTL expires
+    final List<AnalyticsChartGroup> cachedChartGroups = resolver.get(mockEnv);
+    for (int i = 0; i < chartGroups.size(); i++) {
+      assertEquals(describe(cachedChartGroups.get(i).getCharts()), describe(chartGroups.get(i).getCharts()));
+    }
+    Mockito.verify(_elasticClient, Mockito.times(1)).msearch(any(MultiSearchRequest.class), any(RequestOptions.class));
+  }
+
+  private String getTitle(AnalyticsChart chart) {
+    if (chart instanceof TimeSeriesChart) {
+      return ((TimeSeriesChart) chart).getTitle();
+    } else if (chart instanceof BarChart) {
+      return ((BarChart) chart).getTitle();
+    }
+    return ((TableChart) chart).getTitle();
+  }
+
+  // Renders the charts field by field, as the generated chart types do not implement equals
+  private String describe(Object value) {
+    if (value instanceof List) {
+      return ((List<?>) value).stream().map(this::describe).collect(Collectors.joining(",", "[", "]"));
+    } else if (value instanceof TimeSeriesChart) {
+      final TimeSeriesChart chart = (TimeSeriesChart) value;
+      return String.format("TimeSeries(%s,%s,%s)", chart.getTitle(), chart.getInterval(), describe(chart.getLines()));
+    } else if (value instanceof BarChart) {
+      final BarChart chart = (BarChart) value;
+      return String.format("Bar(%s,%s)", chart.getTitle(), describe(chart.getBars()));
+    } else if (value instanceof TableChart) {
+      final TableChart chart = (TableChart) value;
+      return String.format("Table(%s,%s,%s)", chart.getTitle(), chart.getColumns(), describe(chart.getRows()));
+    } else if (value instanceof NamedLine) {
+      final NamedLine line = (NamedLine) value;
+      return line.getName() + line.getData()
+          .stream()
+          .map(point -> point.getX() + "=" + point.getY())
+          .collect(Collectors.toList());
+    } else if (value instanceof NamedBar) {
+      final NamedBar bar = (NamedBar) value;
+      return bar.getName() + bar.getSegments()
+          .stream()
+          .map(segment -> segment.getLabel() + "=" + segment.getValue())
+          .collect(Collectors.toList());
+    } else if (value instanceof Row) {
+      final Row row = (Row) value;
+      return row.getValues() + row.getCells()
+          .stream()
+          .map(cell -> cell.getValue() + "@" + (cell.getLinkParams() != null))
+          .collect(Collectors.toList());
+    }
+    throw new IllegalArgumentException("Unexpected chart value " + value);
+  }
+
+  private static SearchResponse buildSearchResponse(SearchRequest searchRequest) {
+    final SearchResponse searchResponse = Mockito.mock(SearchResponse.class);
+    final Aggregations aggregations = buildAggregations(searchRequest.source().aggregations().getAggregatorFactories(), 0);
+    Mockito.when(searchResponse.getAggregations()).thenReturn(aggregations);
+    return searchResponse;
+  }
+
+  private static Aggregations buildAggregations(Collection<AggregationBuilder> aggregationBuilders, int seed) {
+    final List<Aggregation> aggregations = new ArrayList<>();
+    for (AggregationBuilder aggregationBuilder : aggregationBuilders) {
+      final String name = aggregationBuilder.getName();
+      final Aggregations subAggregations = buildAggregations(aggregationBuilder.getSubAggregations(), seed + 1);
+      if (aggregationBuilder instanceof FilterAggregationBuilder) {
+        final Filter filter = Mockito.mock(Filter.class);
+        Mockito.when(filter.getName()).thenReturn(name);
+        Mockito.when(filter.getDocCount()).thenReturn(100L + seed);
+        Mockito.when(filter.getAggregations()).thenReturn(subAggregations);
+        aggregations.add(filter);
+      } else if (aggregationBuilder instanceof TermsAggregationBuilder) {
+        final String field = ((TermsAggregationBuilder) aggregationBuilder).field();
+        final List<Terms.Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+          final Terms.Bucket bucket = Mockito.mock(Terms.Bucket.class);
+          Mockito.when(bucket.getKeyAsString()).thenReturn(String.format("urn:li:dataPlatform:%s-%d-%d", field, seed, i));
+          Mockito.when(bucket.getDocCount()).thenReturn(10L * (seed + 1) + i);
+          Mockito.when(bucket.getAggregations()).thenReturn(buildAggregations(aggregationBuilder.getSubAggregations(),
+              seed + i + 1));
+          buckets.add(bucket);
+        }
+        final Terms terms = Mockito.mock(Terms.class);
+        Mockito.when(terms.getName()).thenReturn(name);
+        Mockito.doReturn(buckets).when(terms).getBuckets();
+        aggregations.add(terms);
+      } else if (aggregationBuilder instanceof DateHistogramAggregationBuilder) {
+        final List<Histogram.Bucket> buckets = new ArrayList<>();
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+          final Histogram.Bucket bucket = Mockito.mock(Histogram.Bucket.class);
+          Mockito.when(bucket.getKeyAsString()).thenReturn(String.valueOf(86400000L * i));
+          Mockito.when(bucket.getDocCount()).thenReturn(20L * (seed + 1) + i);
+          Mockito.when(bucket.getAggregations()).thenReturn(buildAggregations(aggregationBuilder.getSubAggregations(),
+              seed + i + 1));
+          buckets.add(bucket);
+        }
+        final Histogram histogram = Mockito.mock(Histogram.class);
+        Mockito.when(histogram.getName()).thenReturn(name);
+        Mockito.doReturn(buckets).when(histogram).getBuckets();
+        aggregations.add(histogram);
+      } else if (aggregationBuilder instanceof CardinalityAggregationBuilder) {
+        final Cardinality cardinality = Mockito.mock(Cardinality.class);
+        Mockito.when(cardinality.getName()).thenReturn(name);
+        Mockito.when(cardinality.getValue()).thenReturn(5L + seed);
+        aggregations.add(cardinality);
+      } else {
+        throw new IllegalArgumentException("Unexpected aggregation " + aggregationBuilder);
+      }
+    }
+    return new Aggregations(aggregations);
+  }
+}
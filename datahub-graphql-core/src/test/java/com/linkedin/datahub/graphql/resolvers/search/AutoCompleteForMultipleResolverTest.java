@@ -0,0 +1,164 @@
+package com.linkedin.datahub.graphql.resolvers.search;
+
+import com.datahub.authentication.Authentication;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.data.template.StringArray;
+import com.linkedin.datahub.graphql.QueryContext;
+import com.linkedin.datahub.graphql.generated.AutoCompleteMultipleInput;
+import com.linkedin.datahub.graphql.generated.AutoCompleteMultipleResults;
+import com.linkedin.datahub.graphql.generated.AutoCompleteResults;
+import com.linkedin.datahub.graphql.generated.EntityType;
+import com.linkedin.datahub.graphql.generated.FacetFilterInput;
+import com.linkedin.datahub.graphql.resolvers.EntityTypeMapper;
+import com.linkedin.datahub.graphql.types.SearchableEntityType;
+import com.linkedin.entity.client.EntityClient;
+import com.linkedin.metadata.query.AutoCompleteEntity;
+import com.linkedin.metadata.query.AutoCompleteEntityArray;
+import com.linkedin.metadata.query.AutoCompleteResult;
+import graphql.schema.DataFetchingEnvironment;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import org.mockito.Mockito;
+import org.testng.annotations.Test;
+
+import static com.linkedin.datahub.graphql.TestUtils.*;
+import static org.testng.Assert.*;
+
+
+public class AutoCompleteForMultipleResolverTest {
+
+  private static final String TEST_QUERY = "test";
+  private static final Urn TEST_DATASET_URN =
+      Urn.createFromTuple("dataset", "urn:li:dataPlatform:hive", "test", "PROD");
+
+  @Test
+  public void testGetWithoutFieldNorFiltersUsesSingleRequest() throws Exception {
+    EntityClient mockClient = Mockito.mock(EntityClient.class);
+    Mockito.when(mockClient.autoCompleteAcrossEntities(
+        Mockito.eq(ImmutableList.of("dataset", "chart")),
+        Mockito.eq(TEST_QUERY),
+        Mockito.eq(Collections.emptyMap()),
+        Mockito.eq(10),
+        Mockito.any(Authentication.class)
+    )).thenReturn(ImmutableMap.of(
+        "dataset", new AutoCompleteResult()
+            .setQuery(TEST_QUERY)
+            .setSuggestions(new StringArray(ImmutableList.of("test_dataset")))
+            .setEntities(new AutoCompleteEntityArray(
+                ImmutableList.of(new AutoCompleteEntity().setUrn(TEST_DATASET_URN)))),
+        "chart", new AutoCompleteResult()
+            .setQuery(TEST_QUERY)
+            .setSuggestions(new StringArray())
+            .setEntities(new AutoCompleteEntityArray())
+    ));
+    SearchableEntityType<?, ?> mockType = mockSearchableEntityType(EntityType.DATASET);
+
+    AutoCompleteForMultipleResolver resolver =
+        new AutoCompleteForMultipleResolver(ImmutableList.of(mockType), mockClient);
+    AutoCompleteMultipleInput input = new AutoCompleteMultipleInput();
+    input.setTypes(ImmutableList.of(EntityType.DATASET, EntityType.CHART));
+    input.setQuery(TEST_QUERY);
+    input.setLimit(10);
+    AutoCompleteMultipleResults results = resolver.get(getMockEnv(input)).get();
+
+    // Charts have no suggestions, and are left out
+    assertEquals(results.getQuery(), TEST_QUERY);
+    assertEquals(results.getSuggestions().size(), 1);
+    assertEquals(results.getSuggestions().get(0).getType(), EntityType.DATASET);
+    assertEquals(results.getSuggestions().get(0).getSuggestions(), ImmutableList.of("test_dataset"));
+    assertEquals(results.getSuggestions().get(0).getEntities().get(0).getUrn(), TEST_DATASET_URN.toString());
+    Mockito.verify(mockClient, Mockito.times(1)).autoCompleteAcrossEntities(
+        Mockito.anyList(), Mockito.anyString(), Mockito.anyMap(), Mockito.anyInt(), Mockito.any(Authentication.class));
+    Mockito.verify(mockType, Mockito.never()).autoComplete(
+        Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any(QueryContext.class));
+  }
+
+  @Test
+  public void testGetWithoutTypesUsesAutoCompleteEntityTypes() throws Exception {
+    EntityClient mockClient = Mockito.mock(EntityClient.class);
+    Mockito.when(mockClient.autoCompleteAcrossEntities(
+        Mockito.anyList(),
+        Mockito.eq(TEST_QUERY),
+        Mockito.eq(Collections.emptyMap()),
+        Mockito.anyInt(),
+        Mockito.any(Authentication.class)
+    )).thenReturn(Collections.emptyMap());
+
+    AutoCompleteForMultipleResolver resolver =
+        new AutoCompleteForMultipleResolver(ImmutableList.of(mockSearchableEntityType(EntityType.DATASET)), mockClient);
+    AutoCompleteMultipleInput input = new AutoCompleteMultipleInput();
+    input.setQuery(TEST_QUERY);
+    assertEquals(resolver.get(getMockEnv(input)).get().getSuggestions().size(), 0);
+
+    Mockito.verify(mockClient, Mockito.times(1)).autoCompleteAcrossEntities(
+        Mockito.eq(SearchUtils.AUTO_COMPLETE_ENTITY_TYPES.stream()
+            .map(EntityTypeMapper::getName)
+            .collect(Collectors.toList())),
+        Mockito.eq(TEST_QUERY),
+        Mockito.eq(Collections.emptyMap()),
+        Mockito.anyInt(),
+        Mockito.any(Authentication.class));
+  }
+
+  @Test
+  public void testGetWithFieldQueriesEachType() throws Exception {
+    EntityClient mockClient = Mockito.mock(EntityClient.class);
+    SearchableEntityType<?, ?> mockType = mockSearchableEntityType(EntityType.DATASET);
+
+    AutoCompleteForMultipleResolver resolver =
+        new AutoCompleteForMultipleResolver(ImmutableList.of(mockType), mockClient);
+    AutoCompleteMultipleInput input = new AutoCompleteMultipleInput();
+    input.setTypes(ImmutableList.of(EntityType.DATASET));
+    input.setQuery(TEST_QUERY);
+    input.setField("name");
+    AutoCompleteMultipleResults results = resolver.get(getMockEnv(input)).get();
+
+    assertEquals(results.getSuggestions().size(), 1);
+    assertEquals(results.getSuggestions().get(0).getSuggestions(), ImmutableList.of("test_dataset"));
+    Mockito.verify(mockType, Mockito.times(1)).autoComplete(
+        Mockito.eq(TEST_QUERY), Mockito.eq("name"), Mockito.any(), Mockito.anyInt(), Mockito.any(QueryContext.class));
+    Mockito.verifyZeroInteractions(mockClient);
+  }
+
+  @Test
+  public void testGetWithFiltersQueriesEachType() throws Exception {
+    EntityClient mockClient = Mockito.mock(EntityClient.class);
+    SearchableEntityType<?, ?> mockType = mockSearchableEntityType(EntityType.DATASET);
+
+    AutoCompleteForMultipleResolver resolver =
+        new AutoCompleteForMultipleResolver(ImmutableList.of(mockType), mockClient);
+    AutoCompleteMultipleInput input = new AutoCompleteMultipleInput();
+    input.setTypes(ImmutableList.of(EntityType.DATASET));
+    input.setQuery(TEST_QUERY);
+    input.setFilters(ImmutableList.of(new FacetFilterInput("platform", "urn:li:dataPlatform:hive")));
+    AutoCompleteMultipleResults results = resolver.get(getMockEnv(input)).get();
+
+    assertEquals(results.getSuggestions().size(), 1);
+    Mockito.verify(mockType, Mockito.times(1)).autoComplete(
+        Mockito.eq(TEST_QUERY), Mockito.any(), Mockito.anyList(), Mockito.anyInt(), Mockito.any(QueryContext.class));
+    Mockito.verifyZeroInteractions(mockClient);
+  }
+
+  private static SearchableEntityType<?, ?> mockSearchableEntityType(EntityType entityType) throws Exception {
+    SearchableEntityType<?, ?> mockType = Mockito.mock(SearchableEntityType.class);
+    Mockito.when(mockType.type()).thenReturn(entityType);
+    AutoCompleteResults results = new AutoCompleteResults();
+    results.setQuery(TEST_QUERY);
+    results.setSuggestions(ImmutableList.of("test_dataset"));
+    results.setEntities(Collections.emptyList());
+    Mockito.when(mockType.autoComplete(
+        Mockito.anyString(), Mockito.any(), Mockito.any(), Mockito.anyInt(), Mockito.any(QueryContext.class)
+    )).thenReturn(results);
+    return mockType;
+  }
+
+  private static DataFetchingEnvironment getMockEnv(AutoCompleteMultipleInput input) {
+    DataFetchingEnvironment mockEnv = Mockito.mock(DataFetchingEnvironment.class);
+    Mockito.when(mockEnv.getArgument(Mockito.eq("input"))).thenReturn(input);
+    QueryContext mockContext = getMockAllowContext();
+    Mockito.when(mockEnv.getContext()).thenReturn(mockContext);
+    return mockEnv;
+  }
+}
@@ -20,6 +20,10 @@ import java.util.List;
 
 
 public class RestoreBackup implements Upgrade {
+  public static final String BATCH_SIZE_ARG_NAME = "batchSize";
+  public static final String READER_POOL_SIZE_ARG_NAME = "readerPoolSize";
+  public static final String WRITER_POOL_SIZE_ARG_NAME = "writerPoolSize";
+  public static final String CHECKPOINT_FILE_PATH_ARG_NAME = "CHECKPOINT_FILE_PATH";
 
   private final List<UpgradeStep> _steps;
 
@@ -54,9 +58,9 @@ public class RestoreBackup implements Upgrade {
       final EntitySearchService searchClient) {
     final List<UpgradeStep> steps = new ArrayList<>();
     steps.add(new GMSDisableWriteModeStep(systemAuthentication, entityClient));
-    steps.add(new ClearSearchServiceStep(searchClient, true));
-    steps.add(new ClearGraphServiceStep(graphClient, true));
-    steps.add(new ClearAspectV2TableStep(server));
+    steps.add(new SkipWhenResumingStep(new ClearSearchServiceStep(searchClient, true)));
+    steps.add(new SkipWhenResumingStep(new ClearGraphServiceStep(graphClient, true)));
+    steps.add(new SkipWhenResumingStep(new ClearAspectV2TableStep(server)));
     steps.add(new RestoreStorageStep(entityService, entityRegistry));
     steps.add(new GMSEnableWriteModeStep(systemAuthentication, entityClient));
     return steps;
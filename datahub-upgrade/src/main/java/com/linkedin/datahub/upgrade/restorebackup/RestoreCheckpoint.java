@@ -0,0 +1,112 @@
+package com.linkedin.datahub.upgrade.restorebackup;
+
+import com.linkedin.datahub.upgrade.UpgradeContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * Tracks how many rows of each part of a backup have been restored, so that a failed restore can resume after them.
+ *
+ * <p>The batches of a part may complete in any order, only the rows up to the first batch that has not completed yet
+ * count as restored. The progress is saved to the file passed as CHECKPOINT_FILE_PATH, if any.
+ */
+public class RestoreCheckpoint {
+
+  @Nullable
+  private final Path _path;
+  private final Map<String, Long> _restoredRows = new HashMap<>();
+  // First row -> number of rows of the batches completed after the restored rows of each part
+  private final Map<String, TreeMap<Long, Integer>> _completedBatches = new HashMap<>();
+
+  private RestoreCheckpoint(@Nullable Path path) {
+    _path = path;
+  }
+
+  /**
+   * Loads the checkpoint of the restore, which is empty unless a previous restore failed.
+   */
+  @Nonnull
+  public static RestoreCheckpoint load(@Nonnull UpgradeContext context) throws IOException {
+    final Optional<Path> path = getPath(context);
+    final RestoreCheckpoint checkpoint = new RestoreCheckpoint(path.orElse(null));
+    if (path.isPresent() && Files.exists(path.get())) {
+      final Properties properties = new Properties();
+      try (InputStream inputStream = Files.newInputStream(path.get())) {
+        properties.load(inputStream);
+      }
+      properties.stringPropertyNames()
+          .forEach(part -> checkpoint._restoredRows.put(part, Long.parseLong(properties.getProperty(part))));
+    }
+    return checkpoint;
+  }
+
+  /**
+   * Returns whether a previous restore failed after restoring some rows.
+   */
+  public static boolean isResuming(@Nonnull UpgradeContext context) {
+    return getPath(context).map(Files::exists).orElse(false);
+  }
+
+  public synchronized long getRestoredRows(@Nonnull String part) {
+    return _restoredRows.getOrDefault(part, 0L);
+  }
+
+  /**
+   * Marks a batch of rows of a part as restored, and saves the progress if it moved the restored rows of the part.
+   */
+  public synchronized void markRestored(@Nonnull String part, long firstRow, int numRows) throws IOException {
+    final TreeMap<Long, Integer> completedBatches = _completedBatches.computeIfAbsent(part, key -> new TreeMap<>());
+    completedBatches.put(firstRow, numRows);
+    final long previouslyRestoredRows = getRestoredRows(part);
+    long restoredRows = previouslyRestoredRows;
+    while (completedBatches.containsKey(restoredRows)) {
+      restoredRows += completedBatches.remove(restoredRows);
+    }
+    if (restoredRows != previouslyRestoredRows) {
+      _restoredRows.put(part, restoredRows);
+      save();
+    }
+  }
+
+  /**
+   * Deletes the saved progress once the restore completed.
+   */
+  public synchronized void delete() throws IOException {
+    if (_path != null) {
+      Files.deleteIfExists(_path);
+    }
+  }
+
+  // Writes to a temporary file first, so that the checkpoint is never left half written
+  private void save() throws IOException {
+    if (_path == null) {
+      return;
+    }
+    final Properties properties = new Properties();
+    _restoredRows.forEach((part, rows) -> properties.setProperty(part, String.valueOf(rows)));
+    final Path tempPath = _path.resolveSibling(_path.getFileName() + ".tmp");
+    try (OutputStream outputStream = Files.newOutputStream(tempPath)) {
+      properties.store(outputStream, "Rows restored per backup part");
+    }
+    Files.move(tempPath, _path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static Optional<Path> getPath(@Nonnull UpgradeContext context) {
+    return context.parsedArgs()
+        .getOrDefault(RestoreBackup.CHECKPOINT_FILE_PATH_ARG_NAME, Optional.empty())
+        .map(Paths::get);
+  }
+}
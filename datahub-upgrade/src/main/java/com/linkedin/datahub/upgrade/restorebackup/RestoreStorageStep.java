@@ -1,6 +1,7 @@
 package com.linkedin.datahub.upgrade.restorebackup;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.common.AuditStamp;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.data.template.RecordTemplate;
@@ -11,22 +12,54 @@ import com.linkedin.datahub.upgrade.impl.DefaultUpgradeStepResult;
 import com.linkedin.datahub.upgrade.restorebackup.backupreader.BackupReader;
 import com.linkedin.datahub.upgrade.restorebackup.backupreader.EbeanAspectBackupIterator;
 import com.linkedin.datahub.upgrade.restorebackup.backupreader.LocalParquetReader;
+import com.linkedin.events.metadata.ChangeType;
 import com.linkedin.metadata.entity.EntityService;
+import com.linkedin.metadata.entity.EntityService.AspectUpdate;
+import com.linkedin.metadata.entity.EntityService.UpdateAspectResult;
 import com.linkedin.metadata.entity.ebean.EbeanAspectV2;
 import com.linkedin.metadata.entity.EntityUtils;
 import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.EntitySpec;
 import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.util.Pair;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
+/**
+ * Restores the aspects of a backup. Each part of the backup is read by its own reader thread, which splits the rows
+ * into batches. Batches are decoded and written in one transaction each by a pool of writer threads, and the change
+ * logs of the latest versions are then produced by a pool of producer threads. Readers and writers run the next stage
+ * themselves once its pool is saturated, which bounds the rows held in memory.
+ *
+ * <p>If CHECKPOINT_FILE_PATH is set, the progress of each part is saved after each batch so that a failed restore
+ * resumes after the rows it already restored.
+ */
 public class RestoreStorageStep implements UpgradeStep {
 
   private static final int REPORT_BATCH_SIZE = 1000;
+  private static final int DEFAULT_BATCH_SIZE = 1000;
+  private static final int DEFAULT_READER_POOL_SIZE = 4;
+  private static final int DEFAULT_WRITER_POOL_SIZE = 4;
+  private static final long POOL_TERMINATION_TIMEOUT_SECONDS = 60;
 
   private final EntityService _entityService;
   private final EntityRegistry _entityRegistry;
@@ -55,69 +88,263 @@ public class RestoreStorageStep implements UpgradeStep {
     return (context) -> {
 
       context.report().addLine("Starting backup restore...");
-      int numRows = 0;
       Optional<String> backupReaderName = context.parsedArgs().get("BACKUP_READER");
       if (!backupReaderName.isPresent() || !_backupReaders.containsKey(backupReaderName.get())) {
         context.report().addLine("BACKUP_READER is not set or is not valid");
         return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
       }
 
-      EbeanAspectBackupIterator iterator = _backupReaders.get(backupReaderName.get()).getBackupIterator(context);
-      EbeanAspectV2 aspect;
-      while ((aspect = iterator.next()) != null) {
-        numRows++;
+      final RestoreCheckpoint checkpoint;
+      try {
+        checkpoint = RestoreCheckpoint.load(context);
+      } catch (IOException e) {
+        context.report().addLine(String.format("Failed to load the restore checkpoint: %s", e));
+        return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
+      }
 
-        // 1. Extract an Entity type from the entity Urn
-        Urn urn;
-        try {
-          urn = Urn.createFromString(aspect.getKey().getUrn());
-        } catch (Exception e) {
-          context.report()
-              .addLine(
-                  String.format("Failed to bind Urn with value %s into Urn object: %s", aspect.getKey().getUrn(), e));
-          return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
+      final Map<String, EbeanAspectBackupIterator> iterators;
+      try {
+        iterators = _backupReaders.get(backupReaderName.get()).getBackupIterators(context);
+      } catch (RuntimeException e) {
+        context.report().addLine(String.format("Failed to read the backup: %s", e));
+        return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
+      }
+      final Restore restore = new Restore(context, checkpoint);
+      restore.run(iterators);
+
+      if (restore.getFailure() != null) {
+        context.report()
+            .addLine(String.format("Failed to restore the backup after adding %d rows to the aspect v2 table",
+                restore.getRestoredRows()));
+        return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
+      }
+      try {
+        checkpoint.delete();
+      } catch (IOException e) {
+        context.report().addLine(String.format("Failed to delete the restore checkpoint: %s", e));
+      }
+      context.report().addLine(String.format("Added %d rows to the aspect v2 table", restore.getRestoredRows()));
+      return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.SUCCEEDED);
+    };
+  }
+
+  /**
+   * A single run of the restore, which stops submitting batches after the first failure.
+   */
+  private class Restore {
+    private final UpgradeContext _context;
+    private final RestoreCheckpoint _checkpoint;
+    private final int _batchSize;
+    private final ExecutorService _readerPool;
+    private final ExecutorService _writerPool;
+    private final ExecutorService _producerPool;
+    private final Set<CompletableFuture<Void>> _pendingBatches = ConcurrentHashMap.newKeySet();
+    private final AtomicLong _restoredRows = new AtomicLong();
+    private final AtomicReference<String> _failure = new AtomicReference<>();
+
+    Restore(UpgradeContext context, RestoreCheckpoint checkpoint) {
+      _context = context;
+      _checkpoint = checkpoint;
+      _batchSize = getArg(context, RestoreBackup.BATCH_SIZE_ARG_NAME, DEFAULT_BATCH_SIZE);
+      _readerPool = Executors.newFixedThreadPool(
+          getArg(context, RestoreBackup.READER_POOL_SIZE_ARG_NAME, DEFAULT_READER_POOL_SIZE),
+          new ThreadFactoryBuilder().setNameFormat("restore-reader-%d").setDaemon(true).build());
+      final int writerPoolSize = getArg(context, RestoreBackup.WRITER_POOL_SIZE_ARG_NAME, DEFAULT_WRITER_POOL_SIZE);
+      _writerPool = buildBoundedPool(writerPoolSize, "restore-writer-%d");
+      _producerPool = buildBoundedPool(writerPoolSize, "restore-producer-%d");
+    }
+
+    String getFailure() {
+      return _failure.get();
+    }
+
+    long getRestoredRows() {
+      return _restoredRows.get();
+    }
+
+    void run(Map<String, EbeanAspectBackupIterator> iterators) {
+      try {
+        final List<CompletableFuture<Void>> reads = iterators.entrySet()
+            .stream()
+            .map(part -> CompletableFuture.runAsync(() -> readPart(part.getKey(), part.getValue()), _readerPool))
+            .collect(Collectors.toList());
+        // Every reader is awaited, the others stop at their next row after a failure
+        for (CompletableFuture<Void> read : reads) {
+          try {
+            read.join();
+          } catch (CompletionException e) {
+            fail(String.format("Failed to restore the backup: %s", e.getCause()));
+          }
+        }
+        // Readers are done, so no more batches are submitted. Batches never complete exceptionally.
+        CompletableFuture.allOf(_pendingBatches.toArray(new CompletableFuture[0])).join();
+      } finally {
+        shutdown(_readerPool);
+        shutdown(_writerPool);
+        shutdown(_producerPool);
+      }
+    }
+
+    private void shutdown(ExecutorService pool) {
+      pool.shutdown();
+      try {
+        if (!pool.awaitTermination(POOL_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+          fail(String.format("Timed out after %ds waiting for the restore threads to terminate",
+              POOL_TERMINATION_TIMEOUT_SECONDS));
         }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        fail("Interrupted while waiting for the restore threads to terminate");
+      }
+    }
 
-        // 2. Verify that the entity associated with the aspect is found in the registry.
-        final String entityName = urn.getEntityType();
-        final EntitySpec entitySpec;
+    private void readPart(String part, EbeanAspectBackupIterator iterator) {
+      try {
+        final long restoredRows = _checkpoint.getRestoredRows(part);
+        if (restoredRows > 0) {
+          report(String.format("Skipping the %d rows of %s restored before", restoredRows, part));
+        }
+        long numRows = 0;
+        long batchFirstRow = restoredRows;
+        List<EbeanAspectV2> batch = new ArrayList<>(_batchSize);
+        EbeanAspectV2 aspect;
+        while (_failure.get() == null && (aspect = iterator.next()) != null) {
+          if (numRows++ < restoredRows) {
+            continue;
+          }
+          batch.add(aspect);
+          if (batch.size() == _batchSize) {
+            submitBatch(part, batchFirstRow, batch);
+            batchFirstRow += batch.size();
+            batch = new ArrayList<>(_batchSize);
+          }
+        }
+        if (!batch.isEmpty() && _failure.get() == null) {
+          submitBatch(part, batchFirstRow, batch);
+        }
+      } finally {
         try {
-          entitySpec = _entityRegistry.getEntitySpec(entityName);
-        } catch (Exception e) {
-          context.report()
-              .addLine(String.format("Failed to find Entity with name %s in Entity Registry: %s", entityName, e));
-          return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
+          iterator.close();
+        } catch (IOException e) {
+          report(String.format("Failed to close the backup iterator of %s: %s", part, e));
         }
-        final String aspectName = aspect.getKey().getAspect();
+      }
+    }
+
+    private void submitBatch(String part, long firstRow, List<EbeanAspectV2> batch) {
+      final CompletableFuture<Void> future =
+          CompletableFuture.supplyAsync(() -> writeBatch(part, firstRow, batch), _writerPool)
+              .thenCompose(Function.identity())
+              .exceptionally(e -> {
+                fail(String.format("Failed to restore rows %d to %d of %s: %s", firstRow, firstRow + batch.size(),
+                    part, e instanceof CompletionException ? e.getCause() : e));
+                return null;
+              });
+      _pendingBatches.add(future);
+      future.whenComplete((result, e) -> _pendingBatches.remove(future));
+    }
 
-        // 3. Create record from json aspect
-        final RecordTemplate aspectRecord =
-            EntityUtils.toAspectRecord(entityName, aspectName, aspect.getMetadata(), _entityRegistry);
+    /**
+     * Writes a batch in a single transaction, then produces the change logs of the latest versions asynchronously.
+     * The batch is checkpointed once its change logs are produced.
+     */
+    private CompletableFuture<Void> writeBatch(String part, long firstRow, List<EbeanAspectV2> batch) {
+      final List<Pair<AspectUpdate, AspectSpec>> decodedBatch = new ArrayList<>(batch.size());
+      for (EbeanAspectV2 aspect : batch) {
+        decodedBatch.add(decode(aspect));
+      }
+      final List<UpdateAspectResult> results =
+          _entityService.updateAspects(decodedBatch.stream().map(Pair::getFirst).collect(Collectors.toList()));
+
+      final List<CompletableFuture<Void>> changeLogs = new ArrayList<>();
+      for (int i = 0; i < results.size(); i++) {
+        final AspectUpdate update = decodedBatch.get(i).getFirst();
+        final AspectSpec aspectSpec = decodedBatch.get(i).getSecond();
+        final UpdateAspectResult result = results.get(i);
+        if (update.getVersion() == 0L) {
+          changeLogs.add(CompletableFuture.runAsync(
+              () -> _entityService.produceMetadataChangeLog(update.getUrn(), update.getUrn().getEntityType(),
+                  update.getAspectName(), aspectSpec, result.getOldValue(), result.getNewValue(),
+                  result.getOldSystemMetadata(), result.getNewSystemMetadata(), update.getAuditStamp(),
+                  ChangeType.UPSERT), _producerPool));
+        }
+      }
 
-        // 4. Verify that the aspect is a valid aspect associated with the entity
-        AspectSpec aspectSpec;
+      return CompletableFuture.allOf(changeLogs.toArray(new CompletableFuture[0])).thenRun(() -> {
         try {
-          aspectSpec = entitySpec.getAspectSpec(aspectName);
-        } catch (Exception e) {
-          context.report()
-              .addLine(String.format("Failed to find aspect spec with name %s associated with entity named %s: %s",
-                  aspectName, entityName, e));
-          return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.FAILED);
+          _checkpoint.markRestored(part, firstRow, batch.size());
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+        final long restoredRows = _restoredRows.addAndGet(batch.size());
+        if (restoredRows / REPORT_BATCH_SIZE != (restoredRows - batch.size()) / REPORT_BATCH_SIZE) {
+          report(String.format("Successfully inserted %d rows", restoredRows));
         }
+      });
+    }
 
-        // 5. Write the row back using the EntityService
-        boolean emitMae = aspect.getKey().getVersion() == 0L;
-        _entityService.updateAspect(urn, entityName, aspectName, aspectSpec, aspectRecord, toAuditStamp(aspect),
-            aspect.getKey().getVersion(), emitMae);
+    private Pair<AspectUpdate, AspectSpec> decode(EbeanAspectV2 aspect) {
+      // 1. Extract an Entity type from the entity Urn
+      Urn urn;
+      try {
+        urn = Urn.createFromString(aspect.getKey().getUrn());
+      } catch (Exception e) {
+        throw new IllegalArgumentException(
+            String.format("Failed to bind Urn with value %s into Urn object: %s", aspect.getKey().getUrn(), e));
+      }
 
-        if (numRows % REPORT_BATCH_SIZE == 0) {
-          context.report().addLine(String.format("Successfully inserted %d rows", numRows));
-        }
+      // 2. Verify that the entity associated with the aspect is found in the registry.
+      final String entityName = urn.getEntityType();
+      final EntitySpec entitySpec;
+      try {
+        entitySpec = _entityRegistry.getEntitySpec(entityName);
+      } catch (Exception e) {
+        throw new IllegalArgumentException(
+            String.format("Failed to find Entity with name %s in Entity Registry: %s", entityName, e));
       }
+      final String aspectName = aspect.getKey().getAspect();
 
-      context.report().addLine(String.format("Added %d rows to the aspect v2 table", numRows));
-      return new DefaultUpgradeStepResult(id(), UpgradeStepResult.Result.SUCCEEDED);
-    };
+      // 3. Create record from json aspect
+      final RecordTemplate aspectRecord =
+          EntityUtils.toAspectRecord(entityName, aspectName, aspect.getMetadata(), _entityRegistry);
+
+      // 4. Verify that the aspect is a valid aspect associated with the entity
+      AspectSpec aspectSpec;
+      try {
+        aspectSpec = entitySpec.getAspectSpec(aspectName);
+      } catch (Exception e) {
+        throw new IllegalArgumentException(
+            String.format("Failed to find aspect spec with name %s associated with entity named %s: %s", aspectName,
+                entityName, e));
+      }
+
+      return Pair.of(
+          new AspectUpdate(urn, aspectName, aspectRecord, toAuditStamp(aspect), aspect.getKey().getVersion()),
+          aspectSpec);
+    }
+
+    private void fail(String failure) {
+      if (_failure.compareAndSet(null, failure)) {
+        report(failure);
+      }
+    }
+
+    private void report(String line) {
+      synchronized (_context.report()) {
+        _context.report().addLine(line);
+      }
+    }
+  }
+
+  private static int getArg(UpgradeContext context, String argName, int defaultValue) {
+    return context.parsedArgs().getOrDefault(argName, Optional.empty()).map(Integer::parseInt).orElse(defaultValue);
+  }
+
+  // Runs the task in the submitting thread once all threads are busy and the queue is full
+  private static ExecutorService buildBoundedPool(int poolSize, String nameFormat) {
+    return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(poolSize),
+        new ThreadFactoryBuilder().setNameFormat(nameFormat).setDaemon(true).build(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
   }
 
   private AuditStamp toAuditStamp(final EbeanAspectV2 aspect) {
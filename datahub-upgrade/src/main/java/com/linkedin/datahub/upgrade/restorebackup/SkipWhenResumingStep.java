@@ -0,0 +1,48 @@
+package com.linkedin.datahub.upgrade.restorebackup;
+
+import com.linkedin.datahub.upgrade.UpgradeContext;
+import com.linkedin.datahub.upgrade.UpgradeStep;
+import com.linkedin.datahub.upgrade.UpgradeStepResult;
+import java.util.function.Function;
+
+
+/**
+ * Skips the wrapped step when a restore resumes from a checkpoint, so that the rows restored so far are kept.
+ */
+public class SkipWhenResumingStep implements UpgradeStep {
+
+  private final UpgradeStep _step;
+
+  public SkipWhenResumingStep(final UpgradeStep step) {
+    _step = step;
+  }
+
+  @Override
+  public String id() {
+    return _step.id();
+  }
+
+  @Override
+  public Function<UpgradeContext, UpgradeStepResult> executable() {
+    return _step.executable();
+  }
+
+  @Override
+  public int retryCount() {
+    return _step.retryCount();
+  }
+
+  @Override
+  public boolean isOptional() {
+    return _step.isOptional();
+  }
+
+  @Override
+  public boolean skip(UpgradeContext context) {
+    if (RestoreCheckpoint.isResuming(context)) {
+      context.report().addLine(String.format("Resuming restore from checkpoint, skipping %s.", id()));
+      return true;
+    }
+    return _step.skip(context);
+  }
+}
@@ -1,6 +1,8 @@
 package com.linkedin.datahub.upgrade.restorebackup.backupreader;
 
 import com.linkedin.datahub.upgrade.UpgradeContext;
+import java.util.Collections;
+import java.util.Map;
 import javax.annotation.Nonnull;
 
 
@@ -13,4 +15,13 @@ public interface BackupReader {
 
   @Nonnull
   EbeanAspectBackupIterator getBackupIterator(UpgradeContext context);
+
+  /**
+   * Creates an iterator for each part of the backup, e.g. each file, keyed by the name of the part. The parts can be
+   * read concurrently.
+   */
+  @Nonnull
+  default Map<String, EbeanAspectBackupIterator> getBackupIterators(UpgradeContext context) {
+    return Collections.singletonMap(getName(), getBackupIterator(context));
+  }
 }
@@ -2,8 +2,15 @@ package com.linkedin.datahub.upgrade.restorebackup.backupreader;
 
 import com.google.common.collect.ImmutableList;
 import com.linkedin.datahub.upgrade.UpgradeContext;
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.generic.GenericRecord;
@@ -19,6 +26,8 @@ import org.apache.parquet.hadoop.ParquetReader;
 @Slf4j
 public class LocalParquetReader implements BackupReader {
 
+  private static final String PARQUET_FILE_EXTENSION = ".parquet";
+
   public LocalParquetReader() {
     // Need below to solve issue with hadoop path class not working in linux systems
     // https://stackoverflow.com/questions/41864985/hadoop-ioexception-failure-to-login
@@ -33,6 +42,24 @@ public class LocalParquetReader implements BackupReader {
   @Nonnull
   @Override
   public EbeanAspectBackupIterator getBackupIterator(UpgradeContext context) {
+    return new ParquetEbeanAspectBackupIterator(
+        getBackupFiles(context).stream().map(this::buildParquetReader).collect(Collectors.toList()));
+  }
+
+  @Nonnull
+  @Override
+  public Map<String, EbeanAspectBackupIterator> getBackupIterators(UpgradeContext context) {
+    final Map<String, EbeanAspectBackupIterator> iterators = new LinkedHashMap<>();
+    getBackupFiles(context).forEach(file -> iterators.put(file,
+        new ParquetEbeanAspectBackupIterator(ImmutableList.of(buildParquetReader(file)))));
+    return iterators;
+  }
+
+  /**
+   * Lists the files of the backup. BACKUP_FILE_PATH is a comma separated list of parquet files or of directories
+   * containing them.
+   */
+  private List<String> getBackupFiles(UpgradeContext context) {
     Optional<String> path = context.parsedArgs().get("BACKUP_FILE_PATH");
     if (!path.isPresent()) {
       context.report().addLine("BACKUP_FILE_PATH must be set to run RestoreBackup through local parquet file");
@@ -40,9 +67,26 @@ public class LocalParquetReader implements BackupReader {
           "BACKUP_FILE_PATH must be set to run RestoreBackup through local parquet file");
     }
 
+    final List<String> files = new ArrayList<>();
+    for (String filePath : path.get().split(",")) {
+      final File file = new File(filePath.trim());
+      if (file.isDirectory()) {
+        final File[] parquetFiles = file.listFiles((dir, name) -> name.endsWith(PARQUET_FILE_EXTENSION));
+        if (parquetFiles == null || parquetFiles.length == 0) {
+          // An empty backup would otherwise restore nothing and succeed
+          throw new IllegalArgumentException(String.format("No parquet file found in directory %s", file.getPath()));
+        }
+        Arrays.stream(parquetFiles).map(File::getPath).sorted().forEach(files::add);
+      } else {
+        files.add(file.getPath());
+      }
+    }
+    return files;
+  }
+
+  private ParquetReader<GenericRecord> buildParquetReader(String file) {
     try {
-      ParquetReader<GenericRecord> reader = AvroParquetReader.<GenericRecord>builder(new Path(path.get())).build();
-      return new ParquetEbeanAspectBackupIterator(ImmutableList.of(reader));
+      return AvroParquetReader.<GenericRecord>builder(new Path(file)).build();
     } catch (IOException e) {
       throw new RuntimeException(String.format("Failed to build ParquetReader: %s", e));
     }
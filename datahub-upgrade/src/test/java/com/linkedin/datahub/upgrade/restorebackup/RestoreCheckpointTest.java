@@ -0,0 +1,73 @@
+package com.linkedin.datahub.upgrade.restorebackup;
+
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.datahub.upgrade.UpgradeContext;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Optional;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class RestoreCheckpointTest {
+
+  private Path _checkpointPath;
+  private UpgradeContext _context;
+
+  @BeforeMethod
+  public void setup() throws Exception {
+    _checkpointPath = Files.createTempDirectory("restore-checkpoint").resolve("checkpoint.properties");
+    _context = mock(UpgradeContext.class);
+    when(_context.parsedArgs()).thenReturn(
+        ImmutableMap.of(RestoreBackup.CHECKPOINT_FILE_PATH_ARG_NAME, Optional.of(_checkpointPath.toString())));
+  }
+
+  @Test
+  public void testMarkRestoredOutOfOrder() throws Exception {
+    final RestoreCheckpoint checkpoint = RestoreCheckpoint.load(_context);
+    assertFalse(RestoreCheckpoint.isResuming(_context));
+
+    // The rows after a batch that has not completed yet are not restored
+    checkpoint.markRestored("part1", 20, 10);
+    checkpoint.markRestored("part1", 10, 10);
+    assertEquals(checkpoint.getRestoredRows("part1"), 0L);
+    assertFalse(Files.exists(_checkpointPath));
+
+    checkpoint.markRestored("part1", 0, 10);
+    checkpoint.markRestored("part2", 0, 5);
+    assertEquals(checkpoint.getRestoredRows("part1"), 30L);
+    assertEquals(checkpoint.getRestoredRows("part2"), 5L);
+    assertTrue(RestoreCheckpoint.isResuming(_context));
+
+    final RestoreCheckpoint loadedCheckpoint = RestoreCheckpoint.load(_context);
+    assertEquals(loadedCheckpoint.getRestoredRows("part1"), 30L);
+    assertEquals(loadedCheckpoint.getRestoredRows("part2"), 5L);
+    assertEquals(loadedCheckpoint.getRestoredRows("part3"), 0L);
+
+    // Resumes after the restored rows
+    loadedCheckpoint.markRestored("part1", 30, 10);
+    assertEquals(RestoreCheckpoint.load(_context).getRestoredRows("part1"), 40L);
+
+    loadedCheckpoint.delete();
+    assertFalse(RestoreCheckpoint.isResuming(_context));
+  }
+
+  @Test
+  public void testMarkRestoredWithoutCheckpointFile() throws Exception {
+    final UpgradeContext context = mock(UpgradeContext.class);
+    when(context.parsedArgs()).thenReturn(Collections.emptyMap());
+
+    final RestoreCheckpoint checkpoint = RestoreCheckpoint.load(context);
+    checkpoint.markRestored("part1", 0, 10);
+    assertEquals(checkpoint.getRestoredRows("part1"), 10L);
+    assertFalse(RestoreCheckpoint.isResuming(context));
+    checkpoint.delete();
+  }
+}
@@ -0,0 +1,172 @@
+package com.linkedin.datahub.upgrade.restorebackup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.linkedin.datahub.upgrade.UpgradeContext;
+import com.linkedin.datahub.upgrade.UpgradeStepResult;
+import com.linkedin.datahub.upgrade.impl.DefaultUpgradeReport;
+import com.linkedin.identity.CorpUserInfo;
+import com.linkedin.metadata.entity.EntityService;
+import com.linkedin.metadata.entity.EntityService.AspectUpdate;
+import com.linkedin.metadata.entity.EntityService.UpdateAspectResult;
+import com.linkedin.metadata.models.registry.ConfigEntityRegistry;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.snapshot.Snapshot;
+import com.linkedin.mxe.MetadataAuditOperation;
+import com.linkedin.mxe.SystemMetadata;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.avro.Schema;
+import org.apache.avro.SchemaBuilder;
+import org.apache.avro.generic.GenericData;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.hadoop.fs.Path;
+import org.apache.parquet.avro.AvroParquetWriter;
+import org.apache.parquet.hadoop.ParquetWriter;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class RestoreStorageStepTest {
+
+  private static final Schema BACKUP_SCHEMA = SchemaBuilder.record("metadata_aspect_v2")
+      .fields()
+      .requiredString("urn")
+      .requiredString("aspect")
+      .requiredLong("version")
+      .requiredString("metadata")
+      .requiredLong("createdon")
+      .requiredString("createdby")
+      .optionalString("createdfor")
+      .optionalString("systemmetadata")
+      .endRecord();
+  private static final String ASPECT_NAME = "corpUserInfo";
+
+  private final EntityRegistry _entityRegistry =
+      new ConfigEntityRegistry(Snapshot.class.getClassLoader().getResourceAsStream("entity-registry.yml"));
+  private EntityService _entityService;
+  private RestoreStorageStep _step;
+  private File _backupDir;
+  private List<AspectUpdate> _updates;
+
+  @BeforeMethod
+  public void setup() throws Exception {
+    _entityService = mock(EntityService.class);
+    _updates = Collections.synchronizedList(new ArrayList<>());
+    when(_entityService.updateAspects(any())).thenAnswer(invocation -> {
+      final List<AspectUpdate> updates = invocation.getArgument(0);
+      _updates.addAll(updates);
+      return updates.stream()
+          .map(update -> new UpdateAspectResult(update.getUrn(), null, update.getValue(), new SystemMetadata(),
+              new SystemMetadata(), MetadataAuditOperation.UPDATE, update.getAuditStamp(), update.getVersion()))
+          .collect(Collectors.toList());
+    });
+    // Also sets the login user needed by hadoop to write the backup
+    _step = new RestoreStorageStep(_entityService, _entityRegistry);
+    _backupDir = Files.createTempDirectory("restore-backup").toFile();
+  }
+
+  @Test
+  public void testRestoreParquetBackup() throws Exception {
+    writeBackup("part1.parquet", ImmutableList.of(
+        buildRow("urn:li:corpuser:user1", 0, "user1@test.com"),
+        buildRow("urn:li:corpuser:user1", 1, "user1.v1@test.com"),
+        buildRow("urn:li:corpuser:user2", 0, "user2@test.com")));
+    writeBackup("part2.parquet", ImmutableList.of(buildRow("urn:li:corpuser:user3", 0, "user3@test.com")));
+
+    final UpgradeStepResult result = _step.executable().apply(buildContext(_backupDir.getPath()));
+
+    assertEquals(result.result(), UpgradeStepResult.Result.SUCCEEDED);
+    final Set<String> restoredAspects = _updates.stream()
+        .map(update -> String.format("%s %d %s", update.getUrn(), update.getVersion(),
+            ((CorpUserInfo) update.getValue()).getEmail()))
+        .collect(Collectors.toSet());
+    assertEquals(restoredAspects, ImmutableSet.of(
+        "urn:li:corpuser:user1 0 user1@test.com",
+        "urn:li:corpuser:user1 1 user1.v1@test.com",
+        "urn:li:corpuser:user2 0 user2@test.com",
+        "urn:li:corpuser:user3 0 user3@test.com"));
+    assertEquals(_updates.size(), 4);
+    _updates.forEach(update -> assertEquals(update.getAuditStamp().getTime().longValue(), 1000L));
+    // Change logs are only produced for the latest versions
+    verify(_entityService, times(3)).produceMetadataChangeLog(any(), any(), any(), any(), any(), any(), any(), any(),
+        any(), any());
+  }
+
+  @Test
+  public void testRestoreFailsWithoutParquetFile() throws Exception {
+    final UpgradeStepResult result = _step.executable().apply(buildContext(_backupDir.getPath()));
+
+    assertEquals(result.result(), UpgradeStepResult.Result.FAILED);
+    verifyZeroInteractions(_entityService);
+  }
+
+  @Test
+  public void testRestoreFailsWhenWriteFails() throws Exception {
+    writeBackup("part1.parquet", ImmutableList.of(
+        buildRow("urn:li:corpuser:user1", 0, "user1@test.com"),
+        buildRow("urn:li:corpuser:user2", 0, "user2@test.com"),
+        buildRow("urn:li:corpuser:user3", 0, "user3@test.com")));
+    doThrow(new IllegalStateException("Write failed")).when(_entityService).updateAspects(any());
+    final UpgradeContext context = buildContext(_backupDir.getPath());
+
+    final UpgradeStepResult result = _step.executable().apply(context);
+
+    assertEquals(result.result(), UpgradeStepResult.Result.FAILED);
+    assertTrue(context.report().lines().stream().anyMatch(line -> line.contains("Write failed")));
+  }
+
+  private UpgradeContext buildContext(String backupFilePath) {
+    final UpgradeContext context = mock(UpgradeContext.class);
+    final Map<String, Optional<String>> args = ImmutableMap.of(
+        "BACKUP_READER", Optional.of("LOCAL_PARQUET"),
+        "BACKUP_FILE_PATH", Optional.of(backupFilePath),
+        RestoreBackup.BATCH_SIZE_ARG_NAME, Optional.of("2"),
+        RestoreBackup.READER_POOL_SIZE_ARG_NAME, Optional.of("2"),
+        RestoreBackup.WRITER_POOL_SIZE_ARG_NAME, Optional.of("2"));
+    when(context.parsedArgs()).thenReturn(args);
+    when(context.report()).thenReturn(new DefaultUpgradeReport());
+    return context;
+  }
+
+  private void writeBackup(String fileName, List<GenericRecord> rows) throws Exception {
+    try (ParquetWriter<GenericRecord> writer =
+        AvroParquetWriter.<GenericRecord>builder(new Path(new File(_backupDir, fileName).getPath()))
+            .withSchema(BACKUP_SCHEMA)
+            .build()) {
+      for (GenericRecord row : rows) {
+        writer.write(row);
+      }
+    }
+  }
+
+  private static GenericRecord buildRow(String urn, long version, String email) {
+    final GenericRecord row = new GenericData.Record(BACKUP_SCHEMA);
+    row.put("urn", urn);
+    row.put("aspect", ASPECT_NAME);
+    row.put("version", version);
+    row.put("metadata", String.format("{\"active\":true,\"email\":\"%s\"}", email));
+    // In microseconds
+    row.put("createdon", 1000000L);
+    row.put("createdby", "urn:li:corpuser:datahub");
+    return row;
+  }
+}
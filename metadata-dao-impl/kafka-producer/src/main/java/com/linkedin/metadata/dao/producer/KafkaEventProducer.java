@@ -15,10 +15,15 @@ import com.linkedin.mxe.SystemMetadata;
 import com.linkedin.mxe.TopicConvention;
 import com.linkedin.mxe.TopicConventionImpl;
 import com.linkedin.mxe.Topics;
+import com.linkedin.util.Pair;
 import io.opentelemetry.extension.annotations.WithSpan;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +32,7 @@ import org.apache.avro.generic.IndexedRecord;
 import org.apache.kafka.clients.producer.Callback;
 import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
 
 
 /**
@@ -157,6 +163,32 @@ public class KafkaEventProducer implements EventProducer {
 
   @Override
   public void producePlatformEvent(@Nonnull String name, @Nullable String key, @Nonnull PlatformEvent event) {
+    sendPlatformEvent(name, key, event);
+  }
+
+  /**
+   * Sends all the events of the batch, then blocks until the broker acknowledged each of them. Events are sent in order,
+   * so events sharing a partitioning key keep their order.
+   */
+  @Override
+  public void producePlatformEvents(@Nonnull String name, @Nonnull List<Pair<String, PlatformEvent>> keyedEvents) {
+    final List<Future<RecordMetadata>> sends = keyedEvents.stream()
+        .map(keyedEvent -> sendPlatformEvent(name, keyedEvent.getFirst(), keyedEvent.getSecond()))
+        .collect(Collectors.toList());
+    try {
+      for (Future<RecordMetadata> send : sends) {
+        send.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(String.format("Interrupted while emitting Platform Events with name %s", name), e);
+    } catch (ExecutionException e) {
+      throw new RuntimeException(String.format("Failed to emit Platform Events with name %s", name), e.getCause());
+    }
+  }
+
+  private Future<RecordMetadata> sendPlatformEvent(@Nonnull String name, @Nullable String key,
+      @Nonnull PlatformEvent event) {
     GenericRecord record;
     try {
       log.debug(String.format("Converting Pegasus Event to Avro Event urn %s\nEvent: %s",
@@ -179,7 +211,7 @@ public class KafkaEventProducer implements EventProducer {
     });
 
     final String topic = _topicConvention.getPlatformEventTopicName();
-    _producer.send(new ProducerRecord(topic, key == null ? name : key, record), callback);
+    return _producer.send(new ProducerRecord(topic, key == null ? name : key, record), callback);
   }
 
   @VisibleForTesting
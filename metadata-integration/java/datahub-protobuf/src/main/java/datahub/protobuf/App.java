@@ -44,6 +44,8 @@ public class App {
         FabricType fabricType = FabricType.valueOf(env.getOrDefault("DATAHUB_ENV", "DEV"));
         String githubOrg = env.getOrDefault("DATAHUB_GITHUBORG", null);
         String slackId = env.getOrDefault("DATAHUB_SLACKID", null);
+        Integer maxPathLength = env.containsKey("DATAHUB_MAX_PATH_LENGTH")
+                ? Integer.valueOf(env.get("DATAHUB_MAX_PATH_LENGTH")) : null;
 
         try {
             RestEmitter emitter = RestEmitter
@@ -65,6 +67,7 @@ public class App {
                     .setFabricType(fabricType)
                     .setGithubOrganization(githubOrg)
                     .setSlackTeamId(slackId)
+                    .setMaxPathLength(maxPathLength)
                     .build();
 
             dataset.getAllMetadataChangeProposals().flatMap(Collection::stream)
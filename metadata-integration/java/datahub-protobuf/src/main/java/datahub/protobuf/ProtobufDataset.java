@@ -58,6 +58,7 @@ public class ProtobufDataset {
         private String schema;
         private String githubOrganization;
         private String slackTeamId;
+        private Integer maxPathLength;
 
         public Builder setGithubOrganization(@Nullable String githubOrganization) {
             this.githubOrganization = githubOrganization;
@@ -112,6 +113,14 @@ public class ProtobufDataset {
             return this;
         }
 
+        /**
+         * Bounds the number of segments of the field paths, to limit the expansion of recursive messages.
+         */
+        public Builder setMaxPathLength(@Nullable Integer maxPathLength) {
+            this.maxPathLength = maxPathLength;
+            return this;
+        }
+
         public ProtobufDataset build() throws IOException {
             FileDescriptorSet fileSet = FileDescriptorSet.parseFrom(protocBytes);
 
@@ -119,7 +128,7 @@ public class ProtobufDataset {
                     this,
                     Optional.ofNullable(dataPlatformUrn).orElse(new DataPlatformUrn("kafka")),
                     datasetUrn,
-                    new ProtobufGraph(fileSet, messageName, filename), schema, auditStamp, fabricType)
+                    new ProtobufGraph(fileSet, messageName, filename, true, maxPathLength), schema, auditStamp, fabricType)
                     .setMetadataChangeProposalVisitors(
                             List.of(
                                     new TagVisitor()
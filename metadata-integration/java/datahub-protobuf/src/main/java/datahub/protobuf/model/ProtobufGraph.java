@@ -9,9 +9,16 @@ import datahub.protobuf.visitors.VisitContext;
 import org.jgrapht.GraphPath;
 import org.jgrapht.alg.shortestpath.AllDirectedPaths;
 import org.jgrapht.graph.DefaultDirectedGraph;
+import org.jgrapht.graph.GraphWalk;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -24,6 +31,9 @@ public class ProtobufGraph extends DefaultDirectedGraph<ProtobufElement, FieldTy
     private final transient ProtobufMessage rootProtobufMessage;
     private final transient AllDirectedPaths<ProtobufElement, FieldTypeEdge> directedPaths;
     private final transient ExtensionRegistry registry;
+    private final transient Integer maxPathLength;
+    // Last nodes of the paths from the root message to every element, computed on first use
+    private transient Map<ProtobufElement, List<RootPathNode>> rootPaths;
 
     public ProtobufGraph(DescriptorProtos.FileDescriptorSet fileSet) throws InvalidProtocolBufferException {
         this(fileSet, null, null, true);
@@ -39,8 +49,18 @@ public class ProtobufGraph extends DefaultDirectedGraph<ProtobufElement, FieldTy
 
     public ProtobufGraph(DescriptorProtos.FileDescriptorSet fileSet, String messageName, String filename,
                          boolean flattenGoogleWrapped) throws InvalidProtocolBufferException {
+        this(fileSet, messageName, filename, flattenGoogleWrapped, null);
+    }
+
+    /**
+     * @param maxPathLength max number of edges of the paths from the root message, which bounds the nesting depth of
+     *                      the field paths of recursive messages. Null for no bound.
+     */
+    public ProtobufGraph(DescriptorProtos.FileDescriptorSet fileSet, String messageName, String filename,
+                         boolean flattenGoogleWrapped, Integer maxPathLength) throws InvalidProtocolBufferException {
         super(FieldTypeEdge.class);
         this.registry = ProtobufUtils.buildRegistry(fileSet);
+        this.maxPathLength = maxPathLength;
         DescriptorProtos.FileDescriptorSet fileSetExtended = DescriptorProtos.FileDescriptorSet
                 .parseFrom(fileSet.toByteArray(), this.registry);
         buildProtobufGraph(fileSetExtended);
@@ -69,8 +89,92 @@ public class ProtobufGraph extends DefaultDirectedGraph<ProtobufElement, FieldTy
         this.directedPaths = new AllDirectedPaths<>(this);
     }
 
+    /**
+     * All the simple paths from a to b, up to the max path length. Paths from the root message are served from an
+     * index built once for the whole graph, and only the paths to b are materialized.
+     */
     public List<GraphPath<ProtobufElement, FieldTypeEdge>> getAllPaths(ProtobufElement a, ProtobufElement b) {
-        return directedPaths.getAllPaths(a, b, true, null);
+        if (a.equals(rootProtobufMessage) && !b.equals(rootProtobufMessage)) {
+            return getRootPaths().getOrDefault(b, List.of()).stream()
+                    .map(node -> node.toGraphPath(this, rootProtobufMessage))
+                    .collect(Collectors.toList());
+        }
+        return directedPaths.getAllPaths(a, b, true, maxPathLength);
+    }
+
+    private synchronized Map<ProtobufElement, List<RootPathNode>> getRootPaths() {
+        if (rootPaths == null) {
+            rootPaths = indexRootPaths();
+        }
+        return rootPaths;
+    }
+
+    /**
+     * Enumerates the simple paths from the root message in a single depth first traversal, recording each one at the
+     * element it ends on. A path is stored as its last edge linked to the path it extends, so paths sharing a prefix
+     * share its nodes and each path takes constant memory whatever its length.
+     */
+    private Map<ProtobufElement, List<RootPathNode>> indexRootPaths() {
+        Map<ProtobufElement, List<RootPathNode>> index = new HashMap<>();
+        Set<ProtobufElement> pathVertices = new HashSet<>(Set.of(rootProtobufMessage));
+        // Last node of the current path, null for the empty path at the root
+        RootPathNode pathNode = null;
+        // Edges left to follow from each vertex of the current path
+        Deque<Iterator<FieldTypeEdge>> pendingEdges = new ArrayDeque<>();
+        pendingEdges.push(outgoingEdgesOf(rootProtobufMessage).iterator());
+
+        while (!pendingEdges.isEmpty()) {
+            Iterator<FieldTypeEdge> edges = pendingEdges.peek();
+            if (!edges.hasNext()) {
+                pendingEdges.pop();
+                if (pathNode != null) {
+                    pathVertices.remove(getEdgeTarget(pathNode.edge));
+                    pathNode = pathNode.parent;
+                }
+                continue;
+            }
+
+            FieldTypeEdge edge = edges.next();
+            ProtobufElement target = getEdgeTarget(edge);
+            // Recursive messages are expanded once per path
+            if (pathVertices.contains(target)) {
+                continue;
+            }
+
+            RootPathNode node = new RootPathNode(edge, pathNode);
+            index.computeIfAbsent(target, k -> new ArrayList<>()).add(node);
+
+            if (maxPathLength == null || node.length < maxPathLength) {
+                pathVertices.add(target);
+                pendingEdges.push(outgoingEdgesOf(target).iterator());
+                pathNode = node;
+            }
+        }
+
+        return index;
+    }
+
+    /**
+     * A path from the root message, as its last edge and the path it extends.
+     */
+    private static final class RootPathNode {
+        private final FieldTypeEdge edge;
+        private final RootPathNode parent;
+        private final int length;
+
+        private RootPathNode(FieldTypeEdge edge, RootPathNode parent) {
+            this.edge = edge;
+            this.parent = parent;
+            this.length = parent == null ? 1 : parent.length + 1;
+        }
+
+        private GraphPath<ProtobufElement, FieldTypeEdge> toGraphPath(ProtobufGraph graph, ProtobufMessage root) {
+            FieldTypeEdge[] edges = new FieldTypeEdge[length];
+            for (RootPathNode node = this; node != null; node = node.parent) {
+                edges[node.length - 1] = node.edge;
+            }
+            return new GraphWalk<>(graph, root, graph.getEdgeTarget(edge), Arrays.asList(edges), length);
+        }
     }
 
     public ExtensionRegistry getRegistry() {
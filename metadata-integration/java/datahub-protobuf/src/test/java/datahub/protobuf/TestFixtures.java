@@ -53,6 +53,67 @@ public class TestFixtures {
                 .parseFrom(getTestProtoc(protoPackage, filename).readAllBytes());
     }
 
+    /**
+     * Messages nested depth levels deep, each level referencing the next one through two fields, so that the number of
+     * paths to the fields of a level doubles at each level.
+     */
+    public static DescriptorProtos.FileDescriptorSet getNestedProtobufFileSet(int depth) {
+        DescriptorProtos.FileDescriptorProto.Builder file = newFile("protobuf/nested.proto");
+        for (int level = 0; level <= depth; level++) {
+            DescriptorProtos.DescriptorProto.Builder message = DescriptorProtos.DescriptorProto.newBuilder()
+                    .setName("Level" + level)
+                    .addField(newField("name", 1, DescriptorProtos.FieldDescriptorProto.Type.TYPE_STRING, null));
+            if (level < depth) {
+                message.addField(newField("left", 2, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Level" + (level + 1)))
+                        .addField(newField("right", 3, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Level" + (level + 1)));
+            }
+            file.addMessageType(message);
+        }
+        return DescriptorProtos.FileDescriptorSet.newBuilder().addFile(file).build();
+    }
+
+    /**
+     * Mutually recursive messages, a graph of nodes linked by edges referencing nodes and other edges.
+     */
+    public static DescriptorProtos.FileDescriptorSet getRecursiveProtobufFileSet() {
+        DescriptorProtos.FileDescriptorProto.Builder file = newFile("protobuf/recursive.proto")
+                .addMessageType(DescriptorProtos.DescriptorProto.newBuilder()
+                        .setName("Node")
+                        .addField(newField("name", 1, DescriptorProtos.FieldDescriptorProto.Type.TYPE_STRING, null))
+                        .addField(newField("parent", 2, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Node"))
+                        .addField(newField("children", 3, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Node")
+                                .setLabel(DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED))
+                        .addField(newField("edges", 4, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Edge")
+                                .setLabel(DescriptorProtos.FieldDescriptorProto.Label.LABEL_REPEATED)))
+                .addMessageType(DescriptorProtos.DescriptorProto.newBuilder()
+                        .setName("Edge")
+                        .addField(newField("weight", 1, DescriptorProtos.FieldDescriptorProto.Type.TYPE_INT64, null))
+                        .addField(newField("target", 2, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Node"))
+                        .addField(newField("reverse", 3, DescriptorProtos.FieldDescriptorProto.Type.TYPE_MESSAGE, "Edge")));
+        return DescriptorProtos.FileDescriptorSet.newBuilder().addFile(file).build();
+    }
+
+    private static DescriptorProtos.FileDescriptorProto.Builder newFile(String name) {
+        return DescriptorProtos.FileDescriptorProto.newBuilder()
+                .setName(name)
+                .setPackage("protobuf")
+                .setSyntax("proto3");
+    }
+
+    private static DescriptorProtos.FieldDescriptorProto.Builder newField(String name, int number,
+                                                                          DescriptorProtos.FieldDescriptorProto.Type type,
+                                                                          String messageName) {
+        DescriptorProtos.FieldDescriptorProto.Builder field = DescriptorProtos.FieldDescriptorProto.newBuilder()
+                .setName(name)
+                .setNumber(number)
+                .setLabel(DescriptorProtos.FieldDescriptorProto.Label.LABEL_OPTIONAL)
+                .setType(type);
+        if (messageName != null) {
+            field.setTypeName(".protobuf." + messageName);
+        }
+        return field;
+    }
+
     public static VisitContext.VisitContextBuilder getVisitContextBuilder(String message) {
         return VisitContext.builder()
                 .datasetUrn(new DatasetUrn(TEST_DATA_PLATFORM, message, FabricType.TEST))
@@ -1,6 +1,8 @@
 package datahub.protobuf.model;
 
 import com.google.protobuf.DescriptorProtos.FileDescriptorSet;
+import datahub.protobuf.visitors.VisitContext;
+import org.jgrapht.alg.shortestpath.AllDirectedPaths;
 import org.junit.Test;
 
 import java.io.IOException;
@@ -8,6 +10,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import static datahub.protobuf.TestFixtures.getNestedProtobufFileSet;
+import static datahub.protobuf.TestFixtures.getRecursiveProtobufFileSet;
 import static datahub.protobuf.TestFixtures.getTestProtobufFileSet;
 import static datahub.protobuf.TestFixtures.getTestProtobufGraph;
 import static org.junit.jupiter.api.Assertions.*;
@@ -81,4 +85,77 @@ public class ProtobufGraphTest {
 
         assertEquals(2, nestedMessages.size(), "Expected 2 nested fields");
     }
+
+    @Test
+    public void rootPathsTest() throws IOException {
+        for (String message : List.of("messageA", "messageB", "messageC", "messageC2")) {
+            assertRootPathsMatchAllDirectedPaths(getTestProtobufGraph("protobuf", message), null);
+        }
+        for (String message : List.of("messageA", "messageB")) {
+            assertRootPathsMatchAllDirectedPaths(getTestProtobufGraph("extended_protobuf", message), null);
+        }
+    }
+
+    @Test
+    public void deeplyNestedRootPathsTest() throws IOException {
+        ProtobufGraph test = new ProtobufGraph(getNestedProtobufFileSet(10), "protobuf.Level0");
+        assertRootPathsMatchAllDirectedPaths(test, null);
+        assertEquals(1024, test.getAllPaths(test.root(), findField(test, "protobuf.Level10.name")).size());
+
+        ProtobufGraph bounded = new ProtobufGraph(getNestedProtobufFileSet(10), "protobuf.Level0", null, true, 4);
+        assertRootPathsMatchAllDirectedPaths(bounded, 4);
+        assertEquals(8, bounded.getAllPaths(bounded.root(), findField(bounded, "protobuf.Level3.name")).size());
+        assertEquals(0, bounded.getAllPaths(bounded.root(), findField(bounded, "protobuf.Level4.name")).size());
+    }
+
+    @Test
+    public void recursiveRootPathsTest() throws IOException {
+        ProtobufGraph test = new ProtobufGraph(getRecursiveProtobufFileSet(), "protobuf.Node");
+        assertRootPathsMatchAllDirectedPaths(test, null);
+        assertRootPathsMatchAllDirectedPaths(new ProtobufGraph(getRecursiveProtobufFileSet(), "protobuf.Node", null, true, 3), 3);
+
+        // Recursive fields are expanded once per path
+        VisitContext context = VisitContext.builder().graph(test).build();
+        List<String> parentPaths = test.getAllPaths(test.root(), findField(test, "protobuf.Node.parent")).stream()
+                .map(context::getFieldPath)
+                .collect(Collectors.toList());
+        assertTrue(parentPaths.contains("[version=2.0].[type=protobuf_Node].[type=protobuf_Node].parent"));
+        assertTrue(parentPaths.stream().noneMatch(path -> path.contains(".parent.[type=protobuf_Node].parent")));
+    }
+
+    @Test
+    public void rootPathsPerformanceTest() throws IOException {
+        ProtobufGraph test = new ProtobufGraph(getNestedProtobufFileSet(14), "protobuf.Level0");
+        AllDirectedPaths<ProtobufElement, FieldTypeEdge> reference = new AllDirectedPaths<>(test);
+
+        long referencePaths = test.vertexSet().stream()
+                .filter(v -> v instanceof ProtobufField)
+                .mapToLong(v -> reference.getAllPaths(test.root(), v, true, null).size())
+                .sum();
+        long indexedPaths = test.vertexSet().stream()
+                .filter(v -> v instanceof ProtobufField)
+                .mapToLong(v -> test.getAllPaths(test.root(), v).size())
+                .sum();
+
+        assertEquals(referencePaths, indexedPaths);
+    }
+
+    private static ProtobufElement findField(ProtobufGraph graph, String fullName) {
+        return graph.vertexSet().stream()
+                .filter(v -> v instanceof ProtobufField && v.fullName().equals(fullName))
+                .findFirst().orElseThrow();
+    }
+
+    // Golden paths computed by enumerating the paths to every element separately
+    private static void assertRootPathsMatchAllDirectedPaths(ProtobufGraph graph, Integer maxPathLength) {
+        AllDirectedPaths<ProtobufElement, FieldTypeEdge> reference = new AllDirectedPaths<>(graph);
+        VisitContext context = VisitContext.builder().graph(graph).build();
+
+        graph.vertexSet().stream().filter(v -> !v.equals(graph.root())).forEach(v -> assertEquals(
+                reference.getAllPaths(graph.root(), v, true, maxPathLength).stream()
+                        .map(context::getFieldPath).sorted().collect(Collectors.toList()),
+                graph.getAllPaths(graph.root(), v).stream()
+                        .map(context::getFieldPath).sorted().collect(Collectors.toList()),
+                v.fullName()));
+    }
 }
@@ -78,6 +78,19 @@ public interface AspectDao {
         final int start,
         final int pageSize);
 
+    /**
+     * Lists the urns having the latest version of the given aspect, in urn order, starting after the given cursor.
+     * Unlike {@link #listUrns(String, String, int, int)}, the cost of a page does not depend on its position.
+     *
+     * @param cursor the cursor returned along with the previous page, or null to get the first page
+     */
+    @Nonnull
+    CursorListResult<String> listUrnsAfter(
+        @Nonnull final String entityName,
+        @Nonnull final String aspectName,
+        @Nullable final String cursor,
+        final int pageSize);
+
     int deleteUrn(@Nonnull final String urn);
 
     @Nonnull
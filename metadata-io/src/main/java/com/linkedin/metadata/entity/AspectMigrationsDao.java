@@ -1,6 +1,7 @@
 package com.linkedin.metadata.entity;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 /**
  * This interface is a split-off from {@link AspectDao} to segregate the methods that are only called by data migration
@@ -18,6 +19,15 @@ public interface AspectMigrationsDao {
   @Nonnull
   Iterable<String> listAllUrns(final int start, final int pageSize);
 
+  /**
+   * Return a page of _all_ URNs in the database, starting after the given cursor.
+   * @param cursor The cursor returned along with the previous page, or null to get the first page.
+   * @param pageSize Number of records in a page.
+   * @return A page of {@code String} URNs, along with the cursor of the next page.
+   */
+  @Nonnull
+  CursorListResult<String> listAllUrnsAfter(@Nullable final String cursor, final int pageSize);
+
   /**
    * Return the count of entities (unique URNs) in the database.
    * @return Count of entities.
@@ -0,0 +1,23 @@
+package com.linkedin.metadata.entity;
+
+import java.util.List;
+import javax.annotation.Nullable;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * An immutable value class that holds a page of a cursor based (keyset) list operation.
+ *
+ * @param <T> the result type
+ */
+@AllArgsConstructor
+@Value
+public class CursorListResult<T> {
+
+  // A single page of results
+  List<T> values;
+
+  // Opaque cursor to pass in order to fetch the next page, null when there are no more results
+  @Nullable
+  String nextCursor;
+}
@@ -3,15 +3,15 @@ package com.linkedin.metadata.entity;
 import com.datahub.util.RecordUtils;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.common.AuditStamp;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.common.urn.UrnUtils;
-import com.linkedin.data.schema.PathSpec;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.entity.Aspect;
 import com.linkedin.entity.EntityResponse;
 import com.linkedin.entity.EnvelopedAspect;
-import com.linkedin.events.metadata.ChangeType;
 import com.linkedin.metadata.Constants;
 import com.linkedin.metadata.graph.GraphService;
 import com.linkedin.metadata.graph.RelatedEntitiesResult;
@@ -24,34 +24,59 @@ import com.linkedin.metadata.query.filter.RelationshipDirection;
 import com.linkedin.metadata.run.DeleteReferencesResponse;
 import com.linkedin.metadata.run.RelatedAspect;
 import com.linkedin.metadata.run.RelatedAspectArray;
-import com.linkedin.metadata.utils.GenericRecordUtils;
-import com.linkedin.mxe.MetadataChangeProposal;
+import com.linkedin.util.Pair;
 
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import static com.linkedin.metadata.search.utils.QueryUtils.*;
 
 
 @Slf4j
-@RequiredArgsConstructor
 public class DeleteEntityService {
 
+    private static final int DEFAULT_NUM_THREADS = 4;
+    private static final int REFERENCES_PAGE_SIZE = 1000;
+    private static final int ENTITY_BATCH_SIZE = 100;
+
     private final EntityService _entityService;
     private final GraphService _graphService;
+    // Bounded pool patching the referencing entities, the caller runs the batches the pool can not keep up with
+    private final ExecutorService _executor;
+
+    public DeleteEntityService(final EntityService entityService, final GraphService graphService) {
+        this(entityService, graphService, DEFAULT_NUM_THREADS);
+    }
 
-    private static final Integer ELASTIC_BATCH_DELETE_SLEEP_SEC = 5;
+    public DeleteEntityService(final EntityService entityService, final GraphService graphService,
+                               final int numThreads) {
+        _entityService = entityService;
+        _graphService = graphService;
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(numThreads, numThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(numThreads * 2),
+                new ThreadFactoryBuilder().setDaemon(true).setNameFormat("delete-references-%d").build(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        _executor = executor;
+    }
 
     /**
      * Public endpoint that deletes references to a given urn across DataHub's metadata graph. This is the entrypoint for
@@ -84,16 +109,18 @@ public class DeleteEntityService {
             return result;
         }
 
-        for (int processedEntities = 0; processedEntities < relatedEntities.getTotal(); processedEntities += relatedEntities.getCount()) {
-            log.info("Processing batch {} of {} aspects", processedEntities, relatedEntities.getTotal());
-            relatedEntities.getEntities().forEach(entity -> deleteReference(urn, entity));
-            if (processedEntities + relatedEntities.getEntities().size() < relatedEntities.getTotal()) {
-                sleep(ELASTIC_BATCH_DELETE_SLEEP_SEC);
-                relatedEntities = _graphService.findRelatedEntities(null, newFilter("urn", urn.toString()),
-                        null, EMPTY_FILTER, ImmutableList.of(),
-                        newRelationshipFilter(EMPTY_FILTER, RelationshipDirection.INCOMING), 0, 10000);
-            }
-        }
+        // Take a snapshot of the referencing entities before patching any of them, since the graph index is updated
+        // asynchronously as the patched aspects are ingested
+        final Map<Urn, Set<String>> relationshipTypesByUrn = getReferencingEntities(urn);
+        log.info("Removing references to {} from {} entities", urn, relationshipTypesByUrn.size());
+
+        final List<CompletableFuture<Void>> batches =
+                Lists.partition(new ArrayList<>(relationshipTypesByUrn.keySet()), ENTITY_BATCH_SIZE)
+                        .stream()
+                        .map(batch -> CompletableFuture.runAsync(
+                                () -> deleteReferences(urn, batch, relationshipTypesByUrn), _executor))
+                        .collect(Collectors.toList());
+        CompletableFuture.allOf(batches.toArray(new CompletableFuture[0])).join();
 
         return result;
     }
@@ -173,76 +200,142 @@ public class DeleteEntityService {
     }
 
     /**
-     * Utility method to sleep the thread.
+     * Pages through all the entities that have an incoming relationship to a given urn.
      *
-     * @param seconds The number of seconds to sleep.
+     * @param urn The urn which is referenced.
+     * @return The urns of the referencing entities, along with the types of their relationships to `urn`.
      */
-    private void sleep(final Integer seconds) {
-        try {
-            TimeUnit.SECONDS.sleep(seconds);
-        } catch (InterruptedException e) {
-            log.error("Interrupted sleep", e);
-        }
+    private Map<Urn, Set<String>> getReferencingEntities(final Urn urn) {
+        final Map<Urn, Set<String>> relationshipTypesByUrn = new LinkedHashMap<>();
+        String cursor = null;
+        do {
+            final CursorListResult<RelatedEntity> page = _graphService.scrollRelatedEntities(null,
+                    newFilter("urn", urn.toString()), null, EMPTY_FILTER, ImmutableList.of(),
+                    newRelationshipFilter(EMPTY_FILTER, RelationshipDirection.INCOMING), cursor, REFERENCES_PAGE_SIZE);
+            page.getValues().forEach(relatedEntity -> relationshipTypesByUrn
+                    .computeIfAbsent(UrnUtils.getUrn(relatedEntity.getUrn()), ignored -> new HashSet<>())
+                    .add(relatedEntity.getRelationshipType()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return relationshipTypesByUrn;
     }
 
     /**
-     * Processes an aspect of a given {@link RelatedEntity} instance that references a given {@link Urn}, removes said
-     * urn from the aspects and submits an MCP with the updated aspects.
+     * Removes a given {@link Urn} from the aspects of a batch of entities that reference it. The aspects of the batch
+     * are fetched together, and all the updated aspects of an entity are ingested at once.
      *
-     * @param urn           The urn to be found.
-     * @param relatedEntity The entity to be modified.
+     * @param urn                    The urn to be removed.
+     * @param relatedUrns            The entities to be modified.
+     * @param relationshipTypesByUrn The types of the relationships of each entity to `urn`.
      */
-    private void deleteReference(final Urn urn, final RelatedEntity relatedEntity) {
-        final Urn relatedUrn = UrnUtils.getUrn(relatedEntity.getUrn());
-        final String relationshipType = relatedEntity.getRelationshipType();
-        getAspects(urn, relatedUrn, relationshipType)
-                .forEach(enrichedAspect -> {
-                    final String aspectName = enrichedAspect.getName();
-                    final Aspect aspect = enrichedAspect.getAspect();
-                    final AspectSpec aspectSpec = enrichedAspect.getSpec();
-
-                    final AtomicReference<Aspect> updatedAspect;
-                    try {
-                        updatedAspect = new AtomicReference<>(aspect.copy());
-                    } catch (CloneNotSupportedException e) {
-                        log.error("Failed to clone aspect {}", aspect);
-                        handleError(new DeleteEntityServiceError("Failed to clone aspect",
-                                DeleteEntityServiceErrorReason.CLONE_FAILED,
-                                ImmutableMap.of("aspect", aspect)));
-                        return;
-                    }
+    private void deleteReferences(final Urn urn, final List<Urn> relatedUrns,
+                                  final Map<Urn, Set<String>> relationshipTypesByUrn) {
+        final Map<String, List<Urn>> urnsByEntityType = relatedUrns.stream()
+                .collect(Collectors.groupingBy(Urn::getEntityType));
+        urnsByEntityType.forEach((relatedEntityName, urns) -> {
+            final EntitySpec relatedEntitySpec = _entityService.getEntityRegistry().getEntitySpec(relatedEntityName);
+            final Map<String, Map<String, AspectSpec>> aspectSpecsByRelationshipType = new HashMap<>();
+            urns.forEach(relatedUrn -> relationshipTypesByUrn.get(relatedUrn).forEach(relationshipType ->
+                    aspectSpecsByRelationshipType.computeIfAbsent(relationshipType, ignored ->
+                            getAspectSpecsReferringTo(urn.getEntityType(), relationshipType, relatedEntitySpec))));
+            final Set<String> aspectNames = aspectSpecsByRelationshipType.values()
+                    .stream()
+                    .flatMap(aspectSpecs -> aspectSpecs.keySet().stream())
+                    .collect(Collectors.toSet());
+            if (aspectNames.isEmpty()) {
+                log.error("Unable to find any aspect spec that has a {} relationship to {} entities. This means that the "
+                                + "entity registry does not have relationships that the graph index has stored.",
+                        aspectSpecsByRelationshipType.keySet(), relatedEntityName);
+                handleError(new DeleteEntityServiceError("Unable to find aspect spec in entity registry",
+                        DeleteEntityServiceErrorReason.ENTITY_REGISTRY_SPEC_NOT_FOUND,
+                        ImmutableMap.of("relatedEntityName", relatedEntityName, "relationshipTypes",
+                                aspectSpecsByRelationshipType.keySet(), "relatedEntitySpec", relatedEntitySpec)));
+                return;
+            }
 
-                    aspectSpec.getRelationshipFieldSpecs().stream()
-                            .filter(relationshipFieldSpec -> relationshipFieldSpec.getRelationshipAnnotation().getName().equals(relationshipType))
-                            .forEach(relationshipFieldSpec -> {
-                                final PathSpec path = relationshipFieldSpec.getPath();
-                                updatedAspect.set(DeleteEntityUtils.getAspectWithReferenceRemoved(urn.toString(),
-                                        updatedAspect.get(), aspectSpec.getPegasusSchema(), path));
-                            });
+            final Map<Urn, EntityResponse> entityResponses;
+            try {
+                entityResponses = _entityService.getEntitiesV2(relatedEntityName, new HashSet<>(urns), aspectNames);
+            } catch (URISyntaxException e) {
+                log.error("Unable to retrieve entity data for related urns " + urns, e);
+                return;
+            }
 
-                    // If there has been an update
-                    if (!updatedAspect.get().equals(aspect)) {
-                        final MetadataChangeProposal proposal = new MetadataChangeProposal();
-                        proposal.setEntityUrn(relatedUrn);
-                        proposal.setChangeType(ChangeType.UPSERT);
-                        proposal.setEntityType(relatedUrn.getEntityType());
-                        proposal.setAspectName(aspectName);
-                        proposal.setAspect(GenericRecordUtils.serializeAspect(updatedAspect.get()));
-
-                        final AuditStamp auditStamp = new AuditStamp().setActor(UrnUtils.getUrn(Constants.SYSTEM_ACTOR)).setTime(System.currentTimeMillis());
-                        final EntityService.IngestProposalResult ingestProposalResult = _entityService.ingestProposal(proposal, auditStamp);
-
-                        if (!ingestProposalResult.isDidUpdate()) {
-                            log.error("Failed to ingest aspect with references removed. Before {}, after: {}, please check MCP processor"
-                                    + " logs for more information", aspect, updatedAspect);
-                            handleError(new DeleteEntityServiceError("Failed to ingest new aspect",
-                                    DeleteEntityServiceErrorReason.MCP_PROCESSOR_FAILED,
-                                    ImmutableMap.of("proposal", proposal)));
-                        }
+            urns.forEach(relatedUrn -> {
+                final EntityResponse entityResponse = entityResponses.get(relatedUrn);
+                if (entityResponse == null || entityResponse.getAspects().isEmpty()) {
+                    log.error("Unable to find an aspect instance that relates {} {} in the entity service. "
+                            + "This is potentially a lack of consistency between the graph and entity DBs.", urn, relatedUrn);
+                    handleError(new DeleteEntityServiceError("Unable to find aspect instance in entity service",
+                            DeleteEntityServiceErrorReason.ENTITY_SERVICE_ASPECT_NOT_FOUND,
+                            ImmutableMap.of("urn", urn, "relatedUrn", relatedUrn)));
+                    return;
+                }
+                final List<Pair<String, RecordTemplate>> updatedAspects = new ArrayList<>();
+                entityResponse.getAspects().values().forEach(envelopedAspect -> {
+                    final AspectSpec aspectSpec = relatedEntitySpec.getAspectSpec(envelopedAspect.getName());
+                    final Set<String> relationshipTypes = relationshipTypesByUrn.get(relatedUrn)
+                            .stream()
+                            .filter(relationshipType -> aspectSpecsByRelationshipType.get(relationshipType)
+                                    .containsKey(envelopedAspect.getName()))
+                            .filter(relationshipType -> hasRelationshipInstanceTo(envelopedAspect.getValue(),
+                                    urn.getEntityType(), relationshipType, aspectSpec))
+                            .collect(Collectors.toSet());
+                    final Aspect updatedAspect =
+                            getAspectWithReferencesRemoved(urn, envelopedAspect.getValue(), aspectSpec, relationshipTypes);
+                    if (updatedAspect != null && !updatedAspect.equals(envelopedAspect.getValue())) {
+                        updatedAspects.add(Pair.of(envelopedAspect.getName(),
+                                RecordUtils.toRecordTemplate(aspectSpec.getDataTemplateClass(), updatedAspect.data())));
                     }
                 });
+                if (!updatedAspects.isEmpty()) {
+                    final AuditStamp auditStamp = new AuditStamp().setActor(UrnUtils.getUrn(Constants.SYSTEM_ACTOR))
+                            .setTime(System.currentTimeMillis());
+                    _entityService.ingestAspects(relatedUrn, updatedAspects, auditStamp, null)
+                            .stream()
+                            // An aspect that was not updated keeps the same value
+                            .filter(result -> result.getSecond().getOldValue() == result.getSecond().getNewValue())
+                            .forEach(result -> {
+                                log.error("Failed to ingest aspect {} of {} with references removed, please check the "
+                                        + "entity service logs for more information", result.getFirst(), relatedUrn);
+                                handleError(new DeleteEntityServiceError("Failed to ingest new aspect",
+                                        DeleteEntityServiceErrorReason.MCP_PROCESSOR_FAILED,
+                                        ImmutableMap.of("urn", relatedUrn, "aspectName", result.getFirst())));
+                            });
+                }
+            });
+        });
     }
 
+    /**
+     * Removes a given {@link Urn} from the fields of an aspect that hold relationships of the given types.
+     *
+     * @param urn               The urn to be removed.
+     * @param aspect            The aspect to be modified.
+     * @param aspectSpec        The spec of the aspect.
+     * @param relationshipTypes The names of the relationships from which to remove `urn`.
+     * @return A copy of the aspect with the references removed, or null if it could not be copied.
+     */
+    private Aspect getAspectWithReferencesRemoved(final Urn urn, final Aspect aspect, final AspectSpec aspectSpec,
+                                                  final Set<String> relationshipTypes) {
+        Aspect updatedAspect;
+        try {
+            updatedAspect = aspect.copy();
+        } catch (CloneNotSupportedException e) {
+            log.error("Failed to clone aspect {}", aspect);
+            handleError(new DeleteEntityServiceError("Failed to clone aspect",
+                    DeleteEntityServiceErrorReason.CLONE_FAILED,
+                    ImmutableMap.of("aspect", aspect)));
+            return null;
+        }
+        for (RelationshipFieldSpec relationshipFieldSpec : aspectSpec.getRelationshipFieldSpecs()) {
+            if (relationshipTypes.contains(relationshipFieldSpec.getRelationshipAnnotation().getName())) {
+                updatedAspect = DeleteEntityUtils.getAspectWithReferenceRemoved(urn.toString(), updatedAspect,
+                        aspectSpec.getPegasusSchema(), relationshipFieldSpec.getPath());
+            }
+        }
+        return updatedAspect;
+    }
 
     /**
      * Utility method that attempts to find Aspect information as well as the associated path spec for a given urn that
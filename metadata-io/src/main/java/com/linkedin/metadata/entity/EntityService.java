@@ -18,6 +18,7 @@ import com.linkedin.common.urn.VersionedUrnUtils;
 import com.linkedin.data.schema.RecordDataSchema;
 import com.linkedin.data.schema.TyperefDataSchema;
 import com.linkedin.data.template.DataTemplateUtil;
+import com.linkedin.data.template.GetMode;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.data.template.UnionTemplate;
 import com.linkedin.entity.AspectType;
@@ -34,6 +35,7 @@ import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.EntitySpec;
 import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.run.AspectRowSummary;
 import com.linkedin.metadata.search.utils.BrowsePathUtils;
 import com.linkedin.metadata.snapshot.Snapshot;
@@ -51,13 +53,18 @@ import java.net.URISyntaxException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -124,6 +131,15 @@ public class EntityService {
     boolean didUpdate;
   }
 
+  @Value
+  public static class AspectUpdate {
+    Urn urn;
+    String aspectName;
+    RecordTemplate value;
+    AuditStamp auditStamp;
+    long version;
+  }
+
   private static final int DEFAULT_MAX_TRANSACTION_RETRY = 3;
 
   protected final AspectDao _aspectDao;
@@ -594,7 +610,15 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     }
   }
 
-  public void ingestAspects(@Nonnull final Urn urn, @Nonnull List<Pair<String, RecordTemplate>> aspectRecordsToIngest,
+  /**
+   * Ingests several aspects of an entity in one transaction, and emits the events of the updated ones.
+   *
+   * @return the name of each ingested aspect along with the result of its ingestion. Aspects whose value did not change
+   *     have the same old and new value.
+   */
+  @Nonnull
+  public List<Pair<String, UpdateAspectResult>> ingestAspects(@Nonnull final Urn urn,
+    @Nonnull List<Pair<String, RecordTemplate>> aspectRecordsToIngest,
     @Nonnull final AuditStamp auditStamp, SystemMetadata systemMetadata) {
 
     systemMetadata = generateSystemMetadataIfEmpty(systemMetadata);
@@ -606,6 +630,7 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     for (Pair<String, UpdateAspectResult> result: ingestResults) {
       sendEventForUpdateAspectResult(urn, result.getFirst(), result.getSecond());
     }
+    return ingestResults;
   }
 
   /**
@@ -690,6 +715,7 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
       _retentionService.applyRetention(urn, aspectName,
               Optional.of(new RetentionService.RetentionContext(Optional.of(result.maxVersion))));
     }
+    invalidateRetentionCacheIfNeeded(aspectName, oldValue, updatedValue);
 
     // Produce MCL after a successful update
     if (oldValue != updatedValue || _alwaysEmitAuditEvent) {
@@ -722,6 +748,26 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     return updatedValue;
   }
 
+  /**
+   * Ingests several proposals, each in its own transaction, carrying on past the ones that fail.
+   *
+   * @return the proposals that failed to be ingested, in their original order
+   */
+  @Nonnull
+  public List<MetadataChangeProposal> ingestProposals(@Nonnull final List<MetadataChangeProposal> proposals,
+      @Nonnull final AuditStamp auditStamp) {
+    final List<MetadataChangeProposal> failedProposals = new ArrayList<>();
+    for (MetadataChangeProposal proposal : proposals) {
+      try {
+        ingestProposal(proposal, auditStamp);
+      } catch (RuntimeException e) {
+        log.warn("Failed to ingest aspect {} of {}", proposal.getAspectName(), proposal.getEntityUrn(), e);
+        failedProposals.add(proposal);
+      }
+    }
+    return failedProposals;
+  }
+
   public IngestProposalResult ingestProposal(@Nonnull MetadataChangeProposal metadataChangeProposal,
       AuditStamp auditStamp) {
 
@@ -785,6 +831,7 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
         _retentionService.applyRetention(entityUrn, aspectSpec.getName(),
             Optional.of(new RetentionService.RetentionContext(Optional.of(result.maxVersion))));
       }
+      invalidateRetentionCacheIfNeeded(aspectSpec.getName(), oldAspect, newAspect);
     }
 
     if (oldAspect != newAspect || _alwaysEmitAuditEvent) {
@@ -852,6 +899,22 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
         DEFAULT_MAX_TRANSACTION_RETRY);
   }
 
+  /**
+   * Writes the given versions of aspects in a single transaction, without producing any change log. Used to write
+   * aspects in bulk, e.g. when restoring a backup. The change logs can be produced from the results afterwards.
+   *
+   * @param updates the versions of aspects to write
+   * @return the result of each update, in the order of the updates
+   */
+  @Nonnull
+  public List<UpdateAspectResult> updateAspects(@Nonnull final List<AspectUpdate> updates) {
+    log.debug("Invoked updateAspects with {} updates", updates.size());
+    return _aspectDao.runInTransactionWithRetry(() -> updates.stream()
+        .map(update -> saveAspectVersion(update.getUrn(), update.getAspectName(), update.getValue(),
+            update.getAuditStamp(), update.getVersion()))
+        .collect(Collectors.toList()), DEFAULT_MAX_TRANSACTION_RETRY);
+  }
+
   /**
    * Lists the entity URNs found in storage.
    *
@@ -885,6 +948,39 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     return result;
   }
 
+  /**
+   * Lists the entity URNs found in storage with a cursor. Unlike {@link #listUrns(String, int, int)}, the cost of a
+   * page does not depend on how deep it is, so this should be preferred to walk through all the entities.
+   *
+   * @param entityName the name associated with the entity
+   * @param scrollId the scroll id returned along with the previous page, or null to get the first page
+   * @param count the max number of urns to return
+   */
+  public ScrollUrnsResult scrollUrns(@Nonnull final String entityName, @Nullable final String scrollId,
+      final int count) {
+    log.debug("Invoked scrollUrns with entityName: {}, scrollId: {}, count: {}", entityName, scrollId, count);
+
+    // If a keyAspect exists, the entity exists.
+    final String keyAspectName = getEntityRegistry().getEntitySpec(entityName).getKeyAspectSpec().getName();
+    final CursorListResult<String> keyAspectList = _aspectDao.listUrnsAfter(entityName, keyAspectName, scrollId, count);
+
+    final ScrollUrnsResult result = new ScrollUrnsResult();
+    if (keyAspectList.getNextCursor() != null) {
+      result.setScrollId(keyAspectList.getNextCursor());
+    }
+    final UrnArray entityUrns = new UrnArray();
+    for (String urn : keyAspectList.getValues()) {
+      try {
+        entityUrns.add(Urn.createFromString(urn));
+      } catch (URISyntaxException e) {
+        throw new IllegalArgumentException(String.format("Failed to convert urn %s found in db to Urn object.", urn),
+            e);
+      }
+    }
+    result.setEntities(entityUrns);
+    return result;
+  }
+
   /**
    * Default implementations. Subclasses should feel free to override if it's more efficient to do so.
    */
@@ -1219,6 +1315,15 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     _retentionService = retentionService;
   }
 
+  // Retention policies are cached by the retention service, drop them when one is written
+  private void invalidateRetentionCacheIfNeeded(@Nonnull String aspectName, @Nullable RecordTemplate oldValue,
+      @Nullable RecordTemplate newValue) {
+    if (oldValue != newValue && _retentionService != null
+        && RetentionService.DATAHUB_RETENTION_ASPECT.equals(aspectName)) {
+      _retentionService.invalidateRetentionCache();
+    }
+  }
+
   protected Set<String> getEntityAspectNames(final Urn entityUrn) {
     return getEntityAspectNames(urnToEntityName(entityUrn));
   }
@@ -1240,30 +1345,59 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     List<AspectRowSummary> removedAspects = new ArrayList<>();
     AtomicInteger rowsDeletedFromEntityDeletion = new AtomicInteger(0);
 
-    aspectRows.forEach(aspectToRemove -> {
+    aspectRows.forEach(aspectToRemove -> rollbackAspect(aspectToRemove, conditions, hardDelete, removedAspects,
+        rowsDeletedFromEntityDeletion));
 
-      RollbackResult result = deleteAspect(aspectToRemove.getUrn(), aspectToRemove.getAspectName(),
-          conditions, hardDelete);
-      if (result != null) {
-        Optional<AspectSpec> aspectSpec = getAspectSpec(result.entityName, result.aspectName);
-        if (!aspectSpec.isPresent()) {
-          log.error("Issue while rolling back: unknown aspect {} for entity {}", result.entityName, result.aspectName);
-          return;
-        }
+    return new RollbackRunResult(removedAspects, rowsDeletedFromEntityDeletion.get());
+  }
 
-        rowsDeletedFromEntityDeletion.addAndGet(result.additionalRowsAffected);
-        removedAspects.add(aspectToRemove);
-        produceMetadataChangeLog(result.getUrn(), result.getEntityName(), result.getAspectName(), aspectSpec.get(),
-            result.getOldValue(), result.getNewValue(), result.getOldSystemMetadata(), result.getNewSystemMetadata(),
-            // TODO: use properly attributed audit stamp.
-            createSystemAuditStamp(),
-            result.getChangeType());
-      }
-    });
+  /**
+   * Same as {@link #rollbackRun(List, String, boolean)}, rolling back different entities in parallel on the given
+   * executor. The rows of an entity are rolled back one after the other, its key aspect last, so that a hard deleted
+   * entity still emits a change log for each of its aspects.
+   */
+  public RollbackRunResult rollbackRun(List<AspectRowSummary> aspectRows, String runId, boolean hardDelete,
+      @Nonnull ExecutorService executorService) {
+    final Map<String, String> conditions = Collections.singletonMap("runId", runId);
+    final List<AspectRowSummary> removedAspects = Collections.synchronizedList(new ArrayList<>());
+    final AtomicInteger rowsDeletedFromEntityDeletion = new AtomicInteger(0);
+
+    final Map<String, List<AspectRowSummary>> rowsByUrn = aspectRows.stream()
+        .collect(Collectors.groupingBy(AspectRowSummary::getUrn, LinkedHashMap::new, Collectors.toList()));
+    final List<CompletableFuture<Void>> futures = rowsByUrn.values().stream().map(urnRows -> {
+      final List<AspectRowSummary> orderedRows = urnRows.stream()
+          .sorted(Comparator.comparing((AspectRowSummary row) -> Boolean.TRUE.equals(row.isKeyAspect(GetMode.NULL))))
+          .collect(Collectors.toList());
+      return CompletableFuture.runAsync(() -> orderedRows.forEach(aspectToRemove ->
+          rollbackAspect(aspectToRemove, conditions, hardDelete, removedAspects, rowsDeletedFromEntityDeletion)),
+          executorService);
+    }).collect(Collectors.toList());
+    CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
 
     return new RollbackRunResult(removedAspects, rowsDeletedFromEntityDeletion.get());
   }
 
+  private void rollbackAspect(AspectRowSummary aspectToRemove, Map<String, String> conditions, boolean hardDelete,
+      List<AspectRowSummary> removedAspects, AtomicInteger rowsDeletedFromEntityDeletion) {
+    RollbackResult result = deleteAspect(aspectToRemove.getUrn(), aspectToRemove.getAspectName(),
+        conditions, hardDelete);
+    if (result != null) {
+      Optional<AspectSpec> aspectSpec = getAspectSpec(result.entityName, result.aspectName);
+      if (!aspectSpec.isPresent()) {
+        log.error("Issue while rolling back: unknown aspect {} for entity {}", result.entityName, result.aspectName);
+        return;
+      }
+
+      rowsDeletedFromEntityDeletion.addAndGet(result.additionalRowsAffected);
+      removedAspects.add(aspectToRemove);
+      produceMetadataChangeLog(result.getUrn(), result.getEntityName(), result.getAspectName(), aspectSpec.get(),
+          result.getOldValue(), result.getNewValue(), result.getOldSystemMetadata(), result.getNewSystemMetadata(),
+          // TODO: use properly attributed audit stamp.
+          createSystemAuditStamp(),
+          result.getChangeType());
+    }
+  }
+
   public RollbackRunResult deleteUrn(Urn urn) {
     List<AspectRowSummary> removedAspects = new ArrayList<>();
     Integer rowsDeletedFromEntityDeletion = 0;
@@ -1310,6 +1444,30 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
     return aspects.values().stream().anyMatch(aspect -> aspect != null);
   }
 
+  /**
+   * Batch variant of {@link #exists(Urn)}, looking up the aspects of all the input urns in a single query.
+   *
+   * @return the subset of the input urns that exist
+   */
+  @Nonnull
+  public Set<Urn> getExistingUrns(@Nonnull final Collection<Urn> urns) {
+    final Set<EntityAspectIdentifier> dbKeys = urns.stream()
+        .flatMap(urn -> getEntityAspectNames(urn).stream()
+            .map(aspectName -> new EntityAspectIdentifier(urn.toString(), aspectName, ASPECT_LATEST_VERSION)))
+        .collect(Collectors.toSet());
+    if (dbKeys.isEmpty()) {
+      return Collections.emptySet();
+    }
+
+    final Set<String> existingUrns = _aspectDao.batchGet(dbKeys)
+        .entrySet()
+        .stream()
+        .filter(entry -> entry.getValue() != null)
+        .map(entry -> entry.getKey().getUrn())
+        .collect(Collectors.toSet());
+    return urns.stream().filter(urn -> existingUrns.contains(urn.toString())).collect(Collectors.toSet());
+  }
+
   @Nullable
   public RollbackResult deleteAspect(String urn, String aspectName, @Nonnull Map<String, String> conditions, boolean hardDelete) {
     // Validate pre-conditions before running queries
@@ -1620,27 +1778,8 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
       @Nonnull final boolean emitMae,
       final int maxTransactionRetry) {
 
-    final UpdateAspectResult result = _aspectDao.runInTransactionWithRetry(() -> {
-
-      final EntityAspect oldAspect = _aspectDao.getAspect(urn.toString(), aspectName, version);
-      final RecordTemplate oldValue =
-          oldAspect == null ? null : EntityUtils.toAspectRecord(urn, aspectName, oldAspect.getMetadata(), getEntityRegistry());
-
-      SystemMetadata oldSystemMetadata =
-          oldAspect == null ? new SystemMetadata() : EntityUtils.parseSystemMetadata(oldAspect.getSystemMetadata());
-      // create a duplicate of the old system metadata to update and write back
-      SystemMetadata newSystemMetadata =
-          oldAspect == null ? new SystemMetadata() : EntityUtils.parseSystemMetadata(oldAspect.getSystemMetadata());
-      newSystemMetadata.setLastObserved(System.currentTimeMillis());
-
-      log.debug("Updating aspect with name {}, urn {}", aspectName, urn);
-      _aspectDao.saveAspect(urn.toString(), aspectName, EntityUtils.toJsonAspect(value), auditStamp.getActor().toString(),
-          auditStamp.hasImpersonator() ? auditStamp.getImpersonator().toString() : null,
-          new Timestamp(auditStamp.getTime()), EntityUtils.toJsonAspect(newSystemMetadata), version, oldAspect == null);
-
-      return new UpdateAspectResult(urn, oldValue, value, oldSystemMetadata, newSystemMetadata,
-          MetadataAuditOperation.UPDATE, auditStamp, version);
-    }, maxTransactionRetry);
+    final UpdateAspectResult result = _aspectDao.runInTransactionWithRetry(
+        () -> saveAspectVersion(urn, aspectName, value, auditStamp, version), maxTransactionRetry);
 
     final RecordTemplate oldValue = result.getOldValue();
     final RecordTemplate newValue = result.getNewValue();
@@ -1656,4 +1795,28 @@ private Map<Urn, List<EnvelopedAspect>> getCorrespondingAspects(Set<EntityAspect
 
     return newValue;
   }
+
+  // Must be called within a transaction
+  @Nonnull
+  private UpdateAspectResult saveAspectVersion(@Nonnull final Urn urn, @Nonnull final String aspectName,
+      @Nonnull final RecordTemplate value, @Nonnull final AuditStamp auditStamp, final long version) {
+    final EntityAspect oldAspect = _aspectDao.getAspect(urn.toString(), aspectName, version);
+    final RecordTemplate oldValue =
+        oldAspect == null ? null : EntityUtils.toAspectRecord(urn, aspectName, oldAspect.getMetadata(), getEntityRegistry());
+
+    SystemMetadata oldSystemMetadata =
+        oldAspect == null ? new SystemMetadata() : EntityUtils.parseSystemMetadata(oldAspect.getSystemMetadata());
+    // create a duplicate of the old system metadata to update and write back
+    SystemMetadata newSystemMetadata =
+        oldAspect == null ? new SystemMetadata() : EntityUtils.parseSystemMetadata(oldAspect.getSystemMetadata());
+    newSystemMetadata.setLastObserved(System.currentTimeMillis());
+
+    log.debug("Updating aspect with name {}, urn {}", aspectName, urn);
+    _aspectDao.saveAspect(urn.toString(), aspectName, EntityUtils.toJsonAspect(value), auditStamp.getActor().toString(),
+        auditStamp.hasImpersonator() ? auditStamp.getImpersonator().toString() : null,
+        new Timestamp(auditStamp.getTime()), EntityUtils.toJsonAspect(newSystemMetadata), version, oldAspect == null);
+
+    return new UpdateAspectResult(urn, oldValue, value, oldSystemMetadata, newSystemMetadata,
+        MetadataAuditOperation.UPDATE, auditStamp, version);
+  }
 }
@@ -1,7 +1,11 @@
 package com.linkedin.metadata.entity;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.common.AuditStamp;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.data.template.RecordTemplate;
@@ -14,12 +18,18 @@ import com.linkedin.mxe.GenericAspect;
 import com.linkedin.mxe.MetadataChangeProposal;
 import com.linkedin.retention.DataHubRetentionConfig;
 import com.linkedin.retention.Retention;
+import com.linkedin.util.Pair;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -40,17 +50,45 @@ public abstract class RetentionService {
   protected static final String DATAHUB_RETENTION_ASPECT = "dataHubRetentionConfig";
   protected static final String DATAHUB_RETENTION_KEY_ASPECT = "dataHubRetentionKey";
 
+  // Policies set on other instances are picked up after this long at the latest
+  private static final long RETENTION_CACHE_TTL_SECONDS = 60;
+  private static final long RETENTION_CACHE_MAX_SIZE = 10000;
+  private static final int RETENTION_EXECUTOR_THREADS = 4;
+  private static final int RETENTION_EXECUTOR_QUEUE_SIZE = 1000;
+
+  private final LoadingCache<Pair<String, String>, Retention> _retentionCache = CacheBuilder.newBuilder()
+      .maximumSize(RETENTION_CACHE_MAX_SIZE)
+      .expireAfterWrite(RETENTION_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+      .build(CacheLoader.from(key -> fetchRetention(key.getFirst(), key.getSecond())));
+
+  // Bounded, so that retention falls back to running on the caller when it can't keep up with ingestion
+  private final ExecutorService _retentionExecutor = createRetentionExecutor();
+
   protected abstract EntityService getEntityService();
 
   /**
    * Fetch retention policies given the entityName and aspectName
-   * Uses the entity service to fetch the latest retention policies set for the input entity and aspect
+   * Policies are cached per entity and aspect, and the cache is invalidated when retention policies change
    *
    * @param entityName Name of the entity
    * @param aspectName Name of the aspect
    * @return retention policies to apply to the input entity and aspect
    */
   public Retention getRetention(@Nonnull String entityName, @Nonnull String aspectName) {
+    return _retentionCache.getUnchecked(Pair.of(entityName, aspectName));
+  }
+
+  /**
+   * Drop the cached retention policies, so that the next lookups see the latest policies
+   */
+  public void invalidateRetentionCache() {
+    _retentionCache.invalidateAll();
+  }
+
+  /**
+   * Uses the entity service to fetch the latest retention policies set for the input entity and aspect
+   */
+  private Retention fetchRetention(@Nonnull String entityName, @Nonnull String aspectName) {
     // Prioritized list of retention keys to fetch
     List<Urn> retentionUrns = getRetentionKeys(entityName, aspectName);
     Map<Urn, List<RecordTemplate>> fetchedAspects =
@@ -108,7 +146,9 @@ public abstract class RetentionService {
     GenericAspect retentionAspect = GenericRecordUtils.serializeAspect(retentionConfig);
     aspectProposal.setAspect(retentionAspect);
     aspectProposal.setAspectName(DATAHUB_RETENTION_ASPECT);
-    return getEntityService().ingestProposal(aspectProposal, auditStamp).isDidUpdate();
+    boolean didUpdate = getEntityService().ingestProposal(aspectProposal, auditStamp).isDidUpdate();
+    invalidateRetentionCache();
+    return didUpdate;
   }
 
   /**
@@ -125,6 +165,7 @@ public abstract class RetentionService {
     retentionKey.setAspectName(aspectName != null ? aspectName : ALL);
     Urn retentionUrn = EntityKeyUtils.convertEntityKeyToUrn(retentionKey, DATAHUB_RETENTION_ENTITY);
     getEntityService().deleteUrn(retentionUrn);
+    invalidateRetentionCache();
   }
 
   private void validateRetention(Retention retention) {
@@ -148,7 +189,36 @@ public abstract class RetentionService {
    * @param context Additional context that could be used to apply retention
    */
   public void applyRetentionAsync(@Nonnull Urn urn, @Nonnull String aspectName, Optional<RetentionContext> context) {
-    CompletableFuture.runAsync(() -> applyRetention(urn, aspectName, context));
+    runAsync(() -> applyRetention(urn, aspectName, context));
+  }
+
+  /**
+   * Run a retention task on the retention executor. Runs on the calling thread when the executor queue is full.
+   */
+  protected CompletableFuture<Void> runAsync(@Nonnull Runnable task) {
+    return CompletableFuture.runAsync(task, _retentionExecutor);
+  }
+
+  /**
+   * Find the retention policy to apply to the input entity and aspect among all the retention policies, keyed by the
+   * urn of their retention key
+   */
+  protected Optional<Retention> resolveRetention(@Nonnull Map<String, DataHubRetentionConfig> retentionPolicyMap,
+      @Nonnull String entityName, @Nonnull String aspectName) {
+    return getRetentionKeys(entityName, aspectName).stream()
+        .map(key -> retentionPolicyMap.get(key.toString()))
+        .filter(Objects::nonNull)
+        .findFirst()
+        .map(DataHubRetentionConfig::getRetention);
+  }
+
+  private static ExecutorService createRetentionExecutor() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(RETENTION_EXECUTOR_THREADS, RETENTION_EXECUTOR_THREADS,
+        60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(RETENTION_EXECUTOR_QUEUE_SIZE),
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("retention-%d").build(),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
   }
 
   /**
@@ -22,6 +22,7 @@ import com.linkedin.common.AuditStamp;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.entity.AspectDao;
 import com.linkedin.metadata.entity.AspectMigrationsDao;
+import com.linkedin.metadata.entity.CursorListResult;
 import com.linkedin.metadata.entity.EntityAspect;
 import com.linkedin.metadata.entity.EntityAspectIdentifier;
 import com.linkedin.metadata.entity.ListResult;
@@ -33,12 +34,16 @@ import lombok.extern.slf4j.Slf4j;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.net.URISyntaxException;
+import java.nio.ByteBuffer;
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -466,6 +471,72 @@ public class CassandraAspectDao implements AspectDao, AspectMigrationsDao {
         .collect(Collectors.toList());
   }
 
+  @Override
+  @Nonnull
+  public CursorListResult<String> listUrnsAfter(
+      @Nonnull final String entityName,
+      @Nonnull final String aspectName,
+      @Nullable final String cursor,
+      final int pageSize) {
+
+    validateConnection();
+    // Partitions are ordered by token rather than urn, so pages resume from the paging state of the previous page
+    // instead of skipping the rows of the previous pages
+    SimpleStatement ss = selectFrom(CassandraAspect.TABLE_NAME)
+        .columns(
+            CassandraAspect.URN_COLUMN,
+            CassandraAspect.ASPECT_COLUMN,
+            CassandraAspect.VERSION_COLUMN
+        )
+        .whereColumn(CassandraAspect.ASPECT_COLUMN).isEqualTo(literal(aspectName))
+        .whereColumn(CassandraAspect.VERSION_COLUMN).isEqualTo(literal(ASPECT_LATEST_VERSION))
+        .whereColumn(CassandraAspect.ENTITY_COLUMN).isEqualTo(literal(entityName))
+        .allowFiltering()
+        .build();
+
+    return toCursorListResult(ss, cursor, pageSize, row -> CassandraAspect.rowToAspectIdentifier(row).getUrn());
+  }
+
+  @Override
+  @Nonnull
+  public CursorListResult<String> listAllUrnsAfter(@Nullable final String cursor, final int pageSize) {
+    validateConnection();
+    SimpleStatement ss = selectFrom(CassandraAspect.TABLE_NAME)
+        .distinct()
+        .column(CassandraAspect.URN_COLUMN)
+        .build();
+
+    return toCursorListResult(ss, cursor, pageSize, row -> row.getString(CassandraAspect.URN_COLUMN));
+  }
+
+  // Reads a single page of the statement. Note that filtered pages may hold less than pageSize rows.
+  @Nonnull
+  private CursorListResult<String> toCursorListResult(@Nonnull SimpleStatement ss, @Nullable final String cursor,
+      final int pageSize, @Nonnull Function<Row, String> mapper) {
+    SimpleStatement pageStatement = ss.setPageSize(pageSize);
+    if (cursor != null) {
+      try {
+        pageStatement = pageStatement.setPagingState(ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor)));
+      } catch (IllegalArgumentException e) {
+        throw new IllegalArgumentException(String.format("Invalid cursor %s", cursor), e);
+      }
+    }
+
+    ResultSet rs = _cqlSession.execute(pageStatement);
+    final List<String> values = new ArrayList<>(rs.getAvailableWithoutFetching());
+    while (rs.getAvailableWithoutFetching() > 0) {
+      values.add(mapper.apply(rs.one()));
+    }
+
+    final ByteBuffer pagingState = rs.getExecutionInfo().getPagingState();
+    if (pagingState == null) {
+      return new CursorListResult<>(values, null);
+    }
+    final byte[] nextCursor = new byte[pagingState.remaining()];
+    pagingState.duplicate().get(nextCursor);
+    return new CursorListResult<>(values, Base64.getUrlEncoder().encodeToString(nextCursor));
+  }
+
   @Override
   public long getNextVersion(@Nonnull final String urn, @Nonnull final String aspectName) {
     validateConnection();
@@ -9,6 +9,7 @@ import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
 import com.datastax.oss.driver.api.querybuilder.select.Select;
 import com.datastax.oss.driver.api.querybuilder.select.Selector;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.entity.EntityService;
 import com.linkedin.metadata.entity.RetentionService;
@@ -28,8 +29,8 @@ import java.sql.Timestamp;
 import java.time.Clock;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 import static com.datastax.oss.driver.api.querybuilder.QueryBuilder.deleteFrom;
@@ -72,15 +73,26 @@ public class CassandraRetentionService extends RetentionService {
   @Override
   @WithSpan
   public void batchApplyRetention(@Nullable String entityName, @Nullable String aspectName) {
-    // TODO: This method is not actually batching anything. Cassandra makes it complicated.
+    // Deletes are bound to a partition in Cassandra, so chunks of urn, aspect pairs are cleaned up concurrently on the
+    // retention executor instead of with a single statement per chunk.
     log.debug("Applying retention to all records");
     List<EntityAspectIdentifier> candidates = queryCandidates(entityName, aspectName);
     int numCandidates = candidates.size();
     log.info("Found {} urn, aspect pairs with more than 1 version", numCandidates);
     Map<String, DataHubRetentionConfig> retentionPolicyMap = getAllRetentionPolicies();
 
-    long i = 0;
-    for (EntityAspectIdentifier id : candidates) {
+    List<CompletableFuture<Void>> chunks = Lists.partition(candidates, _batchSize)
+        .stream()
+        .map(chunk -> runAsync(() -> applyRetentionToChunk(chunk, retentionPolicyMap)))
+        .collect(Collectors.toList());
+    CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+    log.info("Finished applying retention to all records");
+  }
+
+  private void applyRetentionToChunk(@Nonnull List<EntityAspectIdentifier> chunk,
+      @Nonnull Map<String, DataHubRetentionConfig> retentionPolicyMap) {
+    for (EntityAspectIdentifier id : chunk) {
       // Only run for cases where there's multiple versions of the aspect
       if (id.getVersion() == 0) {
         continue;
@@ -95,21 +107,10 @@ public class CassandraRetentionService extends RetentionService {
       }
       final String aspectNameFromRecord = id.getAspect();
       // Get the retention policies to apply from the local retention policy map
-      Optional<Retention> retentionPolicy = getRetentionKeys(urn.getEntityType(), aspectNameFromRecord).stream()
-          .map(key -> retentionPolicyMap.get(key.toString()))
-          .filter(Objects::nonNull)
-          .findFirst()
-          .map(DataHubRetentionConfig::getRetention);
-      retentionPolicy.ifPresent(retention ->
+      resolveRetention(retentionPolicyMap, urn.getEntityType(), aspectNameFromRecord).ifPresent(retention ->
           applyRetention(urn, aspectNameFromRecord, retention, Optional.of(new RetentionContext(Optional.of(id.getVersion())))));
-
-      i += 1;
-      if (i % _batchSize == 0) {
-        log.info(String.format("Retention applied to {} aspect so far.", i));
-      }
     }
-
-    log.info("Finished applying retention to all records");
+    log.info("Retention applied to {} aspects", chunk.size());
   }
 
   private void applyVersionBasedRetention(
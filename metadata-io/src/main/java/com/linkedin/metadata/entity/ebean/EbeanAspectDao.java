@@ -6,6 +6,7 @@ import com.linkedin.common.AuditStamp;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.entity.AspectDao;
 import com.linkedin.metadata.entity.AspectMigrationsDao;
+import com.linkedin.metadata.entity.CursorListResult;
 import com.linkedin.metadata.entity.EntityAspect;
 import com.linkedin.metadata.entity.EntityAspectIdentifier;
 import com.linkedin.metadata.entity.ListResult;
@@ -25,9 +26,11 @@ import io.ebean.Transaction;
 import io.ebean.TxScope;
 import io.ebean.annotation.TxIsolation;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -406,6 +409,86 @@ public class EbeanAspectDao implements AspectDao, AspectMigrationsDao {
     return ebeanAspects.getList().stream().map(EbeanAspectV2::getUrn).collect(Collectors.toList());
   }
 
+  @Override
+  @Nonnull
+  public CursorListResult<String> listUrnsAfter(
+      @Nonnull final String entityName,
+      @Nonnull final String aspectName,
+      @Nullable final String cursor,
+      final int pageSize) {
+
+    validateConnection();
+
+    // Seeks past the last urn of the previous page on the (urn, aspect, version) primary key, instead of skipping rows
+    final String urnPrefixMatcher = "urn:li:" + entityName + ":%";
+    ExpressionList<EbeanAspectV2> query = _server.find(EbeanAspectV2.class)
+        .select(EbeanAspectV2.KEY_ID)
+        .where()
+        .like(EbeanAspectV2.URN_COLUMN, urnPrefixMatcher)
+        .eq(EbeanAspectV2.ASPECT_COLUMN, aspectName)
+        .eq(EbeanAspectV2.VERSION_COLUMN, ASPECT_LATEST_VERSION);
+    if (cursor != null) {
+      query = query.gt(EbeanAspectV2.URN_COLUMN, decodeUrnCursor(cursor));
+    }
+    final List<String> urns = query
+        .setMaxRows(pageSize + 1)
+        .orderBy()
+        .asc(EbeanAspectV2.URN_COLUMN)
+        .findList()
+        .stream()
+        .map(entry -> entry.getKey().getUrn())
+        .collect(Collectors.toList());
+
+    return toCursorListResult(urns, pageSize);
+  }
+
+  @Override
+  @Nonnull
+  public CursorListResult<String> listAllUrnsAfter(@Nullable final String cursor, final int pageSize) {
+    validateConnection();
+    ExpressionList<EbeanAspectV2> query = _server.find(EbeanAspectV2.class)
+        .setDistinct(true)
+        .select(EbeanAspectV2.URN_COLUMN)
+        .where();
+    if (cursor != null) {
+      query = query.gt(EbeanAspectV2.URN_COLUMN, decodeUrnCursor(cursor));
+    }
+    final List<String> urns = query
+        .setMaxRows(pageSize + 1)
+        .orderBy()
+        .asc(EbeanAspectV2.URN_COLUMN)
+        .findList()
+        .stream()
+        .map(EbeanAspectV2::getUrn)
+        .collect(Collectors.toList());
+
+    return toCursorListResult(urns, pageSize);
+  }
+
+  // One more row than the page size is fetched to know whether there is a next page
+  @Nonnull
+  private static CursorListResult<String> toCursorListResult(@Nonnull final List<String> urns, final int pageSize) {
+    if (urns.size() <= pageSize) {
+      return new CursorListResult<>(urns, null);
+    }
+    final List<String> page = urns.subList(0, pageSize);
+    return new CursorListResult<>(new ArrayList<>(page), encodeUrnCursor(page.get(pageSize - 1)));
+  }
+
+  @Nonnull
+  private static String encodeUrnCursor(@Nonnull final String urn) {
+    return Base64.getUrlEncoder().encodeToString(urn.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Nonnull
+  private static String decodeUrnCursor(@Nonnull final String cursor) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException(String.format("Invalid cursor %s", cursor), e);
+    }
+  }
+
   @Override
   @Nonnull
   public ListResult<String> listAspectMetadata(
@@ -8,21 +8,21 @@ import com.linkedin.retention.DataHubRetentionConfig;
 import com.linkedin.retention.Retention;
 import com.linkedin.retention.TimeBasedRetention;
 import com.linkedin.retention.VersionBasedRetention;
+import com.linkedin.util.Pair;
 import io.ebean.EbeanServer;
 import io.ebean.Expression;
 import io.ebean.ExpressionList;
-import io.ebean.PagedList;
-import io.ebean.Transaction;
 import io.ebeaninternal.server.expression.Op;
 import io.ebeaninternal.server.expression.SimpleExpression;
 import io.opentelemetry.extension.annotations.WithSpan;
 import java.sql.Timestamp;
 import java.time.Clock;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -119,46 +119,91 @@ public class EbeanRetentionService extends RetentionService {
     log.info("Found {} urn, aspect pair with more than 1 version", numCandidates);
     Map<String, DataHubRetentionConfig> retentionPolicyMap = getAllRetentionPolicies();
 
+    // Pages are read with a seek on (urn, aspect) and cleaned up concurrently on the retention executor
+    List<CompletableFuture<Void>> chunks = new ArrayList<>();
+    List<EbeanAspectV2> rows = getNextCandidates(entityName, aspectName, null, _batchSize);
     int start = 0;
-    while (start < numCandidates) {
-      log.info("Applying retention to pairs {} through {}", start, start + _batchSize);
-      PagedList<EbeanAspectV2> rows = getPagedAspects(entityName, aspectName, start, _batchSize);
-
-      try (Transaction transaction = _server.beginTransaction()) {
-        transaction.setBatchMode(true);
-        transaction.setBatchSize(_batchSize);
-        for (EbeanAspectV2 row : rows.getList()) {
-          // Only run for cases where there's multiple versions of the aspect
-          if (row.getVersion() == 0) {
-            continue;
-          }
-          // 1. Extract an Entity type from the entity Urn
-          Urn urn;
-          try {
-            urn = Urn.createFromString(row.getUrn());
-          } catch (Exception e) {
-            log.error("Failed to serialize urn {}", row.getUrn(), e);
-            continue;
-          }
-          final String aspectNameFromRecord = row.getAspect();
-          // Get the retention policies to apply from the local retention policy map
-          Optional<Retention> retentionPolicy = getRetentionKeys(urn.getEntityType(), aspectNameFromRecord).stream()
-              .map(key -> retentionPolicyMap.get(key.toString()))
-              .filter(Objects::nonNull)
-              .findFirst()
-              .map(DataHubRetentionConfig::getRetention);
-          retentionPolicy.ifPresent(retention -> applyRetention(urn, aspectNameFromRecord, retention,
-              Optional.of(new RetentionContext(Optional.of(row.getVersion())))));
-        }
-        transaction.commit();
+    while (!rows.isEmpty()) {
+      log.info("Applying retention to pairs {} through {}", start, start + rows.size());
+      final List<EbeanAspectV2> chunk = rows;
+      chunks.add(runAsync(() -> applyRetentionToChunk(chunk, retentionPolicyMap)));
+      start += rows.size();
+      if (rows.size() < _batchSize) {
+        break;
       }
-
-      start += _batchSize;
+      rows = getNextCandidates(entityName, aspectName, rows.get(rows.size() - 1), _batchSize);
     }
+    CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
 
     log.info("Finished applying retention to all records");
   }
 
+  /**
+   * Apply retention to a chunk of (urn, aspect, max version) rows, with one delete per aspect and retention policy
+   */
+  private void applyRetentionToChunk(@Nonnull List<EbeanAspectV2> rows,
+      @Nonnull Map<String, DataHubRetentionConfig> retentionPolicyMap) {
+    Map<Pair<String, Retention>, List<EbeanAspectV2>> rowsByPolicy = new HashMap<>();
+    for (EbeanAspectV2 row : rows) {
+      // Only run for cases where there's multiple versions of the aspect
+      if (row.getVersion() == 0) {
+        continue;
+      }
+      // 1. Extract an Entity type from the entity Urn
+      Urn urn;
+      try {
+        urn = Urn.createFromString(row.getUrn());
+      } catch (Exception e) {
+        log.error("Failed to serialize urn {}", row.getUrn(), e);
+        continue;
+      }
+      // Get the retention policies to apply from the local retention policy map
+      resolveRetention(retentionPolicyMap, urn.getEntityType(), row.getAspect()).ifPresent(
+          retention -> rowsByPolicy.computeIfAbsent(Pair.of(row.getAspect(), retention), key -> new ArrayList<>())
+              .add(row));
+    }
+    rowsByPolicy.forEach((key, policyRows) -> applyRetention(key.getFirst(), key.getSecond(), policyRows));
+  }
+
+  private void applyRetention(@Nonnull String aspectName, @Nonnull Retention retentionPolicy,
+      @Nonnull List<EbeanAspectV2> rows) {
+    if (retentionPolicy.data().isEmpty()) {
+      return;
+    }
+    ExpressionList<EbeanAspectV2> deleteQuery = _server.find(EbeanAspectV2.class)
+        .where()
+        .eq(EbeanAspectV2.ASPECT_COLUMN, aspectName)
+        .ne(EbeanAspectV2.VERSION_COLUMN, ASPECT_LATEST_VERSION)
+        .or();
+
+    boolean hasFilter = false;
+    if (retentionPolicy.hasVersion()) {
+      long maxVersions = retentionPolicy.getVersion().getMaxVersions();
+      for (EbeanAspectV2 row : rows) {
+        if (row.getVersion() < maxVersions) {
+          continue;
+        }
+        deleteQuery.and()
+            .eq(EbeanAspectV2.URN_COLUMN, row.getUrn())
+            .lt(EbeanAspectV2.VERSION_COLUMN, row.getVersion() - maxVersions + 1)
+            .endAnd();
+        hasFilter = true;
+      }
+    }
+    if (retentionPolicy.hasTime()) {
+      deleteQuery.and()
+          .in(EbeanAspectV2.URN_COLUMN, rows.stream().map(EbeanAspectV2::getUrn).collect(Collectors.toList()))
+          .add(getTimeBasedRetentionQuery(retentionPolicy.getTime()))
+          .endAnd();
+      hasFilter = true;
+    }
+
+    // Only run delete if at least one of the retention policies are applicable
+    if (hasFilter) {
+      deleteQuery.endOr().delete();
+    }
+  }
+
   private Map<String, DataHubRetentionConfig> getAllRetentionPolicies() {
     return _server.find(EbeanAspectV2.class)
         .select(String.format("%s, %s, %s", EbeanAspectV2.URN_COLUMN, EbeanAspectV2.ASPECT_COLUMN,
@@ -187,12 +232,20 @@ public class EbeanRetentionService extends RetentionService {
     return query;
   }
 
-  private PagedList<EbeanAspectV2> getPagedAspects(@Nullable String entityName, @Nullable String aspectName,
-      final int start, final int pageSize) {
-    return queryCandidates(entityName, aspectName).orderBy(
-        EbeanAspectV2.URN_COLUMN + ", " + EbeanAspectV2.ASPECT_COLUMN)
-        .setFirstRow(start)
+  private List<EbeanAspectV2> getNextCandidates(@Nullable String entityName, @Nullable String aspectName,
+      @Nullable EbeanAspectV2 after, final int pageSize) {
+    ExpressionList<EbeanAspectV2> query = queryCandidates(entityName, aspectName);
+    if (after != null) {
+      query.or()
+          .gt(EbeanAspectV2.URN_COLUMN, after.getUrn())
+          .and()
+          .eq(EbeanAspectV2.URN_COLUMN, after.getUrn())
+          .gt(EbeanAspectV2.ASPECT_COLUMN, after.getAspect())
+          .endAnd()
+          .endOr();
+    }
+    return query.orderBy(EbeanAspectV2.URN_COLUMN + ", " + EbeanAspectV2.ASPECT_COLUMN)
         .setMaxRows(pageSize)
-        .findPagedList();
+        .findList();
   }
 }
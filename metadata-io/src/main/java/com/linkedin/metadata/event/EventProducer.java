@@ -8,6 +8,8 @@ import com.linkedin.mxe.MetadataChangeLog;
 import com.linkedin.mxe.MetadataAuditOperation;
 import com.linkedin.mxe.PlatformEvent;
 import com.linkedin.mxe.SystemMetadata;
+import com.linkedin.util.Pair;
+import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -64,4 +66,18 @@ public interface EventProducer {
       @Nullable String key,
       @Nonnull PlatformEvent payload
   );
+
+  /**
+   * Produces a batch of generic platform "events", in order. Implementations may block until all the events of the
+   * batch have been acknowledged.
+   *
+   * @param name the name, or type, of the events to produce, as defined in the {@link EntityRegistry}.
+   * @param keyedEvents the events to produce, along with their optional partitioning key.
+   */
+  default void producePlatformEvents(
+      @Nonnull String name,
+      @Nonnull List<Pair<String, PlatformEvent>> keyedEvents
+  ) {
+    keyedEvents.forEach(keyedEvent -> producePlatformEvent(name, keyedEvent.getFirst(), keyedEvent.getSecond()));
+  }
 }
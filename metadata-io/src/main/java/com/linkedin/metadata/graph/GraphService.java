@@ -1,6 +1,7 @@
 package com.linkedin.metadata.graph;
 
 import com.linkedin.common.urn.Urn;
+import com.linkedin.metadata.entity.CursorListResult;
 import com.linkedin.metadata.models.registry.LineageRegistry;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.RelationshipDirection;
@@ -84,6 +85,30 @@ public interface GraphService {
       @Nonnull final List<String> relationshipTypes, @Nonnull final RelationshipFilter relationshipFilter,
       final int offset, final int count);
 
+  /**
+   * Same as {@link #findRelatedEntities}, but pages with an opaque cursor rather than an offset. Unlike offsets, the
+   * cursor lets callers list every related entity, however many there are.
+   *
+   * Unless overridden, the cursor holds the offset of the next page.
+   *
+   * @param cursor the cursor returned with the previous page, null to fetch the first page
+   * @param count the max number of related entities of the page
+   * @return a page of related entities, along with the cursor of the next page if there are more
+   */
+  @Nonnull
+  default CursorListResult<RelatedEntity> scrollRelatedEntities(@Nullable final String sourceType,
+      @Nonnull final Filter sourceEntityFilter, @Nullable final String destinationType,
+      @Nonnull final Filter destinationEntityFilter, @Nonnull final List<String> relationshipTypes,
+      @Nonnull final RelationshipFilter relationshipFilter, @Nullable final String cursor, final int count) {
+    final int offset = cursor == null ? 0 : Integer.parseInt(cursor);
+    final RelatedEntitiesResult result =
+        findRelatedEntities(sourceType, sourceEntityFilter, destinationType, destinationEntityFilter,
+            relationshipTypes, relationshipFilter, offset, count);
+    final int nextOffset = offset + result.getEntities().size();
+    final boolean hasMore = !result.getEntities().isEmpty() && nextOffset < result.getTotal();
+    return new CursorListResult<>(result.getEntities(), hasMore ? String.valueOf(nextOffset) : null);
+  }
+
   /**
    * Traverse from the entityUrn towards the input direction up to maxHops number of hops
    * Abstracts away the concept of relationship types
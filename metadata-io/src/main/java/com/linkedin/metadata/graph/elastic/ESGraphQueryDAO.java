@@ -16,6 +16,7 @@ import com.linkedin.metadata.query.filter.Criterion;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.RelationshipDirection;
 import com.linkedin.metadata.query.filter.RelationshipFilter;
+import com.linkedin.metadata.search.utils.ESUtils;
 import com.linkedin.metadata.utils.ConcurrencyUtils;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import com.linkedin.metadata.utils.metrics.MetricUtils;
@@ -47,6 +48,8 @@ import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.sort.FieldSortBuilder;
+import org.elasticsearch.search.sort.SortOrder;
 
 import static com.linkedin.metadata.graph.elastic.ElasticSearchGraphService.INDEX_NAME;
 
@@ -67,7 +70,9 @@ public class ESGraphQueryDAO {
   private static final int TIMEOUT_SECS = 10;
   private static final String SOURCE = "source";
   private static final String DESTINATION = "destination";
-  private static final String RELATIONSHIP_TYPE = "relationshipType";
+  static final String RELATIONSHIP_TYPE = "relationshipType";
+  // Fields read from the edges, which are all keywords and fetched from doc values rather than the source
+  private static final String[] EDGE_FIELDS = {SOURCE + ".urn", DESTINATION + ".urn", RELATIONSHIP_TYPE};
 
   @Nonnull
   public static void addFilterToQueryBuilder(@Nonnull Filter filter, String node, BoolQueryBuilder rootQuery) {
@@ -86,14 +91,20 @@ public class ESGraphQueryDAO {
   }
 
   private SearchResponse executeSearchQuery(@Nonnull final QueryBuilder query, final int offset, final int count) {
-    SearchRequest searchRequest = new SearchRequest();
-
     SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
 
     searchSourceBuilder.from(offset);
     searchSourceBuilder.size(count);
 
+    return executeSearchQuery(query, searchSourceBuilder);
+  }
+
+  private SearchResponse executeSearchQuery(@Nonnull final QueryBuilder query,
+      @Nonnull final SearchSourceBuilder searchSourceBuilder) {
+    SearchRequest searchRequest = new SearchRequest();
+
     searchSourceBuilder.query(query);
+    ESUtils.fetchDocValues(searchSourceBuilder, EDGE_FIELDS);
 
     searchRequest.source(searchSourceBuilder);
 
@@ -118,6 +129,30 @@ public class ESGraphQueryDAO {
     return executeSearchQuery(finalQuery, offset, count);
   }
 
+  /**
+   * Gets the page of edges that comes after the given sort values. Edges are sorted by source urn, destination urn and
+   * relationship type, which identify an edge, so paging is stable and not capped by the max result window.
+   */
+  public SearchResponse getScrollResponse(@Nullable final String sourceType, @Nonnull final Filter sourceEntityFilter,
+      @Nullable final String destinationType, @Nonnull final Filter destinationEntityFilter,
+      @Nonnull final List<String> relationshipTypes, @Nonnull final RelationshipFilter relationshipFilter,
+      @Nullable final Object[] searchAfter, final int count) {
+    BoolQueryBuilder finalQuery =
+        buildQuery(sourceType, sourceEntityFilter, destinationType, destinationEntityFilter, relationshipTypes,
+            relationshipFilter);
+
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.size(count);
+    for (String field : EDGE_FIELDS) {
+      searchSourceBuilder.sort(new FieldSortBuilder(field).order(SortOrder.ASC));
+    }
+    if (searchAfter != null) {
+      searchSourceBuilder.searchAfter(searchAfter);
+    }
+
+    return executeSearchQuery(finalQuery, searchSourceBuilder);
+  }
+
   public static BoolQueryBuilder buildQuery(@Nullable final String sourceType, @Nonnull final Filter sourceEntityFilter,
       @Nullable final String destinationType, @Nonnull final Filter destinationEntityFilter,
       @Nonnull final List<String> relationshipTypes, @Nonnull final RelationshipFilter relationshipFilter) {
@@ -237,11 +272,9 @@ public class ESGraphQueryDAO {
       int numHops) {
     List<LineageRelationship> result = new LinkedList<>();
     for (SearchHit hit : searchResponse.getHits().getHits()) {
-      Map<String, Object> document = hit.getSourceAsMap();
-      Urn sourceUrn = UrnUtils.getUrn(((Map<String, Object>) document.get(SOURCE)).get("urn").toString());
-      Urn destinationUrn =
-          UrnUtils.getUrn(((Map<String, Object>) document.get(DESTINATION)).get("urn").toString());
-      String type = document.get(RELATIONSHIP_TYPE).toString();
+      Urn sourceUrn = UrnUtils.getUrn(ESUtils.getDocValue(hit, SOURCE + ".urn").toString());
+      Urn destinationUrn = UrnUtils.getUrn(ESUtils.getDocValue(hit, DESTINATION + ".urn").toString());
+      String type = ESUtils.getDocValue(hit, RELATIONSHIP_TYPE).toString();
 
       // Potential outgoing edge
       if (entityUrns.contains(sourceUrn)) {
@@ -2,12 +2,12 @@ package com.linkedin.metadata.graph.elastic;
 
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.RelationshipFilter;
+import com.linkedin.metadata.search.elasticsearch.indexbuilder.ReindexWriteRouter;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import java.io.IOException;
 import java.util.List;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.index.IndexRequest;
@@ -24,11 +24,18 @@ import static com.linkedin.metadata.graph.elastic.ElasticSearchGraphService.INDE
 
 
 @Slf4j
-@RequiredArgsConstructor
 public class ESGraphWriteDAO {
   private final RestHighLevelClient client;
   private final IndexConvention indexConvention;
   private final BulkProcessor bulkProcessor;
+  private final ReindexWriteRouter reindexWriteRouter;
+
+  public ESGraphWriteDAO(RestHighLevelClient client, IndexConvention indexConvention, BulkProcessor bulkProcessor) {
+    this.client = client;
+    this.indexConvention = indexConvention;
+    this.bulkProcessor = bulkProcessor;
+    this.reindexWriteRouter = new ReindexWriteRouter(client);
+  }
 
   /**
    * Updates or inserts the given search document.
@@ -37,13 +44,14 @@ public class ESGraphWriteDAO {
    * @param docId the ID of the document
    */
   public void upsertDocument(@Nonnull String docId, @Nonnull String document) {
-    final IndexRequest indexRequest =
-        new IndexRequest(indexConvention.getIndexName(INDEX_NAME)).id(docId).source(document, XContentType.JSON);
-    final UpdateRequest updateRequest =
-        new UpdateRequest(indexConvention.getIndexName(INDEX_NAME), docId).doc(document, XContentType.JSON)
-            .detectNoop(false)
-            .upsert(indexRequest);
-    bulkProcessor.add(updateRequest);
+    final String indexName = indexConvention.getIndexName(INDEX_NAME);
+    reindexWriteRouter.journal(indexName, docId);
+    for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+      final IndexRequest indexRequest = new IndexRequest(index).id(docId).source(document, XContentType.JSON);
+      final UpdateRequest updateRequest =
+          new UpdateRequest(index, docId).doc(document, XContentType.JSON).detectNoop(false).upsert(indexRequest);
+      bulkProcessor.add(updateRequest);
+    }
   }
 
   public BulkByScrollResponse deleteByQuery(@Nullable final String sourceType, @Nonnull final Filter sourceEntityFilter,
@@ -57,7 +65,9 @@ public class ESGraphWriteDAO {
 
     deleteByQueryRequest.setQuery(finalQuery);
 
-    deleteByQueryRequest.indices(indexConvention.getIndexName(INDEX_NAME));
+    final String indexName = indexConvention.getIndexName(INDEX_NAME);
+    reindexWriteRouter.journalMatching(indexName, finalQuery);
+    deleteByQueryRequest.indices(reindexWriteRouter.getWriteIndices(indexName).toArray(new String[0]));
 
     try {
       final BulkByScrollResponse deleteResponse = client.deleteByQuery(deleteByQueryRequest, RequestOptions.DEFAULT);
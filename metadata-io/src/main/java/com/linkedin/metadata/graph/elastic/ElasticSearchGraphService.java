@@ -4,6 +4,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.collect.ImmutableList;
 import com.linkedin.common.urn.Urn;
+import com.linkedin.metadata.entity.CursorListResult;
 import com.linkedin.metadata.graph.Edge;
 import com.linkedin.metadata.graph.EntityLineageResult;
 import com.linkedin.metadata.graph.GraphService;
@@ -21,6 +22,8 @@ import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.RelationshipDirection;
 import com.linkedin.metadata.query.filter.RelationshipFilter;
 import com.linkedin.metadata.search.elasticsearch.indexbuilder.ESIndexBuilder;
+import com.linkedin.metadata.search.utils.ESUtils;
+import com.linkedin.metadata.search.utils.ScrollCursorUtils;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import io.opentelemetry.extension.annotations.WithSpan;
 import java.io.IOException;
@@ -31,9 +34,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -45,6 +46,7 @@ import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.search.SearchHit;
 
 
 @Slf4j
@@ -60,7 +62,6 @@ public class ElasticSearchGraphService implements GraphService {
 
   private static final String DOC_DELIMETER = "--";
   public static final String INDEX_NAME = "graph_service_v1";
-  private static final Map<String, Object> EMPTY_HASH = new HashMap<>();
 
   private String toDocument(@Nonnull final Edge edge) {
     final ObjectNode searchDocument = JsonNodeFactory.instance.objectNode();
@@ -136,10 +137,53 @@ public class ElasticSearchGraphService implements GraphService {
     }
 
     int totalCount = (int) response.getHits().getTotalHits().value;
-    final List<RelatedEntity> relationships = Arrays.stream(response.getHits().getHits())
+    final List<RelatedEntity> relationships = toRelatedEntities(response, destinationNode);
+
+    return new RelatedEntitiesResult(offset, relationships.size(), totalCount, relationships);
+  }
+
+  @Nonnull
+  @Override
+  public CursorListResult<RelatedEntity> scrollRelatedEntities(
+      @Nullable final String sourceType,
+      @Nonnull final Filter sourceEntityFilter,
+      @Nullable final String destinationType,
+      @Nonnull final Filter destinationEntityFilter,
+      @Nonnull final List<String> relationshipTypes,
+      @Nonnull final RelationshipFilter relationshipFilter,
+      @Nullable final String cursor,
+      final int count) {
+
+    final RelationshipDirection relationshipDirection = relationshipFilter.getDirection();
+    String destinationNode = relationshipDirection == RelationshipDirection.OUTGOING ? "destination" : "source";
+
+    SearchResponse response = _graphReadDAO.getScrollResponse(
+        sourceType,
+        sourceEntityFilter,
+        destinationType,
+        destinationEntityFilter,
+        relationshipTypes,
+        relationshipFilter,
+        cursor == null ? null : ScrollCursorUtils.decode(cursor),
+        count
+    );
+
+    if (response == null) {
+      return new CursorListResult<>(ImmutableList.of(), null);
+    }
+
+    final SearchHit[] hits = response.getHits().getHits();
+    final String nextCursor =
+        count > 0 && hits.length == count ? ScrollCursorUtils.encode(hits[hits.length - 1].getSortValues()) : null;
+    return new CursorListResult<>(toRelatedEntities(response, destinationNode), nextCursor);
+  }
+
+  @Nonnull
+  private List<RelatedEntity> toRelatedEntities(@Nonnull SearchResponse response, @Nonnull String destinationNode) {
+    return Arrays.stream(response.getHits().getHits())
         .map(hit -> {
-          final String urnStr = ((HashMap<String, String>) hit.getSourceAsMap().getOrDefault(destinationNode, EMPTY_HASH)).getOrDefault("urn", null);
-          final String relationshipType = (String) hit.getSourceAsMap().get("relationshipType");
+          final String urnStr = (String) ESUtils.getDocValue(hit, destinationNode + ".urn");
+          final String relationshipType = (String) ESUtils.getDocValue(hit, ESGraphQueryDAO.RELATIONSHIP_TYPE);
 
           if (urnStr == null || relationshipType == null) {
             log.error(String.format(
@@ -153,8 +197,6 @@ public class ElasticSearchGraphService implements GraphService {
         })
         .filter(Objects::nonNull)
         .collect(Collectors.toList());
-
-    return new RelatedEntitiesResult(offset, relationships.size(), totalCount, relationships);
   }
 
   @Nonnull
@@ -1,6 +1,10 @@
 package com.linkedin.metadata.recommendation.candidatesource;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.query.filter.Criterion;
 import com.linkedin.metadata.query.filter.CriterionArray;
@@ -19,11 +23,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.tuple.Pair;
 
@@ -31,11 +37,37 @@ import org.apache.commons.lang3.tuple.Pair;
 /**
  * Base class for search aggregation based candidate source (e.g. top platform, top tags, top terms)
  * Aggregates entities based on field value in the entity search index and gets the value with the most documents
+ *
+ * When a refresh interval is provided, the aggregation result is materialized and refreshed in the background once the
+ * interval has elapsed, serving the previous result in the meantime.
  */
 @Slf4j
-@RequiredArgsConstructor
 public abstract class EntitySearchAggregationSource implements RecommendationSource {
+  public static final long DEFAULT_REFRESH_INTERVAL_SECONDS = 300;
+
+  // Shared by all sources, as refreshes are infrequent
+  private static final ExecutorService REFRESH_EXECUTOR = Executors.newSingleThreadExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("recommendation-aggregation-refresher-%d").build());
+
   private final EntitySearchService _entitySearchService;
+  // Field name -> aggregation result. Null if results are not materialized.
+  private final LoadingCache<String, Map<String, Long>> _aggregationCache;
+
+  public EntitySearchAggregationSource(EntitySearchService entitySearchService) {
+    this(entitySearchService, 0);
+  }
+
+  /**
+   * @param entitySearchService search service to aggregate with
+   * @param refreshIntervalSeconds how long a materialized aggregation result is served before being refreshed. If not
+   *                               positive, the aggregation is computed on every request
+   */
+  public EntitySearchAggregationSource(EntitySearchService entitySearchService, long refreshIntervalSeconds) {
+    _entitySearchService = entitySearchService;
+    _aggregationCache = refreshIntervalSeconds > 0 ? CacheBuilder.newBuilder()
+        .refreshAfterWrite(refreshIntervalSeconds, TimeUnit.SECONDS)
+        .build(CacheLoader.asyncReloading(CacheLoader.from(this::aggregate), REFRESH_EXECUTOR)) : null;
+  }
 
   /**
    * Field to aggregate on
@@ -81,8 +113,8 @@ public abstract class EntitySearchAggregationSource implements RecommendationSou
   @WithSpan
   public List<RecommendationContent> getRecommendations(@Nonnull Urn userUrn,
       @Nullable RecommendationRequestContext requestContext) {
-    Map<String, Long> aggregationResult =
-        _entitySearchService.aggregateByValue(null, getSearchFieldName(), null, getMaxContent());
+    Map<String, Long> aggregationResult = _aggregationCache == null ? aggregate(getSearchFieldName())
+        : _aggregationCache.getUnchecked(getSearchFieldName());
 
     if (aggregationResult.isEmpty()) {
       return Collections.emptyList();
@@ -116,6 +148,10 @@ public abstract class EntitySearchAggregationSource implements RecommendationSou
         .collect(Collectors.toList());
   }
 
+  private Map<String, Long> aggregate(String fieldName) {
+    return _entitySearchService.aggregateByValue(null, fieldName, null, getMaxContent());
+  }
+
   // Get top K entries with the most count
   private <T> List<Map.Entry<T, Long>> getTopKValues(Map<T, Long> countMap) {
     final PriorityQueue<Map.Entry<T, Long>> queue =
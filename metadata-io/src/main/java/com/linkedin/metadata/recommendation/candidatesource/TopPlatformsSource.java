@@ -28,7 +28,7 @@ public class TopPlatformsSource extends EntitySearchAggregationSource {
   private static final String PLATFORM = "platform";
 
   public TopPlatformsSource(EntityService entityService, EntitySearchService entitySearchService) {
-    super(entitySearchService);
+    super(entitySearchService, DEFAULT_REFRESH_INTERVAL_SECONDS);
     _entityService = entityService;
   }
 
@@ -15,7 +15,7 @@ public class TopTagsSource extends EntitySearchAggregationSource {
   private static final String TAGS = "tags";
 
   public TopTagsSource(EntitySearchService entitySearchService) {
-    super(entitySearchService);
+    super(entitySearchService, DEFAULT_REFRESH_INTERVAL_SECONDS);
   }
 
   @Override
@@ -15,7 +15,7 @@ public class TopTermsSource extends EntitySearchAggregationSource {
   private static final String TERMS = "glossaryTerms";
 
   public TopTermsSource(EntitySearchService entitySearchService) {
-    super(entitySearchService);
+    super(entitySearchService, DEFAULT_REFRESH_INTERVAL_SECONDS);
   }
 
   @Override
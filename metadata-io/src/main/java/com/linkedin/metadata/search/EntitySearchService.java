@@ -27,6 +27,15 @@ public interface EntitySearchService {
    */
   long docCount(@Nonnull String entityName);
 
+  /**
+   * Get the number of documents corresponding to each of the given entities, in as few round trips as possible
+   *
+   * @param entityNames names of the entities
+   * @return map from entity name to number of documents
+   */
+  @Nonnull
+  Map<String, Long> docCountPerEntity(@Nonnull List<String> entityNames);
+
 
   /**
    * Updates or inserts the given search document.
@@ -61,6 +70,22 @@ public interface EntitySearchService {
   SearchResult search(@Nonnull String entityName, @Nonnull String input, @Nullable Filter postFilters,
       @Nullable SortCriterion sortCriterion, int from, int size);
 
+  /**
+   * Gets the page of documents that match given search request and come after the given cursor. Results are sorted by
+   * the sort criterion (relevance if absent) and then by urn, so that paging is stable at any depth.
+   *
+   * @param entityName name of the entity
+   * @param input the search input text
+   * @param postFilters the request map with fields and values as filters to be applied to search hits
+   * @param sortCriterion {@link SortCriterion} to be applied to search results
+   * @param scrollId cursor returned with the previous page, null to fetch the first page
+   * @param size the number of search hits to return
+   * @return a {@link ScrollResult} that contains a list of matched documents and the cursor to the next page
+   */
+  @Nonnull
+  ScrollResult scroll(@Nonnull String entityName, @Nonnull String input, @Nullable Filter postFilters,
+      @Nullable SortCriterion sortCriterion, @Nullable String scrollId, int size);
+
   /**
    * Gets a list of documents after applying the input filters.
    *
@@ -91,6 +116,20 @@ public interface EntitySearchService {
   AutoCompleteResult autoComplete(@Nonnull String entityName, @Nonnull String query, @Nullable String field,
       @Nullable Filter requestParams, int limit);
 
+  /**
+   * Returns typeahead suggestions for several entities at once, matching the query against the prefixes of the
+   * autocomplete fields of each entity.
+   *
+   * @param entityNames names of the entities to get suggestions for
+   * @param query the type ahead query text
+   * @param requestParams filters to apply to the suggested entities
+   * @param limit the number of suggestions returned per entity
+   * @return map from entity name to its suggestions
+   */
+  @Nonnull
+  Map<String, AutoCompleteResult> autoCompleteAcrossEntities(@Nonnull List<String> entityNames, @Nonnull String query,
+      @Nullable Filter requestParams, int limit);
+
   /**
    * Returns number of documents per field value given the field and filters
    *
@@ -128,6 +167,14 @@ public interface EntitySearchService {
   @Nonnull
   List<String> getBrowsePaths(@Nonnull String entityName, @Nonnull Urn urn);
 
+  /**
+   * Drops the browse results cached for the given entity type, to be called when its browse paths changed.
+   *
+   * @param entityName type of entity whose browse paths changed
+   */
+  default void invalidateBrowseCache(@Nonnull String entityName) {
+  }
+
   /**
    * Max result size returned by the underlying search backend
    */
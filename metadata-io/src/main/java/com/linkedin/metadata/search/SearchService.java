@@ -1,16 +1,23 @@
 package com.linkedin.metadata.search;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.SearchFlags;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
+import com.linkedin.metadata.search.aggregator.AllEntitiesScrollAggregator;
 import com.linkedin.metadata.search.aggregator.AllEntitiesSearchAggregator;
 import com.linkedin.metadata.search.cache.AllEntitiesSearchAggregatorCache;
 import com.linkedin.metadata.search.cache.EntityDocCountCache;
 import com.linkedin.metadata.search.cache.EntitySearchServiceCache;
 import com.linkedin.metadata.search.ranker.SearchRanker;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
@@ -21,22 +28,41 @@ import org.springframework.cache.CacheManager;
 
 @Slf4j
 public class SearchService {
+  private static final int AUTOCOMPLETE_CACHE_SIZE = 1000;
+  private static final long AUTOCOMPLETE_CACHE_TTL_SECONDS = 30;
+
   private final EntitySearchService _entitySearchService;
   private final AllEntitiesSearchAggregator _aggregator;
+  private final AllEntitiesScrollAggregator _scrollAggregator;
   private final SearchRanker _searchRanker;
 
   private final EntityDocCountCache _entityDocCountCache;
   private final EntitySearchServiceCache _entitySearchServiceCache;
   private final AllEntitiesSearchAggregatorCache _allEntitiesSearchAggregatorCache;
+  // Recent typeahead prefixes, keyed by entities, query, filters and limit
+  private final Cache<List<Object>, Map<String, AutoCompleteResult>> _autoCompleteCache =
+      CacheBuilder.newBuilder()
+          .maximumSize(AUTOCOMPLETE_CACHE_SIZE)
+          .expireAfterWrite(AUTOCOMPLETE_CACHE_TTL_SECONDS, TimeUnit.SECONDS)
+          .build();
+  private final boolean _enableCache;
 
   public SearchService(EntityRegistry entityRegistry, EntitySearchService entitySearchService,
       SearchRanker searchRanker, CacheManager cacheManager, int batchSize, boolean enableCache) {
+    this(new EntityDocCountCache(entityRegistry, entitySearchService), entitySearchService, searchRanker, cacheManager,
+        batchSize, enableCache);
+  }
+
+  public SearchService(EntityDocCountCache entityDocCountCache, EntitySearchService entitySearchService,
+      SearchRanker searchRanker, CacheManager cacheManager, int batchSize, boolean enableCache) {
     _entitySearchService = entitySearchService;
     _searchRanker = searchRanker;
+    _enableCache = enableCache;
+    _entityDocCountCache = entityDocCountCache;
     _aggregator =
-        new AllEntitiesSearchAggregator(entityRegistry, entitySearchService, searchRanker, cacheManager, batchSize,
-            enableCache);
-    _entityDocCountCache = new EntityDocCountCache(entityRegistry, entitySearchService);
+        new AllEntitiesSearchAggregator(entitySearchService, searchRanker, _entityDocCountCache, cacheManager,
+            batchSize, enableCache);
+    _scrollAggregator = new AllEntitiesScrollAggregator(entitySearchService, _entityDocCountCache);
     _entitySearchServiceCache = new EntitySearchServiceCache(cacheManager, entitySearchService, batchSize, enableCache);
     _allEntitiesSearchAggregatorCache =
         new AllEntitiesSearchAggregatorCache(cacheManager, _aggregator, batchSize, enableCache);
@@ -98,4 +124,51 @@ public class SearchService {
     return _allEntitiesSearchAggregatorCache.getSearcher(entities, input, postFilters, sortCriterion, searchFlags)
         .getSearchResults(from, size);
   }
+
+  /**
+   * Gets the page of documents that match given search request across multiple entities and come after the given
+   * cursor. Unlike {@link #searchAcrossEntities}, pages are neither capped by the max result size nor more expensive
+   * the deeper they are, which makes this suitable to walk through all results. Results are ordered by relevance and
+   * then by urn, and do not include aggregations.
+   *
+   * @param entities list of entities to search (If empty, searches across all entities)
+   * @param input the search input text
+   * @param postFilters the request map with fields and values as filters to be applied to search hits
+   * @param scrollId cursor returned with the previous page, null to fetch the first page
+   * @param size the number of search hits to return
+   * @return a {@link ScrollResult} that contains a list of matched documents and the cursor to the next page
+   */
+  @Nonnull
+  public ScrollResult scrollAcrossEntities(@Nonnull List<String> entities, @Nonnull String input,
+      @Nullable Filter postFilters, @Nullable String scrollId, int size) {
+    log.debug(String.format(
+        "Scrolling Search documents entities: %s, input: %s, postFilters: %s, scrollId: %s, size: %s", entities,
+        input, postFilters, scrollId, size));
+    return _scrollAggregator.scroll(entities, input, postFilters, scrollId, size);
+  }
+
+  /**
+   * Returns typeahead suggestions for several entities with a single request to the search backend. Suggestions for
+   * recently typed prefixes are served from an in-memory LRU cache when caching is enabled.
+   *
+   * @param entities list of entities to get suggestions for (If empty, uses all non empty entities)
+   * @param query the type ahead query text
+   * @param requestParams filters to apply to the suggested entities
+   * @param limit the number of suggestions returned per entity
+   * @return map from entity name to its suggestions
+   */
+  @Nonnull
+  public Map<String, AutoCompleteResult> autoCompleteAcrossEntities(@Nonnull List<String> entities,
+      @Nonnull String query, @Nullable Filter requestParams, int limit) {
+    final List<String> entitiesToQuery = entities.isEmpty() ? _entityDocCountCache.getNonEmptyEntities() : entities;
+    if (!_enableCache) {
+      return _entitySearchService.autoCompleteAcrossEntities(entitiesToQuery, query, requestParams, limit);
+    }
+    try {
+      return _autoCompleteCache.get(Arrays.asList(entitiesToQuery, query, requestParams, limit),
+          () -> _entitySearchService.autoCompleteAcrossEntities(entitiesToQuery, query, requestParams, limit));
+    } catch (ExecutionException e) {
+      throw new RuntimeException("Failed to autocomplete " + query, e.getCause());
+    }
+  }
 }
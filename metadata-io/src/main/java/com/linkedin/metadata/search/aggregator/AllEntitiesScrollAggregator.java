@@ -0,0 +1,132 @@
+package com.linkedin.metadata.search.aggregator;
+
+import com.codahale.metrics.Timer;
+import com.linkedin.metadata.query.filter.Filter;
+import com.linkedin.metadata.search.AggregationMetadataArray;
+import com.linkedin.metadata.search.EntitySearchService;
+import com.linkedin.metadata.search.ScrollResult;
+import com.linkedin.metadata.search.SearchEntity;
+import com.linkedin.metadata.search.SearchEntityArray;
+import com.linkedin.metadata.search.SearchResultMetadata;
+import com.linkedin.metadata.search.cache.EntityDocCountCache;
+import com.linkedin.metadata.search.utils.ScrollCursorUtils;
+import com.linkedin.metadata.utils.ConcurrencyUtils;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
+import com.linkedin.util.Pair;
+import io.opentelemetry.extension.annotations.WithSpan;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import lombok.RequiredArgsConstructor;
+
+
+/**
+ * Cursor based search across entities.
+ *
+ * Every entity index is scrolled independently, ordered by score and then urn. A page is built by merging the next
+ * hits of every index by that same order, and the returned cursor records, for each entity, the last hit that made it
+ * into a page. Hits that were fetched but not returned are fetched again with the next page, so the cost of a page only
+ * depends on its size and on the number of entities, never on its depth.
+ */
+@RequiredArgsConstructor
+public class AllEntitiesScrollAggregator {
+  private static final Comparator<SearchEntity> SCORE_THEN_URN =
+      Comparator.<SearchEntity, Double>comparing(AllEntitiesScrollAggregator::getScore).reversed()
+          .thenComparing(entity -> entity.getEntity().toString());
+
+  private final EntitySearchService _entitySearchService;
+  private final EntityDocCountCache _entityDocCountCache;
+
+  /**
+   * Gets the page of documents across the given entities that comes after the given cursor.
+   *
+   * @param entities list of entities to search (If empty, searches across all entities)
+   * @param input the search input text
+   * @param postFilters the request map with fields and values as filters to be applied to search hits
+   * @param scrollId cursor returned with the previous page, null to fetch the first page
+   * @param size the number of search hits to return
+   * @return a {@link ScrollResult} with the next page, where numEntities only counts entities with remaining results
+   */
+  @Nonnull
+  @WithSpan
+  public ScrollResult scroll(@Nonnull List<String> entities, @Nonnull String input, @Nullable Filter postFilters,
+      @Nullable String scrollId, int size) {
+    final Map<String, String> cursors =
+        scrollId == null ? new HashMap<>() : new HashMap<>(ScrollCursorUtils.decodeComposite(scrollId));
+
+    // 1. Get entities to query for, skipping empty entities and entities already scrolled through
+    List<String> lowercaseEntities = entities.stream().map(String::toLowerCase).collect(Collectors.toList());
+    List<String> entitiesToQuery = _entityDocCountCache.getNonEmptyEntities()
+        .stream()
+        .filter(entity -> entities.isEmpty() || lowercaseEntities.contains(entity))
+        .filter(entity -> !ScrollCursorUtils.EXHAUSTED.equals(cursors.get(entity)))
+        .collect(Collectors.toList());
+
+    // 2. Get the next page of each entity
+    final Map<String, ScrollResult> pages;
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "scrollEntities").time()) {
+      pages = ConcurrencyUtils.transformAndCollectAsync(entitiesToQuery, entity -> new Pair<>(entity,
+          _entitySearchService.scroll(entity, input, postFilters, null, cursors.get(entity), size)))
+          .stream()
+          .collect(Collectors.toMap(Pair::getKey, Pair::getValue));
+    }
+
+    // 3. Merge the pages by score
+    final List<SearchEntity> merged = new ArrayList<>(size);
+    final Map<String, Integer> consumed = new HashMap<>();
+    final Comparator<Pair<String, Integer>> headOrder =
+        Comparator.comparing(head -> pages.get(head.getKey()).getEntities().get(head.getValue()), SCORE_THEN_URN);
+    final PriorityQueue<Pair<String, Integer>> heads = new PriorityQueue<>(Math.max(1, pages.size()), headOrder);
+    pages.forEach((entity, page) -> {
+      consumed.put(entity, 0);
+      if (!page.getEntities().isEmpty()) {
+        heads.add(new Pair<>(entity, 0));
+      }
+    });
+    while (merged.size() < size && !heads.isEmpty()) {
+      Pair<String, Integer> head = heads.poll();
+      List<SearchEntity> pageEntities = pages.get(head.getKey()).getEntities();
+      merged.add(pageEntities.get(head.getValue()));
+      consumed.put(head.getKey(), head.getValue() + 1);
+      if (head.getValue() + 1 < pageEntities.size()) {
+        heads.add(new Pair<>(head.getKey(), head.getValue() + 1));
+      }
+    }
+
+    // 4. Advance the cursor of each entity past the hits that were returned
+    int numEntities = 0;
+    for (Map.Entry<String, ScrollResult> entry : pages.entrySet()) {
+      ScrollResult page = entry.getValue();
+      int consumedCount = consumed.get(entry.getKey());
+      numEntities += page.getNumEntities();
+      if (consumedCount == page.getEntities().size() && !page.hasScrollId()) {
+        cursors.put(entry.getKey(), ScrollCursorUtils.EXHAUSTED);
+      } else if (consumedCount > 0) {
+        SearchEntity last = page.getEntities().get(consumedCount - 1);
+        cursors.put(entry.getKey(),
+            ScrollCursorUtils.encode(new Object[]{getScore(last), last.getEntity().toString()}));
+      }
+    }
+    boolean hasMore =
+        entitiesToQuery.stream().anyMatch(entity -> !ScrollCursorUtils.EXHAUSTED.equals(cursors.get(entity)));
+
+    ScrollResult result = new ScrollResult().setEntities(new SearchEntityArray(merged))
+        .setMetadata(new SearchResultMetadata().setAggregations(new AggregationMetadataArray()))
+        .setPageSize(size)
+        .setNumEntities(numEntities);
+    if (hasMore) {
+      result.setScrollId(ScrollCursorUtils.encodeComposite(cursors));
+    }
+    return result;
+  }
+
+  private static Double getScore(@Nonnull SearchEntity entity) {
+    return entity.hasScore() ? entity.getScore() : 0.0;
+  }
+}
@@ -2,7 +2,6 @@ package com.linkedin.metadata.search.aggregator;
 
 import com.codahale.metrics.Timer;
 import com.linkedin.data.template.LongMap;
-import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.query.SearchFlags;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
@@ -44,11 +43,11 @@ public class AllEntitiesSearchAggregator {
 
   private final EntitySearchServiceCache _entitySearchServiceCache;
 
-  public AllEntitiesSearchAggregator(EntityRegistry entityRegistry, EntitySearchService entitySearchService,
-      SearchRanker searchRanker, CacheManager cacheManager, int batchSize, boolean enableCache) {
+  public AllEntitiesSearchAggregator(EntitySearchService entitySearchService, SearchRanker searchRanker,
+      EntityDocCountCache entityDocCountCache, CacheManager cacheManager, int batchSize, boolean enableCache) {
     _entitySearchService = entitySearchService;
     _searchRanker = searchRanker;
-    _entityDocCountCache = new EntityDocCountCache(entityRegistry, entitySearchService);
+    _entityDocCountCache = entityDocCountCache;
     _entitySearchServiceCache = new EntitySearchServiceCache(cacheManager, entitySearchService, batchSize, enableCache);
   }
 
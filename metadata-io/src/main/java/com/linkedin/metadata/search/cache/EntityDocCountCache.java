@@ -1,38 +1,100 @@
 package com.linkedin.metadata.search.cache;
 
-import com.google.common.base.Suppliers;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.search.EntitySearchService;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
 import io.opentelemetry.extension.annotations.WithSpan;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.function.Function;
-import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
 
 
+/**
+ * Snapshot of the number of documents per entity type.
+ *
+ * The snapshot is refreshed in the background using a single multi-count request, so that readers are always served
+ * the latest snapshot (however stale) and never wait on count queries, except for the very first read. In between
+ * refreshes, counts can be nudged using {@link #applyDelta(String, long)}, e.g. as entities get created or deleted.
+ *
+ * Background refreshes only start once counts are first read, so that processes which never serve searches do not
+ * count entities.
+ */
+@Slf4j
 public class EntityDocCountCache {
+  public static final long DEFAULT_REFRESH_INTERVAL_SECONDS = 60;
+
   private final EntityRegistry _entityRegistry;
   private final EntitySearchService _entitySearchService;
-  private final Supplier<Map<String, Long>> entityDocCount;
+  private final ScheduledExecutorService _refreshExecutorService = Executors.newScheduledThreadPool(1,
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("entity-doc-count-refresher-%d").build());
+  private final long _refreshIntervalSeconds;
+  private volatile Map<String, Long> _entityDocCount;
 
   public EntityDocCountCache(EntityRegistry entityRegistry, EntitySearchService entitySearchService) {
+    this(entityRegistry, entitySearchService, DEFAULT_REFRESH_INTERVAL_SECONDS);
+  }
+
+  public EntityDocCountCache(EntityRegistry entityRegistry, EntitySearchService entitySearchService,
+      long refreshIntervalSeconds) {
     _entityRegistry = entityRegistry;
     _entitySearchService = entitySearchService;
-    entityDocCount = Suppliers.memoizeWithExpiration(this::fetchEntityDocCount, 1, TimeUnit.MINUTES);
+    _refreshIntervalSeconds = refreshIntervalSeconds;
+    registerGauges();
   }
 
   private Map<String, Long> fetchEntityDocCount() {
-    return _entityRegistry.getEntitySpecs()
-        .keySet()
-        .stream()
-        .collect(Collectors.toMap(Function.identity(), _entitySearchService::docCount));
+    final List<String> entityNames = new ArrayList<>(_entityRegistry.getEntitySpecs().keySet());
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "fetchEntityDocCount").time()) {
+      return new ConcurrentHashMap<>(_entitySearchService.docCountPerEntity(entityNames));
+    }
+  }
+
+  /**
+   * Replaces the current snapshot with fresh counts. On failure, the previous snapshot keeps being served.
+   */
+  @VisibleForTesting
+  void refresh() {
+    try {
+      _entityDocCount = fetchEntityDocCount();
+    } catch (Exception e) {
+      MetricUtils.counter(this.getClass(), "refresh_failure").inc();
+      log.error("Failed to refresh entity doc counts. Serving previous snapshot", e);
+    }
+  }
+
+  @Nonnull
+  private Map<String, Long> getSnapshot() {
+    Map<String, Long> snapshot = _entityDocCount;
+    if (snapshot == null) {
+      // Only the very first read waits for counts, before the first background refresh has run
+      synchronized (this) {
+        if (_entityDocCount == null) {
+          _entityDocCount = fetchEntityDocCount();
+          _refreshExecutorService.scheduleWithFixedDelay(this::refresh, _refreshIntervalSeconds,
+              _refreshIntervalSeconds, TimeUnit.SECONDS);
+        }
+        snapshot = _entityDocCount;
+      }
+    }
+    return snapshot;
   }
 
   @WithSpan
   public Map<String, Long> getEntityDocCount() {
-    return entityDocCount.get();
+    return Collections.unmodifiableMap(getSnapshot());
   }
 
   public List<String> getNonEmptyEntities() {
@@ -42,4 +104,36 @@ public class EntityDocCountCache {
         .map(Map.Entry::getKey)
         .collect(Collectors.toList());
   }
+
+  /**
+   * Adjusts the count of an entity in the current snapshot until the next refresh. No-op if there is no snapshot yet.
+   *
+   * @param entityName name of the entity
+   * @param delta number of documents added (positive) or removed (negative)
+   */
+  public void applyDelta(@Nonnull String entityName, long delta) {
+    final Map<String, Long> snapshot = _entityDocCount;
+    if (snapshot != null) {
+      snapshot.compute(entityName.toLowerCase(), (name, current) -> Math.max(0L, (current == null ? 0L : current) + delta));
+    }
+  }
+
+  /**
+   * Exposes the count of every entity type as a gauge. The most recently created cache backs the gauges.
+   */
+  private void registerGauges() {
+    for (String entityName : _entityRegistry.getEntitySpecs().keySet()) {
+      final String gaugeName = MetricRegistry.name(this.getClass(), "docCount", entityName);
+      final Gauge<Long> gauge = () -> {
+        final Map<String, Long> snapshot = _entityDocCount;
+        return snapshot == null ? null : snapshot.get(entityName);
+      };
+      MetricUtils.get().remove(gaugeName);
+      try {
+        MetricUtils.get().register(gaugeName, gauge);
+      } catch (IllegalArgumentException e) {
+        log.debug("Gauge {} was concurrently registered by another cache", gaugeName);
+      }
+    }
+  }
 }
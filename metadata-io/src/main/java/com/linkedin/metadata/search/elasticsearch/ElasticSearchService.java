@@ -6,6 +6,7 @@ import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
 import com.linkedin.metadata.search.EntitySearchService;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.elasticsearch.indexbuilder.EntityIndexBuilders;
 import com.linkedin.metadata.search.elasticsearch.query.ESBrowseDAO;
@@ -44,6 +45,12 @@ public class ElasticSearchService implements EntitySearchService {
     return esSearchDAO.docCount(entityName);
   }
 
+  @Nonnull
+  @Override
+  public Map<String, Long> docCountPerEntity(@Nonnull List<String> entityNames) {
+    return esSearchDAO.docCountPerEntity(entityNames);
+  }
+
   @Override
   public void upsertDocument(@Nonnull String entityName, @Nonnull String document, @Nonnull String docId) {
     log.debug(String.format("Upserting Search document entityName: %s, document: %s, docId: %s", entityName, document,
@@ -67,6 +74,16 @@ public class ElasticSearchService implements EntitySearchService {
     return esSearchDAO.search(entityName, input, postFilters, sortCriterion, from, size);
   }
 
+  @Nonnull
+  @Override
+  public ScrollResult scroll(@Nonnull String entityName, @Nonnull String input, @Nullable Filter postFilters,
+      @Nullable SortCriterion sortCriterion, @Nullable String scrollId, int size) {
+    log.debug(String.format(
+        "Scrolling Search documents entityName: %s, input: %s, postFilters: %s, sortCriterion: %s, scrollId: %s, size: %s",
+        entityName, input, postFilters, sortCriterion, scrollId, size));
+    return esSearchDAO.scroll(entityName, input, postFilters, sortCriterion, scrollId, size);
+  }
+
   @Nonnull
   @Override
   public SearchResult filter(@Nonnull String entityName, @Nullable Filter filters,
@@ -86,6 +103,15 @@ public class ElasticSearchService implements EntitySearchService {
     return esSearchDAO.autoComplete(entityName, query, field, requestParams, limit);
   }
 
+  @Nonnull
+  @Override
+  public Map<String, AutoCompleteResult> autoCompleteAcrossEntities(@Nonnull List<String> entityNames,
+      @Nonnull String query, @Nullable Filter requestParams, int limit) {
+    log.debug("Autocompleting query across entities: {}, query: {}, requestParams: {}, limit: {}", entityNames, query,
+        requestParams, limit);
+    return esSearchDAO.autoCompleteAcrossEntities(entityNames, query, requestParams, limit);
+  }
+
   @Nonnull
   @Override
   public Map<String, Long> aggregateByValue(@Nullable String entityName, @Nonnull String field,
@@ -112,6 +138,11 @@ public class ElasticSearchService implements EntitySearchService {
     return esBrowseDAO.getBrowsePaths(entityName, urn);
   }
 
+  @Override
+  public void invalidateBrowseCache(@Nonnull String entityName) {
+    esBrowseDAO.invalidateBrowseGroups(entityName);
+  }
+
   @Override
   public int maxResultSize() {
     return ESUtils.MAX_RESULT_SIZE;
@@ -1,25 +1,48 @@
 package com.linkedin.metadata.search.elasticsearch.indexbuilder;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.MapDifference;
 import com.google.common.collect.Maps;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.elasticsearch.action.admin.cluster.node.tasks.list.ListTasksRequest;
-import org.elasticsearch.action.admin.cluster.node.tasks.list.ListTasksResponse;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.DocWriteRequest;
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest;
 import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
 import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
 import org.elasticsearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
 import org.elasticsearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.elasticsearch.action.admin.indices.settings.get.GetSettingsResponse;
+import org.elasticsearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.get.MultiGetItemResponse;
+import org.elasticsearch.action.get.MultiGetRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
 import org.elasticsearch.client.GetAliasesResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
@@ -28,25 +51,75 @@ import org.elasticsearch.client.indices.CreateIndexRequest;
 import org.elasticsearch.client.indices.GetIndexRequest;
 import org.elasticsearch.client.indices.GetMappingsRequest;
 import org.elasticsearch.client.indices.PutMappingRequest;
+import org.elasticsearch.client.tasks.CancelTasksRequest;
+import org.elasticsearch.client.tasks.GetTaskRequest;
+import org.elasticsearch.client.tasks.GetTaskResponse;
+import org.elasticsearch.client.tasks.TaskId;
 import org.elasticsearch.client.tasks.TaskSubmissionResponse;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.AbstractBulkByScrollRequest;
 import org.elasticsearch.index.reindex.ReindexRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 
 @Slf4j
-@RequiredArgsConstructor
 public class ESIndexBuilder {
+  // How often writers look up the index to also send updates to during a reindex
+  public static final long REINDEX_TARGET_REFRESH_SECONDS = 10;
+  public static final int DEFAULT_REINDEX_SLICES = 0;
+  public static final float DEFAULT_REINDEX_REQUESTS_PER_SECOND = -1;
+  public static final long DEFAULT_REINDEX_STALL_TIMEOUT_MINUTES = 30;
+
+  private static final String REINDEX_TARGET_ALIAS_SUFFIX = ".reindex_target";
+  private static final String REINDEX_JOURNAL_ALIAS_SUFFIX = ".reindex_journal";
+  private static final String REINDEX_JOURNAL_INDEX_SUFFIX = "_journal";
+  private static final String WRITE_BLOCK_SETTING = "index.blocks.write";
+  private static final long REINDEX_POLL_INTERVAL_SECONDS = 5;
+  private static final int REPLAY_BATCH_SIZE = 1000;
+  private static final int REPLAY_MAX_ATTEMPTS = 5;
+  private static final TimeValue REPLAY_SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(5);
+  private static final List<String> PROGRESS_METRICS = ImmutableList.of("percentComplete", "docsPerSecond", "etaSeconds");
 
   private final RestHighLevelClient searchClient;
   private final int numShards;
   private final int numReplicas;
   private final int numRetries;
+  // Number of slices to parallelize the reindex with. 0 lets Elasticsearch pick one slice per shard
+  private final int reindexSlices;
+  // Throttling of the reindex, in documents per second. Not throttled if not positive
+  private final float reindexRequestsPerSecond;
+  // A reindex that does not copy any document for that long is aborted
+  private final long reindexStallTimeoutMinutes;
+  private final Map<String, double[]> reindexProgress = new ConcurrentHashMap<>();
 
   private static final List<String> SETTINGS_TO_COMPARE = ImmutableList.of("number_of_shards", "number_of_replicas");
 
+  public ESIndexBuilder(RestHighLevelClient searchClient, int numShards, int numReplicas, int numRetries) {
+    this(searchClient, numShards, numReplicas, numRetries, DEFAULT_REINDEX_SLICES, DEFAULT_REINDEX_REQUESTS_PER_SECOND,
+        DEFAULT_REINDEX_STALL_TIMEOUT_MINUTES);
+  }
+
+  public ESIndexBuilder(RestHighLevelClient searchClient, int numShards, int numReplicas, int numRetries,
+      int reindexSlices, float reindexRequestsPerSecond, long reindexStallTimeoutMinutes) {
+    this.searchClient = searchClient;
+    this.numShards = numShards;
+    this.numReplicas = numReplicas;
+    this.numRetries = numRetries;
+    this.reindexSlices = reindexSlices;
+    this.reindexRequestsPerSecond = reindexRequestsPerSecond;
+    this.reindexStallTimeoutMinutes = reindexStallTimeoutMinutes;
+  }
+
   public void buildIndex(String indexName, Map<String, Object> mappings, Map<String, Object> settings)
       throws IOException {
+    deleteAbandonedIndices(indexName);
+
     // Check if index exists
     boolean exists = searchClient.indices().exists(new GetIndexRequest(indexName), RequestOptions.DEFAULT);
 
@@ -103,91 +176,381 @@ public class ESIndexBuilder {
     }
 
     String tempIndexName = indexName + "_" + System.currentTimeMillis();
+    String journalIndexName = tempIndexName + REINDEX_JOURNAL_INDEX_SUFFIX;
     createIndex(tempIndexName, mappings, finalSettings);
+    // Journal documents are empty, only their ids matter
+    createIndex(journalIndexName, ImmutableMap.<String, Object>of("dynamic", false),
+        ImmutableMap.<String, Object>of("index",
+            ImmutableMap.of("number_of_shards", 1, "number_of_replicas", numReplicas)));
     try {
-      TaskSubmissionResponse reindexTask;
-      reindexTask =
-          searchClient.submitReindexTask(new ReindexRequest().setSourceIndices(indexName).setDestIndex(tempIndexName),
+      // Have writers send updates to the new index as well while it is being populated, and journal the documents
+      // they touch, so that none are lost
+      setReindexTarget(indexName, tempIndexName, journalIndexName);
+      reindex(indexName, tempIndexName);
+      replayJournal(indexName, tempIndexName, journalIndexName);
+      waitForCatchUp(indexName, tempIndexName);
+    } catch (Exception e) {
+      log.info("Failed to reindex {} to {}: Exception {}", indexName, tempIndexName, e.toString());
+      dropReindexTarget(indexName, tempIndexName, journalIndexName);
+      throw e;
+    } finally {
+      removeProgressGauges(indexName);
+    }
+
+    log.info("Reindex from {} to {} succeeded", indexName, tempIndexName);
+    switchAlias(indexName, tempIndexName);
+    log.info("Finished setting up {}", indexName);
+  }
+
+  /**
+   * Name of the alias pointing to the index that writers should also send updates to while the given index is being
+   * reindexed.
+   */
+  @Nonnull
+  public static String getReindexTargetAlias(@Nonnull String indexName) {
+    return indexName + REINDEX_TARGET_ALIAS_SUFFIX;
+  }
+
+  /**
+   * Name of the alias pointing to the index where writers record the ids of the documents they update or delete while
+   * the given index is being reindexed.
+   */
+  @Nonnull
+  public static String getReindexJournalAlias(@Nonnull String indexName) {
+    return indexName + REINDEX_JOURNAL_ALIAS_SUFFIX;
+  }
+
+  private void setReindexTarget(@Nonnull String indexName, @Nonnull String tempIndexName,
+      @Nonnull String journalIndexName) throws IOException {
+    searchClient.indices()
+        .updateAliases(new IndicesAliasesRequest().addAliasAction(
+            AliasActions.add().alias(getReindexTargetAlias(indexName)).index(tempIndexName))
+            .addAliasAction(AliasActions.add().alias(getReindexJournalAlias(indexName)).index(journalIndexName)),
+            RequestOptions.DEFAULT);
+    // Writers of other processes look the target up at most this long ago (see ReindexWriteRouter), and have to know
+    // about it before the source index is snapshotted by the reindex. There is nothing in the cluster to wait on
+    sleep(TimeUnit.SECONDS.toMillis(REINDEX_TARGET_REFRESH_SECONDS));
+  }
+
+  /**
+   * Stops writers from sending updates to the new index and its journal, and blocks writes to both. A writer that has
+   * not noticed yet gets its write rejected, where a write to a deleted index would create it again. Both indices are
+   * deleted by the next build of the index, see {@link #deleteAbandonedIndices}.
+   */
+  private void dropReindexTarget(@Nonnull String indexName, @Nonnull String tempIndexName,
+      @Nonnull String journalIndexName) throws IOException {
+    removeAlias(getReindexTargetAlias(indexName), tempIndexName);
+    closeJournal(indexName, journalIndexName);
+    blockWrites(tempIndexName);
+  }
+
+  /**
+   * Stops writers from journaling the documents they write, and blocks writes to the journal so that it can be read
+   * in full. A writer that has not noticed yet fails to journal its write, which is then no longer needed since every
+   * document has been copied already.
+   */
+  private void closeJournal(@Nonnull String indexName, @Nonnull String journalIndexName) throws IOException {
+    removeAlias(getReindexJournalAlias(indexName), journalIndexName);
+    searchClient.indices().refresh(new RefreshRequest(journalIndexName), RequestOptions.DEFAULT);
+    blockWrites(journalIndexName);
+  }
+
+  private void removeAlias(@Nonnull String alias, @Nonnull String index) throws IOException {
+    if (searchClient.indices().existsAlias(new GetAliasesRequest(alias).indices(index), RequestOptions.DEFAULT)) {
+      searchClient.indices()
+          .updateAliases(new IndicesAliasesRequest().addAliasAction(AliasActions.remove().alias(alias).index(index)),
               RequestOptions.DEFAULT);
+    }
+  }
 
-      // wait up to 5 minutes for the task to complete
-      long startTime = System.currentTimeMillis();
-      long millisToWait60Minutes = 1000 * 60 * 60;
-      Boolean reindexTaskCompleted = false;
-
-      while ((System.currentTimeMillis() - startTime) < millisToWait60Minutes) {
-        log.info("Reindexing from {} to {} in progress...", indexName, tempIndexName);
-        ListTasksRequest request = new ListTasksRequest();
-        ListTasksResponse tasks = searchClient.tasks().list(request, RequestOptions.DEFAULT);
-        if (tasks.getTasks().stream().noneMatch(task -> task.getTaskId().toString().equals(reindexTask.getTask()))) {
-          log.info("Reindexing {} to {} task has completed, will now check if reindex was successful", indexName,
-              tempIndexName);
-          reindexTaskCompleted = true;
-          break;
-        }
-        try {
-          Thread.sleep(5000);
-        } catch (InterruptedException e) {
-          log.info("Trouble sleeping while reindexing {} to {}: Exception {}. Retrying...", indexName, tempIndexName,
-              e.toString());
+  private void blockWrites(@Nonnull String index) throws IOException {
+    searchClient.indices()
+        .putSettings(new UpdateSettingsRequest(index).settings(Settings.builder().put(WRITE_BLOCK_SETTING, true)),
+            RequestOptions.DEFAULT);
+  }
+
+  /**
+   * Deletes the indices left behind by previous reindexes of the given index: the new indices of failed reindexes, and
+   * journals. They had their writes blocked when abandoned.
+   */
+  private void deleteAbandonedIndices(@Nonnull String indexName) {
+    final Pattern reindexPattern =
+        Pattern.compile(Pattern.quote(indexName) + "_\\d+(" + Pattern.quote(REINDEX_JOURNAL_INDEX_SUFFIX) + ")?");
+    try {
+      final GetSettingsResponse response = searchClient.indices()
+          .getSettings(new GetSettingsRequest().indices(indexName + "_*").names(WRITE_BLOCK_SETTING),
+              RequestOptions.DEFAULT);
+      final List<String> abandoned = new ArrayList<>();
+      for (Iterator<String> it = response.getIndexToSettings().keysIt(); it.hasNext();) {
+        final String index = it.next();
+        if (reindexPattern.matcher(index).matches() && "true".equals(
+            response.getSetting(index, WRITE_BLOCK_SETTING))) {
+          abandoned.add(index);
         }
       }
-      if (!reindexTaskCompleted) {
+      if (!abandoned.isEmpty()) {
+        log.info("Deleting indices {} left behind by previous reindexes of {}", abandoned, indexName);
+        searchClient.indices()
+            .delete(new DeleteIndexRequest().indices(abandoned.toArray(new String[0])), RequestOptions.DEFAULT);
+      }
+    } catch (IOException e) {
+      // They are deleted on the next attempt
+      log.warn("Failed to delete the indices left behind by previous reindexes of {}: {}", indexName, e.toString());
+    }
+  }
+
+  private void reindex(@Nonnull String indexName, @Nonnull String tempIndexName) throws IOException {
+    // Documents written to the new index by writers during the reindex are newer than the source snapshot: keep them
+    ReindexRequest reindexRequest = new ReindexRequest().setSourceIndices(indexName)
+        .setDestIndex(tempIndexName)
+        .setDestOpType("create")
+        .setAbortOnVersionConflict(false)
+        .setSlices(reindexSlices > 0 ? reindexSlices : AbstractBulkByScrollRequest.AUTO_SLICES)
+        .setRequestsPerSecond(reindexRequestsPerSecond > 0 ? reindexRequestsPerSecond : Float.POSITIVE_INFINITY);
+    TaskSubmissionResponse reindexTask = searchClient.submitReindexTask(reindexRequest, RequestOptions.DEFAULT);
+    TaskId taskId = new TaskId(reindexTask.getTask());
+
+    long sourceCount = getCount(indexName);
+    long startTime = System.currentTimeMillis();
+    long lastProgressTime = startTime;
+    long lastCount = 0;
+    while (true) {
+      Optional<GetTaskResponse> task = waitForTask(taskId, REINDEX_POLL_INTERVAL_SECONDS);
+      if (!task.isPresent() || task.get().isCompleted()) {
+        log.info("Reindexing {} to {} task has completed, will now check if reindex was successful", indexName,
+            tempIndexName);
+        return;
+      }
+
+      long now = System.currentTimeMillis();
+      long count = getCount(tempIndexName);
+      reportProgress(indexName, tempIndexName, sourceCount, count, now - startTime);
+      if (count > lastCount) {
+        lastCount = count;
+        lastProgressTime = now;
+      } else if (now - lastProgressTime > TimeUnit.MINUTES.toMillis(reindexStallTimeoutMinutes)) {
+        searchClient.tasks()
+            .cancel(new CancelTasksRequest.Builder().withTaskId(taskId).build(), RequestOptions.DEFAULT);
         throw new RuntimeException(
-            String.format("Reindex from %s to %s failed-- task exceeded 60 minute limit", indexName, tempIndexName));
+            String.format("Reindex from %s to %s failed-- no progress for %d minutes", indexName, tempIndexName,
+                reindexStallTimeoutMinutes));
       }
-    } catch (Exception e) {
-      log.info("Failed to reindex {} to {}: Exception {}", indexName, tempIndexName, e.toString());
-      searchClient.indices().delete(new DeleteIndexRequest().indices(tempIndexName), RequestOptions.DEFAULT);
-      throw e;
     }
+  }
+
+  /**
+   * Waits for the given task to complete, for up to the given time, through the tasks API.
+   */
+  private Optional<GetTaskResponse> waitForTask(@Nonnull TaskId taskId, long timeoutSeconds) throws IOException {
+    final GetTaskRequest request = new GetTaskRequest(taskId.getNodeId(), taskId.getId());
+    request.setWaitForCompletion(true);
+    request.setTimeout(TimeValue.timeValueSeconds(timeoutSeconds));
+    try {
+      return searchClient.tasks().get(request, RequestOptions.DEFAULT);
+    } catch (ElasticsearchStatusException e) {
+      // Timed out waiting: the task is still running, which is told by getting it without waiting
+      log.debug("Task {} did not complete within {}s: {}", taskId, timeoutSeconds, e.getMessage());
+      return searchClient.tasks()
+          .get(new GetTaskRequest(taskId.getNodeId(), taskId.getId()), RequestOptions.DEFAULT);
+    }
+  }
+
+  /**
+   * Copies again from the original index the documents that writers updated or deleted while the reindex ran. The
+   * reindex does not overwrite documents already in the new index, so a document partially updated by a writer before
+   * being copied would stay partial, and a document deleted before being copied would be brought back. Each of them is
+   * overwritten with its current version in the original index, or deleted if it no longer exists there.
+   *
+   * <p>Writers journal a document before sending its write, so every write that reached the new index before the
+   * reindex completed is in the journal by the time it is closed. Writes made after the reindex completed apply to
+   * complete documents, and are sent to both indices, so they do not need replaying.
+   */
+  private void replayJournal(@Nonnull String indexName, @Nonnull String tempIndexName,
+      @Nonnull String journalIndexName) throws IOException {
+    closeJournal(indexName, journalIndexName);
+    SearchResponse response = searchClient.search(new SearchRequest(journalIndexName).scroll(REPLAY_SCROLL_KEEP_ALIVE)
+        .source(new SearchSourceBuilder().size(REPLAY_BATCH_SIZE).fetchSource(false).sort("_doc")),
+        RequestOptions.DEFAULT);
+    long replayed = 0;
+    try {
+      while (response.getHits().getHits().length > 0) {
+        final List<String> ids = Arrays.stream(response.getHits().getHits())
+            .map(SearchHit::getId)
+            .collect(Collectors.toList());
+        replayDocuments(indexName, tempIndexName, ids);
+        replayed += ids.size();
+        response = searchClient.scroll(
+            new SearchScrollRequest(response.getScrollId()).scroll(REPLAY_SCROLL_KEEP_ALIVE), RequestOptions.DEFAULT);
+      }
+    } finally {
+      final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+      clearScrollRequest.addScrollId(response.getScrollId());
+      searchClient.clearScroll(clearScrollRequest, RequestOptions.DEFAULT);
+    }
+    log.info("Replayed {} documents written to {} during the reindex to {}", replayed, indexName, tempIndexName);
+  }
+
+  /**
+   * Overwrites the given documents of the new index with their current version in the original index. A document
+   * concurrently written to the new index is read and replayed again, so that the replay never overrides a newer
+   * write.
+   */
+  private void replayDocuments(@Nonnull String indexName, @Nonnull String tempIndexName, @Nonnull List<String> ids)
+      throws IOException {
+    List<String> pendingIds = ids;
+    for (int attempt = 0; attempt < REPLAY_MAX_ATTEMPTS && !pendingIds.isEmpty(); attempt++) {
+      final MultiGetRequest targetRequest = new MultiGetRequest().realtime(true);
+      final MultiGetRequest sourceRequest = new MultiGetRequest().realtime(true);
+      for (String id : pendingIds) {
+        targetRequest.add(new MultiGetRequest.Item(tempIndexName, id).fetchSourceContext(
+            FetchSourceContext.DO_NOT_FETCH_SOURCE));
+        sourceRequest.add(new MultiGetRequest.Item(indexName, id));
+      }
+      // The version of the new index is read first: any write to it from then on makes the replay conflict
+      final MultiGetItemResponse[] targetDocs = searchClient.mget(targetRequest, RequestOptions.DEFAULT).getResponses();
+      final MultiGetItemResponse[] sourceDocs = searchClient.mget(sourceRequest, RequestOptions.DEFAULT).getResponses();
+
+      final BulkRequest bulkRequest = new BulkRequest();
+      for (int i = 0; i < pendingIds.size(); i++) {
+        if (targetDocs[i].isFailed() || sourceDocs[i].isFailed()) {
+          throw new IOException(String.format("Failed to read document %s to replay: %s", pendingIds.get(i),
+              targetDocs[i].isFailed() ? targetDocs[i].getFailure().getMessage()
+                  : sourceDocs[i].getFailure().getMessage()));
+        }
+        final GetResponse target = targetDocs[i].getResponse();
+        final GetResponse source = sourceDocs[i].getResponse();
+        if (source.isExists()) {
+          final IndexRequest indexRequest = new IndexRequest(tempIndexName).id(pendingIds.get(i))
+              .source(source.getSourceAsBytesRef(), XContentType.JSON);
+          if (target.isExists()) {
+            indexRequest.setIfSeqNo(target.getSeqNo()).setIfPrimaryTerm(target.getPrimaryTerm());
+          } else {
+            indexRequest.opType(DocWriteRequest.OpType.CREATE);
+          }
+          bulkRequest.add(indexRequest);
+        } else if (target.isExists()) {
+          bulkRequest.add(new DeleteRequest(tempIndexName).id(pendingIds.get(i))
+              .setIfSeqNo(target.getSeqNo())
+              .setIfPrimaryTerm(target.getPrimaryTerm()));
+        }
+      }
+      if (bulkRequest.numberOfActions() == 0) {
+        return;
+      }
+
+      final List<String> conflictingIds = new ArrayList<>();
+      for (BulkItemResponse item : searchClient.bulk(bulkRequest, RequestOptions.DEFAULT).getItems()) {
+        if (item.isFailed() && item.status() == RestStatus.CONFLICT) {
+          conflictingIds.add(item.getId());
+        } else if (item.isFailed()) {
+          throw new IOException(
+              String.format("Failed to replay document %s: %s", item.getId(), item.getFailureMessage()));
+        }
+      }
+      pendingIds = conflictingIds;
+    }
+    if (!pendingIds.isEmpty()) {
+      throw new IOException(String.format("Failed to replay documents %s, which kept being written to", pendingIds));
+    }
+  }
 
-    // Check whether reindex succeeded by comparing document count
-    // There can be some delay between the reindex finishing and count being fully up to date, so try multiple times
+  /**
+   * Logs and exposes as metrics the progress of the reindex: share of documents copied, rate and remaining time.
+   */
+  private void reportProgress(@Nonnull String indexName, @Nonnull String tempIndexName, long sourceCount, long count,
+      long elapsedMillis) {
+    double docsPerSecond = elapsedMillis > 0 ? count * 1000.0 / elapsedMillis : 0;
+    long etaSeconds = docsPerSecond > 0 ? (long) (Math.max(0, sourceCount - count) / docsPerSecond) : -1;
+    double percentComplete = sourceCount > 0 ? Math.min(100.0, count * 100.0 / sourceCount) : 100.0;
+    log.info("Reindexing from {} to {} in progress: {}/{} documents ({}%), {} docs/s, ETA {}s", indexName,
+        tempIndexName, count, sourceCount, String.format("%.1f", percentComplete), String.format("%.1f", docsPerSecond),
+        etaSeconds);
+
+    if (!reindexProgress.containsKey(indexName)) {
+      registerProgressGauges(indexName);
+    }
+    reindexProgress.put(indexName, new double[]{percentComplete, docsPerSecond, etaSeconds});
+  }
+
+  private void registerProgressGauges(@Nonnull String indexName) {
+    for (int i = 0; i < PROGRESS_METRICS.size(); i++) {
+      final int metric = i;
+      final String gaugeName = MetricRegistry.name(this.getClass(), "reindex", indexName, PROGRESS_METRICS.get(i));
+      final Gauge<Double> gauge = () -> {
+        final double[] progress = reindexProgress.get(indexName);
+        return progress == null ? null : progress[metric];
+      };
+      MetricUtils.get().remove(gaugeName);
+      MetricUtils.get().register(gaugeName, gauge);
+    }
+  }
+
+  private void removeProgressGauges(@Nonnull String indexName) {
+    if (reindexProgress.remove(indexName) != null) {
+      PROGRESS_METRICS.forEach(
+          metric -> MetricUtils.get().remove(MetricRegistry.name(this.getClass(), "reindex", indexName, metric)));
+    }
+  }
+
+  /**
+   * Waits for the new index to hold as many documents as the original one, accounting for pending writes, before it
+   * can replace it.
+   */
+  private void waitForCatchUp(@Nonnull String indexName, @Nonnull String tempIndexName) throws IOException {
+    // A write may have reached one index but not yet the other, so try multiple times
     long originalCount = 0;
     long reindexedCount = 0;
     for (int i = 0; i < this.numRetries; i++) {
-      // Check if reindex succeeded by comparing document counts
+      // Check if reindex succeeded by comparing document counts, once both are up to date
+      searchClient.indices().refresh(new RefreshRequest(indexName, tempIndexName), RequestOptions.DEFAULT);
       originalCount = getCount(indexName);
       reindexedCount = getCount(tempIndexName);
       if (originalCount == reindexedCount) {
-        break;
-      }
-      try {
-        TimeUnit.SECONDS.sleep(1);
-      } catch (InterruptedException e) {
-        Thread.currentThread().interrupt();
+        return;
       }
     }
 
-    if (originalCount != reindexedCount) {
-      log.info("Post-reindex document count is different, source_doc_count: {} reindex_doc_count: {}", originalCount,
-          reindexedCount);
-      searchClient.indices().delete(new DeleteIndexRequest().indices(tempIndexName), RequestOptions.DEFAULT);
-      throw new RuntimeException(String.format("Reindex from %s to %s failed", indexName, tempIndexName));
-    }
+    log.info("Post-reindex document count is different, source_doc_count: {} reindex_doc_count: {}", originalCount,
+        reindexedCount);
+    throw new RuntimeException(String.format("Reindex from %s to %s failed", indexName, tempIndexName));
+  }
 
-    log.info("Reindex from {} to {} succeeded", indexName, tempIndexName);
+  /**
+   * Atomically points the alias to the new index, in place of the original index, and stops writes to the original
+   * index. The original index is deleted afterwards. The journal of the reindex, closed already, is deleted by the
+   * next build of the index.
+   */
+  private void switchAlias(@Nonnull String indexName, @Nonnull String tempIndexName) throws IOException {
     String indexNamePattern = indexName + "_*";
     // Check if the original index is aliased or not
     GetAliasesResponse aliasesResponse = searchClient.indices()
         .getAlias(new GetAliasesRequest(indexName).indices(indexNamePattern), RequestOptions.DEFAULT);
-    // If not aliased, delete the original index
-    if (aliasesResponse.getAliases().isEmpty()) {
-      searchClient.indices().delete(new DeleteIndexRequest().indices(indexName), RequestOptions.DEFAULT);
+    boolean isAliased = !aliasesResponse.getAliases().isEmpty();
+
+    IndicesAliasesRequest aliasesRequest = new IndicesAliasesRequest();
+    if (isAliased) {
+      aliasesRequest.addAliasAction(AliasActions.remove().alias(indexName).index(indexNamePattern));
     } else {
+      // The original index has the name of the alias, so it has to go in the same request for the alias to be added
+      aliasesRequest.addAliasAction(AliasActions.removeIndex().index(indexName));
+    }
+    aliasesRequest.addAliasAction(AliasActions.add().alias(indexName).index(tempIndexName))
+        .addAliasAction(AliasActions.remove().alias(getReindexTargetAlias(indexName)).index(tempIndexName));
+    searchClient.indices().updateAliases(aliasesRequest, RequestOptions.DEFAULT);
+
+    if (isAliased) {
       searchClient.indices()
           .delete(new DeleteIndexRequest().indices(aliasesResponse.getAliases().keySet().toArray(new String[0])),
               RequestOptions.DEFAULT);
     }
+  }
 
-    // Add alias for the new index
-    AliasActions removeAction = AliasActions.remove().alias(indexName).index(indexNamePattern);
-    AliasActions addAction = AliasActions.add().alias(indexName).index(tempIndexName);
-    searchClient.indices()
-        .updateAliases(new IndicesAliasesRequest().addAliasAction(removeAction).addAliasAction(addAction),
-            RequestOptions.DEFAULT);
-    log.info("Finished setting up {}", indexName);
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
   }
 
   private long getCount(@Nonnull String indexName) throws IOException {
@@ -13,6 +13,8 @@ import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 public class MappingsBuilder {
+  // Subfield of autocomplete enabled fields, indexed with the prefixes of every token for fast typeahead
+  public static final String AUTOCOMPLETE_SUBFIELD = "autocomplete";
 
   private MappingsBuilder() {
   }
@@ -77,6 +79,13 @@ public class MappingsBuilder {
     } else {
       log.info("FieldType {} has no mappings implemented", fieldType);
     }
+    if (searchableFieldSpec.getSearchableAnnotation().isEnableAutocomplete() && fieldType != FieldType.BROWSE_PATH
+        && mappingForField.containsKey("fields")) {
+      Map<String, Object> subFields = new HashMap<>((Map<String, Object>) mappingForField.get("fields"));
+      subFields.put(AUTOCOMPLETE_SUBFIELD,
+          ImmutableMap.of("type", "text", "analyzer", "autocomplete", "search_analyzer", "autocomplete_search"));
+      mappingForField.put("fields", subFields);
+    }
     mappings.put(searchableFieldSpec.getSearchableAnnotation().getFieldName(), mappingForField);
 
     searchableFieldSpec.getSearchableAnnotation()
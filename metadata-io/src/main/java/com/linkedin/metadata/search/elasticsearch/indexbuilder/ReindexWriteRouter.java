@@ -0,0 +1,169 @@
+package com.linkedin.metadata.search.elasticsearch.indexbuilder;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+
+/**
+ * Tells writers where to send their writes while an index is being rebuilt by {@link ESIndexBuilder}.
+ *
+ * <p>Every write to an index must also go to the indices it is being reindexed to, as returned by
+ * {@link #getWriteIndices}, and the ids of the written documents must be journaled first with {@link #journal}. The
+ * journal entries are written synchronously, before the write itself is sent, so that none of them can still be
+ * buffered anywhere when the reindex replays the journal. Writes by query journal the documents they match with
+ * {@link #journalMatching}. Nothing is journaled, and a single index is returned, when no reindex is in progress.
+ */
+@Slf4j
+public class ReindexWriteRouter {
+  private static final int JOURNAL_SCAN_BATCH_SIZE = 1000;
+  private static final TimeValue JOURNAL_SCAN_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+  private final RestHighLevelClient _searchClient;
+  // Alias -> indices it points to. Used to find the indices being populated by a reindex of a given index, and the
+  // journals recording which documents were written during the reindex
+  private final LoadingCache<String, List<String>> _aliasedIndices;
+
+  public ReindexWriteRouter(@Nonnull RestHighLevelClient searchClient) {
+    _searchClient = searchClient;
+    _aliasedIndices = CacheBuilder.newBuilder()
+        .expireAfterWrite(ESIndexBuilder.REINDEX_TARGET_REFRESH_SECONDS, TimeUnit.SECONDS)
+        .build(CacheLoader.from(this::fetchAliasedIndices));
+  }
+
+  /**
+   * Returns the given index along with the indices it is being reindexed to, if any.
+   */
+  @Nonnull
+  public List<String> getWriteIndices(@Nonnull String indexName) {
+    final List<String> targets = _aliasedIndices.getUnchecked(ESIndexBuilder.getReindexTargetAlias(indexName));
+    if (targets.isEmpty()) {
+      return Collections.singletonList(indexName);
+    }
+    final List<String> indices = new ArrayList<>(targets.size() + 1);
+    indices.add(indexName);
+    indices.addAll(targets);
+    return indices;
+  }
+
+  /**
+   * Records that the given documents are about to be written while their index is being reindexed, so that the
+   * reindex copies them again once done. Returns once the journal entries are written.
+   */
+  public void journal(@Nonnull String indexName, @Nonnull Collection<String> docIds) {
+    final List<String> journals = _aliasedIndices.getUnchecked(ESIndexBuilder.getReindexJournalAlias(indexName));
+    if (journals.isEmpty() || docIds.isEmpty()) {
+      return;
+    }
+    final BulkRequest bulkRequest = new BulkRequest();
+    for (String journal : journals) {
+      docIds.forEach(docId -> bulkRequest.add(new IndexRequest(journal).id(docId).source(Collections.emptyMap())));
+    }
+    try {
+      for (BulkItemResponse item : _searchClient.bulk(bulkRequest, RequestOptions.DEFAULT).getItems()) {
+        logJournalFailure(indexName, item);
+      }
+    } catch (IOException e) {
+      log.warn("Failed to journal {} documents written to {} during its reindex: {}", docIds.size(), indexName,
+          e.toString());
+    }
+  }
+
+  public void journal(@Nonnull String indexName, @Nonnull String docId) {
+    journal(indexName, Collections.singletonList(docId));
+  }
+
+  /**
+   * Journals the documents of the given index matching the given query, which is about to be used to update or delete
+   * documents by query.
+   */
+  public void journalMatching(@Nonnull String indexName, @Nonnull QueryBuilder query) {
+    if (_aliasedIndices.getUnchecked(ESIndexBuilder.getReindexJournalAlias(indexName)).isEmpty()) {
+      return;
+    }
+    String scrollId = null;
+    try {
+      SearchResponse response = _searchClient.search(new SearchRequest(indexName).scroll(JOURNAL_SCAN_KEEP_ALIVE)
+          .source(new SearchSourceBuilder().query(query).size(JOURNAL_SCAN_BATCH_SIZE).fetchSource(false).sort("_doc")),
+          RequestOptions.DEFAULT);
+      scrollId = response.getScrollId();
+      while (response.getHits().getHits().length > 0) {
+        final List<String> docIds = new ArrayList<>(response.getHits().getHits().length);
+        for (SearchHit hit : response.getHits().getHits()) {
+          docIds.add(hit.getId());
+        }
+        journal(indexName, docIds);
+        response = _searchClient.scroll(new SearchScrollRequest(scrollId).scroll(JOURNAL_SCAN_KEEP_ALIVE),
+            RequestOptions.DEFAULT);
+        scrollId = response.getScrollId();
+      }
+    } catch (IOException e) {
+      log.warn("Failed to journal the documents of {} matching {} during its reindex: {}", indexName, query,
+          e.toString());
+    } finally {
+      clearScroll(scrollId);
+    }
+  }
+
+  private static void logJournalFailure(@Nonnull String indexName, @Nonnull BulkItemResponse item) {
+    if (!item.isFailed()) {
+      return;
+    }
+    // The journal is closed, with a write block, once the reindex it belongs to has copied every document. Later
+    // writes apply to complete documents and need no journaling
+    if (item.status() == RestStatus.FORBIDDEN) {
+      log.debug("Not journaling document {} of {}, as its reindex is done", item.getId(), indexName);
+    } else {
+      log.warn("Failed to journal document {} written to {} during its reindex: {}", item.getId(), indexName,
+          item.getFailureMessage());
+    }
+  }
+
+  private void clearScroll(String scrollId) {
+    if (scrollId == null) {
+      return;
+    }
+    final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+    clearScrollRequest.addScrollId(scrollId);
+    try {
+      _searchClient.clearScroll(clearScrollRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      log.warn("Failed to clear scroll {}", scrollId, e);
+    }
+  }
+
+  private List<String> fetchAliasedIndices(@Nonnull String alias) {
+    try {
+      return new ArrayList<>(_searchClient.indices()
+          .getAlias(new GetAliasesRequest(alias), RequestOptions.DEFAULT)
+          .getAliases()
+          .keySet());
+    } catch (Exception e) {
+      log.warn("Failed to look up indices of alias {}: {}", alias, e.toString());
+      return Collections.emptyList();
+    }
+  }
+}
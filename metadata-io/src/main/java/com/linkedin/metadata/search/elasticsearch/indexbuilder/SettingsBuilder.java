@@ -12,6 +12,9 @@ import java.util.Map;
  * Builder for generating settings for elasticsearch indices
  */
 public class SettingsBuilder {
+  // Longest token prefix indexed for autocomplete. Longer query tokens are truncated to it, so that they still match
+  private static final int AUTOCOMPLETE_MAX_GRAM = 20;
+
   private final Map<String, Object> settings;
 
   public SettingsBuilder(List<String> urnStopWords, String mainTokenizer) {
@@ -41,6 +44,17 @@ public class SettingsBuilder {
         .put("max_gram", 20)
         .build());
 
+    // Filter to allow prefix matches on each token as soon as the first character is typed
+    filters.put("autocomplete_filter", ImmutableMap.<String, Object>builder().put("type", "edge_ngram")
+        .put("min_gram", 1)
+        .put("max_gram", AUTOCOMPLETE_MAX_GRAM)
+        .build());
+
+    // Filter to cut query tokens down to the longest prefix indexed by the filter above
+    filters.put("autocomplete_truncate_filter", ImmutableMap.<String, Object>builder().put("type", "truncate")
+        .put("length", AUTOCOMPLETE_MAX_GRAM)
+        .build());
+
     // Filter to split string into words
     filters.put("custom_delimiter", ImmutableMap.<String, Object>builder().put("type", "word_delimiter")
         .put("split_on_numerics", false)
@@ -96,6 +110,18 @@ public class SettingsBuilder {
         .put("filter", ImmutableList.of("custom_delimiter", "lowercase", "stop"))
         .build());
 
+    // Analyzer for typeahead - Indexes the prefixes of each token, so that queries only need exact term lookups
+    analyzers.put("autocomplete", ImmutableMap.<String, Object>builder()
+        .put("tokenizer", StringUtils.isNotBlank(mainTokenizer) ? mainTokenizer : "main_tokenizer")
+        .put("filter", ImmutableList.of("custom_delimiter", "lowercase", "autocomplete_filter"))
+        .build());
+
+    // Analyzer for typeahead queries - Same as above, with each token truncated to the longest indexed prefix
+    analyzers.put("autocomplete_search", ImmutableMap.<String, Object>builder()
+        .put("tokenizer", StringUtils.isNotBlank(mainTokenizer) ? mainTokenizer : "main_tokenizer")
+        .put("filter", ImmutableList.of("custom_delimiter", "lowercase", "autocomplete_truncate_filter"))
+        .build());
+
     // Analyzer for splitting by slashes (used to get depth of browsePath)
     analyzers.put("slash_pattern", ImmutableMap.<String, Object>builder().put("tokenizer", "slash_tokenizer")
         .put("filter", ImmutableList.of("lowercase"))
@@ -3,6 +3,9 @@ package com.linkedin.metadata.search.elasticsearch.query;
 import com.codahale.metrics.Timer;
 import com.datahub.util.exception.ESQueryException;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.browse.BrowseResult;
 import com.linkedin.metadata.browse.BrowseResultEntity;
@@ -22,10 +25,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
@@ -40,6 +45,7 @@ import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.bucket.MultiBucketsAggregation;
+import org.elasticsearch.search.aggregations.bucket.filter.ParsedFilter;
 import org.elasticsearch.search.aggregations.bucket.terms.IncludeExclude;
 import org.elasticsearch.search.aggregations.bucket.terms.ParsedTerms;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
@@ -47,34 +53,77 @@ import org.elasticsearch.search.sort.SortOrder;
 
 
 @Slf4j
-@RequiredArgsConstructor
 public class ESBrowseDAO {
 
   private final EntityRegistry entityRegistry;
   private final RestHighLevelClient client;
   private final IndexConvention indexConvention;
+  // Groups of the browsed paths, null if caching is disabled
+  @Nullable
+  private final Cache<BrowseGroupsKey, BrowseGroupsResult> groupsCache;
+  // Incremented to invalidate the cached groups of an entity type
+  private final Map<String, AtomicLong> groupsCacheGenerations = new ConcurrentHashMap<>();
+  // Time of the last invalidation of the cached groups of an entity type. Groups browsed less than
+  // groupsCacheSettleMillis later may miss the write behind it, which may not be searchable yet, and are not cached
+  private final Map<String, Long> groupsCacheInvalidationTimes = new ConcurrentHashMap<>();
+  private final long groupsCacheSettleMillis;
 
   private static final String BROWSE_PATH = "browsePaths";
   private static final String BROWSE_PATH_DEPTH = "browsePaths.length";
   private static final String URN = "urn";
   private static final String REMOVED = "removed";
 
+  private static final String GROUPS_FILTER_AGG = "groupsFilter";
   private static final String GROUP_AGG = "groups";
   private static final String ALL_PATHS = "allPaths";
 
   // Set explicit max size for grouping
   private static final int AGGREGATION_MAX_SIZE = 2000;
+  private static final int GROUPS_CACHE_MAX_SIZE = 10000;
+
+  @Value
+  private static class BrowseGroupsKey {
+    String entityName;
+    long generation;
+    String path;
+    Map<String, String> requestMap;
+  }
 
   @Value
-  private class BrowseGroupsResult {
+  private static class BrowseGroupsResult {
     List<BrowseResultGroup> groups;
-    int totalGroups;
     int totalNumEntities;
   }
 
+  public ESBrowseDAO(@Nonnull EntityRegistry entityRegistry, @Nonnull RestHighLevelClient client,
+      @Nonnull IndexConvention indexConvention) {
+    this(entityRegistry, client, indexConvention, 0, 0);
+  }
+
+  /**
+   * @param groupsCacheTtlSeconds how long the groups of a browsed path are cached, caching is disabled if not positive
+   * @param groupsCacheSettleSeconds how long after an invalidation the groups of its entity type are not cached, which
+   *     should cover the time it takes for the write behind the invalidation to become searchable
+   */
+  public ESBrowseDAO(@Nonnull EntityRegistry entityRegistry, @Nonnull RestHighLevelClient client,
+      @Nonnull IndexConvention indexConvention, long groupsCacheTtlSeconds, long groupsCacheSettleSeconds) {
+    this.entityRegistry = entityRegistry;
+    this.client = client;
+    this.indexConvention = indexConvention;
+    this.groupsCacheSettleMillis = TimeUnit.SECONDS.toMillis(Math.max(groupsCacheSettleSeconds, 0));
+    this.groupsCache = groupsCacheTtlSeconds > 0 ? CacheBuilder.newBuilder()
+        .expireAfterWrite(groupsCacheTtlSeconds, TimeUnit.SECONDS)
+        .maximumSize(GROUPS_CACHE_MAX_SIZE)
+        .build() : null;
+  }
+
   /**
    * Gets a list of groups/entities that match given browse request.
    *
+   * <p>The groups and the first page of entities are fetched with a single search request. For deeper pages, the
+   * groups are fetched first, then only the requested page of entities. Once the groups of a path are cached, only the
+   * requested page of entities is fetched.
+   *
    * @param entityName type of entity to query
    * @param path the path to be browsed
    * @param requestParams the request map with fields and values as filters
@@ -89,34 +138,58 @@ public class ESBrowseDAO {
 
     try {
       final String indexName = indexConvention.getIndexName(entityRegistry.getEntitySpec(entityName));
-
-      final SearchResponse groupsResponse;
-      try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "esGroupSearch").time()) {
-        groupsResponse =
-            client.search(constructGroupsSearchRequest(indexName, path, requestMap), RequestOptions.DEFAULT);
+      final BrowseGroupsKey groupsKey = new BrowseGroupsKey(entityName, getGroupsCacheGeneration(entityName), path,
+          ImmutableMap.copyOf(requestMap));
+
+      // Checked before searching, as an invalidation during the search changes the generation of the key anyway
+      final boolean cacheGroups = groupsCache != null && isGroupsCacheSettled(entityName);
+
+      BrowseGroupsResult browseGroupsResult = groupsCache == null ? null : groupsCache.getIfPresent(groupsKey);
+      List<SearchHit> entityHits = null;
+      int numEntities = 0;
+      if (browseGroupsResult == null) {
+        // Entities are sorted after the groups, so the entities of the first page are the first ones whatever the
+        // number of groups, and are fetched along with the groups. Deeper pages only fetch the groups here.
+        final boolean firstPage = from == 0;
+        final SearchResponse browseResponse;
+        try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "esBrowseSearch").time()) {
+          browseResponse = client.search(constructBrowseSearchRequest(indexName, path, requestMap, firstPage ? size : 0),
+              RequestOptions.DEFAULT);
+        }
+        browseGroupsResult = extractGroupsResponse(browseResponse.getAggregations().get(GROUPS_FILTER_AGG));
+        if (cacheGroups) {
+          groupsCache.put(groupsKey, browseGroupsResult);
+        }
+        if (firstPage) {
+          final int numGroups = browseGroupsResult.getGroups().size();
+          final List<SearchHit> hits = Arrays.asList(browseResponse.getHits().getHits());
+          entityHits = hits.subList(0, Math.min(getEntitySize(from, size, numGroups), hits.size()));
+          numEntities = (int) browseResponse.getHits().getTotalHits().value;
+        }
       }
-      final BrowseGroupsResult browseGroupsResult = extractGroupsResponse(groupsResponse, path, from, size);
-      final int numGroups = browseGroupsResult.getTotalGroups();
-
-      // Based on the number of groups returned, compute the from and size to query for entities
-      // Groups come before entities, so if numGroups >= from + size, we should return all groups
-      // if from < numGroups < from + size, we should return a mix of groups and entities
-      // if numGroups <= from, we should only return entities
-      int entityFrom = Math.max(from - numGroups, 0);
-      int entitySize = Math.min(Math.max(from + size - numGroups, 0), size);
-      final SearchResponse entitiesResponse;
-      try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "esEntitiesSearch").time()) {
-        entitiesResponse =
-            client.search(constructEntitiesSearchRequest(indexName, path, requestMap, entityFrom, entitySize),
-                RequestOptions.DEFAULT);
+      if (entityHits == null) {
+        final int numGroups = browseGroupsResult.getGroups().size();
+        final SearchResponse entitiesResponse;
+        try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "esEntitiesSearch").time()) {
+          entitiesResponse = client.search(
+              constructEntitiesSearchRequest(indexName, path, requestMap, getEntityFrom(from, numGroups),
+                  getEntitySize(from, size, numGroups)), RequestOptions.DEFAULT);
+        }
+        entityHits = Arrays.asList(entitiesResponse.getHits().getHits());
+        numEntities = (int) entitiesResponse.getHits().getTotalHits().value;
       }
-      final int numEntities = (int) entitiesResponse.getHits().getTotalHits().value;
-      final List<BrowseResultEntity> browseResultEntityList = extractEntitiesResponse(entitiesResponse, path);
+
+      final List<BrowseResultGroup> groups = browseGroupsResult.getGroups();
+      final int numGroups = groups.size();
+      // Get the groups that are in the from to from + size range
+      final List<BrowseResultGroup> paginatedGroups =
+          numGroups <= from ? Collections.emptyList() : groups.subList(from, Math.min(from + size, numGroups));
+      final List<BrowseResultEntity> browseResultEntityList = extractEntities(entityHits, path);
 
       return new BrowseResult().setMetadata(
           new BrowseResultMetadata().setTotalNumEntities(browseGroupsResult.getTotalNumEntities()).setPath(path))
           .setEntities(new BrowseResultEntityArray(browseResultEntityList))
-          .setGroups(new BrowseResultGroupArray(browseGroupsResult.getGroups()))
+          .setGroups(new BrowseResultGroupArray(paginatedGroups))
           .setNumEntities(numEntities)
           .setNumGroups(numGroups)
           .setNumElements(numGroups + numEntities)
@@ -128,6 +201,45 @@ public class ESBrowseDAO {
     }
   }
 
+  /**
+   * Drops the cached groups of every path browsed for the given entity type, e.g. after browse paths changed.
+   *
+   * <p>Cached groups are keyed by a generation of their entity type, which is bumped here rather than scanning the
+   * cache. The groups of older generations are no longer looked up, and are evicted by size or expiry. The change
+   * behind the invalidation may not be searchable yet, so groups are not cached again until groupsCacheSettleSeconds
+   * later.
+   *
+   * @param entityName type of entity whose browse paths changed
+   */
+  public void invalidateBrowseGroups(@Nonnull String entityName) {
+    if (groupsCache != null) {
+      groupsCacheInvalidationTimes.put(entityName, System.currentTimeMillis());
+      groupsCacheGenerations.computeIfAbsent(entityName, ignored -> new AtomicLong()).incrementAndGet();
+    }
+  }
+
+  private boolean isGroupsCacheSettled(@Nonnull String entityName) {
+    final Long invalidationTime = groupsCacheInvalidationTimes.get(entityName);
+    return invalidationTime == null || System.currentTimeMillis() - invalidationTime >= groupsCacheSettleMillis;
+  }
+
+  private long getGroupsCacheGeneration(@Nonnull String entityName) {
+    final AtomicLong generation = groupsCacheGenerations.get(entityName);
+    return generation == null ? 0 : generation.get();
+  }
+
+  // Based on the number of groups, compute the from and size to query for entities
+  // Groups come before entities, so if numGroups >= from + size, we should return all groups
+  // if from < numGroups < from + size, we should return a mix of groups and entities
+  // if numGroups <= from, we should only return entities
+  private static int getEntityFrom(int from, int numGroups) {
+    return Math.max(from - numGroups, 0);
+  }
+
+  private static int getEntitySize(int from, int size, int numGroups) {
+    return Math.min(Math.max(from + size - numGroups, 0), size);
+  }
+
   /**
    * Builds aggregations for search request.
    *
@@ -151,19 +263,34 @@ public class ESBrowseDAO {
   }
 
   /**
-   * Constructs group search request.
+   * Constructs the search request for both the groups and the entities of a path. The query matches the entities
+   * located in or below the path, the groups are aggregated over the ones below it, and the hits are post filtered to
+   * the ones located in it.
    *
    * @param path the path which is being browsed
+   * @param size count of entities
    * @return {@link SearchRequest}
    */
+  @VisibleForTesting
   @Nonnull
-  protected SearchRequest constructGroupsSearchRequest(@Nonnull String indexName, @Nonnull String path,
-      @Nonnull Map<String, String> requestMap) {
+  SearchRequest constructBrowseSearchRequest(@Nonnull String indexName, @Nonnull String path,
+      @Nonnull Map<String, String> requestMap, int size) {
+    final int browseDepthVal = getPathDepth(path) + 1;
+    final BoolQueryBuilder queryBuilder = buildPathQuery(path, requestMap);
+    queryBuilder.filter(QueryBuilders.rangeQuery(BROWSE_PATH_DEPTH).gte(browseDepthVal));
+
     final SearchRequest searchRequest = new SearchRequest(indexName);
     final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.size(0);
-    searchSourceBuilder.query(buildQueryString(path, requestMap, true));
-    searchSourceBuilder.aggregation(buildAggregations(path));
+    searchSourceBuilder.from(0);
+    searchSourceBuilder.size(size);
+    searchSourceBuilder.fetchSource(BROWSE_PATH, null);
+    searchSourceBuilder.docValueField(URN);
+    searchSourceBuilder.sort(URN, SortOrder.ASC);
+    searchSourceBuilder.query(queryBuilder);
+    searchSourceBuilder.postFilter(QueryBuilders.termQuery(BROWSE_PATH_DEPTH, browseDepthVal));
+    searchSourceBuilder.aggregation(
+        AggregationBuilders.filter(GROUPS_FILTER_AGG, QueryBuilders.rangeQuery(BROWSE_PATH_DEPTH).gt(browseDepthVal))
+            .subAggregation(buildAggregations(path)));
     searchRequest.source(searchSourceBuilder);
     return searchRequest;
   }
@@ -173,14 +300,19 @@ public class ESBrowseDAO {
    *
    * @param path the path which is being browsed
    * @param requestMap entity filters e.g. status=PUBLISHED for features
-   * @param isGroupQuery true if it's group query false otherwise
    * @return {@link QueryBuilder}
    */
   @Nonnull
-  private QueryBuilder buildQueryString(@Nonnull String path, @Nonnull Map<String, String> requestMap,
-      boolean isGroupQuery) {
+  private QueryBuilder buildQueryString(@Nonnull String path, @Nonnull Map<String, String> requestMap) {
     final int browseDepthVal = getPathDepth(path) + 1;
+    return buildPathQuery(path, requestMap).filter(QueryBuilders.termQuery(BROWSE_PATH_DEPTH, browseDepthVal));
+  }
 
+  /**
+   * Builds the query matching the entities located in or below the given path.
+   */
+  @Nonnull
+  private BoolQueryBuilder buildPathQuery(@Nonnull String path, @Nonnull Map<String, String> requestMap) {
     final BoolQueryBuilder queryBuilder = QueryBuilders.boolQuery();
 
     queryBuilder.mustNot(QueryBuilders.termQuery(REMOVED, "true"));
@@ -189,12 +321,6 @@ public class ESBrowseDAO {
       queryBuilder.filter(QueryBuilders.termQuery(BROWSE_PATH, path));
     }
 
-    if (isGroupQuery) {
-      queryBuilder.filter(QueryBuilders.rangeQuery(BROWSE_PATH_DEPTH).gt(browseDepthVal));
-    } else {
-      queryBuilder.filter(QueryBuilders.termQuery(BROWSE_PATH_DEPTH, browseDepthVal));
-    }
-
     requestMap.forEach((field, val) -> queryBuilder.filter(QueryBuilders.termQuery(field, val)));
 
     return queryBuilder;
@@ -216,35 +342,31 @@ public class ESBrowseDAO {
     final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
     searchSourceBuilder.from(from);
     searchSourceBuilder.size(size);
-    searchSourceBuilder.fetchSource(new String[]{BROWSE_PATH, URN}, null);
+    // Browse paths are analyzed text without doc values, so they are read from the source
+    searchSourceBuilder.fetchSource(BROWSE_PATH, null);
+    searchSourceBuilder.docValueField(URN);
     searchSourceBuilder.sort(URN, SortOrder.ASC);
-    searchSourceBuilder.query(buildQueryString(path, requestMap, false));
+    searchSourceBuilder.query(buildQueryString(path, requestMap));
     searchRequest.source(searchSourceBuilder);
     return searchRequest;
   }
 
   /**
-   * Extracts group search response into browse result metadata.
+   * Extracts the groups aggregation into the groups of the path.
    *
-   * @param groupsResponse groups search response
-   * @param path the path which is being browsed
-   * @return {@link BrowseResultMetadata}
+   * @param groupsFilter aggregation over the entities located below the path
+   * @return {@link BrowseGroupsResult}
    */
   @Nonnull
-  private BrowseGroupsResult extractGroupsResponse(@Nonnull SearchResponse groupsResponse, @Nonnull String path,
-      int from, int size) {
-    final ParsedTerms groups = groupsResponse.getAggregations().get(GROUP_AGG);
+  private BrowseGroupsResult extractGroupsResponse(@Nonnull ParsedFilter groupsFilter) {
+    final ParsedTerms groups = groupsFilter.getAggregations().get(GROUP_AGG);
     final List<BrowseResultGroup> groupsAgg = groups.getBuckets()
         .stream()
         .filter(this::validateBucket)
         .map(group -> new BrowseResultGroup().setName(getSimpleName(group.getKeyAsString()))
             .setCount(group.getDocCount()))
         .collect(Collectors.toList());
-    // Get the groups that are in the from to from + size range
-    final List<BrowseResultGroup> paginatedGroups = groupsAgg.size() <= from ? Collections.emptyList()
-        : groupsAgg.subList(from, Math.min(from + size, groupsAgg.size()));
-    return new BrowseGroupsResult(paginatedGroups, groupsAgg.size(),
-        (int) groupsResponse.getHits().getTotalHits().value);
+    return new BrowseGroupsResult(Collections.unmodifiableList(groupsAgg), (int) groupsFilter.getDocCount());
   }
 
   /**
@@ -260,23 +382,21 @@ public class ESBrowseDAO {
   }
 
   /**
-   * Extracts entity search response into list of browse result entities.
+   * Extracts entity search hits into list of browse result entities.
    *
-   * @param entitiesResponse entity search response
+   * @param hits entity search hits
    * @return list of {@link BrowseResultEntity}
    */
-  @VisibleForTesting
   @Nonnull
-  List<BrowseResultEntity> extractEntitiesResponse(@Nonnull SearchResponse entitiesResponse,
-      @Nonnull String currentPath) {
+  private List<BrowseResultEntity> extractEntities(@Nonnull List<SearchHit> hits, @Nonnull String currentPath) {
     final List<BrowseResultEntity> entityMetadataArray = new ArrayList<>();
-    Arrays.stream(entitiesResponse.getHits().getHits()).forEach(hit -> {
+    hits.forEach(hit -> {
       try {
         final List<String> allPaths = (List<String>) hit.getSourceAsMap().get(BROWSE_PATH);
         final String nextLevelPath = getNextLevelPath(allPaths, currentPath);
         if (nextLevelPath != null) {
           entityMetadataArray.add(new BrowseResultEntity().setName(getSimpleName(nextLevelPath))
-              .setUrn(Urn.createFromString((String) hit.getSourceAsMap().get(URN))));
+              .setUrn(Urn.createFromString((String) ESUtils.getDocValue(hit, URN))));
         }
       } catch (URISyntaxException e) {
         log.error("URN is not valid: " + e.toString());
@@ -324,7 +444,8 @@ public class ESBrowseDAO {
   public List<String> getBrowsePaths(@Nonnull String entityName, @Nonnull Urn urn) {
     final String indexName = indexConvention.getIndexName(entityRegistry.getEntitySpec(entityName));
     final SearchRequest searchRequest = new SearchRequest(indexName);
-    searchRequest.source(new SearchSourceBuilder().query(QueryBuilders.termQuery(URN, urn.toString())));
+    searchRequest.source(
+        new SearchSourceBuilder().query(QueryBuilders.termQuery(URN, urn.toString())).fetchSource(BROWSE_PATH, null));
     final SearchHit[] searchHits;
     try {
       searchHits = client.search(searchRequest, RequestOptions.DEFAULT).getHits().getHits();
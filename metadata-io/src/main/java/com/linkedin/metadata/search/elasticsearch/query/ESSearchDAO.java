@@ -7,24 +7,36 @@ import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
+import com.linkedin.metadata.search.AggregationMetadataArray;
+import com.linkedin.metadata.search.ScrollResult;
+import com.linkedin.metadata.search.SearchEntityArray;
 import com.linkedin.metadata.search.SearchResult;
+import com.linkedin.metadata.search.SearchResultMetadata;
 import com.linkedin.metadata.search.elasticsearch.query.request.AutocompleteRequestHandler;
 import com.linkedin.metadata.search.elasticsearch.query.request.SearchRequestHandler;
+import com.linkedin.metadata.search.utils.ScrollCursorUtils;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import com.linkedin.metadata.utils.metrics.MetricUtils;
 import io.opentelemetry.extension.annotations.WithSpan;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.search.MultiSearchRequest;
+import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 
 import static com.linkedin.metadata.search.utils.SearchUtils.EMPTY_SEARCH_RESULT;
 
@@ -52,6 +64,45 @@ public class ESSearchDAO {
     }
   }
 
+  /**
+   * Gets the number of documents for each of the given entities in a single round trip, by issuing one hits-only
+   * search per entity index within a multi search request.
+   *
+   * @param entityNames names of the entities to count
+   * @return map from entity name to number of documents. Entities whose index could not be counted are omitted
+   */
+  @Nonnull
+  public Map<String, Long> docCountPerEntity(@Nonnull List<String> entityNames) {
+    final MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+    for (String entityName : entityNames) {
+      final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder()
+          .query(SearchRequestHandler.getFilterQuery(null))
+          .size(0)
+          .trackTotalHits(true);
+      multiSearchRequest.add(new SearchRequest(indexConvention.getIndexName(entityRegistry.getEntitySpec(entityName)))
+          .source(searchSourceBuilder)
+          .indicesOptions(IndicesOptions.lenientExpandOpen()));
+    }
+
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "docCountPerEntity").time()) {
+      final MultiSearchResponse.Item[] responses =
+          client.msearch(multiSearchRequest, RequestOptions.DEFAULT).getResponses();
+      final Map<String, Long> docCounts = new HashMap<>();
+      // Responses are returned in the same order as the requests
+      for (int i = 0; i < responses.length; i++) {
+        if (responses[i].isFailure()) {
+          log.warn("Count query failed for entity {}: {}", entityNames.get(i), responses[i].getFailureMessage());
+          continue;
+        }
+        docCounts.put(entityNames.get(i), responses[i].getResponse().getHits().getTotalHits().value);
+      }
+      return docCounts;
+    } catch (IOException e) {
+      log.error("Count query failed:" + e.getMessage());
+      throw new ESQueryException("Count query failed:", e);
+    }
+  }
+
   @Nonnull
   @WithSpan
   private SearchResult executeAndExtract(@Nonnull EntitySpec entitySpec, @Nonnull SearchRequest searchRequest, int from,
@@ -100,6 +151,48 @@ public class ESSearchDAO {
     return executeAndExtract(entitySpec, searchRequest, from, size);
   }
 
+  /**
+   * Gets the page of documents that match the given search request and come after the given cursor. Unlike
+   * {@link #search}, the cost of a page does not grow with its depth, and paging is not capped by the max result size.
+   *
+   * @param entityName name of the entity
+   * @param input the search input text
+   * @param postFilters the request map with fields and values as filters to be applied to search hits
+   * @param sortCriterion {@link SortCriterion} to be applied to search results
+   * @param scrollId cursor returned with the previous page, null to fetch the first page
+   * @param size the number of search hits to return
+   * @return a {@link ScrollResult} that contains a list of matched documents and the cursor to the next page
+   */
+  @Nonnull
+  public ScrollResult scroll(@Nonnull String entityName, @Nonnull String input, @Nullable Filter postFilters,
+      @Nullable SortCriterion sortCriterion, @Nullable String scrollId, int size) {
+    final String finalInput = input.isEmpty() ? "*" : input;
+    final Object[] searchAfter = scrollId == null ? null : ScrollCursorUtils.decode(scrollId);
+    EntitySpec entitySpec = entityRegistry.getEntitySpec(entityName);
+    final SearchRequest searchRequest = SearchRequestHandler.getBuilder(entitySpec)
+        .getScrollRequest(finalInput, postFilters, sortCriterion, searchAfter, size);
+    searchRequest.indices(indexConvention.getIndexName(entitySpec));
+
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "esScroll").time()) {
+      final SearchResponse searchResponse = client.search(searchRequest, RequestOptions.DEFAULT);
+      return SearchRequestHandler.getBuilder(entitySpec).extractScrollResult(searchResponse, size);
+    } catch (Exception e) {
+      if (e instanceof ElasticsearchStatusException) {
+        final ElasticsearchStatusException statusException = (ElasticsearchStatusException) e;
+        if (statusException.status().getStatus() == 400) {
+          // Malformed query -- Could indicate bad search syntax. Return empty response.
+          log.warn("Received 400 from Elasticsearch. Returning empty scroll response", e);
+          return new ScrollResult().setEntities(new SearchEntityArray())
+              .setMetadata(new SearchResultMetadata().setAggregations(new AggregationMetadataArray()))
+              .setPageSize(size)
+              .setNumEntities(0);
+        }
+      }
+      log.error("Scroll query failed", e);
+      throw new ESQueryException("Scroll query failed:", e);
+    }
+  }
+
   /**
    * Gets a list of documents after applying the input filters.
    *
@@ -133,7 +226,7 @@ public class ESSearchDAO {
   @Nonnull
   public AutoCompleteResult autoComplete(@Nonnull String entityName, @Nonnull String query, @Nullable String field,
       @Nullable Filter requestParams, int limit) {
-    try {
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "autoComplete").time()) {
       EntitySpec entitySpec = entityRegistry.getEntitySpec(entityName);
       AutocompleteRequestHandler builder = AutocompleteRequestHandler.getBuilder(entitySpec);
       SearchRequest req = builder.getSearchRequest(query, field, requestParams, limit);
@@ -146,6 +239,57 @@ public class ESSearchDAO {
     }
   }
 
+  /**
+   * Returns typeahead suggestions for each of the given entities in a single round trip, by issuing one prefix lookup
+   * against the "autocomplete" subfield of each entity index within a multi search request.
+   *
+   * @param entityNames names of the entities to get suggestions for
+   * @param query the type ahead query text
+   * @param requestParams filters to apply to the suggested entities
+   * @param limit the number of suggestions returned per entity
+   * @return map from entity name to its suggestions. Entities whose index could not be queried are omitted
+   */
+  @Nonnull
+  public Map<String, AutoCompleteResult> autoCompleteAcrossEntities(@Nonnull List<String> entityNames,
+      @Nonnull String query, @Nullable Filter requestParams, int limit) {
+    final MultiSearchRequest multiSearchRequest = new MultiSearchRequest();
+    final List<String> queriedEntityNames = new ArrayList<>();
+    for (String entityName : entityNames) {
+      EntitySpec entitySpec = entityRegistry.getEntitySpec(entityName);
+      AutocompleteRequestHandler builder = AutocompleteRequestHandler.getBuilder(entitySpec);
+      if (!builder.hasAutocompleteFields()) {
+        continue;
+      }
+      queriedEntityNames.add(entityName);
+      multiSearchRequest.add(builder.getFastSearchRequest(query, requestParams, limit)
+          .indices(indexConvention.getIndexName(entitySpec))
+          .indicesOptions(IndicesOptions.lenientExpandOpen()));
+    }
+    if (queriedEntityNames.isEmpty()) {
+      return new HashMap<>();
+    }
+
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "autoCompleteAcrossEntities").time()) {
+      final MultiSearchResponse.Item[] responses =
+          client.msearch(multiSearchRequest, RequestOptions.DEFAULT).getResponses();
+      final Map<String, AutoCompleteResult> results = new HashMap<>();
+      // Responses are returned in the same order as the requests
+      for (int i = 0; i < responses.length; i++) {
+        final String entityName = queriedEntityNames.get(i);
+        if (responses[i].isFailure()) {
+          log.warn("Auto complete query failed for entity {}: {}", entityName, responses[i].getFailureMessage());
+          continue;
+        }
+        results.put(entityName, AutocompleteRequestHandler.getBuilder(entityRegistry.getEntitySpec(entityName))
+            .extractFastResult(responses[i].getResponse(), query));
+      }
+      return results;
+    } catch (IOException e) {
+      log.error("Auto complete query failed:" + e.getMessage());
+      throw new ESQueryException("Auto complete query failed:", e);
+    }
+  }
+
   /**
    * Returns number of documents per field value given the field and filters
    *
@@ -10,8 +10,12 @@ import com.linkedin.metadata.query.AutoCompleteEntity;
 import com.linkedin.metadata.query.AutoCompleteEntityArray;
 import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.filter.Filter;
+import com.linkedin.metadata.search.elasticsearch.indexbuilder.MappingsBuilder;
 import com.linkedin.metadata.search.utils.ESUtils;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -58,6 +62,10 @@ public class AutocompleteRequestHandler {
         k -> new AutocompleteRequestHandler(entitySpec));
   }
 
+  public boolean hasAutocompleteFields() {
+    return !_defaultAutocompleteFields.isEmpty();
+  }
+
   public SearchRequest getSearchRequest(@Nonnull String input, @Nullable String field, @Nullable Filter filter,
       int limit) {
     SearchRequest searchRequest = new SearchRequest();
@@ -70,6 +78,30 @@ public class AutocompleteRequestHandler {
     return searchRequest;
   }
 
+  /**
+   * Builds the typeahead request that only does exact term lookups against the edge-ngram "autocomplete" subfield of
+   * the autocomplete fields. Unlike {@link #getSearchRequest}, the request neither runs a query string nor highlights,
+   * and only fetches the fields needed to build suggestions.
+   */
+  public SearchRequest getFastSearchRequest(@Nonnull String input, @Nullable Filter filter, int limit) {
+    BoolQueryBuilder prefixQuery = QueryBuilders.boolQuery().minimumShouldMatch(1);
+    _defaultAutocompleteFields.forEach(fieldName -> prefixQuery.should(
+        QueryBuilders.matchQuery(fieldName + "." + MappingsBuilder.AUTOCOMPLETE_SUBFIELD, input).operator(Operator.AND)));
+    BoolQueryBuilder finalQuery = QueryBuilders.boolQuery().must(prefixQuery);
+    finalQuery.filter(ESUtils.buildFilterQuery(filter));
+    finalQuery.mustNot(QueryBuilders.matchQuery("removed", true));
+
+    List<String> fetchedFields = new ArrayList<>(_defaultAutocompleteFields);
+    fetchedFields.add("urn");
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.size(limit);
+    searchSourceBuilder.query(finalQuery);
+    searchSourceBuilder.fetchSource(fetchedFields.toArray(new String[0]), null);
+    SearchRequest searchRequest = new SearchRequest();
+    searchRequest.source(searchSourceBuilder);
+    return searchRequest;
+  }
+
   private QueryBuilder getQuery(@Nonnull String query, @Nullable String field) {
     BoolQueryBuilder finalQuery = QueryBuilders.boolQuery();
     // Search for exact matches with higher boost and ngram matches
@@ -128,4 +160,48 @@ public class AutocompleteRequestHandler {
         .setSuggestions(new StringArray(results))
         .setEntities(new AutoCompleteEntityArray(entityResults));
   }
+
+  /**
+   * Extracts suggestions from the response to {@link #getFastSearchRequest}. The suggestion of a hit is the first value
+   * of its autocomplete fields that starts with the input, or its first value if none does.
+   */
+  public AutoCompleteResult extractFastResult(@Nonnull SearchResponse searchResponse, @Nonnull String input) {
+    final String lowercaseInput = input.toLowerCase();
+    Set<String> results = new LinkedHashSet<>();
+    Set<AutoCompleteEntity> entityResults = new HashSet<>();
+    for (SearchHit hit : searchResponse.getHits()) {
+      Map<String, Object> source = hit.getSourceAsMap();
+      List<String> values = _defaultAutocompleteFields.stream()
+          .flatMap(fieldName -> toStrings(source.get(fieldName)).stream())
+          .collect(Collectors.toList());
+      Optional<String> matchedFieldValue = values.stream()
+          .filter(value -> value.toLowerCase().startsWith(lowercaseInput))
+          .findFirst()
+          .map(Optional::of)
+          .orElse(values.stream().findFirst());
+      Optional<String> matchedUrn = Optional.ofNullable((String) source.get("urn"));
+      try {
+        if (matchedUrn.isPresent()) {
+          entityResults.add(new AutoCompleteEntity().setUrn(Urn.createFromString(matchedUrn.get())));
+        }
+      } catch (URISyntaxException e) {
+        throw new RuntimeException(String.format("Failed to create urn %s", matchedUrn.get()), e);
+      }
+      matchedFieldValue.ifPresent(results::add);
+    }
+    return new AutoCompleteResult()
+        .setQuery(input)
+        .setSuggestions(new StringArray(results))
+        .setEntities(new AutoCompleteEntityArray(entityResults));
+  }
+
+  private static List<String> toStrings(@Nullable Object value) {
+    if (value == null) {
+      return Collections.emptyList();
+    }
+    if (value instanceof Collection) {
+      return ((Collection<?>) value).stream().filter(item -> item != null).map(Object::toString).collect(Collectors.toList());
+    }
+    return ImmutableList.of(value.toString());
+  }
 }
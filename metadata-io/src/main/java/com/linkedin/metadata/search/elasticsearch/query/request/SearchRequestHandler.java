@@ -14,12 +14,14 @@ import com.linkedin.metadata.search.AggregationMetadataArray;
 import com.linkedin.metadata.search.FilterValueArray;
 import com.linkedin.metadata.search.MatchedField;
 import com.linkedin.metadata.search.MatchedFieldArray;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchEntity;
 import com.linkedin.metadata.search.SearchEntityArray;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.SearchResultMetadata;
 import com.linkedin.metadata.search.features.Features;
 import com.linkedin.metadata.search.utils.ESUtils;
+import com.linkedin.metadata.search.utils.ScrollCursorUtils;
 import com.linkedin.metadata.utils.SearchUtil;
 import io.opentelemetry.extension.annotations.WithSpan;
 import java.net.URISyntaxException;
@@ -65,6 +67,7 @@ public class SearchRequestHandler {
   private final Map<String, String> _filtersToDisplayName;
   private final int _maxTermBucketSize = 100;
   private static final String REMOVED = "removed";
+  private static final String URN_FIELD = "urn";
 
   private SearchRequestHandler(@Nonnull EntitySpec entitySpec) {
     _entitySpec = entitySpec;
@@ -136,7 +139,7 @@ public class SearchRequestHandler {
 
     searchSourceBuilder.from(from);
     searchSourceBuilder.size(size);
-    searchSourceBuilder.fetchSource("urn", null);
+    ESUtils.fetchDocValues(searchSourceBuilder, URN_FIELD);
 
     BoolQueryBuilder filterQuery = getFilterQuery(filter);
     searchSourceBuilder.query(QueryBuilders.boolQuery().must(getQuery(input)).must(filterQuery));
@@ -149,6 +152,41 @@ public class SearchRequestHandler {
     return searchRequest;
   }
 
+  /**
+   * Constructs a cursor based search request, which fetches the page of hits following the given sort values rather
+   * than skipping over "from" hits. Since the sort always ends with the urn, the order of hits is total and paging is
+   * stable. Aggregations are not computed, as they would be recomputed for every page.
+   *
+   * @param input the search input text
+   * @param filter the search filter
+   * @param sortCriterion {@link SortCriterion} to be applied to the search results
+   * @param searchAfter sort values of the last hit of the previous page, null to fetch the first page
+   * @param size the number of search hits to return
+   * @return a valid search request
+   */
+  @Nonnull
+  @WithSpan
+  public SearchRequest getScrollRequest(@Nonnull String input, @Nullable Filter filter,
+      @Nullable SortCriterion sortCriterion, @Nullable Object[] searchAfter, int size) {
+    SearchRequest searchRequest = new SearchRequest();
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+
+    searchSourceBuilder.size(size);
+    ESUtils.fetchDocValues(searchSourceBuilder, URN_FIELD);
+    if (searchAfter != null) {
+      searchSourceBuilder.searchAfter(searchAfter);
+    }
+
+    BoolQueryBuilder filterQuery = getFilterQuery(filter);
+    searchSourceBuilder.query(QueryBuilders.boolQuery().must(getQuery(input)).must(filterQuery));
+    searchSourceBuilder.highlighter(getHighlights());
+    ESUtils.buildSortOrder(searchSourceBuilder, sortCriterion);
+    searchRequest.source(searchSourceBuilder);
+    log.debug("Scroll request is: " + searchRequest.toString());
+
+    return searchRequest;
+  }
+
   /**
    * Returns a {@link SearchRequest} given filters to be applied to search query and sort criterion to be applied to
    * search results.
@@ -168,6 +206,7 @@ public class SearchRequestHandler {
     final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
     searchSourceBuilder.query(filterQuery);
     searchSourceBuilder.from(from).size(size);
+    ESUtils.fetchDocValues(searchSourceBuilder, URN_FIELD);
     ESUtils.buildSortOrder(searchSourceBuilder, sortCriterion);
     searchRequest.source(searchSourceBuilder);
 
@@ -234,6 +273,26 @@ public class SearchRequestHandler {
         .setNumEntities(totalCount);
   }
 
+  /**
+   * Extracts a page of a cursor based search. The scroll id points after the last hit, and is only set when the page
+   * is full, i.e. when there may be more hits.
+   */
+  @WithSpan
+  public ScrollResult extractScrollResult(@Nonnull SearchResponse searchResponse, int size) {
+    int totalCount = (int) searchResponse.getHits().getTotalHits().value;
+    SearchHit[] hits = searchResponse.getHits().getHits();
+    List<SearchEntity> resultList = getResults(searchResponse);
+
+    ScrollResult scrollResult = new ScrollResult().setEntities(new SearchEntityArray(resultList))
+        .setMetadata(new SearchResultMetadata().setAggregations(new AggregationMetadataArray()))
+        .setPageSize(size)
+        .setNumEntities(totalCount);
+    if (size > 0 && hits.length == size) {
+      scrollResult.setScrollId(ScrollCursorUtils.encode(hits[hits.length - 1].getSortValues()));
+    }
+    return scrollResult;
+  }
+
   @Nonnull
   private List<MatchedField> extractMatchedFields(@Nonnull Map<String, HighlightField> highlightedFields) {
     // Keep track of unique field values that matched for a given field name
@@ -288,7 +347,7 @@ public class SearchRequestHandler {
   @Nonnull
   private Urn getUrnFromSearchHit(@Nonnull SearchHit hit) {
     try {
-      return Urn.createFromString(hit.getSourceAsMap().get("urn").toString());
+      return Urn.createFromString(String.valueOf(ESUtils.getDocValue(hit, URN_FIELD)));
     } catch (URISyntaxException e) {
       throw new RuntimeException("Invalid urn in search document " + e);
     }
@@ -0,0 +1,226 @@
+package com.linkedin.metadata.search.elasticsearch.update;
+
+import com.codahale.metrics.Timer;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.rest.RestStatus;
+
+
+/**
+ * Sends the bulk requests of a {@link org.elasticsearch.action.bulk.BulkProcessor} with flow control.
+ *
+ * Producers are blocked while the in-flight actions or bytes are above the high-water marks, so a slow cluster slows
+ * down writers instead of piling up requests. Item-level failures with a transient status (and requests that failed as
+ * a whole) are retried with exponential backoff, retrying only the failed actions. Actions that still fail are handed
+ * to the dead-letter handler, and the bulk processor listener gets one response covering every action of the request.
+ */
+@Slf4j
+public class BulkWriteHandler implements BiConsumer<BulkRequest, ActionListener<BulkResponse>> {
+  private static final Set<RestStatus> RETRYABLE_STATUSES =
+      ImmutableSet.of(RestStatus.TOO_MANY_REQUESTS, RestStatus.SERVICE_UNAVAILABLE, RestStatus.BAD_GATEWAY,
+          RestStatus.GATEWAY_TIMEOUT);
+
+  private final BiConsumer<BulkRequest, ActionListener<BulkResponse>> _client;
+  private final int _maxInFlightActions;
+  private final long _maxInFlightBytes;
+  private final int _numRetries;
+  private final long _retryIntervalMillis;
+  private final BiConsumer<DocWriteRequest<?>, BulkItemResponse.Failure> _deadLetterHandler;
+  private final ScheduledExecutorService _retryExecutor = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("es-bulk-retry-%d").build());
+
+  private int _inFlightActions = 0;
+  private long _inFlightBytes = 0;
+
+  public BulkWriteHandler(@Nonnull BiConsumer<BulkRequest, ActionListener<BulkResponse>> client,
+      int maxInFlightActions, long maxInFlightBytes, int numRetries, long retryIntervalMillis) {
+    this(client, maxInFlightActions, maxInFlightBytes, numRetries, retryIntervalMillis,
+        BulkWriteHandler::logDeadLetter);
+  }
+
+  public BulkWriteHandler(@Nonnull BiConsumer<BulkRequest, ActionListener<BulkResponse>> client,
+      int maxInFlightActions, long maxInFlightBytes, int numRetries, long retryIntervalMillis,
+      @Nonnull BiConsumer<DocWriteRequest<?>, BulkItemResponse.Failure> deadLetterHandler) {
+    _client = client;
+    _maxInFlightActions = maxInFlightActions;
+    _maxInFlightBytes = maxInFlightBytes;
+    _numRetries = numRetries;
+    _retryIntervalMillis = retryIntervalMillis;
+    _deadLetterHandler = deadLetterHandler;
+  }
+
+  @Override
+  public void accept(@Nonnull BulkRequest request, @Nonnull ActionListener<BulkResponse> listener) {
+    final int actions = request.numberOfActions();
+    final long bytes = request.estimatedSizeInBytes();
+    try {
+      acquire(actions, bytes);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      listener.onFailure(e);
+      return;
+    }
+    new BulkWrite(request, actions, bytes, listener).send();
+  }
+
+  public synchronized int getInFlightActions() {
+    return _inFlightActions;
+  }
+
+  public synchronized long getInFlightBytes() {
+    return _inFlightBytes;
+  }
+
+  private synchronized void acquire(int actions, long bytes) throws InterruptedException {
+    if (isAboveHighWaterMark(actions, bytes)) {
+      MetricUtils.counter(this.getClass(), "throttled").inc();
+      try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "throttleWait").time()) {
+        while (isAboveHighWaterMark(actions, bytes)) {
+          wait();
+        }
+      }
+    }
+    _inFlightActions += actions;
+    _inFlightBytes += bytes;
+  }
+
+  // A request above the marks on its own is still let through once nothing else is in flight
+  private boolean isAboveHighWaterMark(int actions, long bytes) {
+    return _inFlightActions > 0 && (_inFlightActions + actions > _maxInFlightActions
+        || _inFlightBytes + bytes > _maxInFlightBytes);
+  }
+
+  private synchronized void release(int actions, long bytes) {
+    _inFlightActions -= actions;
+    _inFlightBytes -= bytes;
+    notifyAll();
+  }
+
+  private static void logDeadLetter(@Nonnull DocWriteRequest<?> request, @Nonnull BulkItemResponse.Failure failure) {
+    log.error("Giving up on {} of document {} in index {}: {}. Request: {}", request.opType(), request.id(),
+        request.index(), failure.getMessage(), request);
+  }
+
+  /**
+   * One bulk request of the bulk processor, along with the retries of its failed actions.
+   */
+  private class BulkWrite implements ActionListener<BulkResponse> {
+    private final BulkRequest _request;
+    private final int _actions;
+    private final long _bytes;
+    private final ActionListener<BulkResponse> _listener;
+    private final BulkItemResponse[] _results;
+    private final long _startNanos = System.nanoTime();
+    private final Timer.Context _latency = MetricUtils.timer(BulkWriteHandler.class, "bulk").time();
+
+    // Positions in the original request of the actions sent by the current attempt
+    private List<Integer> _pending;
+    private BulkRequest _attemptRequest;
+    private int _attempt = 0;
+
+    BulkWrite(@Nonnull BulkRequest request, int actions, long bytes, @Nonnull ActionListener<BulkResponse> listener) {
+      _request = request;
+      _actions = actions;
+      _bytes = bytes;
+      _listener = listener;
+      _results = new BulkItemResponse[actions];
+      _pending = new ArrayList<>(actions);
+      for (int i = 0; i < actions; i++) {
+        _pending.add(i);
+      }
+      _attemptRequest = request;
+    }
+
+    void send() {
+      try {
+        _client.accept(_attemptRequest, this);
+      } catch (Exception e) {
+        onFailure(e);
+      }
+    }
+
+    @Override
+    public void onResponse(BulkResponse response) {
+      final List<Integer> retries = new ArrayList<>();
+      for (BulkItemResponse item : response.getItems()) {
+        final int position = _pending.get(item.getItemId());
+        if (!item.isFailed()) {
+          _results[position] = new BulkItemResponse(position, item.getOpType(), item.getResponse());
+          continue;
+        }
+        if (item.getFailure().getStatus() == RestStatus.TOO_MANY_REQUESTS) {
+          MetricUtils.counter(BulkWriteHandler.class, "rejected").inc();
+        }
+        if (_attempt < _numRetries && RETRYABLE_STATUSES.contains(item.getFailure().getStatus())) {
+          retries.add(position);
+        } else {
+          fail(position, item.getFailure());
+        }
+      }
+      retryOrComplete(retries);
+    }
+
+    @Override
+    public void onFailure(Exception e) {
+      MetricUtils.counter(BulkWriteHandler.class, "failedRequests").inc();
+      if (_attempt < _numRetries) {
+        log.warn("Bulk request of {} actions failed, retrying", _pending.size(), e);
+        retryOrComplete(_pending);
+        return;
+      }
+      for (int position : _pending) {
+        final DocWriteRequest<?> request = _request.requests().get(position);
+        fail(position, new BulkItemResponse.Failure(request.index(), request.type(), request.id(), e));
+      }
+      retryOrComplete(new ArrayList<>());
+    }
+
+    private void fail(int position, @Nonnull BulkItemResponse.Failure failure) {
+      final DocWriteRequest<?> request = _request.requests().get(position);
+      _results[position] = new BulkItemResponse(position, request.opType(), failure);
+      MetricUtils.counter(BulkWriteHandler.class, "deadLettered").inc();
+      try {
+        _deadLetterHandler.accept(request, failure);
+      } catch (Exception e) {
+        log.error("Failed to dead-letter {} of document {} in index {}", request.opType(), request.id(),
+            request.index(), e);
+      }
+    }
+
+    private void retryOrComplete(@Nonnull List<Integer> retries) {
+      if (retries.isEmpty()) {
+        release(_actions, _bytes);
+        _latency.stop();
+        _listener.onResponse(
+            new BulkResponse(_results, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - _startNanos)));
+        return;
+      }
+      final BulkRequest retryRequest = new BulkRequest();
+      retryRequest.timeout(_request.timeout());
+      retryRequest.setRefreshPolicy(_request.getRefreshPolicy());
+      retries.forEach(position -> retryRequest.add(_request.requests().get(position)));
+      MetricUtils.counter(BulkWriteHandler.class, "retried").inc(retries.size());
+
+      _pending = new ArrayList<>(retries);
+      _attemptRequest = retryRequest;
+      final long delayMillis = _retryIntervalMillis << _attempt;
+      _attempt++;
+      _retryExecutor.schedule(this::send, delayMillis, TimeUnit.MILLISECONDS);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package com.linkedin.metadata.search.elasticsearch.update;
+
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.ElasticsearchException;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.CreateIndexRequest;
+import org.elasticsearch.client.indices.GetIndexRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+
+
+/**
+ * Time-bounded leases stored in Elasticsearch, so that background jobs started by every instance run on a single
+ * instance at a time.
+ *
+ * A lease is held until it expires, unless renewed by its holder. So a holder that dies delays the job by the duration
+ * of its lease at most. Leases assume that the clocks of the instances are roughly in sync.
+ */
+@Slf4j
+public class ESLeaseDAO {
+  public static final String INDEX_NAME = "lease_index_v1";
+  private static final Map<String, Object> MAPPINGS = ImmutableMap.of("properties",
+      ImmutableMap.of("holder", ImmutableMap.of("type", "keyword"), "expiresAt", ImmutableMap.of("type", "long")));
+
+  // Takes the lease if it is free, expired or already held by the given holder, and leaves it untouched otherwise
+  private static final String ACQUIRE_SCRIPT = String.join("\n",
+      "if (ctx._source.holder != null && ctx._source.holder != params.holder && ctx._source.expiresAt > params.now) {",
+      "  ctx.op = 'none';",
+      "} else {",
+      "  ctx._source.holder = params.holder;",
+      "  ctx._source.expiresAt = params.now + params.durationMillis;",
+      "}");
+  private static final String RELEASE_SCRIPT = String.join("\n",
+      "if (ctx._source.holder == params.holder) {",
+      "  ctx._source.expiresAt = 0;",
+      "} else {",
+      "  ctx.op = 'none';",
+      "}");
+
+  private final RestHighLevelClient _searchClient;
+  private final String _indexName;
+  // Identifies this instance as the holder of its leases
+  private final String _holder = UUID.randomUUID().toString();
+  private volatile boolean _indexCreated = false;
+
+  public ESLeaseDAO(@Nonnull RestHighLevelClient searchClient, @Nonnull IndexConvention indexConvention) {
+    _searchClient = searchClient;
+    _indexName = indexConvention.getIndexName(INDEX_NAME);
+  }
+
+  /**
+   * Takes or renews the given lease for the given duration.
+   *
+   * @return whether this instance holds the lease, false if another instance does or the lease could not be checked
+   */
+  public boolean tryAcquire(@Nonnull String leaseName, long durationMillis) {
+    try {
+      createIndexIfNeeded();
+      final UpdateRequest updateRequest = new UpdateRequest(_indexName, leaseName).script(
+          new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, ACQUIRE_SCRIPT,
+              ImmutableMap.of("holder", _holder, "now", System.currentTimeMillis(), "durationMillis", durationMillis)))
+          .scriptedUpsert(true)
+          .upsert(new HashMap<>());
+      return _searchClient.update(updateRequest, RequestOptions.DEFAULT).getResult() != DocWriteResponse.Result.NOOP;
+    } catch (IOException | ElasticsearchException e) {
+      // Including version conflicts, when another instance takes the lease at the same time
+      log.warn("Failed to acquire lease {}: {}", leaseName, e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Gives up the given lease, if held by this instance, so that another instance can take it right away.
+   */
+  public void release(@Nonnull String leaseName) {
+    try {
+      _searchClient.update(new UpdateRequest(_indexName, leaseName).script(
+          new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, RELEASE_SCRIPT,
+              ImmutableMap.of("holder", _holder))), RequestOptions.DEFAULT);
+    } catch (IOException | ElasticsearchException e) {
+      // The lease expires on its own
+      log.warn("Failed to release lease {}: {}", leaseName, e.toString());
+    }
+  }
+
+  private void createIndexIfNeeded() throws IOException {
+    if (_indexCreated) {
+      return;
+    }
+    if (!_searchClient.indices().exists(new GetIndexRequest(_indexName), RequestOptions.DEFAULT)) {
+      try {
+        _searchClient.indices().create(new CreateIndexRequest(_indexName).mapping(MAPPINGS), RequestOptions.DEFAULT);
+      } catch (ElasticsearchException e) {
+        // Created by another instance in the meantime
+        if (e.status() != RestStatus.BAD_REQUEST) {
+          throw e;
+        }
+      }
+    }
+    _indexCreated = true;
+  }
+}
@@ -1,10 +1,10 @@
 package com.linkedin.metadata.search.elasticsearch.update;
 
 import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.search.elasticsearch.indexbuilder.ReindexWriteRouter;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import java.io.IOException;
 import javax.annotation.Nonnull;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.action.delete.DeleteRequest;
@@ -20,13 +20,22 @@ import org.elasticsearch.index.reindex.DeleteByQueryRequest;
 
 
 @Slf4j
-@RequiredArgsConstructor
 public class ESWriteDAO {
 
   private final EntityRegistry entityRegistry;
   private final RestHighLevelClient searchClient;
   private final IndexConvention indexConvention;
   private final BulkProcessor bulkProcessor;
+  private final ReindexWriteRouter reindexWriteRouter;
+
+  public ESWriteDAO(EntityRegistry entityRegistry, RestHighLevelClient searchClient, IndexConvention indexConvention,
+      BulkProcessor bulkProcessor) {
+    this.entityRegistry = entityRegistry;
+    this.searchClient = searchClient;
+    this.indexConvention = indexConvention;
+    this.bulkProcessor = bulkProcessor;
+    this.reindexWriteRouter = new ReindexWriteRouter(searchClient);
+  }
 
   /**
    * Updates or inserts the given search document.
@@ -37,10 +46,13 @@ public class ESWriteDAO {
    */
   public void upsertDocument(@Nonnull String entityName, @Nonnull String document, @Nonnull String docId) {
     final String indexName = indexConvention.getIndexName(entityRegistry.getEntitySpec(entityName));
-    final IndexRequest indexRequest = new IndexRequest(indexName).id(docId).source(document, XContentType.JSON);
-    final UpdateRequest updateRequest =
-        new UpdateRequest(indexName, docId).doc(document, XContentType.JSON).detectNoop(false).upsert(indexRequest);
-    bulkProcessor.add(updateRequest);
+    reindexWriteRouter.journal(indexName, docId);
+    for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+      final IndexRequest indexRequest = new IndexRequest(index).id(docId).source(document, XContentType.JSON);
+      final UpdateRequest updateRequest =
+          new UpdateRequest(index, docId).doc(document, XContentType.JSON).detectNoop(false).upsert(indexRequest);
+      bulkProcessor.add(updateRequest);
+    }
   }
 
   /**
@@ -51,7 +63,10 @@ public class ESWriteDAO {
    */
   public void deleteDocument(@Nonnull String entityName, @Nonnull String docId) {
     final String indexName = indexConvention.getIndexName(entityRegistry.getEntitySpec(entityName));
-    bulkProcessor.add(new DeleteRequest(indexName).id(docId));
+    reindexWriteRouter.journal(indexName, docId);
+    for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+      bulkProcessor.add(new DeleteRequest(index).id(docId));
+    }
   }
 
   /**
@@ -9,9 +9,11 @@ import java.util.Arrays;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.common.document.DocumentField;
 import org.elasticsearch.index.query.BoolQueryBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.ScoreSortBuilder;
@@ -38,6 +40,32 @@ public class ESUtils {
 
   }
 
+  /**
+   * Requests the doc values of the given fields instead of the source of the matching documents. Keyword and numeric
+   * fields can then be read with {@link #getDocValue(SearchHit, String)}, without parsing the JSON source of each hit.
+   *
+   * @param searchSourceBuilder the search source builder of the request
+   * @param fields the fields to return
+   */
+  public static void fetchDocValues(@Nonnull SearchSourceBuilder searchSourceBuilder, @Nonnull String... fields) {
+    searchSourceBuilder.fetchSource(false);
+    Arrays.stream(fields).forEach(searchSourceBuilder::docValueField);
+  }
+
+  /**
+   * Reads the first doc value of a field of a search hit, requested with
+   * {@link #fetchDocValues(SearchSourceBuilder, String...)}.
+   *
+   * @param hit the search hit
+   * @param field the name of the field
+   * @return the value of the field, or null if the document does not have one
+   */
+  @Nullable
+  public static Object getDocValue(@Nonnull SearchHit hit, @Nonnull String field) {
+    final DocumentField documentField = hit.field(field);
+    return documentField == null ? null : documentField.getValue();
+  }
+
   /**
    * Constructs the filter query given filter map.
    *
@@ -0,0 +1,76 @@
+package com.linkedin.metadata.search.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Encodes and decodes the opaque cursors (scroll ids) used for search_after based pagination.
+ *
+ * A single entity cursor holds the sort values of the last returned hit. A cross entity cursor holds one single entity
+ * cursor per entity, where {@link #EXHAUSTED} marks entities that have no more results.
+ */
+public class ScrollCursorUtils {
+  public static final String EXHAUSTED = "";
+
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final TypeReference<Map<String, String>> COMPOSITE_TYPE = new TypeReference<Map<String, String>>() {
+  };
+
+  private ScrollCursorUtils() {
+  }
+
+  @Nonnull
+  public static String encode(@Nonnull Object[] sortValues) {
+    return encodeJson(sortValues);
+  }
+
+  @Nonnull
+  public static Object[] decode(@Nonnull String scrollId) {
+    try {
+      final List<?> sortValues = OBJECT_MAPPER.readValue(decodeBase64(scrollId), List.class);
+      return sortValues.toArray();
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid scroll id " + scrollId, e);
+    }
+  }
+
+  @Nonnull
+  public static String encodeComposite(@Nonnull Map<String, String> scrollIdPerEntity) {
+    return encodeJson(scrollIdPerEntity);
+  }
+
+  @Nonnull
+  public static Map<String, String> decodeComposite(@Nonnull String scrollId) {
+    try {
+      return OBJECT_MAPPER.readValue(decodeBase64(scrollId), COMPOSITE_TYPE);
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid scroll id " + scrollId, e);
+    }
+  }
+
+  private static String encodeJson(@Nonnull Object value) {
+    try {
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(OBJECT_MAPPER.writeValueAsString(value).getBytes(StandardCharsets.UTF_8));
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to encode scroll id", e);
+    }
+  }
+
+  private static String decodeBase64(@Nonnull String scrollId) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(scrollId), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid scroll id " + scrollId, e);
+    }
+  }
+}
@@ -1,45 +1,128 @@
 package com.linkedin.metadata.systemmetadata;
 
-import com.google.common.collect.ImmutableList;
+import com.datahub.util.exception.ESQueryException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.metadata.search.elasticsearch.indexbuilder.ReindexWriteRouter;
+import com.linkedin.metadata.search.utils.ESUtils;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.annotation.Nonnull;
-import lombok.RequiredArgsConstructor;
+import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.http.HttpStatus;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequest;
 import org.elasticsearch.action.delete.DeleteResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.Request;
 import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.Response;
+import org.elasticsearch.client.ResponseException;
+import org.elasticsearch.client.ResponseListener;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentFactory;
+import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.BulkByScrollResponse;
 import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
-import org.elasticsearch.search.aggregations.PipelineAggregatorBuilders;
-import org.elasticsearch.search.aggregations.bucket.terms.TermsAggregationBuilder;
-import org.elasticsearch.search.aggregations.pipeline.BucketSortPipelineAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregationBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeValuesSourceBuilder;
+import org.elasticsearch.search.aggregations.bucket.composite.TermsValuesSourceBuilder;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.sort.FieldSortBuilder;
 import org.elasticsearch.search.sort.SortOrder;
 
 import static com.linkedin.metadata.systemmetadata.ElasticSearchSystemMetadataService.INDEX_NAME;
+import static com.linkedin.metadata.systemmetadata.ElasticSearchSystemMetadataService.RUN_SUMMARY_INDEX_NAME;
 
 
 @Slf4j
-@RequiredArgsConstructor
 public class ESSystemMetadataDAO {
+  // Fields of the documents returned by searches, which are all keywords or numbers and fetched from doc values
+  static final String[] SUMMARY_FIELDS = {"urn", "aspect", "runId", "lastUpdated"};
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final int RETRY_ON_CONFLICT = 5;
+  // Records the time the run or the status of a row changed, and the run it was moved out of, so that the summaries of
+  // the runs are aggregated again
+  private static final String UPSERT_SCRIPT = String.join("\n",
+      "if (ctx._source.runId != null && ctx._source.runId != params.doc.runId) {",
+      "  ctx._source.previousRunId = ctx._source.runId;",
+      "  ctx._source.changedAt = params.now;",
+      "}",
+      "ctx._source.putAll(params.doc);");
+  private static final String SET_REMOVED_SCRIPT = String.join("\n",
+      "ctx._source.removed = params.removed;",
+      "ctx._source.changedAt = params.now;");
+  // Leaves missing documents missing, instead of creating them with the removed flag only
+  private static final String SET_REMOVED_IF_EXISTS_SCRIPT = String.join("\n",
+      "if (ctx._source.urn == null) {",
+      "  ctx.op = 'none';",
+      "} else {",
+      "  ctx._source.removed = params.removed;",
+      "  ctx._source.changedAt = params.now;",
+      "}");
+  // Adds rows to a run summary, or removes rows from it if it exists
+  private static final String ADD_TO_RUN_SUMMARY_SCRIPT = String.join("\n",
+      "if (ctx._source.runId == null && params.rows <= 0) {",
+      "  ctx.op = 'none';",
+      "} else {",
+      "  long rows = ctx._source.getOrDefault('rows', 0) + params.rows;",
+      "  long removedRows = ctx._source.getOrDefault('removedRows', 0) + params.removedRows;",
+      "  rows = rows < 0 ? 0 : rows;",
+      "  removedRows = removedRows < 0 ? 0 : (removedRows > rows ? rows : removedRows);",
+      "  ctx._source.runId = params.runId;",
+      "  ctx._source.rows = rows;",
+      "  ctx._source.removedRows = removedRows;",
+      "  ctx._source.activeRows = rows - removedRows;",
+      "  if (params.firstTimestamp != null",
+      "      && (ctx._source.firstTimestamp == null || params.firstTimestamp < ctx._source.firstTimestamp)) {",
+      "    ctx._source.firstTimestamp = params.firstTimestamp;",
+      "  }",
+      "  if (params.lastTimestamp != null",
+      "      && (ctx._source.lastTimestamp == null || params.lastTimestamp > ctx._source.lastTimestamp)) {",
+      "    ctx._source.lastTimestamp = params.lastTimestamp;",
+      "  }",
+      "  ctx._source.updatedAt = params.now;",
+      "}");
+
   private final RestHighLevelClient client;
   private final IndexConvention indexConvention;
   private final BulkProcessor bulkProcessor;
+  private final ReindexWriteRouter reindexWriteRouter;
+
+  public ESSystemMetadataDAO(RestHighLevelClient client, IndexConvention indexConvention,
+      BulkProcessor bulkProcessor) {
+    this.client = client;
+    this.indexConvention = indexConvention;
+    this.bulkProcessor = bulkProcessor;
+    this.reindexWriteRouter = new ReindexWriteRouter(client);
+  }
 
   /**
    * Updates or inserts the given search document.
@@ -48,28 +131,45 @@ public class ESSystemMetadataDAO {
    * @param docId the ID of the document
    */
   public void upsertDocument(@Nonnull String docId, @Nonnull String document) {
-    final IndexRequest indexRequest =
-        new IndexRequest(indexConvention.getIndexName(INDEX_NAME)).id(docId).source(document, XContentType.JSON);
-    final UpdateRequest updateRequest =
-        new UpdateRequest(indexConvention.getIndexName(INDEX_NAME), docId).doc(document, XContentType.JSON)
-            .detectNoop(false)
-            .upsert(indexRequest);
-    bulkProcessor.add(updateRequest);
+    final String indexName = indexConvention.getIndexName(INDEX_NAME);
+    final Map<String, Object> params = new HashMap<>();
+    params.put("doc", XContentHelper.convertToMap(new BytesArray(document), false, XContentType.JSON).v2());
+    params.put("now", System.currentTimeMillis());
+    reindexWriteRouter.journal(indexName, docId);
+    for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+      bulkProcessor.add(new UpdateRequest(index, docId).script(
+          new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, UPSERT_SCRIPT, params))
+          .scriptedUpsert(true)
+          .upsert(new HashMap<>()));
+    }
   }
 
   public DeleteResponse deleteByDocId(@Nonnull final String docId) {
-    DeleteRequest deleteRequest = new DeleteRequest(indexConvention.getIndexName(INDEX_NAME), docId);
+    final String indexName = indexConvention.getIndexName(INDEX_NAME);
+    reindexWriteRouter.journal(indexName, docId);
 
     try {
-      final DeleteResponse deleteResponse = client.delete(deleteRequest, RequestOptions.DEFAULT);
+      DeleteResponse deleteResponse = null;
+      // The response of the delete from the index itself, which comes first, is the one returned
+      for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+        final DeleteResponse response = client.delete(new DeleteRequest(index, docId), RequestOptions.DEFAULT);
+        deleteResponse = deleteResponse == null ? response : deleteResponse;
+      }
       return deleteResponse;
     } catch (IOException e) {
-      log.error("ERROR: Failed to delete by query. See stacktrace for a more detailed error:");
-      e.printStackTrace();
+      log.error("Failed to delete system metadata document {}", docId, e);
     }
     return null;
   }
 
+  /**
+   * Journals the documents matching the given query, then gets the indices a write by this query must run against.
+   */
+  private String[] prepareWriteByQuery(@Nonnull String indexName, @Nonnull QueryBuilder query) {
+    reindexWriteRouter.journalMatching(indexName, query);
+    return reindexWriteRouter.getWriteIndices(indexName).toArray(new String[0]);
+  }
+
   public BulkByScrollResponse deleteByUrn(@Nonnull final String urn) {
     BoolQueryBuilder finalQuery = QueryBuilders.boolQuery();
     finalQuery.must(QueryBuilders.termQuery("urn", urn));
@@ -78,14 +178,13 @@ public class ESSystemMetadataDAO {
 
     deleteByQueryRequest.setQuery(finalQuery);
 
-    deleteByQueryRequest.indices(indexConvention.getIndexName(INDEX_NAME));
+    deleteByQueryRequest.indices(prepareWriteByQuery(indexConvention.getIndexName(INDEX_NAME), finalQuery));
 
     try {
       final BulkByScrollResponse deleteResponse = client.deleteByQuery(deleteByQueryRequest, RequestOptions.DEFAULT);
       return deleteResponse;
     } catch (IOException e) {
-      log.error("ERROR: Failed to delete by query. See stacktrace for a more detailed error:");
-      e.printStackTrace();
+      log.error("Failed to delete the system metadata of urn {}", urn, e);
     }
     return null;
   }
@@ -99,18 +198,164 @@ public class ESSystemMetadataDAO {
 
     deleteByQueryRequest.setQuery(finalQuery);
 
-    deleteByQueryRequest.indices(indexConvention.getIndexName(INDEX_NAME));
+    deleteByQueryRequest.indices(prepareWriteByQuery(indexConvention.getIndexName(INDEX_NAME), finalQuery));
 
     try {
       final BulkByScrollResponse deleteResponse = client.deleteByQuery(deleteByQueryRequest, RequestOptions.DEFAULT);
       return deleteResponse;
     } catch (IOException e) {
-      log.error("ERROR: Failed to delete by query. See stacktrace for a more detailed error:");
-      e.printStackTrace();
+      log.error("Failed to delete the system metadata of urn {} aspect {}", urn, aspect, e);
     }
     return null;
   }
 
+  /**
+   * Sets the removed flag of the given document, after the writes to it already sent to the bulk processor. Missing
+   * documents are left missing.
+   */
+  public void setStatusByDocId(@Nonnull String docId, boolean removed) {
+    final String indexName = indexConvention.getIndexName(INDEX_NAME);
+    reindexWriteRouter.journal(indexName, docId);
+    for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+      bulkProcessor.add(new UpdateRequest(index, docId).script(
+          new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, SET_REMOVED_IF_EXISTS_SCRIPT,
+              ImmutableMap.of("removed", removed, "now", System.currentTimeMillis())))
+          .scriptedUpsert(true)
+          .upsert(new HashMap<>()));
+    }
+  }
+
+  /**
+   * Submits a single update by query setting the removed flag of all the documents of the given urn, which
+   * Elasticsearch runs as a task in batches over every matching document, without waiting for it. Only the documents
+   * whose flag differs are rewritten. Documents not searchable yet when the task starts, or written while it runs, are
+   * skipped by it.
+   *
+   * @return a future completed with the id of the task once it is submitted, or completed exceptionally if it could not
+   *     be
+   */
+  public CompletableFuture<String> submitSetStatusByUrn(@Nonnull final String urn, final boolean removed) {
+    final CompletableFuture<String> future = new CompletableFuture<>();
+    BoolQueryBuilder finalQuery = QueryBuilders.boolQuery();
+    finalQuery.filter(QueryBuilders.termQuery("urn", urn));
+    if (removed) {
+      finalQuery.mustNot(QueryBuilders.termQuery("removed", "true"));
+    } else {
+      finalQuery.filter(QueryBuilders.termQuery("removed", "true"));
+    }
+    final Script script = new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, SET_REMOVED_SCRIPT,
+        ImmutableMap.of("removed", removed, "now", System.currentTimeMillis()));
+
+    // The high level client only runs updates by query to completion
+    final Request request;
+    try {
+      final String[] indices = prepareWriteByQuery(indexConvention.getIndexName(INDEX_NAME), finalQuery);
+      request = new Request("POST", "/" + String.join(",", indices) + "/_update_by_query");
+      request.addParameter("wait_for_completion", "false");
+      // Documents written concurrently are skipped instead of aborting the update of the remaining ones
+      request.addParameter("conflicts", "proceed");
+      request.setJsonEntity(Strings.toString(
+          XContentFactory.jsonBuilder().startObject().field("query", finalQuery).field("script", script).endObject()));
+    } catch (IOException | RuntimeException e) {
+      future.completeExceptionally(e);
+      return future;
+    }
+
+    client.getLowLevelClient().performRequestAsync(request, new ResponseListener() {
+      @Override
+      public void onSuccess(Response response) {
+        try {
+          future.complete(OBJECT_MAPPER.readTree(EntityUtils.toString(response.getEntity())).get("task").asText());
+        } catch (IOException | RuntimeException e) {
+          future.completeExceptionally(e);
+        }
+      }
+
+      @Override
+      public void onFailure(Exception e) {
+        future.completeExceptionally(e);
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Gets the given task as returned by the tasks API, which tells whether it is "completed", and holds its "response"
+   * or its "error" once it is.
+   *
+   * @return the task, or null if it is unknown to Elasticsearch
+   * @throws ESQueryException if the task could not be fetched
+   */
+  @Nullable
+  public JsonNode getTask(@Nonnull String taskId) {
+    try {
+      final Response response = client.getLowLevelClient().performRequest(new Request("GET", "/_tasks/" + taskId));
+      return OBJECT_MAPPER.readTree(EntityUtils.toString(response.getEntity()));
+    } catch (ResponseException e) {
+      if (e.getResponse().getStatusLine().getStatusCode() == HttpStatus.SC_NOT_FOUND) {
+        return null;
+      }
+      throw new ESQueryException("Failed to get task " + taskId + ": ", e);
+    } catch (IOException e) {
+      throw new ESQueryException("Failed to get task " + taskId + ": ", e);
+    }
+  }
+
+  /**
+   * Gets the distinct runs of the documents of the given urn, or of its given aspect, as the buckets of the "runId"
+   * terms aggregation, along with the count of their removed documents in the "removedRows" filter sub-aggregation.
+   */
+  @Nullable
+  public SearchResponse findRunsOfRows(@Nonnull String urn, @Nullable String aspect) {
+    BoolQueryBuilder finalQuery = QueryBuilders.boolQuery();
+    finalQuery.filter(QueryBuilders.termQuery("urn", urn));
+    if (aspect != null) {
+      finalQuery.filter(QueryBuilders.termQuery("aspect", aspect));
+    }
+
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(finalQuery);
+    searchSourceBuilder.size(0);
+    searchSourceBuilder.aggregation(AggregationBuilders.terms("runId")
+        .field("runId")
+        .size(ESUtils.MAX_RESULT_SIZE)
+        .subAggregation(AggregationBuilders.filter("removedRows", QueryBuilders.termQuery("removed", "true"))));
+
+    SearchRequest searchRequest = new SearchRequest(indexConvention.getIndexName(INDEX_NAME));
+    searchRequest.source(searchSourceBuilder);
+
+    try {
+      return client.search(searchRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      log.error("Failed to find the runs of urn {} aspect {}", urn, aspect, e);
+    }
+    return null;
+  }
+
+  /**
+   * Gets the distinct runs of the documents whose run or status changed since the given time, as the buckets of the
+   * "runId" terms aggregation, along with the runs they were moved out of, as the buckets of the "previousRunId" one.
+   *
+   * @throws ESQueryException if the runs could not be fetched
+   */
+  public SearchResponse findRunsOfRowsChangedSince(long timestamp) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(QueryBuilders.boolQuery().filter(QueryBuilders.rangeQuery("changedAt").gte(timestamp)));
+    searchSourceBuilder.size(0);
+    searchSourceBuilder.aggregation(AggregationBuilders.terms("runId").field("runId").size(ESUtils.MAX_RESULT_SIZE));
+    searchSourceBuilder.aggregation(
+        AggregationBuilders.terms("previousRunId").field("previousRunId").size(ESUtils.MAX_RESULT_SIZE));
+
+    SearchRequest searchRequest = new SearchRequest(indexConvention.getIndexName(INDEX_NAME));
+    searchRequest.source(searchSourceBuilder);
+
+    try {
+      return client.search(searchRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      throw new ESQueryException("Failed to find the runs of changed rows: ", e);
+    }
+  }
+
   public SearchResponse findByParams(Map<String, String> searchParams, boolean includeSoftDeleted, int from, int size) {
     SearchRequest searchRequest = new SearchRequest();
 
@@ -130,6 +375,7 @@ public class ESSystemMetadataDAO {
 
     searchSourceBuilder.from(from);
     searchSourceBuilder.size(size);
+    ESUtils.fetchDocValues(searchSourceBuilder, SUMMARY_FIELDS);
 
     searchRequest.source(searchSourceBuilder);
 
@@ -139,7 +385,7 @@ public class ESSystemMetadataDAO {
       final SearchResponse searchResponse = client.search(searchRequest, RequestOptions.DEFAULT);
       return searchResponse;
     } catch (IOException e) {
-      e.printStackTrace();
+      log.error("Failed to find system metadata by {}", searchParams, e);
     }
     return null;
   }
@@ -156,39 +402,263 @@ public class ESSystemMetadataDAO {
     return findByParams(Collections.singletonMap("runId", runId), includeSoftDeleted, from, size);
   }
 
-  public SearchResponse findRuns(Integer pageOffset, Integer pageSize) {
+  /**
+   * Gets the page of documents of the given run that comes after the given sort values, ordered by urn and aspect.
+   * Unlike {@link #findByRunId}, paging is not capped by the max result size, and documents removed behind the cursor
+   * do not shift the following pages.
+   *
+   * @throws ESQueryException if the page could not be fetched
+   */
+  public SearchResponse scrollByRunId(String runId, boolean includeSoftDeleted, @Nullable Object[] searchAfter,
+      int size) {
+    return scroll(QueryBuilders.termQuery("runId", runId), includeSoftDeleted, searchAfter, size);
+  }
 
-    SearchRequest searchRequest = new SearchRequest();
+  /**
+   * Same as {@link #scrollByRunId}, for the documents of any of the given urns.
+   */
+  public SearchResponse scrollByUrns(List<String> urns, boolean includeSoftDeleted, @Nullable Object[] searchAfter,
+      int size) {
+    return scroll(QueryBuilders.termsQuery("urn", urns), includeSoftDeleted, searchAfter, size);
+  }
+
+  private SearchResponse scroll(QueryBuilder query, boolean includeSoftDeleted, @Nullable Object[] searchAfter,
+      int size) {
+    BoolQueryBuilder finalQuery = QueryBuilders.boolQuery().filter(query);
+    if (!includeSoftDeleted) {
+      finalQuery.mustNot(QueryBuilders.termQuery("removed", "true"));
+    }
 
     SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(finalQuery);
+    searchSourceBuilder.size(size);
+    searchSourceBuilder.sort(new FieldSortBuilder("urn").order(SortOrder.ASC));
+    searchSourceBuilder.sort(new FieldSortBuilder("aspect").order(SortOrder.ASC));
+    ESUtils.fetchDocValues(searchSourceBuilder, SUMMARY_FIELDS);
+    if (searchAfter != null) {
+      searchSourceBuilder.searchAfter(searchAfter);
+    }
+
+    SearchRequest searchRequest = new SearchRequest();
+    searchRequest.source(searchSourceBuilder);
+    searchRequest.indices(indexConvention.getIndexName(INDEX_NAME));
+
+    // Failing rather than returning no page, which callers would take for the end of the rows
+    try {
+      return client.search(searchRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      throw new ESQueryException("Scroll query failed: ", e);
+    }
+  }
 
+  /**
+   * Aggregates the documents of the given runs into one bucket per run, ordered by run id, with the range of their
+   * timestamps and the count of their removed documents.
+   *
+   * @param runIds the runs to aggregate, null for all the runs
+   * @param afterKey the key of the last bucket of the previous page, null for the first page
+   * @param size the max number of buckets to return
+   * @throws ESQueryException if the runs could not be aggregated
+   */
+  public SearchResponse aggregateRuns(@Nullable Collection<String> runIds, @Nullable Map<String, Object> afterKey,
+      int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    if (runIds != null) {
+      searchSourceBuilder.query(QueryBuilders.boolQuery().filter(QueryBuilders.termsQuery("runId", runIds)));
+    }
     searchSourceBuilder.size(0);
 
-    FieldSortBuilder fieldSortBuilder = new FieldSortBuilder("maxTimestamp");
-    fieldSortBuilder.order(SortOrder.DESC);
+    final List<CompositeValuesSourceBuilder<?>> sources =
+        Collections.singletonList(new TermsValuesSourceBuilder("runId").field("runId"));
+    CompositeAggregationBuilder aggregation = AggregationBuilders.composite("runId", sources)
+        .size(size)
+        .subAggregation(AggregationBuilders.min("firstTimestamp").field("lastUpdated"))
+        .subAggregation(AggregationBuilders.max("lastTimestamp").field("lastUpdated"))
+        .subAggregation(AggregationBuilders.filter("removedRows", QueryBuilders.termQuery("removed", "true")));
+    if (afterKey != null) {
+      aggregation.aggregateAfter(afterKey);
+    }
+    searchSourceBuilder.aggregation(aggregation);
 
-    BucketSortPipelineAggregationBuilder bucketSort =
-        PipelineAggregatorBuilders.bucketSort("mostRecent", ImmutableList.of(fieldSortBuilder));
-    bucketSort.size(pageSize);
-    bucketSort.from(pageOffset);
+    SearchRequest searchRequest = new SearchRequest(indexConvention.getIndexName(INDEX_NAME));
+    searchRequest.source(searchSourceBuilder);
 
-    TermsAggregationBuilder aggregation = AggregationBuilders.terms("runId")
-        .field("runId")
-        .subAggregation(AggregationBuilders.max("maxTimestamp").field("lastUpdated"))
-        .subAggregation(bucketSort)
-        .subAggregation(AggregationBuilders.filter("removed", QueryBuilders.termQuery("removed", "true")));
+    try {
+      return client.search(searchRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      throw new ESQueryException("Failed to aggregate runs: ", e);
+    }
+  }
 
-    searchSourceBuilder.aggregation(aggregation);
+  /**
+   * Adds the given rows to the summary of the given run, after the writes already sent to the bulk processor, or
+   * removes them if negative. Summaries are created as rows are added to them.
+   *
+   * @param firstTimestamp the first timestamp of the added rows, null if none
+   * @param lastTimestamp the last timestamp of the added rows, null if none
+   */
+  public void addToRunSummary(@Nonnull String runId, long rows, long removedRows, @Nullable Long firstTimestamp,
+      @Nullable Long lastTimestamp) {
+    final String indexName = indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME);
+    final Map<String, Object> params = new HashMap<>();
+    params.put("runId", runId);
+    params.put("rows", rows);
+    params.put("removedRows", removedRows);
+    params.put("firstTimestamp", firstTimestamp);
+    params.put("lastTimestamp", lastTimestamp);
+    params.put("now", System.currentTimeMillis());
+    reindexWriteRouter.journal(indexName, runId);
+    for (String index : reindexWriteRouter.getWriteIndices(indexName)) {
+      bulkProcessor.add(new UpdateRequest(index, runId).script(
+          new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, ADD_TO_RUN_SUMMARY_SCRIPT, params))
+          .scriptedUpsert(true)
+          .upsert(new HashMap<>())
+          .retryOnConflict(RETRY_ON_CONFLICT));
+    }
+  }
 
+  /**
+   * Gets the summaries of the given runs, along with their sequence numbers.
+   *
+   * @throws ESQueryException if the summaries could not be fetched
+   */
+  public SearchResponse findRunSummariesByRunIds(@Nonnull Collection<String> runIds) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(QueryBuilders.idsQuery().addIds(runIds.toArray(new String[0])));
+    searchSourceBuilder.size(runIds.size());
+    searchSourceBuilder.seqNoAndPrimaryTerm(true);
+    return searchRunSummaries(searchSourceBuilder);
+  }
+
+  /**
+   * Gets the ids of the runs whose summary was updated by rows added or removed since the given time, up to the max
+   * result size.
+   *
+   * @throws ESQueryException if the summaries could not be fetched
+   */
+  public SearchResponse findRunSummariesUpdatedSince(long timestamp) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(QueryBuilders.boolQuery().filter(QueryBuilders.rangeQuery("updatedAt").gte(timestamp)));
+    searchSourceBuilder.size(ESUtils.MAX_RESULT_SIZE);
+    searchSourceBuilder.fetchSource(false);
+    return searchRunSummaries(searchSourceBuilder);
+  }
+
+  /**
+   * Gets the page of run summaries that comes after the given sort values, ordered by run id, along with their
+   * sequence numbers.
+   *
+   * @throws ESQueryException if the summaries could not be fetched
+   */
+  public SearchResponse scrollRunSummaries(@Nullable Object[] searchAfter, int size) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.size(size);
+    searchSourceBuilder.sort(new FieldSortBuilder("runId").order(SortOrder.ASC));
+    searchSourceBuilder.seqNoAndPrimaryTerm(true);
+    searchSourceBuilder.fetchSource(false);
+    if (searchAfter != null) {
+      searchSourceBuilder.searchAfter(searchAfter);
+    }
+    return searchRunSummaries(searchSourceBuilder);
+  }
+
+  private SearchResponse searchRunSummaries(@Nonnull SearchSourceBuilder searchSourceBuilder) {
+    SearchRequest searchRequest = new SearchRequest(indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME));
     searchRequest.source(searchSourceBuilder);
 
-    searchRequest.indices(indexConvention.getIndexName(INDEX_NAME));
+    try {
+      return client.search(searchRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      throw new ESQueryException("Failed to search run summaries: ", e);
+    }
+  }
+
+  /**
+   * Replaces the current summaries of runs by the given ones, and deletes the current summaries of the given runs.
+   * Summaries changed since they were read, or created since they were found missing, are left as they are, so that the
+   * rows concurrently added to them are not lost.
+   *
+   * @param summaries the new summary documents, by run id
+   * @param current the current summaries of the runs, as found along with their sequence numbers, by run id
+   * @param deletedRunIds the runs whose current summary is deleted
+   * @return the number of summaries left as they are
+   * @throws ESQueryException if any other summary could not be written or deleted
+   */
+  public int replaceRunSummaries(@Nonnull Map<String, Map<String, Object>> summaries,
+      @Nonnull Map<String, SearchHit> current, @Nonnull Collection<String> deletedRunIds) {
+    if (summaries.isEmpty() && deletedRunIds.isEmpty()) {
+      return 0;
+    }
+    final String indexName = indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME);
+    reindexWriteRouter.journal(indexName, summaries.keySet());
+    reindexWriteRouter.journal(indexName, deletedRunIds);
+    final List<String> writeIndices = reindexWriteRouter.getWriteIndices(indexName);
+    final BulkRequest bulkRequest = new BulkRequest();
+    for (String index : writeIndices) {
+      // The sequence numbers are those of the index itself. The indices it is being reindexed to get the summaries it
+      // ends up with once the journal is replayed.
+      final boolean conditional = index.equals(writeIndices.get(0));
+      summaries.forEach((runId, summary) -> {
+        final IndexRequest indexRequest = new IndexRequest(index).id(runId).source(summary);
+        final SearchHit hit = current.get(runId);
+        if (conditional && hit == null) {
+          indexRequest.opType(DocWriteRequest.OpType.CREATE);
+        } else if (conditional) {
+          indexRequest.setIfSeqNo(hit.getSeqNo()).setIfPrimaryTerm(hit.getPrimaryTerm());
+        }
+        bulkRequest.add(indexRequest);
+      });
+      for (String runId : deletedRunIds) {
+        final DeleteRequest deleteRequest = new DeleteRequest(index, runId);
+        final SearchHit hit = current.get(runId);
+        if (conditional && hit != null) {
+          deleteRequest.setIfSeqNo(hit.getSeqNo()).setIfPrimaryTerm(hit.getPrimaryTerm());
+        }
+        bulkRequest.add(deleteRequest);
+      }
+    }
 
+    final BulkResponse response;
     try {
-      final SearchResponse searchResponse = client.search(searchRequest, RequestOptions.DEFAULT);
-      return searchResponse;
+      response = client.bulk(bulkRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      throw new ESQueryException("Failed to replace run summaries: ", e);
+    }
+    int skipped = 0;
+    for (BulkItemResponse item : response.getItems()) {
+      if (!item.isFailed()) {
+        continue;
+      }
+      if (item.getFailure().getStatus() != RestStatus.CONFLICT) {
+        throw new ESQueryException("Failed to replace run summaries: " + response.buildFailureMessage());
+      }
+      skipped++;
+    }
+    return skipped;
+  }
+
+  /**
+   * Gets a page of run summaries, the most recently written runs first.
+   *
+   * @param includeSoftDeleted whether to include the runs whose rows are all soft deleted
+   */
+  @Nullable
+  public SearchResponse findRunSummaries(int from, int size, boolean includeSoftDeleted) {
+    SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+    searchSourceBuilder.query(
+        QueryBuilders.boolQuery().filter(QueryBuilders.rangeQuery(includeSoftDeleted ? "rows" : "activeRows").gt(0)));
+    searchSourceBuilder.sort(new FieldSortBuilder("lastTimestamp").order(SortOrder.DESC));
+    searchSourceBuilder.sort(new FieldSortBuilder("runId").order(SortOrder.ASC));
+    searchSourceBuilder.from(from);
+    searchSourceBuilder.size(size);
+
+    SearchRequest searchRequest = new SearchRequest(indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME));
+    searchRequest.source(searchSourceBuilder);
+
+    try {
+      return client.search(searchRequest, RequestOptions.DEFAULT);
     } catch (IOException e) {
-      e.printStackTrace();
+      log.error("Failed to find run summaries", e);
     }
     return null;
   }
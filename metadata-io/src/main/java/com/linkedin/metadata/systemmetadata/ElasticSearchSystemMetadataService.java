@@ -1,13 +1,20 @@
 package com.linkedin.metadata.systemmetadata;
 
+import com.datahub.util.exception.ESQueryException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.google.common.collect.ImmutableMap;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.linkedin.metadata.Constants;
 import com.linkedin.metadata.run.AspectRowSummary;
 import com.linkedin.metadata.run.IngestionRunSummary;
 import com.linkedin.metadata.search.elasticsearch.indexbuilder.ESIndexBuilder;
+import com.linkedin.metadata.search.elasticsearch.update.ESLeaseDAO;
 import com.linkedin.metadata.search.utils.ESUtils;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
 import com.linkedin.mxe.SystemMetadata;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -15,49 +22,113 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.search.SearchHit;
 import org.elasticsearch.search.SearchHits;
-import org.elasticsearch.search.aggregations.bucket.filter.ParsedFilter;
+import org.elasticsearch.search.aggregations.bucket.composite.CompositeAggregation;
+import org.elasticsearch.search.aggregations.bucket.filter.Filter;
 import org.elasticsearch.search.aggregations.bucket.terms.ParsedStringTerms;
 import org.elasticsearch.search.aggregations.bucket.terms.Terms;
-import org.elasticsearch.search.aggregations.metrics.ParsedMax;
-
+import org.elasticsearch.search.aggregations.metrics.Max;
+import org.elasticsearch.search.aggregations.metrics.Min;
 
+/**
+ * Stores the system metadata of every aspect, along with a summary per ingestion run of the rows it wrote.
+ *
+ * <p>Run summaries are maintained incrementally: the rows written and deleted through this service are added to and
+ * removed from the summaries of their runs by scripted upserts, sent every {@link #RUN_SUMMARY_FLUSH_INTERVAL_MS} with
+ * one per changed run. These counts drift when rows are written again, moved to other runs or soft deleted, so a
+ * single instance, the one holding the {@link #RUN_SUMMARY_LEASE} lease, aggregates again from their rows the runs
+ * changed in the last {@link #RUN_SUMMARY_LOOKBACK_MS}, every {@link #RUN_SUMMARY_RECONCILE_INTERVAL_MS}. It also
+ * rebuilds all the summaries every {@link #RUN_SUMMARY_REBUILD_INTERVAL_MS}, which fills in the runs written before
+ * the summaries existed and catches up with the changes that were lost. Aggregated summaries only replace the ones
+ * that did not change since they were read, so that the rows concurrently added to them are not lost.
+ *
+ * <p>Rows are soft deleted in the background, by an update by query task per status change whose failures are logged.
+ */
 @Slf4j
-@RequiredArgsConstructor
-public class ElasticSearchSystemMetadataService implements SystemMetadataService {
+public class ElasticSearchSystemMetadataService implements SystemMetadataService, AutoCloseable {
 
   private final RestHighLevelClient _searchClient;
   private final IndexConvention _indexConvention;
   private final ESSystemMetadataDAO _esDAO;
   private final ESIndexBuilder _indexBuilder;
+  private final ESLeaseDAO _leaseDAO;
+  private final ScheduledExecutorService _executor;
+  // Rows added to the summaries of runs and not sent yet, by run id
+  private final Map<String, RunSummaryDelta> _runSummaryDeltas = new ConcurrentHashMap<>();
+  // When all the run summaries were last rebuilt by this instance
+  private volatile long _lastRebuildTime = 0;
+  // Status update tasks submitted by this instance and not completed yet, with the urn they update
+  private final Map<String, String> _statusTasks = new ConcurrentHashMap<>();
 
   private static final String DOC_DELIMETER = "--";
   public static final String INDEX_NAME = "system_metadata_service_v1";
+  public static final String RUN_SUMMARY_INDEX_NAME = "system_metadata_run_summary_v1";
+  private static final long RUN_SUMMARY_FLUSH_INTERVAL_MS = 1000;
+  private static final long RUN_SUMMARY_RECONCILE_INTERVAL_MS = TimeUnit.MINUTES.toMillis(1);
+  // Longer than it takes for the changed rows to be searchable, so that they are aggregated at least once afterwards
+  private static final long RUN_SUMMARY_LOOKBACK_MS = TimeUnit.MINUTES.toMillis(5);
+  private static final long RUN_SUMMARY_REBUILD_INTERVAL_MS = TimeUnit.HOURS.toMillis(6);
+  private static final String RUN_SUMMARY_LEASE = "system_metadata_run_summaries";
+  // Renewed by each reconciliation and after each page of a rebuild, so that the same instance keeps reconciling
+  private static final long RUN_SUMMARY_LEASE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long STATUS_TASK_CHECK_INTERVAL_MS = 5000;
+  private static final int RUN_SUMMARY_PAGE_SIZE = 1000;
+  private static final long EXECUTOR_TERMINATION_TIMEOUT_SECONDS = 10;
   private static final String FIELD_URN = "urn";
   private static final String FIELD_ASPECT = "aspect";
   private static final String FIELD_RUNID = "runId";
+  private static final String FIELD_PREVIOUS_RUNID = "previousRunId";
   private static final String FIELD_LAST_UPDATED = "lastUpdated";
   private static final String FIELD_REGISTRY_NAME = "registryName";
   private static final String FIELD_REGISTRY_VERSION = "registryVersion";
   private static final Set<String> INDEX_FIELD_SET = new HashSet<>(
       Arrays.asList(FIELD_URN, FIELD_ASPECT, FIELD_RUNID, FIELD_LAST_UPDATED, FIELD_REGISTRY_NAME,
           FIELD_REGISTRY_VERSION));
+  private static final String FIELD_ROWS = "rows";
+  private static final String FIELD_REMOVED_ROWS = "removedRows";
+  private static final String FIELD_ACTIVE_ROWS = "activeRows";
+  private static final String FIELD_FIRST_TIMESTAMP = "firstTimestamp";
+  private static final String FIELD_LAST_TIMESTAMP = "lastTimestamp";
+  private static final String FIELD_UPDATED_AT = "updatedAt";
+
+  public ElasticSearchSystemMetadataService(RestHighLevelClient searchClient, IndexConvention indexConvention,
+      ESSystemMetadataDAO esDAO, ESIndexBuilder indexBuilder) {
+    _searchClient = searchClient;
+    _indexConvention = indexConvention;
+    _esDAO = esDAO;
+    _indexBuilder = indexBuilder;
+    _leaseDAO = new ESLeaseDAO(searchClient, indexConvention);
+
+    _executor = Executors.newSingleThreadScheduledExecutor(
+        new ThreadFactoryBuilder().setDaemon(true).setNameFormat("system-metadata-%d").build());
+    _executor.scheduleWithFixedDelay(this::flushRunSummaries, RUN_SUMMARY_FLUSH_INTERVAL_MS,
+        RUN_SUMMARY_FLUSH_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    _executor.scheduleWithFixedDelay(this::tryReconcileRunSummaries, RUN_SUMMARY_RECONCILE_INTERVAL_MS,
+        RUN_SUMMARY_RECONCILE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    _executor.scheduleWithFixedDelay(this::checkStatusTasks, STATUS_TASK_CHECK_INTERVAL_MS,
+        STATUS_TASK_CHECK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+  }
 
   private String toDocument(SystemMetadata systemMetadata, String urn, String aspect) {
     final ObjectNode document = JsonNodeFactory.instance.objectNode();
@@ -81,37 +152,94 @@ public class ElasticSearchSystemMetadataService implements SystemMetadataService
       byte[] thedigest = md.digest(bytesOfRawDocID);
       return Base64.getEncoder().encodeToString(thedigest);
     } catch (NoSuchAlgorithmException e) {
-      e.printStackTrace();
+      log.error("Failed to hash the system metadata document id {}, using it as is", rawDocId, e);
       return rawDocId;
     }
   }
 
   @Override
   public void deleteAspect(String urn, String aspect) {
+    final SearchResponse runs = _esDAO.findRunsOfRows(urn, aspect);
     _esDAO.deleteByUrnAspect(urn, aspect);
+    removeFromRunSummaries(runs);
   }
 
   @Override
   public void deleteUrn(String urn) {
+    final SearchResponse runs = _esDAO.findRunsOfRows(urn, null);
     _esDAO.deleteByUrn(urn);
+    removeFromRunSummaries(runs);
+  }
+
+  /**
+   * Removes the deleted rows from the summaries of their runs.
+   *
+   * @param runs the runs of the rows, as found before deleting them, or null if they could not be found, in which case
+   *     the summaries are caught up with by the next rebuild
+   */
+  private void removeFromRunSummaries(@Nullable SearchResponse runs) {
+    if (runs == null) {
+      return;
+    }
+    for (Terms.Bucket bucket : ((ParsedStringTerms) runs.getAggregations().get(FIELD_RUNID)).getBuckets()) {
+      final long removedRows = ((Filter) bucket.getAggregations().get(FIELD_REMOVED_ROWS)).getDocCount();
+      addToRunSummary(bucket.getKeyAsString(), -bucket.getDocCount(), -removedRows, null);
+    }
   }
 
   @Override
   public void setDocStatus(String urn, boolean removed) {
-    // searchBy findByParams
-    // If status.removed -> false (from removed to not removed) --> get soft deleted entities.
-    // If status.removed -> true (from not removed to removed) --> do not get soft deleted entities.
-    final List<AspectRowSummary> aspectList =
-        findByParams(ImmutableMap.of("urn", urn), !removed, 0, ESUtils.MAX_RESULT_SIZE);
-    // for each -> toDocId and set removed to true for all
-    aspectList.forEach(aspect -> {
-      final String docId = toDocId(aspect.getUrn(), aspect.getAspectName());
-      final ObjectNode document = JsonNodeFactory.instance.objectNode();
-      document.put("removed", removed);
-      _esDAO.upsertDocument(docId, document.toString());
+    // If status.removed -> false (from removed to not removed) --> update soft deleted aspects.
+    // If status.removed -> true (from not removed to removed) --> update aspects that are not soft deleted.
+    // The row of the status aspect itself, written right before, is likely not searchable yet: it is updated after it
+    // is written instead.
+    _esDAO.setStatusByDocId(toDocId(urn, Constants.STATUS_ASPECT_NAME), removed);
+    _esDAO.submitSetStatusByUrn(urn, removed).whenComplete((taskId, e) -> {
+      if (e != null) {
+        MetricUtils.counter(this.getClass(), "set_status_failure").inc();
+        log.error("Failed to submit the status update of the system metadata of urn {}: {}", urn, e.toString());
+      } else {
+        _statusTasks.put(taskId, urn);
+      }
     });
   }
 
+  /**
+   * Reports the failures of the status update tasks that completed since the last check.
+   */
+  private void checkStatusTasks() {
+    for (Map.Entry<String, String> statusTask : _statusTasks.entrySet()) {
+      final String taskId = statusTask.getKey();
+      final String urn = statusTask.getValue();
+      final JsonNode task;
+      try {
+        task = _esDAO.getTask(taskId);
+      } catch (Exception e) {
+        log.warn("Failed to check the status update task {} of urn {}: {}", taskId, urn, e.toString());
+        continue;
+      }
+      if (task == null) {
+        // e.g. the node running it restarted
+        _statusTasks.remove(taskId);
+        log.warn("Lost track of the status update task {} of urn {}", taskId, urn);
+        continue;
+      }
+      if (!task.path("completed").asBoolean()) {
+        continue;
+      }
+      _statusTasks.remove(taskId);
+      final JsonNode failures = task.path("response").path("failures");
+      if (task.has("error") || failures.size() > 0) {
+        MetricUtils.counter(this.getClass(), "set_status_failure").inc();
+        log.error("Failed to set the status of the system metadata of urn {}: {}", urn,
+            task.has("error") ? task.get("error") : failures);
+      } else if (task.path("response").path("version_conflicts").asLong() > 0) {
+        log.debug("Skipped {} system metadata rows of urn {} written while setting their status",
+            task.path("response").path("version_conflicts").asLong(), urn);
+      }
+    }
+  }
+
   @Override
   public void insert(@Nullable SystemMetadata systemMetadata, String urn, String aspect) {
     if (systemMetadata == null) {
@@ -122,6 +250,185 @@ public class ElasticSearchSystemMetadataService implements SystemMetadataService
 
     String document = toDocument(systemMetadata, urn, aspect);
     _esDAO.upsertDocument(docId, document);
+    if (systemMetadata.getRunId() != null) {
+      addToRunSummary(systemMetadata.getRunId(), 1, 0, systemMetadata.getLastObserved());
+    }
+  }
+
+  private void addToRunSummary(String runId, long rows, long removedRows, @Nullable Long timestamp) {
+    _runSummaryDeltas.compute(runId,
+        (id, delta) -> (delta == null ? new RunSummaryDelta() : delta).add(rows, removedRows, timestamp));
+  }
+
+  /**
+   * Sends the rows added to the summaries of runs since the last flush, with a scripted upsert per run.
+   */
+  @VisibleForTesting
+  void flushRunSummaries() {
+    for (String runId : _runSummaryDeltas.keySet()) {
+      final RunSummaryDelta delta = _runSummaryDeltas.remove(runId);
+      if (delta == null) {
+        continue;
+      }
+      try {
+        _esDAO.addToRunSummary(runId, delta._rows, delta._removedRows, delta._firstTimestamp, delta._lastTimestamp);
+      } catch (Exception e) {
+        // Caught up with by the next rebuild
+        MetricUtils.counter(this.getClass(), "run_summary_update_failure").inc();
+        log.error("Failed to update the summary of run {}: {}", runId, e.toString());
+      }
+    }
+  }
+
+  /**
+   * Reconciles the run summaries if this instance holds the lease to, rebuilding all of them if they were not rebuilt
+   * by this instance for {@link #RUN_SUMMARY_REBUILD_INTERVAL_MS}.
+   */
+  private void tryReconcileRunSummaries() {
+    if (!_leaseDAO.tryAcquire(RUN_SUMMARY_LEASE, RUN_SUMMARY_LEASE_MILLIS)) {
+      return;
+    }
+    try {
+      final long startTime = System.currentTimeMillis();
+      if (startTime - _lastRebuildTime >= RUN_SUMMARY_REBUILD_INTERVAL_MS) {
+        rebuildRunSummaries();
+        _lastRebuildTime = startTime;
+      } else {
+        reconcileRecentRunSummaries();
+      }
+    } catch (Exception e) {
+      MetricUtils.counter(this.getClass(), "run_summary_reconcile_failure").inc();
+      log.error("Failed to reconcile run summaries: {}", e.toString());
+    }
+  }
+
+  /**
+   * Aggregates again the summaries of the runs whose rows were added, removed, moved or soft deleted in the last
+   * {@link #RUN_SUMMARY_LOOKBACK_MS}.
+   *
+   * @throws ESQueryException if the summaries could not be reconciled
+   */
+  @VisibleForTesting
+  void reconcileRecentRunSummaries() {
+    final long since = System.currentTimeMillis() - RUN_SUMMARY_LOOKBACK_MS;
+    final Set<String> runIds = new HashSet<>();
+    for (SearchHit hit : _esDAO.findRunSummariesUpdatedSince(since).getHits().getHits()) {
+      runIds.add(hit.getId());
+    }
+    final SearchResponse changedRows = _esDAO.findRunsOfRowsChangedSince(since);
+    for (String aggregation : Arrays.asList(FIELD_RUNID, FIELD_PREVIOUS_RUNID)) {
+      ((ParsedStringTerms) changedRows.getAggregations().get(aggregation)).getBuckets()
+          .forEach(bucket -> runIds.add(bucket.getKeyAsString()));
+    }
+    for (List<String> page : Iterables.partition(runIds, RUN_SUMMARY_PAGE_SIZE)) {
+      final Map<String, SearchHit> current = getRunSummaries(page);
+      final Map<String, Map<String, Object>> summaries = aggregateRunSummaries(page, current);
+      final Set<String> emptyRunIds = new HashSet<>(current.keySet());
+      emptyRunIds.removeAll(summaries.keySet());
+      _esDAO.replaceRunSummaries(summaries, current, emptyRunIds);
+    }
+  }
+
+  /**
+   * Rebuilds the summaries of all the runs from their rows, and deletes the summaries of the runs without rows.
+   *
+   * @throws ESQueryException if the summaries could not be rebuilt, or if this instance lost the lease to
+   */
+  public void rebuildRunSummaries() {
+    Map<String, Object> afterKey = null;
+    List<? extends CompositeAggregation.Bucket> buckets;
+    do {
+      renewRunSummaryLease();
+      final CompositeAggregation runs = _esDAO.aggregateRuns(null, afterKey, RUN_SUMMARY_PAGE_SIZE)
+          .getAggregations()
+          .get(FIELD_RUNID);
+      buckets = runs.getBuckets();
+      final Map<String, SearchHit> current = getRunSummaries(
+          buckets.stream().map(bucket -> (String) bucket.getKey().get(FIELD_RUNID)).collect(Collectors.toList()));
+      _esDAO.replaceRunSummaries(toRunSummaries(buckets, current), current, Collections.emptyList());
+      afterKey = runs.afterKey();
+    } while (buckets.size() == RUN_SUMMARY_PAGE_SIZE);
+
+    Object[] searchAfter = null;
+    SearchHit[] hits;
+    do {
+      renewRunSummaryLease();
+      hits = _esDAO.scrollRunSummaries(searchAfter, RUN_SUMMARY_PAGE_SIZE).getHits().getHits();
+      final Map<String, SearchHit> current =
+          Arrays.stream(hits).collect(Collectors.toMap(SearchHit::getId, hit -> hit));
+      final Set<String> emptyRunIds = new HashSet<>(current.keySet());
+      if (!current.isEmpty()) {
+        ((CompositeAggregation) _esDAO.aggregateRuns(current.keySet(), null, RUN_SUMMARY_PAGE_SIZE)
+            .getAggregations()
+            .get(FIELD_RUNID)).getBuckets().forEach(bucket -> emptyRunIds.remove(bucket.getKey().get(FIELD_RUNID)));
+      }
+      _esDAO.replaceRunSummaries(Collections.emptyMap(), current, emptyRunIds);
+      searchAfter = hits.length == 0 ? null : hits[hits.length - 1].getSortValues();
+    } while (hits.length == RUN_SUMMARY_PAGE_SIZE);
+  }
+
+  private void renewRunSummaryLease() {
+    if (!_leaseDAO.tryAcquire(RUN_SUMMARY_LEASE, RUN_SUMMARY_LEASE_MILLIS)) {
+      throw new ESQueryException("Lost the lease to rebuild run summaries to another instance");
+    }
+  }
+
+  /**
+   * Gets the current summaries of the given runs, by run id.
+   */
+  private Map<String, SearchHit> getRunSummaries(Collection<String> runIds) {
+    if (runIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    return Arrays.stream(_esDAO.findRunSummariesByRunIds(runIds).getHits().getHits())
+        .collect(Collectors.toMap(SearchHit::getId, hit -> hit));
+  }
+
+  /**
+   * Aggregates the summaries of the given runs from their rows, leaving out the runs without rows.
+   */
+  private Map<String, Map<String, Object>> aggregateRunSummaries(List<String> runIds, Map<String, SearchHit> current) {
+    final Map<String, Map<String, Object>> summaries = new HashMap<>();
+    Map<String, Object> afterKey = null;
+    List<? extends CompositeAggregation.Bucket> buckets;
+    do {
+      final CompositeAggregation runs = _esDAO.aggregateRuns(runIds, afterKey, RUN_SUMMARY_PAGE_SIZE)
+          .getAggregations()
+          .get(FIELD_RUNID);
+      buckets = runs.getBuckets();
+      summaries.putAll(toRunSummaries(buckets, current));
+      afterKey = runs.afterKey();
+    } while (buckets.size() == RUN_SUMMARY_PAGE_SIZE);
+    return summaries;
+  }
+
+  private static Map<String, Map<String, Object>> toRunSummaries(List<? extends CompositeAggregation.Bucket> buckets,
+      Map<String, SearchHit> current) {
+    final Map<String, Map<String, Object>> summaries = new HashMap<>();
+    for (CompositeAggregation.Bucket bucket : buckets) {
+      final String runId = (String) bucket.getKey().get(FIELD_RUNID);
+      summaries.put(runId, toRunSummary(runId, bucket, current.get(runId)));
+    }
+    return summaries;
+  }
+
+  private static Map<String, Object> toRunSummary(String runId, CompositeAggregation.Bucket bucket,
+      @Nullable SearchHit current) {
+    final long removedRows = ((Filter) bucket.getAggregations().get(FIELD_REMOVED_ROWS)).getDocCount();
+    final double firstTimestamp = ((Min) bucket.getAggregations().get(FIELD_FIRST_TIMESTAMP)).getValue();
+    final double lastTimestamp = ((Max) bucket.getAggregations().get(FIELD_LAST_TIMESTAMP)).getValue();
+    final Map<String, Object> summary = new HashMap<>();
+    summary.put(FIELD_RUNID, runId);
+    summary.put(FIELD_ROWS, bucket.getDocCount());
+    summary.put(FIELD_REMOVED_ROWS, removedRows);
+    summary.put(FIELD_ACTIVE_ROWS, bucket.getDocCount() - removedRows);
+    // Infinite when none of the rows has a timestamp
+    summary.put(FIELD_FIRST_TIMESTAMP, Double.isInfinite(firstTimestamp) ? null : (long) firstTimestamp);
+    summary.put(FIELD_LAST_TIMESTAMP, Double.isInfinite(lastTimestamp) ? null : (long) lastTimestamp);
+    // Kept as is, so that the runs whose rows were recently added to or removed from are aggregated again until the
+    // rows are surely searchable
+    summary.put(FIELD_UPDATED_AT, current == null ? null : current.getSourceAsMap().get(FIELD_UPDATED_AT));
+    return summary;
   }
 
   @Override
@@ -134,25 +441,42 @@ public class ElasticSearchSystemMetadataService implements SystemMetadataService
     return findByParams(Collections.singletonMap(FIELD_URN, urn), includeSoftDeleted, from, size);
   }
 
+  @Override
+  public List<AspectRowSummary> scrollByRunId(String runId, boolean includeSoftDeleted,
+      @Nullable AspectRowSummary after, int size) {
+    return toAspectRowSummaries(_esDAO.scrollByRunId(runId, includeSoftDeleted, toSearchAfter(after), size));
+  }
+
+  @Override
+  public List<AspectRowSummary> scrollByUrns(List<String> urns, boolean includeSoftDeleted,
+      @Nullable AspectRowSummary after, int size) {
+    return toAspectRowSummaries(_esDAO.scrollByUrns(urns, includeSoftDeleted, toSearchAfter(after), size));
+  }
+
+  @Nullable
+  private static Object[] toSearchAfter(@Nullable AspectRowSummary after) {
+    return after == null ? null : new Object[]{after.getUrn(), after.getAspectName()};
+  }
+
   @Override
   public List<AspectRowSummary> findByParams(Map<String, String> systemMetaParams, boolean includeSoftDeleted, int from,
       int size) {
-    SearchResponse searchResponse = _esDAO.findByParams(systemMetaParams, includeSoftDeleted, from, size);
+    return toAspectRowSummaries(_esDAO.findByParams(systemMetaParams, includeSoftDeleted, from, size));
+  }
+
+  private List<AspectRowSummary> toAspectRowSummaries(@Nullable SearchResponse searchResponse) {
     if (searchResponse != null) {
       SearchHits hits = searchResponse.getHits();
       List<AspectRowSummary> summaries = Arrays.stream(hits.getHits()).map(hit -> {
-        Map<String, Object> values = hit.getSourceAsMap();
         AspectRowSummary summary = new AspectRowSummary();
-        summary.setRunId((String) values.get(FIELD_RUNID));
-        summary.setAspectName((String) values.get(FIELD_ASPECT));
-        summary.setUrn((String) values.get(FIELD_URN));
-        Object timestamp = values.get(FIELD_LAST_UPDATED);
-        if (timestamp instanceof Long) {
-          summary.setTimestamp((Long) timestamp);
-        } else if (timestamp instanceof Integer) {
-          summary.setTimestamp(Long.valueOf((Integer) timestamp));
+        summary.setRunId((String) ESUtils.getDocValue(hit, FIELD_RUNID));
+        summary.setAspectName((String) ESUtils.getDocValue(hit, FIELD_ASPECT));
+        summary.setUrn((String) ESUtils.getDocValue(hit, FIELD_URN));
+        Object timestamp = ESUtils.getDocValue(hit, FIELD_LAST_UPDATED);
+        if (timestamp instanceof Number) {
+          summary.setTimestamp(((Number) timestamp).longValue());
         }
-        summary.setKeyAspect(((String) values.get(FIELD_ASPECT)).endsWith("Key"));
+        summary.setKeyAspect(summary.getAspectName().endsWith("Key"));
         return summary;
       }).collect(Collectors.toList());
       return summaries;
@@ -172,23 +496,19 @@ public class ElasticSearchSystemMetadataService implements SystemMetadataService
 
   @Override
   public List<IngestionRunSummary> listRuns(Integer pageOffset, Integer pageSize, boolean includeSoftDeleted) {
-    SearchResponse response = _esDAO.findRuns(pageOffset, pageSize);
-    List<? extends Terms.Bucket> buckets = ((ParsedStringTerms) response.getAggregations().get("runId")).getBuckets();
-
-    if (!includeSoftDeleted) {
-      buckets.removeIf(bucket -> {
-        long totalDocs = bucket.getDocCount();
-        long softDeletedDocs = ((ParsedFilter) bucket.getAggregations().get("removed")).getDocCount();
-        return totalDocs == softDeletedDocs;
-      });
+    SearchResponse response = _esDAO.findRunSummaries(pageOffset, pageSize, includeSoftDeleted);
+    if (response == null) {
+      return Collections.emptyList();
     }
 
     // TODO(gabe-lyons): add sample urns
-    return buckets.stream().map(bucket -> {
+    return Arrays.stream(response.getHits().getHits()).map(hit -> {
+      Map<String, Object> source = hit.getSourceAsMap();
       IngestionRunSummary entry = new IngestionRunSummary();
-      entry.setRunId(bucket.getKeyAsString());
-      entry.setTimestamp((long) ((ParsedMax) bucket.getAggregations().get("maxTimestamp")).getValue());
-      entry.setRows(bucket.getDocCount());
+      entry.setRunId((String) source.get(FIELD_RUNID));
+      Object timestamp = source.get(FIELD_LAST_TIMESTAMP);
+      entry.setTimestamp(timestamp instanceof Number ? ((Number) timestamp).longValue() : 0L);
+      entry.setRows(((Number) source.get(FIELD_ROWS)).longValue());
       return entry;
     }).collect(Collectors.toList());
   }
@@ -199,6 +519,8 @@ public class ElasticSearchSystemMetadataService implements SystemMetadataService
     try {
       _indexBuilder.buildIndex(_indexConvention.getIndexName(INDEX_NAME), SystemMetadataMappingsBuilder.getMappings(),
           Collections.emptyMap());
+      _indexBuilder.buildIndex(_indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME),
+          SystemMetadataMappingsBuilder.getRunSummaryMappings(), Collections.emptyMap());
     } catch (IOException ie) {
       throw new RuntimeException("Could not configure system metadata index", ie);
     }
@@ -206,12 +528,51 @@ public class ElasticSearchSystemMetadataService implements SystemMetadataService
 
   @Override
   public void clear() {
+    _runSummaryDeltas.clear();
     DeleteByQueryRequest deleteRequest =
-        new DeleteByQueryRequest(_indexConvention.getIndexName(INDEX_NAME)).setQuery(QueryBuilders.matchAllQuery());
+        new DeleteByQueryRequest(_indexConvention.getIndexName(INDEX_NAME),
+            _indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME)).setQuery(QueryBuilders.matchAllQuery());
     try {
       _searchClient.deleteByQuery(deleteRequest, RequestOptions.DEFAULT);
     } catch (Exception e) {
       log.error("Failed to clear system metadata service: {}", e.toString());
     }
   }
+
+  /**
+   * Stops updating the run summaries and checking the status update tasks, waiting for an update in progress to
+   * complete, then sends the rows added to the summaries since the last flush.
+   */
+  @Override
+  public void close() {
+    _executor.shutdown();
+    try {
+      if (!_executor.awaitTermination(EXECUTOR_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("Run summaries were still being updated after {}s", EXECUTOR_TERMINATION_TIMEOUT_SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flushRunSummaries();
+  }
+
+  /**
+   * Rows added to the summary of a run, or removed from it if negative.
+   */
+  private static final class RunSummaryDelta {
+    private long _rows = 0;
+    private long _removedRows = 0;
+    private Long _firstTimestamp = null;
+    private Long _lastTimestamp = null;
+
+    private RunSummaryDelta add(long rows, long removedRows, @Nullable Long timestamp) {
+      _rows += rows;
+      _removedRows += removedRows;
+      if (timestamp != null) {
+        _firstTimestamp = _firstTimestamp == null ? timestamp : Math.min(_firstTimestamp, timestamp);
+        _lastTimestamp = _lastTimestamp == null ? timestamp : Math.max(_lastTimestamp, timestamp);
+      }
+      return this;
+    }
+  }
 }
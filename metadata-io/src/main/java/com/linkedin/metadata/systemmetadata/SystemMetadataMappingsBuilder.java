@@ -20,6 +20,21 @@ public class SystemMetadataMappingsBuilder {
     mappings.put("registryVersion", getMappingsForKeyword());
     mappings.put("registryName", getMappingsForKeyword());
     mappings.put("removed", getMappingsForRemoved());
+    // When the run or the status of the row last changed, and the run it was last moved out of
+    mappings.put("changedAt", getMappingsForLastUpdated());
+    mappings.put("previousRunId", getMappingsForKeyword());
+    return ImmutableMap.of("properties", mappings);
+  }
+
+  public static Map<String, Object> getRunSummaryMappings() {
+    Map<String, Object> mappings = new HashMap<>();
+    mappings.put("runId", getMappingsForKeyword());
+    mappings.put("firstTimestamp", getMappingsForLastUpdated());
+    mappings.put("lastTimestamp", getMappingsForLastUpdated());
+    mappings.put("rows", getMappingsForCount());
+    mappings.put("removedRows", getMappingsForCount());
+    mappings.put("activeRows", getMappingsForCount());
+    mappings.put("updatedAt", getMappingsForLastUpdated());
     return ImmutableMap.of("properties", mappings);
   }
 
@@ -31,6 +46,10 @@ public class SystemMetadataMappingsBuilder {
     return ImmutableMap.<String, Object>builder().put("type", "long").build();
   }
 
+  private static Map<String, Object> getMappingsForCount() {
+    return ImmutableMap.<String, Object>builder().put("type", "long").build();
+  }
+
   private static Map<String, Object> getMappingsForRemoved() {
     return ImmutableMap.<String, Object>builder().put("type", "boolean").build();
   }
@@ -19,6 +19,14 @@ public interface SystemMetadataService {
 
   void deleteUrn(String finalOldUrn);
 
+  /**
+   * Sets the removed status of all the rows of an urn in the background, without waiting for it. Rows written right
+   * before, other than the one of the status aspect of the urn, may not be updated if they are not searchable yet.
+   * Failures are logged rather than thrown.
+   *
+   * @param urn the urn of the entity
+   * @param removed whether the rows are soft deleted
+   */
   void setDocStatus(String urn, boolean removed);
 
   void insert(@Nullable SystemMetadata systemMetadata, String urn, String aspect);
@@ -27,6 +35,24 @@ public interface SystemMetadataService {
 
   List<AspectRowSummary> findByUrn(String urn, boolean includeSoftDeleted, int from, int size);
 
+  /**
+   * Gets the rows of a run ordered by urn and aspect, starting right after the given row. Meant to walk through all
+   * the rows of a run in pages, passing the last row of a page to get the next one.
+   *
+   * @param runId the id of the run
+   * @param includeSoftDeleted whether to include soft deleted rows
+   * @param after the last row of the previous page, null to get the first page
+   * @param size the max number of rows to return
+   */
+  List<AspectRowSummary> scrollByRunId(String runId, boolean includeSoftDeleted, @Nullable AspectRowSummary after,
+      int size);
+
+  /**
+   * Same as {@link #scrollByRunId}, for the rows of any of the given urns.
+   */
+  List<AspectRowSummary> scrollByUrns(List<String> urns, boolean includeSoftDeleted, @Nullable AspectRowSummary after,
+      int size);
+
   List<AspectRowSummary> findByParams(Map<String, String> systemMetaParams, boolean includeSoftDeleted, int from, int size);
 
   List<AspectRowSummary> findByRegistry(String registryName, String registryVersion, boolean includeSoftDeleted, int from, int size);
@@ -17,14 +17,20 @@ import com.linkedin.schema.SchemaField;
 import com.linkedin.schema.SchemaFieldArray;
 import com.linkedin.schema.SchemaMetadata;
 import java.net.URISyntaxException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
 
 import static com.linkedin.metadata.timeline.differ.DifferUtils.convertEntityGlossaryTermChangeEvents;
@@ -174,7 +180,9 @@ public class SchemaMetadataDiffer implements AspectDiffer<SchemaMetadata> {
     int baseFieldIdx = 0;
     int targetFieldIdx = 0;
     List<ChangeEvent> changeEvents = new ArrayList<>();
-    Set<SchemaField> renamedFields = new HashSet<>();
+    RenamedFields renamedFields = new RenamedFields();
+    RenameCandidates baseRenameCandidates = new RenameCandidates(baseFields);
+    RenameCandidates targetRenameCandidates = new RenameCandidates(targetFields);
     while (baseFieldIdx < baseFields.size() && targetFieldIdx < targetFields.size()) {
       SchemaField curBaseField = baseFields.get(baseFieldIdx);
       SchemaField curTargetField = targetFields.get(targetFieldIdx);
@@ -220,8 +228,7 @@ public class SchemaMetadataDiffer implements AspectDiffer<SchemaMetadata> {
         // Check for rename, if rename coincides with other modifications we assume drop/add.
         // Assumes that two different fields on the same schema would not have the same description, terms,
         // or tags and share the same type
-        SchemaField renamedField = findRenamedField(curBaseField,
-            targetFields.subList(targetFieldIdx, targetFields.size()), renamedFields);
+        SchemaField renamedField = targetRenameCandidates.find(curBaseField, targetFieldIdx, renamedFields);
         if (renamedField == null) {
           processRemoval(changeCategory, changeEvents, datasetUrn, curBaseField, auditStamp);
           ++baseFieldIdx;
@@ -235,8 +242,7 @@ public class SchemaMetadataDiffer implements AspectDiffer<SchemaMetadata> {
         }
       } else {
         // The targetField got added or a rename occurred. Forward & backwards compatible change + minor version bump.
-        SchemaField renamedField = findRenamedField(curTargetField,
-            baseFields.subList(baseFieldIdx, baseFields.size()), renamedFields);
+        SchemaField renamedField = baseRenameCandidates.find(curTargetField, baseFieldIdx, renamedFields);
         if (renamedField == null) {
           processAdd(changeCategory, changeEvents, datasetUrn, curTargetField, auditStamp);
           ++targetFieldIdx;
@@ -285,32 +291,93 @@ public class SchemaMetadataDiffer implements AspectDiffer<SchemaMetadata> {
     schemaMetadata.setFields(new SchemaFieldArray(schemaFields));
   }
 
-  private static SchemaField findRenamedField(SchemaField curField, List<SchemaField> targetFields, Set<SchemaField> renamedFields) {
-    return targetFields.stream()
-        .filter(schemaField -> isRenamed(curField, schemaField))
-        .filter(field -> !renamedFields.contains(field))
-        .findFirst().orElse(null);
+  /**
+   * Gets the properties a field must share with another one to be considered as renamed to it: its native type, its
+   * parent path and its description. Returns null if the field can't be matched with any other field.
+   */
+  @Nullable
+  private static List<String> getRenameSignature(SchemaField field) {
+    if (StringUtils.isBlank(field.getDescription())) {
+      return null;
+    }
+    int parentIndex = field.getFieldPath().lastIndexOf(".");
+    String parentPath = null;
+    if (parentIndex > 0) {
+      parentPath = field.getFieldPath().substring(0, parentIndex);
+      if (StringUtils.isBlank(parentPath)) {
+        return null;
+      }
+    } else if (parentIndex == 0) {
+      return null;
+    }
+    // No parent field if the parent path is null
+    return Arrays.asList(field.getNativeDataType(), parentPath, field.getDescription());
   }
 
-  private static boolean isRenamed(SchemaField curField, SchemaField schemaField) {
-    return curField.getNativeDataType().equals(schemaField.getNativeDataType())
-        && parentFieldsMatch(curField, schemaField) && descriptionsMatch(curField, schemaField);
-  }
+  /**
+   * Fields of a schema indexed by their rename signature, in field path order.
+   */
+  private static class RenameCandidates {
+    private final SchemaFieldArray _fields;
+    private Map<List<String>, Deque<Integer>> _indicesBySignature;
+
+    RenameCandidates(SchemaFieldArray fields) {
+      _fields = fields;
+    }
+
+    /**
+     * Finds the first field from the given index on that the given field could have been renamed to or from and that
+     * was not matched yet. Both the index and the renamed fields only grow from one call to the next, so the skipped
+     * candidates are dropped for good.
+     */
+    @Nullable
+    SchemaField find(SchemaField curField, int fromIndex, RenamedFields renamedFields) {
+      List<String> signature = getRenameSignature(curField);
+      if (signature == null) {
+        return null;
+      }
+      Deque<Integer> candidates = getIndicesBySignature().get(signature);
+      while (candidates != null && !candidates.isEmpty()) {
+        int candidateIndex = candidates.peekFirst();
+        SchemaField candidate = _fields.get(candidateIndex);
+        if (candidateIndex >= fromIndex && !renamedFields.contains(candidate)) {
+          return candidate;
+        }
+        candidates.pollFirst();
+      }
+      return null;
+    }
 
-  private static boolean parentFieldsMatch(SchemaField curField, SchemaField schemaField) {
-    int curFieldIndex = curField.getFieldPath().lastIndexOf(".");
-    int schemaFieldIndex = schemaField.getFieldPath().lastIndexOf(".");
-    if (curFieldIndex > 0 && schemaFieldIndex > 0) {
-      String curFieldParentPath = curField.getFieldPath().substring(0, curFieldIndex);
-      String schemaFieldParentPath = schemaField.getFieldPath().substring(0, schemaFieldIndex);
-      return StringUtils.isNotBlank(curFieldParentPath) && curFieldParentPath.equals(schemaFieldParentPath);
+    // Built on the first rename lookup, most diffs have none
+    private Map<List<String>, Deque<Integer>> getIndicesBySignature() {
+      if (_indicesBySignature == null) {
+        _indicesBySignature = new HashMap<>();
+        for (int i = 0; i < _fields.size(); i++) {
+          List<String> signature = getRenameSignature(_fields.get(i));
+          if (signature != null) {
+            _indicesBySignature.computeIfAbsent(signature, key -> new ArrayDeque<>()).addLast(i);
+          }
+        }
+      }
+      return _indicesBySignature;
     }
-    // No parent field
-    return curFieldIndex < 0 && schemaFieldIndex < 0;
   }
 
-  private static boolean descriptionsMatch(SchemaField curField, SchemaField schemaField) {
-    return StringUtils.isNotBlank(curField.getDescription()) && curField.getDescription().equals(schemaField.getDescription());
+  /**
+   * Fields matched by a rename. Equal fields have the same path, so fields are only compared to the ones sharing their
+   * path rather than hashing whole records.
+   */
+  private static class RenamedFields {
+    private final Map<String, List<SchemaField>> _fieldsByPath = new HashMap<>();
+
+    void add(SchemaField field) {
+      _fieldsByPath.computeIfAbsent(field.getFieldPath(), key -> new ArrayList<>(1)).add(field);
+    }
+
+    boolean contains(SchemaField field) {
+      List<SchemaField> fields = _fieldsByPath.get(field.getFieldPath());
+      return fields != null && fields.contains(field);
+    }
   }
 
   private static void processRemoval(ChangeCategory changeCategory, List<ChangeEvent> changeEvents, Urn datasetUrn,
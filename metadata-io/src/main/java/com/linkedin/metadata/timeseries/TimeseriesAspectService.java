@@ -7,7 +7,9 @@ import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.timeseries.AggregationSpec;
 import com.linkedin.timeseries.GenericTable;
 import com.linkedin.timeseries.GroupingBucket;
+import com.linkedin.util.Pair;
 import java.util.List;
+import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -19,6 +21,17 @@ public interface TimeseriesAspectService {
   void upsertDocument(@Nonnull String entityName, @Nonnull String aspectName, @Nonnull String docId,
       @Nonnull JsonNode document);
 
+  /**
+   * Upserts the given documents with synchronous bulk requests, rather than through the background bulk processor used
+   * by {@link #upsertDocument}. The requests are bounded in size like those of the bulk processor.
+   *
+   * @param documents the documents to upsert, keyed by document id
+   * @return the failure message of every document that could not be upserted, keyed by document id
+   */
+  @Nonnull
+  Map<String, String> upsertDocuments(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull Map<String, JsonNode> documents);
+
   List<EnvelopedAspect> getAspectValues(@Nonnull final Urn urn, @Nonnull String entityName, @Nonnull String aspectName,
       @Nullable Long startTimeMillis, @Nullable Long endTimeMillis, @Nullable Integer limit,
       @Nullable Boolean getLatestValue, @Nullable Filter filter);
@@ -29,4 +42,14 @@ public interface TimeseriesAspectService {
   @Nonnull
   GenericTable getAggregatedStats(@Nonnull String entityName, @Nonnull String aspectName,
       @Nonnull AggregationSpec[] aggregationSpecs, @Nullable Filter filter, @Nullable GroupingBucket[] groupingBuckets);
+
+  /**
+   * Get several aggregations over the same time series aspect and filter in a single round trip.
+   *
+   * @param queries the aggregation specs and grouping buckets of each aggregation
+   * @return the result of each aggregation, in the order of the queries
+   */
+  @Nonnull
+  List<GenericTable> batchGetAggregatedStats(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull List<Pair<AggregationSpec[], GroupingBucket[]>> queries, @Nullable Filter filter);
 }
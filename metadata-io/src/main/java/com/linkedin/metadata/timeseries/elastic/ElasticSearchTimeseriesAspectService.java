@@ -10,6 +10,7 @@ import com.linkedin.common.urn.Urn;
 import com.linkedin.data.ByteString;
 import com.linkedin.metadata.aspect.EnvelopedAspect;
 import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.search.elasticsearch.indexbuilder.ReindexWriteRouter;
 import com.linkedin.metadata.query.filter.Condition;
 import com.linkedin.metadata.query.filter.Criterion;
 import com.linkedin.metadata.query.filter.Filter;
@@ -18,6 +19,7 @@ import com.linkedin.metadata.timeseries.TimeseriesAspectService;
 import com.linkedin.metadata.timeseries.elastic.indexbuilder.MappingsBuilder;
 import com.linkedin.metadata.timeseries.elastic.indexbuilder.TimeseriesAspectIndexBuilders;
 import com.linkedin.metadata.timeseries.elastic.query.ESAggregatedStatsDAO;
+import com.linkedin.metadata.timeseries.elastic.rollup.ESTimeseriesRollupDAO;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import com.linkedin.metadata.utils.metrics.MetricUtils;
 import com.linkedin.mxe.GenericAspect;
@@ -25,15 +27,24 @@ import com.linkedin.mxe.SystemMetadata;
 import com.linkedin.timeseries.AggregationSpec;
 import com.linkedin.timeseries.GenericTable;
 import com.linkedin.timeseries.GroupingBucket;
+import com.linkedin.util.Pair;
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.search.SearchResponse;
@@ -56,22 +67,58 @@ public class ElasticSearchTimeseriesAspectService implements TimeseriesAspectSer
   private static final String TIMESTAMP_FIELD = "timestampMillis";
   private static final String EVENT_FIELD = "event";
   private static final Integer DEFAULT_LIMIT = 10000;
+  // Same as the defaults of the bulk processor
+  private static final int DEFAULT_BULK_REQUESTS_LIMIT = 1000;
+  private static final long DEFAULT_BULK_REQUEST_BYTES_LIMIT = 5 * 1024 * 1024;
 
   private final IndexConvention _indexConvention;
   private final BulkProcessor _bulkProcessor;
   private final TimeseriesAspectIndexBuilders _indexBuilders;
   private final RestHighLevelClient _searchClient;
+  private final ReindexWriteRouter _reindexWriteRouter;
   private final ESAggregatedStatsDAO _esAggregatedStatsDAO;
+  @Nullable
+  private final ESTimeseriesRollupDAO _rollupDAO;
+  private final int _bulkRequestsLimit;
+  private final long _bulkRequestBytesLimit;
 
   public ElasticSearchTimeseriesAspectService(@Nonnull RestHighLevelClient searchClient,
       @Nonnull IndexConvention indexConvention, @Nonnull TimeseriesAspectIndexBuilders indexBuilders,
       @Nonnull EntityRegistry entityRegistry, @Nonnull BulkProcessor bulkProcessor) {
+    this(searchClient, indexConvention, indexBuilders, entityRegistry, bulkProcessor, false, 0);
+  }
+
+  public ElasticSearchTimeseriesAspectService(@Nonnull RestHighLevelClient searchClient,
+      @Nonnull IndexConvention indexConvention, @Nonnull TimeseriesAspectIndexBuilders indexBuilders,
+      @Nonnull EntityRegistry entityRegistry, @Nonnull BulkProcessor bulkProcessor, boolean rollupsEnabled,
+      long rawRetentionDays) {
+    this(searchClient, indexConvention, indexBuilders, entityRegistry, bulkProcessor, rollupsEnabled, rawRetentionDays,
+        DEFAULT_BULK_REQUESTS_LIMIT, DEFAULT_BULK_REQUEST_BYTES_LIMIT);
+  }
+
+  /**
+   * @param rollupsEnabled whether to maintain daily and monthly rollups, and use them to answer aggregations
+   * @param rawRetentionDays age past which raw documents are deleted, once rollups are backfilled. Not positive to keep
+   *                         raw documents forever. Only applies if rollups are enabled
+   * @param bulkRequestsLimit maximum number of actions in each bulk request sent by {@link #upsertDocuments}
+   * @param bulkRequestBytesLimit maximum size of each bulk request sent by {@link #upsertDocuments}
+   */
+  public ElasticSearchTimeseriesAspectService(@Nonnull RestHighLevelClient searchClient,
+      @Nonnull IndexConvention indexConvention, @Nonnull TimeseriesAspectIndexBuilders indexBuilders,
+      @Nonnull EntityRegistry entityRegistry, @Nonnull BulkProcessor bulkProcessor, boolean rollupsEnabled,
+      long rawRetentionDays, int bulkRequestsLimit, long bulkRequestBytesLimit) {
     _indexConvention = indexConvention;
     _indexBuilders = indexBuilders;
     _searchClient = searchClient;
     _bulkProcessor = bulkProcessor;
+    _bulkRequestsLimit = bulkRequestsLimit;
+    _bulkRequestBytesLimit = bulkRequestBytesLimit;
+    _reindexWriteRouter = new ReindexWriteRouter(searchClient);
 
-    _esAggregatedStatsDAO = new ESAggregatedStatsDAO(indexConvention, searchClient, entityRegistry);
+    _rollupDAO = rollupsEnabled
+        ? new ESTimeseriesRollupDAO(indexConvention, searchClient, entityRegistry, _reindexWriteRouter,
+        TimeUnit.DAYS.toMillis(Math.max(rawRetentionDays, 0))) : null;
+    _esAggregatedStatsDAO = new ESAggregatedStatsDAO(indexConvention, searchClient, entityRegistry, _rollupDAO);
   }
 
   private static EnvelopedAspect parseDocument(@Nonnull SearchHit doc) {
@@ -103,18 +150,117 @@ public class ElasticSearchTimeseriesAspectService implements TimeseriesAspectSer
   @Override
   public void configure() {
     _indexBuilders.buildAll();
+    if (_rollupDAO != null) {
+      _indexBuilders.buildRollups();
+      _rollupDAO.backfillAsync();
+      _rollupDAO.scheduleRawDocumentExpiry();
+    }
+  }
+
+  /**
+   * Exposes the rollup subsystem, if enabled.
+   */
+  @Nullable
+  public ESTimeseriesRollupDAO getRollupDAO() {
+    return _rollupDAO;
   }
 
   @Override
   public void upsertDocument(@Nonnull String entityName, @Nonnull String aspectName, @Nonnull String docId,
       @Nonnull JsonNode document) {
     String indexName = _indexConvention.getTimeseriesAspectIndexName(entityName, aspectName);
+    _reindexWriteRouter.journal(indexName, docId);
+    for (String index : _reindexWriteRouter.getWriteIndices(indexName)) {
+      _bulkProcessor.add(createUpsertRequest(index, docId, document));
+    }
+    upsertRollups(entityName, aspectName, docId, document);
+  }
+
+  private void upsertRollups(@Nonnull String entityName, @Nonnull String aspectName, @Nonnull String docId,
+      @Nonnull JsonNode document) {
+    if (_rollupDAO != null) {
+      _rollupDAO.getRollupUpdateRequests(entityName, aspectName, docId, document).forEach(_bulkProcessor::add);
+    }
+  }
+
+  @Override
+  @Nonnull
+  public Map<String, String> upsertDocuments(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull Map<String, JsonNode> documents) {
+    if (documents.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    String indexName = _indexConvention.getTimeseriesAspectIndexName(entityName, aspectName);
+    _reindexWriteRouter.journal(indexName, documents.keySet());
+    final List<String> writeIndices = _reindexWriteRouter.getWriteIndices(indexName);
+
+    // The documents are sent in bulk requests bounded like those of the bulk processor, each one being flushed once
+    // it reaches either limit
+    final Map<String, String> failures = new HashMap<>();
+    final Map<String, JsonNode> pendingDocuments = new LinkedHashMap<>();
+    BulkRequest bulkRequest = new BulkRequest();
+    for (Map.Entry<String, JsonNode> entry : documents.entrySet()) {
+      for (String index : writeIndices) {
+        bulkRequest.add(createUpsertRequest(index, entry.getKey(), entry.getValue()));
+      }
+      pendingDocuments.put(entry.getKey(), entry.getValue());
+      if (bulkRequest.numberOfActions() >= _bulkRequestsLimit
+          || bulkRequest.estimatedSizeInBytes() >= _bulkRequestBytesLimit) {
+        failures.putAll(bulkUpsert(entityName, aspectName, indexName, pendingDocuments, writeIndices.size(),
+            bulkRequest));
+        pendingDocuments.clear();
+        bulkRequest = new BulkRequest();
+      }
+    }
+    if (!pendingDocuments.isEmpty()) {
+      failures.putAll(
+          bulkUpsert(entityName, aspectName, indexName, pendingDocuments, writeIndices.size(), bulkRequest));
+    }
+    MetricUtils.counter(this.getClass(), "upsertDocuments_failed").inc(failures.size());
+    return failures;
+  }
+
+  /**
+   * Sends a bulk request upserting the given documents into each of the indices they are written to, in turn, and
+   * updates the rollups of those that made it.
+   */
+  @Nonnull
+  private Map<String, String> bulkUpsert(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull String indexName, @Nonnull Map<String, JsonNode> documents, int numWriteIndices,
+      @Nonnull BulkRequest bulkRequest) {
+    final BulkResponse bulkResponse;
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "upsertDocuments").time()) {
+      bulkResponse = _searchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      log.error("Bulk upsert of {} documents into {} failed", documents.size(), indexName, e);
+      throw new ESQueryException("Bulk upsert failed:", e);
+    }
+
+    final Map<String, String> failures = new HashMap<>();
+    // Only the writes to the index itself, which come first for each document, are reported. Writes to the index it is
+    // being reindexed to are journaled, and replayed by the reindex
+    for (int i = 0; i < bulkResponse.getItems().length; i += numWriteIndices) {
+      final BulkItemResponse item = bulkResponse.getItems()[i];
+      if (item.isFailed()) {
+        failures.put(item.getId(), item.getFailureMessage());
+      }
+    }
+    // Rollups only reflect the documents that made it to the raw index
+    documents.forEach((docId, document) -> {
+      if (!failures.containsKey(docId)) {
+        upsertRollups(entityName, aspectName, docId, document);
+      }
+    });
+    return failures;
+  }
+
+  private static UpdateRequest createUpsertRequest(@Nonnull String indexName, @Nonnull String docId,
+      @Nonnull JsonNode document) {
     final IndexRequest indexRequest =
         new IndexRequest(indexName).id(docId).source(document.toString(), XContentType.JSON);
-    final UpdateRequest updateRequest = new UpdateRequest(indexName, docId).doc(document.toString(), XContentType.JSON)
+    return new UpdateRequest(indexName, docId).doc(document.toString(), XContentType.JSON)
         .detectNoop(false)
         .upsert(indexRequest);
-    _bulkProcessor.add(updateRequest);
   }
 
   @Override
@@ -175,4 +321,11 @@ public class ElasticSearchTimeseriesAspectService implements TimeseriesAspectSer
       @Nullable GroupingBucket[] groupingBuckets) {
     return _esAggregatedStatsDAO.getAggregatedStats(entityName, aspectName, aggregationSpecs, filter, groupingBuckets);
   }
+
+  @Override
+  @Nonnull
+  public List<GenericTable> batchGetAggregatedStats(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull List<Pair<AggregationSpec[], GroupingBucket[]>> queries, @Nullable Filter filter) {
+    return _esAggregatedStatsDAO.batchGetAggregatedStats(entityName, aspectName, queries, filter);
+  }
 }
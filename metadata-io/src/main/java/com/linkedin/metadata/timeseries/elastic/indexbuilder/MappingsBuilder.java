@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableMap;
 import com.linkedin.data.schema.DataSchema;
 import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.TimeseriesFieldCollectionSpec;
+import com.linkedin.metadata.timeseries.elastic.rollup.TimeseriesRollupPlanner;
 import java.util.HashMap;
 import java.util.Map;
 import javax.annotation.Nonnull;
@@ -22,6 +23,8 @@ public class MappingsBuilder {
   public static final String PARTITION_SPEC = "partitionSpec";
   public static final String PARTITION_SPEC_PARTITION = "partition";
   public static final String PARTITION_SPEC_TIME_PARTITION = "timePartition";
+  public static final String ROLLUP_SUM_FIELD = "rollupSum";
+  public static final String ROLLUP_SOURCES_FIELD = "rollupSources";
 
   private MappingsBuilder() {
   }
@@ -54,6 +57,35 @@ public class MappingsBuilder {
     return ImmutableMap.of("properties", mappings);
   }
 
+  /**
+   * Mappings of the rollup indices of a timeseries aspect: the mappings of raw documents, plus the sums of numeric fields
+   * and the per raw document contributions to those sums.
+   */
+  public static Map<String, Object> getRollupMappings(@Nonnull final AspectSpec aspectSpec) {
+    Map<String, Object> mappings = new HashMap<>((Map<String, Object>) getMappings(aspectSpec).get("properties"));
+    mappings.put(ROLLUP_SOURCES_FIELD, ImmutableMap.of("type", "object", "enabled", false));
+    Map<String, Object> sumMappings = new HashMap<>();
+    TimeseriesRollupPlanner.getSummableFields(aspectSpec)
+        .forEach((fieldPath, type) -> sumMappings.put(getRollupSumKey(fieldPath),
+            getFieldMapping(type == DataSchema.Type.FLOAT || type == DataSchema.Type.DOUBLE ? DataSchema.Type.DOUBLE
+                : DataSchema.Type.LONG)));
+    mappings.put(ROLLUP_SUM_FIELD, ImmutableMap.of("properties", sumMappings));
+    return ImmutableMap.of("properties", mappings);
+  }
+
+  /**
+   * Key of the sum of the given field within the rollup sums object.
+   */
+  @Nonnull
+  public static String getRollupSumKey(@Nonnull String fieldPath) {
+    return fieldPath.replace(".", "_");
+  }
+
+  @Nonnull
+  public static String getRollupSumField(@Nonnull String fieldPath) {
+    return ROLLUP_SUM_FIELD + "." + getRollupSumKey(fieldPath);
+  }
+
   private static Map<String, Object> getTimeseriesFieldCollectionSpecMapping(
       TimeseriesFieldCollectionSpec timeseriesFieldCollectionSpec) {
     Map<String, Object> collectionMappings = new HashMap<>();
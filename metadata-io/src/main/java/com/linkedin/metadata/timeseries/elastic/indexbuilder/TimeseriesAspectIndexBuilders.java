@@ -4,6 +4,7 @@ import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.EntitySpec;
 import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.search.elasticsearch.indexbuilder.ESIndexBuilder;
+import com.linkedin.metadata.timeseries.elastic.rollup.TimeseriesRollupGranularity;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import java.io.IOException;
 import java.util.Collections;
@@ -35,4 +36,24 @@ public class TimeseriesAspectIndexBuilders {
       }
     }
   }
+
+  public void buildRollups() {
+    for (EntitySpec entitySpec : _entityRegistry.getEntitySpecs().values()) {
+      for (AspectSpec aspectSpec : entitySpec.getAspectSpecs()) {
+        if (aspectSpec.isTimeseries()) {
+          for (TimeseriesRollupGranularity granularity : TimeseriesRollupGranularity.values()) {
+            try {
+              _indexBuilder.buildIndex(
+                  granularity.getIndexName(_indexConvention, entitySpec.getName(), aspectSpec.getName()),
+                  MappingsBuilder.getRollupMappings(aspectSpec), Collections.emptyMap());
+            } catch (IOException e) {
+              log.error("Issue while building timeseries rollup index for entity {} aspect {}", entitySpec.getName(),
+                  aspectSpec.getName());
+              log.error("Exception: ", e);
+            }
+          }
+        }
+      }
+    }
+  }
 }
@@ -1,5 +1,6 @@
 package com.linkedin.metadata.timeseries.elastic.query;
 
+import com.codahale.metrics.Timer;
 import com.datahub.util.exception.ESQueryException;
 import com.google.common.collect.ImmutableList;
 import com.linkedin.data.schema.DataSchema;
@@ -13,12 +14,17 @@ import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.search.utils.ESUtils;
 import com.linkedin.metadata.timeseries.elastic.indexbuilder.MappingsBuilder;
+import com.linkedin.metadata.timeseries.elastic.rollup.ESTimeseriesRollupDAO;
+import com.linkedin.metadata.timeseries.elastic.rollup.TimeseriesRollupGranularity;
+import com.linkedin.metadata.timeseries.elastic.rollup.TimeseriesRollupPlan;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
 import com.linkedin.timeseries.AggregationSpec;
 import com.linkedin.timeseries.GenericTable;
 import com.linkedin.timeseries.GroupingBucket;
 import com.linkedin.timeseries.GroupingBucketType;
 import com.linkedin.timeseries.TimeWindowSize;
+import com.linkedin.util.Pair;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -34,6 +40,9 @@ import org.elasticsearch.action.search.SearchResponse;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.elasticsearch.index.query.BoolQueryBuilder;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.query.RangeQueryBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilder;
 import org.elasticsearch.search.aggregations.AggregationBuilders;
 import org.elasticsearch.search.aggregations.Aggregations;
@@ -57,20 +66,35 @@ public class ESAggregatedStatsDAO {
   private static final String ES_MAX_AGGREGATION_PREFIX = "max_";
   private static final String ES_FIELD_TIMESTAMP = "timestampMillis";
   private static final String ES_FIELD_URN = "urn";
+  private static final String ES_FIELD_INDEX = "_index";
   private static final String ES_AGG_TIMESTAMP = ES_AGGREGATION_PREFIX + ES_FIELD_TIMESTAMP;
   private static final String ES_AGG_MAX_TIMESTAMP =
       ES_AGGREGATION_PREFIX + ES_MAX_AGGREGATION_PREFIX + ES_FIELD_TIMESTAMP;
+  // Sum over the raw documents, and sibling sum over the rollup documents, when a sum is computed from both
+  private static final String ES_AGG_RAW_SUM = "raw_sum";
+  private static final String ES_AGG_ROLLUP_SUM_SUFFIX = "_rollup";
   private static final int MAX_TERM_BUCKETS = 24 * 60; // minutes in a day.
 
   private final IndexConvention _indexConvention;
   private final RestHighLevelClient _searchClient;
   private final EntityRegistry _entityRegistry;
+  @Nullable
+  private final ESTimeseriesRollupDAO _rollupDAO;
 
   public ESAggregatedStatsDAO(@Nonnull IndexConvention indexConvention, @Nonnull RestHighLevelClient searchClient,
       @Nonnull EntityRegistry entityRegistry) {
+    this(indexConvention, searchClient, entityRegistry, null);
+  }
+
+  /**
+   * @param rollupDAO if set, aggregations are answered from rollup documents whenever they give the same result
+   */
+  public ESAggregatedStatsDAO(@Nonnull IndexConvention indexConvention, @Nonnull RestHighLevelClient searchClient,
+      @Nonnull EntityRegistry entityRegistry, @Nullable ESTimeseriesRollupDAO rollupDAO) {
     _indexConvention = indexConvention;
     _searchClient = searchClient;
     _entityRegistry = entityRegistry;
+    _rollupDAO = rollupDAO;
   }
 
   private static String toEsAggName(final String aggName) {
@@ -300,17 +324,12 @@ public class ESAggregatedStatsDAO {
         return values[0];
       }
     } else if (memberAgg instanceof ParsedSum) {
-      // Underling integral type.
-      switch (memberType) {
-        case INT:
-        case LONG:
-          return String.valueOf((long) ((ParsedSum) memberAgg).getValue());
-        case DOUBLE:
-        case FLOAT:
-          return String.valueOf(((ParsedSum) memberAgg).getValue());
-        default:
-          throw new IllegalArgumentException("Unexpected type encountered for sum aggregation: " + memberType);
-      }
+      return formatSum(((ParsedSum) memberAgg).getValue(), memberType);
+    } else if (memberAgg instanceof ParsedFilter) {
+      // Sum over both raw and rollup documents
+      final double rawSum = ((ParsedSum) ((ParsedFilter) memberAgg).getAggregations().get(ES_AGG_RAW_SUM)).getValue();
+      final double rollupSum = ((ParsedSum) aggregations.get(memberAggName + ES_AGG_ROLLUP_SUM_SUFFIX)).getValue();
+      return formatSum(rawSum + rollupSum, memberType);
     } else if (memberAgg instanceof ParsedCardinality) {
       // This will always be a long value as string.
       return String.valueOf(((ParsedCardinality) memberAgg).getValue());
@@ -320,6 +339,20 @@ public class ESAggregatedStatsDAO {
     return defaultValue;
   }
 
+  private static String formatSum(double sum, @Nonnull DataSchema.Type memberType) {
+    // Underling integral type.
+    switch (memberType) {
+      case INT:
+      case LONG:
+        return String.valueOf((long) sum);
+      case DOUBLE:
+      case FLOAT:
+        return String.valueOf(sum);
+      default:
+        throw new IllegalArgumentException("Unexpected type encountered for sum aggregation: " + memberType);
+    }
+  }
+
   private AspectSpec getTimeseriesAspectSpec(@Nonnull String entityName, @Nonnull String aspectName) {
     EntitySpec entitySpec = _entityRegistry.getEntitySpec(entityName);
     AspectSpec aspectSpec = entitySpec.getAspectSpec(aspectName);
@@ -340,44 +373,112 @@ public class ESAggregatedStatsDAO {
   public GenericTable getAggregatedStats(@Nonnull String entityName, @Nonnull String aspectName,
       @Nonnull AggregationSpec[] aggregationSpecs, @Nullable Filter filter,
       @Nullable GroupingBucket[] groupingBuckets) {
+    return batchGetAggregatedStats(entityName, aspectName, ImmutableList.of(new Pair<>(aggregationSpecs, groupingBuckets)),
+        filter).get(0);
+  }
 
-    // Setup the filter query builder using the input filter provided.
-    final BoolQueryBuilder filterQueryBuilder = ESUtils.buildFilterQuery(filter);
-    // Create the high-level aggregation builder with the filter.
-    final AggregationBuilder filteredAggBuilder = AggregationBuilders.filter(ES_FILTERED_STATS, filterQueryBuilder);
-
+  /**
+   * Get several aggregations of the same time series aspect and filter with a single search request, where each
+   * aggregation is a sibling filter aggregation. Equivalent to calling {@link #getAggregatedStats} once per query.
+   *
+   * @param queries the aggregation specs and grouping buckets of each aggregation
+   * @return the table of each aggregation, in the order of the queries
+   */
+  @Nonnull
+  public List<GenericTable> batchGetAggregatedStats(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull List<Pair<AggregationSpec[], GroupingBucket[]>> queries, @Nullable Filter filter) {
     AspectSpec aspectSpec = getTimeseriesAspectSpec(entityName, aspectName);
-    // Build and attach the grouping aggregations
-    final AggregationBuilder baseAggregationForMembers =
-        makeGroupingAggregationBuilder(aspectSpec, filteredAggBuilder, groupingBuckets);
-
-    // Add the aggregations for members.
-    for (AggregationSpec aggregationSpec : aggregationSpecs) {
-      addAggregationBuildersFromAggregationSpec(aspectSpec, baseAggregationForMembers, aggregationSpec);
-    }
+    // Answer from the coarsest rollup that gives the same result as raw documents, if any
+    final TimeseriesRollupPlan rollupPlan =
+        _rollupDAO == null ? null : _rollupDAO.getServingPlan(entityName, aspectName, queries, filter);
+    final String rawIndexName = _indexConvention.getTimeseriesAspectIndexName(entityName, aspectName);
 
     final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-    searchSourceBuilder.aggregation(filteredAggBuilder);
+    // Only the aggregations are read from the response
+    searchSourceBuilder.size(0);
+    for (int i = 0; i < queries.size(); i++) {
+      // Setup the filter query builder using the input filter provided.
+      final QueryBuilder filterQueryBuilder = rollupPlan != null && rollupPlan.readsRawDocuments()
+          ? buildRollupAndRawFilterQuery(rollupPlan, rawIndexName,
+              rollupPlan.getGranularity().getIndexName(_indexConvention, entityName, aspectName))
+          : ESUtils.buildFilterQuery(filter);
+      // Create the high-level aggregation builder with the filter.
+      final AggregationBuilder filteredAggBuilder =
+          AggregationBuilders.filter(getFilteredStatsAggName(i), filterQueryBuilder);
+
+      // Build and attach the grouping aggregations
+      final AggregationBuilder baseAggregationForMembers =
+          makeGroupingAggregationBuilder(aspectSpec, filteredAggBuilder, queries.get(i).getSecond());
+
+      // Add the aggregations for members.
+      for (AggregationSpec aggregationSpec : queries.get(i).getFirst()) {
+        addAggregationBuildersFromAggregationSpec(aspectSpec, baseAggregationForMembers, aggregationSpec,
+            rollupPlan, rawIndexName);
+      }
+      searchSourceBuilder.aggregation(filteredAggBuilder);
+    }
 
     final SearchRequest searchRequest = new SearchRequest();
     searchRequest.source(searchSourceBuilder);
 
-    final String indexName = _indexConvention.getTimeseriesAspectIndexName(entityName, aspectName);
-    searchRequest.indices(indexName);
+    if (rollupPlan == null) {
+      searchRequest.indices(rawIndexName);
+    } else {
+      final TimeseriesRollupGranularity granularity = rollupPlan.getGranularity();
+      final String rollupIndexName = granularity.getIndexName(_indexConvention, entityName, aspectName);
+      if (rollupPlan.readsRawDocuments()) {
+        searchRequest.indices(rollupIndexName, rawIndexName);
+        MetricUtils.counter(this.getClass(), "rollup_" + granularity.name().toLowerCase() + "_and_raw").inc();
+      } else {
+        searchRequest.indices(rollupIndexName);
+        MetricUtils.counter(this.getClass(), "rollup_" + granularity.name().toLowerCase()).inc();
+      }
+    }
 
     log.debug("Search request is: " + searchRequest);
 
-    try {
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "getAggregatedStats").time()) {
       final SearchResponse searchResponse = _searchClient.search(searchRequest, RequestOptions.DEFAULT);
-      return generateResponseFromElastic(searchResponse, groupingBuckets, aggregationSpecs, aspectSpec);
+      final List<GenericTable> results = new ArrayList<>(queries.size());
+      for (int i = 0; i < queries.size(); i++) {
+        results.add(generateResponseFromElastic(searchResponse, getFilteredStatsAggName(i), queries.get(i).getSecond(),
+            queries.get(i).getFirst(), aspectSpec));
+      }
+      return results;
     } catch (Exception e) {
       log.error("Search query failed: " + e.getMessage());
       throw new ESQueryException("Search query failed:", e);
     }
   }
 
+  private static String getFilteredStatsAggName(int queryIndex) {
+    return ES_FILTERED_STATS + "_" + queryIndex;
+  }
+
+  /**
+   * Selects the rollup documents of the whole buckets of the given plan, and the raw documents of the rest of its time
+   * range.
+   */
+  @Nonnull
+  private static QueryBuilder buildRollupAndRawFilterQuery(@Nonnull TimeseriesRollupPlan rollupPlan,
+      @Nonnull String rawIndexName, @Nonnull String rollupIndexName) {
+    final RangeQueryBuilder rollupRange = QueryBuilders.rangeQuery(ES_FIELD_TIMESTAMP)
+        .gte(rollupPlan.getRollupStartMillis())
+        .lt(rollupPlan.getRollupEndMillis());
+    final BoolQueryBuilder rollupDocuments =
+        QueryBuilders.boolQuery().filter(QueryBuilders.termQuery(ES_FIELD_INDEX, rollupIndexName)).filter(rollupRange);
+    final BoolQueryBuilder rawDocuments = QueryBuilders.boolQuery()
+        .filter(QueryBuilders.termQuery(ES_FIELD_INDEX, rawIndexName))
+        .filter(QueryBuilders.rangeQuery(ES_FIELD_TIMESTAMP)
+            .gte(rollupPlan.getRawStartMillis())
+            .lt(rollupPlan.getRawEndMillis()))
+        .mustNot(rollupRange);
+    return ESUtils.buildFilterQuery(rollupPlan.getFilter())
+        .filter(QueryBuilders.boolQuery().should(rollupDocuments).should(rawDocuments).minimumShouldMatch(1));
+  }
+
   private void addAggregationBuildersFromAggregationSpec(AspectSpec aspectSpec, AggregationBuilder baseAggregation,
-      AggregationSpec aggregationSpec) {
+      AggregationSpec aggregationSpec, @Nullable TimeseriesRollupPlan rollupPlan, @Nonnull String rawIndexName) {
     String fieldPath = aggregationSpec.getFieldPath();
     String esFieldName = fieldPath;
 
@@ -397,9 +498,22 @@ public class ESAggregatedStatsDAO {
         baseAggregation.subAggregation(maxBucketPipelineAgg);
         break;
       case SUM:
-        AggregationBuilder sumAgg =
-            AggregationBuilders.sum(getAggregationSpecAggESName(aggregationSpec)).field(esFieldName);
-        baseAggregation.subAggregation(sumAgg);
+        // Rollup documents hold the sum of the field over the raw documents they summarize
+        if (rollupPlan == null) {
+          baseAggregation.subAggregation(
+              AggregationBuilders.sum(getAggregationSpecAggESName(aggregationSpec)).field(esFieldName));
+        } else if (!rollupPlan.readsRawDocuments()) {
+          baseAggregation.subAggregation(AggregationBuilders.sum(getAggregationSpecAggESName(aggregationSpec))
+              .field(MappingsBuilder.getRollupSumField(fieldPath)));
+        } else {
+          // Rollup documents also hold the field of their latest raw document, which must not be summed
+          baseAggregation.subAggregation(AggregationBuilders.filter(getAggregationSpecAggESName(aggregationSpec),
+              QueryBuilders.termQuery(ES_FIELD_INDEX, rawIndexName))
+              .subAggregation(AggregationBuilders.sum(ES_AGG_RAW_SUM).field(esFieldName)));
+          baseAggregation.subAggregation(
+              AggregationBuilders.sum(getAggregationSpecAggESName(aggregationSpec) + ES_AGG_ROLLUP_SUM_SUFFIX)
+                  .field(MappingsBuilder.getRollupSumField(fieldPath)));
+        }
         break;
       case CARDINALITY:
         AggregationBuilder cardinalityAgg =
@@ -442,8 +556,8 @@ public class ESAggregatedStatsDAO {
     return lastAggregationBuilder;
   }
 
-  private GenericTable generateResponseFromElastic(SearchResponse searchResponse, GroupingBucket[] groupingBuckets,
-      AggregationSpec[] aggregationSpecs, AspectSpec aspectSpec) {
+  private GenericTable generateResponseFromElastic(SearchResponse searchResponse, String filteredStatsAggName,
+      GroupingBucket[] groupingBuckets, AggregationSpec[] aggregationSpecs, AspectSpec aspectSpec) {
     GenericTable resultTable = new GenericTable();
 
     // 1. Generate the column names.
@@ -458,7 +572,7 @@ public class ESAggregatedStatsDAO {
     List<StringArray> rows = new ArrayList<>();
 
     Aggregations aggregations = searchResponse.getAggregations();
-    ParsedFilter filterAgg = aggregations.get(ES_FILTERED_STATS);
+    ParsedFilter filterAgg = aggregations.get(filteredStatsAggName);
     Stack<String> rowAcc = new Stack<>();
     // 3.1 Do a DFS of the aggregation tree and generate the rows.
     rowGenHelper(filterAgg.getAggregations(), 0, groupingBuckets.length, rows, rowAcc,
@@ -0,0 +1,456 @@
+package com.linkedin.metadata.timeseries.elastic.rollup;
+
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.linkedin.metadata.models.AspectSpec;
+import com.linkedin.metadata.models.EntitySpec;
+import com.linkedin.metadata.models.TimeseriesFieldCollectionSpec;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.query.filter.Filter;
+import com.linkedin.metadata.search.elasticsearch.indexbuilder.ReindexWriteRouter;
+import com.linkedin.metadata.search.elasticsearch.update.ESLeaseDAO;
+import com.linkedin.metadata.timeseries.elastic.indexbuilder.MappingsBuilder;
+import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
+import com.linkedin.timeseries.AggregationSpec;
+import com.linkedin.timeseries.GroupingBucket;
+import com.linkedin.util.Pair;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.search.ClearScrollRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.action.search.SearchResponse;
+import org.elasticsearch.action.search.SearchScrollRequest;
+import org.elasticsearch.action.update.UpdateRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.indices.GetMappingsRequest;
+import org.elasticsearch.client.indices.PutMappingRequest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.index.reindex.BulkByScrollResponse;
+import org.elasticsearch.index.reindex.DeleteByQueryRequest;
+import org.elasticsearch.script.Script;
+import org.elasticsearch.script.ScriptType;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
+
+
+/**
+ * Maintains the daily and monthly rollup indices of timeseries aspects (see {@link TimeseriesRollupPlanner} for what a
+ * rollup document holds).
+ *
+ * Rollup documents are updated incrementally, with a scripted upsert per raw document and granularity. Updates are
+ * idempotent, since contributions to sums are keyed by raw document id. A rollup index is only used to answer queries
+ * once it has been backfilled from the raw documents that predate it, which is recorded in the index mapping metadata.
+ *
+ * Backfills and raw document expiry are run by a single instance at a time, the one holding their {@link ESLeaseDAO}
+ * lease.
+ */
+@Slf4j
+public class ESTimeseriesRollupDAO {
+  private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {
+  };
+  private static final String BACKFILLED_META = "rollupBackfilled";
+  private static final int BACKFILL_BATCH_SIZE = 1000;
+  private static final TimeValue BACKFILL_SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(5);
+  private static final int RETRY_ON_CONFLICT = 5;
+  private static final long EXPIRY_INTERVAL_HOURS = 1;
+  private static final String BACKFILL_LEASE = "timeseries_rollup_backfill";
+  // Renewed after each batch of raw documents
+  private static final long BACKFILL_LEASE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  private static final long BACKFILL_RETRY_MINUTES = 5;
+  private static final String EXPIRY_LEASE = "timeseries_raw_expiry";
+  // Renewed by each run, so that the same instance keeps expiring raw documents
+  private static final long EXPIRY_LEASE_MILLIS = TimeUnit.HOURS.toMillis(2 * EXPIRY_INTERVAL_HOURS);
+
+  // Replaces the document by the given raw document if it is the latest one, then replaces the previous contribution
+  // of the raw document to the sums, if any, by its new one
+  private static final String ROLLUP_SCRIPT = String.join("\n",
+      "def sources = ctx._source." + MappingsBuilder.ROLLUP_SOURCES_FIELD + ";",
+      "if (sources == null) { sources = new HashMap(); }",
+      "def totals = ctx._source." + MappingsBuilder.ROLLUP_SUM_FIELD + ";",
+      "if (totals == null) { totals = new HashMap(); }",
+      "def latest = ctx._source." + MappingsBuilder.TIMESTAMP_MILLIS_FIELD + ";",
+      "if (latest == null || params.timestampMillis >= latest) {",
+      "  ctx._source.clear();",
+      "  ctx._source.putAll(params.doc);",
+      "}",
+      "def previous = sources.put(params.sourceId, params.sums);",
+      "if (previous != null) {",
+      "  for (def entry : previous.entrySet()) {",
+      "    def total = totals.get(entry.getKey());",
+      "    if (total != null) { totals.put(entry.getKey(), total - entry.getValue()); }",
+      "  }",
+      "}",
+      "for (def entry : params.sums.entrySet()) {",
+      "  def total = totals.get(entry.getKey());",
+      "  totals.put(entry.getKey(), total == null ? entry.getValue() : total + entry.getValue());",
+      "}",
+      "ctx._source." + MappingsBuilder.ROLLUP_SOURCES_FIELD + " = sources;",
+      "ctx._source." + MappingsBuilder.ROLLUP_SUM_FIELD + " = totals;");
+
+  private final IndexConvention _indexConvention;
+  private final RestHighLevelClient _searchClient;
+  private final EntityRegistry _entityRegistry;
+  private final ReindexWriteRouter _reindexWriteRouter;
+  private final ESLeaseDAO _leaseDAO;
+  private final long _rawRetentionMillis;
+  private final ScheduledExecutorService _executorService = Executors.newSingleThreadScheduledExecutor(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("timeseries-rollup-%d").build());
+  private final Cache<String, Boolean> _backfilledCache =
+      CacheBuilder.newBuilder().expireAfterWrite(1, TimeUnit.MINUTES).build();
+
+  /**
+   * @param rawRetentionMillis how long raw documents are kept once rolled up, or 0 to keep them forever
+   */
+  public ESTimeseriesRollupDAO(@Nonnull IndexConvention indexConvention, @Nonnull RestHighLevelClient searchClient,
+      @Nonnull EntityRegistry entityRegistry, @Nonnull ReindexWriteRouter reindexWriteRouter,
+      long rawRetentionMillis) {
+    _indexConvention = indexConvention;
+    _searchClient = searchClient;
+    _entityRegistry = entityRegistry;
+    _reindexWriteRouter = reindexWriteRouter;
+    _leaseDAO = new ESLeaseDAO(searchClient, indexConvention);
+    _rawRetentionMillis = rawRetentionMillis;
+  }
+
+  /**
+   * Get the requests that fold the given raw document into the rollup documents of every granularity.
+   */
+  @Nonnull
+  public List<UpdateRequest> getRollupUpdateRequests(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull String docId, @Nonnull JsonNode document) {
+    return getRollupUpdateRequests(entityName, aspectName, docId, document,
+        Arrays.asList(TimeseriesRollupGranularity.values()));
+  }
+
+  /**
+   * Same as {@link #getRollupUpdateRequests(String, String, String, JsonNode)}, for the given granularities only. The
+   * rollup documents are also updated in the indices their rollup index is being reindexed to, if any.
+   */
+  @Nonnull
+  private List<UpdateRequest> getRollupUpdateRequests(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull String docId, @Nonnull JsonNode document,
+      @Nonnull Collection<TimeseriesRollupGranularity> granularities) {
+    final AspectSpec aspectSpec = _entityRegistry.getEntitySpec(entityName).getAspectSpec(aspectName);
+    final long timestampMillis = document.get(MappingsBuilder.TIMESTAMP_MILLIS_FIELD).asLong();
+    final String identity = getIdentity(aspectSpec, document);
+
+    final Map<String, Object> sums = new HashMap<>();
+    for (String fieldPath : TimeseriesRollupPlanner.getSummableFields(aspectSpec).keySet()) {
+      JsonNode value = document;
+      for (String part : fieldPath.split("\\.")) {
+        value = value == null ? null : value.get(part);
+      }
+      if (value != null && value.isNumber()) {
+        sums.put(MappingsBuilder.getRollupSumKey(fieldPath),
+            value.isIntegralNumber() ? (Object) value.longValue() : (Object) value.doubleValue());
+      }
+    }
+    final Map<String, Object> params = ImmutableMap.of("doc", OBJECT_MAPPER.convertValue(document, MAP_TYPE),
+        "timestampMillis", timestampMillis, "sourceId", docId, "sums", sums);
+
+    final List<UpdateRequest> requests = new ArrayList<>();
+    for (TimeseriesRollupGranularity granularity : granularities) {
+      final String rollupIndexName = granularity.getIndexName(_indexConvention, entityName, aspectName);
+      final String rollupDocId =
+          DigestUtils.md5Hex(granularity.name() + granularity.getBucketStart(timestampMillis) + identity);
+      _reindexWriteRouter.journal(rollupIndexName, rollupDocId);
+      for (String index : _reindexWriteRouter.getWriteIndices(rollupIndexName)) {
+        requests.add(new UpdateRequest(index, rollupDocId)
+            .script(new Script(ScriptType.INLINE, Script.DEFAULT_SCRIPT_LANG, ROLLUP_SCRIPT, params))
+            .scriptedUpsert(true)
+            .upsert(new HashMap<>())
+            .retryOnConflict(RETRY_ON_CONFLICT));
+      }
+    }
+    return requests;
+  }
+
+  private static String getIdentity(@Nonnull AspectSpec aspectSpec, @Nonnull JsonNode document) {
+    final StringBuilder identity = new StringBuilder();
+    for (String field : new String[]{MappingsBuilder.URN_FIELD, MappingsBuilder.EVENT_GRANULARITY,
+        MappingsBuilder.IS_EXPLODED_FIELD, MappingsBuilder.PARTITION_SPEC}) {
+      identity.append(document.get(field)).append('|');
+    }
+    for (TimeseriesFieldCollectionSpec collectionSpec : aspectSpec.getTimeseriesFieldCollectionSpecs()) {
+      final JsonNode member = document.get(collectionSpec.getName());
+      if (member != null) {
+        identity.append(collectionSpec.getName())
+            .append(member.get(collectionSpec.getTimeseriesFieldCollectionAnnotation().getKey()))
+            .append('|');
+      }
+    }
+    return identity.toString();
+  }
+
+  /**
+   * Plan answering all the given aggregations exactly from the coarsest rollup granularity that can, and whose index is
+   * ready.
+   *
+   * @return the plan, or null if the aggregations have to be answered from raw documents only
+   */
+  @Nullable
+  public TimeseriesRollupPlan getServingPlan(@Nonnull String entityName, @Nonnull String aspectName,
+      @Nonnull List<Pair<AggregationSpec[], GroupingBucket[]>> queries, @Nullable Filter filter) {
+    final AspectSpec aspectSpec = _entityRegistry.getEntitySpec(entityName).getAspectSpec(aspectName);
+    for (TimeseriesRollupPlan plan : TimeseriesRollupPlanner.getServingPlans(aspectSpec, queries, filter,
+        getRawHorizonMillis())) {
+      if (isBackfilled(plan.getGranularity().getIndexName(_indexConvention, entityName, aspectName))) {
+        return plan;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Time before which raw documents are deleted once rolled up: the start of the month the raw retention reaches into,
+   * so that only whole buckets of every granularity are deleted.
+   */
+  public long getRawHorizonMillis() {
+    if (_rawRetentionMillis <= 0) {
+      return Long.MIN_VALUE;
+    }
+    return TimeseriesRollupGranularity.MONTH.getBucketStart(System.currentTimeMillis() - _rawRetentionMillis);
+  }
+
+  public boolean isBackfilled(@Nonnull String rollupIndexName) {
+    try {
+      return _backfilledCache.get(rollupIndexName, () -> readBackfilledMeta(rollupIndexName));
+    } catch (ExecutionException e) {
+      return false;
+    }
+  }
+
+  private boolean readBackfilledMeta(@Nonnull String rollupIndexName) {
+    try {
+      final Object meta = _searchClient.indices()
+          .getMapping(new GetMappingsRequest().indices(rollupIndexName), RequestOptions.DEFAULT)
+          .mappings()
+          .values()
+          .stream()
+          .findFirst()
+          .map(mapping -> mapping.getSourceAsMap().get("_meta"))
+          .orElse(null);
+      return meta instanceof Map && Boolean.TRUE.equals(((Map<?, ?>) meta).get(BACKFILLED_META));
+    } catch (Exception e) {
+      // e.g. the rollup index does not exist yet
+      log.warn("Failed to check whether rollup index {} is backfilled: {}", rollupIndexName, e.toString());
+      return false;
+    }
+  }
+
+  /**
+   * Backfills, in the background, every rollup index that has not been backfilled yet, e.g. because it was just created
+   * or rebuilt. Only the instance holding the backfill lease runs it, the others check again later whether it is done.
+   */
+  public void backfillAsync() {
+    _executorService.submit(this::backfillAll);
+  }
+
+  private void backfillAll() {
+    final List<Pair<String, String>> aspects = new ArrayList<>();
+    for (EntitySpec entitySpec : _entityRegistry.getEntitySpecs().values()) {
+      for (AspectSpec aspectSpec : entitySpec.getAspectSpecs()) {
+        if (aspectSpec.isTimeseries() && !getGranularitiesToBackfill(entitySpec.getName(), aspectSpec.getName())
+            .isEmpty()) {
+          aspects.add(new Pair<>(entitySpec.getName(), aspectSpec.getName()));
+        }
+      }
+    }
+    if (aspects.isEmpty()) {
+      return;
+    }
+    if (!_leaseDAO.tryAcquire(BACKFILL_LEASE, BACKFILL_LEASE_MILLIS)) {
+      log.info("Rollup indices are being backfilled by another instance, checking again in {} minutes",
+          BACKFILL_RETRY_MINUTES);
+      _executorService.schedule(this::backfillAll, BACKFILL_RETRY_MINUTES, TimeUnit.MINUTES);
+      return;
+    }
+    boolean succeeded = true;
+    try {
+      for (Pair<String, String> aspect : aspects) {
+        succeeded &= backfill(aspect.getFirst(), aspect.getSecond());
+      }
+    } finally {
+      _leaseDAO.release(BACKFILL_LEASE);
+    }
+    if (!succeeded) {
+      _executorService.schedule(this::backfillAll, BACKFILL_RETRY_MINUTES, TimeUnit.MINUTES);
+    }
+  }
+
+  @Nonnull
+  private List<TimeseriesRollupGranularity> getGranularitiesToBackfill(@Nonnull String entityName,
+      @Nonnull String aspectName) {
+    final List<TimeseriesRollupGranularity> granularities = new ArrayList<>();
+    for (TimeseriesRollupGranularity granularity : TimeseriesRollupGranularity.values()) {
+      final String rollupIndexName = granularity.getIndexName(_indexConvention, entityName, aspectName);
+      _backfilledCache.invalidate(rollupIndexName);
+      if (!isBackfilled(rollupIndexName)) {
+        granularities.add(granularity);
+      }
+    }
+    return granularities;
+  }
+
+  /**
+   * @return whether the rollup indices of the given aspect are backfilled
+   */
+  private boolean backfill(@Nonnull String entityName, @Nonnull String aspectName) {
+    final List<TimeseriesRollupGranularity> granularities = getGranularitiesToBackfill(entityName, aspectName);
+    final List<String> rollupIndexNames = new ArrayList<>();
+    for (TimeseriesRollupGranularity granularity : granularities) {
+      rollupIndexNames.add(granularity.getIndexName(_indexConvention, entityName, aspectName));
+    }
+    if (rollupIndexNames.isEmpty()) {
+      // e.g. by the previous holder of the lease
+      return true;
+    }
+
+    final String indexName = _indexConvention.getTimeseriesAspectIndexName(entityName, aspectName);
+    log.info("Backfilling rollup indices {} from {}", rollupIndexNames, indexName);
+    long numDocuments = 0;
+    String scrollId = null;
+    try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "backfill").time()) {
+      SearchResponse response = _searchClient.search(new SearchRequest(indexName).scroll(BACKFILL_SCROLL_KEEP_ALIVE)
+          .source(new SearchSourceBuilder().size(BACKFILL_BATCH_SIZE).sort("_doc")), RequestOptions.DEFAULT);
+      scrollId = response.getScrollId();
+      while (response.getHits().getHits().length > 0) {
+        if (!_leaseDAO.tryAcquire(BACKFILL_LEASE, BACKFILL_LEASE_MILLIS)) {
+          throw new IOException("Lost the backfill lease to another instance");
+        }
+        final BulkRequest bulkRequest = new BulkRequest();
+        for (SearchHit hit : response.getHits().getHits()) {
+          getRollupUpdateRequests(entityName, aspectName, hit.getId(), OBJECT_MAPPER.readTree(hit.getSourceAsString()),
+              granularities).forEach(bulkRequest::add);
+        }
+        final BulkResponse bulkResponse = _searchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+        if (bulkResponse.hasFailures()) {
+          throw new IOException(bulkResponse.buildFailureMessage());
+        }
+        numDocuments += response.getHits().getHits().length;
+        response = _searchClient.scroll(new SearchScrollRequest(scrollId).scroll(BACKFILL_SCROLL_KEEP_ALIVE),
+            RequestOptions.DEFAULT);
+        scrollId = response.getScrollId();
+      }
+
+      for (String rollupIndexName : rollupIndexNames) {
+        _searchClient.indices()
+            .putMapping(new PutMappingRequest(rollupIndexName).source(
+                ImmutableMap.of("_meta", ImmutableMap.of(BACKFILLED_META, true))), RequestOptions.DEFAULT);
+        _backfilledCache.invalidate(rollupIndexName);
+      }
+      log.info("Backfilled rollup indices {} from {} raw documents", rollupIndexNames, numDocuments);
+      return true;
+    } catch (Exception e) {
+      // Queries keep being answered from raw documents until the backfill is attempted again. Rollup updates are
+      // idempotent, so documents already folded in by this attempt are not counted twice
+      MetricUtils.counter(this.getClass(), "backfill_failure").inc();
+      log.error("Failed to backfill rollup indices {} after {} raw documents", rollupIndexNames, numDocuments, e);
+      return false;
+    } finally {
+      clearScroll(scrollId);
+    }
+  }
+
+  private void clearScroll(@Nullable String scrollId) {
+    if (scrollId == null) {
+      return;
+    }
+    final ClearScrollRequest clearScrollRequest = new ClearScrollRequest();
+    clearScrollRequest.addScrollId(scrollId);
+    try {
+      _searchClient.clearScroll(clearScrollRequest, RequestOptions.DEFAULT);
+    } catch (IOException e) {
+      log.warn("Failed to clear scroll {}", scrollId, e);
+    }
+  }
+
+  /**
+   * Periodically deletes raw documents past the raw retention, if any, for aspects whose rollups are backfilled. Only
+   * the instance holding the expiry lease does so.
+   */
+  public void scheduleRawDocumentExpiry() {
+    if (_rawRetentionMillis <= 0) {
+      return;
+    }
+    _executorService.scheduleWithFixedDelay(() -> {
+      if (!_leaseDAO.tryAcquire(EXPIRY_LEASE, EXPIRY_LEASE_MILLIS)) {
+        return;
+      }
+      try {
+        expireRawDocuments();
+      } catch (Exception e) {
+        MetricUtils.counter(this.getClass(), "expiry_failure").inc();
+        log.error("Failed to expire raw timeseries documents", e);
+      }
+    }, EXPIRY_INTERVAL_HOURS, EXPIRY_INTERVAL_HOURS, TimeUnit.HOURS);
+  }
+
+  /**
+   * Deletes raw documents older than the raw horizon (see {@link #getRawHorizonMillis}), for aspects whose rollups are
+   * backfilled.
+   *
+   * @return the number of deleted raw documents
+   */
+  public long expireRawDocuments() throws IOException {
+    if (_rawRetentionMillis <= 0) {
+      return 0;
+    }
+    final long cutoffMillis = getRawHorizonMillis();
+    long numDeleted = 0;
+    for (EntitySpec entitySpec : _entityRegistry.getEntitySpecs().values()) {
+      for (AspectSpec aspectSpec : entitySpec.getAspectSpecs()) {
+        if (!aspectSpec.isTimeseries() || !isRolledUp(entitySpec.getName(), aspectSpec.getName())) {
+          continue;
+        }
+        final String indexName = _indexConvention.getTimeseriesAspectIndexName(entitySpec.getName(),
+            aspectSpec.getName());
+        final QueryBuilder query = QueryBuilders.rangeQuery(MappingsBuilder.TIMESTAMP_MILLIS_FIELD).lt(cutoffMillis);
+        _reindexWriteRouter.journalMatching(indexName, query);
+        final DeleteByQueryRequest deleteByQueryRequest =
+            new DeleteByQueryRequest(_reindexWriteRouter.getWriteIndices(indexName).toArray(new String[0])).setQuery(
+                query).setConflicts("proceed");
+        final BulkByScrollResponse response = _searchClient.deleteByQuery(deleteByQueryRequest, RequestOptions.DEFAULT);
+        numDeleted += response.getDeleted();
+      }
+    }
+    MetricUtils.counter(this.getClass(), "expired").inc(numDeleted);
+    log.info("Expired {} raw timeseries documents older than {}", numDeleted, cutoffMillis);
+    return numDeleted;
+  }
+
+  private boolean isRolledUp(@Nonnull String entityName, @Nonnull String aspectName) {
+    for (TimeseriesRollupGranularity granularity : TimeseriesRollupGranularity.values()) {
+      if (!isBackfilled(granularity.getIndexName(_indexConvention, entityName, aspectName))) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
@@ -0,0 +1,72 @@
+package com.linkedin.metadata.timeseries.elastic.rollup;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.timeseries.CalendarInterval;
+import com.linkedin.timeseries.TimeWindowSize;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+
+/**
+ * Granularity of the pre-aggregated (rollup) documents of timeseries aspects. Buckets are aligned in UTC, like the
+ * date histograms used to group timeseries aggregations.
+ */
+public enum TimeseriesRollupGranularity {
+  DAY(ImmutableSet.of(CalendarInterval.DAY, CalendarInterval.WEEK, CalendarInterval.MONTH, CalendarInterval.QUARTER,
+      CalendarInterval.YEAR)),
+  MONTH(ImmutableSet.of(CalendarInterval.MONTH, CalendarInterval.QUARTER, CalendarInterval.YEAR));
+
+  /**
+   * All granularities, the coarsest first.
+   */
+  public static final List<TimeseriesRollupGranularity> COARSEST_FIRST = ImmutableList.of(MONTH, DAY);
+
+  private static final String INDEX_SUFFIX = "_rollup_";
+
+  // Calendar intervals whose buckets are unions of buckets of this granularity
+  private final Set<CalendarInterval> _servedIntervals;
+
+  TimeseriesRollupGranularity(Set<CalendarInterval> servedIntervals) {
+    _servedIntervals = servedIntervals;
+  }
+
+  public long getBucketStart(long timestampMillis) {
+    ZonedDateTime day = Instant.ofEpochMilli(timestampMillis).atZone(ZoneOffset.UTC).truncatedTo(ChronoUnit.DAYS);
+    return (this == DAY ? day : day.withDayOfMonth(1)).toInstant().toEpochMilli();
+  }
+
+  public boolean isBucketStart(long timestampMillis) {
+    return getBucketStart(timestampMillis) == timestampMillis;
+  }
+
+  /**
+   * Start of the first bucket that starts at or after the given time.
+   */
+  public long getBucketStartOnOrAfter(long timestampMillis) {
+    if (isBucketStart(timestampMillis)) {
+      return timestampMillis;
+    }
+    ZonedDateTime bucketStart = Instant.ofEpochMilli(getBucketStart(timestampMillis)).atZone(ZoneOffset.UTC);
+    return (this == DAY ? bucketStart.plusDays(1) : bucketStart.plusMonths(1)).toInstant().toEpochMilli();
+  }
+
+  /**
+   * Whether date histogram buckets of the given size can be computed from buckets of this granularity.
+   */
+  public boolean canServe(@Nonnull TimeWindowSize timeWindowSize) {
+    return timeWindowSize.getMultiple() == 1 && _servedIntervals.contains(timeWindowSize.getUnit());
+  }
+
+  @Nonnull
+  public String getIndexName(@Nonnull IndexConvention indexConvention, @Nonnull String entityName,
+      @Nonnull String aspectName) {
+    return indexConvention.getTimeseriesAspectIndexName(entityName, aspectName) + INDEX_SUFFIX + name().toLowerCase();
+  }
+}
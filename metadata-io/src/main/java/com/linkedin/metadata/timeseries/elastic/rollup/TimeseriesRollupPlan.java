@@ -0,0 +1,93 @@
+package com.linkedin.metadata.timeseries.elastic.rollup;
+
+import com.linkedin.metadata.query.filter.Filter;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * How an aggregation over a timeseries aspect is answered from the rollup index of a granularity (see
+ * {@link TimeseriesRollupPlanner}).
+ *
+ * The rollup documents of the buckets within [rollupStartMillis, rollupEndMillis) are read, along with the raw
+ * documents of the rest of [rawStartMillis, rawEndMillis), i.e. of the parts of the queried time range that do not
+ * cover whole buckets. Missing bounds are unbounded. When no raw document is read, the rollup documents are filtered
+ * by the filter of the aggregation as is.
+ */
+public class TimeseriesRollupPlan {
+  private final TimeseriesRollupGranularity _granularity;
+  private final Filter _filter;
+  private final boolean _readsRawDocuments;
+  private final Long _rollupStartMillis;
+  private final Long _rollupEndMillis;
+  private final Long _rawStartMillis;
+  private final Long _rawEndMillis;
+
+  private TimeseriesRollupPlan(@Nonnull TimeseriesRollupGranularity granularity, @Nullable Filter filter,
+      boolean readsRawDocuments, @Nullable Long rollupStartMillis, @Nullable Long rollupEndMillis,
+      @Nullable Long rawStartMillis, @Nullable Long rawEndMillis) {
+    _granularity = granularity;
+    _filter = filter;
+    _readsRawDocuments = readsRawDocuments;
+    _rollupStartMillis = rollupStartMillis;
+    _rollupEndMillis = rollupEndMillis;
+    _rawStartMillis = rawStartMillis;
+    _rawEndMillis = rawEndMillis;
+  }
+
+  /**
+   * Plan reading rollup documents only, filtered by the given filter.
+   */
+  @Nonnull
+  public static TimeseriesRollupPlan rollupOnly(@Nonnull TimeseriesRollupGranularity granularity,
+      @Nullable Filter filter) {
+    return new TimeseriesRollupPlan(granularity, filter, false, null, null, null, null);
+  }
+
+  /**
+   * Plan reading both rollup and raw documents.
+   *
+   * @param filter the filter of the aggregation, without its time bounds
+   */
+  @Nonnull
+  public static TimeseriesRollupPlan rollupAndRaw(@Nonnull TimeseriesRollupGranularity granularity,
+      @Nonnull Filter filter, @Nullable Long rollupStartMillis, @Nullable Long rollupEndMillis,
+      @Nullable Long rawStartMillis, @Nullable Long rawEndMillis) {
+    return new TimeseriesRollupPlan(granularity, filter, true, rollupStartMillis, rollupEndMillis, rawStartMillis,
+        rawEndMillis);
+  }
+
+  @Nonnull
+  public TimeseriesRollupGranularity getGranularity() {
+    return _granularity;
+  }
+
+  @Nullable
+  public Filter getFilter() {
+    return _filter;
+  }
+
+  public boolean readsRawDocuments() {
+    return _readsRawDocuments;
+  }
+
+  @Nullable
+  public Long getRollupStartMillis() {
+    return _rollupStartMillis;
+  }
+
+  @Nullable
+  public Long getRollupEndMillis() {
+    return _rollupEndMillis;
+  }
+
+  @Nullable
+  public Long getRawStartMillis() {
+    return _rawStartMillis;
+  }
+
+  @Nullable
+  public Long getRawEndMillis() {
+    return _rawEndMillis;
+  }
+}
@@ -0,0 +1,271 @@
+package com.linkedin.metadata.timeseries.elastic.rollup;
+
+import com.linkedin.data.schema.DataSchema;
+import com.linkedin.metadata.models.AspectSpec;
+import com.linkedin.metadata.models.TimeseriesFieldCollectionSpec;
+import com.linkedin.metadata.models.TimeseriesFieldSpec;
+import com.linkedin.metadata.query.filter.ConjunctiveCriterion;
+import com.linkedin.metadata.query.filter.ConjunctiveCriterionArray;
+import com.linkedin.metadata.query.filter.Criterion;
+import com.linkedin.metadata.query.filter.CriterionArray;
+import com.linkedin.metadata.query.filter.Filter;
+import com.linkedin.metadata.timeseries.elastic.indexbuilder.MappingsBuilder;
+import com.linkedin.timeseries.AggregationSpec;
+import com.linkedin.timeseries.GroupingBucket;
+import com.linkedin.timeseries.GroupingBucketType;
+import com.linkedin.util.Pair;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * Decides whether an aggregation over a timeseries aspect can be answered from rollup documents instead of raw
+ * documents, with the exact same result.
+ *
+ * A rollup document holds, for one bucket of its granularity and one identity (urn, event granularity, partition and
+ * collection key), the latest raw document of that identity in the bucket, plus the sum of every numeric field over all
+ * raw documents of that identity in the bucket. So LATEST and SUM aggregations are exact as long as every group and
+ * every filter only selects whole rollup documents: groups and filters on identity fields, and date groups that are
+ * unions of buckets. Time bounds that are not aligned on buckets are handled by reading the raw documents of the
+ * partial buckets at either end of the time range, and the rollup documents of the whole buckets in between. LATEST
+ * relies on the aggregated field being set on every raw document of an identity, since only the latest one is kept.
+ *
+ * Raw documents older than the raw retention are deleted once rolled up. A time range that starts or ends before the
+ * retention horizon is widened to whole buckets there, since only rollup documents are left to answer from.
+ */
+public class TimeseriesRollupPlanner {
+
+  private TimeseriesRollupPlanner() {
+  }
+
+  /**
+   * Fields that are the same on all raw documents summarized by a rollup document.
+   */
+  @Nonnull
+  public static Set<String> getIdentityFields(@Nonnull AspectSpec aspectSpec) {
+    Set<String> identityFields = new HashSet<>();
+    identityFields.add(MappingsBuilder.URN_FIELD);
+    identityFields.add(MappingsBuilder.EVENT_GRANULARITY);
+    identityFields.add(MappingsBuilder.IS_EXPLODED_FIELD);
+    identityFields.add(MappingsBuilder.PARTITION_SPEC + "." + MappingsBuilder.PARTITION_SPEC_PARTITION);
+    identityFields.add(MappingsBuilder.PARTITION_SPEC + "." + MappingsBuilder.PARTITION_SPEC_TIME_PARTITION);
+    for (TimeseriesFieldCollectionSpec collectionSpec : aspectSpec.getTimeseriesFieldCollectionSpecs()) {
+      identityFields.add(
+          collectionSpec.getName() + "." + collectionSpec.getTimeseriesFieldCollectionAnnotation().getKey());
+    }
+    return identityFields;
+  }
+
+  /**
+   * Numeric fields, whose sums are maintained by rollup documents, along with their type.
+   */
+  @Nonnull
+  public static Map<String, DataSchema.Type> getSummableFields(@Nonnull AspectSpec aspectSpec) {
+    Map<String, DataSchema.Type> summableFields = new LinkedHashMap<>();
+    for (TimeseriesFieldSpec fieldSpec : aspectSpec.getTimeseriesFieldSpecs()) {
+      if (isNumeric(fieldSpec.getPegasusSchema().getType())) {
+        summableFields.put(fieldSpec.getName(), fieldSpec.getPegasusSchema().getType());
+      }
+    }
+    for (TimeseriesFieldCollectionSpec collectionSpec : aspectSpec.getTimeseriesFieldCollectionSpecs()) {
+      for (TimeseriesFieldSpec fieldSpec : collectionSpec.getTimeseriesFieldSpecMap().values()) {
+        if (isNumeric(fieldSpec.getPegasusSchema().getType())) {
+          summableFields.put(collectionSpec.getName() + "." + fieldSpec.getName(),
+              fieldSpec.getPegasusSchema().getType());
+        }
+      }
+    }
+    return summableFields;
+  }
+
+  /**
+   * Plans answering all the given aggregations exactly, one per granularity that can, the coarsest first.
+   *
+   * @param rawHorizonMillis time before which raw documents may have been deleted
+   */
+  @Nonnull
+  public static List<TimeseriesRollupPlan> getServingPlans(@Nonnull AspectSpec aspectSpec,
+      @Nonnull List<Pair<AggregationSpec[], GroupingBucket[]>> queries, @Nullable Filter filter,
+      long rawHorizonMillis) {
+    final Set<String> identityFields = getIdentityFields(aspectSpec);
+    final Set<String> summableFields = getSummableFields(aspectSpec).keySet();
+    final List<TimeseriesRollupPlan> plans = new ArrayList<>();
+    for (TimeseriesRollupGranularity granularity : TimeseriesRollupGranularity.COARSEST_FIRST) {
+      boolean canServe = true;
+      for (Pair<AggregationSpec[], GroupingBucket[]> query : queries) {
+        canServe = canServe && canServe(granularity, query.getFirst(), query.getSecond(), identityFields,
+            summableFields);
+      }
+      final TimeseriesRollupPlan plan = canServe ? plan(granularity, filter, identityFields, rawHorizonMillis) : null;
+      if (plan != null) {
+        plans.add(plan);
+      }
+    }
+    return plans;
+  }
+
+  private static boolean canServe(@Nonnull TimeseriesRollupGranularity granularity,
+      @Nonnull AggregationSpec[] aggregationSpecs, @Nullable GroupingBucket[] groupingBuckets,
+      @Nonnull Set<String> identityFields, @Nonnull Set<String> summableFields) {
+    for (AggregationSpec aggregationSpec : aggregationSpecs) {
+      switch (aggregationSpec.getAggregationType()) {
+        case LATEST:
+          break;
+        case SUM:
+          if (!summableFields.contains(aggregationSpec.getFieldPath())) {
+            return false;
+          }
+          break;
+        default:
+          // e.g. distinct counts cannot be merged across rollup documents
+          return false;
+      }
+    }
+    if (groupingBuckets != null) {
+      for (GroupingBucket groupingBucket : groupingBuckets) {
+        if (groupingBucket.getType() == GroupingBucketType.DATE_GROUPING_BUCKET) {
+          if (!groupingBucket.hasTimeWindowSize() || !granularity.canServe(groupingBucket.getTimeWindowSize())) {
+            return false;
+          }
+        } else if (!identityFields.contains(groupingBucket.getKey())) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Plans reading the rollup documents of the given granularity that the given filter selects in full, and the raw
+   * documents of the partial buckets at either end of its time range.
+   *
+   * @return the plan, or null if the filter selects parts of rollup documents other than through its time range
+   */
+  @Nullable
+  private static TimeseriesRollupPlan plan(@Nonnull TimeseriesRollupGranularity granularity, @Nullable Filter filter,
+      @Nonnull Set<String> identityFields, long rawHorizonMillis) {
+    if (filter == null) {
+      return TimeseriesRollupPlan.rollupOnly(granularity, null);
+    }
+    final List<List<Criterion>> conjunctions = new ArrayList<>();
+    if (filter.getOr() != null) {
+      filter.getOr().forEach(conjunction -> conjunctions.add(conjunction.getAnd()));
+    } else if (filter.getCriteria() != null) {
+      conjunctions.add(filter.getCriteria());
+    }
+
+    final List<Criterion> otherCriteria = new ArrayList<>();
+    final List<Criterion> timeCriteria = new ArrayList<>();
+    for (List<Criterion> conjunction : conjunctions) {
+      for (Criterion criterion : conjunction) {
+        if (criterion.getValue().trim().isEmpty() && criterion.getValues().isEmpty()) {
+          // Ignored by the filter query
+          continue;
+        }
+        if (identityFields.contains(criterion.getField())) {
+          otherCriteria.add(criterion);
+        } else if (MappingsBuilder.TIMESTAMP_MILLIS_FIELD.equals(criterion.getField())) {
+          timeCriteria.add(criterion);
+        } else {
+          return null;
+        }
+      }
+    }
+    if (timeCriteria.stream().allMatch(criterion -> isAlignedTimeBound(granularity, criterion))) {
+      return TimeseriesRollupPlan.rollupOnly(granularity, filter);
+    }
+    if (conjunctions.size() != 1) {
+      // Time ranges of separate conjunctions are not split
+      return null;
+    }
+
+    // Time range selected by the filter, as [startMillis, endMillis)
+    Long startMillis = null;
+    Long endMillis = null;
+    for (Criterion criterion : timeCriteria) {
+      final Pair<Long, Long> range = getTimeRange(criterion);
+      if (range == null) {
+        return null;
+      }
+      if (range.getFirst() != null) {
+        startMillis = startMillis == null ? range.getFirst() : Math.max(startMillis, range.getFirst());
+      }
+      if (range.getSecond() != null) {
+        endMillis = endMillis == null ? range.getSecond() : Math.min(endMillis, range.getSecond());
+      }
+    }
+    // Whole buckets within the time range, or around it where raw documents may be gone
+    final Long rollupStartMillis = startMillis == null ? null
+        : startMillis < rawHorizonMillis ? granularity.getBucketStart(startMillis)
+            : granularity.getBucketStartOnOrAfter(startMillis);
+    final Long rollupEndMillis = endMillis == null ? null
+        : endMillis < rawHorizonMillis ? granularity.getBucketStartOnOrAfter(endMillis)
+            : granularity.getBucketStart(endMillis);
+    if (rollupStartMillis != null && rollupEndMillis != null && rollupStartMillis >= rollupEndMillis) {
+      // Not a single whole bucket
+      return null;
+    }
+    final Filter otherFilter = new Filter().setOr(new ConjunctiveCriterionArray(
+        new ConjunctiveCriterion().setAnd(new CriterionArray(otherCriteria))));
+    return TimeseriesRollupPlan.rollupAndRaw(granularity, otherFilter, rollupStartMillis, rollupEndMillis, startMillis,
+        endMillis);
+  }
+
+  /**
+   * Time range selected by the given time bound, as [start, end), where a missing bound is unbounded.
+   *
+   * @return the range, or null if the criterion is not a time bound
+   */
+  @Nullable
+  private static Pair<Long, Long> getTimeRange(@Nonnull Criterion criterion) {
+    final long bound;
+    try {
+      bound = Long.parseLong(criterion.getValue());
+    } catch (NumberFormatException e) {
+      return null;
+    }
+    switch (criterion.getCondition()) {
+      case GREATER_THAN_OR_EQUAL_TO:
+        return new Pair<>(bound, null);
+      case GREATER_THAN:
+        return new Pair<>(bound + 1, null);
+      case LESS_THAN:
+        return new Pair<>(null, bound);
+      case LESS_THAN_OR_EQUAL_TO:
+        return new Pair<>(null, bound + 1);
+      default:
+        return null;
+    }
+  }
+
+  private static boolean isAlignedTimeBound(@Nonnull TimeseriesRollupGranularity granularity,
+      @Nonnull Criterion criterion) {
+    final long bound;
+    try {
+      bound = Long.parseLong(criterion.getValue());
+    } catch (NumberFormatException e) {
+      return false;
+    }
+    switch (criterion.getCondition()) {
+      case GREATER_THAN_OR_EQUAL_TO:
+      case LESS_THAN:
+        return granularity.isBucketStart(bound);
+      case GREATER_THAN:
+      case LESS_THAN_OR_EQUAL_TO:
+        return granularity.isBucketStart(bound + 1);
+      default:
+        return false;
+    }
+  }
+
+  private static boolean isNumeric(@Nonnull DataSchema.Type type) {
+    return type == DataSchema.Type.INT || type == DataSchema.Type.LONG || type == DataSchema.Type.FLOAT
+        || type == DataSchema.Type.DOUBLE;
+  }
+}
@@ -1,6 +1,8 @@
 package com.linkedin.metadata.entity;
 
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
@@ -12,8 +14,11 @@ import com.linkedin.metadata.event.EventProducer;
 import com.linkedin.metadata.key.CorpUserKey;
 import com.linkedin.metadata.models.registry.EntityRegistryException;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.utils.PegasusUtils;
 import com.linkedin.mxe.SystemMetadata;
+import java.util.HashSet;
+import java.util.Set;
 import org.testcontainers.containers.CassandraContainer;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
@@ -172,6 +177,39 @@ public class CassandraEntityServiceTest extends EntityServiceTest<CassandraAspec
     assertEquals(entityUrn2.toString(), batch2.getEntities().get(0).toString());
   }
 
+  @Test
+  public void testIngestScrollUrns() throws Exception {
+
+    // TODO: If you're modifying this test - match your changes in sibling implementations.
+
+    Urn entityUrn1 = Urn.createFromString("urn:li:corpuser:test1");
+    Urn entityUrn2 = Urn.createFromString("urn:li:corpuser:test2");
+    Urn entityUrn3 = Urn.createFromString("urn:li:corpuser:test3");
+
+    SystemMetadata metadata1 = new SystemMetadata();
+    metadata1.setLastObserved(1625792689);
+    metadata1.setRunId("run-123");
+
+    String aspectName = PegasusUtils.getAspectNameFromSchema(new CorpUserKey().schema());
+    for (Urn entityUrn : ImmutableList.of(entityUrn1, entityUrn2, entityUrn3)) {
+      _entityService.ingestAspect(entityUrn, aspectName, createCorpUserKey(entityUrn), TEST_AUDIT_STAMP, metadata1);
+    }
+
+    // Scroll aspects urns. Urns come in token order, and filtered pages may hold less urns than requested.
+    Set<Urn> scrolledUrns = new HashSet<>();
+    String scrollId = null;
+    do {
+      ScrollUrnsResult batch = _entityService.scrollUrns(entityUrn1.getEntityType(), scrollId, 2);
+      assertTrue(batch.getEntities().size() <= 2);
+      for (Urn urn : batch.getEntities()) {
+        assertTrue(scrolledUrns.add(urn));
+      }
+      scrollId = batch.getScrollId();
+    } while (scrollId != null);
+
+    assertEquals(scrolledUrns, ImmutableSet.of(entityUrn1, entityUrn2, entityUrn3));
+  }
+
   @Override
   @Test
   public void testNestedTransactions() throws Exception {
@@ -0,0 +1,145 @@
+package com.linkedin.metadata.entity;
+
+import com.linkedin.common.AuditStamp;
+import com.linkedin.common.GlossaryTermAssociation;
+import com.linkedin.common.GlossaryTermAssociationArray;
+import com.linkedin.common.GlossaryTerms;
+import com.linkedin.common.urn.GlossaryTermUrn;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.common.urn.UrnUtils;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.entity.Aspect;
+import com.linkedin.entity.EntityResponse;
+import com.linkedin.entity.EnvelopedAspect;
+import com.linkedin.entity.EnvelopedAspectMap;
+import com.linkedin.metadata.graph.GraphService;
+import com.linkedin.metadata.graph.RelatedEntitiesResult;
+import com.linkedin.metadata.graph.RelatedEntity;
+import com.linkedin.metadata.models.registry.SnapshotEntityRegistry;
+import com.linkedin.metadata.run.DeleteReferencesResponse;
+import com.linkedin.util.Pair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.Constants.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.testng.Assert.assertEquals;
+
+
+public class DeleteEntityServiceTest {
+  // Spans several pages of referencing entities and several batches of patched entities
+  private static final int NUM_DATASETS = 2500;
+  private static final Urn DELETED_TERM = UrnUtils.getUrn("urn:li:glossaryTerm:deleted");
+  private static final Urn OTHER_TERM = UrnUtils.getUrn("urn:li:glossaryTerm:other");
+
+  private final Map<Urn, GlossaryTerms> _glossaryTerms = new ConcurrentHashMap<>();
+  private final List<RelatedEntity> _references = new ArrayList<>();
+  private final AtomicInteger _ingestCalls = new AtomicInteger();
+  private EntityService _entityService;
+  private GraphService _graphService;
+
+  @BeforeMethod
+  public void setup() throws Exception {
+    _glossaryTerms.clear();
+    _references.clear();
+    _ingestCalls.set(0);
+    for (int i = 0; i < NUM_DATASETS; i++) {
+      final Urn datasetUrn =
+          UrnUtils.getUrn(String.format("urn:li:dataset:(urn:li:dataPlatform:hive,table%d,PROD)", i));
+      _glossaryTerms.put(datasetUrn, buildGlossaryTerms(DELETED_TERM, OTHER_TERM));
+      _references.add(new RelatedEntity("TermedWith", datasetUrn.toString()));
+    }
+
+    _entityService = Mockito.mock(EntityService.class);
+    Mockito.when(_entityService.getEntityRegistry()).thenReturn(SnapshotEntityRegistry.getInstance());
+    Mockito.when(_entityService.getEntitiesV2(eq(DATASET_ENTITY_NAME), anySet(), anySet())).thenAnswer(invocation -> {
+      final Map<Urn, EntityResponse> responses = new ConcurrentHashMap<>();
+      invocation.<Set<Urn>>getArgument(1).forEach(urn -> responses.put(urn, buildEntityResponse(urn)));
+      return responses;
+    });
+    Mockito.when(_entityService.getEntityV2(eq(DATASET_ENTITY_NAME), any(Urn.class), anySet()))
+        .thenAnswer(invocation -> buildEntityResponse(invocation.getArgument(1)));
+    Mockito.doAnswer(invocation -> {
+      _ingestCalls.incrementAndGet();
+      final Urn urn = invocation.getArgument(0);
+      final List<Pair<String, RecordTemplate>> aspects = invocation.getArgument(1);
+      final List<Pair<String, EntityService.UpdateAspectResult>> results = new ArrayList<>();
+      aspects.forEach(aspect -> {
+        final GlossaryTerms oldValue = _glossaryTerms.put(urn, (GlossaryTerms) aspect.getSecond());
+        results.add(Pair.of(aspect.getFirst(),
+            new EntityService.UpdateAspectResult(urn, oldValue, aspect.getSecond(), null, null, null,
+                invocation.getArgument(2), 1)));
+      });
+      return results;
+    }).when(_entityService).ingestAspects(any(Urn.class), anyList(), any(AuditStamp.class), any());
+
+    _graphService = Mockito.mock(GraphService.class);
+    Mockito.when(_graphService.findRelatedEntities(any(), any(), any(), any(), anyList(), any(), anyInt(), anyInt()))
+        .thenAnswer(invocation -> {
+          final int offset = invocation.getArgument(6);
+          final int count = invocation.getArgument(7);
+          final List<RelatedEntity> page =
+              _references.subList(Math.min(offset, _references.size()), Math.min(offset + count, _references.size()));
+          return new RelatedEntitiesResult(offset, page.size(), _references.size(), page);
+        });
+    Mockito.when(_graphService.scrollRelatedEntities(any(), any(), any(), any(), anyList(), any(), any(), anyInt()))
+        .thenCallRealMethod();
+  }
+
+  @Test
+  public void testDeletesEveryReference() {
+    final DeleteEntityService deleteEntityService = new DeleteEntityService(_entityService, _graphService);
+
+    final DeleteReferencesResponse response = deleteEntityService.deleteReferencesTo(DELETED_TERM, false);
+
+    assertEquals((int) response.getTotal(), NUM_DATASETS);
+    assertEquals(response.getRelatedAspects().size(), 10);
+    assertEquals(_ingestCalls.get(), NUM_DATASETS);
+    _glossaryTerms.values().forEach(glossaryTerms -> {
+      assertEquals(glossaryTerms.getTerms().size(), 1);
+      assertEquals(glossaryTerms.getTerms().get(0).getUrn(), OTHER_TERM);
+    });
+  }
+
+  @Test
+  public void testDryRunDoesNotModifyAspects() {
+    final DeleteEntityService deleteEntityService = new DeleteEntityService(_entityService, _graphService);
+
+    final DeleteReferencesResponse response = deleteEntityService.deleteReferencesTo(DELETED_TERM, true);
+
+    assertEquals((int) response.getTotal(), NUM_DATASETS);
+    assertEquals(_ingestCalls.get(), 0);
+    Mockito.verify(_graphService, Mockito.never())
+        .scrollRelatedEntities(any(), any(), any(), any(), anyList(), any(), any(), anyInt());
+  }
+
+  private EntityResponse buildEntityResponse(Urn urn) {
+    final GlossaryTerms glossaryTerms = _glossaryTerms.get(urn);
+    final EnvelopedAspectMap aspects = new EnvelopedAspectMap();
+    if (glossaryTerms != null) {
+      aspects.put(GLOSSARY_TERMS_ASPECT_NAME,
+          new EnvelopedAspect().setName(GLOSSARY_TERMS_ASPECT_NAME).setValue(new Aspect(glossaryTerms.data())));
+    }
+    return new EntityResponse().setUrn(urn).setEntityName(DATASET_ENTITY_NAME).setAspects(aspects);
+  }
+
+  private static GlossaryTerms buildGlossaryTerms(Urn... termUrns) throws Exception {
+    final List<GlossaryTermAssociation> associations = new ArrayList<>();
+    for (Urn termUrn : termUrns) {
+      associations.add(new GlossaryTermAssociation().setUrn(GlossaryTermUrn.createFromUrn(termUrn)));
+    }
+    return new GlossaryTerms().setTerms(new GlossaryTermAssociationArray(associations))
+        .setAuditStamp(new AuditStamp().setActor(UrnUtils.getUrn("urn:li:corpuser:test")).setTime(0L));
+  }
+}
@@ -1,28 +1,37 @@
 package com.linkedin.metadata.entity;
 
+import com.google.common.collect.ImmutableList;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.data.template.DataTemplateUtil;
 import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.identity.CorpUserInfo;
 import com.linkedin.metadata.EbeanTestUtils;
 import com.linkedin.metadata.entity.ebean.EbeanAspectDao;
+import com.linkedin.metadata.entity.ebean.EbeanAspectV2;
 import com.linkedin.metadata.entity.ebean.EbeanRetentionService;
 import com.linkedin.metadata.event.EventProducer;
 import com.linkedin.metadata.key.CorpUserKey;
 import com.linkedin.metadata.models.registry.EntityRegistryException;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.utils.PegasusUtils;
 import com.linkedin.mxe.SystemMetadata;
 import io.ebean.EbeanServer;
 import io.ebean.Transaction;
 import io.ebean.TxScope;
 import io.ebean.annotation.TxIsolation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import org.testng.Assert;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import static org.mockito.Mockito.mock;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -156,6 +165,130 @@ public class EbeanEntityServiceTest extends EntityServiceTest<EbeanAspectDao, Eb
     assertEquals(entityUrn3.toString(), batch2.getEntities().get(0).toString());
   }
 
+  @Test
+  public void testIngestScrollUrns() throws Exception {
+
+    // TODO: If you're modifying this test - match your changes in sibling implementations.
+
+    Urn entityUrn1 = Urn.createFromString("urn:li:corpuser:test1");
+    Urn entityUrn2 = Urn.createFromString("urn:li:corpuser:test2");
+    Urn entityUrn3 = Urn.createFromString("urn:li:corpuser:test3");
+
+    SystemMetadata metadata1 = new SystemMetadata();
+    metadata1.setLastObserved(1625792689);
+    metadata1.setRunId("run-123");
+
+    String aspectName = PegasusUtils.getAspectNameFromSchema(new CorpUserKey().schema());
+    for (Urn entityUrn : ImmutableList.of(entityUrn1, entityUrn2, entityUrn3)) {
+      _entityService.ingestAspect(entityUrn, aspectName, createCorpUserKey(entityUrn), TEST_AUDIT_STAMP, metadata1);
+    }
+
+    // Scroll aspects urns
+    ScrollUrnsResult batch1 = _entityService.scrollUrns(entityUrn1.getEntityType(), null, 2);
+
+    assertEquals(batch1.getEntities(), ImmutableList.of(entityUrn1, entityUrn2));
+    assertNotNull(batch1.getScrollId());
+
+    ScrollUrnsResult batch2 = _entityService.scrollUrns(entityUrn1.getEntityType(), batch1.getScrollId(), 2);
+
+    assertEquals(batch2.getEntities(), ImmutableList.of(entityUrn3));
+    assertNull(batch2.getScrollId());
+  }
+
+  @Test
+  public void testListUrnsAfter() {
+    // Key aspects of 25 users, with an older version for some of them, and another aspect that listing must skip
+    insertUsers("corpUserKey", 0, 1, 25);
+    insertUsers("corpUserKey", 1, 1, 10);
+    insertUsers("corpUserInfo", 0, 1, 25);
+
+    final CursorListResult<String> page1 = _aspectDao.listUrnsAfter("corpuser", "corpUserKey", null, 10);
+    assertEquals(page1.getValues(), userUrns(1, 10));
+    assertNotNull(page1.getNextCursor());
+
+    // The next page resumes after the last urn of the previous one, rather than at an offset shifted by this write
+    insertUsers("corpUserKey", 0, 0, 0);
+    final CursorListResult<String> page2 =
+        _aspectDao.listUrnsAfter("corpuser", "corpUserKey", page1.getNextCursor(), 10);
+    assertEquals(page2.getValues(), userUrns(11, 20));
+    assertNotNull(page2.getNextCursor());
+
+    final CursorListResult<String> page3 =
+        _aspectDao.listUrnsAfter("corpuser", "corpUserKey", page2.getNextCursor(), 10);
+    assertEquals(page3.getValues(), userUrns(21, 25));
+    assertNull(page3.getNextCursor());
+
+    // A page that is exactly full has no next page, as the extra row fetched to tell is not there
+    final CursorListResult<String> fullPage =
+        _aspectDao.listUrnsAfter("corpuser", "corpUserKey", page2.getNextCursor(), 5);
+    assertEquals(fullPage.getValues(), userUrns(21, 25));
+    assertNull(fullPage.getNextCursor());
+  }
+
+  /**
+   * Walks 1M key aspects and checks the last pages are not slower than the early ones. Takes a while, so it only runs
+   * with the benchmark task of the module.
+   */
+  @Test(groups = "benchmark")
+  public void benchmarkListUrnsAfterPageLatencyDoesNotGrowWithDepth() {
+    final int numUrns = 1000000;
+    final int pageSize = 1000;
+    final int sampledPages = 50;
+
+    try {
+      // Bulk load the key aspects of 1M users, along with another aspect per user that listing must skip
+      for (String aspect : ImmutableList.of("corpUserKey", "corpUserInfo")) {
+        insertUsers(aspect, 0, 1, numUrns);
+      }
+
+      final List<Long> pageNanos = new ArrayList<>();
+      String cursor = null;
+      int numListed = 0;
+      do {
+        final long startNanos = System.nanoTime();
+        final CursorListResult<String> page = _aspectDao.listUrnsAfter("corpuser", "corpUserKey", cursor, pageSize);
+        pageNanos.add(System.nanoTime() - startNanos);
+        numListed += page.getValues().size();
+        cursor = page.getNextCursor();
+      } while (cursor != null);
+
+      assertEquals(numListed, numUrns);
+
+      // Skip the first pages, which warm up the JIT and the statement caches
+      final long shallowPagesNanos = median(pageNanos.subList(sampledPages, 2 * sampledPages));
+      final long deepPagesNanos = median(pageNanos.subList(pageNanos.size() - sampledPages, pageNanos.size()));
+      // With OFFSET paging, the latency of a page grows linearly with its offset
+      assertTrue(deepPagesNanos < 3 * shallowPagesNanos + TimeUnit.MILLISECONDS.toNanos(5),
+          String.format("Deep pages took %dns, shallow pages took %dns", deepPagesNanos, shallowPagesNanos));
+    } finally {
+      // Releases the in-memory database
+      _aspectDao.getServer().shutdown(true, false);
+    }
+  }
+
+  private void insertUsers(String aspect, long version, int firstUser, int lastUser) {
+    _aspectDao.getServer().createSqlUpdate(String.format(
+        "INSERT INTO metadata_aspect_v2 (%s, %s, %s, %s, %s, %s) SELECT CONCAT('urn:li:corpuser:user', LPAD(X, 7, '0')), "
+            + "'%s', %d, '{}', CURRENT_TIMESTAMP(), 'urn:li:corpuser:tester' FROM SYSTEM_RANGE(%d, %d)",
+        EbeanAspectV2.URN_COLUMN, EbeanAspectV2.ASPECT_COLUMN, EbeanAspectV2.VERSION_COLUMN,
+        EbeanAspectV2.METADATA_COLUMN, EbeanAspectV2.CREATED_ON_COLUMN, EbeanAspectV2.CREATED_BY_COLUMN, aspect, version,
+        firstUser, lastUser)).execute();
+  }
+
+  private static List<String> userUrns(int firstUser, int lastUser) {
+    final List<String> urns = new ArrayList<>();
+    for (int i = firstUser; i <= lastUser; i++) {
+      urns.add(String.format("urn:li:corpuser:user%07d", i));
+    }
+    return urns;
+  }
+
+  private static long median(List<Long> values) {
+    final List<Long> sorted = new ArrayList<>(values);
+    Collections.sort(sorted);
+    return sorted.get(sorted.size() / 2);
+  }
+
   @Override
   @Test
   public void testNestedTransactions() throws Exception {
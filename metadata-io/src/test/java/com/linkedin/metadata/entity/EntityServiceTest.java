@@ -26,6 +26,7 @@ import com.linkedin.metadata.aspect.CorpUserAspectArray;
 import com.linkedin.metadata.aspect.VersionedAspect;
 import com.linkedin.metadata.event.EventProducer;
 import com.linkedin.metadata.key.CorpUserKey;
+import com.linkedin.metadata.key.DataHubRetentionKey;
 import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.registry.ConfigEntityRegistry;
 import com.linkedin.metadata.models.registry.EntityRegistry;
@@ -35,6 +36,7 @@ import com.linkedin.metadata.run.AspectRowSummary;
 import com.linkedin.metadata.snapshot.CorpUserSnapshot;
 import com.linkedin.metadata.snapshot.Snapshot;
 import com.linkedin.metadata.utils.EntityKeyUtils;
+import com.linkedin.metadata.utils.GenericRecordUtils;
 import com.linkedin.metadata.utils.PegasusUtils;
 import com.linkedin.mxe.GenericAspect;
 import com.linkedin.mxe.MetadataAuditOperation;
@@ -57,6 +59,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
@@ -66,6 +70,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -469,6 +474,23 @@ abstract public class EntityServiceTest<T_AD extends AspectDao, T_RS extends Ret
         _entityService.ingestProposal(gmce, TEST_AUDIT_STAMP);
     }
 
+    @Test
+    public void testIngestProposalsReturnsTheFailedOnes() throws Exception {
+        Urn entityUrn1 = Urn.createFromString("urn:li:corpuser:batched1");
+        Urn entityUrn2 = Urn.createFromString("urn:li:corpuser:batched2");
+        MetadataChangeProposal proposal1 = createStatusProposal(entityUrn1, "status");
+        // Unknown to the registry, so it fails to be ingested
+        MetadataChangeProposal invalidProposal = createStatusProposal(entityUrn1, "unknownAspect");
+        MetadataChangeProposal proposal2 = createStatusProposal(entityUrn2, "status");
+
+        List<MetadataChangeProposal> failedProposals = _entityService.ingestProposals(
+            ImmutableList.of(proposal1, invalidProposal, proposal2), TEST_AUDIT_STAMP);
+
+        assertEquals(failedProposals, ImmutableList.of(invalidProposal));
+        assertEquals(_entityService.getLatestAspect(entityUrn1, "status"), new Status().setRemoved(true));
+        assertEquals(_entityService.getLatestAspect(entityUrn2, "status"), new Status().setRemoved(true));
+    }
+
     @Test
     public void testUpdateGetAspect() throws Exception {
         // Test Writing a CorpUser Entity
@@ -532,6 +554,46 @@ abstract public class EntityServiceTest<T_AD extends AspectDao, T_RS extends Ret
         verifyNoMoreInteractions(_mockProducer);
     }
 
+    @Test
+    public void testUpdateAspects() throws Exception {
+        Urn entityUrn1 = Urn.createFromString("urn:li:corpuser:test1");
+        Urn entityUrn2 = Urn.createFromString("urn:li:corpuser:test2");
+        String aspectName = PegasusUtils.getAspectNameFromSchema(new CorpUserInfo().schema());
+
+        CorpUserInfo writeAspect1 = createCorpUserInfo("email1@test.com");
+        CorpUserInfo writeAspect2 = createCorpUserInfo("email2@test.com");
+        CorpUserInfo writeAspect2Version1 = createCorpUserInfo("email2.v1@test.com");
+
+        // Write new aspects, including a previous version
+        List<EntityService.UpdateAspectResult> results = _entityService.updateAspects(ImmutableList.of(
+            new EntityService.AspectUpdate(entityUrn1, aspectName, writeAspect1, TEST_AUDIT_STAMP, 0),
+            new EntityService.AspectUpdate(entityUrn2, aspectName, writeAspect2, TEST_AUDIT_STAMP, 0),
+            new EntityService.AspectUpdate(entityUrn2, aspectName, writeAspect2Version1, TEST_AUDIT_STAMP, 1)));
+
+        assertEquals(results.size(), 3);
+        assertEquals(results.get(0).getUrn(), entityUrn1);
+        assertNull(results.get(0).getOldValue());
+        assertSame(results.get(0).getNewValue(), writeAspect1);
+        assertEquals(results.get(2).getUrn(), entityUrn2);
+        assertNull(results.get(2).getOldValue());
+        assertEquals(results.get(2).getMaxVersion(), 1);
+        assertTrue(DataTemplateUtil.areEqual(_entityService.getAspect(entityUrn1, aspectName, 0), writeAspect1));
+        assertTrue(DataTemplateUtil.areEqual(_entityService.getAspect(entityUrn2, aspectName, 0), writeAspect2));
+        assertTrue(DataTemplateUtil.areEqual(_entityService.getAspect(entityUrn2, aspectName, 1), writeAspect2Version1));
+
+        // Overwrite an existing version
+        CorpUserInfo writeAspect1Overwrite = createCorpUserInfo("email1.overwrite@test.com");
+        results = _entityService.updateAspects(ImmutableList.of(
+            new EntityService.AspectUpdate(entityUrn1, aspectName, writeAspect1Overwrite, TEST_AUDIT_STAMP, 0)));
+
+        assertEquals(results.size(), 1);
+        assertTrue(DataTemplateUtil.areEqual(results.get(0).getOldValue(), writeAspect1));
+        assertTrue(DataTemplateUtil.areEqual(_entityService.getAspect(entityUrn1, aspectName, 0), writeAspect1Overwrite));
+
+        // Change logs are left to the caller
+        verifyNoMoreInteractions(_mockProducer);
+    }
+
     @Test
     public void testRollbackAspect() throws Exception {
         Urn entityUrn1 = Urn.createFromString("urn:li:corpuser:test1");
@@ -646,6 +708,48 @@ abstract public class EntityServiceTest<T_AD extends AspectDao, T_RS extends Ret
         assertTrue(DataTemplateUtil.areEqual(null, readNewRecentAspect));
     }
 
+    @Test
+    public void testRollbackRunInParallel() throws Exception {
+        SystemMetadata metadata1 = new SystemMetadata();
+        metadata1.setLastObserved(1625792689);
+        metadata1.setRunId("run-123");
+
+        SystemMetadata metadata2 = new SystemMetadata();
+        metadata2.setLastObserved(1635792689);
+        metadata2.setRunId("run-456");
+
+        String aspectName = PegasusUtils.getAspectNameFromSchema(new CorpUserInfo().schema());
+        List<AspectRowSummary> rowsToRollback = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Urn entityUrn = Urn.createFromString("urn:li:corpuser:parallel" + i);
+            _entityService.ingestAspect(entityUrn, aspectName, createCorpUserInfo("email" + i + "@test.com"),
+                TEST_AUDIT_STAMP, metadata1);
+            AspectRowSummary row = new AspectRowSummary();
+            row.setRunId("run-123");
+            row.setAspectName(aspectName);
+            row.setUrn(entityUrn.toString());
+            rowsToRollback.add(row);
+        }
+        // The aspect of the last entity was overwritten by another run, and must survive
+        Urn overwrittenUrn = Urn.createFromString("urn:li:corpuser:parallel19");
+        CorpUserInfo overwriteAspect = createCorpUserInfo("email.overwrite@test.com");
+        _entityService.ingestAspect(overwrittenUrn, aspectName, overwriteAspect, TEST_AUDIT_STAMP, metadata2);
+
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            RollbackRunResult result = _entityService.rollbackRun(rowsToRollback, "run-123", true, executorService);
+            assertEquals(result.getRowsRolledBack().size(), 19);
+        } finally {
+            executorService.shutdown();
+        }
+
+        for (int i = 0; i < 19; i++) {
+            Urn entityUrn = Urn.createFromString("urn:li:corpuser:parallel" + i);
+            assertNull(_entityService.getAspect(entityUrn, aspectName, 0));
+        }
+        assertTrue(DataTemplateUtil.areEqual(overwriteAspect, _entityService.getAspect(overwrittenUrn, aspectName, 0)));
+    }
+
     @Test
     public void testRollbackUrn() throws Exception {
         Urn entityUrn1 = Urn.createFromString("urn:li:corpuser:test1");
@@ -924,6 +1028,35 @@ abstract public class EntityServiceTest<T_AD extends AspectDao, T_RS extends Ret
         assertEquals(_entityService.listLatestAspects(entityUrn.getEntityType(), aspectName2, 0, 10).getTotalCount(), 1);
     }
 
+    @Test
+    public void testRetentionPolicyCache() throws Exception {
+        Retention defaultRetention = new Retention().setVersion(new VersionBasedRetention().setMaxVersions(2));
+        _retentionService.setRetention(null, null, new DataHubRetentionConfig().setRetention(defaultRetention));
+
+        Retention retention = _retentionService.getRetention("corpuser", "status");
+        assertEquals(retention, defaultRetention);
+        // Subsequent lookups are served from the cache
+        assertSame(_retentionService.getRetention("corpuser", "status"), retention);
+
+        // Setting a policy through the retention service invalidates the cache
+        Retention statusRetention = new Retention().setVersion(new VersionBasedRetention().setMaxVersions(4));
+        _retentionService.setRetention("corpuser", "status", new DataHubRetentionConfig().setRetention(statusRetention));
+        assertEquals(_retentionService.getRetention("corpuser", "status"), statusRetention);
+        assertEquals(_retentionService.getRetention("corpuser", "corpUserInfo"), defaultRetention);
+
+        // So does writing the retention aspect directly
+        Retention updatedRetention = new Retention().setVersion(new VersionBasedRetention().setMaxVersions(3));
+        Urn retentionUrn = EntityKeyUtils.convertEntityKeyToUrn(
+            new DataHubRetentionKey().setEntityName("corpuser").setAspectName("status"), "dataHubRetention");
+        _entityService.ingestAspect(retentionUrn, "dataHubRetentionConfig",
+            new DataHubRetentionConfig().setRetention(updatedRetention), TEST_AUDIT_STAMP, new SystemMetadata());
+        assertEquals(_retentionService.getRetention("corpuser", "status"), updatedRetention);
+
+        // And deleting a policy
+        _retentionService.deleteRetention("corpuser", "status");
+        assertEquals(_retentionService.getRetention("corpuser", "status"), defaultRetention);
+    }
+
     @Test
     public void testIngestAspectIfNotPresent() throws Exception {
         Urn entityUrn = Urn.createFromString("urn:li:corpuser:test1");
@@ -961,6 +1094,17 @@ abstract public class EntityServiceTest<T_AD extends AspectDao, T_RS extends Ret
         assertEquals(_entityService.listLatestAspects(entityUrn.getEntityType(), aspectName2, 0, 10).getTotalCount(), 1);
     }
 
+    @Nonnull
+    private static MetadataChangeProposal createStatusProposal(Urn entityUrn, String aspectName) {
+        MetadataChangeProposal proposal = new MetadataChangeProposal();
+        proposal.setEntityUrn(entityUrn);
+        proposal.setChangeType(ChangeType.UPSERT);
+        proposal.setEntityType(entityUrn.getEntityType());
+        proposal.setAspectName(aspectName);
+        proposal.setAspect(GenericRecordUtils.serializeAspect(new Status().setRemoved(true)));
+        return proposal;
+    }
+
     protected static AuditStamp createTestAuditStamp() {
         try {
             return new AuditStamp().setTime(123L).setActor(Urn.createFromString("urn:li:principal:tester"));
@@ -1,8 +1,11 @@
 package com.linkedin.metadata.graph.elastic;
 
+import com.google.common.collect.ImmutableList;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.ElasticSearchTestUtils;
 import com.linkedin.metadata.ElasticTestUtils;
+import com.linkedin.metadata.entity.CursorListResult;
+import com.linkedin.metadata.graph.Edge;
 import com.linkedin.metadata.graph.EntityLineageResult;
 import com.linkedin.metadata.graph.GraphService;
 import com.linkedin.metadata.graph.GraphServiceTestBase;
@@ -27,6 +30,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
@@ -36,7 +40,11 @@ import java.util.stream.Collectors;
 
 import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
 import static com.linkedin.metadata.graph.elastic.ElasticSearchGraphService.INDEX_NAME;
+import static com.linkedin.metadata.search.utils.QueryUtils.EMPTY_FILTER;
+import static com.linkedin.metadata.search.utils.QueryUtils.newFilter;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 
@@ -249,4 +257,39 @@ public class ElasticSearchGraphServiceTest extends GraphServiceTestBase {
     assertEquals(downstreamLineage.getTotal().intValue(), 0);
     assertEquals(downstreamLineage.getRelationships().size(), 0);
   }
+
+  @Test
+  public void testScrollRelatedEntities() throws Exception {
+    final List<RelatedEntity> expectedRelatedEntities = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      final Urn datasetUrn = createFromString(
+          String.format("urn:li:dataset:(urn:li:dataPlatform:type,SampleDataset%02d,PROD)", i));
+      _client.addEdge(new Edge(datasetUrn, userOneUrn, hasOwner));
+      expectedRelatedEntities.add(new RelatedEntity(hasOwner, datasetUrn.toString()));
+    }
+    // An edge of another entity, which must not be returned
+    _client.addEdge(new Edge(datasetOneUrn, userTwoUrn, hasOwner));
+    syncAfterWrite();
+
+    // Pages resume with search_after from the sort values of the last edge of the previous page
+    final List<RelatedEntity> relatedEntities = new ArrayList<>();
+    final List<Integer> pageSizes = new ArrayList<>();
+    String cursor = null;
+    do {
+      final CursorListResult<RelatedEntity> page = _client.scrollRelatedEntities(null,
+          newFilter("urn", userOneUrnString), null, EMPTY_FILTER, ImmutableList.of(hasOwner), incomingRelationships,
+          cursor, 10);
+      relatedEntities.addAll(page.getValues());
+      pageSizes.add(page.getValues().size());
+      cursor = page.getNextCursor();
+      if (page.getValues().size() == 10) {
+        assertNotNull(cursor);
+      }
+    } while (cursor != null);
+
+    assertEquals(pageSizes, ImmutableList.of(10, 10, 5));
+    assertEquals(relatedEntities.size(), expectedRelatedEntities.size());
+    assertEquals(new HashSet<>(relatedEntities), new HashSet<>(expectedRelatedEntities));
+    assertNull(cursor);
+  }
 }
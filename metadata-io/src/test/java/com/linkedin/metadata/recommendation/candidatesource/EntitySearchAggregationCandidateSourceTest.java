@@ -45,7 +45,12 @@ public class EntitySearchAggregationCandidateSourceTest {
   }
 
   private EntitySearchAggregationSource buildCandidateSource(String identifier, boolean isValueUrn) {
-    return new EntitySearchAggregationSource(_entitySearchService) {
+    return buildCandidateSource(identifier, isValueUrn, 0);
+  }
+
+  private EntitySearchAggregationSource buildCandidateSource(String identifier, boolean isValueUrn,
+      long refreshIntervalSeconds) {
+    return new EntitySearchAggregationSource(_entitySearchService, refreshIntervalSeconds) {
       @Override
       protected String getSearchFieldName() {
         return identifier;
@@ -200,4 +205,21 @@ public class EntitySearchAggregationCandidateSourceTest {
     assertEquals(params.getContentParams().getCount().longValue(), 2L);
     assertTrue(_urnBasedCandidateSource.getRecommendationModule(USER, CONTEXT).isPresent());
   }
+
+  @Test
+  public void testMaterializedAggregation() {
+    EntitySearchAggregationSource materializedCandidateSource = buildCandidateSource("testValue", false, 3600);
+    Mockito.when(_entitySearchService.aggregateByValue(eq(null), eq("testValue"), eq(null), anyInt()))
+        .thenReturn(ImmutableMap.of("value1", 1L));
+    List<RecommendationContent> candidates = materializedCandidateSource.getRecommendations(USER, CONTEXT);
+    assertEquals(candidates.size(), 1);
+
+    // Served from the materialized result until it gets refreshed
+    Mockito.when(_entitySearchService.aggregateByValue(eq(null), eq("testValue"), eq(null), anyInt()))
+        .thenReturn(ImmutableMap.of("value1", 1L, "value2", 2L));
+    candidates = materializedCandidateSource.getRecommendations(USER, CONTEXT);
+    assertEquals(candidates.size(), 1);
+    Mockito.verify(_entitySearchService, Mockito.times(1))
+        .aggregateByValue(eq(null), eq("testValue"), eq(null), anyInt());
+  }
 }
@@ -0,0 +1,118 @@
+package com.linkedin.metadata.search.aggregator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.common.urn.UrnUtils;
+import com.linkedin.metadata.search.AggregationMetadataArray;
+import com.linkedin.metadata.search.EntitySearchService;
+import com.linkedin.metadata.search.ScrollResult;
+import com.linkedin.metadata.search.SearchEntity;
+import com.linkedin.metadata.search.SearchEntityArray;
+import com.linkedin.metadata.search.SearchResultMetadata;
+import com.linkedin.metadata.search.cache.EntityDocCountCache;
+import com.linkedin.metadata.search.utils.ScrollCursorUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+
+public class AllEntitiesScrollAggregatorTest {
+  // Hits of each index, in index order (score descending, then urn)
+  private static final Map<String, List<SearchEntity>> HITS = ImmutableMap.of(
+      "dataset", ImmutableList.of(hit("urn:li:dataset:(urn:li:dataPlatform:hive,a,PROD)", 5.0),
+          hit("urn:li:dataset:(urn:li:dataPlatform:hive,b,PROD)", 3.0),
+          hit("urn:li:dataset:(urn:li:dataPlatform:hive,c,PROD)", 1.0)),
+      "chart", ImmutableList.of(hit("urn:li:chart:(looker,a)", 4.0), hit("urn:li:chart:(looker,b)", 3.0)));
+
+  private final EntitySearchService _entitySearchService = Mockito.mock(EntitySearchService.class);
+  private final EntityDocCountCache _entityDocCountCache = Mockito.mock(EntityDocCountCache.class);
+  private AllEntitiesScrollAggregator _aggregator;
+
+  @BeforeMethod
+  public void setup() {
+    Mockito.reset(_entitySearchService, _entityDocCountCache);
+    Mockito.when(_entityDocCountCache.getNonEmptyEntities()).thenReturn(ImmutableList.of("dataset", "chart"));
+    Mockito.when(_entitySearchService.scroll(anyString(), anyString(), any(), isNull(), any(), anyInt()))
+        .thenAnswer(invocation -> scrollIndex(invocation.getArgument(0), invocation.getArgument(4),
+            invocation.getArgument(5)));
+    _aggregator = new AllEntitiesScrollAggregator(_entitySearchService, _entityDocCountCache);
+  }
+
+  @Test
+  public void testScrollMergesEntitiesByScore() {
+    List<Urn> scrolled = new ArrayList<>();
+    String scrollId = null;
+    int pages = 0;
+    do {
+      ScrollResult page = _aggregator.scroll(Collections.emptyList(), "", null, scrollId, 2);
+      assertTrue(page.getEntities().size() <= 2);
+      page.getEntities().forEach(entity -> scrolled.add(entity.getEntity()));
+      scrollId = page.getScrollId();
+      pages++;
+    } while (scrollId != null);
+
+    assertEquals(pages, 3);
+    assertEquals(scrolled, ImmutableList.of(UrnUtils.getUrn("urn:li:dataset:(urn:li:dataPlatform:hive,a,PROD)"),
+        UrnUtils.getUrn("urn:li:chart:(looker,a)"), UrnUtils.getUrn("urn:li:chart:(looker,b)"),
+        UrnUtils.getUrn("urn:li:dataset:(urn:li:dataPlatform:hive,b,PROD)"),
+        UrnUtils.getUrn("urn:li:dataset:(urn:li:dataPlatform:hive,c,PROD)")));
+  }
+
+  @Test
+  public void testExhaustedEntitiesAreNotQueriedAgain() {
+    ScrollResult firstPage = _aggregator.scroll(ImmutableList.of("chart"), "", null, null, 5);
+    assertEquals(firstPage.getEntities().size(), 2);
+    assertFalse(firstPage.hasScrollId());
+
+    ScrollResult datasetPage = _aggregator.scroll(ImmutableList.of("dataset", "chart"), "", null,
+        ScrollCursorUtils.encodeComposite(ImmutableMap.of("chart", ScrollCursorUtils.EXHAUSTED)), 5);
+    assertEquals(datasetPage.getEntities().size(), 3);
+    assertNull(datasetPage.getScrollId());
+    Mockito.verify(_entitySearchService, Mockito.times(1)).scroll(eq("chart"), anyString(), any(), any(), any(),
+        anyInt());
+  }
+
+  private static SearchEntity hit(String urn, double score) {
+    return new SearchEntity().setEntity(UrnUtils.getUrn(urn)).setScore(score);
+  }
+
+  // Mimics search_after on a single index sorted by score descending, then urn
+  private static ScrollResult scrollIndex(String entityName, String scrollId, int size) {
+    List<SearchEntity> hits = HITS.get(entityName);
+    int start = 0;
+    if (scrollId != null) {
+      Object[] searchAfter = ScrollCursorUtils.decode(scrollId);
+      while (start < hits.size() && !hits.get(start).getEntity().toString().equals(searchAfter[1])) {
+        start++;
+      }
+      start++;
+    }
+    List<SearchEntity> page =
+        hits.stream().skip(start).limit(size).collect(Collectors.toList());
+    ScrollResult result = new ScrollResult().setEntities(new SearchEntityArray(page))
+        .setMetadata(new SearchResultMetadata().setAggregations(new AggregationMetadataArray()))
+        .setPageSize(size)
+        .setNumEntities(hits.size());
+    if (page.size() == size) {
+      SearchEntity last = page.get(page.size() - 1);
+      result.setScrollId(ScrollCursorUtils.encode(new Object[]{last.getScore(), last.getEntity().toString()}));
+    }
+    return result;
+  }
+}
@@ -0,0 +1,68 @@
+package com.linkedin.metadata.search.cache;
+
+import com.datahub.test.Snapshot;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.models.registry.SnapshotEntityRegistry;
+import com.linkedin.metadata.search.EntitySearchService;
+import java.util.Collections;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class EntityDocCountCacheTest {
+  private static final String ENTITY_NAME = "testentity";
+
+  private final EntityRegistry _entityRegistry = new SnapshotEntityRegistry(new Snapshot());
+  private final EntitySearchService _entitySearchService = Mockito.mock(EntitySearchService.class);
+  private EntityDocCountCache _entityDocCountCache;
+
+  @BeforeMethod
+  public void setup() {
+    Mockito.reset(_entitySearchService);
+    _entityDocCountCache = new EntityDocCountCache(_entityRegistry, _entitySearchService);
+  }
+
+  @Test
+  public void testServesSnapshotUntilRefreshed() {
+    Mockito.when(_entitySearchService.docCountPerEntity(anyList())).thenReturn(ImmutableMap.of(ENTITY_NAME, 1L));
+    assertEquals(_entityDocCountCache.getEntityDocCount(), ImmutableMap.of(ENTITY_NAME, 1L));
+
+    Mockito.when(_entitySearchService.docCountPerEntity(anyList())).thenReturn(ImmutableMap.of(ENTITY_NAME, 2L));
+    assertEquals(_entityDocCountCache.getEntityDocCount(), ImmutableMap.of(ENTITY_NAME, 1L));
+    _entityDocCountCache.refresh();
+    assertEquals(_entityDocCountCache.getEntityDocCount(), ImmutableMap.of(ENTITY_NAME, 2L));
+
+    // All entities are counted in a single call per snapshot
+    Mockito.verify(_entitySearchService, Mockito.times(2)).docCountPerEntity(anyList());
+    Mockito.verify(_entitySearchService, Mockito.never()).docCount(Mockito.anyString());
+  }
+
+  @Test
+  public void testServesStaleSnapshotWhenRefreshFails() {
+    Mockito.when(_entitySearchService.docCountPerEntity(anyList())).thenReturn(ImmutableMap.of(ENTITY_NAME, 1L));
+    assertEquals(_entityDocCountCache.getNonEmptyEntities(), Collections.singletonList(ENTITY_NAME));
+
+    Mockito.when(_entitySearchService.docCountPerEntity(anyList())).thenThrow(new RuntimeException("Failed"));
+    _entityDocCountCache.refresh();
+    assertEquals(_entityDocCountCache.getNonEmptyEntities(), Collections.singletonList(ENTITY_NAME));
+  }
+
+  @Test
+  public void testApplyDelta() {
+    Mockito.when(_entitySearchService.docCountPerEntity(anyList())).thenReturn(ImmutableMap.of(ENTITY_NAME, 1L));
+    _entityDocCountCache.applyDelta(ENTITY_NAME, 1);
+    _entityDocCountCache.getEntityDocCount();
+
+    _entityDocCountCache.applyDelta("testEntity", 2);
+    assertEquals(_entityDocCountCache.getEntityDocCount().get(ENTITY_NAME).longValue(), 3L);
+    _entityDocCountCache.applyDelta(ENTITY_NAME, -5);
+    assertEquals(_entityDocCountCache.getEntityDocCount().get(ENTITY_NAME).longValue(), 0L);
+    assertTrue(_entityDocCountCache.getNonEmptyEntities().isEmpty());
+  }
+}
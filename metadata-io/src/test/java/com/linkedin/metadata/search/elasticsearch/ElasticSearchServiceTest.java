@@ -3,12 +3,16 @@ package com.linkedin.metadata.search.elasticsearch;
 import com.datahub.test.Snapshot;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.linkedin.common.urn.TestEntityUrn;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.metadata.ElasticTestUtils;
 import com.linkedin.metadata.browse.BrowseResult;
 import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.models.registry.SnapshotEntityRegistry;
+import com.linkedin.metadata.query.AutoCompleteResult;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.elasticsearch.indexbuilder.ESIndexBuilder;
 import com.linkedin.metadata.search.elasticsearch.indexbuilder.EntityIndexBuilders;
@@ -33,10 +37,14 @@ import org.testng.annotations.Test;
 
 import javax.annotation.Nonnull;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
 import static com.linkedin.metadata.ElasticSearchTestUtils.syncAfterWrite;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class ElasticSearchServiceTest {
@@ -49,6 +57,8 @@ public class ElasticSearchServiceTest {
   private ElasticSearchService _elasticSearchService;
 
   private static final String ENTITY_NAME = "testEntity";
+  private static final int NUM_BROWSE_ENTITIES = 300;
+  private static final int MAX_BROWSE_DEPTH = 8;
 
   @BeforeClass
   public void setup() {
@@ -85,10 +95,17 @@ public class ElasticSearchServiceTest {
 
   @Nonnull
   private ElasticSearchService buildService() {
+    return buildService(0, 0);
+  }
+
+  @Nonnull
+  private ElasticSearchService buildService(long browseGroupsCacheTtlSeconds, long browseGroupsCacheSettleSeconds) {
     EntityIndexBuilders indexBuilders =
         new EntityIndexBuilders(getIndexBuilder(_searchClient), _entityRegistry, _indexConvention, _settingsBuilder);
     ESSearchDAO searchDAO = new ESSearchDAO(_entityRegistry, _searchClient, _indexConvention);
-    ESBrowseDAO browseDAO = new ESBrowseDAO(_entityRegistry, _searchClient, _indexConvention);
+    ESBrowseDAO browseDAO =
+        new ESBrowseDAO(_entityRegistry, _searchClient, _indexConvention, browseGroupsCacheTtlSeconds,
+            browseGroupsCacheSettleSeconds);
     ESWriteDAO writeDAO =
         new ESWriteDAO(_entityRegistry, _searchClient, _indexConvention, getBulkProcessor(_searchClient));
     return new ElasticSearchService(indexBuilders, searchDAO, browseDAO, writeDAO);
@@ -154,11 +171,45 @@ public class ElasticSearchServiceTest {
     assertEquals(browseResult.getMetadata().getTotalNumEntities().longValue(), 1);
     assertEquals(browseResult.getGroups().get(0).getName(), "b");
     assertEquals(_elasticSearchService.docCount(ENTITY_NAME), 2);
+    assertEquals(_elasticSearchService.docCountPerEntity(ImmutableList.of(ENTITY_NAME)), ImmutableMap.of(ENTITY_NAME, 2L));
     assertEquals(_elasticSearchService.aggregateByValue(ENTITY_NAME, "textFieldOverride", null, 10),
         ImmutableMap.of("textFieldOverride", 1L, "textFieldOverride2", 1L));
 
+    ScrollResult firstPage = _elasticSearchService.scroll(ENTITY_NAME, "", null, null, null, 1);
+    assertEquals(firstPage.getEntities().size(), 1);
+    assertTrue(firstPage.hasScrollId());
+    ScrollResult secondPage = _elasticSearchService.scroll(ENTITY_NAME, "", null, null, firstPage.getScrollId(), 1);
+    assertEquals(secondPage.getEntities().size(), 1);
+    assertEquals(ImmutableSet.of(firstPage.getEntities().get(0).getEntity(), secondPage.getEntities().get(0).getEntity()),
+        ImmutableSet.of(urn, urn2));
+    ScrollResult lastPage = _elasticSearchService.scroll(ENTITY_NAME, "", null, null, secondPage.getScrollId(), 1);
+    assertEquals(lastPage.getEntities().size(), 0);
+    assertFalse(lastPage.hasScrollId());
+
+    Map<String, AutoCompleteResult> autoCompleteResults =
+        _elasticSearchService.autoCompleteAcrossEntities(ImmutableList.of(ENTITY_NAME), "ran", null, 10);
+    assertEquals(autoCompleteResults.get(ENTITY_NAME).getSuggestions(), ImmutableList.of("random"));
+    assertEquals(autoCompleteResults.get(ENTITY_NAME).getEntities().get(0).getUrn(), urn2);
+    assertEquals(_elasticSearchService.autoCompleteAcrossEntities(ImmutableList.of(ENTITY_NAME), "test", null, 10)
+        .get(ENTITY_NAME).getSuggestions(), ImmutableList.of("test"));
+
+    // Only the first 20 characters of each token are indexed for autocomplete, longer queries must still match
+    Urn urn3 = new TestEntityUrn("test", "testUrn3", "VALUE_1");
+    ObjectNode document3 = JsonNodeFactory.instance.objectNode();
+    document3.set("urn", JsonNodeFactory.instance.textNode(urn3.toString()));
+    document3.set("keyPart1", JsonNodeFactory.instance.textNode("averyveryverylongkeypart"));
+    _elasticSearchService.upsertDocument(ENTITY_NAME, document3.toString(), urn3.toString());
+    syncAfterWrite(_searchClient);
+    autoCompleteResults = _elasticSearchService.autoCompleteAcrossEntities(ImmutableList.of(ENTITY_NAME),
+        "averyveryverylongkey", null, 10);
+    assertEquals(autoCompleteResults.get(ENTITY_NAME).getEntities().get(0).getUrn(), urn3);
+    autoCompleteResults = _elasticSearchService.autoCompleteAcrossEntities(ImmutableList.of(ENTITY_NAME),
+        "averyveryverylongkeyp", null, 10);
+    assertEquals(autoCompleteResults.get(ENTITY_NAME).getEntities().get(0).getUrn(), urn3);
+
     _elasticSearchService.deleteDocument(ENTITY_NAME, urn.toString());
     _elasticSearchService.deleteDocument(ENTITY_NAME, urn2.toString());
+    _elasticSearchService.deleteDocument(ENTITY_NAME, urn3.toString());
     syncAfterWrite(_searchClient);
     searchResult = _elasticSearchService.search(ENTITY_NAME, "test", null, null, 0, 10);
     assertEquals(searchResult.getNumEntities().intValue(), 0);
@@ -167,4 +218,106 @@ public class ElasticSearchServiceTest {
     assertEquals(_elasticSearchService.docCount(ENTITY_NAME), 0);
     assertEquals(_elasticSearchService.aggregateByValue(ENTITY_NAME, "textField", null, 10).size(), 0);
   }
+
+  @Test
+  public void testBrowseWithCachedGroups() throws Exception {
+    final ElasticSearchService cachingService = buildService(60, 0);
+    // Entity i is located MAX_BROWSE_DEPTH levels deep at most, in a folder named after the bits of i
+    for (int i = 0; i < NUM_BROWSE_ENTITIES; i++) {
+      final Urn urn = new TestEntityUrn("test", "browse" + i, "VALUE_1");
+      final ObjectNode document = JsonNodeFactory.instance.objectNode();
+      document.set("urn", JsonNodeFactory.instance.textNode(urn.toString()));
+      document.set("keyPart1", JsonNodeFactory.instance.textNode("browse" + i));
+      document.set("browsePaths", JsonNodeFactory.instance.textNode(getBrowseFolder(i) + "/entity" + i));
+      _elasticSearchService.upsertDocument(ENTITY_NAME, document.toString(), urn.toString());
+    }
+    syncAfterWrite(_searchClient);
+
+    final List<String> paths = ImmutableList.of("", "/f0", "/f1/f0", "/f0/f1/f1", "/f1/f1/f0/f0", "/f1/f1/f1/f0/f1/f0",
+        "/f0/f1/f1/f0/f1/f0/f1");
+    final List<int[]> pages = ImmutableList.of(new int[]{0, 1}, new int[]{0, 10}, new int[]{1, 2}, new int[]{3, 7},
+        new int[]{20, 10}, new int[]{0, NUM_BROWSE_ENTITIES});
+    for (String path : paths) {
+      for (int[] page : pages) {
+        final BrowseResult expected = _elasticSearchService.browse(ENTITY_NAME, path, null, page[0], page[1]);
+        // The first browse fetches groups and entities at once, the second one reuses the cached groups
+        assertEquals(cachingService.browse(ENTITY_NAME, path, null, page[0], page[1]), expected);
+        assertEquals(cachingService.browse(ENTITY_NAME, path, null, page[0], page[1]), expected);
+      }
+    }
+    BrowseResult rootResult = cachingService.browse(ENTITY_NAME, "", null, 0, 10);
+    assertEquals(rootResult.getMetadata().getTotalNumEntities().intValue(), NUM_BROWSE_ENTITIES);
+    assertEquals(rootResult.getNumGroups().intValue(), 2);
+    BrowseResult leafResult = cachingService.browse(ENTITY_NAME, "/f0/f1/f1/f0/f1/f0/f1", null, 0, 10);
+    assertEquals(leafResult.getNumGroups().intValue(), 0);
+    // Entities 86 and 214 are the only ones in the deepest folder
+    assertEquals(leafResult.getNumEntities().intValue(), 2);
+    assertEquals(leafResult.getEntities().size(), 2);
+
+    // Cached groups are only refreshed once invalidated
+    final Urn urn = new TestEntityUrn("test", "browseNew", "VALUE_1");
+    final ObjectNode document = JsonNodeFactory.instance.objectNode();
+    document.set("urn", JsonNodeFactory.instance.textNode(urn.toString()));
+    document.set("browsePaths", JsonNodeFactory.instance.textNode("/f2/entityNew"));
+    _elasticSearchService.upsertDocument(ENTITY_NAME, document.toString(), urn.toString());
+    syncAfterWrite(_searchClient);
+    assertEquals(cachingService.browse(ENTITY_NAME, "", null, 0, 10).getNumGroups().intValue(), 2);
+    cachingService.invalidateBrowseCache(ENTITY_NAME);
+    rootResult = cachingService.browse(ENTITY_NAME, "", null, 0, 10);
+    assertEquals(rootResult.getNumGroups().intValue(), 3);
+    assertEquals(rootResult.getMetadata().getTotalNumEntities().intValue(), NUM_BROWSE_ENTITIES + 1);
+    assertEquals(rootResult, _elasticSearchService.browse(ENTITY_NAME, "", null, 0, 10));
+
+    // Invalidating another entity type keeps the cached groups of this one
+    final Urn otherUrn = new TestEntityUrn("test", "browseOther", "VALUE_1");
+    final ObjectNode otherDocument = JsonNodeFactory.instance.objectNode();
+    otherDocument.set("urn", JsonNodeFactory.instance.textNode(otherUrn.toString()));
+    otherDocument.set("browsePaths", JsonNodeFactory.instance.textNode("/f3/entityOther"));
+    _elasticSearchService.upsertDocument(ENTITY_NAME, otherDocument.toString(), otherUrn.toString());
+    syncAfterWrite(_searchClient);
+    cachingService.invalidateBrowseCache("dataset");
+    assertEquals(cachingService.browse(ENTITY_NAME, "", null, 0, 10).getNumGroups().intValue(), 3);
+    cachingService.invalidateBrowseCache(ENTITY_NAME);
+    assertEquals(cachingService.browse(ENTITY_NAME, "", null, 0, 10).getNumGroups().intValue(), 4);
+  }
+
+  @Test
+  public void testBrowseGroupsAreNotCachedRightAfterInvalidation() throws Exception {
+    final ElasticSearchService cachingService = buildService(60, 2);
+    final String path = "/settle";
+    upsertBrowseDocument("settle0", path + "/f0/entity0");
+    syncAfterWrite(_searchClient);
+    assertEquals(cachingService.browse(ENTITY_NAME, path, null, 0, 10).getNumGroups().intValue(), 1);
+
+    // Invalidated before the write is searchable, as the hook updating the indices does
+    cachingService.invalidateBrowseCache(ENTITY_NAME);
+    upsertBrowseDocument("settle1", path + "/f1/entity1");
+    cachingService.browse(ENTITY_NAME, path, null, 0, 10);
+    syncAfterWrite(_searchClient);
+    assertEquals(cachingService.browse(ENTITY_NAME, path, null, 0, 10).getNumGroups().intValue(), 2);
+
+    // Groups are cached again once the invalidation settled
+    Thread.sleep(2000);
+    assertEquals(cachingService.browse(ENTITY_NAME, path, null, 0, 10).getNumGroups().intValue(), 2);
+    upsertBrowseDocument("settle2", path + "/f2/entity2");
+    syncAfterWrite(_searchClient);
+    assertEquals(cachingService.browse(ENTITY_NAME, path, null, 0, 10).getNumGroups().intValue(), 2);
+  }
+
+  private void upsertBrowseDocument(String key, String browsePath) {
+    final Urn urn = new TestEntityUrn("test", key, "VALUE_1");
+    final ObjectNode document = JsonNodeFactory.instance.objectNode();
+    document.set("urn", JsonNodeFactory.instance.textNode(urn.toString()));
+    document.set("browsePaths", JsonNodeFactory.instance.textNode(browsePath));
+    _elasticSearchService.upsertDocument(ENTITY_NAME, document.toString(), urn.toString());
+  }
+
+  private static String getBrowseFolder(int i) {
+    final StringBuilder folder = new StringBuilder();
+    final int depth = 1 + i % MAX_BROWSE_DEPTH;
+    for (int level = 0; level < depth; level++) {
+      folder.append("/f").append((i >> level) & 1);
+    }
+    return folder.toString();
+  }
 }
@@ -0,0 +1,221 @@
+package com.linkedin.metadata.search.elasticsearch.indexbuilder;
+
+import com.datahub.test.Snapshot;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.metadata.ElasticTestUtils;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.models.registry.SnapshotEntityRegistry;
+import com.linkedin.metadata.search.elasticsearch.update.BulkListener;
+import com.linkedin.metadata.search.elasticsearch.update.ESWriteDAO;
+import com.linkedin.metadata.systemmetadata.ESSystemMetadataDAO;
+import com.linkedin.metadata.systemmetadata.ElasticSearchSystemMetadataService;
+import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.metadata.utils.elasticsearch.IndexConventionImpl;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.elasticsearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.action.bulk.BulkProcessor;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.client.RequestOptions;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.client.core.CountRequest;
+import org.elasticsearch.client.indices.GetMappingsRequest;
+import org.elasticsearch.common.unit.TimeValue;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+/**
+ * Writes documents while their index is being reindexed, and checks that the rebuilt index holds them.
+ */
+public class ESIndexBuilderTest {
+  private static final String ENTITY_NAME = "testEntity";
+  // The reindex copies a first batch of 1000 documents, then waits 10s before the second one
+  private static final int NUM_DOCUMENTS = 1500;
+  private static final float REINDEX_REQUESTS_PER_SECOND = 100;
+  private static final Map<String, Object> OLD_MAPPINGS = ImmutableMap.of("properties",
+      ImmutableMap.of("urn", ImmutableMap.of("type", "keyword"), "textField", ImmutableMap.of("type", "text"),
+          "otherField", ImmutableMap.of("type", "keyword")));
+  // Changes the type of an existing field, which requires a reindex
+  private static final Map<String, Object> NEW_MAPPINGS = ImmutableMap.of("properties",
+      ImmutableMap.of("urn", ImmutableMap.of("type", "keyword"), "textField", ImmutableMap.of("type", "keyword"),
+          "otherField", ImmutableMap.of("type", "keyword")));
+
+  private ElasticsearchContainer _elasticsearchContainer;
+  private RestHighLevelClient _searchClient;
+  private EntityRegistry _entityRegistry;
+  private IndexConvention _indexConvention;
+  private ESIndexBuilder _indexBuilder;
+  private final ExecutorService _executorService = Executors.newSingleThreadExecutor();
+
+  @BeforeClass
+  public void setup() {
+    _entityRegistry = new SnapshotEntityRegistry(new Snapshot());
+    _indexConvention = new IndexConventionImpl(null);
+    _elasticsearchContainer = ElasticTestUtils.getNewElasticsearchContainer();
+    checkContainerEngine(_elasticsearchContainer.getDockerClient());
+    _elasticsearchContainer.start();
+    _searchClient = ElasticTestUtils.buildRestClient(_elasticsearchContainer);
+    _indexBuilder = new ESIndexBuilder(_searchClient, 1, 0, 3, 1, REINDEX_REQUESTS_PER_SECOND,
+        ESIndexBuilder.DEFAULT_REINDEX_STALL_TIMEOUT_MINUTES);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _executorService.shutdownNow();
+    _elasticsearchContainer.stop();
+  }
+
+  @Test
+  public void testDocumentWritesDuringReindexAreKept() throws Exception {
+    final String indexName = _indexConvention.getIndexName(_entityRegistry.getEntitySpec(ENTITY_NAME));
+    createIndexWithDocuments(indexName);
+
+    final Future<?> rebuild = rebuildAsync(indexName);
+    awaitReindexCopying(indexName);
+
+    // The writer is created once the reindex started, so that it sees the index being reindexed right away
+    final BulkProcessor bulkProcessor = getBulkProcessor();
+    final ESWriteDAO writeDAO = new ESWriteDAO(_entityRegistry, _searchClient, _indexConvention, bulkProcessor);
+    for (int i = 0; i < NUM_DOCUMENTS; i += 5) {
+      // Partial updates, which must not leave partial documents in the new index
+      writeDAO.upsertDocument(ENTITY_NAME, "{\"otherField\": \"updated\"}", "doc" + i);
+      // Deletes, which the reindex must not bring back
+      writeDAO.deleteDocument(ENTITY_NAME, "doc" + (i + 1));
+      // Inserts
+      writeDAO.upsertDocument(ENTITY_NAME, document(NUM_DOCUMENTS + i), "doc" + (NUM_DOCUMENTS + i));
+    }
+    bulkProcessor.awaitClose(30, TimeUnit.SECONDS);
+    rebuild.get(5, TimeUnit.MINUTES);
+
+    assertRebuilt(indexName);
+    assertEquals(getCount(indexName), NUM_DOCUMENTS);
+    for (int i = 0; i < NUM_DOCUMENTS; i += 5) {
+      final GetResponse updated = getDocument(indexName, "doc" + i);
+      assertTrue(updated.isExists());
+      assertEquals(updated.getSource().get("otherField"), "updated");
+      assertEquals(updated.getSource().get("textField"), "text" + i);
+      assertFalse(getDocument(indexName, "doc" + (i + 1)).isExists());
+      assertTrue(getDocument(indexName, "doc" + (NUM_DOCUMENTS + i)).isExists());
+      assertEquals(getDocument(indexName, "doc" + (i + 2)).getSource().get("otherField"), "original");
+    }
+  }
+
+  @Test
+  public void testDeletesByQueryDuringReindexAreKept() throws Exception {
+    final String indexName = _indexConvention.getIndexName(ElasticSearchSystemMetadataService.INDEX_NAME);
+    createIndexWithDocuments(indexName);
+
+    final Future<?> rebuild = rebuildAsync(indexName);
+    awaitReindexCopying(indexName);
+
+    final BulkProcessor bulkProcessor = getBulkProcessor();
+    final ESSystemMetadataDAO systemMetadataDAO = new ESSystemMetadataDAO(_searchClient, _indexConvention,
+        bulkProcessor);
+    for (int i = 0; i < NUM_DOCUMENTS; i += 5) {
+      systemMetadataDAO.deleteByUrn("urn:li:test:" + i);
+    }
+    bulkProcessor.awaitClose(30, TimeUnit.SECONDS);
+    rebuild.get(5, TimeUnit.MINUTES);
+
+    assertRebuilt(indexName);
+    assertEquals(getCount(indexName), NUM_DOCUMENTS - NUM_DOCUMENTS / 5);
+    for (int i = 0; i < NUM_DOCUMENTS; i += 5) {
+      assertFalse(getDocument(indexName, "doc" + i).isExists());
+      assertTrue(getDocument(indexName, "doc" + (i + 1)).isExists());
+    }
+  }
+
+  private void createIndexWithDocuments(@Nonnull String indexName) throws Exception {
+    _indexBuilder.buildIndex(indexName, OLD_MAPPINGS, Collections.emptyMap());
+    final BulkRequest bulkRequest = new BulkRequest().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+    for (int i = 0; i < NUM_DOCUMENTS; i++) {
+      bulkRequest.add(new IndexRequest(indexName).id("doc" + i).source(document(i), XContentType.JSON));
+    }
+    assertFalse(_searchClient.bulk(bulkRequest, RequestOptions.DEFAULT).hasFailures());
+  }
+
+  @Nonnull
+  private static String document(int i) {
+    return String.format("{\"urn\": \"urn:li:test:%d\", \"textField\": \"text%d\", \"otherField\": \"original\"}", i,
+        i);
+  }
+
+  @Nonnull
+  private Future<?> rebuildAsync(@Nonnull String indexName) {
+    return _executorService.submit(() -> {
+      _indexBuilder.buildIndex(indexName, NEW_MAPPINGS, Collections.emptyMap());
+      return null;
+    });
+  }
+
+  /**
+   * Waits for the reindex to have copied its first batch of documents, and to be throttled before the next one.
+   */
+  private void awaitReindexCopying(@Nonnull String indexName) throws Exception {
+    final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+    while (System.currentTimeMillis() < deadline) {
+      for (String tempIndexName : _searchClient.indices()
+          .getAlias(new GetAliasesRequest(ESIndexBuilder.getReindexTargetAlias(indexName)), RequestOptions.DEFAULT)
+          .getAliases()
+          .keySet()) {
+        _searchClient.indices().refresh(new RefreshRequest(tempIndexName), RequestOptions.DEFAULT);
+        final long count = getCount(tempIndexName);
+        assertTrue(count < NUM_DOCUMENTS, "The reindex was not throttled");
+        if (count > 0) {
+          return;
+        }
+      }
+      Thread.sleep(100);
+    }
+    throw new AssertionError("The reindex of " + indexName + " did not start");
+  }
+
+  private void assertRebuilt(@Nonnull String indexName) throws Exception {
+    final Map<String, Object> mappings = _searchClient.indices()
+        .getMapping(new GetMappingsRequest().indices(indexName), RequestOptions.DEFAULT)
+        .mappings()
+        .values()
+        .iterator()
+        .next()
+        .getSourceAsMap();
+    assertEquals(((Map<?, ?>) ((Map<?, ?>) mappings.get("properties")).get("textField")).get("type"), "keyword");
+    _searchClient.indices().refresh(new RefreshRequest(indexName), RequestOptions.DEFAULT);
+  }
+
+  private long getCount(@Nonnull String indexName) throws Exception {
+    return _searchClient.count(new CountRequest(indexName).query(QueryBuilders.matchAllQuery()),
+        RequestOptions.DEFAULT).getCount();
+  }
+
+  @Nonnull
+  private GetResponse getDocument(@Nonnull String indexName, @Nonnull String docId) throws Exception {
+    return _searchClient.get(new GetRequest(indexName, docId), RequestOptions.DEFAULT);
+  }
+
+  @Nonnull
+  private BulkProcessor getBulkProcessor() {
+    return BulkProcessor.builder(
+        (request, bulkListener) -> _searchClient.bulkAsync(request, RequestOptions.DEFAULT, bulkListener),
+        BulkListener.getInstance()).setBulkActions(100).setFlushInterval(TimeValue.timeValueSeconds(1)).build();
+  }
+}
@@ -48,6 +48,15 @@ public class MappingsBuilderTest {
     assertTrue(nestedArrayArrayFieldSubfields.containsKey("delimited"));
     assertTrue(nestedArrayArrayFieldSubfields.containsKey("keyword"));
 
+    // TEXT with autocomplete
+    Map<String, Object> keyPart1Field = (Map<String, Object>) properties.get("keyPart1");
+    assertEquals(keyPart1Field.get("type"), "keyword");
+    Map<String, Object> keyPart1FieldSubfields = (Map<String, Object>) keyPart1Field.get("fields");
+    assertEquals(keyPart1FieldSubfields.size(), 3);
+    assertTrue(keyPart1FieldSubfields.containsKey("delimited"));
+    assertTrue(keyPart1FieldSubfields.containsKey("keyword"));
+    assertEquals(((Map<String, Object>) keyPart1FieldSubfields.get("autocomplete")).get("analyzer"), "autocomplete");
+
     // TEXT with addToFilters
     Map<String, Object> textField = (Map<String, Object>) properties.get("textFieldOverride");
     assertEquals(textField.get("type"), "keyword");
@@ -32,6 +32,10 @@ public class SearchRequestHandlerTest {
     SearchSourceBuilder sourceBuilder = searchRequest.source();
     assertEquals(sourceBuilder.from(), 0);
     assertEquals(sourceBuilder.size(), 10);
+    // The urn is read from doc values, the source of the documents is not fetched
+    assertFalse(sourceBuilder.fetchSource().fetchSource());
+    assertEquals(sourceBuilder.docValueFields().stream().map(field -> field.field).collect(Collectors.toList()),
+        ImmutableList.of("urn"));
     // Filters
     Optional<AggregationBuilder> aggregationBuilder =
         sourceBuilder.aggregations().getAggregatorFactories().stream().findFirst();
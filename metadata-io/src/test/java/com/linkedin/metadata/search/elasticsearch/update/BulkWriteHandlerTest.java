@@ -0,0 +1,192 @@
+package com.linkedin.metadata.search.elasticsearch.update;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.index.IndexResponse;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.rest.RestStatus;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class BulkWriteHandlerTest {
+  private static final String INDEX = "testindex";
+
+  private ExecutorService _clusterExecutor;
+
+  @BeforeMethod
+  public void setup() {
+    _clusterExecutor = Executors.newCachedThreadPool();
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _clusterExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testRetriesOnlyFailedActions() throws Exception {
+    // Document 2 is rejected twice, document 5 has a mapping error and document 7 is never available
+    final StubCluster cluster = new StubCluster(0, ImmutableMap.of("2", Collections.nCopies(2, RestStatus.TOO_MANY_REQUESTS),
+        "5", Collections.singletonList(RestStatus.BAD_REQUEST),
+        "7", Collections.nCopies(10, RestStatus.SERVICE_UNAVAILABLE)));
+    final List<String> deadLetters = Collections.synchronizedList(new ArrayList<>());
+    final BulkWriteHandler handler =
+        new BulkWriteHandler(cluster, 100, Long.MAX_VALUE, 3, 1, (request, failure) -> deadLetters.add(request.id()));
+
+    final BulkResponse response = write(handler, buildRequest(0, 10)).get(10, TimeUnit.SECONDS);
+
+    assertEquals(cluster.getSentIds(), Arrays.asList(
+        Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7", "8", "9"), Arrays.asList("2", "7"),
+        Arrays.asList("2", "7"), Collections.singletonList("7")));
+    assertEquals(response.getItems().length, 10);
+    for (int i = 0; i < 10; i++) {
+      assertEquals(response.getItems()[i].getItemId(), i);
+      assertEquals(response.getItems()[i].getId(), String.valueOf(i));
+    }
+    final Set<String> failedIds = Arrays.stream(response.getItems())
+        .filter(BulkItemResponse::isFailed)
+        .map(BulkItemResponse::getId)
+        .collect(Collectors.toSet());
+    assertEquals(failedIds, ImmutableSet.of("5", "7"));
+    assertEquals(ImmutableSet.copyOf(deadLetters), ImmutableSet.of("5", "7"));
+    assertEquals(handler.getInFlightActions(), 0);
+    assertEquals(handler.getInFlightBytes(), 0);
+  }
+
+  @Test
+  public void testRetriesFailedRequests() throws Exception {
+    final StubCluster cluster = new StubCluster(0, Collections.emptyMap());
+    cluster.failNextRequests(2);
+    final List<String> deadLetters = Collections.synchronizedList(new ArrayList<>());
+    final BulkWriteHandler handler =
+        new BulkWriteHandler(cluster, 100, Long.MAX_VALUE, 3, 1, (request, failure) -> deadLetters.add(request.id()));
+
+    final BulkResponse response = write(handler, buildRequest(0, 5)).get(10, TimeUnit.SECONDS);
+
+    assertFalse(response.hasFailures());
+    assertEquals(cluster.getSentIds().size(), 3);
+    assertTrue(deadLetters.isEmpty());
+  }
+
+  @Test
+  public void testBlocksProducersAboveHighWaterMark() throws Exception {
+    final StubCluster cluster = new StubCluster(200, Collections.emptyMap());
+    final BulkWriteHandler handler = new BulkWriteHandler(cluster, 15, Long.MAX_VALUE, 3, 1);
+
+    final CompletableFuture<BulkResponse> first = write(handler, buildRequest(0, 10));
+    final CountDownLatch secondSubmitted = new CountDownLatch(1);
+    final CompletableFuture<CompletableFuture<BulkResponse>> second = CompletableFuture.supplyAsync(() -> {
+      CompletableFuture<BulkResponse> result = write(handler, buildRequest(10, 10));
+      secondSubmitted.countDown();
+      return result;
+    }, _clusterExecutor);
+
+    // The second producer waits for the first request to complete
+    assertFalse(secondSubmitted.await(100, TimeUnit.MILLISECONDS));
+    assertEquals(handler.getInFlightActions(), 10);
+    assertFalse(first.get(10, TimeUnit.SECONDS).hasFailures());
+    assertFalse(second.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS).hasFailures());
+    assertEquals(cluster.getSentIds().size(), 2);
+    assertEquals(handler.getInFlightActions(), 0);
+  }
+
+  private static CompletableFuture<BulkResponse> write(BulkWriteHandler handler, BulkRequest request) {
+    final CompletableFuture<BulkResponse> future = new CompletableFuture<>();
+    handler.accept(request, ActionListener.wrap(future::complete, future::completeExceptionally));
+    return future;
+  }
+
+  private static BulkRequest buildRequest(int firstId, int numActions) {
+    final BulkRequest request = new BulkRequest();
+    for (int i = firstId; i < firstId + numActions; i++) {
+      request.add(new IndexRequest(INDEX).id(String.valueOf(i)).source(ImmutableMap.of("field", i)));
+    }
+    return request;
+  }
+
+  /**
+   * Answers bulk requests asynchronously after a delay, failing the configured statuses of each document in turn.
+   */
+  private class StubCluster implements BiConsumer<BulkRequest, ActionListener<BulkResponse>> {
+    private final long _delayMillis;
+    private final Map<String, List<RestStatus>> _failures;
+    private final Map<String, Integer> _attempts = new HashMap<>();
+    private final List<List<String>> _sentIds = new ArrayList<>();
+    private int _requestFailures = 0;
+
+    StubCluster(long delayMillis, Map<String, List<RestStatus>> failures) {
+      _delayMillis = delayMillis;
+      _failures = failures;
+    }
+
+    synchronized void failNextRequests(int requestFailures) {
+      _requestFailures = requestFailures;
+    }
+
+    synchronized List<List<String>> getSentIds() {
+      return new ArrayList<>(_sentIds);
+    }
+
+    @Override
+    public void accept(BulkRequest request, ActionListener<BulkResponse> listener) {
+      final boolean failRequest;
+      final BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+      synchronized (this) {
+        _sentIds.add(request.requests().stream().map(DocWriteRequest::id).collect(Collectors.toList()));
+        failRequest = _requestFailures > 0;
+        _requestFailures--;
+        for (int i = 0; i < items.length; i++) {
+          items[i] = respond(i, request.requests().get(i));
+        }
+      }
+      _clusterExecutor.submit(() -> {
+        Thread.sleep(_delayMillis);
+        if (failRequest) {
+          listener.onFailure(new IOException("Connection reset"));
+        } else {
+          listener.onResponse(new BulkResponse(items, _delayMillis));
+        }
+        return null;
+      });
+    }
+
+    private BulkItemResponse respond(int itemId, DocWriteRequest<?> request) {
+      final int attempt = _attempts.merge(request.id(), 1, Integer::sum) - 1;
+      final List<RestStatus> failures = _failures.getOrDefault(request.id(), Collections.emptyList());
+      if (attempt < failures.size()) {
+        return new BulkItemResponse(itemId, request.opType(), new BulkItemResponse.Failure(INDEX, "_doc",
+            request.id(), new ElasticsearchStatusException("Injected failure", failures.get(attempt))));
+      }
+      return new BulkItemResponse(itemId, request.opType(),
+          new IndexResponse(new ShardId(INDEX, "_na_", 0), "_doc", request.id(), attempt, 1, 1, true));
+    }
+  }
+}
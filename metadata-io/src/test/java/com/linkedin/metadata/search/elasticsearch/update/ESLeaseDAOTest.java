@@ -0,0 +1,69 @@
+package com.linkedin.metadata.search.elasticsearch.update;
+
+import com.linkedin.metadata.ElasticTestUtils;
+import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.metadata.utils.elasticsearch.IndexConventionImpl;
+import java.util.concurrent.TimeUnit;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+
+public class ESLeaseDAOTest {
+  private static final long LEASE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+  private ElasticsearchContainer _elasticsearchContainer;
+  private RestHighLevelClient _searchClient;
+  private IndexConvention _indexConvention;
+
+  @BeforeClass
+  public void setup() {
+    _indexConvention = new IndexConventionImpl(null);
+    _elasticsearchContainer = ElasticTestUtils.getNewElasticsearchContainer();
+    checkContainerEngine(_elasticsearchContainer.getDockerClient());
+    _elasticsearchContainer.start();
+    _searchClient = ElasticTestUtils.buildRestClient(_elasticsearchContainer);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _elasticsearchContainer.stop();
+  }
+
+  @Test
+  public void testLeaseIsHeldByOneInstanceAtATime() {
+    final ESLeaseDAO instance1 = new ESLeaseDAO(_searchClient, _indexConvention);
+    final ESLeaseDAO instance2 = new ESLeaseDAO(_searchClient, _indexConvention);
+
+    assertTrue(instance1.tryAcquire("heldLease", LEASE_MILLIS));
+    assertFalse(instance2.tryAcquire("heldLease", LEASE_MILLIS));
+    // Renewed by its holder
+    assertTrue(instance1.tryAcquire("heldLease", LEASE_MILLIS));
+    // Other leases are independent
+    assertTrue(instance2.tryAcquire("otherLease", LEASE_MILLIS));
+
+    // Releasing is only possible for the holder
+    instance2.release("heldLease");
+    assertFalse(instance2.tryAcquire("heldLease", LEASE_MILLIS));
+    instance1.release("heldLease");
+    assertTrue(instance2.tryAcquire("heldLease", LEASE_MILLIS));
+    assertFalse(instance1.tryAcquire("heldLease", LEASE_MILLIS));
+  }
+
+  @Test
+  public void testExpiredLeaseCanBeTaken() throws Exception {
+    final ESLeaseDAO instance1 = new ESLeaseDAO(_searchClient, _indexConvention);
+    final ESLeaseDAO instance2 = new ESLeaseDAO(_searchClient, _indexConvention);
+
+    assertTrue(instance1.tryAcquire("expiringLease", 100));
+    Thread.sleep(200);
+    assertTrue(instance2.tryAcquire("expiringLease", LEASE_MILLIS));
+    assertFalse(instance1.tryAcquire("expiringLease", LEASE_MILLIS));
+  }
+}
@@ -1,5 +1,8 @@
 package com.linkedin.metadata.systemmetadata;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.linkedin.metadata.ElasticTestUtils;
 import com.linkedin.metadata.run.AspectRowSummary;
 import com.linkedin.metadata.run.IngestionRunSummary;
@@ -8,7 +11,23 @@ import com.linkedin.metadata.search.utils.ESUtils;
 import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
 import com.linkedin.metadata.utils.elasticsearch.IndexConventionImpl;
 import com.linkedin.mxe.SystemMetadata;
+import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.action.get.GetRequest;
+import org.elasticsearch.action.get.GetResponse;
+import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.query.QueryBuilders;
+import org.elasticsearch.search.SearchHit;
+import org.elasticsearch.search.aggregations.AggregationBuilders;
+import org.elasticsearch.search.aggregations.bucket.filter.ParsedFilter;
+import org.elasticsearch.search.aggregations.bucket.terms.ParsedStringTerms;
+import org.elasticsearch.search.aggregations.bucket.terms.Terms;
+import org.elasticsearch.search.aggregations.metrics.ParsedMax;
+import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -16,12 +35,21 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
 import static com.linkedin.metadata.ElasticSearchTestUtils.syncAfterWrite;
 import static com.linkedin.metadata.systemmetadata.ElasticSearchSystemMetadataService.INDEX_NAME;
+import static com.linkedin.metadata.systemmetadata.ElasticSearchSystemMetadataService.RUN_SUMMARY_INDEX_NAME;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class ElasticSearchSystemMetadataServiceTest {
@@ -58,6 +86,7 @@ public class ElasticSearchSystemMetadataServiceTest {
 
   @AfterClass
   public void tearDown() {
+    _client.close();
     _elasticsearchContainer.stop();
   }
 
@@ -78,6 +107,8 @@ public class ElasticSearchSystemMetadataServiceTest {
     _client.insert(metadata2, "urn:li:chart:2", "chartKey");
     _client.insert(metadata2, "urn:li:chart:2", "Ownership");
 
+    // The rows are added to the summaries of their runs without aggregating them
+    _client.flushRunSummaries();
     syncAfterWrite(_searchClient, _indexName);
 
     List<IngestionRunSummary> runs = _client.listRuns(0, 20, false);
@@ -107,7 +138,8 @@ public class ElasticSearchSystemMetadataServiceTest {
     _client.insert(metadata2, "urn:li:chart:2", "chartKey");
     _client.insert(metadata2, "urn:li:chart:2", "Ownership");
 
-    syncAfterWrite(_searchClient, _indexName);
+    // The run the rows were moved out of is aggregated again
+    syncRunSummaries();
 
     List<IngestionRunSummary> runs = _client.listRuns(0, 20, false);
 
@@ -116,6 +148,154 @@ public class ElasticSearchSystemMetadataServiceTest {
     assertEquals(runs.get(1).getRows(), Long.valueOf(1));
   }
 
+  @Test
+  public void testRunSummariesMatchAggregation() throws Exception {
+    SystemMetadata metadata1 = new SystemMetadata();
+    metadata1.setRunId("abc-123");
+    metadata1.setLastObserved(Long.valueOf(120L));
+
+    SystemMetadata metadata2 = new SystemMetadata();
+    metadata2.setRunId("abc-456");
+    metadata2.setLastObserved(Long.valueOf(240L));
+
+    _client.insert(metadata1, "urn:li:chart:1", "chartKey");
+    _client.insert(metadata1, "urn:li:chart:1", "ChartInfo");
+    _client.insert(metadata1, "urn:li:chart:1", "Ownership");
+    _client.insert(metadata1, "urn:li:chart:2", "chartKey");
+
+    _client.insert(metadata2, "urn:li:chart:1", "ChartInfo");
+    _client.insert(metadata2, "urn:li:chart:3", "chartKey");
+    _client.insert(metadata2, "urn:li:chart:3", "Ownership");
+
+    syncRunSummaries();
+    assertRunSummariesMatchAggregation();
+
+    // Rolling back soft deletes the rows of the run
+    _client.setDocStatus("urn:li:chart:1", true);
+    _client.setDocStatus("urn:li:chart:3", true);
+    waitForRows("urn:li:chart:1", false, 0);
+    waitForRows("urn:li:chart:3", false, 0);
+    syncRunSummaries();
+    assertRunSummariesMatchAggregation();
+    assertEquals(
+        _client.listRuns(0, 20, false).stream().map(IngestionRunSummary::getRunId).collect(Collectors.toList()),
+        ImmutableList.of("abc-123"));
+
+    _client.setDocStatus("urn:li:chart:1", false);
+    waitForRows("urn:li:chart:1", false, 3);
+    syncRunSummaries();
+    assertRunSummariesMatchAggregation();
+
+    // Writing a soft deleted row again moves it to the new run
+    _client.insert(metadata1, "urn:li:chart:3", "Ownership");
+    _client.deleteAspect("urn:li:chart:1", "Ownership");
+    syncRunSummaries();
+    assertRunSummariesMatchAggregation();
+
+    // Deleted rows are removed from the summaries of their runs without aggregating them
+    _client.deleteUrn("urn:li:chart:3");
+    _client.deleteUrn("urn:li:chart:1");
+    _client.flushRunSummaries();
+    syncAfterWrite(_searchClient, _indexName);
+    assertRunSummariesMatchAggregation();
+    assertEquals(_client.listRuns(0, 20, true).size(), 1);
+  }
+
+  @Test
+  public void testRebuildRunSummaries() throws Exception {
+    // Rows written before the run summaries existed, and the summary of a run whose rows are all gone
+    final BulkRequest bulkRequest = new BulkRequest();
+    for (int i = 0; i < 5; i++) {
+      bulkRequest.add(new IndexRequest(_indexName).id("doc" + i)
+          .source(String.format("{\"urn\":\"urn:li:chart:%d\",\"aspect\":\"chartKey\",\"runId\":\"abc-%d\","
+              + "\"lastUpdated\":%d,\"removed\":%b}", i, i % 2, 100 + i, i == 4), XContentType.JSON));
+    }
+    bulkRequest.add(new IndexRequest(_indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME)).id("abc-2")
+        .source("{\"runId\":\"abc-2\",\"rows\":3,\"removedRows\":0,\"activeRows\":3,\"lastTimestamp\":100}",
+            XContentType.JSON));
+    final BulkResponse bulkResponse = _searchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+    assertFalse(bulkResponse.hasFailures(), bulkResponse.buildFailureMessage());
+    syncAfterWrite(_searchClient, _indexName);
+
+    _client.rebuildRunSummaries();
+
+    assertRunSummariesMatchAggregation();
+    assertEquals(_client.listRuns(0, 20, true).stream().map(IngestionRunSummary::getRunId).collect(Collectors.toList()),
+        ImmutableList.of("abc-0", "abc-1"));
+  }
+
+  @Test
+  public void testRunSummariesChangedSinceReadAreNotReplaced() throws Exception {
+    final SystemMetadata metadata1 = new SystemMetadata().setRunId("abc-123").setLastObserved(120L);
+    final SystemMetadata metadata2 = new SystemMetadata().setRunId("abc-456").setLastObserved(240L);
+    final ESSystemMetadataDAO dao = new ESSystemMetadataDAO(_searchClient, _indexConvention,
+        ElasticSearchServiceTest.getBulkProcessor(_searchClient));
+    _client.insert(metadata1, "urn:li:chart:1", "chartKey");
+    _client.flushRunSummaries();
+    syncAfterWrite(_searchClient, _indexName);
+    final Map<String, SearchHit> current =
+        Arrays.stream(dao.findRunSummariesByRunIds(ImmutableList.of("abc-123", "abc-456")).getHits().getHits())
+            .collect(Collectors.toMap(SearchHit::getId, hit -> hit));
+    assertEquals(current.keySet(), ImmutableSet.of("abc-123"));
+
+    // Rows added by another instance in the meantime
+    _client.insert(metadata1, "urn:li:chart:2", "chartKey");
+    _client.insert(metadata2, "urn:li:chart:3", "chartKey");
+    _client.flushRunSummaries();
+    syncAfterWrite(_searchClient, _indexName);
+
+    final Map<String, Map<String, Object>> staleSummaries = ImmutableMap.of(
+        "abc-123", ImmutableMap.<String, Object>of("runId", "abc-123", "rows", 1, "removedRows", 0, "activeRows", 1),
+        "abc-456", ImmutableMap.<String, Object>of("runId", "abc-456", "rows", 0, "removedRows", 0, "activeRows", 0));
+    assertEquals(dao.replaceRunSummaries(staleSummaries, current, Collections.emptyList()), 2);
+    assertEquals(dao.replaceRunSummaries(Collections.emptyMap(), current, ImmutableList.of("abc-123")), 1);
+    syncAfterWrite(_searchClient, _indexName);
+
+    assertRunSummariesMatchAggregation();
+  }
+
+  // Sends the rows added to the run summaries, then aggregates again the runs changed in the meantime
+  private void syncRunSummaries() throws Exception {
+    _client.flushRunSummaries();
+    syncAfterWrite(_searchClient, _indexName);
+    _client.reconcileRecentRunSummaries();
+    syncAfterWrite(_searchClient, _indexName);
+  }
+
+  // Compares the run summaries to the runs computed by aggregating all the rows
+  private void assertRunSummariesMatchAggregation() throws Exception {
+    final SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder().size(0)
+        .aggregation(AggregationBuilders.terms("runId")
+            .field("runId")
+            .size(ESUtils.MAX_RESULT_SIZE)
+            .subAggregation(AggregationBuilders.max("maxTimestamp").field("lastUpdated"))
+            .subAggregation(AggregationBuilders.filter("removed", QueryBuilders.termQuery("removed", "true"))));
+    final List<? extends Terms.Bucket> buckets = ((ParsedStringTerms) _searchClient.search(
+        new SearchRequest(_indexName).source(searchSourceBuilder), RequestOptions.DEFAULT)
+        .getAggregations()
+        .get("runId")).getBuckets();
+
+    final Map<String, IngestionRunSummary> runs = _client.listRuns(0, 20, true)
+        .stream()
+        .collect(Collectors.toMap(IngestionRunSummary::getRunId, run -> run));
+    final List<String> activeRunIds =
+        _client.listRuns(0, 20, false).stream().map(IngestionRunSummary::getRunId).collect(Collectors.toList());
+    assertEquals(runs.size(), buckets.size());
+    for (Terms.Bucket bucket : buckets) {
+      final IngestionRunSummary run = runs.get(bucket.getKeyAsString());
+      final long removedRows = ((ParsedFilter) bucket.getAggregations().get("removed")).getDocCount();
+      assertEquals(run.getRows().longValue(), bucket.getDocCount());
+      assertEquals(run.getTimestamp().longValue(),
+          (long) ((ParsedMax) bucket.getAggregations().get("maxTimestamp")).getValue());
+      assertEquals(activeRunIds.contains(run.getRunId()), removedRows < bucket.getDocCount());
+
+      final GetResponse summary = _searchClient.get(
+          new GetRequest(_indexConvention.getIndexName(RUN_SUMMARY_INDEX_NAME), run.getRunId()),
+          RequestOptions.DEFAULT);
+      assertEquals(((Number) summary.getSourceAsMap().get("removedRows")).longValue(), removedRows);
+    }
+  }
+
   @Test
   public void testFindByRunId() throws Exception {
     SystemMetadata metadata1 = new SystemMetadata();
@@ -144,6 +324,45 @@ public class ElasticSearchSystemMetadataServiceTest {
     rows.forEach(row -> assertEquals(row.getRunId(), "abc-456"));
   }
 
+  @Test
+  public void testScrollByRunId() throws Exception {
+    SystemMetadata metadata1 = new SystemMetadata();
+    metadata1.setRunId("abc-123");
+    metadata1.setLastObserved(Long.valueOf(120L));
+
+    SystemMetadata metadata2 = new SystemMetadata();
+    metadata2.setRunId("abc-456");
+    metadata2.setLastObserved(Long.valueOf(240L));
+
+    for (int i = 0; i < 5; i++) {
+      _client.insert(metadata1, "urn:li:chart:" + i, "chartKey");
+      _client.insert(metadata1, "urn:li:chart:" + i, "ChartInfo");
+    }
+    _client.insert(metadata2, "urn:li:chart:5", "chartKey");
+
+    syncAfterWrite(_searchClient, _indexName);
+
+    List<AspectRowSummary> rows = new ArrayList<>();
+    AspectRowSummary lastRow = null;
+    List<AspectRowSummary> page;
+    do {
+      page = _client.scrollByRunId("abc-123", false, lastRow, 3);
+      rows.addAll(page);
+      lastRow = page.isEmpty() ? null : page.get(page.size() - 1);
+    } while (page.size() == 3);
+
+    assertEquals(rows.size(), 10);
+    rows.forEach(row -> assertEquals(row.getRunId(), "abc-123"));
+    assertEquals(rows.get(0).getUrn(), "urn:li:chart:0");
+    assertEquals(rows.get(0).getAspectName(), "ChartInfo");
+    assertEquals(rows.get(1).getAspectName(), "chartKey");
+    assertEquals(rows.get(9).getUrn(), "urn:li:chart:4");
+
+    List<AspectRowSummary> urnRows =
+        _client.scrollByUrns(ImmutableList.of("urn:li:chart:1", "urn:li:chart:5"), false, null, 10);
+    assertEquals(urnRows.size(), 3);
+  }
+
   @Test
   public void testDelete() throws Exception {
     SystemMetadata metadata1 = new SystemMetadata();
@@ -176,6 +395,80 @@ public class ElasticSearchSystemMetadataServiceTest {
     rows.forEach(row -> assertEquals(row.getRunId(), "abc-456"));
   }
 
+  @Test
+  public void testSetDocStatusForUrnWithManyAspects() throws Exception {
+    // More aspects than a single search can return
+    final int numAspects = ESUtils.MAX_RESULT_SIZE + 500;
+    final String urn = "urn:li:chart:1";
+    final BulkRequest bulkRequest = new BulkRequest();
+    for (int i = 0; i < numAspects; i++) {
+      bulkRequest.add(new IndexRequest(_indexName).id("doc" + i)
+          .source(String.format("{\"urn\":\"%s\",\"aspect\":\"aspect%d\",\"runId\":\"abc-123\","
+              + "\"lastUpdated\":120,\"removed\":false}", urn, i), XContentType.JSON));
+    }
+    final BulkResponse bulkResponse = _searchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
+    assertFalse(bulkResponse.hasFailures(), bulkResponse.buildFailureMessage());
+    _client.insert(new SystemMetadata().setRunId("abc-456").setLastObserved(240L), "urn:li:chart:2", "chartKey");
+    syncAfterWrite(_searchClient, _indexName);
+
+    _client.setDocStatus(urn, true);
+    waitForRows(urn, false, 0);
+
+    assertEquals(countRows(urn, true), numAspects);
+    assertEquals(countRows("urn:li:chart:2", false), 1);
+
+    _client.setDocStatus(urn, false);
+    waitForRows(urn, false, numAspects);
+  }
+
+  @Test
+  public void testSetDocStatusRightAfterInsert() throws Exception {
+    final SystemMetadata metadata = new SystemMetadata().setRunId("abc-123").setLastObserved(120L);
+    final String urn = "urn:li:chart:1";
+    _client.insert(metadata, urn, "chartKey");
+    _client.insert(metadata, urn, "ChartInfo");
+    syncAfterWrite(_searchClient, _indexName);
+
+    // As when the status aspect is ingested: its row is written and the rows of the urn are soft deleted right away
+    _client.insert(metadata, urn, "status");
+    _client.setDocStatus(urn, true);
+    waitForRows(urn, false, 0);
+
+    assertEquals(countRows(urn, true), 3);
+  }
+
+  @Test
+  public void testSetDocStatusOfUrnWithoutRows() throws Exception {
+    // The row of the status aspect is not created when there is none
+    _client.setDocStatus("urn:li:chart:1", true);
+    syncAfterWrite(_searchClient, _indexName);
+
+    assertEquals(countRows("urn:li:chart:1", true), 0);
+  }
+
+  // Waits for the status updates running in the background to leave the given number of rows to the urn
+  private void waitForRows(String urn, boolean includeSoftDeleted, int expectedRows) throws Exception {
+    final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+    syncAfterWrite(_searchClient, _indexName);
+    while (countRows(urn, includeSoftDeleted) != expectedRows) {
+      assertTrue(System.currentTimeMillis() < deadline, "The rows of " + urn + " were not updated");
+      Thread.sleep(100);
+      syncAfterWrite(_searchClient, _indexName);
+    }
+  }
+
+  private int countRows(String urn, boolean includeSoftDeleted) {
+    int numRows = 0;
+    AspectRowSummary lastRow = null;
+    List<AspectRowSummary> page;
+    do {
+      page = _client.scrollByUrns(ImmutableList.of(urn), includeSoftDeleted, lastRow, 5000);
+      numRows += page.size();
+      lastRow = page.isEmpty() ? null : page.get(page.size() - 1);
+    } while (!page.isEmpty());
+    return numRows;
+  }
+
   @Test
   public void testInsertNullData() throws Exception {
     _client.insert(null, "urn:li:chart:1", "chartKey");
@@ -0,0 +1,715 @@
+package com.linkedin.metadata.timeline.differ;
+
+import com.google.common.collect.ImmutableList;
+import com.linkedin.common.AuditStamp;
+import com.linkedin.common.FabricType;
+import com.linkedin.common.GlobalTags;
+import com.linkedin.common.TagAssociation;
+import com.linkedin.common.TagAssociationArray;
+import com.linkedin.common.urn.DataPlatformUrn;
+import com.linkedin.common.urn.DatasetUrn;
+import com.linkedin.common.urn.TagUrn;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.common.urn.UrnUtils;
+import com.linkedin.metadata.timeline.data.ChangeCategory;
+import com.linkedin.metadata.timeline.data.ChangeEvent;
+import com.linkedin.metadata.timeline.data.ChangeOperation;
+import com.linkedin.metadata.timeline.data.SemanticChangeType;
+import com.linkedin.metadata.timeline.data.dataset.DatasetSchemaFieldChangeEvent;
+import com.linkedin.schema.MySqlDDL;
+import com.linkedin.schema.SchemaField;
+import com.linkedin.schema.SchemaFieldArray;
+import com.linkedin.schema.SchemaFieldDataType;
+import com.linkedin.schema.SchemaMetadata;
+import com.linkedin.schema.StringType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.apache.commons.lang.StringUtils;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.timeline.differ.DifferUtils.convertEntityGlossaryTermChangeEvents;
+import static com.linkedin.metadata.timeline.differ.DifferUtils.convertEntityTagChangeEvents;
+import static com.linkedin.metadata.timeline.differ.DifferUtils.getFieldPathV1;
+import static com.linkedin.metadata.timeline.differ.DifferUtils.getSchemaFieldUrn;
+import static org.testng.Assert.assertEquals;
+
+
+public class SchemaMetadataDifferTest {
+  private static final Urn DATASET_URN = UrnUtils.getUrn("urn:li:dataset:(urn:li:dataPlatform:hive,testDataset,PROD)");
+  private static final AuditStamp AUDIT_STAMP =
+      new AuditStamp().setActor(UrnUtils.getUrn("urn:li:corpuser:test")).setTime(0L);
+  private static final String[] PATH_SEGMENTS = {"a", "b", "c", "d", "e"};
+  private static final String[] NATIVE_TYPES = {"int", "string"};
+  private static final String[] DESCRIPTIONS = {null, "", " ", "id", "name", "email"};
+  private static final int NUM_RANDOM_DIFFS = 1000;
+  private static final int NUM_LARGE_SCHEMA_FIELDS = 6000;
+
+  private final SchemaMetadataDiffer _differ = new SchemaMetadataDiffer();
+
+  @Test
+  public void testTechnicalSchemaChangeEvents() throws Exception {
+    final SchemaField email = buildField("record.email", "string", null);
+    final SchemaField id = buildField("record.id", "int", "id");
+    final SchemaField zip = buildField("record.zip", "int", "zip code");
+    final SchemaField identifier = buildField("record.identifier", "int", "id");
+    final SchemaField phone = buildField("record.phone", "string", "phone");
+    final SchemaField stringZip = buildField("record.zip", "string", "zip code");
+
+    final List<ChangeEvent> changeEvents = getTechnicalSchemaChangeEvents(buildSchema(ImmutableList.of(email, id, zip)),
+        buildSchema(ImmutableList.of(stringZip, phone, identifier)));
+
+    assertEquals(changeEvents, ImmutableList.of(
+        buildEvent(email, ChangeOperation.REMOVE, SemanticChangeType.MAJOR,
+            "A backwards incompatible change due to removal of field: 'record.email'."),
+        buildEvent(id, ChangeOperation.MODIFY, SemanticChangeType.MINOR,
+            "A forwards & backwards compatible change due to renaming of the field 'record.id to record.identifier'."),
+        buildEvent(phone, ChangeOperation.ADD, SemanticChangeType.MINOR,
+            "A forwards & backwards compatible change due to the newly added field 'record.phone'."),
+        buildEvent(zip, ChangeOperation.MODIFY, SemanticChangeType.MAJOR,
+            "A backwards incompatible change due to native datatype of the field 'record.zip' changed from 'int' "
+                + "to 'string'.")));
+  }
+
+  @Test
+  public void testRenamedFieldIsOnlyMatchedOnce() throws Exception {
+    // Both base fields could have been renamed to either target field
+    final SchemaField x = buildField("record.x", "int", "duplicated");
+    final SchemaField y = buildField("record.y", "int", "duplicated");
+    final SchemaField z1 = buildField("record.z1", "int", "duplicated");
+    final SchemaField z2 = buildField("record.z2", "int", "duplicated");
+
+    final List<ChangeEvent> changeEvents = getTechnicalSchemaChangeEvents(buildSchema(ImmutableList.of(x, y)),
+        buildSchema(ImmutableList.of(z1, z2)));
+
+    assertEquals(changeEvents, ImmutableList.of(
+        buildEvent(x, ChangeOperation.MODIFY, SemanticChangeType.MINOR,
+            "A forwards & backwards compatible change due to renaming of the field 'record.x to record.z1'."),
+        buildEvent(y, ChangeOperation.MODIFY, SemanticChangeType.MINOR,
+            "A forwards & backwards compatible change due to renaming of the field 'record.y to record.z2'.")));
+  }
+
+  @Test
+  public void testLargeSchemaChangeEvents() throws Exception {
+    // One field in ten is renamed, dropped or replaced by a new field
+    final List<SchemaField> baseFields = new ArrayList<>();
+    final List<SchemaField> targetFields = new ArrayList<>();
+    final List<ChangeEvent> expectedAddEvents = new ArrayList<>();
+    final List<ChangeEvent> expectedOtherEvents = new ArrayList<>();
+    for (int i = 0; i < NUM_LARGE_SCHEMA_FIELDS; i++) {
+      final String fieldPath = String.format("record.column%05d", i);
+      final SchemaField field = buildField(fieldPath, "int", "Description of column " + i);
+      baseFields.add(field);
+      if (i % 30 == 0) {
+        final String renamedFieldPath = String.format("record.renamed%05d", i);
+        targetFields.add(new SchemaField(field.data().copy()).setFieldPath(renamedFieldPath));
+        expectedOtherEvents.add(buildEvent(field, ChangeOperation.MODIFY, SemanticChangeType.MINOR,
+            "A forwards & backwards compatible change due to renaming of the field '" + fieldPath + " to "
+                + renamedFieldPath + "'."));
+      } else if (i % 30 == 10) {
+        final SchemaField addedField = buildField(String.format("record.added%05d", i), "int", "New column " + i);
+        targetFields.add(addedField);
+        expectedAddEvents.add(buildEvent(addedField, ChangeOperation.ADD, SemanticChangeType.MINOR,
+            "A forwards & backwards compatible change due to the newly added field '" + addedField.getFieldPath()
+                + "'."));
+        expectedOtherEvents.add(buildEvent(field, ChangeOperation.REMOVE, SemanticChangeType.MAJOR,
+            "A backwards incompatible change due to removal of field: '" + fieldPath + "'."));
+      } else if (i % 30 == 20) {
+        expectedOtherEvents.add(buildEvent(field, ChangeOperation.REMOVE, SemanticChangeType.MAJOR,
+            "A backwards incompatible change due to removal of field: '" + fieldPath + "'."));
+      } else {
+        targetFields.add(new SchemaField(field.data().copy()));
+      }
+    }
+
+    final List<ChangeEvent> changeEvents =
+        getTechnicalSchemaChangeEvents(buildSchema(baseFields), buildSchema(targetFields));
+
+    // The added fields sort before the base fields, the renamed ones after them
+    final List<ChangeEvent> expectedEvents = new ArrayList<>(expectedAddEvents);
+    expectedEvents.addAll(expectedOtherEvents);
+    assertEquals(changeEvents, expectedEvents);
+  }
+
+  @Test
+  public void testMatchesLegacyDiffOnRandomSchemas() throws Exception {
+    final Random random = new Random(42);
+    for (int i = 0; i < NUM_RANDOM_DIFFS; i++) {
+      final List<SchemaField> baseFields = new ArrayList<>();
+      final int numFields = random.nextInt(20);
+      for (int j = 0; j < numFields; j++) {
+        baseFields.add(buildRandomField(random));
+      }
+      final List<SchemaField> targetFields = new ArrayList<>();
+      for (SchemaField baseField : baseFields) {
+        mutateField(random, baseField, targetFields);
+      }
+      final int numAddedFields = random.nextInt(4);
+      for (int j = 0; j < numAddedFields; j++) {
+        targetFields.add(buildRandomField(random));
+      }
+
+      assertDiffsMatch(buildSchema(baseFields), buildSchema(targetFields));
+    }
+  }
+
+  @Test
+  public void testMatchesLegacyDiffOnLargeSchema() throws Exception {
+    // One field in ten is renamed, dropped or replaced by a new field, with both native types and tags
+    final Random random = new Random(42);
+    final List<SchemaField> baseFields = new ArrayList<>();
+    final List<SchemaField> targetFields = new ArrayList<>();
+    for (int i = 0; i < NUM_LARGE_SCHEMA_FIELDS; i++) {
+      final SchemaField field = buildField(String.format("record.column%05d", i), NATIVE_TYPES[i % 2],
+          "Description of column " + i);
+      field.setGlobalTags(buildGlobalTags(random));
+      baseFields.add(field);
+      if (i % 30 == 0) {
+        targetFields.add(new SchemaField(field.data().copy()).setFieldPath(String.format("record.renamed%05d", i)));
+      } else if (i % 30 == 10) {
+        targetFields.add(buildField(String.format("record.added%05d", i), NATIVE_TYPES[i % 2], "New column " + i));
+      } else if (i % 30 != 20) {
+        targetFields.add(new SchemaField(field.data().copy()));
+      }
+    }
+
+    assertDiffsMatch(buildSchema(baseFields), buildSchema(targetFields));
+  }
+
+  private void assertDiffsMatch(SchemaMetadata baseSchema, SchemaMetadata targetSchema) {
+    assertEquals(getChangeEvents(baseSchema.copy(), targetSchema.copy()),
+        LegacySchemaMetadataDiffer.getChangeEvents(DATASET_URN, baseSchema.copy(), targetSchema.copy(), AUDIT_STAMP),
+        String.format("Diff of %s and %s", baseSchema.getFields(), targetSchema.getFields()));
+  }
+
+  private List<ChangeEvent> getChangeEvents(SchemaMetadata baseSchema, SchemaMetadata targetSchema) {
+    return _differ.getChangeEvents(DATASET_URN, "dataset", "schemaMetadata", new Aspect<>(baseSchema, null),
+        new Aspect<>(targetSchema, null), AUDIT_STAMP);
+  }
+
+  private List<ChangeEvent> getTechnicalSchemaChangeEvents(SchemaMetadata baseSchema, SchemaMetadata targetSchema) {
+    return getChangeEvents(baseSchema, targetSchema)
+        .stream()
+        .filter(changeEvent -> changeEvent.getCategory() == ChangeCategory.TECHNICAL_SCHEMA)
+        .collect(Collectors.toList());
+  }
+
+  private static ChangeEvent buildEvent(SchemaField field, ChangeOperation operation, SemanticChangeType semVerChange,
+      String description) {
+    return DatasetSchemaFieldChangeEvent.schemaFieldChangeEventBuilder()
+        .category(ChangeCategory.TECHNICAL_SCHEMA)
+        .modifier(getSchemaFieldUrn(DATASET_URN, field).toString())
+        .entityUrn(DATASET_URN.toString())
+        .operation(operation)
+        .semVerChange(semVerChange)
+        .description(description)
+        .fieldPath(field.getFieldPath())
+        .fieldUrn(getSchemaFieldUrn(DATASET_URN, field))
+        .nullable(field.isNullable())
+        .auditStamp(AUDIT_STAMP)
+        .build();
+  }
+
+  /**
+   * Copies the field to the target fields as is, with a new path, type, description or tags, twice, or not at all.
+   */
+  private static void mutateField(Random random, SchemaField baseField, List<SchemaField> targetFields) {
+    final SchemaField targetField = new SchemaField(baseField.data().copy());
+    switch (random.nextInt(8)) {
+      case 0:
+        return;
+      case 1:
+        targetField.setFieldPath(buildRandomPath(random));
+        break;
+      case 2:
+        targetField.setFieldPath(getParentPath(baseField.getFieldPath()) + random.nextInt(3));
+        break;
+      case 3:
+        targetField.setNativeDataType(NATIVE_TYPES[random.nextInt(NATIVE_TYPES.length)]);
+        break;
+      case 4:
+        setDescription(targetField, DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+        break;
+      case 5:
+        targetField.setGlobalTags(buildGlobalTags(random));
+        break;
+      case 6:
+        targetFields.add(new SchemaField(baseField.data().copy()));
+        break;
+      default:
+        break;
+    }
+    targetFields.add(targetField);
+  }
+
+  private static SchemaField buildRandomField(Random random) {
+    final SchemaField field = buildField(buildRandomPath(random), NATIVE_TYPES[random.nextInt(NATIVE_TYPES.length)],
+        DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)]);
+    field.setNullable(random.nextBoolean());
+    if (random.nextBoolean()) {
+      field.setGlobalTags(buildGlobalTags(random));
+    }
+    return field;
+  }
+
+  private static String buildRandomPath(Random random) {
+    final int depth = 1 + random.nextInt(3);
+    final List<String> segments = new ArrayList<>();
+    for (int i = 0; i < depth; i++) {
+      segments.add(PATH_SEGMENTS[random.nextInt(PATH_SEGMENTS.length)]);
+    }
+    return String.join(".", segments);
+  }
+
+  private static String getParentPath(String fieldPath) {
+    return fieldPath.substring(0, fieldPath.lastIndexOf(".") + 1);
+  }
+
+  private static GlobalTags buildGlobalTags(Random random) {
+    final TagAssociationArray tags = new TagAssociationArray();
+    tags.add(new TagAssociation().setTag(new TagUrn("tag" + random.nextInt(3))));
+    return new GlobalTags().setTags(tags);
+  }
+
+  private static void setDescription(SchemaField field, String description) {
+    if (description == null) {
+      field.removeDescription();
+    } else {
+      field.setDescription(description);
+    }
+  }
+
+  private static SchemaField buildField(String fieldPath, String nativeDataType, String description) {
+    final SchemaField field = new SchemaField().setFieldPath(fieldPath)
+        .setType(new SchemaFieldDataType().setType(SchemaFieldDataType.Type.create(new StringType())))
+        .setNativeDataType(nativeDataType)
+        .setNullable(false);
+    if (description != null) {
+      field.setDescription(description);
+    }
+    return field;
+  }
+
+  private static SchemaMetadata buildSchema(List<SchemaField> fields) throws Exception {
+    return new SchemaMetadata().setSchemaName("testSchema")
+        .setPlatformSchema(SchemaMetadata.PlatformSchema.create(new MySqlDDL().setTableSchema("foo")))
+        .setPlatform(new DataPlatformUrn("hive"))
+        .setHash("")
+        .setVersion(0L)
+        .setDataset(new DatasetUrn(new DataPlatformUrn("hive"), "testDataset", FabricType.PROD))
+        .setFields(new SchemaFieldArray(fields));
+  }
+
+  /**
+   * {@link SchemaMetadataDiffer} as it was before fields were matched through indices, kept as the reference of the
+   * expected change events.
+   */
+  private static final class LegacySchemaMetadataDiffer {
+    private static final String BACKWARDS_INCOMPATIBLE_DESC = "A backwards incompatible change due to";
+    private static final String BACK_AND_FORWARD_COMPATIBLE_DESC = "A forwards & backwards compatible change due to ";
+    private static final String FIELD_DESCRIPTION_ADDED_FORMAT =
+        "The description '%s' for the field '%s' has been added.";
+    private static final String FIELD_DESCRIPTION_REMOVED_FORMAT =
+        "The description '%s' for the field '%s' has been removed.";
+    private static final String FIELD_DESCRIPTION_MODIFIED_FORMAT =
+        "The description for the field '%s' has been changed from '%s' to '%s'.";
+
+    private static ChangeEvent getDescriptionChange(SchemaField baseField, SchemaField targetField,
+        String datasetFieldUrn, AuditStamp auditStamp) {
+      String baseDesciption = (baseField != null) ? baseField.getDescription() : null;
+      String targetDescription = (targetField != null) ? targetField.getDescription() : null;
+      if (baseDesciption == null && targetDescription != null) {
+        // Description got added.
+        return ChangeEvent.builder()
+            .operation(ChangeOperation.ADD)
+            .semVerChange(SemanticChangeType.MINOR)
+            .category(ChangeCategory.DOCUMENTATION)
+            .entityUrn(datasetFieldUrn)
+            .description(String.format(FIELD_DESCRIPTION_ADDED_FORMAT, targetDescription, targetField.getFieldPath()))
+            .auditStamp(auditStamp)
+            .build();
+      }
+      if (baseDesciption != null && targetDescription == null) {
+        // Description removed.
+        return ChangeEvent.builder()
+            .operation(ChangeOperation.REMOVE)
+            .semVerChange(SemanticChangeType.MINOR)
+            .category(ChangeCategory.DOCUMENTATION)
+            .entityUrn(datasetFieldUrn)
+            .description(String.format(FIELD_DESCRIPTION_REMOVED_FORMAT, baseDesciption, baseField.getFieldPath()))
+            .auditStamp(auditStamp)
+            .build();
+      }
+      if (baseDesciption != null && !baseDesciption.equals(targetDescription)) {
+        // Description Change
+        return ChangeEvent.builder()
+            .operation(ChangeOperation.MODIFY)
+            .semVerChange(SemanticChangeType.PATCH)
+            .category(ChangeCategory.DOCUMENTATION)
+            .entityUrn(datasetFieldUrn)
+            .description(String.format(FIELD_DESCRIPTION_MODIFIED_FORMAT, baseField.getFieldPath(), baseDesciption,
+                targetDescription))
+            .auditStamp(auditStamp)
+            .build();
+      }
+      return null;
+    }
+
+    private static List<ChangeEvent> getGlobalTagChangeEvents(SchemaField baseField, SchemaField targetField,
+        String parentUrn,
+        String datasetFieldUrn,
+        AuditStamp auditStamp) {
+
+      // 1. Get EntityTagChangeEvent, then rebind into a SchemaFieldTagChangeEvent.
+      List<ChangeEvent> entityTagChangeEvents = GlobalTagsDiffer.computeDiffs(
+          baseField != null ? baseField.getGlobalTags() : null,
+          targetField != null ? targetField.getGlobalTags() : null, datasetFieldUrn, auditStamp);
+
+      if (baseField != null || targetField != null) {
+        String fieldPath = targetField != null ? targetField.getFieldPath() : baseField.getFieldPath();
+        // 2. Convert EntityTagChangeEvent into a SchemaFieldTagChangeEvent.
+        return convertEntityTagChangeEvents(
+            fieldPath,
+            UrnUtils.getUrn(parentUrn),
+            entityTagChangeEvents);
+      }
+
+      return Collections.emptyList();
+    }
+
+    private static List<ChangeEvent> getGlossaryTermsChangeEvents(SchemaField baseField, SchemaField targetField,
+        String parentUrn,
+        String datasetFieldUrn,
+        AuditStamp auditStamp) {
+
+      // 1. Get EntityGlossaryTermChangeEvent, then rebind into a SchemaFieldGlossaryTermChangeEvent.
+      List<ChangeEvent> entityGlossaryTermsChangeEvents = GlossaryTermsDiffer.computeDiffs(
+          baseField != null ? baseField.getGlossaryTerms() : null,
+          targetField != null ? targetField.getGlossaryTerms() : null, datasetFieldUrn, auditStamp);
+
+      if (targetField != null || baseField != null) {
+        String fieldPath = targetField != null ? targetField.getFieldPath() : baseField.getFieldPath();
+        // 2. Convert EntityGlossaryTermChangeEvent into a SchemaFieldGlossaryTermChangeEvent.
+        return convertEntityGlossaryTermChangeEvents(
+            fieldPath,
+            UrnUtils.getUrn(parentUrn),
+            entityGlossaryTermsChangeEvents);
+      }
+
+      return Collections.emptyList();
+    }
+
+    private static List<ChangeEvent> getFieldPropertyChangeEvents(SchemaField baseField, SchemaField targetField,
+        Urn datasetUrn, ChangeCategory changeCategory, AuditStamp auditStamp) {
+      List<ChangeEvent> propChangeEvents = new ArrayList<>();
+      String datasetFieldUrn;
+      if (targetField != null) {
+        datasetFieldUrn = getSchemaFieldUrn(datasetUrn, targetField).toString();
+      } else {
+        datasetFieldUrn = getSchemaFieldUrn(datasetUrn, baseField).toString();
+      }
+
+      // Description Change.
+      if (ChangeCategory.DOCUMENTATION.equals(changeCategory)) {
+        ChangeEvent descriptionChangeEvent = getDescriptionChange(baseField, targetField, datasetFieldUrn, auditStamp);
+        if (descriptionChangeEvent != null) {
+          propChangeEvents.add(descriptionChangeEvent);
+        }
+      }
+
+      // Global Tags
+      if (ChangeCategory.TAG.equals(changeCategory)) {
+        propChangeEvents.addAll(
+            getGlobalTagChangeEvents(baseField, targetField, datasetUrn.toString(), datasetFieldUrn, auditStamp));
+      }
+
+      // Glossary terms.
+      if (ChangeCategory.GLOSSARY_TERM.equals(changeCategory)) {
+        propChangeEvents.addAll(
+            getGlossaryTermsChangeEvents(baseField, targetField, datasetUrn.toString(), datasetFieldUrn, auditStamp));
+      }
+
+      return propChangeEvents;
+    }
+
+    private static List<ChangeEvent> computeDiffs(SchemaMetadata baseSchema, SchemaMetadata targetSchema,
+        Urn datasetUrn, ChangeCategory changeCategory, AuditStamp auditStamp) {
+      // Sort the fields by their field path.
+      if (baseSchema != null) {
+        sortFieldsByPath(baseSchema);
+      }
+      sortFieldsByPath(targetSchema);
+
+      // Performs ordinal based diff, primarily based on fixed field ordinals and their types.
+      SchemaFieldArray baseFields = (baseSchema != null ? baseSchema.getFields() : new SchemaFieldArray());
+      SchemaFieldArray targetFields = targetSchema.getFields();
+      int baseFieldIdx = 0;
+      int targetFieldIdx = 0;
+      List<ChangeEvent> changeEvents = new ArrayList<>();
+      Set<SchemaField> renamedFields = new HashSet<>();
+      while (baseFieldIdx < baseFields.size() && targetFieldIdx < targetFields.size()) {
+        SchemaField curBaseField = baseFields.get(baseFieldIdx);
+        SchemaField curTargetField = targetFields.get(targetFieldIdx);
+        //TODO: Re-evaluate ordinal processing?
+        int comparison = curBaseField.getFieldPath().compareTo(curTargetField.getFieldPath());
+        if (renamedFields.contains(curBaseField)) {
+          baseFieldIdx++;
+        } else if (renamedFields.contains(curTargetField)) {
+          targetFieldIdx++;
+        } else if (comparison == 0) {
+          // This is the same field. Check for change events from property changes.
+          if (!curBaseField.getNativeDataType().equals(curTargetField.getNativeDataType())) {
+            // Non-backward compatible change + Major version bump
+            if (ChangeCategory.TECHNICAL_SCHEMA.equals(changeCategory)) {
+              changeEvents.add(DatasetSchemaFieldChangeEvent.schemaFieldChangeEventBuilder()
+                  .category(ChangeCategory.TECHNICAL_SCHEMA)
+                  .modifier(getSchemaFieldUrn(datasetUrn, curBaseField).toString())
+                  .entityUrn(datasetUrn.toString())
+                  .operation(ChangeOperation.MODIFY)
+                  .semVerChange(SemanticChangeType.MAJOR)
+                  .description(String.format("%s native datatype of the field '%s' changed from '%s' to '%s'.",
+                      BACKWARDS_INCOMPATIBLE_DESC, getFieldPathV1(curTargetField), curBaseField.getNativeDataType(),
+                      curTargetField.getNativeDataType()))
+                  .fieldPath(curBaseField.getFieldPath())
+                  .fieldUrn(getSchemaFieldUrn(datasetUrn, curBaseField))
+                  .nullable(curBaseField.isNullable())
+                  .auditStamp(auditStamp)
+                  .build());
+            }
+            List<ChangeEvent> propChangeEvents = getFieldPropertyChangeEvents(curBaseField, curTargetField, datasetUrn,
+                changeCategory, auditStamp);
+            changeEvents.addAll(propChangeEvents);
+            ++baseFieldIdx;
+            ++targetFieldIdx;
+          }
+          List<ChangeEvent> propChangeEvents =
+              getFieldPropertyChangeEvents(curBaseField, curTargetField, datasetUrn, changeCategory, auditStamp);
+          changeEvents.addAll(propChangeEvents);
+          ++baseFieldIdx;
+          ++targetFieldIdx;
+        } else if (comparison < 0) {
+          // Base Field was removed or was renamed. Non-backward compatible change + Major version bump
+          // Check for rename, if rename coincides with other modifications we assume drop/add.
+          // Assumes that two different fields on the same schema would not have the same description, terms,
+          // or tags and share the same type
+          SchemaField renamedField = findRenamedField(curBaseField,
+              targetFields.subList(targetFieldIdx, targetFields.size()), renamedFields);
+          if (renamedField == null) {
+            processRemoval(changeCategory, changeEvents, datasetUrn, curBaseField, auditStamp);
+            ++baseFieldIdx;
+          } else {
+            changeEvents.add(generateRenameEvent(datasetUrn, curBaseField, renamedField, auditStamp));
+            List<ChangeEvent> propChangeEvents = getFieldPropertyChangeEvents(curBaseField, curTargetField, datasetUrn,
+                changeCategory, auditStamp);
+            changeEvents.addAll(propChangeEvents);
+            ++baseFieldIdx;
+            renamedFields.add(renamedField);
+          }
+        } else {
+          // The targetField got added or a rename occurred. Forward & backwards compatible change + minor version bump.
+          SchemaField renamedField = findRenamedField(curTargetField,
+              baseFields.subList(baseFieldIdx, baseFields.size()), renamedFields);
+          if (renamedField == null) {
+            processAdd(changeCategory, changeEvents, datasetUrn, curTargetField, auditStamp);
+            ++targetFieldIdx;
+          } else {
+            changeEvents.add(generateRenameEvent(datasetUrn, renamedField, curTargetField, auditStamp));
+            List<ChangeEvent> propChangeEvents = getFieldPropertyChangeEvents(curBaseField, curTargetField, datasetUrn,
+                changeCategory, auditStamp);
+            changeEvents.addAll(propChangeEvents);
+            ++targetFieldIdx;
+            renamedFields.add(renamedField);
+          }
+        }
+      }
+      while (baseFieldIdx < baseFields.size()) {
+        // Handle removed fields. Non-backward compatible change + major version bump
+        SchemaField baseField = baseFields.get(baseFieldIdx);
+        if (!renamedFields.contains(baseField)) {
+          processRemoval(changeCategory, changeEvents, datasetUrn, baseField, auditStamp);
+        }
+        ++baseFieldIdx;
+      }
+      while (targetFieldIdx < targetFields.size()) {
+        // Newly added fields. Forwards & backwards compatible change + minor version bump.
+        SchemaField targetField = targetFields.get(targetFieldIdx);
+        if (!renamedFields.contains(targetField)) {
+          processAdd(changeCategory, changeEvents, datasetUrn, targetField, auditStamp);
+        }
+        targetFieldIdx++;
+      }
+
+      // Handle primary key constraint change events.
+      List<ChangeEvent> primaryKeyChangeEvents =
+          getPrimaryKeyChangeEvents(baseSchema, targetSchema, datasetUrn, auditStamp);
+      changeEvents.addAll(primaryKeyChangeEvents);
+
+      // Handle foreign key constraint change events.
+      List<ChangeEvent> foreignKeyChangeEvents = getForeignKeyChangeEvents(baseSchema, targetSchema);
+      changeEvents.addAll(foreignKeyChangeEvents);
+
+      return changeEvents;
+    }
+
+    private static void sortFieldsByPath(SchemaMetadata schemaMetadata) {
+      assert (schemaMetadata != null);
+      List<SchemaField> schemaFields = new ArrayList<>(schemaMetadata.getFields());
+      schemaFields.sort(Comparator.comparing(SchemaField::getFieldPath));
+      schemaMetadata.setFields(new SchemaFieldArray(schemaFields));
+    }
+
+    private static SchemaField findRenamedField(SchemaField curField, List<SchemaField> targetFields,
+        Set<SchemaField> renamedFields) {
+      return targetFields.stream()
+          .filter(schemaField -> isRenamed(curField, schemaField))
+          .filter(field -> !renamedFields.contains(field))
+          .findFirst().orElse(null);
+    }
+
+    private static boolean isRenamed(SchemaField curField, SchemaField schemaField) {
+      return curField.getNativeDataType().equals(schemaField.getNativeDataType())
+          && parentFieldsMatch(curField, schemaField) && descriptionsMatch(curField, schemaField);
+    }
+
+    private static boolean parentFieldsMatch(SchemaField curField, SchemaField schemaField) {
+      int curFieldIndex = curField.getFieldPath().lastIndexOf(".");
+      int schemaFieldIndex = schemaField.getFieldPath().lastIndexOf(".");
+      if (curFieldIndex > 0 && schemaFieldIndex > 0) {
+        String curFieldParentPath = curField.getFieldPath().substring(0, curFieldIndex);
+        String schemaFieldParentPath = schemaField.getFieldPath().substring(0, schemaFieldIndex);
+        return StringUtils.isNotBlank(curFieldParentPath) && curFieldParentPath.equals(schemaFieldParentPath);
+      }
+      // No parent field
+      return curFieldIndex < 0 && schemaFieldIndex < 0;
+    }
+
+    private static boolean descriptionsMatch(SchemaField curField, SchemaField schemaField) {
+      return StringUtils.isNotBlank(curField.getDescription())
+          && curField.getDescription().equals(schemaField.getDescription());
+    }
+
+    private static void processRemoval(ChangeCategory changeCategory, List<ChangeEvent> changeEvents, Urn datasetUrn,
+        SchemaField baseField, AuditStamp auditStamp) {
+      if (ChangeCategory.TECHNICAL_SCHEMA.equals(changeCategory)) {
+        changeEvents.add(DatasetSchemaFieldChangeEvent.schemaFieldChangeEventBuilder()
+            .modifier(getSchemaFieldUrn(datasetUrn, baseField).toString())
+            .entityUrn(datasetUrn.toString())
+            .category(ChangeCategory.TECHNICAL_SCHEMA)
+            .operation(ChangeOperation.REMOVE)
+            .semVerChange(SemanticChangeType.MAJOR)
+            .description(BACKWARDS_INCOMPATIBLE_DESC + " removal of field: '" + getFieldPathV1(baseField) + "'.")
+            .fieldPath(baseField.getFieldPath())
+            .fieldUrn(getSchemaFieldUrn(datasetUrn, baseField))
+            .nullable(baseField.isNullable())
+            .auditStamp(auditStamp)
+            .build());
+      }
+      List<ChangeEvent> propChangeEvents = getFieldPropertyChangeEvents(baseField, null, datasetUrn,
+          changeCategory, auditStamp);
+      changeEvents.addAll(propChangeEvents);
+    }
+
+    private static void processAdd(ChangeCategory changeCategory, List<ChangeEvent> changeEvents, Urn datasetUrn,
+        SchemaField targetField, AuditStamp auditStamp) {
+      if (ChangeCategory.TECHNICAL_SCHEMA.equals(changeCategory)) {
+        changeEvents.add(DatasetSchemaFieldChangeEvent.schemaFieldChangeEventBuilder()
+            .modifier(getSchemaFieldUrn(datasetUrn, targetField).toString())
+            .entityUrn(datasetUrn.toString())
+            .category(ChangeCategory.TECHNICAL_SCHEMA)
+            .operation(ChangeOperation.ADD)
+            .semVerChange(SemanticChangeType.MINOR)
+            .description(
+                BACK_AND_FORWARD_COMPATIBLE_DESC + "the newly added field '" + getFieldPathV1(targetField) + "'.")
+            .fieldPath(targetField.getFieldPath())
+            .fieldUrn(getSchemaFieldUrn(datasetUrn, targetField))
+            .nullable(targetField.isNullable())
+            .auditStamp(auditStamp)
+            .build());
+      }
+      List<ChangeEvent> propChangeEvents = getFieldPropertyChangeEvents(null, targetField, datasetUrn,
+          changeCategory, auditStamp);
+      changeEvents.addAll(propChangeEvents);
+    }
+
+    private static ChangeEvent generateRenameEvent(Urn datasetUrn, SchemaField curBaseField, SchemaField curTargetField,
+        AuditStamp auditStamp) {
+        return DatasetSchemaFieldChangeEvent.schemaFieldChangeEventBuilder()
+            .category(ChangeCategory.TECHNICAL_SCHEMA)
+            .modifier(getSchemaFieldUrn(datasetUrn, curBaseField).toString())
+            .entityUrn(datasetUrn.toString())
+            .operation(ChangeOperation.MODIFY)
+            .semVerChange(SemanticChangeType.MINOR)
+            .description(BACK_AND_FORWARD_COMPATIBLE_DESC + "renaming of the field '" + getFieldPathV1(curBaseField)
+                + " to " + getFieldPathV1(curTargetField) +  "'.")
+            .fieldPath(curBaseField.getFieldPath())
+            .fieldUrn(getSchemaFieldUrn(datasetUrn, curBaseField))
+            .nullable(curBaseField.isNullable())
+            .auditStamp(auditStamp)
+            .build();
+    }
+
+    @SuppressWarnings("UnnecessaryLocalVariable")
+    private static List<ChangeEvent> getForeignKeyChangeEvents(SchemaMetadata baseSchema, SchemaMetadata targetSchema) {
+      List<ChangeEvent> foreignKeyChangeEvents = new ArrayList<>();
+      // TODO: Implement the diffing logic.
+      return foreignKeyChangeEvents;
+    }
+
+    private static List<ChangeEvent> getPrimaryKeyChangeEvents(SchemaMetadata baseSchema, SchemaMetadata targetSchema,
+        Urn datasetUrn, AuditStamp auditStamp) {
+      List<ChangeEvent> primaryKeyChangeEvents = new ArrayList<>();
+      Set<String> basePrimaryKeys =
+          (baseSchema != null && baseSchema.getPrimaryKeys() != null) ? new HashSet<>(baseSchema.getPrimaryKeys())
+              : new HashSet<>();
+      Set<String> targetPrimaryKeys =
+          (targetSchema.getPrimaryKeys() != null) ? new HashSet<>(targetSchema.getPrimaryKeys()) : new HashSet<>();
+      Set<String> removedBaseKeys =
+          basePrimaryKeys.stream().filter(key -> !targetPrimaryKeys.contains(key)).collect(Collectors.toSet());
+      for (String removedBaseKeyField : removedBaseKeys) {
+        primaryKeyChangeEvents.add(ChangeEvent.builder()
+            .category(ChangeCategory.TECHNICAL_SCHEMA)
+            .modifier(getSchemaFieldUrn(datasetUrn.toString(), removedBaseKeyField).toString())
+            .entityUrn(datasetUrn.toString())
+            .operation(ChangeOperation.MODIFY)
+            .semVerChange(SemanticChangeType.MAJOR)
+            .description(
+                BACKWARDS_INCOMPATIBLE_DESC + " removal of the primary key field '" + removedBaseKeyField + "'")
+            .auditStamp(auditStamp)
+            .build());
+      }
+
+      Set<String> addedTargetKeys =
+          targetPrimaryKeys.stream().filter(key -> !basePrimaryKeys.contains(key)).collect(Collectors.toSet());
+      for (String addedTargetKeyField : addedTargetKeys) {
+        primaryKeyChangeEvents.add(ChangeEvent.builder()
+            .category(ChangeCategory.TECHNICAL_SCHEMA)
+            .modifier(getSchemaFieldUrn(datasetUrn, addedTargetKeyField).toString())
+            .entityUrn(datasetUrn.toString())
+            .operation(ChangeOperation.MODIFY)
+            .semVerChange(SemanticChangeType.MAJOR)
+            .description(
+                BACKWARDS_INCOMPATIBLE_DESC + " addition of the primary key field '" + addedTargetKeyField + "'")
+            .auditStamp(auditStamp)
+            .build());
+      }
+      return primaryKeyChangeEvents;
+    }
+
+    static List<ChangeEvent> getChangeEvents(Urn urn, SchemaMetadata from, SchemaMetadata to, AuditStamp auditStamp) {
+      final List<ChangeEvent> changeEvents = new ArrayList<>();
+      changeEvents.addAll(computeDiffs(from, to, urn, ChangeCategory.DOCUMENTATION, auditStamp));
+      changeEvents.addAll(computeDiffs(from, to, urn, ChangeCategory.TAG, auditStamp));
+      changeEvents.addAll(computeDiffs(from, to, urn, ChangeCategory.TECHNICAL_SCHEMA, auditStamp));
+      changeEvents.addAll(computeDiffs(from, to, urn, ChangeCategory.GLOSSARY_TERM, auditStamp));
+      return changeEvents;
+    }
+
+    private LegacySchemaMetadataDiffer() {
+    }
+  }
+}
@@ -40,6 +40,7 @@ import com.linkedin.timeseries.GenericTable;
 import com.linkedin.timeseries.GroupingBucket;
 import com.linkedin.timeseries.GroupingBucketType;
 import com.linkedin.timeseries.TimeWindowSize;
+import com.linkedin.util.Pair;
 import org.elasticsearch.client.RestHighLevelClient;
 import org.testcontainers.elasticsearch.ElasticsearchContainer;
 import org.testng.annotations.AfterClass;
@@ -48,6 +49,7 @@ import org.testng.annotations.Test;
 
 import javax.annotation.Nonnull;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Function;
@@ -58,6 +60,7 @@ import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
 import static com.linkedin.metadata.ElasticSearchTestUtils.syncAfterWrite;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
 import static org.testng.Assert.fail;
 
 
@@ -758,4 +761,103 @@ public class ElasticSearchTimeseriesAspectServiceTest {
     assertEquals(resultTable.getRows(),
         new StringArrayArray(new StringArray("col1", "3264"), new StringArray("col2", "3288")));
   }
+
+  @Test(groups = {"getAggregatedStats", "usageStats"}, dependsOnGroups = {"upsert"})
+  public void testBatchGetAggregatedStatsMatchesIndividualQueries() {
+    Criterion hasUrnCriterion =
+        new Criterion().setField("urn").setCondition(Condition.EQUAL).setValue(TEST_URN.toString());
+    Criterion startTimeCriterion = new Criterion().setField(ES_FILED_TIMESTAMP)
+        .setCondition(Condition.GREATER_THAN_OR_EQUAL_TO)
+        .setValue(_startTime.toString());
+    Filter filter = QueryUtils.getFilterFromCriteria(ImmutableList.of(hasUrnCriterion, startTimeCriterion));
+
+    // Per day latest stat, per column sum of stats and per column latest stat, as done for usage stats
+    GroupingBucket timestampBucket = new GroupingBucket().setKey(ES_FILED_TIMESTAMP)
+        .setType(GroupingBucketType.DATE_GROUPING_BUCKET)
+        .setTimeWindowSize(new TimeWindowSize().setMultiple(1).setUnit(CalendarInterval.DAY));
+    GroupingBucket componentProfilesBucket =
+        new GroupingBucket().setKey("componentProfiles.key").setType(GroupingBucketType.STRING_GROUPING_BUCKET);
+    List<Pair<AggregationSpec[], GroupingBucket[]>> queries = ImmutableList.of(
+        new Pair<>(new AggregationSpec[]{
+            new AggregationSpec().setAggregationType(AggregationType.LATEST).setFieldPath("stat")},
+            new GroupingBucket[]{timestampBucket}),
+        new Pair<>(new AggregationSpec[]{
+            new AggregationSpec().setAggregationType(AggregationType.SUM).setFieldPath("componentProfiles.stat")},
+            new GroupingBucket[]{componentProfilesBucket}),
+        new Pair<>(new AggregationSpec[]{
+            new AggregationSpec().setAggregationType(AggregationType.LATEST).setFieldPath("componentProfiles.stat")},
+            new GroupingBucket[]{componentProfilesBucket}));
+
+    List<GenericTable> batchResults =
+        _elasticSearchTimeseriesAspectService.batchGetAggregatedStats(ENTITY_NAME, ASPECT_NAME, queries, filter);
+    assertEquals(batchResults.size(), queries.size());
+    for (int i = 0; i < queries.size(); i++) {
+      GenericTable individualResult = _elasticSearchTimeseriesAspectService.getAggregatedStats(ENTITY_NAME, ASPECT_NAME,
+          queries.get(i).getFirst(), filter, queries.get(i).getSecond());
+      assertEquals(batchResults.get(i), individualResult);
+    }
+  }
+
+  /*
+   * Tests for upsertDocuments API
+   */
+
+  @Test(groups = "upsertDocuments")
+  public void testUpsertDocuments() throws Exception {
+    final long curTimeMillis = Calendar.getInstance().getTimeInMillis();
+    final long startTime = curTimeMillis - curTimeMillis % 86400000;
+    final Urn urn = new TestEntityUrn("acryl", "testElasticSearchTimeseriesAspectService", "table3");
+
+    // Upsert the documents of several profiles with a single bulk request
+    Map<String, JsonNode> documents = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      documents.putAll(
+          TimeseriesAspectTransformer.transform(urn, makeTestProfile(startTime + i * TIME_INCREMENT, i, null),
+              _aspectSpec, null));
+    }
+    assertEquals(documents.size(), 15);
+    assertTrue(_elasticSearchTimeseriesAspectService.upsertDocuments(ENTITY_NAME, ASPECT_NAME, documents).isEmpty());
+    // Upserting the same documents again is a no-op
+    assertTrue(_elasticSearchTimeseriesAspectService.upsertDocuments(ENTITY_NAME, ASPECT_NAME, documents).isEmpty());
+
+    syncAfterWrite(_searchClient);
+
+    List<EnvelopedAspect> resultAspects =
+        _elasticSearchTimeseriesAspectService.getAspectValues(urn, ENTITY_NAME, ASPECT_NAME, null, null, 10, false,
+            null);
+    assertEquals(resultAspects.size(), 5);
+  }
+
+  @Test(groups = "upsertDocuments")
+  public void testUpsertDocumentsInSeveralBulkRequests() throws Exception {
+    final long curTimeMillis = Calendar.getInstance().getTimeInMillis();
+    final long startTime = curTimeMillis - curTimeMillis % 86400000;
+    // Bulk requests of 4 actions, then bulk requests of a single document as they exceed the size limit
+    assertUpsertDocumentsInSeveralBulkRequests(new TestEntityUrn("acryl", "testUpsertDocuments", "table4"), startTime,
+        4, Long.MAX_VALUE);
+    assertUpsertDocumentsInSeveralBulkRequests(new TestEntityUrn("acryl", "testUpsertDocuments", "table5"), startTime,
+        Integer.MAX_VALUE, 1);
+  }
+
+  private void assertUpsertDocumentsInSeveralBulkRequests(@Nonnull Urn urn, long startTime, int bulkRequestsLimit,
+      long bulkRequestBytesLimit) throws Exception {
+    final ElasticSearchTimeseriesAspectService service = new ElasticSearchTimeseriesAspectService(_searchClient,
+        _indexConvention, new TimeseriesAspectIndexBuilders(ElasticSearchServiceTest.getIndexBuilder(_searchClient),
+        _entityRegistry, _indexConvention), _entityRegistry, ElasticSearchServiceTest.getBulkProcessor(_searchClient),
+        false, 0, bulkRequestsLimit, bulkRequestBytesLimit);
+
+    Map<String, JsonNode> documents = new HashMap<>();
+    for (int i = 0; i < 5; i++) {
+      documents.putAll(
+          TimeseriesAspectTransformer.transform(urn, makeTestProfile(startTime + i * TIME_INCREMENT, i, null),
+              _aspectSpec, null));
+    }
+    assertTrue(service.upsertDocuments(ENTITY_NAME, ASPECT_NAME, documents).isEmpty());
+
+    syncAfterWrite(_searchClient);
+
+    List<EnvelopedAspect> resultAspects =
+        service.getAspectValues(urn, ENTITY_NAME, ASPECT_NAME, null, null, 10, false, null);
+    assertEquals(resultAspects.size(), 5);
+  }
 }
@@ -0,0 +1,269 @@
+package com.linkedin.metadata.timeseries.elastic;
+
+import com.datahub.test.BatchType;
+import com.datahub.test.ComplexNestedRecord;
+import com.datahub.test.TestEntityComponentProfile;
+import com.datahub.test.TestEntityComponentProfileArray;
+import com.datahub.test.TestEntityProfile;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.linkedin.common.urn.TestEntityUrn;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.data.template.StringMapArray;
+import com.linkedin.metadata.ElasticTestUtils;
+import com.linkedin.metadata.models.AspectSpec;
+import com.linkedin.metadata.models.DataSchemaFactory;
+import com.linkedin.metadata.models.registry.ConfigEntityRegistry;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.query.filter.Condition;
+import com.linkedin.metadata.query.filter.Criterion;
+import com.linkedin.metadata.query.filter.Filter;
+import com.linkedin.metadata.search.elasticsearch.ElasticSearchServiceTest;
+import com.linkedin.metadata.search.utils.QueryUtils;
+import com.linkedin.metadata.timeseries.elastic.indexbuilder.TimeseriesAspectIndexBuilders;
+import com.linkedin.metadata.timeseries.elastic.rollup.ESTimeseriesRollupDAO;
+import com.linkedin.metadata.timeseries.elastic.rollup.TimeseriesRollupGranularity;
+import com.linkedin.metadata.timeseries.elastic.rollup.TimeseriesRollupPlan;
+import com.linkedin.metadata.timeseries.transformer.TimeseriesAspectTransformer;
+import com.linkedin.metadata.utils.elasticsearch.IndexConvention;
+import com.linkedin.metadata.utils.elasticsearch.IndexConventionImpl;
+import com.linkedin.timeseries.AggregationSpec;
+import com.linkedin.timeseries.AggregationType;
+import com.linkedin.timeseries.CalendarInterval;
+import com.linkedin.timeseries.GenericTable;
+import com.linkedin.timeseries.GroupingBucket;
+import com.linkedin.timeseries.GroupingBucketType;
+import com.linkedin.timeseries.TimeWindowSize;
+import com.linkedin.util.Pair;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.elasticsearch.client.RestHighLevelClient;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.DockerTestUtils.checkContainerEngine;
+import static com.linkedin.metadata.ElasticSearchTestUtils.syncAfterWrite;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class ElasticSearchTimeseriesRollupTest {
+  private static final String ENTITY_NAME = "testEntity";
+  private static final String ASPECT_NAME = "testEntityProfile";
+  private static final Urn URN_1 = new TestEntityUrn("acryl", "testElasticSearchTimeseriesRollup", "table1");
+  private static final Urn URN_2 = new TestEntityUrn("acryl", "testElasticSearchTimeseriesRollup", "table2");
+  private static final String ES_FIELD_TIMESTAMP = "timestampMillis";
+  private static final ZonedDateTime START = ZonedDateTime.of(2022, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+  private static final int NUM_DAYS = 120;
+  private static final int NUM_EVENTS = 300;
+
+  private ElasticsearchContainer _elasticsearchContainer;
+  private RestHighLevelClient _searchClient;
+  private EntityRegistry _entityRegistry;
+  private IndexConvention _indexConvention;
+  private AspectSpec _aspectSpec;
+  // Answers from raw documents only
+  private ElasticSearchTimeseriesAspectService _rawService;
+  private ElasticSearchTimeseriesAspectService _rollupService;
+
+  @BeforeClass
+  public void setup() {
+    _entityRegistry = new ConfigEntityRegistry(new DataSchemaFactory("com.datahub.test"),
+        TestEntityProfile.class.getClassLoader().getResourceAsStream("test-entity-registry.yml"));
+    _indexConvention = new IndexConventionImpl(null);
+    _elasticsearchContainer = ElasticTestUtils.getNewElasticsearchContainer();
+    checkContainerEngine(_elasticsearchContainer.getDockerClient());
+    _elasticsearchContainer.start();
+    _searchClient = ElasticTestUtils.buildRestClient(_elasticsearchContainer);
+    _rawService = buildService(false, 0);
+    _rollupService = buildService(true, 0);
+    _aspectSpec = _entityRegistry.getEntitySpec(ENTITY_NAME).getAspectSpec(ASPECT_NAME);
+  }
+
+  @Nonnull
+  private ElasticSearchTimeseriesAspectService buildService(boolean rollupsEnabled, long rawRetentionDays) {
+    return new ElasticSearchTimeseriesAspectService(_searchClient, _indexConvention,
+        new TimeseriesAspectIndexBuilders(ElasticSearchServiceTest.getIndexBuilder(_searchClient), _entityRegistry,
+            _indexConvention), _entityRegistry, ElasticSearchServiceTest.getBulkProcessor(_searchClient),
+        rollupsEnabled, rawRetentionDays);
+  }
+
+  @AfterClass
+  public void tearDown() {
+    _elasticsearchContainer.stop();
+  }
+
+  @Test
+  public void testRollupsMatchRawDocuments() throws Exception {
+    final long seed = System.currentTimeMillis();
+    final Random random = new Random(seed);
+    final String message = "Random event stream seed " + seed;
+
+    // Random events, half of them ingested before rollups are enabled so that they get backfilled
+    final TreeSet<Long> timestamps = new TreeSet<>();
+    while (timestamps.size() < NUM_EVENTS) {
+      timestamps.add(START.toInstant().toEpochMilli() + (long) (random.nextDouble() * NUM_DAYS * 86400000L));
+    }
+    final List<Pair<Urn, TestEntityProfile>> events = new ArrayList<>();
+    for (long timestamp : timestamps) {
+      events.add(new Pair<>(random.nextBoolean() ? URN_1 : URN_2, makeRandomProfile(random, timestamp)));
+    }
+    _rawService.configure();
+    for (Pair<Urn, TestEntityProfile> event : events.subList(0, NUM_EVENTS / 2)) {
+      upsert(_rawService, event.getFirst(), event.getSecond());
+    }
+    syncAfterWrite(_searchClient);
+
+    _rollupService.configure();
+    final ESTimeseriesRollupDAO rollupDAO = _rollupService.getRollupDAO();
+    for (TimeseriesRollupGranularity granularity : TimeseriesRollupGranularity.values()) {
+      final String rollupIndexName = granularity.getIndexName(_indexConvention, ENTITY_NAME, ASPECT_NAME);
+      for (int i = 0; i < 120 && !rollupDAO.isBackfilled(rollupIndexName); i++) {
+        Thread.sleep(1000);
+      }
+      assertTrue(rollupDAO.isBackfilled(rollupIndexName), rollupIndexName);
+    }
+    for (Pair<Urn, TestEntityProfile> event : events.subList(NUM_EVENTS / 2, NUM_EVENTS)) {
+      upsert(_rollupService, event.getFirst(), event.getSecond());
+    }
+    // Ingesting events again does not change the rollups
+    for (int i = 0; i < 20; i++) {
+      Pair<Urn, TestEntityProfile> event = events.get(random.nextInt(NUM_EVENTS));
+      upsert(_rollupService, event.getFirst(), event.getSecond());
+    }
+    syncAfterWrite(_searchClient);
+
+    final long february = START.plusMonths(1).toInstant().toEpochMilli();
+    final long april = START.plusMonths(3).toInstant().toEpochMilli();
+    final long midFebruary = START.plusMonths(1).plusDays(14).toInstant().toEpochMilli();
+
+    // Latest stat per day, within whole months
+    assertSameAnswer(message, TimeseriesRollupGranularity.DAY, URN_1, february, april,
+        new AggregationSpec[]{latest("stat")}, new GroupingBucket[]{dateBucket(CalendarInterval.DAY)});
+    // Sum of column stats per month and column
+    assertSameAnswer(message, TimeseriesRollupGranularity.MONTH, URN_2, february, april,
+        new AggregationSpec[]{sum("componentProfiles.stat"), latest("componentProfiles.stat")},
+        new GroupingBucket[]{dateBucket(CalendarInterval.MONTH), stringBucket("componentProfiles.key")});
+    // Sum of stats per week, over the whole history
+    assertSameAnswer(message, TimeseriesRollupGranularity.DAY, URN_1, null, null,
+        new AggregationSpec[]{sum("stat"), latest("strStat")}, new GroupingBucket[]{dateBucket(CalendarInterval.WEEK)});
+    // Latest column stats, within whole days
+    assertSameAnswer(message, TimeseriesRollupGranularity.DAY, URN_2, midFebruary, april,
+        new AggregationSpec[]{latest("componentProfiles.stat")},
+        new GroupingBucket[]{stringBucket("componentProfiles.key")});
+    // Time bounds that are not aligned on buckets are answered from raw documents at either end
+    assertSameAnswer(message, TimeseriesRollupGranularity.MONTH, URN_1, midFebruary + 1, april,
+        new AggregationSpec[]{sum("stat")}, new GroupingBucket[]{});
+    assertSameAnswer(message, TimeseriesRollupGranularity.DAY, URN_2, midFebruary + 1, april - 1,
+        new AggregationSpec[]{sum("componentProfiles.stat"), latest("componentProfiles.stat")},
+        new GroupingBucket[]{dateBucket(CalendarInterval.DAY), stringBucket("componentProfiles.key")});
+    // Distinct counts need raw documents
+    assertSameAnswer(message, null, URN_1, february, april,
+        new AggregationSpec[]{new AggregationSpec().setAggregationType(AggregationType.CARDINALITY)
+            .setFieldPath("strStat")}, new GroupingBucket[]{dateBucket(CalendarInterval.MONTH)});
+
+    // Rollups keep answering once the raw documents they summarize are expired
+    final AggregationSpec[] monthlySums = new AggregationSpec[]{sum("stat")};
+    final GroupingBucket[] months = new GroupingBucket[]{dateBucket(CalendarInterval.MONTH)};
+    final GenericTable beforeExpiry = _rollupService.getAggregatedStats(ENTITY_NAME, ASPECT_NAME, monthlySums,
+        filter(URN_1, null, april), months);
+    // Raw documents are kept until the start of the month the retention reaches into, i.e. april
+    final long rawRetentionDays = TimeUnit.MILLISECONDS.toDays(System.currentTimeMillis() - april);
+    final ESTimeseriesRollupDAO expiringRollupDAO = buildService(true, rawRetentionDays).getRollupDAO();
+    assertEquals(expiringRollupDAO.getRawHorizonMillis(), april);
+    assertTrue(expiringRollupDAO.expireRawDocuments() > 0);
+    syncAfterWrite(_searchClient);
+    assertEquals(_rollupService.getAggregatedStats(ENTITY_NAME, ASPECT_NAME, monthlySums, filter(URN_1, null, april),
+        months), beforeExpiry, message);
+    assertTrue(_rawService.getAggregatedStats(ENTITY_NAME, ASPECT_NAME, monthlySums, filter(URN_1, null, april), months)
+        .getRows()
+        .isEmpty(), message);
+  }
+
+  private void assertSameAnswer(@Nonnull String message, @Nullable TimeseriesRollupGranularity expectedGranularity,
+      @Nonnull Urn urn, @Nullable Long startTime, @Nullable Long endTime, @Nonnull AggregationSpec[] aggregationSpecs,
+      @Nonnull GroupingBucket[] groupingBuckets) {
+    final Filter filter = filter(urn, startTime, endTime);
+    final TimeseriesRollupPlan plan = _rollupService.getRollupDAO()
+        .getServingPlan(ENTITY_NAME, ASPECT_NAME, ImmutableList.of(new Pair<>(aggregationSpecs, groupingBuckets)),
+            filter);
+    assertEquals(plan == null ? null : plan.getGranularity(), expectedGranularity, message);
+    final GenericTable rawResult =
+        _rawService.getAggregatedStats(ENTITY_NAME, ASPECT_NAME, aggregationSpecs, filter, groupingBuckets);
+    assertTrue(rawResult.getRows().size() > 0, message);
+    assertEquals(_rollupService.getAggregatedStats(ENTITY_NAME, ASPECT_NAME, aggregationSpecs, filter, groupingBuckets),
+        rawResult, message);
+  }
+
+  private void upsert(@Nonnull ElasticSearchTimeseriesAspectService service, @Nonnull Urn urn,
+      @Nonnull TestEntityProfile profile) throws Exception {
+    Map<String, JsonNode> documents = TimeseriesAspectTransformer.transform(urn, profile, _aspectSpec, null);
+    documents.forEach((docId, document) -> service.upsertDocument(ENTITY_NAME, ASPECT_NAME, docId, document));
+  }
+
+  @Nonnull
+  private static TestEntityProfile makeRandomProfile(@Nonnull Random random, long timestamp) {
+    TestEntityProfile profile = new TestEntityProfile().setTimestampMillis(timestamp)
+        .setStat(random.nextInt(1000))
+        .setStrStat("s" + random.nextInt(5))
+        .setEventGranularity(new TimeWindowSize().setUnit(CalendarInterval.HOUR).setMultiple(1))
+        .setAComplexNestedRecord(
+            new ComplexNestedRecord().setType(BatchType.FULL_TABLE).setPartitions(new StringMapArray()));
+    TestEntityComponentProfileArray componentProfiles = new TestEntityComponentProfileArray();
+    for (String key : ImmutableList.of("col1", "col2", "col3")) {
+      if (random.nextBoolean()) {
+        componentProfiles.add(new TestEntityComponentProfile().setKey(key).setStat(random.nextInt(1000)));
+      }
+    }
+    return profile.setComponentProfiles(componentProfiles);
+  }
+
+  @Nonnull
+  private static Filter filter(@Nonnull Urn urn, @Nullable Long startTime, @Nullable Long endTime) {
+    List<Criterion> criteria = new ArrayList<>();
+    criteria.add(new Criterion().setField("urn").setCondition(Condition.EQUAL).setValue(urn.toString()));
+    if (startTime != null) {
+      criteria.add(new Criterion().setField(ES_FIELD_TIMESTAMP)
+          .setCondition(Condition.GREATER_THAN_OR_EQUAL_TO)
+          .setValue(startTime.toString()));
+    }
+    if (endTime != null) {
+      criteria.add(new Criterion().setField(ES_FIELD_TIMESTAMP)
+          .setCondition(Condition.LESS_THAN)
+          .setValue(endTime.toString()));
+    }
+    return QueryUtils.getFilterFromCriteria(criteria);
+  }
+
+  @Nonnull
+  private static AggregationSpec latest(@Nonnull String fieldPath) {
+    return new AggregationSpec().setAggregationType(AggregationType.LATEST).setFieldPath(fieldPath);
+  }
+
+  @Nonnull
+  private static AggregationSpec sum(@Nonnull String fieldPath) {
+    return new AggregationSpec().setAggregationType(AggregationType.SUM).setFieldPath(fieldPath);
+  }
+
+  @Nonnull
+  private static GroupingBucket dateBucket(@Nonnull CalendarInterval unit) {
+    return new GroupingBucket().setKey(ES_FIELD_TIMESTAMP)
+        .setType(GroupingBucketType.DATE_GROUPING_BUCKET)
+        .setTimeWindowSize(new TimeWindowSize().setMultiple(1).setUnit(unit));
+  }
+
+  @Nonnull
+  private static GroupingBucket stringBucket(@Nonnull String key) {
+    return new GroupingBucket().setKey(key).setType(GroupingBucketType.STRING_GROUPING_BUCKET);
+  }
+}
@@ -1,6 +1,7 @@
 package com.linkedin.metadata.kafka;
 
 import com.linkedin.gms.factory.telemetry.ScheduledAnalyticsFactory;
+import com.linkedin.metadata.kafka.hook.search.EntityDocCountHook;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.cassandra.CassandraAutoConfiguration;
@@ -11,8 +12,10 @@ import org.springframework.context.annotation.FilterType;
 
 @SuppressWarnings("checkstyle:HideUtilityClassConstructor")
 @SpringBootApplication(exclude = {ElasticsearchRestClientAutoConfiguration.class, CassandraAutoConfiguration.class})
+// Entity doc counts are kept in the memory of GMS, out of reach of the standalone consumer
 @ComponentScan(excludeFilters = {
-    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = ScheduledAnalyticsFactory.class)})
+    @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {ScheduledAnalyticsFactory.class,
+        EntityDocCountHook.class})})
 public class MaeConsumerApplication {
 
   public static void main(String[] args) {
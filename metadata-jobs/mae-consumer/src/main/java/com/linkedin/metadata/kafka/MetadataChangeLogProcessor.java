@@ -9,13 +9,16 @@ import com.linkedin.metadata.EventUtils;
 import com.linkedin.metadata.kafka.config.MetadataChangeLogProcessorCondition;
 import com.linkedin.metadata.kafka.hook.MetadataChangeLogHook;
 import com.linkedin.metadata.kafka.hook.UpdateIndicesHook;
+import com.linkedin.metadata.kafka.hook.auth.AccessTokenRevocationHook;
 import com.linkedin.metadata.kafka.hook.event.EntityChangeEventGeneratorHook;
 import com.linkedin.metadata.kafka.hook.ingestion.IngestionSchedulerHook;
+import com.linkedin.metadata.kafka.hook.search.EntityDocCountHook;
 import com.linkedin.metadata.kafka.hook.siblings.SiblingAssociationHook;
 import com.linkedin.metadata.utils.metrics.MetricUtils;
 import com.linkedin.mxe.MetadataChangeLog;
 import com.linkedin.mxe.Topics;
 import java.util.List;
+import java.util.Optional;
 import javax.annotation.Nonnull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.avro.generic.GenericRecord;
@@ -36,7 +39,8 @@ import org.springframework.stereotype.Component;
     IngestionSchedulerHook.class,
     EntityChangeEventGeneratorHook.class,
     KafkaEventConsumerFactory.class,
-    SiblingAssociationHook.class
+    SiblingAssociationHook.class,
+    AccessTokenRevocationHook.class
 })
 @EnableKafka
 public class MetadataChangeLogProcessor {
@@ -49,17 +53,41 @@ public class MetadataChangeLogProcessor {
       @Nonnull final UpdateIndicesHook updateIndicesHook,
       @Nonnull final IngestionSchedulerHook ingestionSchedulerHook,
       @Nonnull final EntityChangeEventGeneratorHook entityChangeEventHook,
-      @Nonnull final SiblingAssociationHook siblingAssociationHook
+      @Nonnull final SiblingAssociationHook siblingAssociationHook,
+      @Nonnull final AccessTokenRevocationHook accessTokenRevocationHook,
+      // Only registered when running within GMS, see EntityDocCountHook
+      @Nonnull final Optional<EntityDocCountHook> entityDocCountHook
   ) {
-    this.hooks = ImmutableList.of(updateIndicesHook, ingestionSchedulerHook, entityChangeEventHook, siblingAssociationHook);
+    final ImmutableList.Builder<MetadataChangeLogHook> hooks = ImmutableList.<MetadataChangeLogHook>builder()
+        .add(updateIndicesHook, ingestionSchedulerHook, entityChangeEventHook, siblingAssociationHook,
+            accessTokenRevocationHook);
+    entityDocCountHook.ifPresent(hooks::add);
+    this.hooks = hooks.build();
     this.hooks.forEach(MetadataChangeLogHook::init);
   }
 
   @KafkaListener(id = "${METADATA_CHANGE_LOG_KAFKA_CONSUMER_GROUP_ID:generic-mae-consumer-job-client}", topics = {
       "${METADATA_CHANGE_LOG_VERSIONED_TOPIC_NAME:" + Topics.METADATA_CHANGE_LOG_VERSIONED + "}",
       "${METADATA_CHANGE_LOG_TIMESERIES_TOPIC_NAME:" + Topics.METADATA_CHANGE_LOG_TIMESERIES
-          + "}"}, containerFactory = "kafkaEventConsumer")
-  public void consume(final ConsumerRecord<String, GenericRecord> consumerRecord) {
+          + "}"}, containerFactory = "kafkaEventBatchConsumer")
+  public void consume(final List<ConsumerRecord<String, GenericRecord>> consumerRecords) {
+    consumerRecords.forEach(this::consume);
+
+    // The offsets of the poll are committed by the next one: complete the batches of the hooks before it, and fail the
+    // poll if they cannot be, so that its events are not lost
+    for (MetadataChangeLogHook hook : this.hooks) {
+      try (Timer.Context ignored =
+          MetricUtils.timer(this.getClass(), hook.getClass().getSimpleName() + "_flush_latency").time()) {
+        hook.flush();
+      } catch (Exception e) {
+        MetricUtils.counter(this.getClass(), hook.getClass().getSimpleName() + "_flush_failure").inc();
+        throw new RuntimeException(
+            String.format("Failed to flush MCL hook with name %s", hook.getClass().getCanonicalName()), e);
+      }
+    }
+  }
+
+  private void consume(final ConsumerRecord<String, GenericRecord> consumerRecord) {
     kafkaLagStats.update(System.currentTimeMillis() - consumerRecord.timestamp());
     final GenericRecord record = consumerRecord.value();
     log.debug("Got Generic MCL on topic: {}, partition: {}, offset: {}", consumerRecord.topic(), consumerRecord.partition(), consumerRecord.offset());
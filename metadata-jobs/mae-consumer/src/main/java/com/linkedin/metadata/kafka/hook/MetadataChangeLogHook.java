@@ -22,4 +22,10 @@ public interface MetadataChangeLogHook {
    * Invoke the hook when a MetadataChangeLog is received
    */
   void invoke(@Nonnull MetadataChangeLog log) throws Exception;
+
+  /**
+   * Completes the processing of the events the hook was invoked with since the last flush, for hooks that process
+   * events in batches. Called once all the events of a poll were received, before their offsets may be committed.
+   */
+  default void flush() throws Exception { }
 }
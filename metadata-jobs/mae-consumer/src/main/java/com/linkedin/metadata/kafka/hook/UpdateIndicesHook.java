@@ -205,6 +205,18 @@ public class UpdateIndicesHook implements MetadataChangeLogHook {
     }
 
     _entitySearchService.upsertDocument(entityName, searchDocument.get(), docId.get());
+    invalidateBrowseCache(entityName, aspectSpec);
+  }
+
+  /**
+   * Drops the cached browse results of the entity type if the aspect moves entities within or out of browse paths. The
+   * write is not searchable yet, so the browse results computed in the following seconds are not cached.
+   */
+  private void invalidateBrowseCache(String entityName, AspectSpec aspectSpec) {
+    if (aspectSpec.getName().equals(Constants.BROWSE_PATHS_ASPECT_NAME)
+        || aspectSpec.getName().equals(Constants.STATUS_ASPECT_NAME)) {
+      _entitySearchService.invalidateBrowseCache(entityName);
+    }
   }
 
   /**
@@ -272,6 +284,7 @@ public class UpdateIndicesHook implements MetadataChangeLogHook {
 
       if (isKeyAspect) {
         _entitySearchService.deleteDocument(entityName, docId);
+        _entitySearchService.invalidateBrowseCache(entityName);
         return;
       }
 
@@ -288,5 +301,6 @@ public class UpdateIndicesHook implements MetadataChangeLogHook {
       }
 
     _entitySearchService.upsertDocument(entityName, searchDocument.get(), docId);
+    invalidateBrowseCache(entityName, aspectSpec);
   }
 }
\ No newline at end of file
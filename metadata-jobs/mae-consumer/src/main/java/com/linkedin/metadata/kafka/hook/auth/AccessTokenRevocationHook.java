@@ -0,0 +1,88 @@
+package com.linkedin.metadata.kafka.hook.auth;
+
+import com.datahub.authentication.token.StatefulTokenService;
+import com.google.common.annotations.VisibleForTesting;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.events.metadata.ChangeType;
+import com.linkedin.gms.factory.auth.DataHubTokenServiceFactory;
+import com.linkedin.gms.factory.entityregistry.EntityRegistryFactory;
+import com.linkedin.metadata.Constants;
+import com.linkedin.metadata.kafka.hook.MetadataChangeLogHook;
+import com.linkedin.metadata.models.EntitySpec;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.utils.EntityKeyUtils;
+import com.linkedin.mxe.MetadataChangeLog;
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Import;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * This hook evicts revoked Access Tokens from the validated token cache maintained by the {@link StatefulTokenService}
+ * of the instance consuming the event.
+ *
+ * <p>The MetadataChangeLog consumer group delivers each event to a single instance, so the eviction does not reach
+ * every instance. The other instances reject the token once their own caches expire, within twice the revocation
+ * cache TTL. See {@link StatefulTokenService}.
+ */
+@Slf4j
+@Component
+@Singleton
+@Import({EntityRegistryFactory.class, DataHubTokenServiceFactory.class})
+public class AccessTokenRevocationHook implements MetadataChangeLogHook {
+
+  private final EntityRegistry _entityRegistry;
+  private final StatefulTokenService _tokenService;
+
+  @Autowired
+  public AccessTokenRevocationHook(
+      @Nonnull final EntityRegistry entityRegistry,
+      @Nonnull @Qualifier("dataHubTokenService") final StatefulTokenService tokenService
+  ) {
+    _entityRegistry = entityRegistry;
+    _tokenService = tokenService;
+  }
+
+  @Override
+  public void invoke(@Nonnull MetadataChangeLog event) {
+    if (isAccessTokenDeleted(event)) {
+      final Urn urn = getUrnFromEvent(event);
+      log.debug("Received delete of Access Token. Invalidating cached token. urn: {}", urn);
+      // The id of an access token urn is the hash of the token itself.
+      _tokenService.invalidateAccessToken(urn.getId());
+    }
+  }
+
+  /**
+   * Returns true if the event represents the removal of an Access Token, which happens when the token is revoked
+   * or cleaned up after expiring.
+   */
+  private boolean isAccessTokenDeleted(final MetadataChangeLog event) {
+    return Constants.ACCESS_TOKEN_KEY_ASPECT_NAME.equals(event.getAspectName())
+        && ChangeType.DELETE.equals(event.getChangeType());
+  }
+
+  /**
+   * Extracts and returns an {@link Urn} from a {@link MetadataChangeLog}. Extracts from either an entityUrn
+   * or entityKey field, depending on which is present.
+   */
+  private Urn getUrnFromEvent(final MetadataChangeLog event) {
+    EntitySpec entitySpec;
+    try {
+      entitySpec = _entityRegistry.getEntitySpec(event.getEntityType());
+    } catch (IllegalArgumentException e) {
+      log.error("Error while processing entity type {}: {}", event.getEntityType(), e.toString());
+      throw new RuntimeException("Failed to get urn from MetadataChangeLog event. Skipping processing.", e);
+    }
+    return EntityKeyUtils.getUrnFromLog(event, entitySpec.getKeyAspectSpec());
+  }
+
+  @VisibleForTesting
+  StatefulTokenService tokenService() {
+    return _tokenService;
+  }
+}
@@ -12,7 +12,9 @@ import com.linkedin.entity.client.RestliEntityClient;
 import com.linkedin.gms.factory.auth.SystemAuthenticationFactory;
 import com.linkedin.gms.factory.entity.RestliEntityClientFactory;
 import com.linkedin.gms.factory.entityregistry.EntityRegistryFactory;
+import com.linkedin.gms.factory.kafka.DataHubKafkaEventProducerFactory;
 import com.linkedin.metadata.Constants;
+import com.linkedin.metadata.event.EventProducer;
 import com.linkedin.metadata.kafka.hook.MetadataChangeLogHook;
 import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.registry.EntityRegistry;
@@ -26,6 +28,7 @@ import com.linkedin.mxe.PlatformEvent;
 import com.linkedin.mxe.PlatformEventHeader;
 import com.linkedin.mxe.SystemMetadata;
 import com.linkedin.platform.event.v1.Parameters;
+import com.linkedin.util.Pair;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -35,6 +38,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Import;
 import org.springframework.stereotype.Component;
 
@@ -42,6 +47,10 @@ import org.springframework.stereotype.Component;
 /**
  * A {@link MetadataChangeLogHook} responsible for generating Entity Change Events
  * to the Platform Events topic.
+ *
+ * The change events of one {@link MetadataChangeLog} are produced straight to Kafka as a single batch, which is
+ * acknowledged before the hook returns. They can instead be sent through the Metadata Service, one request per event,
+ * with entityChangeEvents.produceThroughRestli.
  */
 @Slf4j
 @Component
@@ -49,7 +58,8 @@ import org.springframework.stereotype.Component;
     AspectDifferRegistry.class,
     EntityRegistryFactory.class,
     RestliEntityClientFactory.class,
-    SystemAuthenticationFactory.class
+    SystemAuthenticationFactory.class,
+    DataHubKafkaEventProducerFactory.class
 })
 public class EntityChangeEventGeneratorHook implements MetadataChangeLogHook {
 
@@ -91,17 +101,33 @@ public class EntityChangeEventGeneratorHook implements MetadataChangeLogHook {
   private final EntityClient _entityClient;
   private final Authentication _systemAuthentication;
   private final EntityRegistry _entityRegistry;
+  @Nullable
+  private final EventProducer _eventProducer;
 
-  @Autowired
+  /**
+   * Creates a hook producing change events through the Metadata Service.
+   */
   public EntityChangeEventGeneratorHook(
       @Nonnull final AspectDifferRegistry aspectDifferRegistry,
       @Nonnull final RestliEntityClient entityClient,
       @Nonnull final Authentication systemAuthentication,
       @Nonnull final EntityRegistry entityRegistry) {
+    this(aspectDifferRegistry, entityClient, systemAuthentication, entityRegistry, null, true);
+  }
+
+  @Autowired
+  public EntityChangeEventGeneratorHook(
+      @Nonnull final AspectDifferRegistry aspectDifferRegistry,
+      @Nonnull final RestliEntityClient entityClient,
+      @Nonnull final Authentication systemAuthentication,
+      @Nonnull final EntityRegistry entityRegistry,
+      @Nullable @Qualifier("kafkaEventProducer") final EventProducer eventProducer,
+      @Value("${entityChangeEvents.produceThroughRestli:false}") final boolean produceThroughRestli) {
     _aspectDifferRegistry = Objects.requireNonNull(aspectDifferRegistry);
     _entityClient = Objects.requireNonNull(entityClient);
     _systemAuthentication = Objects.requireNonNull(systemAuthentication);
     _entityRegistry = Objects.requireNonNull(entityRegistry);
+    _eventProducer = produceThroughRestli ? null : Objects.requireNonNull(eventProducer);
   }
 
   @Override
@@ -141,12 +167,14 @@ public class EntityChangeEventGeneratorHook implements MetadataChangeLogHook {
       );
 
       // Iterate through each transaction, emit change events as platform events.
+      final List<Pair<String, PlatformEvent>> platformEvents = new ArrayList<>(changeEvents.size());
+      for (final ChangeEvent event : changeEvents) {
+        platformEvents.add(Pair.of(
+            String.format("%s-%s", Constants.CHANGE_EVENT_PLATFORM_EVENT_NAME, event.getEntityUrn()),
+            buildPlatformEvent(event)));
+      }
+      emitPlatformEvents(platformEvents);
       for (final ChangeEvent event : changeEvents) {
-        PlatformEvent platformEvent = buildPlatformEvent(event);
-        emitPlatformEvent(
-            platformEvent,
-            String.format("%s-%s", Constants.CHANGE_EVENT_PLATFORM_EVENT_NAME, event.getEntityUrn())
-        );
         log.info("Successfully emitted change event. category: {}, operation: {}, entity urn: {}",
             event.getCategory(),
             event.getOperation(),
@@ -178,6 +206,19 @@ public class EntityChangeEventGeneratorHook implements MetadataChangeLogHook {
     return SUPPORTED_OPERATIONS.contains(log.getChangeType().toString()) && SUPPORTED_ASPECT_NAMES.contains(log.getAspectName());
   }
 
+  private void emitPlatformEvents(@Nonnull final List<Pair<String, PlatformEvent>> platformEvents) throws Exception {
+    if (platformEvents.isEmpty()) {
+      return;
+    }
+    if (_eventProducer != null) {
+      _eventProducer.producePlatformEvents(Constants.CHANGE_EVENT_PLATFORM_EVENT_NAME, platformEvents);
+      return;
+    }
+    for (final Pair<String, PlatformEvent> platformEvent : platformEvents) {
+      emitPlatformEvent(platformEvent.getSecond(), platformEvent.getFirst());
+    }
+  }
+
   private void emitPlatformEvent(@Nonnull final PlatformEvent event, @Nonnull final String partitioningKey) throws Exception {
     _entityClient.producePlatformEvent(
         Constants.CHANGE_EVENT_PLATFORM_EVENT_NAME,
@@ -0,0 +1,81 @@
+package com.linkedin.metadata.kafka.hook.search;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.linkedin.events.metadata.ChangeType;
+import com.linkedin.gms.factory.entityregistry.EntityRegistryFactory;
+import com.linkedin.gms.factory.search.EntityDocCountCacheFactory;
+import com.linkedin.metadata.kafka.hook.MetadataChangeLogHook;
+import com.linkedin.metadata.models.EntitySpec;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.search.cache.EntityDocCountCache;
+import com.linkedin.mxe.MetadataChangeLog;
+import javax.annotation.Nonnull;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Import;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * This hook nudges the per-entity document counts kept by {@link EntityDocCountCache} as entities get created or
+ * deleted, so that counts stay close to accurate in between background refreshes.
+ *
+ * An entity is considered created when its key aspect is written for the first time, and deleted when its key aspect
+ * is deleted.
+ *
+ * Counts are only kept in memory, so the hook only has an effect when the consumer runs within GMS, where it shares
+ * the cache with the search service. It is left out of the standalone MAE consumer.
+ */
+@Slf4j
+@Component
+@Singleton
+@Import({EntityRegistryFactory.class, EntityDocCountCacheFactory.class})
+public class EntityDocCountHook implements MetadataChangeLogHook {
+
+  private final EntityRegistry _entityRegistry;
+  private final EntityDocCountCache _entityDocCountCache;
+
+  @Autowired
+  public EntityDocCountHook(
+      @Nonnull final EntityRegistry entityRegistry,
+      @Nonnull @Qualifier("entityDocCountCache") final EntityDocCountCache entityDocCountCache
+  ) {
+    _entityRegistry = entityRegistry;
+    _entityDocCountCache = entityDocCountCache;
+  }
+
+  @Value("${searchService.docCountMclDeltasEnabled:false}")
+  private Boolean enabled;
+
+  @VisibleForTesting
+  void setEnabled(Boolean newValue) {
+    enabled = newValue;
+  }
+
+  @Override
+  public void invoke(@Nonnull MetadataChangeLog event) {
+    if (!enabled || !event.hasAspectName()) {
+      return;
+    }
+
+    final EntitySpec entitySpec;
+    try {
+      entitySpec = _entityRegistry.getEntitySpec(event.getEntityType());
+    } catch (IllegalArgumentException e) {
+      log.error("Error while processing entity type {}: {}", event.getEntityType(), e.toString());
+      return;
+    }
+    if (!entitySpec.getKeyAspectName().equals(event.getAspectName())) {
+      return;
+    }
+
+    if (ChangeType.DELETE.equals(event.getChangeType())) {
+      _entityDocCountCache.applyDelta(entitySpec.getName(), -1);
+    } else if (ChangeType.UPSERT.equals(event.getChangeType()) && !event.hasPreviousAspectValue()) {
+      _entityDocCountCache.applyDelta(entitySpec.getName(), 1);
+    }
+  }
+}
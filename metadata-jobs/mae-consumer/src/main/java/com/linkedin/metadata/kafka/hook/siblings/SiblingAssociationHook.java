@@ -1,13 +1,22 @@
 package com.linkedin.metadata.kafka.hook.siblings;
 
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.linkedin.common.AuditStamp;
 import com.linkedin.common.Siblings;
 import com.linkedin.common.SubTypes;
 import com.linkedin.common.UrnArray;
 import com.linkedin.common.urn.DatasetUrn;
 import com.linkedin.common.urn.Urn;
+import com.linkedin.data.template.RecordTemplate;
+import com.linkedin.data.template.StringArray;
 import com.linkedin.dataset.UpstreamArray;
 import com.linkedin.dataset.UpstreamLineage;
 import com.linkedin.events.metadata.ChangeType;
@@ -18,18 +27,32 @@ import com.linkedin.metadata.entity.EntityService;
 import com.linkedin.metadata.kafka.hook.MetadataChangeLogHook;
 import com.linkedin.metadata.models.EntitySpec;
 import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.search.SearchEntity;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.SearchService;
 import com.linkedin.metadata.utils.EntityKeyUtils;
 import com.linkedin.metadata.utils.GenericRecordUtils;
+import com.linkedin.metadata.utils.metrics.MetricUtils;
 import com.linkedin.mxe.GenericAspect;
 import com.linkedin.mxe.MetadataChangeLog;
 import com.linkedin.mxe.MetadataChangeProposal;
+import com.linkedin.util.Pair;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import javax.inject.Singleton;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +72,11 @@ import static com.linkedin.metadata.Constants.*;
 
 /**
  * This hook associates dbt datasets with their sibling entities
+ *
+ * Events are processed in micro-batches of the events of a poll, when the hook is flushed: the counterparts of
+ * re-ingested keys are resolved with one search per batch, the aspects needed to associate siblings are fetched in
+ * bulk, and each dataset gets at most one Siblings proposal per batch. The proposals of a batch are ingested together,
+ * and only the ones that fail are retried.
  */
 @Slf4j
 @Component
@@ -60,31 +88,57 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
   public static final String DBT_PLATFORM_NAME = "dbt";
   public static final String SOURCE_SUBTYPE = "source";
 
+  private static final long DEFAULT_LOOKUP_CACHE_TTL_SECONDS = 60;
+  private static final int MAX_SIBLINGS_PER_KEY = 10;
+  private static final int MAX_INGEST_ATTEMPTS = 3;
+  private static final long INGEST_RETRY_BACKOFF_MILLIS = 100;
+
   private final EntityRegistry _entityRegistry;
   private final EntityService _entityService;
   private final SearchService _searchService;
+  // Entities having a dataset as sibling, empty when there is none
+  private final Cache<Urn, List<Urn>> _entitiesWithYouAsSiblingCache;
+  // Events of the poll being processed by each listener thread, which invokes and then flushes the hook
+  private final ThreadLocal<List<PendingEvent>> _pendingEvents = ThreadLocal.withInitial(ArrayList::new);
 
-  @Autowired
   public SiblingAssociationHook(
       @Nonnull final EntityRegistry entityRegistry,
       @Nonnull final EntityService entityService,
       @Nonnull final SearchService searchService
+  ) {
+    this(entityRegistry, entityService, searchService, DEFAULT_LOOKUP_CACHE_TTL_SECONDS);
+  }
+
+  @Autowired
+  public SiblingAssociationHook(
+      @Nonnull final EntityRegistry entityRegistry,
+      @Nonnull final EntityService entityService,
+      @Nonnull final SearchService searchService,
+      @Value("${siblings.lookupCacheTtlSeconds:60}") final long lookupCacheTtlSeconds
   ) {
     _entityRegistry = entityRegistry;
     _entityService = entityService;
     _searchService = searchService;
+    _entitiesWithYouAsSiblingCache = CacheBuilder.newBuilder()
+        .maximumSize(10000)
+        .expireAfterWrite(lookupCacheTtlSeconds, TimeUnit.SECONDS)
+        .build();
   }
 
   @Value("${siblings.enabled:false}")
   private Boolean enabled;
 
+  @Value("${siblings.batchSize:100}")
+  private Integer batchSize;
+
   @VisibleForTesting
   void setEnabled(Boolean newValue) {
     enabled = newValue;
   }
 
-  @Override
-  public void init() {
+  @VisibleForTesting
+  void setBatchSize(Integer newValue) {
+    batchSize = newValue;
   }
 
   @Override
@@ -103,64 +157,92 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
         throw new RuntimeException("Failed to parse entity urn, skipping processing.", e);
       }
 
-      // if we are seeing the key, this means the entity may have been deleted and re-ingested
-      // in this case we want to re-create its siblings aspects
-      if (event.getAspectName().equals(DATASET_KEY_ASPECT_NAME)) {
-        handleEntityKeyEvent(datasetUrn);
-      } else if (datasetUrn.getPlatformEntity().getPlatformNameEntity().equals(DBT_PLATFORM_NAME)) {
-        handleDbtDatasetEvent(event, datasetUrn);
-      } else {
-        handleSourceDatasetEvent(event, datasetUrn);
+      _pendingEvents.get().add(new PendingEvent(event, datasetUrn));
+    }
+  }
+
+  /**
+   * Processes the events the calling thread received since its last flush, in batches of up to batchSize events.
+   * Failures to read the current siblings are thrown so that the events are consumed again, rather than dropped.
+   * Proposals that still fail to be ingested once retried are logged and counted, and are derived again the next time
+   * either dataset is ingested.
+   */
+  @Override
+  public void flush() {
+    final List<PendingEvent> events = new ArrayList<>(_pendingEvents.get());
+    _pendingEvents.get().clear();
+    for (List<PendingEvent> batch : Lists.partition(events, batchSize)) {
+      try (Timer.Context ignored = MetricUtils.timer(this.getClass(), "flush").time()) {
+        MetricUtils.get().histogram(MetricRegistry.name(this.getClass(), "batchSize")).update(batch.size());
+        processBatch(batch);
       }
     }
   }
 
-  private void handleEntityKeyEvent(DatasetUrn datasetUrn) {
-    Filter entitiesWithYouAsSiblingFilter = createFilterForEntitiesWithYouAsSibling(datasetUrn);
-    final SearchResult searchResult = _searchService.search(
-        "dataset",
-        "*",
-        entitiesWithYouAsSiblingFilter,
-        null,
-        0,
-        10,
-        null);
+  private void processBatch(List<PendingEvent> events) {
+    // if we are seeing the key, this means the entity may have been deleted and re-ingested
+    // in this case we want to re-create its siblings aspects
+    final Map<Urn, List<Urn>> entitiesWithYouAsSibling = getEntitiesWithYouAsSibling(events.stream()
+        .filter(pendingEvent -> pendingEvent.getEvent().getAspectName().equals(DATASET_KEY_ASPECT_NAME))
+        .<Urn>map(PendingEvent::getDatasetUrn)
+        .collect(Collectors.toSet()));
+
+    // dbt datasets need both UpstreamLineage & Subtypes to determine whether to associate, fetch the ones missing
+    // from the events
+    final Set<Urn> dbtUrns = events.stream()
+        .filter(pendingEvent -> !pendingEvent.getEvent().getAspectName().equals(DATASET_KEY_ASPECT_NAME))
+        .map(PendingEvent::getDatasetUrn)
+        .filter(SiblingAssociationHook::isDbtDataset)
+        .map(Urn.class::cast)
+        .collect(Collectors.toSet());
+    final Map<Urn, List<RecordTemplate>> dbtAspects = dbtUrns.isEmpty() ? Collections.emptyMap()
+        : _entityService.getLatestAspects(dbtUrns, ImmutableSet.of(UPSTREAM_LINEAGE_ASPECT_NAME, SUB_TYPES_ASPECT_NAME));
+
+    final List<Pair<Urn, Urn>> associations = new ArrayList<>();
+    for (PendingEvent pendingEvent : events) {
+      final DatasetUrn datasetUrn = pendingEvent.getDatasetUrn();
+      if (pendingEvent.getEvent().getAspectName().equals(DATASET_KEY_ASPECT_NAME)) {
+        handleEntityKeyEvent(datasetUrn, entitiesWithYouAsSibling.getOrDefault(datasetUrn, Collections.emptyList()),
+            associations);
+      } else if (isDbtDataset(datasetUrn)) {
+        handleDbtDatasetEvent(pendingEvent.getEvent(), datasetUrn,
+            dbtAspects.getOrDefault(datasetUrn, Collections.emptyList()), associations);
+      } else {
+        handleSourceDatasetEvent(pendingEvent.getEvent(), datasetUrn, associations);
+      }
+    }
+    setSiblingsAndSoftDeleteSiblings(associations);
+  }
 
+  private void handleEntityKeyEvent(DatasetUrn datasetUrn, List<Urn> entitiesWithYouAsSibling,
+      List<Pair<Urn, Urn>> associations) {
     // we have a match of an entity with you as a sibling, associate yourself back
-    searchResult.getEntities().forEach(entity -> {
-      if (!entity.getEntity().equals(datasetUrn)) {
-        if (datasetUrn.getPlatformEntity().getPlatformNameEntity().equals(DBT_PLATFORM_NAME)) {
-          setSiblingsAndSoftDeleteSibling(datasetUrn, searchResult.getEntities().get(0).getEntity());
+    entitiesWithYouAsSibling.forEach(entity -> {
+      if (!entity.equals(datasetUrn)) {
+        if (isDbtDataset(datasetUrn)) {
+          associations.add(Pair.of(datasetUrn, entitiesWithYouAsSibling.get(0)));
         } else {
-          setSiblingsAndSoftDeleteSibling(searchResult.getEntities().get(0).getEntity(), datasetUrn);
+          associations.add(Pair.of(entitiesWithYouAsSibling.get(0), datasetUrn));
         }
       }
     });
   }
 
   // If the upstream is a single source system node & subtype is source, then associate the upstream as your sibling
-  private void handleDbtDatasetEvent(MetadataChangeLog event, DatasetUrn datasetUrn) {
+  private void handleDbtDatasetEvent(MetadataChangeLog event, DatasetUrn datasetUrn, List<RecordTemplate> latestAspects,
+      List<Pair<Urn, Urn>> associations) {
     // we need both UpstreamLineage & Subtypes to determine whether to associate
     UpstreamLineage upstreamLineage = null;
     SubTypes subTypesAspectOfEntity = null;
 
     if (event.getAspectName().equals(UPSTREAM_LINEAGE_ASPECT_NAME)) {
       upstreamLineage = getUpstreamLineageFromEvent(event);
-      subTypesAspectOfEntity =
-          (SubTypes) _entityService.getLatestAspect(
-              datasetUrn,
-              SUB_TYPES_ASPECT_NAME
-          );
-
+      subTypesAspectOfEntity = getAspect(latestAspects, SubTypes.class);
     }
 
     if (event.getAspectName().equals(SUB_TYPES_ASPECT_NAME)) {
       subTypesAspectOfEntity = getSubtypesFromEvent(event);
-      upstreamLineage =
-          (UpstreamLineage) _entityService.getLatestAspect(
-              datasetUrn,
-              UPSTREAM_LINEAGE_ASPECT_NAME
-          );
+      upstreamLineage = getAspect(latestAspects, UpstreamLineage.class);
     }
 
     if (
@@ -174,13 +256,14 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
       if (
           upstreams.size() == 1
               && !upstreams.get(0).getDataset().getPlatformEntity().getPlatformNameEntity().equals(DBT_PLATFORM_NAME)) {
-        setSiblingsAndSoftDeleteSibling(datasetUrn, upstreams.get(0).getDataset());
+        associations.add(Pair.of(datasetUrn, upstreams.get(0).getDataset()));
       }
     }
   }
 
   // if the dataset is not dbt--- it may be produced by a dbt dataset. If so, associate them as siblings
-  private void handleSourceDatasetEvent(MetadataChangeLog event, DatasetUrn sourceUrn) {
+  private void handleSourceDatasetEvent(MetadataChangeLog event, DatasetUrn sourceUrn,
+      List<Pair<Urn, Urn>> associations) {
     if (event.getAspectName().equals(UPSTREAM_LINEAGE_ASPECT_NAME)) {
       UpstreamLineage upstreamLineage = getUpstreamLineageFromEvent(event);
       if (upstreamLineage != null && upstreamLineage.hasUpstreams()) {
@@ -188,80 +271,178 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
         if (
             upstreams.size() == 1
                 && upstreams.get(0).getDataset().getPlatformEntity().getPlatformNameEntity().equals(DBT_PLATFORM_NAME)) {
-          setSiblingsAndSoftDeleteSibling(upstreams.get(0).getDataset(), sourceUrn);
+          associations.add(Pair.of(upstreams.get(0).getDataset(), sourceUrn));
         }
       }
     }
   }
 
-  private void setSiblingsAndSoftDeleteSibling(Urn dbtUrn, Urn sourceUrn) {
-    Siblings existingDbtSiblingAspect =
-        (Siblings) _entityService.getLatestAspect(dbtUrn, SIBLINGS_ASPECT_NAME);
-    Siblings existingSourceSiblingAspect =
-        (Siblings) _entityService.getLatestAspect(sourceUrn, SIBLINGS_ASPECT_NAME);
-
-    log.info("Associating {} and {} as siblings.", dbtUrn.toString(), sourceUrn.toString());
-
-    if (
-        existingDbtSiblingAspect != null
-            && existingSourceSiblingAspect != null
-            && existingDbtSiblingAspect.getSiblings().contains(sourceUrn.toString())
-            && existingDbtSiblingAspect.getSiblings().contains(dbtUrn.toString())
-    ) {
-      // we have already connected them- we can abort here
+  /**
+   * Associates each (dbt, source) pair as siblings. Associations are applied in order on the latest Siblings aspects,
+   * and the final Siblings aspect of every updated dataset is ingested once.
+   */
+  private void setSiblingsAndSoftDeleteSiblings(List<Pair<Urn, Urn>> associations) {
+    if (associations.isEmpty()) {
       return;
     }
+    final Set<Urn> urns = new HashSet<>();
+    associations.forEach(association -> {
+      urns.add(association.getFirst());
+      urns.add(association.getSecond());
+    });
+    final Map<Urn, Siblings> siblingsAspects = new HashMap<>();
+    _entityService.getLatestAspects(urns, ImmutableSet.of(SIBLINGS_ASPECT_NAME))
+        .forEach((urn, aspects) -> {
+          Siblings siblings = getAspect(aspects, Siblings.class);
+          if (siblings != null) {
+            siblingsAspects.put(urn, siblings);
+          }
+        });
 
-    AuditStamp auditStamp = getAuditStamp();
+    // clean up any references to stale siblings that have been deleted
+    final Set<Urn> siblingCandidates = new HashSet<>();
+    associations.forEach(association -> {
+      siblingCandidates.add(association.getFirst());
+      Siblings existingSourceSiblingAspect = siblingsAspects.get(association.getSecond());
+      if (existingSourceSiblingAspect != null && existingSourceSiblingAspect.hasSiblings()) {
+        siblingCandidates.addAll(existingSourceSiblingAspect.getSiblings());
+      }
+    });
+    final Set<Urn> existingUrns = _entityService.getExistingUrns(siblingCandidates);
 
-    // set source as a sibling of dbt
-    Siblings dbtSiblingAspect = new Siblings();
-    dbtSiblingAspect.setSiblings(new UrnArray(ImmutableList.of(sourceUrn)));
-    dbtSiblingAspect.setPrimary(true);
+    final Map<Urn, Siblings> updatedSiblingsAspects = new LinkedHashMap<>();
+    for (Pair<Urn, Urn> association : associations) {
+      final Urn dbtUrn = association.getFirst();
+      final Urn sourceUrn = association.getSecond();
+      Siblings existingDbtSiblingAspect = siblingsAspects.get(dbtUrn);
+      Siblings existingSourceSiblingAspect = siblingsAspects.get(sourceUrn);
 
-    MetadataChangeProposal dbtSiblingProposal = new MetadataChangeProposal();
-    GenericAspect dbtSiblingAspectSerialized = GenericRecordUtils.serializeAspect(dbtSiblingAspect);
+      log.info("Associating {} and {} as siblings.", dbtUrn.toString(), sourceUrn.toString());
 
-    dbtSiblingProposal.setAspect(dbtSiblingAspectSerialized);
-    dbtSiblingProposal.setAspectName(SIBLINGS_ASPECT_NAME);
-    dbtSiblingProposal.setEntityType(DATASET_ENTITY_NAME);
-    dbtSiblingProposal.setChangeType(ChangeType.UPSERT);
-    dbtSiblingProposal.setEntityUrn(dbtUrn);
+      if (
+          existingDbtSiblingAspect != null
+              && existingSourceSiblingAspect != null
+              && existingDbtSiblingAspect.getSiblings().contains(sourceUrn.toString())
+              && existingDbtSiblingAspect.getSiblings().contains(dbtUrn.toString())
+      ) {
+        // we have already connected them- we can abort here
+        continue;
+      }
 
-    _entityService.ingestProposal(dbtSiblingProposal, auditStamp);
+      // set source as a sibling of dbt
+      Siblings dbtSiblingAspect = new Siblings();
+      dbtSiblingAspect.setSiblings(new UrnArray(ImmutableList.of(sourceUrn)));
+      dbtSiblingAspect.setPrimary(true);
+      siblingsAspects.put(dbtUrn, dbtSiblingAspect);
+      updatedSiblingsAspects.put(dbtUrn, dbtSiblingAspect);
+
+      // set dbt as a sibling of source
+      Siblings sourceSiblingAspect = new Siblings();
+      if (existingSourceSiblingAspect != null) {
+        sourceSiblingAspect = existingSourceSiblingAspect;
+      }
 
-    // set dbt as a sibling of source
+      UrnArray newSiblingsUrnArray =
+          sourceSiblingAspect.hasSiblings() ? sourceSiblingAspect.getSiblings() : new UrnArray();
+      if (!newSiblingsUrnArray.contains(dbtUrn)) {
+        newSiblingsUrnArray.add(dbtUrn);
+      }
 
-    Siblings sourceSiblingAspect = new Siblings();
-    if (existingSourceSiblingAspect != null) {
-      sourceSiblingAspect = existingSourceSiblingAspect;
-    }
+      List<Urn> filteredNewSiblingsArray =
+          newSiblingsUrnArray.stream().filter(existingUrns::contains).collect(Collectors.toList());
 
-    UrnArray newSiblingsUrnArray =
-        sourceSiblingAspect.hasSiblings() ? sourceSiblingAspect.getSiblings() : new UrnArray();
-    if (!newSiblingsUrnArray.contains(dbtUrn)) {
-      newSiblingsUrnArray.add(dbtUrn);
+      sourceSiblingAspect.setSiblings(new UrnArray(filteredNewSiblingsArray));
+      sourceSiblingAspect.setPrimary(false);
+      siblingsAspects.put(sourceUrn, sourceSiblingAspect);
+      updatedSiblingsAspects.put(sourceUrn, sourceSiblingAspect);
     }
 
-    // clean up any references to stale siblings that have been deleted
-    List<Urn> filteredNewSiblingsArray =
-        newSiblingsUrnArray.stream().filter(urn -> _entityService.exists(urn)).collect(Collectors.toList());
+    final List<MetadataChangeProposal> siblingProposals = new ArrayList<>(updatedSiblingsAspects.size());
+    updatedSiblingsAspects.forEach((urn, siblings) -> {
+      MetadataChangeProposal siblingProposal = new MetadataChangeProposal();
+      siblingProposal.setAspect(GenericRecordUtils.serializeAspect(siblings));
+      siblingProposal.setAspectName(SIBLINGS_ASPECT_NAME);
+      siblingProposal.setEntityType(DATASET_ENTITY_NAME);
+      siblingProposal.setChangeType(ChangeType.UPSERT);
+      siblingProposal.setEntityUrn(urn);
+      siblingProposals.add(siblingProposal);
+    });
+    ingestSiblingProposals(siblingProposals);
+  }
 
-    sourceSiblingAspect.setSiblings(new UrnArray(filteredNewSiblingsArray));
-    sourceSiblingAspect.setPrimary(false);
+  /**
+   * Ingests the given proposals in a single call, retrying the ones that failed with a linear backoff.
+   */
+  private void ingestSiblingProposals(List<MetadataChangeProposal> proposals) {
+    List<MetadataChangeProposal> failedProposals = proposals;
+    for (int attempt = 1; !failedProposals.isEmpty(); attempt++) {
+      failedProposals = _entityService.ingestProposals(failedProposals, getAuditStamp());
+      if (failedProposals.isEmpty() || attempt == MAX_INGEST_ATTEMPTS) {
+        break;
+      }
+      try {
+        Thread.sleep(INGEST_RETRY_BACKOFF_MILLIS * attempt);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    if (!failedProposals.isEmpty()) {
+      MetricUtils.counter(this.getClass(), "ingestFailures").inc(failedProposals.size());
+      log.error("Failed to ingest the siblings of {} datasets: {}", failedProposals.size(), failedProposals.stream()
+          .map(MetadataChangeProposal::getEntityUrn)
+          .collect(Collectors.toList()));
+    }
+  }
 
-    MetadataChangeProposal sourceSiblingProposal = new MetadataChangeProposal();
-    GenericAspect sourceSiblingAspectSerialized = GenericRecordUtils.serializeAspect(sourceSiblingAspect);
+  /**
+   * Finds the entities having each of the input datasets as a sibling, with a single search for the datasets that are
+   * not cached.
+   */
+  private Map<Urn, List<Urn>> getEntitiesWithYouAsSibling(Set<Urn> datasetUrns) {
+    final Map<Urn, List<Urn>> result = new HashMap<>(_entitiesWithYouAsSiblingCache.getAllPresent(datasetUrns));
+    final Set<Urn> missingUrns = ImmutableSet.copyOf(Sets.difference(datasetUrns, result.keySet()));
+    if (missingUrns.isEmpty()) {
+      return result;
+    }
 
-    sourceSiblingProposal.setAspect(sourceSiblingAspectSerialized);
-    sourceSiblingProposal.setAspectName(SIBLINGS_ASPECT_NAME);
-    sourceSiblingProposal.setEntityType(DATASET_ENTITY_NAME);
-    sourceSiblingProposal.setChangeType(ChangeType.UPSERT);
-    sourceSiblingProposal.setEntityUrn(sourceUrn);
+    final SearchResult searchResult = _searchService.search(
+        "dataset",
+        "*",
+        createFilterForEntitiesWithYouAsSibling(missingUrns),
+        null,
+        0,
+        MAX_SIBLINGS_PER_KEY * missingUrns.size(),
+        null);
+    final List<Urn> entities =
+        searchResult.getEntities().stream().map(SearchEntity::getEntity).collect(Collectors.toList());
+
+    // map the entities back to the datasets they have as siblings, preserving the search order
+    final Map<Urn, List<RecordTemplate>> siblingsAspects = entities.isEmpty() ? Collections.emptyMap()
+        : _entityService.getLatestAspects(new HashSet<>(entities), ImmutableSet.of(SIBLINGS_ASPECT_NAME));
+    missingUrns.forEach(urn -> result.put(urn, new ArrayList<>()));
+    for (Urn entity : entities) {
+      Siblings siblings = getAspect(siblingsAspects.getOrDefault(entity, Collections.emptyList()), Siblings.class);
+      if (siblings == null || !siblings.hasSiblings()) {
+        continue;
+      }
+      siblings.getSiblings().stream()
+          .filter(missingUrns::contains)
+          .distinct()
+          .forEach(urn -> result.get(urn).add(entity));
+    }
+    missingUrns.forEach(urn -> _entitiesWithYouAsSiblingCache.put(urn, result.get(urn)));
+    return result;
+  }
 
-    _entityService.ingestProposal(sourceSiblingProposal, auditStamp);
+  private static boolean isDbtDataset(DatasetUrn urn) {
+    return urn.getPlatformEntity().getPlatformNameEntity().equals(DBT_PLATFORM_NAME);
   }
 
+  @Nullable
+  private static <T extends RecordTemplate> T getAspect(List<RecordTemplate> aspects, Class<T> aspectClass) {
+    return aspects.stream().filter(aspectClass::isInstance).map(aspectClass::cast).findFirst().orElse(null);
+  }
 
   /**
    * Returns true if the event should be processed, which is only true if the event represents a dataset for now
@@ -340,7 +521,7 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
   }
 
   private Filter createFilterForEntitiesWithYouAsSibling(
-      final Urn entityUrn
+      final Set<Urn> entityUrns
   ) {
     final Filter filter = new Filter();
     final ConjunctiveCriterionArray disjunction = new ConjunctiveCriterionArray();
@@ -350,7 +531,8 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
 
     final Criterion urnCriterion = new Criterion();
     urnCriterion.setField("siblings.keyword");
-    urnCriterion.setValue(entityUrn.toString());
+    urnCriterion.setValue("");
+    urnCriterion.setValues(new StringArray(entityUrns.stream().map(Urn::toString).collect(Collectors.toList())));
     urnCriterion.setCondition(Condition.EQUAL);
     andCriterion.add(urnCriterion);
 
@@ -362,4 +544,13 @@ public class SiblingAssociationHook implements MetadataChangeLogHook {
     return filter;
   }
 
+  /**
+   * An event waiting for its batch to be processed, along with the urn of its dataset
+   */
+  @Getter
+  @RequiredArgsConstructor
+  private static class PendingEvent {
+    private final MetadataChangeLog event;
+    private final DatasetUrn datasetUrn;
+  }
 }
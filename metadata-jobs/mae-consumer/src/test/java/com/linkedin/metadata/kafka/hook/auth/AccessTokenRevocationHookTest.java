@@ -0,0 +1,48 @@
+package com.linkedin.metadata.kafka.hook.auth;
+
+import com.datahub.authentication.token.StatefulTokenService;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.events.metadata.ChangeType;
+import com.linkedin.metadata.models.registry.ConfigEntityRegistry;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.mxe.MetadataChangeLog;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.Constants.*;
+
+
+public class AccessTokenRevocationHookTest {
+  private AccessTokenRevocationHook _accessTokenRevocationHook;
+
+  @BeforeMethod
+  public void setupTest() {
+    EntityRegistry registry = new ConfigEntityRegistry(
+        AccessTokenRevocationHookTest.class.getClassLoader().getResourceAsStream("test-entity-registry.yml"));
+    StatefulTokenService mockTokenService = Mockito.mock(StatefulTokenService.class);
+    _accessTokenRevocationHook = new AccessTokenRevocationHook(registry, mockTokenService);
+  }
+
+  @Test
+  public void testInvokeDeleteKeyAspect() throws Exception {
+    MetadataChangeLog event = new MetadataChangeLog();
+    event.setEntityType(ACCESS_TOKEN_ENTITY_NAME);
+    event.setAspectName(ACCESS_TOKEN_KEY_ASPECT_NAME);
+    event.setChangeType(ChangeType.DELETE);
+    event.setEntityUrn(Urn.createFromTuple(ACCESS_TOKEN_ENTITY_NAME, "tokenHash"));
+    _accessTokenRevocationHook.invoke(event);
+    Mockito.verify(_accessTokenRevocationHook.tokenService(), Mockito.times(1)).invalidateAccessToken("tokenHash");
+  }
+
+  @Test
+  public void testInvokeUpsertInfoAspect() throws Exception {
+    MetadataChangeLog event = new MetadataChangeLog();
+    event.setEntityType(ACCESS_TOKEN_ENTITY_NAME);
+    event.setAspectName(ACCESS_TOKEN_INFO_NAME);
+    event.setChangeType(ChangeType.UPSERT);
+    event.setEntityUrn(Urn.createFromTuple(ACCESS_TOKEN_ENTITY_NAME, "tokenHash"));
+    _accessTokenRevocationHook.invoke(event);
+    Mockito.verifyZeroInteractions(_accessTokenRevocationHook.tokenService());
+  }
+}
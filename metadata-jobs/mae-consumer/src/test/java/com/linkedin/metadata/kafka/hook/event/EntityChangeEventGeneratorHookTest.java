@@ -28,6 +28,8 @@ import com.linkedin.domain.Domains;
 import com.linkedin.entity.client.EntityClient;
 import com.linkedin.entity.client.RestliEntityClient;
 import com.linkedin.events.metadata.ChangeType;
+import com.linkedin.metadata.EventUtils;
+import com.linkedin.metadata.dao.producer.KafkaEventProducer;
 import com.linkedin.metadata.key.DatasetKey;
 import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.models.EntitySpec;
@@ -46,15 +48,28 @@ import com.linkedin.metadata.utils.GenericRecordUtils;
 import com.linkedin.mxe.MetadataChangeLog;
 import com.linkedin.mxe.PlatformEvent;
 import com.linkedin.mxe.PlatformEventHeader;
+import com.linkedin.mxe.TopicConventionImpl;
 import com.linkedin.platform.event.v1.EntityChangeEvent;
 import com.linkedin.platform.event.v1.Parameters;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.avro.generic.GenericRecord;
+import org.apache.avro.generic.IndexedRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.testng.annotations.BeforeMethod;
 
 import org.testng.annotations.Test;
 
 import static com.linkedin.metadata.Constants.*;
+import static org.testng.Assert.*;
 
 
 /**
@@ -564,6 +579,119 @@ public class EntityChangeEventGeneratorHookTest {
     Mockito.verifyNoMoreInteractions(_mockClient);
   }
 
+  @Test
+  public void testProducesChangeEventsOfOneMclAsOneKafkaBatch() throws Exception {
+    final MetadataChangeLog event = createAddTagsEvent(TEST_DATASET_URN, "Test1", "Test2", "Test3");
+
+    // Through the Metadata Service, each change event is a separate request
+    _entityChangeEventHook.invoke(event);
+    final ArgumentCaptor<PlatformEvent> restEvents = ArgumentCaptor.forClass(PlatformEvent.class);
+    Mockito.verify(_mockClient, Mockito.times(3)).producePlatformEvent(
+        Mockito.eq(CHANGE_EVENT_PLATFORM_EVENT_NAME),
+        Mockito.eq(CHANGE_EVENT_PLATFORM_EVENT_NAME + "-" + TEST_DATASET_URN),
+        restEvents.capture(),
+        Mockito.any(Authentication.class));
+
+    // Straight to Kafka, they are sent as one batch, in the same order, without any request to the Metadata Service
+    final RestliEntityClient kafkaHookClient = Mockito.mock(RestliEntityClient.class);
+    final MockProducer<String, IndexedRecord> producer =
+        new MockProducer<String, IndexedRecord>(true, new StringSerializer(), (topic, record) -> new byte[0]);
+    createKafkaHook(kafkaHookClient, producer).invoke(event);
+
+    Mockito.verifyZeroInteractions(kafkaHookClient);
+    assertEquals(producer.history().size(), 3);
+    assertTrue(producer.history().stream()
+        .allMatch(record -> record.key().equals(CHANGE_EVENT_PLATFORM_EVENT_NAME + "-" + TEST_DATASET_URN)));
+    assertEquals(getModifiers(producer.history()), restEvents.getAllValues().stream()
+        .map(platformEvent -> GenericRecordUtils.deserializePayload(platformEvent.getPayload().getValue(),
+            platformEvent.getPayload().getContentType(), EntityChangeEvent.class).getModifier())
+        .collect(Collectors.toList()));
+  }
+
+  @Test
+  public void testAcknowledgesKafkaBatchBeforeReturning() throws Exception {
+    final MockProducer<String, IndexedRecord> producer =
+        new MockProducer<String, IndexedRecord>(false, new StringSerializer(), (topic, record) -> new byte[0]);
+    final EntityChangeEventGeneratorHook hook = createKafkaHook(Mockito.mock(RestliEntityClient.class), producer);
+
+    final CompletableFuture<Void> invocation = CompletableFuture.runAsync(() -> {
+      try {
+        hook.invoke(createAddTagsEvent(TEST_DATASET_URN, "Test1", "Test2"));
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+
+    // The hook does not return, so the offset of the MCL is not committed, until every send is acknowledged
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+    while (producer.history().size() < 2 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(producer.history().size(), 2);
+    assertTrue(producer.completeNext());
+    Thread.sleep(50);
+    assertFalse(invocation.isDone());
+    assertTrue(producer.completeNext());
+    invocation.get(10, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testKeepsChangeEventsOrderedPerUrn() throws Exception {
+    final String otherDatasetUrn = "urn:li:dataset:(urn:li:dataPlatform:kafka,OtherDataset,PROD)";
+    final MockProducer<String, IndexedRecord> producer =
+        new MockProducer<String, IndexedRecord>(true, new StringSerializer(), (topic, record) -> new byte[0]);
+    final EntityChangeEventGeneratorHook hook = createKafkaHook(Mockito.mock(RestliEntityClient.class), producer);
+
+    hook.invoke(createAddTagsEvent(TEST_DATASET_URN, "Test1"));
+    hook.invoke(createAddTagsEvent(otherDatasetUrn, "Test2"));
+    hook.invoke(createAddTagsEvent(TEST_DATASET_URN, "Test3"));
+
+    final List<ProducerRecord<String, IndexedRecord>> datasetRecords = producer.history().stream()
+        .filter(record -> record.key().equals(CHANGE_EVENT_PLATFORM_EVENT_NAME + "-" + TEST_DATASET_URN))
+        .collect(Collectors.toList());
+    final List<ProducerRecord<String, IndexedRecord>> otherDatasetRecords = producer.history().stream()
+        .filter(record -> record.key().equals(CHANGE_EVENT_PLATFORM_EVENT_NAME + "-" + otherDatasetUrn))
+        .collect(Collectors.toList());
+    assertEquals(getModifiers(datasetRecords), ImmutableList.of("urn:li:tag:Test1", "urn:li:tag:Test3"));
+    assertEquals(getModifiers(otherDatasetRecords), ImmutableList.of("urn:li:tag:Test2"));
+  }
+
+  private EntityChangeEventGeneratorHook createKafkaHook(RestliEntityClient mockClient,
+      MockProducer<String, IndexedRecord> producer) {
+    return new EntityChangeEventGeneratorHook(
+        createAspectDifferRegistry(),
+        mockClient,
+        Mockito.mock(Authentication.class),
+        createMockEntityRegistry(),
+        new KafkaEventProducer(producer, new TopicConventionImpl()),
+        false);
+  }
+
+  private MetadataChangeLog createAddTagsEvent(String entityUrn, String... tagNames) throws Exception {
+    final List<TagAssociation> tags = new ArrayList<>();
+    for (String tagName : tagNames) {
+      tags.add(new TagAssociation().setTag(new TagUrn(tagName)));
+    }
+    MetadataChangeLog event = new MetadataChangeLog();
+    event.setEntityType(DATASET_ENTITY_NAME);
+    event.setAspectName(GLOBAL_TAGS_ASPECT_NAME);
+    event.setChangeType(ChangeType.UPSERT);
+    event.setAspect(GenericRecordUtils.serializeAspect(new GlobalTags().setTags(new TagAssociationArray(tags))));
+    event.setEntityUrn(Urn.createFromString(entityUrn));
+    event.setCreated(new AuditStamp().setActor(Urn.createFromString(TEST_ACTOR_URN)).setTime(123L));
+    return event;
+  }
+
+  private List<String> getModifiers(List<ProducerRecord<String, IndexedRecord>> records) throws Exception {
+    final List<String> modifiers = new ArrayList<>();
+    for (ProducerRecord<String, IndexedRecord> record : records) {
+      final PlatformEvent platformEvent = EventUtils.avroToPegasusPE((GenericRecord) record.value());
+      modifiers.add(GenericRecordUtils.deserializePayload(platformEvent.getPayload().getValue(),
+          platformEvent.getPayload().getContentType(), EntityChangeEvent.class).getModifier());
+    }
+    return modifiers;
+  }
+
   private PlatformEvent createChangeEvent(
       String entityType,
       Urn entityUrn,
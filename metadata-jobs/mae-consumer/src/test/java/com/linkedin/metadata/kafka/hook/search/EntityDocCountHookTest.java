@@ -0,0 +1,81 @@
+package com.linkedin.metadata.kafka.hook.search;
+
+import com.linkedin.common.urn.Urn;
+import com.linkedin.events.metadata.ChangeType;
+import com.linkedin.ingestion.DataHubIngestionSourceInfo;
+import com.linkedin.metadata.key.DataHubIngestionSourceKey;
+import com.linkedin.metadata.models.registry.ConfigEntityRegistry;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.search.cache.EntityDocCountCache;
+import com.linkedin.metadata.utils.GenericRecordUtils;
+import com.linkedin.mxe.MetadataChangeLog;
+import org.mockito.Mockito;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static com.linkedin.metadata.Constants.*;
+
+
+public class EntityDocCountHookTest {
+  private EntityDocCountCache _mockEntityDocCountCache;
+  private EntityDocCountHook _entityDocCountHook;
+
+  @BeforeMethod
+  public void setupTest() {
+    EntityRegistry registry = new ConfigEntityRegistry(
+        EntityDocCountHookTest.class.getClassLoader().getResourceAsStream("test-entity-registry.yml"));
+    _mockEntityDocCountCache = Mockito.mock(EntityDocCountCache.class);
+    _entityDocCountHook = new EntityDocCountHook(registry, _mockEntityDocCountCache);
+    _entityDocCountHook.setEnabled(true);
+  }
+
+  @Test
+  public void testInvokeCreateKeyAspect() throws Exception {
+    MetadataChangeLog event = buildKeyAspectEvent(ChangeType.UPSERT);
+    _entityDocCountHook.invoke(event);
+    Mockito.verify(_mockEntityDocCountCache, Mockito.times(1)).applyDelta(INGESTION_SOURCE_ENTITY_NAME, 1);
+  }
+
+  @Test
+  public void testInvokeUpdateKeyAspect() throws Exception {
+    MetadataChangeLog event = buildKeyAspectEvent(ChangeType.UPSERT);
+    event.setPreviousAspectValue(GenericRecordUtils.serializeAspect(new DataHubIngestionSourceKey().setId("0")));
+    _entityDocCountHook.invoke(event);
+    Mockito.verifyZeroInteractions(_mockEntityDocCountCache);
+  }
+
+  @Test
+  public void testInvokeDeleteKeyAspect() throws Exception {
+    MetadataChangeLog event = buildKeyAspectEvent(ChangeType.DELETE);
+    _entityDocCountHook.invoke(event);
+    Mockito.verify(_mockEntityDocCountCache, Mockito.times(1)).applyDelta(INGESTION_SOURCE_ENTITY_NAME, -1);
+  }
+
+  @Test
+  public void testInvokeNonKeyAspect() throws Exception {
+    MetadataChangeLog event = buildKeyAspectEvent(ChangeType.UPSERT);
+    event.setAspectName(INGESTION_INFO_ASPECT_NAME);
+    event.setAspect(GenericRecordUtils.serializeAspect(new DataHubIngestionSourceInfo()));
+    _entityDocCountHook.invoke(event);
+    Mockito.verifyZeroInteractions(_mockEntityDocCountCache);
+  }
+
+  @Test
+  public void testInvokeDisabled() throws Exception {
+    _entityDocCountHook.setEnabled(false);
+    _entityDocCountHook.invoke(buildKeyAspectEvent(ChangeType.DELETE));
+    Mockito.verifyZeroInteractions(_mockEntityDocCountCache);
+  }
+
+  private MetadataChangeLog buildKeyAspectEvent(ChangeType changeType) throws Exception {
+    MetadataChangeLog event = new MetadataChangeLog();
+    event.setEntityType(INGESTION_SOURCE_ENTITY_NAME);
+    event.setAspectName(INGESTION_SOURCE_KEY_ASPECT_NAME);
+    event.setChangeType(changeType);
+    event.setEntityUrn(Urn.createFromString("urn:li:dataHubIngestionSource:0"));
+    if (changeType != ChangeType.DELETE) {
+      event.setAspect(GenericRecordUtils.serializeAspect(new DataHubIngestionSourceKey().setId("0")));
+    }
+    return event;
+  }
+}
@@ -1,7 +1,7 @@
 package com.linkedin.metadata.kafka.hook.siblings;
 
 import com.google.common.collect.ImmutableList;
-import com.linkedin.common.AuditStamp;
+import com.google.common.collect.ImmutableMap;
 import com.linkedin.common.FabricType;
 import com.linkedin.common.Siblings;
 import com.linkedin.common.SubTypes;
@@ -9,6 +9,7 @@ import com.linkedin.common.UrnArray;
 import com.linkedin.common.urn.DataPlatformUrn;
 import com.linkedin.common.urn.DatasetUrn;
 import com.linkedin.common.urn.Urn;
+import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.data.template.StringArray;
 import com.linkedin.dataset.DatasetLineageType;
 import com.linkedin.dataset.Upstream;
@@ -19,19 +20,35 @@ import com.linkedin.metadata.entity.EntityService;
 import com.linkedin.metadata.key.DatasetKey;
 import com.linkedin.metadata.models.registry.ConfigEntityRegistry;
 import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.search.SearchEntity;
 import com.linkedin.metadata.search.SearchEntityArray;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.SearchService;
 import com.linkedin.metadata.utils.GenericRecordUtils;
+import com.linkedin.metadata.utils.PegasusUtils;
 import com.linkedin.mxe.MetadataChangeLog;
 import com.linkedin.mxe.MetadataChangeProposal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 import org.mockito.Mockito;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import static com.linkedin.metadata.Constants.*;
 import static org.mockito.ArgumentMatchers.*;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 
 public class SiblingAssociationHookTest {
@@ -47,6 +64,7 @@ public class SiblingAssociationHookTest {
     _mockSearchService = Mockito.mock(SearchService.class);
     _siblingAssociationHook = new SiblingAssociationHook(registry, _mockEntityService, _mockSearchService);
     _siblingAssociationHook.setEnabled(true);
+    _siblingAssociationHook.setBatchSize(1);
   }
 
   @Test
@@ -54,13 +72,11 @@ public class SiblingAssociationHookTest {
     SubTypes mockSourceSubtypesAspect = new SubTypes();
     mockSourceSubtypesAspect.setTypeNames(new StringArray(ImmutableList.of("source")));
 
-    Mockito.when(_mockEntityService.exists(Mockito.any())).thenReturn(true);
+    mockAllUrnsExist(_mockEntityService);
 
-    Mockito.when(
-        _mockEntityService.getLatestAspect(
-            Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"),
-            SUB_TYPES_ASPECT_NAME
-        )).thenReturn(mockSourceSubtypesAspect);
+    mockLatestAspects(_mockEntityService, ImmutableMap.of(
+        Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"),
+        ImmutableList.of(mockSourceSubtypesAspect)));
 
     MetadataChangeLog event = new MetadataChangeLog();
     event.setEntityType(DATASET_ENTITY_NAME);
@@ -78,6 +94,7 @@ public class SiblingAssociationHookTest {
     event.setAspect(GenericRecordUtils.serializeAspect(upstreamLineage));
     event.setEntityUrn(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"));
     _siblingAssociationHook.invoke(event);
+    _siblingAssociationHook.flush();
 
     final Siblings dbtSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)"))))
@@ -90,10 +107,7 @@ public class SiblingAssociationHookTest {
     proposal.setAspect(GenericRecordUtils.serializeAspect(dbtSiblingsAspect));
     proposal.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(1)).ingestProposal(
-        Mockito.eq(proposal),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal), 1);
 
     final Siblings sourceSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"))))
@@ -106,10 +120,7 @@ public class SiblingAssociationHookTest {
     proposal2.setAspect(GenericRecordUtils.serializeAspect(sourceSiblingsAspect));
     proposal2.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(1)).ingestProposal(
-        Mockito.eq(proposal2),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal2), 1);
   }
 
   @Test
@@ -117,13 +128,11 @@ public class SiblingAssociationHookTest {
     SubTypes mockSourceSubtypesAspect = new SubTypes();
     mockSourceSubtypesAspect.setTypeNames(new StringArray(ImmutableList.of("model")));
 
-    Mockito.when(_mockEntityService.exists(Mockito.any())).thenReturn(true);
+    mockAllUrnsExist(_mockEntityService);
 
-    Mockito.when(
-        _mockEntityService.getLatestAspect(
-            Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"),
-            SUB_TYPES_ASPECT_NAME
-        )).thenReturn(mockSourceSubtypesAspect);
+    mockLatestAspects(_mockEntityService, ImmutableMap.of(
+        Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"),
+        ImmutableList.of(mockSourceSubtypesAspect)));
 
     MetadataChangeLog event = new MetadataChangeLog();
     event.setEntityType(DATASET_ENTITY_NAME);
@@ -141,6 +150,7 @@ public class SiblingAssociationHookTest {
     event.setAspect(GenericRecordUtils.serializeAspect(upstreamLineage));
     event.setEntityUrn(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"));
     _siblingAssociationHook.invoke(event);
+    _siblingAssociationHook.flush();
 
     final Siblings dbtSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)"))))
@@ -153,15 +163,12 @@ public class SiblingAssociationHookTest {
     proposal.setAspect(GenericRecordUtils.serializeAspect(dbtSiblingsAspect));
     proposal.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(0)).ingestProposal(
-        Mockito.eq(proposal),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal), 0);
   }
 
   @Test
   public void testInvokeWhenThereIsAPairWithBigqueryDownstreamNode() throws Exception {
-    Mockito.when(_mockEntityService.exists(Mockito.any())).thenReturn(true);
+    mockAllUrnsExist(_mockEntityService);
 
     MetadataChangeLog event = new MetadataChangeLog();
     event.setEntityType(DATASET_ENTITY_NAME);
@@ -179,6 +186,7 @@ public class SiblingAssociationHookTest {
     event.setAspect(GenericRecordUtils.serializeAspect(upstreamLineage));
     event.setEntityUrn(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)"));
     _siblingAssociationHook.invoke(event);
+    _siblingAssociationHook.flush();
 
     final Siblings dbtSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)"))))
@@ -191,10 +199,7 @@ public class SiblingAssociationHookTest {
     proposal.setAspect(GenericRecordUtils.serializeAspect(dbtSiblingsAspect));
     proposal.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(1)).ingestProposal(
-        Mockito.eq(proposal),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal), 1);
 
     final Siblings sourceSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"))))
@@ -207,15 +212,12 @@ public class SiblingAssociationHookTest {
     proposal2.setAspect(GenericRecordUtils.serializeAspect(sourceSiblingsAspect));
     proposal2.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(1)).ingestProposal(
-        Mockito.eq(proposal2),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal2), 1);
   }
 
   @Test
   public void testInvokeWhenThereIsAKeyBeingReingested() throws Exception {
-    Mockito.when(_mockEntityService.exists(Mockito.any())).thenReturn(true);
+    mockAllUrnsExist(_mockEntityService);
 
     SearchResult returnSearchResult = new SearchResult();
     SearchEntityArray returnEntityArray = new SearchEntityArray();
@@ -232,6 +234,12 @@ public class SiblingAssociationHookTest {
             anyString(), anyString(), any(), any(), anyInt(), anyInt(), any()
         )).thenReturn(returnSearchResult);
 
+    // the entity found by the search has the re-ingested dataset as sibling
+    mockLatestAspects(_mockEntityService, ImmutableMap.of(
+        Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"),
+        ImmutableList.of(new Siblings().setPrimary(true).setSiblings(new UrnArray(ImmutableList.of(
+            Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)")))))));
+
     MetadataChangeLog event = new MetadataChangeLog();
     event.setEntityType(DATASET_ENTITY_NAME);
     event.setAspectName(DATASET_KEY_ASPECT_NAME);
@@ -244,6 +252,7 @@ public class SiblingAssociationHookTest {
     event.setAspect(GenericRecordUtils.serializeAspect(datasetKey));
     event.setEntityUrn(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)"));
     _siblingAssociationHook.invoke(event);
+    _siblingAssociationHook.flush();
 
     final Siblings dbtSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:bigquery,my-proj.jaffle_shop.customers,PROD)"))))
@@ -256,10 +265,7 @@ public class SiblingAssociationHookTest {
     proposal.setAspect(GenericRecordUtils.serializeAspect(dbtSiblingsAspect));
     proposal.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(1)).ingestProposal(
-        Mockito.eq(proposal),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal), 1);
 
     final Siblings sourceSiblingsAspect = new Siblings()
         .setSiblings(new UrnArray(ImmutableList.of(Urn.createFromString("urn:li:dataset:(urn:li:dataPlatform:dbt,my-proj.jaffle_shop.customers,PROD)"))))
@@ -272,9 +278,319 @@ public class SiblingAssociationHookTest {
     proposal2.setAspect(GenericRecordUtils.serializeAspect(sourceSiblingsAspect));
     proposal2.setChangeType(ChangeType.UPSERT);
 
-    Mockito.verify(_mockEntityService, Mockito.times(1)).ingestProposal(
-        Mockito.eq(proposal2),
-        Mockito.any(AuditStamp.class)
-    );
+    assertEquals(Collections.frequency(getIngestedProposals(_mockEntityService), proposal2), 1);
+  }
+
+  @Test
+  public void testBatchesProduceTheSameAssociationsWithFewerRemoteCalls() throws Exception {
+    final List<MetadataChangeLog> events = new ArrayList<>();
+    final Map<Urn, Map<String, RecordTemplate>> initialState = new HashMap<>();
+    final SubTypes sourceSubTypes = new SubTypes().setTypeNames(new StringArray(ImmutableList.of(SiblingAssociationHook.SOURCE_SUBTYPE)));
+    for (int i = 0; i < 10; i++) {
+      // dbt sources, every two of them are produced from the same table
+      final Urn dbtUrn = datasetUrn("dbt", "source" + i);
+      initialState.computeIfAbsent(dbtUrn, urn -> new HashMap<>()).put(SUB_TYPES_ASPECT_NAME, sourceSubTypes);
+      events.add(buildUpstreamLineageEvent(dbtUrn, datasetUrn("bigquery", "table" + i / 2)));
+    }
+    for (int i = 0; i < 4; i++) {
+      // tables produced by a dbt model
+      events.add(buildUpstreamLineageEvent(datasetUrn("snowflake", "table" + i), datasetUrn("dbt", "model" + i)));
+    }
+    // a table that was deleted and re-ingested, and a table without siblings
+    initialState.put(datasetUrn("dbt", "restored"), new HashMap<>(ImmutableMap.of(SIBLINGS_ASPECT_NAME,
+        new Siblings().setPrimary(true).setSiblings(new UrnArray(ImmutableList.of(datasetUrn("hive", "restored")))))));
+    events.add(buildKeyEvent(datasetUrn("hive", "restored")));
+    events.add(buildKeyEvent(datasetUrn("hive", "unrelated")));
+
+    final FakeMetadataService oneByOne = new FakeMetadataService(initialState);
+    final SiblingAssociationHook oneByOneHook = oneByOne.buildHook(1);
+    for (MetadataChangeLog event : events) {
+      oneByOneHook.invoke(event);
+    }
+    oneByOneHook.flush();
+
+    final FakeMetadataService batched = new FakeMetadataService(initialState);
+    final SiblingAssociationHook batchedHook = batched.buildHook(events.size());
+    for (MetadataChangeLog event : events) {
+      batchedHook.invoke(event);
+    }
+    batchedHook.flush();
+
+    assertEquals(batched.getSiblings(), oneByOne.getSiblings());
+    assertEquals(batched.getSiblings().get(datasetUrn("bigquery", "table0")).getSiblings(),
+        new UrnArray(ImmutableList.of(datasetUrn("dbt", "source0"), datasetUrn("dbt", "source1"))));
+    assertEquals(batched.getSiblings().get(datasetUrn("hive", "restored")).getSiblings(),
+        new UrnArray(ImmutableList.of(datasetUrn("dbt", "restored"))));
+
+    Mockito.verify(oneByOne.getSearchService(), Mockito.times(2))
+        .search(anyString(), anyString(), any(), any(), anyInt(), anyInt(), any());
+    Mockito.verify(batched.getSearchService(), Mockito.times(1))
+        .search(anyString(), anyString(), any(), any(), anyInt(), anyInt(), any());
+    // one search, one fetch of the siblings of its hits, of the dbt aspects and of the siblings aspects to update, and
+    // one existence check for the whole batch
+    assertEquals(batched.getReadCalls(), 5);
+    assertTrue(oneByOne.getReadCalls() > 40, String.valueOf(oneByOne.getReadCalls()));
+    // one proposal per updated dataset instead of two per association, ingested together
+    assertEquals(getIngestedProposals(batched.getEntityService()).size(), batched.getSiblings().size());
+    Mockito.verify(batched.getEntityService(), Mockito.times(1)).ingestProposals(any(), any());
+    assertEquals(getIngestedProposals(oneByOne.getEntityService()).size(), 2 * 15);
+    Mockito.verify(oneByOne.getEntityService(), Mockito.times(15)).ingestProposals(any(), any());
+  }
+
+  @Test
+  public void testCachesEntitiesWithYouAsSibling() throws Exception {
+    final FakeMetadataService service = new FakeMetadataService(ImmutableMap.of(datasetUrn("dbt", "restored"),
+        ImmutableMap.of(SIBLINGS_ASPECT_NAME, new Siblings().setPrimary(true)
+            .setSiblings(new UrnArray(ImmutableList.of(datasetUrn("hive", "restored")))))));
+    final SiblingAssociationHook hook = service.buildHook(2);
+
+    hook.invoke(buildKeyEvent(datasetUrn("hive", "restored")));
+    hook.invoke(buildKeyEvent(datasetUrn("hive", "unrelated")));
+    hook.invoke(buildKeyEvent(datasetUrn("hive", "restored")));
+    hook.invoke(buildKeyEvent(datasetUrn("hive", "unrelated")));
+    hook.flush();
+
+    // both the positive and the negative lookups of the first batch are reused by the second one
+    Mockito.verify(service.getSearchService(), Mockito.times(1))
+        .search(anyString(), anyString(), any(), any(), anyInt(), anyInt(), any());
+    assertEquals(service.getSiblings().get(datasetUrn("hive", "restored")).getSiblings(),
+        new UrnArray(ImmutableList.of(datasetUrn("dbt", "restored"))));
+  }
+
+  @Test
+  public void testEventsAreOnlyProcessedOnFlushAndOnlyFailedProposalsAreRetried() throws Exception {
+    final FakeMetadataService service = new FakeMetadataService(ImmutableMap.of(datasetUrn("dbt", "restored"),
+        ImmutableMap.of(SIBLINGS_ASPECT_NAME, new Siblings().setPrimary(true)
+            .setSiblings(new UrnArray(ImmutableList.of(datasetUrn("hive", "restored")))))));
+    final SiblingAssociationHook hook = service.buildHook(1);
+
+    hook.invoke(buildKeyEvent(datasetUrn("hive", "restored")));
+    Mockito.verifyZeroInteractions(service.getSearchService());
+    Mockito.verify(service.getEntityService(), Mockito.never()).ingestProposals(any(), any());
+
+    service.failIngestions(datasetUrn("hive", "restored"), 1);
+    hook.flush();
+
+    // Only the failed proposal is ingested again
+    final Urn dbtUrn = datasetUrn("dbt", "restored");
+    final Urn hiveUrn = datasetUrn("hive", "restored");
+    assertEquals(service.getIngestionAttempts(), ImmutableList.of(dbtUrn, hiveUrn, hiveUrn));
+    assertEquals(service.getSiblings().get(datasetUrn("hive", "restored")).getSiblings(),
+        new UrnArray(ImmutableList.of(datasetUrn("dbt", "restored"))));
+
+    // The flushed events are not kept by the hook
+    Mockito.reset(service.getSearchService());
+    hook.flush();
+    Mockito.verifyZeroInteractions(service.getSearchService());
+  }
+
+  @Test
+  public void testProposalsFailingEveryAttemptDoNotFailTheFlush() throws Exception {
+    final FakeMetadataService service = new FakeMetadataService(ImmutableMap.of(datasetUrn("dbt", "restored"),
+        ImmutableMap.of(SIBLINGS_ASPECT_NAME, new Siblings().setPrimary(true)
+            .setSiblings(new UrnArray(ImmutableList.of(datasetUrn("hive", "restored")))))));
+    final SiblingAssociationHook hook = service.buildHook(1);
+
+    service.failIngestions(datasetUrn("hive", "restored"), Integer.MAX_VALUE);
+    hook.invoke(buildKeyEvent(datasetUrn("hive", "restored")));
+    hook.flush();
+
+    assertEquals(Collections.frequency(service.getIngestionAttempts(), datasetUrn("hive", "restored")), 3);
+    assertFalse(service.getSiblings().containsKey(datasetUrn("hive", "restored")));
+  }
+
+  @Test
+  public void testEventsAreFlushedByTheThreadThatReceivedThem() throws Exception {
+    final FakeMetadataService service = new FakeMetadataService(ImmutableMap.of(datasetUrn("dbt", "restored"),
+        ImmutableMap.of(SIBLINGS_ASPECT_NAME, new Siblings().setPrimary(true)
+            .setSiblings(new UrnArray(ImmutableList.of(datasetUrn("hive", "restored")))))));
+    final SiblingAssociationHook hook = service.buildHook(1);
+    final ExecutorService otherThread = Executors.newSingleThreadExecutor();
+    try {
+      otherThread.submit(() -> {
+        hook.invoke(buildKeyEvent(datasetUrn("hive", "restored")));
+        return null;
+      }).get();
+
+      // The events of another listener thread are left to it
+      hook.flush();
+      Mockito.verifyZeroInteractions(service.getSearchService());
+
+      otherThread.submit(hook::flush).get();
+      assertEquals(service.getSiblings().get(datasetUrn("hive", "restored")).getSiblings(),
+          new UrnArray(ImmutableList.of(datasetUrn("dbt", "restored"))));
+    } finally {
+      otherThread.shutdownNow();
+    }
+  }
+
+  private static List<MetadataChangeProposal> getIngestedProposals(EntityService entityService) {
+    return Mockito.mockingDetails(entityService).getInvocations()
+        .stream()
+        .filter(invocation -> invocation.getMethod().getName().equals("ingestProposals"))
+        .flatMap(invocation -> invocation.<List<MetadataChangeProposal>>getArgument(0).stream())
+        .collect(Collectors.toList());
+  }
+
+  private static void mockAllUrnsExist(EntityService entityService) {
+    Mockito.when(entityService.getExistingUrns(Mockito.any()))
+        .thenAnswer(invocation -> new HashSet<>(invocation.<Collection<Urn>>getArgument(0)));
+  }
+
+  private static void mockLatestAspects(EntityService entityService,
+      Map<Urn, ? extends List<? extends RecordTemplate>> aspects) {
+    Mockito.when(entityService.getLatestAspects(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+      final Set<Urn> urns = invocation.getArgument(0);
+      final Set<String> aspectNames = invocation.getArgument(1);
+      final Map<Urn, List<RecordTemplate>> result = new HashMap<>();
+      aspects.forEach((urn, urnAspects) -> {
+        if (urns.contains(urn)) {
+          result.put(urn, urnAspects.stream()
+              .filter(aspect -> aspectNames.contains(PegasusUtils.getAspectNameFromSchema(aspect.schema())))
+              .map(RecordTemplate.class::cast)
+              .collect(Collectors.toList()));
+        }
+      });
+      return result;
+    });
+  }
+
+  private static Urn datasetUrn(String platform, String name) throws Exception {
+    return Urn.createFromString(String.format("urn:li:dataset:(urn:li:dataPlatform:%s,%s,PROD)", platform, name));
+  }
+
+  private static MetadataChangeLog buildUpstreamLineageEvent(Urn urn, Urn upstreamUrn) throws Exception {
+    final Upstream upstream = new Upstream();
+    upstream.setType(DatasetLineageType.TRANSFORMED);
+    upstream.setDataset(DatasetUrn.createFromUrn(upstreamUrn));
+    final UpstreamLineage upstreamLineage = new UpstreamLineage().setUpstreams(new UpstreamArray(ImmutableList.of(upstream)));
+
+    final MetadataChangeLog event = new MetadataChangeLog();
+    event.setEntityType(DATASET_ENTITY_NAME);
+    event.setAspectName(UPSTREAM_LINEAGE_ASPECT_NAME);
+    event.setChangeType(ChangeType.UPSERT);
+    event.setAspect(GenericRecordUtils.serializeAspect(upstreamLineage));
+    event.setEntityUrn(urn);
+    return event;
+  }
+
+  private static MetadataChangeLog buildKeyEvent(Urn urn) throws Exception {
+    final DatasetUrn datasetUrn = DatasetUrn.createFromUrn(urn);
+    final DatasetKey datasetKey = new DatasetKey();
+    datasetKey.setName(datasetUrn.getDatasetNameEntity());
+    datasetKey.setOrigin(datasetUrn.getOriginEntity());
+    datasetKey.setPlatform(datasetUrn.getPlatformEntity());
+
+    final MetadataChangeLog event = new MetadataChangeLog();
+    event.setEntityType(DATASET_ENTITY_NAME);
+    event.setAspectName(DATASET_KEY_ASPECT_NAME);
+    event.setChangeType(ChangeType.UPSERT);
+    event.setAspect(GenericRecordUtils.serializeAspect(datasetKey));
+    event.setEntityUrn(urn);
+    return event;
+  }
+
+  /**
+   * Keeps the latest aspects of datasets in memory behind mocked entity and search services, and counts the calls made
+   * to them.
+   */
+  private static class FakeMetadataService {
+    private final Map<Urn, Map<String, RecordTemplate>> _aspects = new HashMap<>();
+    private final EntityService _entityService = Mockito.mock(EntityService.class);
+    private final SearchService _searchService = Mockito.mock(SearchService.class);
+    // Urns whose proposals are attempted to be ingested, in order, and the number of attempts left to fail per urn
+    private final List<Urn> _ingestionAttempts = new ArrayList<>();
+    private final Map<Urn, Integer> _ingestionFailures = new HashMap<>();
+
+    FakeMetadataService(Map<Urn, ? extends Map<String, ? extends RecordTemplate>> initialState) throws Exception {
+      initialState.forEach((urn, aspects) -> _aspects.put(urn, new HashMap<>(aspects)));
+      mockAllUrnsExist(_entityService);
+      Mockito.when(_entityService.getLatestAspects(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+        final Set<Urn> urns = invocation.getArgument(0);
+        final Set<String> aspectNames = invocation.getArgument(1);
+        final Map<Urn, List<RecordTemplate>> result = new HashMap<>();
+        for (Urn urn : urns) {
+          final List<RecordTemplate> aspects = new ArrayList<>();
+          for (Map.Entry<String, RecordTemplate> aspect : _aspects.getOrDefault(urn, Collections.emptyMap()).entrySet()) {
+            if (aspectNames.contains(aspect.getKey())) {
+              aspects.add(aspect.getValue().copy());
+            }
+          }
+          if (!aspects.isEmpty()) {
+            result.put(urn, aspects);
+          }
+        }
+        return result;
+      });
+      Mockito.when(_entityService.ingestProposals(Mockito.any(), Mockito.any())).thenAnswer(invocation -> {
+        final List<MetadataChangeProposal> failedProposals = new ArrayList<>();
+        for (MetadataChangeProposal proposal : invocation.<List<MetadataChangeProposal>>getArgument(0)) {
+          _ingestionAttempts.add(proposal.getEntityUrn());
+          if (_ingestionFailures.getOrDefault(proposal.getEntityUrn(), 0) > 0) {
+            _ingestionFailures.merge(proposal.getEntityUrn(), -1, Integer::sum);
+            failedProposals.add(proposal);
+            continue;
+          }
+          _aspects.computeIfAbsent(proposal.getEntityUrn(), urn -> new HashMap<>()).put(proposal.getAspectName(),
+              GenericRecordUtils.deserializeAspect(proposal.getAspect().getValue(),
+                  proposal.getAspect().getContentType(), Siblings.class));
+        }
+        return failedProposals;
+      });
+      Mockito.when(_searchService.search(anyString(), anyString(), any(), any(), anyInt(), anyInt(), any()))
+          .thenAnswer(invocation -> {
+            final Filter filter = invocation.getArgument(2);
+            final Set<String> siblingUrns = new HashSet<>(filter.getOr().get(0).getAnd().get(0).getValues());
+            final SearchEntityArray entities = new SearchEntityArray();
+            getSiblings().forEach((urn, siblings) -> {
+              if (siblings.getSiblings().stream().anyMatch(sibling -> siblingUrns.contains(sibling.toString()))) {
+                entities.add(new SearchEntity().setEntity(urn));
+              }
+            });
+            return new SearchResult().setEntities(entities);
+          });
+    }
+
+    SiblingAssociationHook buildHook(int batchSize) {
+      final EntityRegistry registry = new ConfigEntityRegistry(
+          SiblingAssociationHookTest.class.getClassLoader().getResourceAsStream("test-entity-registry-siblings.yml"));
+      final SiblingAssociationHook hook = new SiblingAssociationHook(registry, _entityService, _searchService);
+      hook.setEnabled(true);
+      hook.setBatchSize(batchSize);
+      return hook;
+    }
+
+    void failIngestions(Urn urn, int attempts) {
+      _ingestionFailures.put(urn, attempts);
+    }
+
+    List<Urn> getIngestionAttempts() {
+      return _ingestionAttempts;
+    }
+
+    EntityService getEntityService() {
+      return _entityService;
+    }
+
+    SearchService getSearchService() {
+      return _searchService;
+    }
+
+    Map<Urn, Siblings> getSiblings() {
+      final Map<Urn, Siblings> siblings = new HashMap<>();
+      _aspects.forEach((urn, aspects) -> {
+        if (aspects.containsKey(SIBLINGS_ASPECT_NAME)) {
+          siblings.put(urn, (Siblings) aspects.get(SIBLINGS_ASPECT_NAME));
+        }
+      });
+      return siblings;
+    }
+
+    long getReadCalls() {
+      return Mockito.mockingDetails(_entityService).getInvocations()
+          .stream()
+          .filter(invocation -> !invocation.getMethod().getName().equals("ingestProposals"))
+          .count() + Mockito.mockingDetails(_searchService).getInvocations().size();
+    }
   }
 }
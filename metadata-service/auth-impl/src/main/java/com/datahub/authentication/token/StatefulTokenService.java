@@ -1,9 +1,12 @@
 package com.datahub.authentication.token;
 
 import com.datahub.authentication.Actor;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.access.token.DataHubAccessTokenInfo;
 import com.linkedin.common.AuditStamp;
 import com.linkedin.common.urn.Urn;
@@ -26,10 +29,15 @@ import java.security.NoSuchAlgorithmException;
 import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 import static com.datahub.authentication.token.TokenClaims.ACTOR_ID_CLAIM_NAME;
@@ -41,22 +49,50 @@ import static com.datahub.authentication.token.TokenClaims.TOKEN_VERSION_CLAIM_N
 /**
  * Service responsible for generating JWT tokens & managing the associated metadata entities in GMS for use within
  * DataHub that are stored in the entity service so that we can list & revoke tokens as needed.
+ *
+ * Successfully validated tokens are cached by their hash until they expire, so that repeated requests bearing the same
+ * token skip signature verification entirely. A token revoked through this instance is evicted right away. Revocations
+ * are also handled by a MetadataChangeLog hook calling {@link #invalidateAccessToken(String)}. The hook's consumer
+ * group delivers each event to a single instance, so most instances never see it. An instance that did not revoke the
+ * token keeps accepting it until the cached validation expires and the cached revocation status is then reloaded.
+ * Both caches keep entries for at most 5 minutes, so this takes up to 10 minutes. Expired tokens are removed from the
+ * entity store by a background sweeper rather than on the request path.
  */
 @Slf4j
 public class StatefulTokenService extends StatelessTokenService {
 
+  private static final long DEFAULT_VALIDATED_TOKEN_CACHE_SIZE = 10000;
+  private static final long REVOKED_TOKEN_CACHE_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+  private static final long DEFAULT_VALIDATED_TOKEN_CACHE_TTL_MS = REVOKED_TOKEN_CACHE_TTL_MS;
+  private static final long DEFAULT_EXPIRED_TOKEN_SWEEP_INTERVAL_SECONDS = 60;
+
   private final EntityService _entityService;
   private final LoadingCache<String, Boolean> _revokedTokenCache;
+  // Token hash -> claims of a token that has been verified & was not revoked at the time of verification.
+  private final Cache<String, TokenClaims> _validatedTokenCache;
+  // Hashes of tokens which have been found expired & whose backing entities are pending removal.
+  private final Set<String> _expiredTokenHashes = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService _expiredTokenSweeperService = Executors.newScheduledThreadPool(1,
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("expired-token-sweeper-%d").build());
   private final String salt;
-  private final MessageDigest sha256;
+  // MessageDigest is not thread-safe, so each thread hashing tokens gets its own instance.
+  private final ThreadLocal<MessageDigest> sha256;
 
   public StatefulTokenService(@Nonnull final String signingKey, @Nonnull final String signingAlgorithm,
       @Nullable final String iss, @Nonnull final EntityService entityService, @Nonnull final String salt) {
+    this(signingKey, signingAlgorithm, iss, entityService, salt, DEFAULT_VALIDATED_TOKEN_CACHE_SIZE,
+        DEFAULT_VALIDATED_TOKEN_CACHE_TTL_MS, DEFAULT_EXPIRED_TOKEN_SWEEP_INTERVAL_SECONDS);
+  }
+
+  public StatefulTokenService(@Nonnull final String signingKey, @Nonnull final String signingAlgorithm,
+      @Nullable final String iss, @Nonnull final EntityService entityService, @Nonnull final String salt,
+      final long validatedTokenCacheSize, final long validatedTokenCacheTtlMs,
+      final long expiredTokenSweepIntervalSeconds) {
     super(signingKey, signingAlgorithm, iss);
     this._entityService = entityService;
     this._revokedTokenCache = CacheBuilder.newBuilder()
         .maximumSize(10000)
-        .expireAfterWrite(5, TimeUnit.MINUTES)
+        .expireAfterWrite(REVOKED_TOKEN_CACHE_TTL_MS, TimeUnit.MILLISECONDS)
         .build(new CacheLoader<String, Boolean>() {
           @Override
           public Boolean load(final String key) {
@@ -64,12 +100,19 @@ public class StatefulTokenService extends StatelessTokenService {
             return !_entityService.exists(accessUrn);
           }
         });
+    // Entries are additionally checked against the token's own expiration time on read. Their TTL is capped at the
+    // revocation cache TTL. A validation may rely on a revocation status loaded up to one TTL earlier, so a revocation
+    // this instance did not see is honored within two TTLs.
+    this._validatedTokenCache = CacheBuilder.newBuilder()
+        .maximumSize(validatedTokenCacheSize)
+        .expireAfterWrite(Math.min(validatedTokenCacheTtlMs, REVOKED_TOKEN_CACHE_TTL_MS), TimeUnit.MILLISECONDS)
+        .build();
     this.salt = salt;
-    try {
-      this.sha256 = MessageDigest.getInstance("SHA-256");
-    } catch (NoSuchAlgorithmException e) {
-      throw new RuntimeException("Unable to get SHA-256 algorithm.");
-    }
+    this.sha256 = ThreadLocal.withInitial(StatefulTokenService::createSha256Digest);
+    // Fail fast if the algorithm is not available.
+    this.sha256.get();
+    _expiredTokenSweeperService.scheduleAtFixedRate(this::sweepExpiredTokens, expiredTokenSweepIntervalSeconds,
+        expiredTokenSweepIntervalSeconds, TimeUnit.SECONDS);
   }
 
   /**
@@ -147,18 +190,30 @@ public class StatefulTokenService extends StatelessTokenService {
   @Nonnull
   @Override
   public TokenClaims validateAccessToken(@Nonnull String accessToken) throws TokenException {
+    Objects.requireNonNull(accessToken);
+    final String hash = hash(accessToken);
+
+    // Fast path: the token has already been verified, and has not expired or been revoked since.
+    final TokenClaims cachedClaims = _validatedTokenCache.getIfPresent(hash);
+    if (cachedClaims != null) {
+      if (cachedClaims.getExpirationInMs() > System.currentTimeMillis()) {
+        return cachedClaims;
+      }
+      _validatedTokenCache.invalidate(hash);
+    }
+
     try {
       final TokenClaims tokenClaims = super.validateAccessToken(accessToken);
       if (tokenClaims.getTokenVersion().equals(TokenVersion.TWO)) {
-        final String hash = hash(accessToken);
         if (_revokedTokenCache.get(hash)) {
           throw new TokenException("Failed to validate DataHub token: Token has been revoked");
         }
       }
+      _validatedTokenCache.put(hash, tokenClaims);
       return tokenClaims;
     } catch (final TokenExpiredException e) {
-      // delete entity
-      this.revokeAccessToken(hash(accessToken));
+      // Defer deleting the entity to the sweeper, so that it does not block the request.
+      _expiredTokenHashes.add(hash);
       throw e;
     } catch (final ExecutionException e) {
       throw new TokenException("Failed to validate DataHub token: Unable to load token information from store");
@@ -171,6 +226,7 @@ public class StatefulTokenService extends StatelessTokenService {
         final Urn tokenUrn = Urn.createFromTuple(Constants.ACCESS_TOKEN_ENTITY_NAME, hashedToken);
         _entityService.deleteUrn(tokenUrn);
         _revokedTokenCache.put(hashedToken, true);
+        _validatedTokenCache.invalidate(hashedToken);
         return;
       }
     } catch (ExecutionException e) {
@@ -179,6 +235,22 @@ public class StatefulTokenService extends StatelessTokenService {
     throw new TokenException("Access token no longer exists");
   }
 
+  /**
+   * Evicts any locally cached state for a token whose backing entity has been removed. Subsequent validations of the
+   * token on this instance will fail. The other instances only drop the token once their own caches expire.
+   */
+  public void invalidateAccessToken(@Nonnull String hashedToken) {
+    _revokedTokenCache.put(hashedToken, true);
+    _validatedTokenCache.invalidate(hashedToken);
+  }
+
+  /**
+   * Stops the background sweeper of expired tokens.
+   */
+  public void close() {
+    _expiredTokenSweeperService.shutdownNow();
+  }
+
   /**
    * Hashes the input after salting it.
    */
@@ -186,7 +258,35 @@ public class StatefulTokenService extends StatelessTokenService {
     final byte[] saltingKeyBytes = this.salt.getBytes();
     final byte[] inputBytes = input.getBytes();
     final byte[] concatBytes = ArrayUtils.addAll(inputBytes, saltingKeyBytes);
-    final byte[] bytes = sha256.digest(concatBytes);
+    final byte[] bytes = sha256.get().digest(concatBytes);
     return Base64.getEncoder().encodeToString(bytes);
   }
+
+  /**
+   * Removes the entities backing tokens which have been found to be expired since the last sweep.
+   */
+  @VisibleForTesting
+  void sweepExpiredTokens() {
+    final Iterator<String> iterator = _expiredTokenHashes.iterator();
+    while (iterator.hasNext()) {
+      final String hashedToken = iterator.next();
+      iterator.remove();
+      try {
+        revokeAccessToken(hashedToken);
+      } catch (TokenException e) {
+        // Token entity was already removed.
+        log.debug("Skipping cleanup of expired access token: {}", e.getMessage());
+      } catch (Exception e) {
+        log.error("Failed to remove expired access token", e);
+      }
+    }
+  }
+
+  private static MessageDigest createSha256Digest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new RuntimeException("Unable to get SHA-256 algorithm.");
+    }
+  }
 }
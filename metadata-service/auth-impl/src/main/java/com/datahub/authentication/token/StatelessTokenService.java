@@ -3,8 +3,11 @@ package com.datahub.authentication.token;
 import com.datahub.authentication.Actor;
 import com.datahub.authentication.ActorType;
 
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtBuilder;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import java.nio.charset.StandardCharsets;
@@ -40,6 +43,9 @@ public class StatelessTokenService {
   private final String signingKey;
   private final SignatureAlgorithm signingAlgorithm;
   private final String iss;
+  // Parsers are immutable & thread-safe, so we build one per signing key (lazily, on first validation) instead of one per
+  // validation.
+  private final Supplier<JwtParser> parser;
 
   public StatelessTokenService(
       @Nonnull final String signingKey,
@@ -56,6 +62,7 @@ public class StatelessTokenService {
     this.signingKey = Objects.requireNonNull(signingKey);
     this.signingAlgorithm = validateAlgorithm(Objects.requireNonNull(signingAlgorithm));
     this.iss = iss;
+    this.parser = Suppliers.memoize(this::buildParser);
   }
 
   /**
@@ -120,11 +127,7 @@ public class StatelessTokenService {
   public TokenClaims validateAccessToken(@Nonnull final String accessToken) throws TokenException {
     Objects.requireNonNull(accessToken);
     try {
-      byte [] apiKeySecretBytes = this.signingKey.getBytes(StandardCharsets.UTF_8);
-      final String base64Key = Base64.getEncoder().encodeToString(apiKeySecretBytes);
-      final Claims claims = (Claims) Jwts.parserBuilder()
-          .setSigningKey(base64Key)
-          .build()
+      final Claims claims = (Claims) this.parser.get()
           .parse(accessToken)
           .getBody();
       final String tokenVersion = claims.get(TOKEN_VERSION_CLAIM_NAME, String.class);
@@ -147,6 +150,14 @@ public class StatelessTokenService {
     throw new TokenException("Failed to validate DataHub token: Found malformed or missing 'actor' claim.");
   }
 
+  private JwtParser buildParser() {
+    byte [] apiKeySecretBytes = this.signingKey.getBytes(StandardCharsets.UTF_8);
+    final String base64Key = Base64.getEncoder().encodeToString(apiKeySecretBytes);
+    return Jwts.parserBuilder()
+        .setSigningKey(base64Key)
+        .build();
+  }
+
   private SignatureAlgorithm validateAlgorithm(final String algorithm) {
     if (!SUPPORTED_ALGORITHMS.contains(algorithm)) {
       throw new UnsupportedOperationException(
@@ -146,4 +146,67 @@ public class StatefulTokenServiceTest {
     // Validation should fail.
     assertThrows(TokenException.class, () -> tokenService.validateAccessToken(token));
   }
+
+  @Test
+  public void testValidateAccessTokenUsesValidatedTokenCache() throws Exception {
+    final EntityService entityService = mockEntityService();
+    StatefulTokenService tokenService = new StatefulTokenService(TEST_SIGNING_KEY, "HS256", null, entityService, TEST_SALTING_KEY);
+    Actor datahub = new Actor(ActorType.USER, "datahub");
+    String token = tokenService.generateAccessToken(TokenType.PERSONAL, datahub, "some token",
+            "A token description",
+            datahub.toUrnStr());
+
+    TokenClaims claims = tokenService.validateAccessToken(token);
+    TokenClaims cachedClaims = tokenService.validateAccessToken(token);
+
+    // Second validation is served from the cache, without checking the store again.
+    assertSame(cachedClaims, claims);
+    Mockito.verify(entityService, Mockito.times(1)).exists(Mockito.any(Urn.class));
+  }
+
+  @Test
+  public void testInvalidateAccessToken() throws Exception {
+    final EntityService entityService = mockEntityService();
+    StatefulTokenService tokenService = new StatefulTokenService(TEST_SIGNING_KEY, "HS256", null, entityService, TEST_SALTING_KEY);
+    Actor datahub = new Actor(ActorType.USER, "datahub");
+    String token = tokenService.generateAccessToken(TokenType.PERSONAL, datahub, "some token",
+            "A token description",
+            datahub.toUrnStr());
+    assertNotNull(tokenService.validateAccessToken(token));
+
+    // Simulate revocation by another instance.
+    tokenService.invalidateAccessToken(tokenService.hash(token));
+
+    assertThrows(TokenException.class, () -> tokenService.validateAccessToken(token));
+  }
+
+  @Test
+  public void testExpiredTokenIsSweptAsynchronously() throws Exception {
+    final EntityService entityService = mockEntityService();
+    StatefulTokenService tokenService = new StatefulTokenService(TEST_SIGNING_KEY, "HS256", null, entityService, TEST_SALTING_KEY);
+    String token = tokenService.generateAccessToken(TokenType.PERSONAL, new Actor(ActorType.USER, "datahub"), 0L,
+        System.currentTimeMillis(), "token", "", "urn:li:corpuser:datahub");
+
+    assertThrows(TokenExpiredException.class, () -> tokenService.validateAccessToken(token));
+    // The token entity is not deleted on the request path.
+    Mockito.verify(entityService, Mockito.never()).deleteUrn(Mockito.any(Urn.class));
+
+    tokenService.sweepExpiredTokens();
+    Mockito.verify(entityService, Mockito.times(1))
+        .deleteUrn(Mockito.eq(Urn.createFromTuple(Constants.ACCESS_TOKEN_ENTITY_NAME, tokenService.hash(token))));
+  }
+
+  private EntityService mockEntityService() {
+    PathSpecBasedSchemaAnnotationVisitor.class.getClassLoader()
+            .setClassAssertionStatus(PathSpecBasedSchemaAnnotationVisitor.class.getName(), false);
+    final ConfigEntityRegistry configEntityRegistry = new ConfigEntityRegistry(
+            DataHubTokenAuthenticatorTest.class.getClassLoader().getResourceAsStream("test-entity-registry.yaml"));
+    final AspectSpec keyAspectSpec = configEntityRegistry.getEntitySpec(Constants.ACCESS_TOKEN_ENTITY_NAME).getKeyAspectSpec();
+
+    final EntityService entityService = Mockito.mock(EntityService.class);
+    Mockito.when(entityService.getKeyAspectSpec(Mockito.eq(Constants.ACCESS_TOKEN_ENTITY_NAME))).thenReturn(keyAspectSpec);
+    Mockito.when(entityService.exists(Mockito.any(Urn.class))).thenReturn(true);
+    Mockito.when(entityService.deleteUrn(Mockito.any(Urn.class))).thenReturn(new RollbackRunResult(ImmutableList.of(), 0));
+    return entityService;
+  }
 }
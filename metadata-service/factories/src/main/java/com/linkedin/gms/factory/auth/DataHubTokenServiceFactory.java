@@ -22,6 +22,15 @@ public class DataHubTokenServiceFactory {
   @Value("${authentication.tokenService.salt:}")
   private String saltingKey;
 
+  @Value("${authentication.tokenService.validatedTokenCacheSize:10000}")
+  private long validatedTokenCacheSize;
+
+  @Value("${authentication.tokenService.validatedTokenCacheTtlMs:300000}")
+  private long validatedTokenCacheTtlMs;
+
+  @Value("${authentication.tokenService.expiredTokenSweepIntervalSeconds:60}")
+  private long expiredTokenSweepIntervalSeconds;
+
   @Value("${elasticsearch.tokenService.signingAlgorithm:HS256}")
   private String signingAlgorithm;
 
@@ -38,7 +47,7 @@ public class DataHubTokenServiceFactory {
   @Qualifier("entityService")
   private EntityService entityService;
 
-  @Bean(name = "dataHubTokenService")
+  @Bean(name = "dataHubTokenService", destroyMethod = "close")
   @Scope("singleton")
   @Nonnull
   protected StatefulTokenService getInstance() {
@@ -47,7 +56,10 @@ public class DataHubTokenServiceFactory {
         this.signingAlgorithm,
         this.issuer,
         this.entityService,
-        this.saltingKey
+        this.saltingKey,
+        this.validatedTokenCacheSize,
+        this.validatedTokenCacheTtlMs,
+        this.expiredTokenSweepIntervalSeconds
     );
   }
 }
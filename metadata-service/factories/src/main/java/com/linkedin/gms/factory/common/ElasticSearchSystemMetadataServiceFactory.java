@@ -21,7 +21,7 @@ public class ElasticSearchSystemMetadataServiceFactory {
   @Qualifier("baseElasticSearchComponents")
   private BaseElasticSearchComponentsFactory.BaseElasticSearchComponents components;
 
-  @Bean(name = "elasticSearchSystemMetadataService")
+  @Bean(name = "elasticSearchSystemMetadataService", destroyMethod = "close")
   @Nonnull
   protected ElasticSearchSystemMetadataService getInstance() {
     return new ElasticSearchSystemMetadataService(components.getSearchClient(), components.getIndexConvention(),
@@ -26,9 +26,12 @@ public class RestliEntityClientFactory {
   @Value("${datahub.gms.sslContext.protocol}")
   private String gmsSslProtocol;
 
+  @Value("${datahub.gms.maxInFlightRequests}")
+  private int gmsMaxInFlightRequests;
+
   @Bean("restliEntityClient")
   public RestliEntityClient getRestliEntityClient() {
     Client restClient = DefaultRestliClientFactory.getRestLiClient(gmsHost, gmsPort, gmsUseSSL, gmsSslProtocol);
-    return new RestliEntityClient(restClient);
+    return new RestliEntityClient(restClient, gmsMaxInFlightRequests);
   }
 }
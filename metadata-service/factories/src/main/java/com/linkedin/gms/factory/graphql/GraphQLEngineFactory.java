@@ -111,11 +111,20 @@ public class GraphQLEngineFactory {
   @Value("${platformAnalytics.enabled}") // TODO: Migrate to DATAHUB_ANALYTICS_ENABLED
   private Boolean isAnalyticsEnabled;
 
+  @Value("${graphQL.query.maxDepth}")
+  private int maxQueryDepth;
+
+  @Value("${graphQL.query.maxCost}")
+  private int maxQueryCost;
+
+  @Value("${graphQL.query.preparsedDocumentCacheSize}")
+  private long preparsedDocumentCacheSize;
+
   @Bean(name = "graphQLEngine")
   @Nonnull
   protected GraphQLEngine getInstance() {
     if (isAnalyticsEnabled) {
-      return new GmsGraphQLEngine(
+      return build(new GmsGraphQLEngine(
           _entityClient,
           _graphClient,
           _usageClient,
@@ -138,9 +147,9 @@ public class GraphQLEngineFactory {
           _configProvider.getMetadataTests(),
           _configProvider.getDatahub(),
           _siblingGraphService
-          ).builder().build();
+          ).builder());
     }
-    return new GmsGraphQLEngine(
+    return build(new GmsGraphQLEngine(
         _entityClient,
         _graphClient,
         _usageClient,
@@ -163,6 +172,13 @@ public class GraphQLEngineFactory {
         _configProvider.getMetadataTests(),
         _configProvider.getDatahub(),
         _siblingGraphService
-    ).builder().build();
+    ).builder());
+  }
+
+  private GraphQLEngine build(@Nonnull GraphQLEngine.Builder builder) {
+    return builder.setMaxQueryDepth(maxQueryDepth)
+        .setMaxQueryCost(maxQueryCost)
+        .setPreparsedDocumentCacheSize(preparsedDocumentCacheSize)
+        .build();
   }
 }
@@ -53,6 +53,19 @@ public class KafkaEventConsumerFactory {
 
   @Bean(name = "kafkaEventConsumer")
   protected KafkaListenerContainerFactory<?> createInstance(KafkaProperties properties) {
+    return createInstance(properties, false);
+  }
+
+  /**
+   * Same as kafkaEventConsumer, but hands the listeners all the records of a poll at once. As offsets are committed by
+   * the following poll, the listener can complete the processing of a batch of records before they are committed.
+   */
+  @Bean(name = "kafkaEventBatchConsumer")
+  protected KafkaListenerContainerFactory<?> createBatchInstance(KafkaProperties properties) {
+    return createInstance(properties, true);
+  }
+
+  private KafkaListenerContainerFactory<?> createInstance(KafkaProperties properties, boolean batchListener) {
 
     KafkaProperties.Consumer consumerProps = properties.getConsumer();
 
@@ -88,6 +101,7 @@ public class KafkaEventConsumerFactory {
     factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props));
     factory.setContainerCustomizer(new ThreadPoolContainerCustomizer());
     factory.setConcurrency(this.kafkaListenerConcurrency);
+    factory.setBatchListener(batchListener);
 
     log.info("Event-based KafkaListenerContainerFactory built successfully");
 
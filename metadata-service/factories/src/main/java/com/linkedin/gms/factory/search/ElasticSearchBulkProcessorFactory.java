@@ -3,11 +3,14 @@ package com.linkedin.gms.factory.search;
 import com.linkedin.gms.factory.common.RestHighLevelClientFactory;
 import com.linkedin.gms.factory.spring.YamlPropertySourceFactory;
 import com.linkedin.metadata.search.elasticsearch.update.BulkListener;
+import com.linkedin.metadata.search.elasticsearch.update.BulkWriteHandler;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import org.elasticsearch.action.bulk.BackoffPolicy;
 import org.elasticsearch.action.bulk.BulkProcessor;
 import org.elasticsearch.client.RequestOptions;
 import org.elasticsearch.client.RestHighLevelClient;
+import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.TimeValue;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -29,6 +32,9 @@ public class ElasticSearchBulkProcessorFactory {
   @Value("${elasticsearch.bulkProcessor.requestsLimit}")
   private Integer bulkRequestsLimit;
 
+  @Value("${elasticsearch.bulkProcessor.requestBytesLimit}")
+  private Long bulkRequestBytesLimit;
+
   @Value("${elasticsearch.bulkProcessor.flushPeriod}")
   private Integer bulkFlushPeriod;
 
@@ -38,15 +44,30 @@ public class ElasticSearchBulkProcessorFactory {
   @Value("${elasticsearch.bulkProcessor.retryInterval}")
   private Long retryInterval;
 
+  @Value("${elasticsearch.bulkProcessor.concurrentRequests}")
+  private Integer concurrentRequests;
+
+  @Value("${elasticsearch.bulkProcessor.maxInFlightActions}")
+  private Integer maxInFlightActions;
+
+  @Value("${elasticsearch.bulkProcessor.maxInFlightBytes}")
+  private Long maxInFlightBytes;
+
   @Bean(name = "elasticSearchBulkProcessor")
   @Nonnull
   protected BulkProcessor getInstance() {
-    return BulkProcessor.builder((request, bulkListener) -> {
-      searchClient.bulkAsync(request, RequestOptions.DEFAULT, bulkListener);
-    }, BulkListener.getInstance())
+    // Retries and flow control are handled by the write handler, which only retries the failed actions. A request only
+    // completes once its retries are done, so with a single concurrent request the writes of a document are applied in
+    // the order they were made; more concurrent requests trade this ordering for throughput.
+    final BulkWriteHandler writeHandler = new BulkWriteHandler(
+        (request, bulkListener) -> searchClient.bulkAsync(request, RequestOptions.DEFAULT, bulkListener),
+        maxInFlightActions, maxInFlightBytes, numRetries, TimeUnit.SECONDS.toMillis(retryInterval));
+    return BulkProcessor.builder(writeHandler, BulkListener.getInstance())
         .setBulkActions(bulkRequestsLimit)
+        .setBulkSize(new ByteSizeValue(bulkRequestBytesLimit))
         .setFlushInterval(TimeValue.timeValueSeconds(bulkFlushPeriod))
-        .setBackoffPolicy(BackoffPolicy.constantBackoff(TimeValue.timeValueSeconds(retryInterval), numRetries))
+        .setConcurrentRequests(concurrentRequests)
+        .setBackoffPolicy(BackoffPolicy.noBackoff())
         .build();
   }
 }
@@ -31,9 +31,19 @@ public class ElasticSearchIndexBuilderFactory {
   @Value("${elasticsearch.index.numRetries}")
   private Integer numRetries;
 
+  @Value("${elasticsearch.index.reindex.slices}")
+  private Integer reindexSlices;
+
+  @Value("${elasticsearch.index.reindex.requestsPerSecond}")
+  private Float reindexRequestsPerSecond;
+
+  @Value("${elasticsearch.index.reindex.stallTimeoutMinutes}")
+  private Long reindexStallTimeoutMinutes;
+
   @Bean(name = "elasticSearchIndexBuilder")
   @Nonnull
   protected ESIndexBuilder getInstance() {
-    return new ESIndexBuilder(searchClient, numShards, numReplicas, numRetries);
+    return new ESIndexBuilder(searchClient, numShards, numReplicas, numRetries, reindexSlices,
+        reindexRequestsPerSecond, reindexStallTimeoutMinutes);
   }
 }
\ No newline at end of file
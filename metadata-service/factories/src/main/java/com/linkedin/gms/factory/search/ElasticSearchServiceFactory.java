@@ -12,6 +12,7 @@ import com.linkedin.metadata.search.elasticsearch.update.ESWriteDAO;
 import javax.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
@@ -34,6 +35,12 @@ public class ElasticSearchServiceFactory {
   @Qualifier("settingsBuilder")
   private SettingsBuilder settingsBuilder;
 
+  @Value("${elasticsearch.browse.groupsCacheTtlSeconds}")
+  private long browseGroupsCacheTtlSeconds;
+
+  @Value("${elasticsearch.browse.groupsCacheSettleSeconds}")
+  private long browseGroupsCacheSettleSeconds;
+
   @Bean(name = "elasticSearchService")
   @Nonnull
   protected ElasticSearchService getInstance() {
@@ -42,7 +49,8 @@ public class ElasticSearchServiceFactory {
     return new ElasticSearchService(
         new EntityIndexBuilders(components.getIndexBuilder(), entityRegistry, components.getIndexConvention(),
             settingsBuilder), esSearchDAO,
-        new ESBrowseDAO(entityRegistry, components.getSearchClient(), components.getIndexConvention()),
+        new ESBrowseDAO(entityRegistry, components.getSearchClient(), components.getIndexConvention(),
+            browseGroupsCacheTtlSeconds, browseGroupsCacheSettleSeconds),
         new ESWriteDAO(entityRegistry, components.getSearchClient(), components.getIndexConvention(),
             components.getBulkProcessor()));
   }
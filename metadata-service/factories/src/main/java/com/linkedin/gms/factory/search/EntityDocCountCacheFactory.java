@@ -0,0 +1,39 @@
+package com.linkedin.gms.factory.search;
+
+import com.linkedin.gms.factory.entityregistry.EntityRegistryFactory;
+import com.linkedin.gms.factory.spring.YamlPropertySourceFactory;
+import com.linkedin.metadata.models.registry.EntityRegistry;
+import com.linkedin.metadata.search.EntitySearchService;
+import com.linkedin.metadata.search.cache.EntityDocCountCache;
+import javax.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.PropertySource;
+
+
+@Configuration
+@PropertySource(value = "classpath:/application.yml", factory = YamlPropertySourceFactory.class)
+@Import({EntityRegistryFactory.class, EntitySearchServiceFactory.class})
+public class EntityDocCountCacheFactory {
+
+  @Autowired
+  @Qualifier("entityRegistry")
+  private EntityRegistry entityRegistry;
+
+  @Autowired
+  @Qualifier("entitySearchService")
+  private EntitySearchService entitySearchService;
+
+  @Value("${searchService.docCountRefreshIntervalSeconds:60}")
+  private Long docCountRefreshIntervalSeconds;
+
+  @Bean(name = "entityDocCountCache")
+  @Nonnull
+  protected EntityDocCountCache getInstance() {
+    return new EntityDocCountCache(entityRegistry, entitySearchService, docCountRefreshIntervalSeconds);
+  }
+}
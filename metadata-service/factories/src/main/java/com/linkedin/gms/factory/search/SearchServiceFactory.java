@@ -1,9 +1,9 @@
 package com.linkedin.gms.factory.search;
 
 import com.linkedin.gms.factory.spring.YamlPropertySourceFactory;
-import com.linkedin.metadata.models.registry.EntityRegistry;
 import com.linkedin.metadata.search.EntitySearchService;
 import com.linkedin.metadata.search.SearchService;
+import com.linkedin.metadata.search.cache.EntityDocCountCache;
 import com.linkedin.metadata.search.ranker.SearchRanker;
 import javax.annotation.Nonnull;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,18 +12,16 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.PropertySource;
 
 
 @Configuration
 @PropertySource(value = "classpath:/application.yml", factory = YamlPropertySourceFactory.class)
+@Import({EntityDocCountCacheFactory.class})
 public class SearchServiceFactory {
 
-  @Autowired
-  @Qualifier("entityRegistry")
-  private EntityRegistry entityRegistry;
-
   @Autowired
   @Qualifier("entitySearchService")
   private EntitySearchService entitySearchService;
@@ -32,6 +30,10 @@ public class SearchServiceFactory {
   @Qualifier("searchRanker")
   private SearchRanker searchRanker;
 
+  @Autowired
+  @Qualifier("entityDocCountCache")
+  private EntityDocCountCache entityDocCountCache;
+
   @Autowired
   private CacheManager cacheManager;
 
@@ -45,6 +47,7 @@ public class SearchServiceFactory {
   @Primary
   @Nonnull
   protected SearchService getInstance() {
-    return new SearchService(entityRegistry, entitySearchService, searchRanker, cacheManager, batchSize, enableCache);
+    return new SearchService(entityDocCountCache, entitySearchService, searchRanker, cacheManager, batchSize,
+        enableCache);
   }
 }
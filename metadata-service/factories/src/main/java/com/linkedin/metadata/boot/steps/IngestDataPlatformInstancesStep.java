@@ -7,6 +7,7 @@ import com.linkedin.data.template.RecordTemplate;
 import com.linkedin.metadata.Constants;
 import com.linkedin.metadata.boot.BootstrapStep;
 import com.linkedin.metadata.entity.AspectMigrationsDao;
+import com.linkedin.metadata.entity.CursorListResult;
 import com.linkedin.metadata.entity.EntityService;
 import com.linkedin.metadata.models.AspectSpec;
 import com.linkedin.metadata.utils.DataPlatformInstanceUtils;
@@ -53,13 +54,14 @@ public class IngestDataPlatformInstancesStep implements BootstrapStep {
     }
 
     long numEntities = _migrationsDao.countEntities();
-    int start = 0;
+    int numRead = 0;
+    String cursor = null;
 
-    while (start < numEntities) {
-      log.info("Reading urns {} to {} from the aspects table to generate dataplatform instance aspects", start,
-          start + BATCH_SIZE);
-      Iterable<String> urns = _migrationsDao.listAllUrns(start, start + BATCH_SIZE);
-      for (String urnStr : urns) {
+    do {
+      log.info("Reading urns {} to {} of {} from the aspects table to generate dataplatform instance aspects", numRead,
+          numRead + BATCH_SIZE, numEntities);
+      CursorListResult<String> urns = _migrationsDao.listAllUrnsAfter(cursor, BATCH_SIZE);
+      for (String urnStr : urns.getValues()) {
         Urn urn = Urn.createFromString(urnStr);
         Optional<DataPlatformInstance> dataPlatformInstance = getDataPlatformInstance(urn);
         if (!dataPlatformInstance.isPresent()) {
@@ -71,9 +73,10 @@ public class IngestDataPlatformInstancesStep implements BootstrapStep {
 
         _entityService.ingestAspect(urn, PLATFORM_INSTANCE_ASPECT_NAME, dataPlatformInstance.get(), aspectAuditStamp, null);
       }
-      log.info("Finished ingesting DataPlatformInstance for urn {} to {}", start, start + BATCH_SIZE);
-      start += BATCH_SIZE;
-    }
+      log.info("Finished ingesting DataPlatformInstance for urn {} to {}", numRead, numRead + urns.getValues().size());
+      numRead += urns.getValues().size();
+      cursor = urns.getNextCursor();
+    } while (cursor != null);
     log.info("Finished ingesting DataPlatformInstance for all entities");
   }
 }
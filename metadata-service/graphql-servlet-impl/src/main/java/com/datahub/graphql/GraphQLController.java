@@ -12,9 +12,7 @@ import com.linkedin.datahub.graphql.GraphQLEngine;
 import com.linkedin.metadata.utils.metrics.MetricUtils;
 import graphql.ExecutionResult;
 import java.util.Collections;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
@@ -76,6 +74,12 @@ public class GraphQLController {
       ? new ObjectMapper().convertValue(variablesJson, new TypeReference<Map<String, Object>>() { })
       : Collections.emptyMap();
 
+    /*
+     * Extract "extensions.tracing", opting in to the trace of the execution of every field
+     */
+    JsonNode extensionsJson = bodyJson.get("extensions");
+    final boolean tracing = extensionsJson != null && extensionsJson.path("tracing").asBoolean(false);
+
     log.debug(String.format("Executing graphQL query: %s, variables: %s", queryJson, variables));
 
     /*
@@ -91,7 +95,9 @@ public class GraphQLController {
       /*
        * Execute GraphQL Query
        */
-      ExecutionResult executionResult = _engine.execute(queryJson.asText(), variables, context);
+      long startNanos = System.nanoTime();
+      ExecutionResult executionResult = _engine.execute(queryJson.asText(), variables, context, tracing);
+      long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
 
       if (executionResult.getErrors().size() != 0) {
         // There were GraphQL errors. Report in error logs.
@@ -109,9 +115,7 @@ public class GraphQLController {
        * Format & Return Response
        */
       try {
-        submitMetrics(executionResult);
-        // Remove tracing from response to reduce bulk, not used by the frontend
-        executionResult.getExtensions().remove("tracing");
+        submitMetrics(queryJson.asText(), durationMillis);
         String responseBodyStr = new ObjectMapper().writeValueAsString(executionResult.toSpecification());
         return new ResponseEntity<>(responseBodyStr, HttpStatus.OK);
       } catch (IllegalArgumentException | JsonProcessingException e) {
@@ -126,21 +130,12 @@ public class GraphQLController {
     throw new UnsupportedOperationException("GraphQL gets not supported.");
   }
 
-  @SuppressWarnings("unchecked")
-  private void submitMetrics(ExecutionResult executionResult) {
+  private void submitMetrics(String query, long durationMillis) {
     try {
-      Object tracingInstrumentation = executionResult.getExtensions().get("tracing");
-      if (tracingInstrumentation instanceof Map) {
-        Map<String, Object> tracingMap = (Map<String, Object>) tracingInstrumentation;
-        long totalDuration = TimeUnit.NANOSECONDS.toMillis((long) tracingMap.get("duration"));
-        Map<String, Object> executionData = (Map<String, Object>) tracingMap.get("execution");
-        // Extract top level resolver, parent is top level query. Assumes single query per call.
-        List<Map<String, Object>> resolvers = (List<Map<String, Object>>) executionData.get("resolvers");
-        Optional<Map<String, Object>>
-            parentResolver = resolvers.stream().filter(resolver -> resolver.get("parentType").equals("Query")).findFirst();
-        String fieldName = parentResolver.isPresent() ? (String) parentResolver.get().get("fieldName") : "UNKNOWN";
-        MetricUtils.get().histogram(MetricRegistry.name(this.getClass(), fieldName)).update(totalDuration);
-      }
+      // Assumes single query per call, named after its top level field as defined by the schema, not after the alias
+      // chosen by the client, so that there is one histogram per field at most
+      String fieldName = _engine.getTopLevelFieldName(query).orElse("UNKNOWN");
+      MetricUtils.get().histogram(MetricRegistry.name(this.getClass(), fieldName)).update(durationMillis);
     } catch (Exception e) {
       log.error("Unable to submit metrics for GraphQL call.", e);
     }
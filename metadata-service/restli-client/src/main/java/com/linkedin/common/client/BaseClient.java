@@ -1,13 +1,22 @@
 package com.linkedin.common.client;
 
 import com.datahub.authentication.Authentication;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.linkedin.common.callback.Callback;
 import com.linkedin.common.callback.FutureCallback;
 import com.linkedin.r2.RemoteInvocationException;
 import com.linkedin.restli.client.AbstractRequestBuilder;
 import com.linkedin.restli.client.Client;
 import com.linkedin.restli.client.Request;
 import com.linkedin.restli.client.Response;
+import java.util.ArrayDeque;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import javax.annotation.Nonnull;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpHeaders;
@@ -16,10 +25,29 @@ import org.apache.http.HttpHeaders;
 @Slf4j
 public abstract class BaseClient implements AutoCloseable {
 
+  public static final int DEFAULT_MAX_IN_FLIGHT_REQUESTS = 10;
+
   protected final Client _client;
 
+  // Bounds the requests sent asynchronously by this client, which also back its synchronous batch reads. Requests above
+  // the bound are queued until one completes
+  private final int _maxInFlightRequests;
+  private final Queue<Runnable> _queuedRequests = new ArrayDeque<>();
+  private int _inFlightRequests = 0;
+  // Completes the asynchronous requests, so that their callers' stages never run on the I/O threads of the client
+  private final ExecutorService _callbackExecutor = Executors.newCachedThreadPool(
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("restli-client-callback-%d").build());
+
   protected BaseClient(@Nonnull Client restliClient) {
+    this(restliClient, DEFAULT_MAX_IN_FLIGHT_REQUESTS);
+  }
+
+  protected BaseClient(@Nonnull Client restliClient, int maxInFlightRequests) {
     _client = Objects.requireNonNull(restliClient);
+    if (maxInFlightRequests <= 0) {
+      throw new IllegalArgumentException("maxInFlightRequests must be positive");
+    }
+    _maxInFlightRequests = maxInFlightRequests;
   }
 
   protected <T> Response<T> sendClientRequest(final AbstractRequestBuilder<?, ?, ? extends Request<T>> requestBuilder) throws RemoteInvocationException {
@@ -36,10 +64,98 @@ public abstract class BaseClient implements AutoCloseable {
     return _client.sendRequest(requestBuilder.build()).getResponse();
   }
 
+  /**
+   * Sends a request without blocking. The request is dispatched right away if less than the max in-flight requests of
+   * this client are pending, and queued otherwise. The returned future is completed on a thread of this client.
+   */
+  protected <T> CompletableFuture<Response<T>> sendClientRequestAsync(
+      final AbstractRequestBuilder<?, ?, ? extends Request<T>> requestBuilder,
+      @Nonnull final Authentication authentication) {
+    requestBuilder.addHeader(HttpHeaders.AUTHORIZATION, authentication.getCredentials());
+    final Request<T> request = requestBuilder.build();
+    final CompletableFuture<Response<T>> future = new CompletableFuture<>();
+    final Runnable dispatch = () -> {
+      try {
+        _client.sendRequest(request, new Callback<Response<T>>() {
+          @Override
+          public void onError(Throwable e) {
+            onRequestComplete();
+            completeAsync(() -> future.completeExceptionally(e), future);
+          }
+
+          @Override
+          public void onSuccess(Response<T> response) {
+            onRequestComplete();
+            completeAsync(() -> future.complete(response), future);
+          }
+        });
+      } catch (RuntimeException e) {
+        onRequestComplete();
+        future.completeExceptionally(e);
+      }
+    };
+
+    final boolean dispatchNow;
+    synchronized (_queuedRequests) {
+      dispatchNow = _inFlightRequests < _maxInFlightRequests;
+      if (dispatchNow) {
+        _inFlightRequests++;
+      } else {
+        _queuedRequests.add(dispatch);
+      }
+    }
+    if (dispatchNow) {
+      dispatch.run();
+    }
+    return future;
+  }
+
+  private void completeAsync(@Nonnull Runnable completion, @Nonnull CompletableFuture<?> future) {
+    try {
+      _callbackExecutor.execute(completion);
+    } catch (RejectedExecutionException e) {
+      // The client is closed
+      future.completeExceptionally(e);
+    }
+  }
+
+  // Hands the slot of a completed request over to the next queued one
+  private void onRequestComplete() {
+    final Runnable next;
+    synchronized (_queuedRequests) {
+      next = _queuedRequests.poll();
+      if (next == null) {
+        _inFlightRequests--;
+      }
+    }
+    if (next != null) {
+      next.run();
+    }
+  }
+
+  /**
+   * Waits for the result of an asynchronous request, rethrowing its failure as the synchronous API would.
+   */
+  protected static <T> T await(@Nonnull CompletableFuture<T> future) throws RemoteInvocationException {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof RemoteInvocationException) {
+        throw (RemoteInvocationException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new RemoteInvocationException(cause);
+    }
+  }
+
   @Override
   public void close() {
     if (_client != null) {
       _client.shutdown(new FutureCallback<>());
     }
+    _callbackExecutor.shutdown();
   }
 }
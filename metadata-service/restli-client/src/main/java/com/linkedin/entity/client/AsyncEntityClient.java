@@ -0,0 +1,40 @@
+package com.linkedin.entity.client;
+
+import com.datahub.authentication.Authentication;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.entity.Entity;
+import com.linkedin.entity.EntityResponse;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+
+/**
+ * Non-blocking variant of the batch reads of {@link EntityClient}. Large batches are split into several requests,
+ * which are sent concurrently, up to the max in-flight requests of the client. The synchronous batch reads of
+ * {@link EntityClient} share the same bound, and wait for these futures.
+ */
+public interface AsyncEntityClient {
+
+  @Nonnull
+  CompletableFuture<EntityResponse> getV2Async(
+      @Nonnull String entityName,
+      @Nonnull final Urn urn,
+      @Nullable final Set<String> aspectNames,
+      @Nonnull final Authentication authentication);
+
+  @Nonnull
+  CompletableFuture<Map<Urn, EntityResponse>> batchGetV2Async(
+      @Nonnull String entityName,
+      @Nonnull final Set<Urn> urns,
+      @Nullable final Set<String> aspectNames,
+      @Nonnull final Authentication authentication);
+
+  @Nonnull
+  @Deprecated
+  CompletableFuture<Map<Urn, Entity>> batchGetAsync(
+      @Nonnull final Set<Urn> urns,
+      @Nonnull final Authentication authentication);
+}
@@ -15,9 +15,11 @@ import com.linkedin.metadata.graph.LineageDirection;
 import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.ListResult;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
 import com.linkedin.metadata.search.LineageSearchResult;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.mxe.MetadataChangeProposal;
 import com.linkedin.mxe.PlatformEvent;
@@ -94,6 +96,21 @@ public interface EntityClient {
       @Nonnull Map<String, String> requestFilters, @Nonnull int limit, @Nonnull Authentication authentication)
       throws RemoteInvocationException;
 
+  /**
+   * Gets autocomplete results for several entity types at once
+   *
+   * @param entityTypes entity types to autocomplete (if empty, autocompletes all entities)
+   * @param query search query
+   * @param requestFilters autocomplete filters
+   * @param limit max number of autocomplete results per entity type
+   * @return map from entity type to its autocomplete results
+   * @throws RemoteInvocationException
+   */
+  @Nonnull
+  public Map<String, AutoCompleteResult> autoCompleteAcrossEntities(@Nonnull List<String> entityTypes,
+      @Nonnull String query, @Nonnull Map<String, String> requestFilters, int limit,
+      @Nonnull Authentication authentication) throws RemoteInvocationException;
+
   /**
    * Gets browse snapshot of a given path
    *
@@ -180,6 +197,23 @@ public interface EntityClient {
       @Nullable Filter filter, int start, int count, @Nonnull Authentication authentication)
       throws RemoteInvocationException;
 
+  /**
+   * Gets the page of entities matching to a given query and filters across multiple entity types that comes after the
+   * given cursor. Suited to walk through all results, as pages are neither capped nor more expensive the deeper they are
+   *
+   * @param entities entity types to search (if empty, searches all entities)
+   * @param input search query
+   * @param filter search filters
+   * @param scrollId cursor returned with the previous page, null to fetch the first page
+   * @param count max number of search results requested
+   * @return a page of results and the cursor to the next page
+   * @throws RemoteInvocationException
+   */
+  @Nonnull
+  public ScrollResult scrollAcrossEntities(@Nonnull List<String> entities, @Nonnull String input,
+      @Nullable Filter filter, @Nullable String scrollId, int count, @Nonnull Authentication authentication)
+      throws RemoteInvocationException;
+
   /**
    * Gets a list of documents that match given search request that is related to the input entity
    *
@@ -223,6 +257,16 @@ public interface EntityClient {
   public ListUrnsResult listUrns(@Nonnull final String entityName, final int start, final int count,
       @Nonnull final Authentication authentication) throws RemoteInvocationException;
 
+  /**
+   * List the urns existing for a particular Entity type that come after the given cursor. Suited to walk through all
+   * urns, as pages are not more expensive the deeper they are.
+   *
+   * @param scrollId cursor returned with the previous page, null to fetch the first page
+   */
+  @Nonnull
+  public ScrollUrnsResult scrollUrns(@Nonnull final String entityName, @Nullable final String scrollId, final int count,
+      @Nonnull final Authentication authentication) throws RemoteInvocationException;
+
   /**
    * Hard delete an entity with a particular urn.
    */
@@ -24,6 +24,7 @@ import com.linkedin.metadata.graph.LineageDirection;
 import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.ListResult;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
 import com.linkedin.metadata.resources.entity.AspectUtils;
@@ -31,6 +32,7 @@ import com.linkedin.metadata.resources.entity.EntityResource;
 import com.linkedin.metadata.search.EntitySearchService;
 import com.linkedin.metadata.search.LineageSearchResult;
 import com.linkedin.metadata.search.LineageSearchService;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.SearchService;
 import com.linkedin.metadata.timeseries.TimeseriesAspectService;
@@ -154,6 +156,25 @@ public class JavaEntityClient implements EntityClient {
         return _entitySearchService.autoComplete(entityType, query, "", newFilter(requestFilters), limit);
     }
 
+    /**
+     * Gets autocomplete results for several entity types with a single search request
+     *
+     * @param entityTypes entity types to autocomplete (if empty, autocompletes all entities)
+     * @param query search query
+     * @param requestFilters autocomplete filters
+     * @param limit max number of autocomplete results per entity type
+     * @throws RemoteInvocationException
+     */
+    @Nonnull
+    public Map<String, AutoCompleteResult> autoCompleteAcrossEntities(
+        @Nonnull List<String> entityTypes,
+        @Nonnull String query,
+        @Nonnull Map<String, String> requestFilters,
+        int limit,
+        @Nonnull final Authentication authentication) throws RemoteInvocationException {
+        return _searchService.autoCompleteAcrossEntities(entityTypes, query, newFilter(requestFilters), limit);
+    }
+
     /**
      * Gets autocomplete results
      *
@@ -302,6 +323,18 @@ public class JavaEntityClient implements EntityClient {
         return _searchService.searchAcrossEntities(entities, input, filter, null, start, count, null);
     }
 
+    @Nonnull
+    @Override
+    public ScrollResult scrollAcrossEntities(
+        @Nonnull List<String> entities,
+        @Nonnull String input,
+        @Nullable Filter filter,
+        @Nullable String scrollId,
+        int count,
+        @Nonnull final Authentication authentication) throws RemoteInvocationException {
+        return _searchService.scrollAcrossEntities(entities, input, filter, scrollId, count);
+    }
+
     @Nonnull
     @Override
     public LineageSearchResult searchAcrossLineage(@Nonnull Urn sourceUrn, @Nonnull LineageDirection direction,
@@ -343,6 +376,13 @@ public class JavaEntityClient implements EntityClient {
         return _entityService.listUrns(entityName, start, count);
     }
 
+    @Nonnull
+    @Override
+    public ScrollUrnsResult scrollUrns(@Nonnull final String entityName, @Nullable final String scrollId,
+        final int count, @Nonnull final Authentication authentication) throws RemoteInvocationException {
+        return _entityService.scrollUrns(entityName, scrollId, count);
+    }
+
     /**
      * Hard delete an entity with a particular urn.
      */
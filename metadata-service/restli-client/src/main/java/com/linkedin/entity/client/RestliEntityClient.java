@@ -2,6 +2,7 @@ package com.linkedin.entity.client;
 
 import com.datahub.authentication.Authentication;
 import com.datahub.util.RecordUtils;
+import com.google.common.collect.Iterables;
 import com.linkedin.common.VersionedUrn;
 import com.linkedin.common.client.BaseClient;
 import com.linkedin.common.urn.Urn;
@@ -14,6 +15,7 @@ import com.linkedin.entity.AspectsDoIngestProposalRequestBuilder;
 import com.linkedin.entity.AspectsGetRequestBuilder;
 import com.linkedin.entity.AspectsRequestBuilders;
 import com.linkedin.entity.EntitiesBatchGetRequestBuilder;
+import com.linkedin.entity.EntitiesDoAutocompleteAcrossEntitiesRequestBuilder;
 import com.linkedin.entity.EntitiesDoAutocompleteRequestBuilder;
 import com.linkedin.entity.EntitiesDoBatchGetTotalEntityCountRequestBuilder;
 import com.linkedin.entity.EntitiesDoBatchIngestRequestBuilder;
@@ -24,6 +26,8 @@ import com.linkedin.entity.EntitiesDoGetBrowsePathsRequestBuilder;
 import com.linkedin.entity.EntitiesDoIngestRequestBuilder;
 import com.linkedin.entity.EntitiesDoListRequestBuilder;
 import com.linkedin.entity.EntitiesDoListUrnsRequestBuilder;
+import com.linkedin.entity.EntitiesDoScrollAcrossEntitiesRequestBuilder;
+import com.linkedin.entity.EntitiesDoScrollUrnsRequestBuilder;
 import com.linkedin.entity.EntitiesDoSearchAcrossEntitiesRequestBuilder;
 import com.linkedin.entity.EntitiesDoSearchAcrossLineageRequestBuilder;
 import com.linkedin.entity.EntitiesDoSearchRequestBuilder;
@@ -44,9 +48,11 @@ import com.linkedin.metadata.graph.LineageDirection;
 import com.linkedin.metadata.query.AutoCompleteResult;
 import com.linkedin.metadata.query.ListResult;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
 import com.linkedin.metadata.search.LineageSearchResult;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.mxe.MetadataChangeProposal;
 import com.linkedin.mxe.PlatformEvent;
@@ -55,16 +61,17 @@ import com.linkedin.platform.PlatformDoProducePlatformEventRequestBuilder;
 import com.linkedin.platform.PlatformRequestBuilders;
 import com.linkedin.r2.RemoteInvocationException;
 import com.linkedin.restli.client.Client;
+import com.linkedin.restli.client.Response;
 import com.linkedin.restli.client.RestLiResponseException;
 import com.linkedin.restli.common.HttpStatus;
 import java.net.URISyntaxException;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -76,7 +83,7 @@ import static com.linkedin.metadata.search.utils.QueryUtils.newFilter;
 
 
 @Slf4j
-public class RestliEntityClient extends BaseClient implements EntityClient {
+public class RestliEntityClient extends BaseClient implements EntityClient, AsyncEntityClient {
 
   private static final EntitiesRequestBuilders ENTITIES_REQUEST_BUILDERS = new EntitiesRequestBuilders();
   private static final EntitiesV2RequestBuilders ENTITIES_V2_REQUEST_BUILDERS = new EntitiesV2RequestBuilders();
@@ -84,19 +91,30 @@ public class RestliEntityClient extends BaseClient implements EntityClient {
       new EntitiesVersionedV2RequestBuilders();
   private static final AspectsRequestBuilders ASPECTS_REQUEST_BUILDERS = new AspectsRequestBuilders();
   private static final PlatformRequestBuilders PLATFORM_REQUEST_BUILDERS = new PlatformRequestBuilders();
+  private static final int BATCH_GET_SIZE = 25;
 
   public RestliEntityClient(@Nonnull final Client restliClient) {
     super(restliClient);
   }
 
+  public RestliEntityClient(@Nonnull final Client restliClient, final int maxInFlightRequests) {
+    super(restliClient, maxInFlightRequests);
+  }
+
   @Nullable
   public EntityResponse getV2(@Nonnull String entityName, @Nonnull final Urn urn,
       @Nullable final Set<String> aspectNames, @Nonnull final Authentication authentication)
       throws RemoteInvocationException, URISyntaxException {
+    return await(getV2Async(entityName, urn, aspectNames, authentication));
+  }
+
+  @Nonnull
+  public CompletableFuture<EntityResponse> getV2Async(@Nonnull String entityName, @Nonnull final Urn urn,
+      @Nullable final Set<String> aspectNames, @Nonnull final Authentication authentication) {
     final EntitiesV2GetRequestBuilder requestBuilder = ENTITIES_V2_REQUEST_BUILDERS.get()
         .aspectsParam(aspectNames)
         .id(urn.toString());
-    return sendClientRequest(requestBuilder, authentication).getEntity();
+    return sendClientRequestAsync(requestBuilder, authentication).thenApply(Response::getEntity);
   }
 
   @Nonnull
@@ -118,32 +136,37 @@ public class RestliEntityClient extends BaseClient implements EntityClient {
   @Nonnull
   public Map<Urn, Entity> batchGet(@Nonnull final Set<Urn> urns, @Nonnull final Authentication authentication)
       throws RemoteInvocationException {
+    return await(batchGetAsync(urns, authentication));
+  }
 
-    final Integer batchSize = 25;
-    final AtomicInteger index = new AtomicInteger(0);
-
-    final Collection<List<Urn>> entityUrnBatches =
-        urns.stream().collect(Collectors.groupingBy(x -> index.getAndIncrement() / batchSize)).values();
-
-    final Map<Urn, Entity> response = new HashMap<>();
-
-    for (List<Urn> urnsInBatch : entityUrnBatches) {
+  /**
+   * Batch get a set of {@link Entity} objects by urn, sending the batches of 25 urns concurrently.
+   *
+   * @param urns the urns of the entities to batch get
+   * @param authentication the authentication to include in the request to the Metadata Service
+   */
+  @Nonnull
+  public CompletableFuture<Map<Urn, Entity>> batchGetAsync(@Nonnull final Set<Urn> urns,
+      @Nonnull final Authentication authentication) {
+    final List<CompletableFuture<Map<Urn, Entity>>> batchResponses = new ArrayList<>();
+    for (List<Urn> urnsInBatch : Iterables.partition(urns, BATCH_GET_SIZE)) {
       EntitiesBatchGetRequestBuilder batchGetRequestBuilder =
           ENTITIES_REQUEST_BUILDERS.batchGet().ids(urnsInBatch.stream().map(Urn::toString).collect(Collectors.toSet()));
-      final Map<Urn, Entity> batchResponse = sendClientRequest(batchGetRequestBuilder, authentication).getEntity()
-          .getResults()
-          .entrySet()
-          .stream()
-          .collect(Collectors.toMap(entry -> {
-            try {
-              return Urn.createFromString(entry.getKey());
-            } catch (URISyntaxException e) {
-              throw new RuntimeException(String.format("Failed to create Urn from key string %s", entry.getKey()));
-            }
-          }, entry -> entry.getValue().getEntity()));
-      response.putAll(batchResponse);
+      batchResponses.add(sendClientRequestAsync(batchGetRequestBuilder, authentication).thenApply(
+          response -> response.getEntity()
+              .getResults()
+              .entrySet()
+              .stream()
+              .collect(Collectors.toMap(entry -> {
+                try {
+                  return Urn.createFromString(entry.getKey());
+                } catch (URISyntaxException e) {
+                  throw new RuntimeException(
+                      String.format("Failed to create Urn from key string %s", entry.getKey()));
+                }
+              }, entry -> entry.getValue().getEntity()))));
     }
-    return response;
+    return mergeBatchResponses(batchResponses);
   }
 
   /**
@@ -158,23 +181,51 @@ public class RestliEntityClient extends BaseClient implements EntityClient {
   @Nonnull
   public Map<Urn, EntityResponse> batchGetV2(@Nonnull String entityName, @Nonnull final Set<Urn> urns,
       @Nullable final Set<String> aspectNames, @Nonnull final Authentication authentication) throws RemoteInvocationException, URISyntaxException {
+    return await(batchGetV2Async(entityName, urns, aspectNames, authentication));
+  }
 
-    final EntitiesV2BatchGetRequestBuilder requestBuilder = ENTITIES_V2_REQUEST_BUILDERS.batchGet()
-        .aspectsParam(aspectNames)
-        .ids(urns.stream().map(Urn::toString).collect(Collectors.toList()));
+  /**
+   * Batch get a set of aspects for a single entity, sending the batches of 25 urns concurrently.
+   *
+   * @param entityName the entity type to fetch
+   * @param urns the urns of the entities to batch get
+   * @param aspectNames the aspect names to batch get
+   * @param authentication the authentication to include in the request to the Metadata Service
+   */
+  @Nonnull
+  public CompletableFuture<Map<Urn, EntityResponse>> batchGetV2Async(@Nonnull String entityName,
+      @Nonnull final Set<Urn> urns, @Nullable final Set<String> aspectNames,
+      @Nonnull final Authentication authentication) {
+    final List<CompletableFuture<Map<Urn, EntityResponse>>> batchResponses = new ArrayList<>();
+    for (List<Urn> urnsInBatch : Iterables.partition(urns, BATCH_GET_SIZE)) {
+      final EntitiesV2BatchGetRequestBuilder requestBuilder = ENTITIES_V2_REQUEST_BUILDERS.batchGet()
+          .aspectsParam(aspectNames)
+          .ids(urnsInBatch.stream().map(Urn::toString).collect(Collectors.toList()));
+      batchResponses.add(sendClientRequestAsync(requestBuilder, authentication).thenApply(
+          response -> response.getEntity()
+              .getResults()
+              .entrySet()
+              .stream()
+              .collect(Collectors.toMap(entry -> {
+                try {
+                  return Urn.createFromString(entry.getKey());
+                } catch (URISyntaxException e) {
+                  throw new RuntimeException(
+                      String.format("Failed to bind urn string with value %s into urn", entry.getKey()));
+                }
+              }, entry -> entry.getValue().getEntity()))));
+    }
+    return mergeBatchResponses(batchResponses);
+  }
 
-    return sendClientRequest(requestBuilder, authentication).getEntity()
-        .getResults()
-        .entrySet()
-        .stream()
-        .collect(Collectors.toMap(entry -> {
-          try {
-            return Urn.createFromString(entry.getKey());
-          } catch (URISyntaxException e) {
-            throw new RuntimeException(
-                String.format("Failed to bind urn string with value %s into urn", entry.getKey()));
-          }
-        }, entry -> entry.getValue().getEntity()));
+  @Nonnull
+  private static <V> CompletableFuture<Map<Urn, V>> mergeBatchResponses(
+      @Nonnull List<CompletableFuture<Map<Urn, V>>> batchResponses) {
+    return CompletableFuture.allOf(batchResponses.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+      final Map<Urn, V> response = new HashMap<>();
+      batchResponses.forEach(batchResponse -> response.putAll(batchResponse.join()));
+      return response;
+    });
   }
 
   /**
@@ -253,6 +304,28 @@ public class RestliEntityClient extends BaseClient implements EntityClient {
     return sendClientRequest(requestBuilder, authentication).getEntity();
   }
 
+  /**
+   * Autocomplete a search query for several entity types at once, in a single request.
+   *
+   * @param entityTypes entity types to autocomplete (if empty, autocompletes all entities)
+   * @param query search query
+   * @param requestFilters autocomplete filters
+   * @param limit max number of autocomplete results per entity type
+   * @throws RemoteInvocationException
+   */
+  @Nonnull
+  public Map<String, AutoCompleteResult> autoCompleteAcrossEntities(@Nonnull List<String> entityTypes,
+      @Nonnull String query, @Nonnull Map<String, String> requestFilters, int limit,
+      @Nonnull final Authentication authentication) throws RemoteInvocationException {
+    EntitiesDoAutocompleteAcrossEntitiesRequestBuilder requestBuilder =
+        ENTITIES_REQUEST_BUILDERS.actionAutocompleteAcrossEntities()
+            .entitiesParam(new StringArray(entityTypes))
+            .queryParam(query)
+            .filterParam(newFilter(requestFilters))
+            .limitParam(limit);
+    return sendClientRequest(requestBuilder, authentication).getEntity().getResults();
+  }
+
   /**
    * Gets browse snapshot of a given path
    *
@@ -413,6 +486,28 @@ public class RestliEntityClient extends BaseClient implements EntityClient {
     return sendClientRequest(requestBuilder, authentication).getEntity();
   }
 
+  @Nonnull
+  @Override
+  public ScrollResult scrollAcrossEntities(@Nonnull List<String> entities, @Nonnull String input,
+      @Nullable Filter filter, @Nullable String scrollId, int count, @Nonnull final Authentication authentication)
+      throws RemoteInvocationException {
+
+    final EntitiesDoScrollAcrossEntitiesRequestBuilder requestBuilder =
+        ENTITIES_REQUEST_BUILDERS.actionScrollAcrossEntities().inputParam(input).countParam(count);
+
+    if (entities != null) {
+      requestBuilder.entitiesParam(new StringArray(entities));
+    }
+    if (filter != null) {
+      requestBuilder.filterParam(filter);
+    }
+    if (scrollId != null) {
+      requestBuilder.scrollIdParam(scrollId);
+    }
+
+    return sendClientRequest(requestBuilder, authentication).getEntity();
+  }
+
   @Nonnull
   @Override
   public LineageSearchResult searchAcrossLineage(@Nonnull Urn sourceUrn, @Nonnull LineageDirection direction,
@@ -478,6 +573,18 @@ public class RestliEntityClient extends BaseClient implements EntityClient {
     return sendClientRequest(requestBuilder, authentication).getEntity();
   }
 
+  @Nonnull
+  @Override
+  public ScrollUrnsResult scrollUrns(@Nonnull final String entityName, @Nullable final String scrollId,
+      final int count, @Nonnull final Authentication authentication) throws RemoteInvocationException {
+    EntitiesDoScrollUrnsRequestBuilder requestBuilder =
+        ENTITIES_REQUEST_BUILDERS.actionScrollUrns().entityParam(entityName).countParam(count);
+    if (scrollId != null) {
+      requestBuilder.scrollIdParam(scrollId);
+    }
+    return sendClientRequest(requestBuilder, authentication).getEntity();
+  }
+
   /**
    * Hard delete an entity with a particular urn.
    */
@@ -0,0 +1,170 @@
+package com.linkedin.entity.client;
+
+import com.datahub.authentication.Actor;
+import com.datahub.authentication.ActorType;
+import com.datahub.authentication.Authentication;
+import com.linkedin.common.callback.Callback;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.common.urn.UrnUtils;
+import com.linkedin.entity.EntityResponse;
+import com.linkedin.entity.EnvelopedAspectMap;
+import com.linkedin.restli.client.BatchRequest;
+import com.linkedin.restli.client.Client;
+import com.linkedin.restli.client.Request;
+import com.linkedin.restli.client.Response;
+import com.linkedin.restli.client.response.BatchKVResponse;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class RestliEntityClientTest {
+  private static final Authentication AUTHENTICATION =
+      new Authentication(new Actor(ActorType.USER, "datahub"), "Basic datahub:datahub");
+  private static final int MAX_IN_FLIGHT_REQUESTS = 2;
+
+  private ExecutorService _serverExecutor;
+  private final AtomicInteger _inFlightRequests = new AtomicInteger();
+  private final AtomicInteger _maxObservedInFlightRequests = new AtomicInteger();
+  private final List<Integer> _batchSizes = new CopyOnWriteArrayList<>();
+  private RestliEntityClient _entityClient;
+
+  @BeforeMethod
+  public void setup() {
+    _serverExecutor = Executors.newCachedThreadPool();
+    _inFlightRequests.set(0);
+    _maxObservedInFlightRequests.set(0);
+    _batchSizes.clear();
+    _entityClient = new RestliEntityClient(buildServer(), MAX_IN_FLIGHT_REQUESTS);
+  }
+
+  @AfterMethod
+  public void tearDown() {
+    _serverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testBatchGetV2SendsBoundedConcurrentBatches() throws Exception {
+    final Set<Urn> urns = new LinkedHashSet<>();
+    for (int i = 0; i < 110; i++) {
+      urns.add(UrnUtils.getUrn(String.format("urn:li:dataset:(urn:li:dataPlatform:hive,table%d,PROD)", i)));
+    }
+    final Map<Urn, EntityResponse> expected = new HashMap<>();
+    urns.forEach(urn -> expected.put(urn, buildEntityResponse(urn.toString())));
+
+    final Map<Urn, EntityResponse> asyncResult =
+        _entityClient.batchGetV2Async("dataset", urns, null, AUTHENTICATION).get(10, TimeUnit.SECONDS);
+    assertEquals(asyncResult, expected);
+    assertEquals(_batchSizes.size(), 5);
+    assertTrue(_batchSizes.stream().allMatch(batchSize -> batchSize <= 25));
+    assertEquals(_maxObservedInFlightRequests.get(), MAX_IN_FLIGHT_REQUESTS);
+
+    assertEquals(_inFlightRequests.get(), 0);
+  }
+
+  @Test
+  public void testSyncBatchGetV2IsThrottled() throws Exception {
+    final Set<Urn> urns = new LinkedHashSet<>();
+    for (int i = 0; i < 110; i++) {
+      urns.add(UrnUtils.getUrn(String.format("urn:li:dataset:(urn:li:dataPlatform:hive,table%d,PROD)", i)));
+    }
+
+    // Synchronous reads share the in-flight requests of the background callers
+    final CompletableFuture<Map<Urn, EntityResponse>> backgroundResult =
+        _entityClient.batchGetV2Async("dataset", urns, null, AUTHENTICATION);
+    final Map<Urn, EntityResponse> syncResult = _entityClient.batchGetV2("dataset", urns, null, AUTHENTICATION);
+    assertEquals(syncResult.keySet(), urns);
+    assertEquals(_batchSizes.size(), 10);
+    assertEquals(_maxObservedInFlightRequests.get(), MAX_IN_FLIGHT_REQUESTS);
+
+    assertEquals(backgroundResult.get(10, TimeUnit.SECONDS), syncResult);
+    assertEquals(_inFlightRequests.get(), 0);
+  }
+
+  @Test
+  public void testBatchGetV2CompletesOffTheIoThreads() throws Exception {
+    final Set<Urn> urns = new LinkedHashSet<>();
+    urns.add(UrnUtils.getUrn("urn:li:dataset:(urn:li:dataPlatform:hive,table,PROD)"));
+
+    final String completionThread = _entityClient.batchGetV2Async("dataset", urns, null, AUTHENTICATION)
+        .thenApply(result -> Thread.currentThread().getName())
+        .get(10, TimeUnit.SECONDS);
+    assertTrue(completionThread.startsWith("restli-client-callback-"), completionThread);
+  }
+
+  @Test
+  public void testBatchGetV2PropagatesFailures() {
+    final Set<Urn> urns = new LinkedHashSet<>();
+    urns.add(UrnUtils.getUrn("urn:li:dataset:(urn:li:dataPlatform:hive,fail,PROD)"));
+    try {
+      _entityClient.batchGetV2("dataset", urns, null, AUTHENTICATION);
+      throw new AssertionError("Expected the failure of the request to be rethrown");
+    } catch (Exception e) {
+      assertTrue(e instanceof IllegalStateException);
+    }
+    assertEquals(_inFlightRequests.get(), 0);
+  }
+
+  private static EntityResponse buildEntityResponse(String urn) {
+    return new EntityResponse().setUrn(UrnUtils.getUrn(urn))
+        .setEntityName("dataset")
+        .setAspects(new EnvelopedAspectMap());
+  }
+
+  /**
+   * Answers batch get requests asynchronously after a delay, like a remote Metadata Service would, and records how
+   * many requests are in flight at the same time.
+   */
+  @SuppressWarnings("unchecked")
+  private Client buildServer() {
+    final Client client = Mockito.mock(Client.class);
+    Mockito.doAnswer(invocation -> {
+      final Set<?> ids = ((BatchRequest<?>) invocation.getArgument(0)).getObjectIds();
+      final Callback<Response<?>> callback = invocation.getArgument(1);
+      final int inFlightRequests = _inFlightRequests.incrementAndGet();
+      _maxObservedInFlightRequests.accumulateAndGet(inFlightRequests, Math::max);
+      _batchSizes.add(ids.size());
+      _serverExecutor.submit(() -> {
+        Thread.sleep(50);
+        _inFlightRequests.decrementAndGet();
+        if (ids.stream().anyMatch(id -> id.toString().contains(",fail,"))) {
+          callback.onError(new IllegalStateException("Injected failure"));
+          return null;
+        }
+        final Map<String, com.linkedin.restli.common.EntityResponse<EntityResponse>> results = new HashMap<>();
+        for (Object id : ids) {
+          final com.linkedin.restli.common.EntityResponse<EntityResponse> result =
+              new com.linkedin.restli.common.EntityResponse<>(EntityResponse.class);
+          result.setEntity(buildEntityResponse(id.toString()));
+          results.put(id.toString(), result);
+        }
+        final BatchKVResponse<String, com.linkedin.restli.common.EntityResponse<EntityResponse>> batchResponse =
+            Mockito.mock(BatchKVResponse.class);
+        Mockito.when(batchResponse.getResults()).thenReturn(results);
+        final Response<BatchKVResponse<String, com.linkedin.restli.common.EntityResponse<EntityResponse>>> response =
+            Mockito.mock(Response.class);
+        Mockito.when(response.getEntity()).thenReturn(batchResponse);
+        callback.onSuccess(response);
+        return null;
+      });
+      return null;
+    }).when(client).sendRequest(any(Request.class), any(Callback.class));
+    return client;
+  }
+}
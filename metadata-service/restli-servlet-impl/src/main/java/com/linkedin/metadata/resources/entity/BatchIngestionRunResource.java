@@ -1,6 +1,8 @@
 package com.linkedin.metadata.resources.entity;
 
 import com.codahale.metrics.MetricRegistry;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.common.urn.UrnUtils;
 import com.linkedin.entity.EnvelopedAspect;
@@ -16,7 +18,6 @@ import com.linkedin.metadata.run.IngestionRunSummaryArray;
 import com.linkedin.metadata.run.RollbackResponse;
 import com.linkedin.metadata.run.UnsafeEntityInfo;
 import com.linkedin.metadata.run.UnsafeEntityInfoArray;
-import com.linkedin.metadata.search.utils.ESUtils;
 import com.linkedin.metadata.systemmetadata.SystemMetadataService;
 import com.linkedin.parseq.Task;
 import com.linkedin.restli.server.annotations.Action;
@@ -25,9 +26,10 @@ import com.linkedin.restli.server.annotations.Optional;
 import com.linkedin.restli.server.annotations.RestLiCollection;
 import com.linkedin.restli.server.resources.CollectionResourceTaskTemplate;
 import io.opentelemetry.extension.annotations.WithSpan;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -49,7 +51,12 @@ public class BatchIngestionRunResource extends CollectionResourceTaskTemplate<St
   private static final boolean DEFAULT_INCLUDE_SOFT_DELETED = false;
   private static final boolean DEFAULT_HARD_DELETE = false;
   private static final Integer ELASTIC_MAX_PAGE_SIZE = 10000;
-  private static final Integer ELASTIC_BATCH_DELETE_SLEEP_SEC = 5;
+  private static final Integer DEFAULT_ROW_SUMMARIES_SIZE = 100;
+  private static final Integer URN_BATCH_SIZE = 1000;
+  private static final Integer ROLLBACK_PARALLELISM = 10;
+  // Shared by all rollbacks, so that concurrent rollbacks do not multiply the load on the database
+  private static final ExecutorService ROLLBACK_EXECUTOR = Executors.newFixedThreadPool(ROLLBACK_PARALLELISM,
+      new ThreadFactoryBuilder().setDaemon(true).setNameFormat("rollback-%d").build());
 
   @Inject
   @Named("systemMetadataService")
@@ -83,141 +90,134 @@ public class BatchIngestionRunResource extends CollectionResourceTaskTemplate<St
             "%s is a default run-id provided for non labeled ingestion runs. You cannot delete using this reserved run-id",
             runId));
       }
+      final long startTime = System.currentTimeMillis();
       RollbackResponse response = new RollbackResponse();
-      List<AspectRowSummary> aspectRowsToDelete;
-      aspectRowsToDelete = _systemMetadataService.findByRunId(runId, doHardDelete, 0, ESUtils.MAX_RESULT_SIZE);
 
-      log.info("found {} rows to delete...", stringifyRowCount(aspectRowsToDelete.size()));
-      if (dryRun) {
-
-        final Map<Boolean, List<AspectRowSummary>> aspectsSplitByIsKeyAspects =
-            aspectRowsToDelete.stream().collect(Collectors.partitioningBy(AspectRowSummary::isKeyAspect));
-
-        final List<AspectRowSummary> keyAspects = aspectsSplitByIsKeyAspects.get(true);
-
-        long entitiesDeleted = keyAspects.size();
-        long aspectsReverted = aspectRowsToDelete.size();
-
-        final long affectedEntities =
-            aspectRowsToDelete.stream().collect(Collectors.groupingBy(AspectRowSummary::getUrn)).keySet().size();
+      long rowsFound = 0;
+      long keyAspectsFound = 0;
+      long urnsFound = 0;
+      final AspectRowSummaryArray rowSummaries = new AspectRowSummaryArray();
+      long rowsRolledBack = 0;
+      long rowsDeletedFromEntityDeletion = 0;
+      long urnsRolledBack = 0;
+      final AffectedAspects affectedAspects = new AffectedAspects();
+
+      // Walk through the rows of the run once, rolling back each page as it comes. Rows rolled back behind the cursor
+      // do not shift the following pages, so there is no need to wait for them to leave the index. Only counts are kept
+      // across pages, so that the memory used does not grow with the size of the run.
+      List<AspectRowSummary> pendingRows = new ArrayList<>();
+      AspectRowSummary lastRow = null;
+      List<AspectRowSummary> page;
+      do {
+        page = _systemMetadataService.scrollByRunId(runId, doHardDelete, lastRow, ELASTIC_MAX_PAGE_SIZE);
+        final boolean isLastPage = page.size() < ELASTIC_MAX_PAGE_SIZE;
+        for (AspectRowSummary row : page) {
+          rowsFound++;
+          // Rows are ordered by urn, so a new urn starts wherever the urn differs from the one of the previous row
+          if (lastRow == null || !lastRow.getUrn().equals(row.getUrn())) {
+            urnsFound++;
+          }
+          if (row.isKeyAspect()) {
+            keyAspectsFound++;
+          }
+          if (rowSummaries.size() < DEFAULT_ROW_SUMMARIES_SIZE) {
+            rowSummaries.add(row);
+          }
+          lastRow = row;
+        }
+        if (dryRun) {
+          computeAffectedAspects(runId, page, affectedAspects);
+          continue;
+        }
 
-        final AspectRowSummaryArray rowSummaries =
-            new AspectRowSummaryArray(aspectRowsToDelete.subList(0, Math.min(100, aspectRowsToDelete.size())));
+        // Hold back the rows of the last urn of the page, as it may have rows on the next one
+        pendingRows.addAll(page);
+        final String lastUrn = isLastPage || pendingRows.isEmpty() ? null : lastRow.getUrn();
+        final List<AspectRowSummary> rowsToRollback =
+            pendingRows.stream().filter(row -> !row.getUrn().equals(lastUrn)).collect(Collectors.toList());
+        pendingRows = pendingRows.stream().filter(row -> row.getUrn().equals(lastUrn)).collect(Collectors.toList());
 
+        RollbackRunResult rollbackRunResult =
+            _entityService.rollbackRun(rowsToRollback, runId, doHardDelete, ROLLBACK_EXECUTOR);
+        rowsRolledBack += rollbackRunResult.getRowsRolledBack().size();
+        rowsDeletedFromEntityDeletion += rollbackRunResult.getRowsDeletedFromEntityDeletion();
+        // The rows of an urn are all rolled back in the same batch, so the urns of different batches never overlap
+        urnsRolledBack +=
+            rollbackRunResult.getRowsRolledBack().stream().map(AspectRowSummary::getUrn).distinct().count();
+        computeAffectedAspects(runId, rowsToRollback, affectedAspects);
+        log.info("{} rows rolled back so far...", rowsRolledBack);
+      } while (page.size() == ELASTIC_MAX_PAGE_SIZE);
+
+      log.info("found {} rows to delete...", rowsFound);
+      long aspectsReverted;
+      long affectedEntities;
+      if (dryRun) {
+        aspectsReverted = rowsFound;
+        affectedEntities = urnsFound;
         // If we are soft deleting, remove key aspects from count of aspects being deleted
         if (!doHardDelete) {
-          aspectsReverted -= keyAspects.size();
+          aspectsReverted -= keyAspectsFound;
           rowSummaries.removeIf(AspectRowSummary::isKeyAspect);
         }
-        // Compute the aspects that exist referencing the key aspects we are deleting
-        final List<AspectRowSummary> affectedAspectsList = keyAspects.stream()
-            .map((AspectRowSummary urn) -> _systemMetadataService.findByUrn(urn.getUrn(), false, 0,
-                ESUtils.MAX_RESULT_SIZE))
-            .flatMap(List::stream)
-            .filter(row -> !row.getRunId().equals(runId) && !row.isKeyAspect() && !row.getAspectName()
-                .equals(Constants.STATUS_ASPECT_NAME))
-            .collect(Collectors.toList());
-
-        long affectedAspects = affectedAspectsList.size();
-        long unsafeEntitiesCount =
-            affectedAspectsList.stream().collect(Collectors.groupingBy(AspectRowSummary::getUrn)).keySet().size();
-
-        final List<UnsafeEntityInfo> unsafeEntityInfos =
-            affectedAspectsList.stream().map(AspectRowSummary::getUrn).distinct().map(urn -> {
-              UnsafeEntityInfo unsafeEntityInfo = new UnsafeEntityInfo();
-              unsafeEntityInfo.setUrn(urn);
-              return unsafeEntityInfo;
-            })
-                // Return at most 1 million rows
-                .limit(DEFAULT_UNSAFE_ENTITIES_PAGE_SIZE).collect(Collectors.toList());
-
-        return response.setAspectsAffected(affectedAspects)
-            .setAspectsReverted(aspectsReverted)
-            .setEntitiesAffected(affectedEntities)
-            .setEntitiesDeleted(entitiesDeleted)
-            .setUnsafeEntitiesCount(unsafeEntitiesCount)
-            .setUnsafeEntities(new UnsafeEntityInfoArray(unsafeEntityInfos))
-            .setAspectRowSummaries(rowSummaries);
-      }
-
-      RollbackRunResult rollbackRunResult = _entityService.rollbackRun(aspectRowsToDelete, runId, doHardDelete);
-      final List<AspectRowSummary> deletedRows = rollbackRunResult.getRowsRolledBack();
-      int rowsDeletedFromEntityDeletion = rollbackRunResult.getRowsDeletedFromEntityDeletion();
-
-      // since elastic limits how many rows we can access at once, we need to iteratively delete
-      while (aspectRowsToDelete.size() >= ELASTIC_MAX_PAGE_SIZE) {
-        sleep(ELASTIC_BATCH_DELETE_SLEEP_SEC);
-        aspectRowsToDelete = _systemMetadataService.findByRunId(runId, doHardDelete, 0, ESUtils.MAX_RESULT_SIZE);
-        log.info("{} remaining rows to delete...", stringifyRowCount(aspectRowsToDelete.size()));
-        log.info("deleting...");
-        rollbackRunResult = _entityService.rollbackRun(aspectRowsToDelete, runId, doHardDelete);
-        deletedRows.addAll(rollbackRunResult.getRowsRolledBack());
-        rowsDeletedFromEntityDeletion += rollbackRunResult.getRowsDeletedFromEntityDeletion();
+      } else {
+        final long duration = Math.max(1, System.currentTimeMillis() - startTime);
+        log.info("finished deleting {} rows in {} ms ({} rows/s)", rowsRolledBack, duration,
+            rowsRolledBack * 1000 / duration);
+        aspectsReverted = rowsRolledBack + rowsDeletedFromEntityDeletion;
+        affectedEntities = urnsRolledBack;
       }
 
-      log.info("finished deleting {} rows", deletedRows.size());
-      int aspectsReverted = deletedRows.size() + rowsDeletedFromEntityDeletion;
-
-      final Map<Boolean, List<AspectRowSummary>> aspectsSplitByIsKeyAspects =
-          aspectRowsToDelete.stream().collect(Collectors.partitioningBy(AspectRowSummary::isKeyAspect));
-
-      final List<AspectRowSummary> keyAspects = aspectsSplitByIsKeyAspects.get(true);
-
-      final long entitiesDeleted = keyAspects.size();
-      final long affectedEntities =
-          deletedRows.stream().collect(Collectors.groupingBy(AspectRowSummary::getUrn)).keySet().size();
-
-      final AspectRowSummaryArray rowSummaries =
-          new AspectRowSummaryArray(aspectRowsToDelete.subList(0, Math.min(100, aspectRowsToDelete.size())));
-
-      log.info("computing aspects affected by this rollback...");
-      // Compute the aspects that exist referencing the key aspects we are deleting
-      final List<AspectRowSummary> affectedAspectsList = keyAspects.stream()
-          .map((AspectRowSummary urn) -> _systemMetadataService.findByUrn(urn.getUrn(), false, 0,
-              ESUtils.MAX_RESULT_SIZE))
-          .flatMap(List::stream)
-          .filter(row -> !row.getRunId().equals(runId) && !row.isKeyAspect() && !row.getAspectName()
-              .equals(Constants.STATUS_ASPECT_NAME))
-          .collect(Collectors.toList());
-
-      long affectedAspects = affectedAspectsList.size();
-      long unsafeEntitiesCount =
-          affectedAspectsList.stream().collect(Collectors.groupingBy(AspectRowSummary::getUrn)).keySet().size();
-
-      final List<UnsafeEntityInfo> unsafeEntityInfos =
-          affectedAspectsList.stream().map(AspectRowSummary::getUrn).distinct().map(urn -> {
-            UnsafeEntityInfo unsafeEntityInfo = new UnsafeEntityInfo();
-            unsafeEntityInfo.setUrn(urn);
-            return unsafeEntityInfo;
-          })
-              // Return at most 1 million rows
-              .limit(DEFAULT_UNSAFE_ENTITIES_PAGE_SIZE).collect(Collectors.toList());
-
-      log.info("calculation done.");
-
-      return response.setAspectsAffected(affectedAspects)
-          .setAspectsReverted(aspectsReverted)
+      return response.setAspectsReverted(aspectsReverted)
           .setEntitiesAffected(affectedEntities)
-          .setEntitiesDeleted(entitiesDeleted)
-          .setUnsafeEntitiesCount(unsafeEntitiesCount)
-          .setUnsafeEntities(new UnsafeEntityInfoArray(unsafeEntityInfos))
+          .setEntitiesDeleted(keyAspectsFound)
+          .setAspectsAffected(affectedAspects.count)
+          .setUnsafeEntitiesCount(affectedAspects.unsafeEntitiesCount)
+          .setUnsafeEntities(affectedAspects.unsafeEntities)
           .setAspectRowSummaries(rowSummaries);
     }, MetricRegistry.name(this.getClass(), "rollback"));
   }
 
-  private String stringifyRowCount(int size) {
-    if (size < ELASTIC_MAX_PAGE_SIZE) {
-      return String.valueOf(size);
-    } else {
-      return "at least " + size;
-    }
+  /**
+   * Aspects from other runs that exist on the entities whose key aspect is rolled back, counted across the pages of
+   * a rollback.
+   */
+  private static class AffectedAspects {
+    private long count = 0;
+    private long unsafeEntitiesCount = 0;
+    private final UnsafeEntityInfoArray unsafeEntities = new UnsafeEntityInfoArray();
   }
 
-  private void sleep(Integer seconds) {
-    try {
-      TimeUnit.SECONDS.sleep(seconds);
-    } catch (InterruptedException e) {
-      e.printStackTrace();
+  /**
+   * Adds the aspects from other runs that exist on the entities whose key aspect is among the given rows, looking the
+   * rows of these entities up in batches.
+   */
+  private void computeAffectedAspects(@Nonnull String runId, @Nonnull List<AspectRowSummary> rows,
+      @Nonnull AffectedAspects affectedAspects) {
+    final List<String> keyAspectUrns =
+        rows.stream().filter(AspectRowSummary::isKeyAspect).map(AspectRowSummary::getUrn).collect(Collectors.toList());
+    for (List<String> urns : Lists.partition(keyAspectUrns, URN_BATCH_SIZE)) {
+      AspectRowSummary lastRow = null;
+      String lastUnsafeUrn = null;
+      List<AspectRowSummary> page;
+      do {
+        page = _systemMetadataService.scrollByUrns(urns, false, lastRow, ELASTIC_MAX_PAGE_SIZE);
+        for (AspectRowSummary row : page) {
+          if (!row.getRunId().equals(runId) && !row.isKeyAspect() && !row.getAspectName()
+              .equals(Constants.STATUS_ASPECT_NAME)) {
+            affectedAspects.count++;
+            // Rows are ordered by urn, and each urn has a single key aspect, so an unsafe urn is only seen once
+            if (!row.getUrn().equals(lastUnsafeUrn)) {
+              lastUnsafeUrn = row.getUrn();
+              affectedAspects.unsafeEntitiesCount++;
+              // Return at most 1 million rows
+              if (affectedAspects.unsafeEntities.size() < DEFAULT_UNSAFE_ENTITIES_PAGE_SIZE) {
+                affectedAspects.unsafeEntities.add(new UnsafeEntityInfo().setUrn(row.getUrn()));
+              }
+            }
+          }
+          lastRow = row;
+        }
+      } while (page.size() == ELASTIC_MAX_PAGE_SIZE);
     }
   }
 
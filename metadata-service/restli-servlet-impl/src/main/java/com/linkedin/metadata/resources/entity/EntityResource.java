@@ -17,8 +17,11 @@ import com.linkedin.metadata.event.EventProducer;
 import com.linkedin.metadata.graph.GraphService;
 import com.linkedin.metadata.graph.LineageDirection;
 import com.linkedin.metadata.query.AutoCompleteResult;
+import com.linkedin.metadata.query.AutoCompleteResultMap;
+import com.linkedin.metadata.query.AutoCompleteResults;
 import com.linkedin.metadata.query.ListResult;
 import com.linkedin.metadata.query.ListUrnsResult;
+import com.linkedin.metadata.query.ScrollUrnsResult;
 import com.linkedin.metadata.query.filter.Filter;
 import com.linkedin.metadata.query.filter.SortCriterion;
 import com.linkedin.metadata.restli.RestliUtil;
@@ -30,6 +33,7 @@ import com.linkedin.metadata.run.RollbackResponse;
 import com.linkedin.metadata.search.EntitySearchService;
 import com.linkedin.metadata.search.LineageSearchResult;
 import com.linkedin.metadata.search.LineageSearchService;
+import com.linkedin.metadata.search.ScrollResult;
 import com.linkedin.metadata.search.SearchEntity;
 import com.linkedin.metadata.search.SearchResult;
 import com.linkedin.metadata.search.SearchService;
@@ -81,13 +85,17 @@ public class EntityResource extends CollectionResourceTaskTemplate<String, Entit
   private static final String ACTION_LIST = "list";
   private static final String ACTION_SEARCH_ACROSS_ENTITIES = "searchAcrossEntities";
   private static final String ACTION_SEARCH_ACROSS_LINEAGE = "searchAcrossLineage";
+  private static final String ACTION_SCROLL_ACROSS_ENTITIES = "scrollAcrossEntities";
+  private static final String ACTION_AUTOCOMPLETE_ACROSS_ENTITIES = "autocompleteAcrossEntities";
   private static final String ACTION_BATCH_INGEST = "batchIngest";
   private static final String ACTION_LIST_URNS = "listUrns";
+  private static final String ACTION_SCROLL_URNS = "scrollUrns";
   private static final String ACTION_FILTER = "filter";
   private static final String PARAM_ENTITY = "entity";
   private static final String PARAM_ENTITIES = "entities";
   private static final String PARAM_COUNT = "count";
   private static final String PARAM_VALUE = "value";
+  private static final String PARAM_SCROLL_ID = "scrollId";
   private static final String SYSTEM_METADATA = "systemMetadata";
 
   private final Clock _clock = Clock.systemUTC();
@@ -268,6 +276,18 @@ public class EntityResource extends CollectionResourceTaskTemplate<String, Entit
         "searchAcrossEntities");
   }
 
+  @Action(name = ACTION_SCROLL_ACROSS_ENTITIES)
+  @Nonnull
+  @WithSpan
+  public Task<ScrollResult> scrollAcrossEntities(@ActionParam(PARAM_ENTITIES) @Optional @Nullable String[] entities,
+      @ActionParam(PARAM_INPUT) @Nonnull String input, @ActionParam(PARAM_FILTER) @Optional @Nullable Filter filter,
+      @ActionParam(PARAM_SCROLL_ID) @Optional @Nullable String scrollId, @ActionParam(PARAM_COUNT) int count) {
+    List<String> entityList = entities == null ? Collections.emptyList() : Arrays.asList(entities);
+    log.info("GET SCROLL RESULTS ACROSS ENTITIES for {} with query {}", entityList, input);
+    return RestliUtil.toTask(() -> _searchService.scrollAcrossEntities(entityList, input, filter, scrollId, count),
+        "scrollAcrossEntities");
+  }
+
   @Action(name = ACTION_SEARCH_ACROSS_LINEAGE)
   @Nonnull
   @WithSpan
@@ -311,6 +331,19 @@ public class EntityResource extends CollectionResourceTaskTemplate<String, Entit
         MetricRegistry.name(this.getClass(), "autocomplete"));
   }
 
+  @Action(name = ACTION_AUTOCOMPLETE_ACROSS_ENTITIES)
+  @Nonnull
+  @WithSpan
+  public Task<AutoCompleteResults> autocompleteAcrossEntities(
+      @ActionParam(PARAM_ENTITIES) @Optional @Nullable String[] entities,
+      @ActionParam(PARAM_QUERY) @Nonnull String query, @ActionParam(PARAM_FILTER) @Optional @Nullable Filter filter,
+      @ActionParam(PARAM_LIMIT) int limit) {
+    List<String> entityList = entities == null ? Collections.emptyList() : Arrays.asList(entities);
+    return RestliUtil.toTask(() -> new AutoCompleteResults().setResults(
+        new AutoCompleteResultMap(_searchService.autoCompleteAcrossEntities(entityList, query, filter, limit))),
+        MetricRegistry.name(this.getClass(), "autocompleteAcrossEntities"));
+  }
+
   @Action(name = ACTION_BROWSE)
   @Nonnull
   @WithSpan
@@ -458,6 +491,15 @@ public class EntityResource extends CollectionResourceTaskTemplate<String, Entit
     return RestliUtil.toTask(() -> _entityService.listUrns(entityName, start, count), "listUrns");
   }
 
+  @Action(name = ACTION_SCROLL_URNS)
+  @Nonnull
+  @WithSpan
+  public Task<ScrollUrnsResult> scrollUrns(@ActionParam(PARAM_ENTITY) @Nonnull String entityName,
+      @ActionParam(PARAM_SCROLL_ID) @Optional @Nullable String scrollId, @ActionParam(PARAM_COUNT) int count) {
+    log.info("SCROLL URNS for {} with scrollId {} and count {}", entityName, scrollId, count);
+    return RestliUtil.toTask(() -> _entityService.scrollUrns(entityName, scrollId, count), "scrollUrns");
+  }
+
   public static ListResult toListResult(final SearchResult searchResult) {
     if (searchResult == null) {
       return null;
@@ -4,6 +4,7 @@ import com.codahale.metrics.MetricRegistry;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
 import com.linkedin.common.WindowDuration;
 import com.linkedin.common.urn.Urn;
 import com.linkedin.data.template.StringArray;
@@ -45,10 +46,13 @@ import com.linkedin.usage.UsageQueryResultAggregations;
 import com.linkedin.usage.UsageTimeRange;
 import com.linkedin.usage.UserUsageCounts;
 import com.linkedin.usage.UserUsageCountsArray;
+import com.linkedin.util.Pair;
 import io.opentelemetry.extension.annotations.WithSpan;
 import java.net.URISyntaxException;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import javax.annotation.Nonnull;
@@ -100,8 +104,18 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
   public Task<Void> batchIngest(@ActionParam(PARAM_BUCKETS) @Nonnull UsageAggregation[] buckets) {
     log.info("Ingesting {} usage stats aggregations", buckets.length);
     return RestliUtil.toTask(() -> {
+      // Upsert the documents of all buckets at once, in as few bulk requests as possible
+      final Map<String, JsonNode> documents = new LinkedHashMap<>();
       for (UsageAggregation agg : buckets) {
-        this.ingest(agg);
+        documents.putAll(this.toDocuments(agg));
+      }
+      final Map<String, String> failures =
+          _timeseriesAspectService.upsertDocuments(USAGE_STATS_ENTITY_NAME, USAGE_STATS_ASPECT_NAME, documents);
+      if (!failures.isEmpty()) {
+        failures.forEach((docId, failure) -> log.error("Failed to ingest usage stats document {}: {}", docId, failure));
+        // Documents are upserted by id, so the whole batch can safely be retried
+        throw new RuntimeException(
+            String.format("Failed to ingest %d out of %d usage stats documents", failures.size(), documents.size()));
       }
       return null;
     }, MetricRegistry.name(this.getClass(), "batchIngest"));
@@ -124,8 +138,7 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     }
   }
 
-  private UsageAggregationArray getBuckets(@Nonnull Filter filter, @Nonnull String resource,
-      @Nonnull WindowDuration duration) {
+  private Pair<AggregationSpec[], GroupingBucket[]> getBucketsQuery(@Nonnull WindowDuration duration) {
     // NOTE: We will not populate the per-bucket userCounts and fieldCounts in this implementation because
     // (a) it is very expensive to compute the un-explode equivalent queries for timeseries field collections, and
     // (b) the equivalent data for the whole query will anyways be populated in the `aggregations` part of the results
@@ -148,13 +161,12 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
         .setType(GroupingBucketType.DATE_GROUPING_BUCKET)
         .setTimeWindowSize(new TimeWindowSize().setMultiple(1).setUnit(windowToInterval(duration)));
     GroupingBucket[] groupingBuckets = new GroupingBucket[]{timestampBucket};
+    return new Pair<>(aggregationSpecs, groupingBuckets);
+  }
 
-    // 3. Query
-    GenericTable result =
-        _timeseriesAspectService.getAggregatedStats(USAGE_STATS_ENTITY_NAME, USAGE_STATS_ASPECT_NAME, aggregationSpecs,
-            filter, groupingBuckets);
-
-    // 4. Populate buckets from the result.
+  private UsageAggregationArray toBuckets(@Nonnull GenericTable result, @Nonnull String resource,
+      @Nonnull WindowDuration duration) {
+    // Populate buckets from the result.
     UsageAggregationArray buckets = new UsageAggregationArray();
     for (StringArray row : result.getRows()) {
       UsageAggregation usageAggregation = new UsageAggregation();
@@ -194,7 +206,7 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     return buckets;
   }
 
-  private List<UserUsageCounts> getUserUsageCounts(Filter filter) {
+  private Pair<AggregationSpec[], GroupingBucket[]> getUserUsageCountsQuery() {
     // Sum aggregation on userCounts.count
     AggregationSpec sumUserCountsCountAggSpec =
         new AggregationSpec().setAggregationType(AggregationType.SUM).setFieldPath("userCounts.count");
@@ -206,11 +218,10 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     GroupingBucket userGroupingBucket =
         new GroupingBucket().setKey("userCounts.user").setType(GroupingBucketType.STRING_GROUPING_BUCKET);
     GroupingBucket[] groupingBuckets = new GroupingBucket[]{userGroupingBucket};
+    return new Pair<>(aggregationSpecs, groupingBuckets);
+  }
 
-    // Query backend
-    GenericTable result =
-        _timeseriesAspectService.getAggregatedStats(USAGE_STATS_ENTITY_NAME, USAGE_STATS_ASPECT_NAME, aggregationSpecs,
-            filter, groupingBuckets);
+  private List<UserUsageCounts> toUserUsageCounts(@Nonnull GenericTable result) {
     // Process response
     List<UserUsageCounts> userUsageCounts = new ArrayList<>();
     for (StringArray row : result.getRows()) {
@@ -235,7 +246,7 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     return userUsageCounts;
   }
 
-  private List<FieldUsageCounts> getFieldUsageCounts(Filter filter) {
+  private Pair<AggregationSpec[], GroupingBucket[]> getFieldUsageCountsQuery() {
     // Sum aggregation on fieldCounts.count
     AggregationSpec sumFieldCountAggSpec =
         new AggregationSpec().setAggregationType(AggregationType.SUM).setFieldPath("fieldCounts.count");
@@ -245,12 +256,10 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     GroupingBucket userGroupingBucket =
         new GroupingBucket().setKey("fieldCounts.fieldPath").setType(GroupingBucketType.STRING_GROUPING_BUCKET);
     GroupingBucket[] groupingBuckets = new GroupingBucket[]{userGroupingBucket};
+    return new Pair<>(aggregationSpecs, groupingBuckets);
+  }
 
-    // Query backend
-    GenericTable result =
-        _timeseriesAspectService.getAggregatedStats(USAGE_STATS_ENTITY_NAME, USAGE_STATS_ASPECT_NAME, aggregationSpecs,
-            filter, groupingBuckets);
-
+  private List<FieldUsageCounts> toFieldUsageCounts(@Nonnull GenericTable result) {
     // Process response
     List<FieldUsageCounts> fieldUsageCounts = new ArrayList<>();
     for (StringArray row : result.getRows()) {
@@ -268,13 +277,14 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     return fieldUsageCounts;
   }
 
-  private UsageQueryResultAggregations getAggregations(Filter filter) {
+  private UsageQueryResultAggregations toAggregations(@Nonnull GenericTable userResult,
+      @Nonnull GenericTable fieldResult) {
     UsageQueryResultAggregations aggregations = new UsageQueryResultAggregations();
-    List<UserUsageCounts> userUsageCounts = getUserUsageCounts(filter);
+    List<UserUsageCounts> userUsageCounts = toUserUsageCounts(userResult);
     aggregations.setUsers(new UserUsageCountsArray(userUsageCounts));
     aggregations.setUniqueUserCount(userUsageCounts.size());
 
-    List<FieldUsageCounts> fieldUsageCounts = getFieldUsageCounts(filter);
+    List<FieldUsageCounts> fieldUsageCounts = toFieldUsageCounts(fieldResult);
     aggregations.setFields(new FieldUsageCountsArray(fieldUsageCounts));
 
     return aggregations;
@@ -310,11 +320,14 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
       
       filter.setOr(new ConjunctiveCriterionArray(new ConjunctiveCriterion().setAnd(new CriterionArray(criteria))));
 
-      // 2. Get buckets.
-      UsageAggregationArray buckets = getBuckets(filter, resource, duration);
+      // 2. Get buckets and aggregations in a single round trip.
+      List<GenericTable> results =
+          _timeseriesAspectService.batchGetAggregatedStats(USAGE_STATS_ENTITY_NAME, USAGE_STATS_ASPECT_NAME,
+              ImmutableList.of(getBucketsQuery(duration), getUserUsageCountsQuery(), getFieldUsageCountsQuery()), filter);
+      UsageAggregationArray buckets = toBuckets(results.get(0), resource, duration);
 
       // 3. Get aggregations.
-      UsageQueryResultAggregations aggregations = getAggregations(filter);
+      UsageQueryResultAggregations aggregations = toAggregations(results.get(1), results.get(2));
 
       // 4. Compute totalSqlQuery count from the buckets itself.
       // We want to avoid issuing an additional query with a sum aggregation.
@@ -346,7 +359,7 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
     return this.query(resource, duration, convertRangeToStartTime(range, now), now, null);
   }
 
-  private void ingest(@Nonnull UsageAggregation bucket) {
+  private Map<String, JsonNode> toDocuments(@Nonnull UsageAggregation bucket) {
     // 1. Translate the bucket to DatasetUsageStatistics first.
     DatasetUsageStatistics datasetUsageStatistics = new DatasetUsageStatistics();
     datasetUsageStatistics.setTimestampMillis(bucket.getBucket());
@@ -390,13 +403,9 @@ public class UsageStats extends SimpleResourceTemplate<UsageAggregation> {
               null);
     } catch (JsonProcessingException e) {
       log.error("Failed to generate timeseries document from aspect: {}", e.toString());
-      return;
+      return Collections.emptyMap();
     }
-    // 3. Upsert the exploded documents to timeseries aspect service.
-    documents.entrySet().forEach(document -> {
-      _timeseriesAspectService.upsertDocument(USAGE_STATS_ENTITY_NAME, USAGE_STATS_ASPECT_NAME, document.getKey(),
-          document.getValue());
-    });
+    return documents;
   }
 
   @Nonnull
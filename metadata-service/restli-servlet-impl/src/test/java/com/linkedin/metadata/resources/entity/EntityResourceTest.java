@@ -0,0 +1,110 @@
+package com.linkedin.metadata.resources.entity;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.linkedin.common.urn.Urn;
+import com.linkedin.data.template.StringArray;
+import com.linkedin.metadata.query.AutoCompleteEntity;
+import com.linkedin.metadata.query.AutoCompleteEntityArray;
+import com.linkedin.metadata.query.AutoCompleteResult;
+import com.linkedin.metadata.query.AutoCompleteResults;
+import com.linkedin.metadata.search.SearchService;
+import com.linkedin.parseq.Engine;
+import com.linkedin.parseq.EngineBuilder;
+import com.linkedin.parseq.Task;
+import com.linkedin.restli.server.RestLiServiceException;
+import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.mockito.Mockito;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+
+public class EntityResourceTest {
+  private static final String TEST_QUERY = "test";
+  private static final Urn TEST_URN = Urn.createFromTuple("dataset", "urn:li:dataPlatform:hive", "test", "PROD");
+
+  private ExecutorService _taskExecutor;
+  private ScheduledExecutorService _timerScheduler;
+  private Engine _engine;
+  private SearchService _searchService;
+  private EntityResource _entityResource;
+
+  @BeforeClass
+  public void setupEngine() {
+    _taskExecutor = Executors.newSingleThreadExecutor();
+    _timerScheduler = Executors.newSingleThreadScheduledExecutor();
+    _engine = new EngineBuilder().setTaskExecutor(_taskExecutor).setTimerScheduler(_timerScheduler).build();
+  }
+
+  @AfterClass
+  public void shutdownEngine() {
+    _engine.shutdown();
+    _taskExecutor.shutdownNow();
+    _timerScheduler.shutdownNow();
+  }
+
+  @BeforeMethod
+  public void setup() throws Exception {
+    _searchService = Mockito.mock(SearchService.class);
+    _entityResource = new EntityResource();
+    final Field searchServiceField = EntityResource.class.getDeclaredField("_searchService");
+    searchServiceField.setAccessible(true);
+    searchServiceField.set(_entityResource, _searchService);
+  }
+
+  @Test
+  public void testAutocompleteAcrossEntities() throws Exception {
+    final AutoCompleteResult datasetResult = new AutoCompleteResult().setQuery(TEST_QUERY)
+        .setSuggestions(new StringArray(ImmutableList.of("test_dataset")))
+        .setEntities(new AutoCompleteEntityArray(ImmutableList.of(new AutoCompleteEntity().setUrn(TEST_URN))));
+    Mockito.when(_searchService.autoCompleteAcrossEntities(ImmutableList.of("dataset", "chart"), TEST_QUERY, null, 10))
+        .thenReturn(ImmutableMap.of("dataset", datasetResult));
+
+    final AutoCompleteResults results =
+        run(_entityResource.autocompleteAcrossEntities(new String[]{"dataset", "chart"}, TEST_QUERY, null, 10));
+
+    assertEquals(results.getResults().size(), 1);
+    assertEquals(results.getResults().get("dataset"), datasetResult);
+    Mockito.verify(_searchService, Mockito.times(1))
+        .autoCompleteAcrossEntities(ImmutableList.of("dataset", "chart"), TEST_QUERY, null, 10);
+    Mockito.verifyNoMoreInteractions(_searchService);
+  }
+
+  @Test
+  public void testAutocompleteAcrossEntitiesWithoutEntities() throws Exception {
+    Mockito.when(_searchService.autoCompleteAcrossEntities(Collections.emptyList(), TEST_QUERY, null, 10))
+        .thenReturn(Collections.emptyMap());
+
+    final AutoCompleteResults results =
+        run(_entityResource.autocompleteAcrossEntities(null, TEST_QUERY, null, 10));
+
+    // No entities means every searchable entity
+    assertTrue(results.getResults().isEmpty());
+    Mockito.verify(_searchService, Mockito.times(1))
+        .autoCompleteAcrossEntities(Collections.emptyList(), TEST_QUERY, null, 10);
+  }
+
+  @Test(expectedExceptions = RestLiServiceException.class)
+  public void testAutocompleteAcrossEntitiesFailure() {
+    Mockito.when(_searchService.autoCompleteAcrossEntities(ImmutableList.of("dataset"), TEST_QUERY, null, 10))
+        .thenThrow(new RuntimeException("search failed"));
+
+    _entityResource.autocompleteAcrossEntities(new String[]{"dataset"}, TEST_QUERY, null, 10);
+  }
+
+  private <T> T run(Task<T> task) throws Exception {
+    _engine.run(task);
+    task.await(10, TimeUnit.SECONDS);
+    return task.get();
+  }
+}